@@ -25,6 +25,7 @@ import java.math.BigDecimal;
 import java.util.AbstractList;
 import java.util.List;
 import java.util.RandomAccess;
+import java.util.Spliterator;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.RecursiveAction;
@@ -363,6 +364,9 @@ public final class Array1D<N extends Comparable<N>> extends AbstractList<N> impl
 
     @Override
     public N aggregateRange(final long first, final long limit, final Aggregator aggregator) {
+        if (myStep == 1L) {
+            return myDelegate.aggregateRange(this.convert(first), this.convert(limit), aggregator);
+        }
         AggregatorFunction<N> visitor = aggregator.getFunction(myDelegate.factory().aggregator());
         this.visitRange(first, limit, visitor);
         return visitor.get();
@@ -388,6 +392,15 @@ public final class Array1D<N extends Comparable<N>> extends AbstractList<N> impl
         return length;
     }
 
+    @Override
+    public Spliterator.OfDouble doubleSpliterator() {
+        if (myStep == 1L) {
+            return myDelegate.doubleSpliterator(myFirst, myLimit);
+        } else {
+            return new Access1D.DoubleSpliterator(myDelegate, myFirst, myLimit, myStep);
+        }
+    }
+
     @Override
     public double doubleValue(final long index) {
         return myDelegate.doubleValue(this.convert(index));
@@ -23,6 +23,7 @@ package org.ojalgo.array;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Spliterator;
 
 import org.ojalgo.ProgrammingError;
 import org.ojalgo.function.BinaryFunction;
@@ -463,6 +464,11 @@ public final class Array2D<N extends Comparable<N>> implements Access2D.Visitabl
         return myRowsCount;
     }
 
+    @Override
+    public Spliterator.OfDouble doubleSpliterator() {
+        return myDelegate.doubleSpliterator();
+    }
+
     @Override
     public double doubleValue(final long index) {
         return myDelegate.doubleValue(index);
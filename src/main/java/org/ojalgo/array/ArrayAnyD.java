@@ -23,6 +23,7 @@ package org.ojalgo.array;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.Spliterator;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.ojalgo.ProgrammingError;
@@ -291,6 +292,11 @@ public final class ArrayAnyD<N extends Comparable<N>> implements AccessAnyD.Visi
         return StructureAnyD.count(myStructure, dimension);
     }
 
+    @Override
+    public Spliterator.OfDouble doubleSpliterator() {
+        return myDelegate.doubleSpliterator();
+    }
+
     @Override
     public double doubleValue(final long index) {
         return myDelegate.doubleValue(index);
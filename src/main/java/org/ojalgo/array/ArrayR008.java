@@ -0,0 +1,253 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array;
+
+import java.util.Arrays;
+
+import org.ojalgo.array.operation.QuantisedOperation;
+import org.ojalgo.function.FunctionSet;
+import org.ojalgo.function.PrimitiveFunction;
+import org.ojalgo.function.aggregator.AggregatorSet;
+import org.ojalgo.function.aggregator.PrimitiveAggregator;
+import org.ojalgo.scalar.PrimitiveScalar;
+import org.ojalgo.scalar.Scalar;
+import org.ojalgo.structure.Access1D;
+import org.ojalgo.structure.Mutate1D;
+import org.ojalgo.type.math.MathType;
+
+/**
+ * A one- and/or arbitrary-dimensional array of real numbers quantised to 8 bits. The elements are divided
+ * in blocks of (by default) 64, and each block has its own scale and offset:
+ * <code>value = offsets[block] + scales[block] * (data[index] &amp; 0xFF)</code>
+ * <p>
+ * Filling the array in bulk, using one of the fillMatching methods or a factory's copy methods, quantises
+ * each block to the full range of its values. Setting individual elements is supported, but a value outside
+ * the block's current range causes that block to be re-quantised.
+ *
+ * @author apete
+ */
+public final class ArrayR008 extends QuantisedArray {
+
+    public static final int BLOCK_SIZE = 64;
+
+    public static final DenseArray.Factory<Double> FACTORY = ArrayR008.factory(BLOCK_SIZE);
+
+    private static final double LEVELS = 255.0;
+
+    public static DenseArray.Factory<Double> factory(final int blockSize) {
+
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException();
+        }
+
+        return new DenseArray.Factory<>() {
+
+            @Override
+            public AggregatorSet<Double> aggregator() {
+                return PrimitiveAggregator.getSet();
+            }
+
+            @Override
+            public FunctionSet<Double> function() {
+                return PrimitiveFunction.getSet();
+            }
+
+            @Override
+            public Scalar.Factory<Double> scalar() {
+                return PrimitiveScalar.FACTORY;
+            }
+
+            @Override
+            MathType getMathType() {
+                return MathType.R008;
+            }
+
+            @Override
+            PlainArray<Double> makeDenseArray(final long size) {
+                return new ArrayR008(this, (int) size, blockSize);
+            }
+
+        };
+    }
+
+    public static ArrayR008 make(final int size) {
+        return new ArrayR008(FACTORY, size, BLOCK_SIZE);
+    }
+
+    /**
+     * The quantised values, to be interpreted as unsigned.
+     */
+    public final byte[] data;
+    public final float[] offsets;
+    public final float[] scales;
+
+    private final int myBlockSize;
+
+    ArrayR008(final DenseArray.Factory<Double> factory, final int size, final int blockSize) {
+
+        super(factory, size);
+
+        int nbBlocks = (size + blockSize - 1) / blockSize;
+
+        data = new byte[size];
+        offsets = new float[nbBlocks];
+        scales = new float[nbBlocks];
+
+        myBlockSize = blockSize;
+    }
+
+    @Override
+    public void axpy(final double a, final Mutate1D.Modifiable<?> y) {
+        if (y instanceof ArrayR064) {
+            ArrayR064 target = (ArrayR064) y;
+            QuantisedOperation.axpy(target.data, 0, a, this, 0, 0, Math.min(data.length, target.data.length));
+        } else {
+            super.axpy(a, y);
+        }
+    }
+
+    @Override
+    public double dot(final Access1D<?> vector) {
+        if (vector instanceof ArrayR064) {
+            ArrayR064 other = (ArrayR064) vector;
+            return QuantisedOperation.dot(this, 0, other.data, 0, 0, Math.min(data.length, other.data.length));
+        } else {
+            return super.dot(vector);
+        }
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!super.equals(obj) || !(obj instanceof ArrayR008)) {
+            return false;
+        }
+        ArrayR008 other = (ArrayR008) obj;
+        return myBlockSize == other.myBlockSize && Arrays.equals(data, other.data) && Arrays.equals(offsets, other.offsets)
+                && Arrays.equals(scales, other.scales);
+    }
+
+    public int getBlockSize() {
+        return myBlockSize;
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = super.hashCode();
+        result = prime * result + Arrays.hashCode(data);
+        return prime * result + Arrays.hashCode(offsets);
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(data, (byte) 0);
+        Arrays.fill(offsets, 0F);
+        Arrays.fill(scales, 0F);
+    }
+
+    @Override
+    protected double doubleValue(final int index) {
+        int block = index / myBlockSize;
+        return offsets[block] + (double) scales[block] * (data[index] & 0xFF);
+    }
+
+    @Override
+    protected float floatValue(final int index) {
+        int block = index / myBlockSize;
+        return offsets[block] + scales[block] * (data[index] & 0xFF);
+    }
+
+    @Override
+    protected void set(final int index, final double value) {
+
+        int block = index / myBlockSize;
+        float offset = offsets[block];
+        float scale = scales[block];
+
+        double level = scale > 0F ? (value - offset) / scale : value == offset ? 0.0 : -1.0;
+
+        if (level >= -0.5 && level <= LEVELS + 0.5) {
+            data[index] = (byte) Math.min(Math.round(level), 255L);
+        } else {
+            int first = block * myBlockSize;
+            int limit = Math.min(first + myBlockSize, data.length);
+            double[] values = new double[limit - first];
+            for (int i = first; i < limit; i++) {
+                values[i - first] = this.doubleValue(i);
+            }
+            values[index - first] = value;
+            this.quantise(block, values, 0);
+        }
+    }
+
+    @Override
+    void fillMatching(final double[] values, final int limit) {
+
+        int nbBlocks = limit / myBlockSize;
+
+        for (int b = 0; b < nbBlocks; b++) {
+            this.quantise(b, values, b * myBlockSize);
+        }
+
+        int tail = nbBlocks * myBlockSize;
+
+        if (limit == data.length && tail < limit) {
+            this.quantise(nbBlocks, values, tail);
+        } else {
+            for (int i = tail; i < limit; i++) {
+                this.set(i, values[i]);
+            }
+        }
+    }
+
+    /**
+     * Quantise one (complete) block, reading its values from [values] starting at [offset].
+     */
+    private void quantise(final int block, final double[] values, final int offset) {
+
+        int first = block * myBlockSize;
+        int count = Math.min(myBlockSize, data.length - first);
+
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            double value = values[offset + i];
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        float base = (float) min;
+        float scale = (float) ((max - base) / LEVELS);
+
+        offsets[block] = base;
+        scales[block] = scale;
+
+        for (int i = 0; i < count; i++) {
+            long level = scale > 0F ? Math.round((values[offset + i] - base) / scale) : 0L;
+            data[first + i] = (byte) Math.max(0L, Math.min(level, 255L));
+        }
+    }
+
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array;
+
+import java.util.Arrays;
+
+import org.ojalgo.array.operation.QuantisedOperation;
+import org.ojalgo.function.FunctionSet;
+import org.ojalgo.function.PrimitiveFunction;
+import org.ojalgo.function.aggregator.AggregatorSet;
+import org.ojalgo.function.aggregator.PrimitiveAggregator;
+import org.ojalgo.scalar.PrimitiveScalar;
+import org.ojalgo.scalar.Scalar;
+import org.ojalgo.structure.Access1D;
+import org.ojalgo.structure.Mutate1D;
+import org.ojalgo.type.math.MathType;
+
+/**
+ * A one- and/or arbitrary-dimensional array of 16 bit floating point numbers, stored in a short. There are
+ * two formats:
+ * <ol>
+ * <li>{@link #FACTORY} – bfloat16 has the same range as float (8 exponent bits) but only 8 significant
+ * bits.
+ * <li>{@link #HALF} – IEEE 754 half precision (binary16) has 11 significant bits but a much smaller range.
+ * The largest finite value is 65504.
+ * </ol>
+ *
+ * @author apete
+ */
+public final class ArrayR016 extends QuantisedArray {
+
+    public static final DenseArray.Factory<Double> FACTORY = ArrayR016.factory(false);
+
+    public static final DenseArray.Factory<Double> HALF = ArrayR016.factory(true);
+
+    /**
+     * bfloat16 is simply the upper half of a float.
+     */
+    public static float fromBFloat16(final short bits) {
+        return Float.intBitsToFloat((bits & 0xFFFF) << 16);
+    }
+
+    public static float fromHalf(final short bits) {
+
+        int sign = (bits & 0x8000) << 16;
+        int exponent = (bits >>> 10) & 0x1F;
+        int mantissa = bits & 0x3FF;
+
+        if (exponent == 0x1F) {
+            return Float.intBitsToFloat(sign | 0x7F800000 | (mantissa << 13));
+        } else if (exponent == 0) {
+            float subnormal = mantissa * 0x1p-24F;
+            return sign != 0 ? -subnormal : subnormal;
+        } else {
+            return Float.intBitsToFloat(sign | ((exponent + 112) << 23) | (mantissa << 13));
+        }
+    }
+
+    public static ArrayR016 make(final int size) {
+        return new ArrayR016(FACTORY, new short[size], false);
+    }
+
+    /**
+     * Round to nearest, ties to even. NaN remains NaN.
+     */
+    public static short toBFloat16(final float value) {
+
+        int bits = Float.floatToRawIntBits(value);
+
+        if (Float.isNaN(value)) {
+            return (short) ((bits >>> 16) | 0x0040);
+        } else {
+            return (short) ((bits + 0x7FFF + ((bits >>> 16) & 1)) >>> 16);
+        }
+    }
+
+    /**
+     * Round to nearest, ties to even. Values too large become infinite, and values too small become zero
+     * (gradually, via the subnormal numbers).
+     */
+    public static short toHalf(final float value) {
+
+        int bits = Float.floatToRawIntBits(value);
+        int sign = (bits >>> 16) & 0x8000;
+        int magnitude = bits & 0x7FFFFFFF;
+
+        if (magnitude >= 0x7F800000) {
+            // Infinity or NaN
+            return (short) (sign | 0x7C00 | (magnitude > 0x7F800000 ? 0x0200 | ((magnitude >>> 13) & 0x3FF) : 0));
+        } else if (magnitude >= 0x477FF000) {
+            // Rounds to infinity
+            return (short) (sign | 0x7C00);
+        } else if (magnitude >= 0x38800000) {
+            // Normal
+            int rounded = magnitude + 0x0FFF + ((magnitude >>> 13) & 1);
+            return (short) (sign | ((rounded - 0x38000000) >>> 13));
+        } else if (magnitude >= 0x33000000) {
+            // Subnormal
+            int shift = 126 - (magnitude >>> 23);
+            int significand = (magnitude & 0x7FFFFF) | 0x800000;
+            int halfway = 1 << (shift - 1);
+            int remainder = significand & ((1 << shift) - 1);
+            int retVal = significand >>> shift;
+            if (remainder > halfway || (remainder == halfway && (retVal & 1) != 0)) {
+                retVal++;
+            }
+            return (short) (sign | retVal);
+        } else {
+            return (short) sign;
+        }
+    }
+
+    /**
+     * bfloat16
+     */
+    public static ArrayR016 wrap(final short... data) {
+        return new ArrayR016(FACTORY, data, false);
+    }
+
+    private static DenseArray.Factory<Double> factory(final boolean half) {
+        return new DenseArray.Factory<>() {
+
+            @Override
+            public AggregatorSet<Double> aggregator() {
+                return PrimitiveAggregator.getSet();
+            }
+
+            @Override
+            public FunctionSet<Double> function() {
+                return PrimitiveFunction.getSet();
+            }
+
+            @Override
+            public Scalar.Factory<Double> scalar() {
+                return PrimitiveScalar.FACTORY;
+            }
+
+            @Override
+            MathType getMathType() {
+                return MathType.R016;
+            }
+
+            @Override
+            PlainArray<Double> makeDenseArray(final long size) {
+                return new ArrayR016(this, new short[(int) size], half);
+            }
+
+        };
+    }
+
+    public final short[] data;
+
+    private final boolean myHalf;
+
+    ArrayR016(final DenseArray.Factory<Double> factory, final short[] data, final boolean half) {
+
+        super(factory, data.length);
+
+        this.data = data;
+        myHalf = half;
+    }
+
+    @Override
+    public void axpy(final double a, final Mutate1D.Modifiable<?> y) {
+        if (y instanceof ArrayR064) {
+            ArrayR064 target = (ArrayR064) y;
+            QuantisedOperation.axpy(target.data, 0, a, this, 0, 0, Math.min(data.length, target.data.length));
+        } else {
+            super.axpy(a, y);
+        }
+    }
+
+    @Override
+    public double dot(final Access1D<?> vector) {
+        if (vector instanceof ArrayR064) {
+            ArrayR064 other = (ArrayR064) vector;
+            return QuantisedOperation.dot(this, 0, other.data, 0, 0, Math.min(data.length, other.data.length));
+        } else {
+            return super.dot(vector);
+        }
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!super.equals(obj) || !(obj instanceof ArrayR016)) {
+            return false;
+        }
+        ArrayR016 other = (ArrayR016) obj;
+        return myHalf == other.myHalf && Arrays.equals(data, other.data);
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = super.hashCode();
+        return prime * result + Arrays.hashCode(data);
+    }
+
+    /**
+     * @return true if IEEE 754 half precision, false if bfloat16
+     */
+    public boolean isHalf() {
+        return myHalf;
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(data, (short) 0);
+    }
+
+    @Override
+    protected double doubleValue(final int index) {
+        return myHalf ? ArrayR016.fromHalf(data[index]) : ArrayR016.fromBFloat16(data[index]);
+    }
+
+    @Override
+    protected float floatValue(final int index) {
+        return myHalf ? ArrayR016.fromHalf(data[index]) : ArrayR016.fromBFloat16(data[index]);
+    }
+
+    @Override
+    protected void set(final int index, final double value) {
+        data[index] = myHalf ? ArrayR016.toHalf((float) value) : ArrayR016.toBFloat16((float) value);
+    }
+
+    @Override
+    protected void set(final int index, final float value) {
+        data[index] = myHalf ? ArrayR016.toHalf(value) : ArrayR016.toBFloat16(value);
+    }
+
+}
@@ -187,7 +187,7 @@ public class ArrayR064 extends PrimitiveArray {
     }
 
     public OfDouble spliterator() {
-        return Spliterators.spliterator(data, 0, data.length, PlainArray.CHARACTERISTICS);
+        return this.doubleSpliterator(0L, data.length);
     }
 
     public DoubleStream stream(final boolean parallel) {
@@ -341,6 +341,11 @@ public class ArrayR064 extends PrimitiveArray {
         visitor.invoke(data[index]);
     }
 
+    @Override
+    OfDouble doubleSpliterator(final long first, final long limit) {
+        return Spliterators.spliterator(data, (int) first, (int) limit, PlainArray.CHARACTERISTICS);
+    }
+
     @Override
     void modify(final long extIndex, final int intIndex, final Access1D<Double> left, final BinaryFunction<Double> function) {
         data[intIndex] = function.invoke(left.doubleValue(extIndex), data[intIndex]);
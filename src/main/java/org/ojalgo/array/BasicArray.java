@@ -21,6 +21,8 @@
  */
 package org.ojalgo.array;
 
+import java.util.Spliterator;
+
 import org.ojalgo.array.operation.AMAX;
 import org.ojalgo.array.operation.Exchange;
 import org.ojalgo.array.operation.FillAll;
@@ -154,6 +156,10 @@ public abstract class BasicArray<N extends Comparable<N>> implements Access1D<N>
         return visitor.get();
     }
 
+    public Spliterator.OfDouble doubleSpliterator() {
+        return this.doubleSpliterator(0L, this.count());
+    }
+
     @Override
     public boolean equals(final Object obj) {
         if (this == obj) {
@@ -289,6 +295,10 @@ public abstract class BasicArray<N extends Comparable<N>> implements Access1D<N>
         return new ArrayAnyD<>(this, structure);
     }
 
+    Spliterator.OfDouble doubleSpliterator(final long first, final long limit) {
+        return new Access1D.DoubleSpliterator(this, first, limit, 1L);
+    }
+
     final ArrayFactory<N, ?> factory() {
         return myFactory;
     }
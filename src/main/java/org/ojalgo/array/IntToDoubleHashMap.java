@@ -0,0 +1,290 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array;
+
+import java.util.Arrays;
+
+/**
+ * An open-addressing (linear probing) hash map from primitive int keys to primitive double values – no boxing.
+ * Keys that are not present map to 0.0, like in a sparse vector, and {@link #add(int, double)} accumulates.
+ * @author apete
+ */
+public final class IntToDoubleHashMap extends PrimitiveHash {
+
+    @FunctionalInterface
+    public interface EntryCallback {
+
+        void call(int key, double value);
+
+    }
+
+    private int[] myKeys;
+    private double[] myValues;
+    private double myZeroValue = 0.0;
+
+    public IntToDoubleHashMap() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize The number of entries expected – the table is sized to hold that many without
+     *        growing.
+     */
+    public IntToDoubleHashMap(final int expectedSize) {
+
+        super(PrimitiveHash.capacity(expectedSize));
+
+        myKeys = new int[this.capacity()];
+        myValues = new double[this.capacity()];
+    }
+
+    /**
+     * Adds to the value already mapped to the key, or puts if not already present.
+     *
+     * @return The new value
+     */
+    public double add(final int key, final double addend) {
+
+        if (key == 0) {
+            if (!this.isZero()) {
+                this.zero(true);
+                myZeroValue = 0.0;
+            }
+            return myZeroValue += addend;
+        }
+
+        int slot = this.slot(key);
+
+        if (slot >= 0) {
+            return myValues[slot] += addend;
+        } else {
+            this.insert(-(slot + 1), key, addend);
+            return addend;
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(myKeys, 0);
+        Arrays.fill(myValues, 0.0);
+        myZeroValue = 0.0;
+        this.cleared();
+    }
+
+    public boolean containsKey(final int key) {
+        return key == 0 ? this.isZero() : this.slot(key) >= 0;
+    }
+
+    /**
+     * Calls back with each of the entries, in no particular order.
+     */
+    public void forEach(final EntryCallback callback) {
+        if (this.isZero()) {
+            callback.call(0, myZeroValue);
+        }
+        int[] keys = myKeys;
+        double[] values = myValues;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                callback.call(keys[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * @return The value mapped to the key, or 0.0 if not present
+     */
+    public double get(final int key) {
+        return this.get(key, 0.0);
+    }
+
+    public double get(final int key, final double defaultValue) {
+
+        if (key == 0) {
+            return this.isZero() ? myZeroValue : defaultValue;
+        }
+
+        int slot = this.slot(key);
+
+        return slot >= 0 ? myValues[slot] : defaultValue;
+    }
+
+    /**
+     * @return A copy of the keys, in the same order as {@link #values()} and {@link #forEach(EntryCallback)}.
+     */
+    public ArrayZ032 keys() {
+
+        int[] retVal = new int[this.size()];
+
+        int index = 0;
+        if (this.isZero()) {
+            retVal[index++] = 0;
+        }
+        for (int key : myKeys) {
+            if (key != 0) {
+                retVal[index++] = key;
+            }
+        }
+
+        return ArrayZ032.wrap(retVal);
+    }
+
+    /**
+     * @return The previous value mapped to the key, or 0.0 if not present
+     */
+    public double put(final int key, final double value) {
+
+        if (key == 0) {
+            double retVal = this.isZero() ? myZeroValue : 0.0;
+            this.zero(true);
+            myZeroValue = value;
+            return retVal;
+        }
+
+        int slot = this.slot(key);
+
+        if (slot >= 0) {
+            double retVal = myValues[slot];
+            myValues[slot] = value;
+            return retVal;
+        } else {
+            this.insert(-(slot + 1), key, value);
+            return 0.0;
+        }
+    }
+
+    /**
+     * @return The value that was mapped to the key, or 0.0 if not present
+     */
+    public double remove(final int key) {
+
+        if (key == 0) {
+            double retVal = this.isZero() ? myZeroValue : 0.0;
+            this.zero(false);
+            myZeroValue = 0.0;
+            return retVal;
+        }
+
+        int slot = this.slot(key);
+
+        if (slot < 0) {
+            return 0.0;
+        }
+
+        double retVal = myValues[slot];
+
+        int[] keys = myKeys;
+        double[] values = myValues;
+        int mask = this.mask();
+
+        int gap = slot;
+        for (int i = (gap + 1) & mask; keys[i] != 0; i = (i + 1) & mask) {
+            if (PrimitiveHash.shift(PrimitiveHash.hash(keys[i]) & mask, gap, i, mask)) {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        keys[gap] = 0;
+        values[gap] = 0.0;
+
+        this.removed();
+
+        return retVal;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        this.forEach((k, v) -> {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(k).append('=').append(v);
+        });
+        return builder.append('}').toString();
+    }
+
+    /**
+     * @return A copy of the values, in the same order as {@link #keys()} and {@link #forEach(EntryCallback)}.
+     */
+    public ArrayR064 values() {
+
+        double[] retVal = new double[this.size()];
+
+        int index = 0;
+        if (this.isZero()) {
+            retVal[index++] = myZeroValue;
+        }
+        for (int i = 0; i < myKeys.length; i++) {
+            if (myKeys[i] != 0) {
+                retVal[index++] = myValues[i];
+            }
+        }
+
+        return ArrayR064.wrap(retVal);
+    }
+
+    private void insert(final int slot, final int key, final double value) {
+
+        myKeys[slot] = key;
+        myValues[slot] = value;
+
+        if (this.added()) {
+
+            int[] keys = myKeys;
+            double[] values = myValues;
+
+            int capacity = 2 * keys.length;
+            this.resized(capacity);
+            myKeys = new int[capacity];
+            myValues = new double[capacity];
+
+            int mask = this.mask();
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != 0) {
+                    int j = PrimitiveHash.hash(keys[i]) & mask;
+                    while (myKeys[j] != 0) {
+                        j = (j + 1) & mask;
+                    }
+                    myKeys[j] = keys[i];
+                    myValues[j] = values[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The slot of the key if present, otherwise -(insertion slot + 1)
+     */
+    private int slot(final int key) {
+        int[] keys = myKeys;
+        int mask = this.mask();
+        for (int i = PrimitiveHash.hash(key) & mask;; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return i;
+            } else if (keys[i] == 0) {
+                return -(i + 1);
+            }
+        }
+    }
+
+}
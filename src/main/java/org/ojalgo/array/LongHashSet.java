@@ -0,0 +1,201 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * An open-addressing (linear probing) hash set of primitive long keys – no boxing.
+ *
+ * @author apete
+ */
+public final class LongHashSet extends PrimitiveHash {
+
+    private long[] myKeys;
+
+    public LongHashSet() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize The number of keys expected – the table is sized to hold that many without
+     *        growing.
+     */
+    public LongHashSet(final int expectedSize) {
+
+        super(PrimitiveHash.capacity(expectedSize));
+
+        myKeys = new long[this.capacity()];
+    }
+
+    /**
+     * @return true if the key was added, false if it was already present
+     */
+    public boolean add(final long key) {
+
+        if (key == 0L) {
+            boolean retVal = !this.isZero();
+            this.zero(true);
+            return retVal;
+        }
+
+        int slot = this.slot(key);
+
+        if (slot >= 0) {
+            return false;
+        } else {
+            this.insert(-(slot + 1), key);
+            return true;
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(myKeys, 0L);
+        this.cleared();
+    }
+
+    public boolean contains(final long key) {
+        return key == 0L ? this.isZero() : this.slot(key) >= 0;
+    }
+
+    /**
+     * Calls back with each of the keys, in no particular order.
+     */
+    public void forEach(final LongConsumer callback) {
+        if (this.isZero()) {
+            callback.accept(0L);
+        }
+        for (long key : myKeys) {
+            if (key != 0L) {
+                callback.accept(key);
+            }
+        }
+    }
+
+    /**
+     * @return A copy of the keys, in the same order as {@link #forEach(LongConsumer)}.
+     */
+    public ArrayZ064 keys() {
+
+        long[] retVal = new long[this.size()];
+
+        int index = 0;
+        if (this.isZero()) {
+            retVal[index++] = 0L;
+        }
+        for (long key : myKeys) {
+            if (key != 0L) {
+                retVal[index++] = key;
+            }
+        }
+
+        return ArrayZ064.wrap(retVal);
+    }
+
+    /**
+     * @return true if the key was present (and removed)
+     */
+    public boolean remove(final long key) {
+
+        if (key == 0L) {
+            boolean retVal = this.isZero();
+            this.zero(false);
+            return retVal;
+        }
+
+        int slot = this.slot(key);
+
+        if (slot < 0) {
+            return false;
+        }
+
+        long[] keys = myKeys;
+        int mask = this.mask();
+
+        int gap = slot;
+        for (int i = (gap + 1) & mask; keys[i] != 0L; i = (i + 1) & mask) {
+            if (PrimitiveHash.shift(PrimitiveHash.hash(keys[i]) & mask, gap, i, mask)) {
+                keys[gap] = keys[i];
+                gap = i;
+            }
+        }
+        keys[gap] = 0L;
+
+        this.removed();
+
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        this.forEach(k -> {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(k);
+        });
+        return builder.append(']').toString();
+    }
+
+    private void insert(final int slot, final long key) {
+
+        myKeys[slot] = key;
+
+        if (this.added()) {
+
+            long[] keys = myKeys;
+
+            int capacity = 2 * keys.length;
+            this.resized(capacity);
+            myKeys = new long[capacity];
+
+            int mask = this.mask();
+            for (long existing : keys) {
+                if (existing != 0L) {
+                    int j = PrimitiveHash.hash(existing) & mask;
+                    while (myKeys[j] != 0L) {
+                        j = (j + 1) & mask;
+                    }
+                    myKeys[j] = existing;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The slot of the key if present, otherwise -(insertion slot + 1)
+     */
+    private int slot(final long key) {
+        long[] keys = myKeys;
+        int mask = this.mask();
+        for (int i = PrimitiveHash.hash(key) & mask;; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return i;
+            } else if (keys[i] == 0L) {
+                return -(i + 1);
+            }
+        }
+    }
+
+}
@@ -21,7 +21,7 @@
  */
 package org.ojalgo.array;
 
-import java.util.function.LongFunction;
+import java.util.Objects;
 
 import org.ojalgo.function.BinaryFunction;
 import org.ojalgo.function.FunctionSet;
@@ -43,20 +43,75 @@ import org.ojalgo.type.math.MathType;
  * When just instantiated these array classes contain uninitialized memory – memory is allocated but not
  * initialized. To initialize call {@link #reset()}. Explicit initialization is only necessary if your code
  * depends on having zeros as the default/initial value.
+ * <p>
+ * The memory is (cache line) aligned and, by default, freed when the array is garbage collected. To free it
+ * deterministically create the arrays within an {@link Arena}. There is no {@link Integer#MAX_VALUE} size
+ * limit. Wrap an array in an {@link Array2D} to have a matrix (with more than 2<sup>31</sup> elements) that
+ * can be handed to {@link org.ojalgo.matrix.store.PhysicalStore.Factory#makeWrapper(org.ojalgo.structure.Access2D)}.
  *
  * @author apete
  */
 public abstract class OffHeapArray extends DenseArray<Double> {
 
+    /**
+     * Off heap memory allocated within an arena is freed when the arena is closed, rather than when the
+     * arrays are garbage collected. All arrays created using the arena's factories are allocated within that
+     * arena, and must not be used after it is closed – doing so throws an {@link IllegalStateException}.
+     */
+    public static final class Arena implements AutoCloseable {
+
+        private boolean myClosed = false;
+        private final AutoCloseable myScope;
+
+        Arena() {
+            super();
+            myScope = OffHeapSegment.newScope();
+        }
+
+        /**
+         * Frees the memory. Closing an already closed arena does nothing.
+         */
+        public synchronized void close() {
+            if (!myClosed) {
+                myClosed = true;
+                try {
+                    myScope.close();
+                } catch (Exception cause) {
+                    throw new RuntimeException(cause);
+                }
+            }
+        }
+
+        /**
+         * @param type One of {@link OffHeapArray#R032}, {@link OffHeapArray#R064}, {@link OffHeapArray#Z008},
+         *        {@link OffHeapArray#Z016}, {@link OffHeapArray#Z032} or {@link OffHeapArray#Z064}
+         * @return A factory creating arrays of that type, allocated within this arena
+         */
+        public DenseArray.Factory<Double> factory(final DenseArray.Factory<Double> type) {
+            if (type instanceof Factory) {
+                return ((Factory) type).newScoped(myScope);
+            } else {
+                throw new IllegalArgumentException("Not an OffHeapArray factory!");
+            }
+        }
+
+    }
+
     static final class Factory extends DenseArray.Factory<Double> {
 
-        private final LongFunction<OffHeapArray> myConstructor;
+        private final OffHeapConstructor myConstructor;
         private final MathType myMathType;
+        private final AutoCloseable myScope;
 
-        Factory(final MathType mathType, final LongFunction<OffHeapArray> constructor) {
+        Factory(final MathType mathType, final OffHeapConstructor constructor) {
+            this(mathType, constructor, null);
+        }
+
+        Factory(final MathType mathType, final OffHeapConstructor constructor, final AutoCloseable scope) {
             super();
             myMathType = mathType;
             myConstructor = constructor;
+            myScope = scope;
         }
 
         @Override
@@ -71,7 +126,7 @@ public abstract class OffHeapArray extends DenseArray<Double> {
 
         @Override
         public DenseArray<Double> makeDenseArray(final long size) {
-            return myConstructor.apply(size);
+            return myConstructor.newInstance(this, size);
         }
 
         @Override
@@ -79,6 +134,10 @@ public abstract class OffHeapArray extends DenseArray<Double> {
             return PrimitiveScalar.FACTORY;
         }
 
+        OffHeapSegment allocate(final Object owner, final long count) {
+            return OffHeapSegment.allocate(owner, myScope, count, myMathType.getTotalMemory());
+        }
+
         @Override
         long getCapacityLimit() {
             return Long.MAX_VALUE;
@@ -89,6 +148,17 @@ public abstract class OffHeapArray extends DenseArray<Double> {
             return myMathType;
         }
 
+        Factory newScoped(final AutoCloseable scope) {
+            return new Factory(myMathType, myConstructor, scope);
+        }
+
+    }
+
+    @FunctionalInterface
+    interface OffHeapConstructor {
+
+        OffHeapArray newInstance(OffHeapArray.Factory factory, long count);
+
     }
 
     public static final DenseArray.Factory<Double> R032 = new Factory(MathType.R032, OffHeapR032::new);
@@ -114,7 +184,7 @@ public abstract class OffHeapArray extends DenseArray<Double> {
      */
     @Deprecated
     public static OffHeapArray makeNative32(final long count) {
-        return new OffHeapR032(count);
+        return new OffHeapR032((Factory) R032, count);
     }
 
     /**
@@ -122,7 +192,14 @@ public abstract class OffHeapArray extends DenseArray<Double> {
      */
     @Deprecated
     public static OffHeapArray makeNative64(final long count) {
-        return new OffHeapR064(count);
+        return new OffHeapR064((Factory) R064, count);
+    }
+
+    /**
+     * Remember to close it!
+     */
+    public static Arena newArena() {
+        return new Arena();
     }
 
     private final long myCount;
@@ -158,6 +235,56 @@ public abstract class OffHeapArray extends DenseArray<Double> {
         this.set(index, this.byteValue(index) + addend);
     }
 
+    /**
+     * Bulk copy from a heap array.
+     *
+     * @param source The heap array to copy from
+     * @param offset The first heap array index to copy
+     * @param first The first index (in this array) to copy to
+     * @param count The number of elements to copy
+     */
+    public void copyFrom(final double[] source, final int offset, final long first, final int count) {
+        this.checkBulk(first, count, offset, source.length);
+        for (int i = 0; i < count; i++) {
+            this.set(first + i, source[offset + i]);
+        }
+    }
+
+    /**
+     * @see #copyFrom(double[], int, long, int)
+     */
+    public void copyFrom(final float[] source, final int offset, final long first, final int count) {
+        this.checkBulk(first, count, offset, source.length);
+        for (int i = 0; i < count; i++) {
+            this.set(first + i, source[offset + i]);
+        }
+    }
+
+    /**
+     * Bulk copy to a heap array.
+     *
+     * @param first The first index (in this array) to copy
+     * @param destination The heap array to copy to
+     * @param offset The first heap array index to copy to
+     * @param count The number of elements to copy
+     */
+    public void copyTo(final long first, final double[] destination, final int offset, final int count) {
+        this.checkBulk(first, count, offset, destination.length);
+        for (int i = 0; i < count; i++) {
+            destination[offset + i] = this.doubleValue(first + i);
+        }
+    }
+
+    /**
+     * @see #copyTo(long, double[], int, int)
+     */
+    public void copyTo(final long first, final float[] destination, final int offset, final int count) {
+        this.checkBulk(first, count, offset, destination.length);
+        for (int i = 0; i < count; i++) {
+            destination[offset + i] = this.floatValue(first + i);
+        }
+    }
+
     public final long count() {
         return myCount;
     }
@@ -209,6 +336,17 @@ public abstract class OffHeapArray extends DenseArray<Double> {
         }
     }
 
+    /**
+     * Bulk copies go straight to/from native memory without any bounds checks, so the ranges in both this
+     * array and the heap array are verified first.
+     */
+    final void checkBulk(final long first, final int count, final int offset, final int length) {
+        Objects.checkFromIndexSize(offset, count, length);
+        if (first < 0L || first > myCount - count) {
+            throw new IndexOutOfBoundsException("Range [" + first + ", " + first + " + " + count + ") out of bounds for length " + myCount);
+        }
+    }
+
     @Override
     void modify(final long extIndex, final int intIndex, final Access1D<Double> left, final BinaryFunction<Double> function) {
         this.set(intIndex, function.invoke(left.doubleValue(extIndex), this.doubleValue(intIndex)));
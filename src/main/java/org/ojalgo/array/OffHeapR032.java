@@ -22,34 +22,45 @@
 package org.ojalgo.array;
 
 import org.ojalgo.scalar.Scalar;
-import org.ojalgo.type.NativeMemory;
 
 final class OffHeapR032 extends OffHeapArray {
 
-    private final long myPointer;
+    private final OffHeapSegment mySegment;
 
-    OffHeapR032(final long count) {
+    OffHeapR032(final OffHeapArray.Factory factory, final long count) {
 
-        super(OffHeapArray.R032, count);
+        super(factory, count);
 
-        myPointer = NativeMemory.allocateFloatArray(this, count);
+        mySegment = factory.allocate(this, count);
     }
 
     public void add(final long index, final Comparable<?> addend) {
         this.add(index, Scalar.floatValue(addend));
     }
 
+    @Override
+    public void copyFrom(final float[] source, final int offset, final long first, final int count) {
+        this.checkBulk(first, count, offset, source.length);
+        mySegment.setFloats(first, source, offset, count);
+    }
+
+    @Override
+    public void copyTo(final long first, final float[] destination, final int offset, final int count) {
+        this.checkBulk(first, count, offset, destination.length);
+        mySegment.getFloats(first, destination, offset, count);
+    }
+
     public double doubleValue(final long index) {
-        return NativeMemory.getFloat(myPointer, index);
+        return mySegment.getFloat(index);
     }
 
     public float floatValue(final long index) {
-        return NativeMemory.getFloat(myPointer, index);
+        return mySegment.getFloat(index);
     }
 
     @Override
     public void reset() {
-        NativeMemory.initialiseFloatArray(myPointer, this.count());
+        mySegment.clear();
     }
 
     public void set(final long index, final Comparable<?> value) {
@@ -57,11 +68,11 @@ final class OffHeapR032 extends OffHeapArray {
     }
 
     public void set(final long index, final double value) {
-        NativeMemory.setFloat(myPointer, index, (float) value);
+        mySegment.setFloat(index, (float) value);
     }
 
     public void set(final long index, final float value) {
-        NativeMemory.setFloat(myPointer, index, value);
+        mySegment.setFloat(index, value);
     }
 
 }
@@ -22,34 +22,45 @@
 package org.ojalgo.array;
 
 import org.ojalgo.scalar.Scalar;
-import org.ojalgo.type.NativeMemory;
 
 final class OffHeapR064 extends OffHeapArray {
 
-    private final long myPointer;
+    private final OffHeapSegment mySegment;
 
-    OffHeapR064(final long count) {
+    OffHeapR064(final OffHeapArray.Factory factory, final long count) {
 
-        super(OffHeapArray.R064, count);
+        super(factory, count);
 
-        myPointer = NativeMemory.allocateDoubleArray(this, count);
+        mySegment = factory.allocate(this, count);
     }
 
     public void add(final long index, final Comparable<?> addend) {
         this.add(index, Scalar.doubleValue(addend));
     }
 
+    @Override
+    public void copyFrom(final double[] source, final int offset, final long first, final int count) {
+        this.checkBulk(first, count, offset, source.length);
+        mySegment.setDoubles(first, source, offset, count);
+    }
+
+    @Override
+    public void copyTo(final long first, final double[] destination, final int offset, final int count) {
+        this.checkBulk(first, count, offset, destination.length);
+        mySegment.getDoubles(first, destination, offset, count);
+    }
+
     public double doubleValue(final long index) {
-        return NativeMemory.getDouble(myPointer, index);
+        return mySegment.getDouble(index);
     }
 
     public float floatValue(final long index) {
-        return (float) NativeMemory.getDouble(myPointer, index);
+        return (float) mySegment.getDouble(index);
     }
 
     @Override
     public void reset() {
-        NativeMemory.initialiseDoubleArray(myPointer, this.count());
+        mySegment.clear();
     }
 
     public void set(final long index, final Comparable<?> value) {
@@ -57,11 +68,11 @@ final class OffHeapR064 extends OffHeapArray {
     }
 
     public void set(final long index, final double value) {
-        NativeMemory.setDouble(myPointer, index, value);
+        mySegment.setDouble(index, value);
     }
 
     public void set(final long index, final float value) {
-        NativeMemory.setDouble(myPointer, index, value);
+        mySegment.setDouble(index, value);
     }
 
 }
@@ -0,0 +1,193 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.ojalgo.type.NativeMemory;
+
+/**
+ * The off heap memory of an {@link OffHeapArray}. This (base) version is implemented using
+ * {@link NativeMemory} (<code>sun.misc.Unsafe</code>). With Java 22+ the multi-release jar contains an
+ * alternative implementation based on <code>java.lang.foreign.MemorySegment</code>.
+ * <p>
+ * The memory is aligned to {@link #ALIGNMENT} bytes. If no arena (scope) is given it is freed when the owner
+ * is garbage collected, otherwise when the arena is closed. Accessing memory after its arena has been closed
+ * throws an {@link IllegalStateException} – the same as with the Java 22+ version. (Closing an arena while
+ * other threads are still accessing its memory is not safe.)
+ *
+ * @author apete
+ */
+final class OffHeapSegment {
+
+    static final class Scope implements AutoCloseable {
+
+        private volatile boolean myClosed = false;
+        private final List<Long> myPointers = new ArrayList<>();
+
+        public synchronized void close() {
+            if (!myClosed) {
+                myClosed = true;
+                for (Long pointer : myPointers) {
+                    NativeMemory.free(pointer.longValue());
+                }
+                myPointers.clear();
+            }
+        }
+
+        synchronized long allocate(final long bytes) {
+            if (myClosed) {
+                throw new IllegalStateException("Already closed!");
+            }
+            long pointer = NativeMemory.allocate(bytes);
+            myPointers.add(Long.valueOf(pointer));
+            return pointer;
+        }
+
+        boolean isClosed() {
+            return myClosed;
+        }
+
+    }
+
+    /**
+     * Cache line size, and enough for the widest (512-bit) SIMD registers.
+     */
+    static final long ALIGNMENT = 64L;
+
+    static OffHeapSegment allocate(final Object owner, final AutoCloseable scope, final long count, final long elementSize) {
+
+        long bytes = count * elementSize + ALIGNMENT;
+
+        Scope arena = scope instanceof Scope ? (Scope) scope : null;
+
+        long pointer;
+        if (arena != null) {
+            pointer = arena.allocate(bytes);
+        } else {
+            pointer = NativeMemory.allocateByteArray(owner, bytes);
+        }
+
+        long aligned = (pointer + ALIGNMENT - 1L) & -ALIGNMENT;
+
+        return new OffHeapSegment(arena, aligned, count * elementSize);
+    }
+
+    static AutoCloseable newScope() {
+        return new Scope();
+    }
+
+    private final long myBytes;
+    private final long myPointer;
+    private final Scope myScope;
+
+    private OffHeapSegment(final Scope scope, final long pointer, final long bytes) {
+        super();
+        myScope = scope;
+        myPointer = pointer;
+        myBytes = bytes;
+    }
+
+    void clear() {
+        NativeMemory.initialiseByteArray(this.pointer(), myBytes);
+    }
+
+    byte getByte(final long index) {
+        return NativeMemory.getByte(this.pointer(), index);
+    }
+
+    double getDouble(final long index) {
+        return NativeMemory.getDouble(this.pointer(), index);
+    }
+
+    void getDoubles(final long index, final double[] destination, final int offset, final int count) {
+        NativeMemory.getDoubles(this.pointer(), index, destination, offset, count);
+    }
+
+    float getFloat(final long index) {
+        return NativeMemory.getFloat(this.pointer(), index);
+    }
+
+    void getFloats(final long index, final float[] destination, final int offset, final int count) {
+        NativeMemory.getFloats(this.pointer(), index, destination, offset, count);
+    }
+
+    int getInt(final long index) {
+        return NativeMemory.getInt(this.pointer(), index);
+    }
+
+    long getLong(final long index) {
+        return NativeMemory.getLong(this.pointer(), index);
+    }
+
+    short getShort(final long index) {
+        return NativeMemory.getShort(this.pointer(), index);
+    }
+
+    boolean isAligned() {
+        return myPointer % ALIGNMENT == 0L;
+    }
+
+    /**
+     * The (aligned) address, once it is verified that the memory has not been freed by closing its arena.
+     */
+    private long pointer() {
+        if (myScope != null && myScope.isClosed()) {
+            throw new IllegalStateException("Already closed!");
+        }
+        return myPointer;
+    }
+
+    void setByte(final long index, final byte value) {
+        NativeMemory.setByte(this.pointer(), index, value);
+    }
+
+    void setDouble(final long index, final double value) {
+        NativeMemory.setDouble(this.pointer(), index, value);
+    }
+
+    void setDoubles(final long index, final double[] source, final int offset, final int count) {
+        NativeMemory.setDoubles(this.pointer(), index, source, offset, count);
+    }
+
+    void setFloat(final long index, final float value) {
+        NativeMemory.setFloat(this.pointer(), index, value);
+    }
+
+    void setFloats(final long index, final float[] source, final int offset, final int count) {
+        NativeMemory.setFloats(this.pointer(), index, source, offset, count);
+    }
+
+    void setInt(final long index, final int value) {
+        NativeMemory.setInt(this.pointer(), index, value);
+    }
+
+    void setLong(final long index, final long value) {
+        NativeMemory.setLong(this.pointer(), index, value);
+    }
+
+    void setShort(final long index, final short value) {
+        NativeMemory.setShort(this.pointer(), index, value);
+    }
+
+}
@@ -22,17 +22,16 @@
 package org.ojalgo.array;
 
 import org.ojalgo.scalar.Scalar;
-import org.ojalgo.type.NativeMemory;
 
 final class OffHeapZ008 extends OffHeapArray {
 
-    private final long myPointer;
+    private final OffHeapSegment mySegment;
 
-    OffHeapZ008(final long count) {
+    OffHeapZ008(final OffHeapArray.Factory factory, final long count) {
 
-        super(OffHeapArray.Z008, count);
+        super(factory, count);
 
-        myPointer = NativeMemory.allocateByteArray(this, count);
+        mySegment = factory.allocate(this, count);
     }
 
     public void add(final long index, final Comparable<?> addend) {
@@ -40,20 +39,20 @@ final class OffHeapZ008 extends OffHeapArray {
     }
 
     public byte byteValue(final long index) {
-        return NativeMemory.getByte(myPointer, index);
+        return mySegment.getByte(index);
     }
 
     public double doubleValue(final long index) {
-        return NativeMemory.getByte(myPointer, index);
+        return mySegment.getByte(index);
     }
 
     @Override
     public void reset() {
-        NativeMemory.initialiseByteArray(myPointer, this.count());
+        mySegment.clear();
     }
 
     public void set(final long index, final byte value) {
-        NativeMemory.setByte(myPointer, index, value);
+        mySegment.setByte(index, value);
     }
 
     public void set(final long index, final Comparable<?> value) {
@@ -61,11 +60,11 @@ final class OffHeapZ008 extends OffHeapArray {
     }
 
     public void set(final long index, final double value) {
-        NativeMemory.setByte(myPointer, index, (byte) Math.toIntExact(Math.round(value)));
+        mySegment.setByte(index, (byte) Math.toIntExact(Math.round(value)));
     }
 
     public void set(final long index, final float value) {
-        NativeMemory.setByte(myPointer, index, (byte) Math.round(value));
+        mySegment.setByte(index, (byte) Math.round(value));
     }
 
 }
@@ -22,17 +22,16 @@
 package org.ojalgo.array;
 
 import org.ojalgo.scalar.Scalar;
-import org.ojalgo.type.NativeMemory;
 
 final class OffHeapZ016 extends OffHeapArray {
 
-    private final long myPointer;
+    private final OffHeapSegment mySegment;
 
-    OffHeapZ016(final long count) {
+    OffHeapZ016(final OffHeapArray.Factory factory, final long count) {
 
-        super(OffHeapArray.Z016, count);
+        super(factory, count);
 
-        myPointer = NativeMemory.allocateShortArray(this, count);
+        mySegment = factory.allocate(this, count);
     }
 
     public void add(final long index, final Comparable<?> addend) {
@@ -40,16 +39,16 @@ final class OffHeapZ016 extends OffHeapArray {
     }
 
     public double doubleValue(final long index) {
-        return NativeMemory.getShort(myPointer, index);
+        return mySegment.getShort(index);
     }
 
     public float floatValue(final long index) {
-        return NativeMemory.getShort(myPointer, index);
+        return mySegment.getShort(index);
     }
 
     @Override
     public void reset() {
-        NativeMemory.initialiseShortArray(myPointer, this.count());
+        mySegment.clear();
     }
 
     public void set(final long index, final Comparable<?> value) {
@@ -57,19 +56,19 @@ final class OffHeapZ016 extends OffHeapArray {
     }
 
     public void set(final long index, final double value) {
-        NativeMemory.setShort(myPointer, index, (short) Math.toIntExact(Math.round(value)));
+        mySegment.setShort(index, (short) Math.toIntExact(Math.round(value)));
     }
 
     public void set(final long index, final float value) {
-        NativeMemory.setShort(myPointer, index, (short) Math.round(value));
+        mySegment.setShort(index, (short) Math.round(value));
     }
 
     public void set(final long index, final short value) {
-        NativeMemory.setShort(myPointer, index, value);
+        mySegment.setShort(index, value);
     }
 
     public short shortValue(final long index) {
-        return NativeMemory.getShort(myPointer, index);
+        return mySegment.getShort(index);
     }
 
 }
@@ -22,17 +22,16 @@
 package org.ojalgo.array;
 
 import org.ojalgo.scalar.Scalar;
-import org.ojalgo.type.NativeMemory;
 
 final class OffHeapZ032 extends OffHeapArray {
 
-    private final long myPointer;
+    private final OffHeapSegment mySegment;
 
-    OffHeapZ032(final long count) {
+    OffHeapZ032(final OffHeapArray.Factory factory, final long count) {
 
-        super(OffHeapArray.Z032, count);
+        super(factory, count);
 
-        myPointer = NativeMemory.allocateIntArray(this, count);
+        mySegment = factory.allocate(this, count);
     }
 
     public void add(final long index, final Comparable<?> addend) {
@@ -40,20 +39,20 @@ final class OffHeapZ032 extends OffHeapArray {
     }
 
     public double doubleValue(final long index) {
-        return NativeMemory.getInt(myPointer, index);
+        return mySegment.getInt(index);
     }
 
     public float floatValue(final long index) {
-        return NativeMemory.getInt(myPointer, index);
+        return mySegment.getInt(index);
     }
 
     public int intValue(final long index) {
-        return NativeMemory.getInt(myPointer, index);
+        return mySegment.getInt(index);
     }
 
     @Override
     public void reset() {
-        NativeMemory.initialiseIntArray(myPointer, this.count());
+        mySegment.clear();
     }
 
     public void set(final long index, final Comparable<?> value) {
@@ -61,15 +60,15 @@ final class OffHeapZ032 extends OffHeapArray {
     }
 
     public void set(final long index, final double value) {
-        NativeMemory.setInt(myPointer, index, Math.toIntExact(Math.round(value)));
+        mySegment.setInt(index, Math.toIntExact(Math.round(value)));
     }
 
     public void set(final long index, final float value) {
-        NativeMemory.setInt(myPointer, index, Math.round(value));
+        mySegment.setInt(index, Math.round(value));
     }
 
     public void set(final long index, final int value) {
-        NativeMemory.setInt(myPointer, index, value);
+        mySegment.setInt(index, value);
     }
 
 }
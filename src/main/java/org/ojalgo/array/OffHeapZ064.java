@@ -22,17 +22,16 @@
 package org.ojalgo.array;
 
 import org.ojalgo.scalar.Scalar;
-import org.ojalgo.type.NativeMemory;
 
 final class OffHeapZ064 extends OffHeapArray {
 
-    private final long myPointer;
+    private final OffHeapSegment mySegment;
 
-    OffHeapZ064(final long count) {
+    OffHeapZ064(final OffHeapArray.Factory factory, final long count) {
 
-        super(OffHeapArray.Z064, count);
+        super(factory, count);
 
-        myPointer = NativeMemory.allocateLongArray(this, count);
+        mySegment = factory.allocate(this, count);
     }
 
     public void add(final long index, final Comparable<?> addend) {
@@ -40,20 +39,20 @@ final class OffHeapZ064 extends OffHeapArray {
     }
 
     public double doubleValue(final long index) {
-        return NativeMemory.getLong(myPointer, index);
+        return mySegment.getLong(index);
     }
 
     public float floatValue(final long index) {
-        return NativeMemory.getLong(myPointer, index);
+        return mySegment.getLong(index);
     }
 
     public long longValue(final long index) {
-        return NativeMemory.getLong(myPointer, index);
+        return mySegment.getLong(index);
     }
 
     @Override
     public void reset() {
-        NativeMemory.initialiseLongArray(myPointer, this.count());
+        mySegment.clear();
     }
 
     public void set(final long index, final Comparable<?> value) {
@@ -61,15 +60,15 @@ final class OffHeapZ064 extends OffHeapArray {
     }
 
     public void set(final long index, final double value) {
-        NativeMemory.setLong(myPointer, index, Math.round(value));
+        mySegment.setLong(index, Math.round(value));
     }
 
     public void set(final long index, final float value) {
-        NativeMemory.setLong(myPointer, index, Math.round(value));
+        mySegment.setLong(index, Math.round(value));
     }
 
     public void set(final long index, final long value) {
-        NativeMemory.setLong(myPointer, index, value);
+        mySegment.setLong(index, value);
     }
 
 }
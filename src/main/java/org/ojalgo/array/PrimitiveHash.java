@@ -0,0 +1,121 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array;
+
+import org.ojalgo.function.special.PowerOf2;
+
+/**
+ * Common parts of the open-addressing (linear probing) hash maps and sets with primitive keys. The keys are
+ * stored directly in a primitive array, with 0 marking an empty slot. Key 0 itself is handled separately,
+ * outside of the table. Removal shifts entries back rather than leaving tombstones, so lookups never get
+ * slower than the current load.
+ *
+ * @author apete
+ */
+abstract class PrimitiveHash {
+
+    private static final double LOAD_FACTOR = 0.6;
+    private static final int MIN_CAPACITY = 8;
+
+    static int capacity(final int expectedSize) {
+        int required = (int) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR);
+        return Math.max(MIN_CAPACITY, PowerOf2.smallestNotLessThan(required));
+    }
+
+    static int hash(final int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    static int hash(final long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Should an entry at [slot], with the home slot [home], be moved back to [gap] when an entry is removed
+     * from [gap]? Yes, unless its home lies (cyclically) after the gap.
+     */
+    static boolean shift(final int home, final int gap, final int slot, final int mask) {
+        return ((slot - home) & mask) >= ((slot - gap) & mask);
+    }
+
+    private int myMask;
+    private int myThreshold;
+    private int myUsed = 0;
+    private boolean myZero = false;
+
+    PrimitiveHash(final int capacity) {
+        super();
+        this.resized(capacity);
+    }
+
+    public final boolean isEmpty() {
+        return this.size() == 0;
+    }
+
+    /**
+     * @return The number of entries
+     */
+    public final int size() {
+        return myZero ? myUsed + 1 : myUsed;
+    }
+
+    /**
+     * @return true if the table needs to grow
+     */
+    final boolean added() {
+        myUsed++;
+        return myUsed > myThreshold;
+    }
+
+    final int capacity() {
+        return myMask + 1;
+    }
+
+    final void cleared() {
+        myUsed = 0;
+        myZero = false;
+    }
+
+    final boolean isZero() {
+        return myZero;
+    }
+
+    final int mask() {
+        return myMask;
+    }
+
+    final void removed() {
+        myUsed--;
+    }
+
+    final void resized(final int capacity) {
+        myMask = capacity - 1;
+        myThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    final void zero(final boolean zero) {
+        myZero = zero;
+    }
+
+}
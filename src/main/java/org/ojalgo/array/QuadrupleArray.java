@@ -0,0 +1,411 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array;
+
+import java.util.Arrays;
+
+import org.ojalgo.array.operation.QuadrupleOperation;
+import org.ojalgo.function.BinaryFunction;
+import org.ojalgo.function.FunctionSet;
+import org.ojalgo.function.NullaryFunction;
+import org.ojalgo.function.QuadrupleFunction;
+import org.ojalgo.function.UnaryFunction;
+import org.ojalgo.function.VoidFunction;
+import org.ojalgo.function.aggregator.AggregatorSet;
+import org.ojalgo.function.aggregator.QuadrupleAggregator;
+import org.ojalgo.function.constant.PrimitiveMath;
+import org.ojalgo.function.special.MissingMath;
+import org.ojalgo.scalar.Quadruple;
+import org.ojalgo.scalar.Scalar;
+import org.ojalgo.structure.Access1D;
+import org.ojalgo.structure.Mutate1D;
+import org.ojalgo.type.math.MathType;
+
+/**
+ * A one- and/or arbitrary-dimensional array of {@linkplain org.ojalgo.scalar.Quadruple}, stored as 2
+ * separate double[] – one for the (high order) base parts and one for the (low order) remainders. Compared
+ * to {@link ArrayR128} there are no {@link Quadruple} instances to chase, or allocate, unless you ask for one
+ * using {@link #get(long)}. The double-double kernels are in {@link QuadrupleOperation}.
+ *
+ * @author apete
+ */
+public class QuadrupleArray extends PlainArray<Quadruple> implements Mutate1D.Sortable {
+
+    public static final DenseArray.Factory<Quadruple> FACTORY = new DenseArray.Factory<>() {
+
+        @Override
+        public AggregatorSet<Quadruple> aggregator() {
+            return QuadrupleAggregator.getSet();
+        }
+
+        @Override
+        public FunctionSet<Quadruple> function() {
+            return QuadrupleFunction.getSet();
+        }
+
+        @Override
+        public Scalar.Factory<Quadruple> scalar() {
+            return Quadruple.FACTORY;
+        }
+
+        @Override
+        MathType getMathType() {
+            return MathType.R128;
+        }
+
+        @Override
+        PlainArray<Quadruple> makeDenseArray(final long size) {
+            return QuadrupleArray.make((int) size);
+        }
+
+    };
+
+    public static QuadrupleArray make(final int size) {
+        return new QuadrupleArray(size);
+    }
+
+    public static QuadrupleArray wrap(final double[] high, final double[] low) {
+        return new QuadrupleArray(high, low);
+    }
+
+    /**
+     * The (high order) base parts
+     */
+    public final double[] hi;
+    /**
+     * The (low order) remainders
+     */
+    public final double[] lo;
+
+    protected QuadrupleArray(final double[] high, final double[] low) {
+
+        super(FACTORY, high.length);
+
+        if (low.length != high.length) {
+            throw new IllegalArgumentException("The high and low order parts must have the same length!");
+        }
+
+        hi = high;
+        lo = low;
+    }
+
+    protected QuadrupleArray(final int size) {
+        this(new double[size], new double[size]);
+    }
+
+    @Override
+    public void axpy(final double a, final Mutate1D.Modifiable<?> y) {
+        if (y instanceof QuadrupleArray) {
+            QuadrupleArray tmpY = (QuadrupleArray) y;
+            QuadrupleOperation.axpy(tmpY.hi, tmpY.lo, 0, a, PrimitiveMath.ZERO, hi, lo, 0, 0, Math.min(hi.length, tmpY.hi.length));
+        } else {
+            for (int i = 0; i < hi.length; i++) {
+                y.add(i, this.get(i).multiply(a));
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!super.equals(obj) || !(obj instanceof QuadrupleArray)) {
+            return false;
+        }
+        QuadrupleArray other = (QuadrupleArray) obj;
+        if (!Arrays.equals(hi, other.hi) || !Arrays.equals(lo, other.lo)) {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void fillMatching(final Access1D<?> values) {
+        int limit = Math.min(hi.length, Math.toIntExact(values.count()));
+        if (values instanceof QuadrupleArray) {
+            QuadrupleArray tmpValues = (QuadrupleArray) values;
+            System.arraycopy(tmpValues.hi, 0, hi, 0, limit);
+            System.arraycopy(tmpValues.lo, 0, lo, 0, limit);
+        } else {
+            for (int i = 0; i < limit; i++) {
+                this.set(i, values.get(i));
+            }
+        }
+    }
+
+    @Override
+    public void fillMatching(final Access1D<Quadruple> left, final BinaryFunction<Quadruple> function, final Access1D<Quadruple> right) {
+        int limit = MissingMath.toMinIntExact(this.count(), left.count(), right.count());
+        for (int i = 0; i < limit; i++) {
+            this.fillOne(i, function.invoke(left.get(i), right.get(i)));
+        }
+    }
+
+    @Override
+    public void fillMatching(final UnaryFunction<Quadruple> function, final Access1D<Quadruple> arguments) {
+        int limit = MissingMath.toMinIntExact(this.count(), arguments.count());
+        for (int i = 0; i < limit; i++) {
+            this.fillOne(i, function.invoke(arguments.get(i)));
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = super.hashCode();
+        result = prime * result + Arrays.hashCode(hi);
+        return prime * result + Arrays.hashCode(lo);
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(hi, PrimitiveMath.ZERO);
+        Arrays.fill(lo, PrimitiveMath.ZERO);
+    }
+
+    @Override
+    public void sortAscending() {
+        Quadruple[] tmpValues = this.toQuadruples();
+        Arrays.parallelSort(tmpValues);
+        this.fillMatching(Access1D.wrap(tmpValues));
+    }
+
+    @Override
+    public void sortDescending() {
+        Quadruple[] tmpValues = this.toQuadruples();
+        Arrays.parallelSort(tmpValues, (a, b) -> b.compareTo(a));
+        this.fillMatching(Access1D.wrap(tmpValues));
+    }
+
+    @Override
+    protected void add(final int index, final Comparable<?> addend) {
+        Quadruple tmpAddend = Quadruple.valueOf(addend);
+        QuadrupleOperation.fma(hi, lo, index, tmpAddend.getBase(), tmpAddend.getRemainder(), PrimitiveMath.ONE, PrimitiveMath.ZERO);
+    }
+
+    @Override
+    protected void add(final int index, final double addend) {
+        QuadrupleOperation.fma(hi, lo, index, addend, PrimitiveMath.ZERO, PrimitiveMath.ONE, PrimitiveMath.ZERO);
+    }
+
+    @Override
+    protected byte byteValue(final int index) {
+        return (byte) this.doubleValue(index);
+    }
+
+    @Override
+    protected double doubleValue(final int index) {
+        return hi[index] + lo[index];
+    }
+
+    @Override
+    protected void exchange(final int firstA, final int firstB, final int step, final int count) {
+
+        int tmpIndexA = firstA;
+        int tmpIndexB = firstB;
+
+        for (int i = 0; i < count; i++) {
+
+            double tmpHi = hi[tmpIndexA];
+            hi[tmpIndexA] = hi[tmpIndexB];
+            hi[tmpIndexB] = tmpHi;
+
+            double tmpLo = lo[tmpIndexA];
+            lo[tmpIndexA] = lo[tmpIndexB];
+            lo[tmpIndexB] = tmpLo;
+
+            tmpIndexA += step;
+            tmpIndexB += step;
+        }
+    }
+
+    @Override
+    protected void fill(final int first, final int limit, final int step, final NullaryFunction<?> supplier) {
+        for (int i = first; i < limit; i += step) {
+            this.set(i, supplier.get());
+        }
+    }
+
+    @Override
+    protected void fill(final int first, final int limit, final int step, final Quadruple value) {
+        double tmpHi = value.getBase();
+        double tmpLo = value.getRemainder();
+        for (int i = first; i < limit; i += step) {
+            hi[i] = tmpHi;
+            lo[i] = tmpLo;
+        }
+    }
+
+    @Override
+    protected void fillOne(final int index, final Access1D<?> values, final long valueIndex) {
+        this.set(index, values.get(valueIndex));
+    }
+
+    @Override
+    protected void fillOne(final int index, final NullaryFunction<?> supplier) {
+        this.set(index, supplier.get());
+    }
+
+    @Override
+    protected void fillOne(final int index, final Quadruple value) {
+        hi[index] = value.getBase();
+        lo[index] = value.getRemainder();
+    }
+
+    @Override
+    protected float floatValue(final int index) {
+        return (float) this.doubleValue(index);
+    }
+
+    @Override
+    protected Quadruple get(final int index) {
+        return Quadruple.of(hi[index], lo[index]);
+    }
+
+    @Override
+    protected int indexOfLargest(final int first, final int limit, final int step) {
+        int retVal = first;
+        double tmpLargest = PrimitiveMath.ZERO;
+        for (int i = first; i < limit; i += step) {
+            double tmpValue = Math.abs(hi[i]);
+            if (tmpValue > tmpLargest) {
+                tmpLargest = tmpValue;
+                retVal = i;
+            }
+        }
+        return retVal;
+    }
+
+    @Override
+    protected int intValue(final int index) {
+        return (int) this.doubleValue(index);
+    }
+
+    @Override
+    protected boolean isAbsolute(final int index) {
+        return hi[index] >= PrimitiveMath.ZERO;
+    }
+
+    @Override
+    protected boolean isSmall(final int index, final double comparedTo) {
+        return this.get(index).isSmall(comparedTo);
+    }
+
+    @Override
+    protected long longValue(final int index) {
+        return Math.round(this.doubleValue(index));
+    }
+
+    @Override
+    protected void modify(final int first, final int limit, final int step, final Access1D<Quadruple> left, final BinaryFunction<Quadruple> function) {
+        for (int i = first; i < limit; i += step) {
+            this.fillOne(i, function.invoke(left.get(i), this.get(i)));
+        }
+    }
+
+    @Override
+    protected void modify(final int first, final int limit, final int step, final BinaryFunction<Quadruple> function, final Access1D<Quadruple> right) {
+        for (int i = first; i < limit; i += step) {
+            this.fillOne(i, function.invoke(this.get(i), right.get(i)));
+        }
+    }
+
+    @Override
+    protected void modify(final int first, final int limit, final int step, final UnaryFunction<Quadruple> function) {
+        for (int i = first; i < limit; i += step) {
+            this.fillOne(i, function.invoke(this.get(i)));
+        }
+    }
+
+    @Override
+    protected void modifyOne(final int index, final UnaryFunction<Quadruple> modifier) {
+        this.fillOne(index, modifier.invoke(this.get(index)));
+    }
+
+    @Override
+    protected int searchAscending(final Quadruple number) {
+        return Arrays.binarySearch(this.toQuadruples(), number);
+    }
+
+    @Override
+    protected void set(final int index, final Comparable<?> number) {
+        this.fillOne(index, Quadruple.valueOf(number));
+    }
+
+    @Override
+    protected void set(final int index, final double value) {
+        hi[index] = value;
+        lo[index] = PrimitiveMath.ZERO;
+    }
+
+    @Override
+    protected void set(final int index, final float value) {
+        this.set(index, (double) value);
+    }
+
+    @Override
+    protected void set(final int index, final long value) {
+        this.set(index, (double) value);
+    }
+
+    @Override
+    protected short shortValue(final int index) {
+        return (short) this.doubleValue(index);
+    }
+
+    @Override
+    protected void visit(final int first, final int limit, final int step, final VoidFunction<Quadruple> visitor) {
+        for (int i = first; i < limit; i += step) {
+            visitor.invoke(this.get(i));
+        }
+    }
+
+    @Override
+    protected void visitOne(final int index, final VoidFunction<Quadruple> visitor) {
+        visitor.invoke(this.get(index));
+    }
+
+    @Override
+    void modify(final long extIndex, final int intIndex, final Access1D<Quadruple> left, final BinaryFunction<Quadruple> function) {
+        this.fillOne(intIndex, function.invoke(left.get(extIndex), this.get(intIndex)));
+    }
+
+    @Override
+    void modify(final long extIndex, final int intIndex, final BinaryFunction<Quadruple> function, final Access1D<Quadruple> right) {
+        this.fillOne(intIndex, function.invoke(this.get(intIndex), right.get(extIndex)));
+    }
+
+    @Override
+    void modify(final long extIndex, final int intIndex, final UnaryFunction<Quadruple> function) {
+        this.fillOne(intIndex, function.invoke(this.get(intIndex)));
+    }
+
+    private Quadruple[] toQuadruples() {
+        Quadruple[] retVal = new Quadruple[hi.length];
+        for (int i = 0; i < retVal.length; i++) {
+            retVal[i] = this.get(i);
+        }
+        return retVal;
+    }
+
+}
@@ -0,0 +1,330 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array;
+
+import java.util.Arrays;
+
+import org.ojalgo.function.BinaryFunction;
+import org.ojalgo.function.NullaryFunction;
+import org.ojalgo.function.UnaryFunction;
+import org.ojalgo.function.VoidFunction;
+import org.ojalgo.function.special.MissingMath;
+import org.ojalgo.scalar.PrimitiveScalar;
+import org.ojalgo.scalar.Scalar;
+import org.ojalgo.structure.Access1D;
+import org.ojalgo.structure.Mutate1D;
+import org.ojalgo.type.NumberDefinition;
+
+/**
+ * Common superclass of the compact (lossy) real number arrays, {@link ArrayR008} and {@link ArrayR016}. The
+ * elements are encoded when set and decoded when read – subclasses only need to implement that for a single
+ * element. Everything else is implemented in terms of {@link #doubleValue(int)} and {@link #set(int, double)}.
+ * <p>
+ * These arrays trade precision for memory (bandwidth). Typically you fill them once, and then use them with
+ * the fused dequantising kernels in {@link org.ojalgo.array.operation.QuantisedOperation}.
+ *
+ * @author apete
+ */
+public abstract class QuantisedArray extends PrimitiveArray {
+
+    QuantisedArray(final DenseArray.Factory<Double> factory, final int size) {
+        super(factory, size);
+    }
+
+    @Override
+    public void fillMatching(final Access1D<?> values) {
+        int limit = MissingMath.toMinIntExact(this.count(), values.count());
+        double[] decoded = new double[limit];
+        for (int i = 0; i < limit; i++) {
+            decoded[i] = values.doubleValue(i);
+        }
+        this.fillMatching(decoded, limit);
+    }
+
+    @Override
+    public void fillMatching(final Access1D<Double> left, final BinaryFunction<Double> function, final Access1D<Double> right) {
+        int limit = MissingMath.toMinIntExact(this.count(), left.count(), right.count());
+        double[] decoded = new double[limit];
+        for (int i = 0; i < limit; i++) {
+            decoded[i] = function.invoke(left.doubleValue(i), right.doubleValue(i));
+        }
+        this.fillMatching(decoded, limit);
+    }
+
+    @Override
+    public void fillMatching(final UnaryFunction<Double> function, final Access1D<Double> arguments) {
+        int limit = MissingMath.toMinIntExact(this.count(), arguments.count());
+        double[] decoded = new double[limit];
+        for (int i = 0; i < limit; i++) {
+            decoded[i] = function.invoke(arguments.doubleValue(i));
+        }
+        this.fillMatching(decoded, limit);
+    }
+
+    @Override
+    public void sortAscending() {
+        double[] decoded = this.decode();
+        Arrays.parallelSort(decoded);
+        this.fillMatching(decoded, decoded.length);
+    }
+
+    @Override
+    public void sortDescending() {
+        double[] decoded = this.decode();
+        Arrays.parallelSort(decoded);
+        for (int i = 0, j = decoded.length - 1; i < j; i++, j--) {
+            double tmp = decoded[i];
+            decoded[i] = decoded[j];
+            decoded[j] = tmp;
+        }
+        this.fillMatching(decoded, decoded.length);
+    }
+
+    @Override
+    public void supplyTo(final Mutate1D receiver) {
+        int limit = Math.min(this.size(), receiver.size());
+        for (int i = 0; i < limit; i++) {
+            receiver.set(i, this.doubleValue(i));
+        }
+    }
+
+    @Override
+    protected void add(final int index, final Comparable<?> addend) {
+        this.set(index, this.doubleValue(index) + NumberDefinition.doubleValue(addend));
+    }
+
+    @Override
+    protected void add(final int index, final double addend) {
+        this.set(index, this.doubleValue(index) + addend);
+    }
+
+    @Override
+    protected byte byteValue(final int index) {
+        return (byte) Math.round(this.doubleValue(index));
+    }
+
+    @Override
+    protected abstract double doubleValue(int index);
+
+    @Override
+    protected void exchange(final int firstA, final int firstB, final int step, final int count) {
+        for (int i = 0; i < count; i++) {
+            int indexA = firstA + i * step;
+            int indexB = firstB + i * step;
+            double valueA = this.doubleValue(indexA);
+            this.set(indexA, this.doubleValue(indexB));
+            this.set(indexB, valueA);
+        }
+    }
+
+    @Override
+    protected void fill(final int first, final int limit, final int step, final Double value) {
+        double doubleValue = value.doubleValue();
+        for (int i = first; i < limit; i += step) {
+            this.set(i, doubleValue);
+        }
+    }
+
+    @Override
+    protected void fill(final int first, final int limit, final int step, final NullaryFunction<?> supplier) {
+        for (int i = first; i < limit; i += step) {
+            this.set(i, supplier.doubleValue());
+        }
+    }
+
+    @Override
+    protected void fillOne(final int index, final Access1D<?> values, final long valueIndex) {
+        this.set(index, values.doubleValue(valueIndex));
+    }
+
+    @Override
+    protected void fillOne(final int index, final Double value) {
+        this.set(index, value.doubleValue());
+    }
+
+    @Override
+    protected void fillOne(final int index, final NullaryFunction<?> supplier) {
+        this.set(index, supplier.doubleValue());
+    }
+
+    @Override
+    protected float floatValue(final int index) {
+        return (float) this.doubleValue(index);
+    }
+
+    @Override
+    protected final Double get(final int index) {
+        return Double.valueOf(this.doubleValue(index));
+    }
+
+    @Override
+    protected int indexOfLargest(final int first, final int limit, final int step) {
+
+        int retVal = first;
+        double largest = 0D;
+        double candidate;
+
+        for (int i = first; i < limit; i += step) {
+            candidate = Math.abs(this.doubleValue(i));
+            if (candidate > largest) {
+                largest = candidate;
+                retVal = i;
+            }
+        }
+
+        return retVal;
+    }
+
+    @Override
+    protected int intValue(final int index) {
+        return (int) Math.round(this.doubleValue(index));
+    }
+
+    @Override
+    protected boolean isAbsolute(final int index) {
+        return PrimitiveScalar.isAbsolute(this.doubleValue(index));
+    }
+
+    @Override
+    protected boolean isSmall(final int index, final double comparedTo) {
+        return PrimitiveScalar.isSmall(comparedTo, this.doubleValue(index));
+    }
+
+    @Override
+    protected long longValue(final int index) {
+        return Math.round(this.doubleValue(index));
+    }
+
+    @Override
+    protected void modify(final int first, final int limit, final int step, final Access1D<Double> left, final BinaryFunction<Double> function) {
+        for (int i = first; i < limit; i += step) {
+            this.set(i, function.invoke(left.doubleValue(i), this.doubleValue(i)));
+        }
+    }
+
+    @Override
+    protected void modify(final int first, final int limit, final int step, final BinaryFunction<Double> function, final Access1D<Double> right) {
+        for (int i = first; i < limit; i += step) {
+            this.set(i, function.invoke(this.doubleValue(i), right.doubleValue(i)));
+        }
+    }
+
+    @Override
+    protected void modify(final int first, final int limit, final int step, final UnaryFunction<Double> function) {
+        for (int i = first; i < limit; i += step) {
+            this.set(i, function.invoke(this.doubleValue(i)));
+        }
+    }
+
+    @Override
+    protected void modifyOne(final int index, final UnaryFunction<Double> modifier) {
+        this.set(index, modifier.invoke(this.doubleValue(index)));
+    }
+
+    @Override
+    protected int searchAscending(final Double number) {
+
+        double key = number.doubleValue();
+
+        int low = 0;
+        int high = this.size() - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            double midVal = this.doubleValue(mid);
+            if (midVal < key) {
+                low = mid + 1;
+            } else if (midVal > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+
+        return -(low + 1);
+    }
+
+    @Override
+    protected void set(final int index, final Comparable<?> number) {
+        this.set(index, Scalar.doubleValue(number));
+    }
+
+    @Override
+    protected abstract void set(int index, double value);
+
+    @Override
+    protected void set(final int index, final long value) {
+        this.set(index, (double) value);
+    }
+
+    @Override
+    protected short shortValue(final int index) {
+        return (short) Math.round(this.doubleValue(index));
+    }
+
+    @Override
+    protected void visit(final int first, final int limit, final int step, final VoidFunction<Double> visitor) {
+        for (int i = first; i < limit; i += step) {
+            visitor.invoke(this.doubleValue(i));
+        }
+    }
+
+    @Override
+    protected void visitOne(final int index, final VoidFunction<Double> visitor) {
+        visitor.invoke(this.doubleValue(index));
+    }
+
+    double[] decode() {
+        int size = this.size();
+        double[] retVal = new double[size];
+        for (int i = 0; i < size; i++) {
+            retVal[i] = this.doubleValue(i);
+        }
+        return retVal;
+    }
+
+    /**
+     * Encode the first [limit] elements of [values] in one go. The default implementation simply sets them
+     * one at the time.
+     */
+    void fillMatching(final double[] values, final int limit) {
+        for (int i = 0; i < limit; i++) {
+            this.set(i, values[i]);
+        }
+    }
+
+    @Override
+    void modify(final long extIndex, final int intIndex, final Access1D<Double> left, final BinaryFunction<Double> function) {
+        this.set(intIndex, function.invoke(left.doubleValue(extIndex), this.doubleValue(intIndex)));
+    }
+
+    @Override
+    void modify(final long extIndex, final int intIndex, final BinaryFunction<Double> function, final Access1D<Double> right) {
+        this.set(intIndex, function.invoke(this.doubleValue(intIndex), right.doubleValue(extIndex)));
+    }
+
+    @Override
+    void modify(final long extIndex, final int intIndex, final UnaryFunction<Double> function) {
+        this.set(intIndex, function.invoke(this.doubleValue(intIndex)));
+    }
+
+}
@@ -21,12 +21,23 @@
  */
 package org.ojalgo.array;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.DoubleConsumer;
+
+import org.ojalgo.concurrent.Parallelism;
+import org.ojalgo.concurrent.ProcessingService;
 import org.ojalgo.function.BinaryFunction;
 import org.ojalgo.function.NullaryFunction;
 import org.ojalgo.function.UnaryFunction;
 import org.ojalgo.function.VoidFunction;
+import org.ojalgo.function.aggregator.Aggregator;
+import org.ojalgo.function.aggregator.AggregatorFunction;
 import org.ojalgo.function.special.PowerOf2;
 import org.ojalgo.structure.Access1D;
+import org.ojalgo.structure.Mutate1D;
 import org.ojalgo.type.NumberDefinition;
 
 /**
@@ -36,15 +47,156 @@ import org.ojalgo.type.NumberDefinition;
  * sparse segments (they're not guaranteed to actually be sparse) and a {@link DenseArray.Factory} is used to
  * create dense segments (guaranteed to be dense).
  * </p>
+ * <p>
+ * The segments are independent of each other. Bulk operations that can be performed segment by segment
+ * (fill with a constant, modify with a unary function, aggregate and sort) are processed in parallel when
+ * the array is large enough. Operations that invoke user supplied state (suppliers and visitors) are always
+ * processed sequentially, in order.
+ * </p>
  *
  * @author apete
  */
-final class SegmentedArray<N extends Comparable<N>> extends BasicArray<N> {
+final class SegmentedArray<N extends Comparable<N>> extends BasicArray<N> implements Mutate1D.Sortable {
+
+    @FunctionalInterface
+    interface SegmentCallback<N extends Comparable<N>> {
+
+        /**
+         * @param segment The segment
+         * @param first The first (local) index in that segment
+         * @param limit The limit (local) index in that segment
+         */
+        void call(BasicArray<N> segment, long first, long limit);
+
+    }
+
+    /**
+     * Splits on segment boundaries whenever possible, and never needs to look up the segment for each
+     * element.
+     */
+    static final class SegmentSpliterator implements Spliterator.OfDouble {
+
+        private static final int CHARACTERISTICS = PlainArray.CHARACTERISTICS | Spliterator.SIZED | Spliterator.SUBSIZED;
+
+        private long myIndex;
+        private final int myIndexBits;
+        private final long myLimit;
+        private final BasicArray<?>[] mySegments;
+
+        SegmentSpliterator(final BasicArray<?>[] segments, final int indexBits, final long first, final long limit) {
+            super();
+            mySegments = segments;
+            myIndexBits = indexBits;
+            myIndex = first;
+            myLimit = limit;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+
+        @Override
+        public long estimateSize() {
+            return myLimit - myIndex;
+        }
+
+        @Override
+        public void forEachRemaining(final DoubleConsumer action) {
+
+            long segmentSize = 1L << myIndexBits;
+
+            while (myIndex < myLimit) {
+
+                BasicArray<?> segment = mySegments[(int) (myIndex >> myIndexBits)];
+                long offset = myIndex & -segmentSize;
+                long limit = Math.min(myLimit - offset, segmentSize);
+
+                for (long i = myIndex - offset; i < limit; i++) {
+                    action.accept(segment.doubleValue(i));
+                }
+
+                myIndex = offset + limit;
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(final DoubleConsumer action) {
+            if (myIndex < myLimit) {
+                action.accept(mySegments[(int) (myIndex >> myIndexBits)].doubleValue(myIndex & (1L << myIndexBits) - 1L));
+                myIndex++;
+                return true;
+            } else {
+                return false;
+            }
+        }
+
+        @Override
+        public Spliterator.OfDouble trySplit() {
+
+            long first = myIndex;
+            long remaining = myLimit - first;
+
+            if (remaining < 2L) {
+                return null;
+            }
+
+            long middle = first + remaining / 2L;
+            long lower = middle >> myIndexBits << myIndexBits;
+            long upper = lower + (1L << myIndexBits);
+
+            long split;
+            if (lower > first && (middle - lower <= upper - middle || upper >= myLimit)) {
+                split = lower;
+            } else if (upper < myLimit) {
+                split = upper;
+            } else {
+                split = middle;
+            }
+
+            myIndex = split;
+
+            return new SegmentSpliterator(mySegments, myIndexBits, first, split);
+        }
+
+    }
+
+    /**
+     * Bulk operations are only processed in parallel if they involve at least this many elements (and more
+     * than 1 segment).
+     */
+    static long PARALLELISM_THRESHOLD = 65_536L;
+
+    /**
+     * The aggregator used to combine the partial (per segment) results of the argument aggregator, or null if
+     * that is not possible.
+     */
+    private static Aggregator merger(final Aggregator aggregator) {
+        switch (aggregator) {
+        case AVERAGE:
+        case CARDINALITY:
+        case NORM1:
+        case SUM:
+        case SUM2:
+            return Aggregator.SUM;
+        case PRODUCT:
+        case PRODUCT2:
+            return Aggregator.PRODUCT;
+        case LARGEST:
+        case MAXIMUM:
+        case MINIMUM:
+        case NORM2:
+        case SMALLEST:
+            return aggregator;
+        default:
+            return null;
+        }
+    }
 
     private final int myIndexBits;
     private final long myIndexMask;
     private final ArrayFactory<N, ?> mySegmentFactory;
-    private final BasicArray<N>[] mySegments;
+    private BasicArray<N>[] mySegments;
 
     /**
      * All segments except the last one are assumed to (must) be of equal length. The last segment cannot be
@@ -121,6 +273,37 @@ final class SegmentedArray<N extends Comparable<N>> extends BasicArray<N> {
         mySegments[(int) (index >> myIndexBits)].add(index & myIndexMask, addend);
     }
 
+    @Override
+    public N aggregateRange(final long first, final long limit, final Aggregator aggregator) {
+
+        Aggregator merger = SegmentedArray.merger(aggregator);
+
+        if (merger == null || !this.isParallel(first, limit, 1L)) {
+            return super.aggregateRange(first, limit, aggregator);
+        }
+
+        Aggregator partial = aggregator == Aggregator.AVERAGE ? Aggregator.SUM : aggregator;
+
+        List<N> results = new ArrayList<>();
+        this.segments(first, limit, 1L, true, (segment, segmentFirst, segmentLimit) -> {
+            N result = segment.aggregateRange(segmentFirst, segmentLimit, partial);
+            synchronized (results) {
+                results.add(result);
+            }
+        });
+
+        AggregatorFunction<N> visitor = merger.getFunction(this.factory().aggregator());
+        for (N result : results) {
+            visitor.invoke(result);
+        }
+
+        if (aggregator == Aggregator.AVERAGE) {
+            return this.factory().function().divide().invoke(visitor.get(), this.factory().scalar().cast((double) (limit - first)));
+        } else {
+            return visitor.get();
+        }
+    }
+
     @Override
     public long count() {
         return mySegments[0].count() * (mySegments.length - 1) + mySegments[mySegments.length - 1].count();
@@ -133,9 +316,7 @@ final class SegmentedArray<N extends Comparable<N>> extends BasicArray<N> {
 
     @Override
     public void fillAll(final N value) {
-        for (BasicArray<N> tmpSegment : mySegments) {
-            tmpSegment.fillAll(value);
-        }
+        this.segments(0L, this.count(), 1L, true, (segment, first, limit) -> segment.fillAll(value));
     }
 
     @Override
@@ -206,9 +387,7 @@ final class SegmentedArray<N extends Comparable<N>> extends BasicArray<N> {
 
     @Override
     public void reset() {
-        for (BasicArray<N> tmpSegment : mySegments) {
-            tmpSegment.reset();
-        }
+        this.segments(0L, this.count(), 1L, true, (segment, first, limit) -> segment.reset());
     }
 
     @Override
@@ -226,6 +405,45 @@ final class SegmentedArray<N extends Comparable<N>> extends BasicArray<N> {
         mySegments[(int) (index >> myIndexBits)].set(index & myIndexMask, value);
     }
 
+    /**
+     * Each segment is sorted separately (in parallel), and then the sorted segments are merged.
+     */
+    @Override
+    public void sortAscending() {
+
+        this.segments(0L, this.count(), 1L, true, (segment, first, limit) -> {
+            if (segment instanceof Mutate1D.Sortable) {
+                ((Mutate1D.Sortable) segment).sortAscending();
+            } else {
+                segment.wrapInArray1D().sortAscending();
+            }
+        });
+
+        if (mySegments.length > 1) {
+            this.merge();
+        }
+    }
+
+    @Override
+    public void sortDescending() {
+
+        this.sortAscending();
+
+        if (this.isPrimitive()) {
+            for (long i = 0L, j = this.count() - 1L; i < j; i++, j--) {
+                double tmpVal = this.doubleValue(i);
+                this.set(i, this.doubleValue(j));
+                this.set(j, tmpVal);
+            }
+        } else {
+            for (long i = 0L, j = this.count() - 1L; i < j; i++, j--) {
+                N tmpVal = this.get(i);
+                this.set(i, this.get(j));
+                this.set(j, tmpVal);
+            }
+        }
+    }
+
     @Override
     public void visitOne(final long index, final VoidFunction<N> visitor) {
         if (this.isPrimitive()) {
@@ -280,17 +498,7 @@ final class SegmentedArray<N extends Comparable<N>> extends BasicArray<N> {
         if (step <= mySegmentSize) {
             // Will use a continuous range of segements
 
-            int tmpFirstSegment = (int) (first / mySegmentSize);
-            int tmpLastSegemnt = (int) ((limit - 1L) / mySegmentSize);
-
-            long tmpFirstInSegment = first % mySegmentSize;
-
-            for (int s = tmpFirstSegment; s < tmpLastSegemnt; s++) {
-                mySegments[s].fill(tmpFirstInSegment, mySegmentSize, step, value);
-                long tmpRemainder = (mySegmentSize - tmpFirstInSegment) % step;
-                tmpFirstInSegment = tmpRemainder == 0L ? 0L : step - tmpRemainder;
-            }
-            mySegments[tmpLastSegemnt].fill(tmpFirstInSegment, limit - tmpLastSegemnt * mySegmentSize, step, value);
+            this.segments(first, limit, step, true, (segment, segmentFirst, segmentLimit) -> segment.fill(segmentFirst, segmentLimit, step, value));
 
         } else if (this.isPrimitive()) {
 
@@ -371,17 +579,7 @@ final class SegmentedArray<N extends Comparable<N>> extends BasicArray<N> {
         if (step <= mySegmentSize) {
             // Will use a continuous range of segements
 
-            int tmpFirstSegment = (int) (first / mySegmentSize);
-            int tmpLastSegemnt = (int) ((limit - 1) / mySegmentSize);
-
-            long tmpFirstInSegment = first % mySegmentSize;
-
-            for (int s = tmpFirstSegment; s < tmpLastSegemnt; s++) {
-                mySegments[s].modify(tmpFirstInSegment, mySegmentSize, step, function);
-                long tmpRemainder = (mySegmentSize - tmpFirstInSegment) % step;
-                tmpFirstInSegment = tmpRemainder == 0L ? 0L : step - tmpRemainder;
-            }
-            mySegments[tmpLastSegemnt].modify(tmpFirstInSegment, limit - tmpLastSegemnt * mySegmentSize, step, function);
+            this.segments(first, limit, step, true, (segment, segmentFirst, segmentLimit) -> segment.modify(segmentFirst, segmentLimit, step, function));
 
         } else if (this.isPrimitive()) {
 
@@ -429,10 +627,16 @@ final class SegmentedArray<N extends Comparable<N>> extends BasicArray<N> {
         }
     }
 
+    @Override
+    Spliterator.OfDouble doubleSpliterator(final long first, final long limit) {
+        return new SegmentSpliterator(mySegments, myIndexBits, first, limit);
+    }
+
     /**
      * Will either grow the last segment to be the same size as all the others, or add another segment (with
-     * the same size). The returned (could be the same) instance is guaranteed to have a last segement of the
-     * same size as the others and at least one more "space" in that segment.
+     * the same size). Always returns this same instance, guaranteed to have a last segement of the same size
+     * as the others and at least one more "space" in that segment. Full segments are never copied, only the
+     * (short) array of segment references is.
      */
     SegmentedArray<N> grow() {
 
@@ -454,15 +658,140 @@ final class SegmentedArray<N extends Comparable<N>> extends BasicArray<N> {
 
             throw new IllegalStateException();
         }
+
+        BasicArray<N>[] tmpSegments = Arrays.copyOf(mySegments, mySegments.length + 1);
+        tmpSegments[mySegments.length] = tmpNewSegment;
+        mySegments = tmpSegments;
+
+        return this;
+    }
+
+    private boolean isParallel(final long first, final long limit, final long step) {
+        return (limit - first) / step >= PARALLELISM_THRESHOLD && (first >> myIndexBits) < (limit - 1L >> myIndexBits);
+    }
+
+    private boolean isSmaller(final BasicArray<N> segmentA, final long indexA, final BasicArray<N> segmentB, final long indexB) {
+        if (this.isPrimitive()) {
+            return Double.compare(segmentA.doubleValue(indexA), segmentB.doubleValue(indexB)) < 0;
+        } else {
+            return segmentA.get(indexA).compareTo(segmentB.get(indexB)) < 0;
+        }
+    }
+
+    /**
+     * Merges the (individually sorted) segments using a heap of segment indices, ordered by the current
+     * (smallest not yet merged) element of each segment.
+     */
+    private void merge() {
+
+        int nbSegments = mySegments.length;
+
         @SuppressWarnings("unchecked")
-        BasicArray<N>[] tmpSegments = (BasicArray<N>[]) new BasicArray<?>[mySegments.length + 1];
+        BasicArray<N>[] tmpMerged = (BasicArray<N>[]) new BasicArray<?>[nbSegments];
+        for (int s = 0; s < nbSegments; s++) {
+            tmpMerged[s] = mySegmentFactory.make(mySegments[s].count());
+        }
 
-        for (int i = 0; i < mySegments.length; i++) {
-            tmpSegments[i] = mySegments[i];
+        long[] tmpCursors = new long[nbSegments];
+        int[] tmpHeap = new int[nbSegments];
+        int tmpHeapSize = 0;
+        for (int s = 0; s < nbSegments; s++) {
+            if (mySegments[s].count() > 0L) {
+                tmpHeap[tmpHeapSize++] = s;
+            }
+        }
+        for (int h = tmpHeapSize / 2 - 1; h >= 0; h--) {
+            this.siftDown(tmpHeap, tmpHeapSize, h, tmpCursors);
         }
-        tmpSegments[mySegments.length] = tmpNewSegment;
 
-        return new SegmentedArray<>(tmpSegments, mySegmentFactory);
+        boolean tmpPrimitive = this.isPrimitive();
+
+        for (long i = 0L, limit = this.count(); i < limit; i++) {
+
+            int s = tmpHeap[0];
+            BasicArray<N> tmpSource = mySegments[s];
+            BasicArray<N> tmpDestination = tmpMerged[(int) (i >> myIndexBits)];
+
+            if (tmpPrimitive) {
+                tmpDestination.set(i & myIndexMask, tmpSource.doubleValue(tmpCursors[s]));
+            } else {
+                tmpDestination.set(i & myIndexMask, tmpSource.get(tmpCursors[s]));
+            }
+
+            if (++tmpCursors[s] == tmpSource.count()) {
+                tmpHeap[0] = tmpHeap[--tmpHeapSize];
+            }
+            this.siftDown(tmpHeap, tmpHeapSize, 0, tmpCursors);
+        }
+
+        mySegments = tmpMerged;
+    }
+
+    private void segment(final int segment, final long first, final long limit, final long step, final SegmentCallback<N> callback) {
+
+        long tmpOffset = (long) segment << myIndexBits;
+
+        long tmpFirst = Math.max(first, tmpOffset);
+        long tmpRemainder = (tmpFirst - first) % step;
+        if (tmpRemainder != 0L) {
+            tmpFirst += step - tmpRemainder;
+        }
+        long tmpLimit = Math.min(limit, tmpOffset + mySegments[segment].count());
+
+        if (tmpFirst < tmpLimit) {
+            callback.call(mySegments[segment], tmpFirst - tmpOffset, tmpLimit - tmpOffset);
+        }
+    }
+
+    /**
+     * Calls the callback once for each segment that contains at least one element of the range, with that
+     * range translated to the local indices of the segment. If parallel is true, and the range is large
+     * enough, the segments are processed in parallel.
+     */
+    private void segments(final long first, final long limit, final long step, final boolean parallel, final SegmentCallback<N> callback) {
+
+        int tmpFirstSegment = (int) (first >> myIndexBits);
+        int tmpLastSegment = (int) (limit - 1L >> myIndexBits);
+
+        if (parallel && this.isParallel(first, limit, step)) {
+
+            List<Integer> work = new ArrayList<>(tmpLastSegment - tmpFirstSegment + 1);
+            for (int s = tmpFirstSegment; s <= tmpLastSegment; s++) {
+                work.add(Integer.valueOf(s));
+            }
+
+            ProcessingService.INSTANCE.process(work, Parallelism.CORES, s -> this.segment(s.intValue(), first, limit, step, callback));
+
+        } else {
+
+            for (int s = tmpFirstSegment; s <= tmpLastSegment; s++) {
+                this.segment(s, first, limit, step, callback);
+            }
+        }
+    }
+
+    private void siftDown(final int[] heap, final int size, final int index, final long[] cursors) {
+
+        int tmpParent = index;
+        int tmpChild = 2 * tmpParent + 1;
+
+        while (tmpChild < size) {
+
+            if (tmpChild + 1 < size && this.isSmaller(mySegments[heap[tmpChild + 1]], cursors[heap[tmpChild + 1]], mySegments[heap[tmpChild]], cursors[heap[tmpChild]])) {
+                tmpChild++;
+            }
+
+            if (!this.isSmaller(mySegments[heap[tmpChild]], cursors[heap[tmpChild]], mySegments[heap[tmpParent]], cursors[heap[tmpParent]])) {
+                return;
+            }
+
+            int tmpSwap = heap[tmpParent];
+            heap[tmpParent] = heap[tmpChild];
+            heap[tmpChild] = tmpSwap;
+
+            tmpParent = tmpChild;
+            tmpChild = 2 * tmpParent + 1;
+        }
     }
 
 }
@@ -0,0 +1,422 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array;
+
+import java.util.Arrays;
+
+import org.ojalgo.array.operation.AXPY;
+import org.ojalgo.function.BinaryFunction;
+import org.ojalgo.function.ComplexFunction;
+import org.ojalgo.function.FunctionSet;
+import org.ojalgo.function.NullaryFunction;
+import org.ojalgo.function.UnaryFunction;
+import org.ojalgo.function.VoidFunction;
+import org.ojalgo.function.aggregator.AggregatorSet;
+import org.ojalgo.function.aggregator.ComplexAggregator;
+import org.ojalgo.function.constant.PrimitiveMath;
+import org.ojalgo.function.special.MissingMath;
+import org.ojalgo.scalar.ComplexNumber;
+import org.ojalgo.scalar.PrimitiveScalar;
+import org.ojalgo.scalar.Scalar;
+import org.ojalgo.structure.Access1D;
+import org.ojalgo.structure.Mutate1D;
+import org.ojalgo.type.math.MathType;
+
+/**
+ * A one- and/or arbitrary-dimensional array of {@linkplain org.ojalgo.scalar.ComplexNumber}, stored as 2
+ * separate double[] – one for the real parts and one for the imaginary parts (struct-of-arrays). Compared to
+ * {@link ArrayC128} there are no {@link ComplexNumber} instances to chase, or allocate, unless you ask for
+ * one using {@link #get(long)}.
+ * <p>
+ * The complex kernels in {@link org.ojalgo.array.operation} and {@link org.ojalgo.matrix.operation} that take
+ * (pairs of) separate real and imaginary part double[] arguments work on this storage layout. Matrices are
+ * column-major.
+ *
+ * @author apete
+ */
+public class SplitComplexArray extends PlainArray<ComplexNumber> implements Mutate1D.Sortable {
+
+    public static final DenseArray.Factory<ComplexNumber> FACTORY = new DenseArray.Factory<>() {
+
+        @Override
+        public AggregatorSet<ComplexNumber> aggregator() {
+            return ComplexAggregator.getSet();
+        }
+
+        @Override
+        public FunctionSet<ComplexNumber> function() {
+            return ComplexFunction.getSet();
+        }
+
+        @Override
+        public Scalar.Factory<ComplexNumber> scalar() {
+            return ComplexNumber.FACTORY;
+        }
+
+        @Override
+        MathType getMathType() {
+            return MathType.C128;
+        }
+
+        @Override
+        PlainArray<ComplexNumber> makeDenseArray(final long size) {
+            return SplitComplexArray.make((int) size);
+        }
+
+    };
+
+    public static SplitComplexArray make(final int size) {
+        return new SplitComplexArray(size);
+    }
+
+    public static SplitComplexArray wrap(final double[] real, final double[] imaginary) {
+        return new SplitComplexArray(real, imaginary);
+    }
+
+    /**
+     * The imaginary parts
+     */
+    public final double[] im;
+    /**
+     * The real parts
+     */
+    public final double[] re;
+
+    protected SplitComplexArray(final double[] real, final double[] imaginary) {
+
+        super(FACTORY, real.length);
+
+        if (imaginary.length != real.length) {
+            throw new IllegalArgumentException("The real and imaginary parts must have the same length!");
+        }
+
+        re = real;
+        im = imaginary;
+    }
+
+    protected SplitComplexArray(final int size) {
+        this(new double[size], new double[size]);
+    }
+
+    @Override
+    public void axpy(final double a, final Mutate1D.Modifiable<?> y) {
+        if (y instanceof SplitComplexArray) {
+            SplitComplexArray tmpY = (SplitComplexArray) y;
+            AXPY.invoke(tmpY.re, tmpY.im, 0, a, PrimitiveMath.ZERO, re, im, 0, 0, Math.min(re.length, tmpY.re.length));
+        } else {
+            for (int i = 0; i < re.length; i++) {
+                y.add(i, ComplexNumber.of(a * re[i], a * im[i]));
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!super.equals(obj) || !(obj instanceof SplitComplexArray)) {
+            return false;
+        }
+        SplitComplexArray other = (SplitComplexArray) obj;
+        if (!Arrays.equals(re, other.re) || !Arrays.equals(im, other.im)) {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void fillMatching(final Access1D<?> values) {
+        int limit = Math.min(re.length, Math.toIntExact(values.count()));
+        if (values instanceof SplitComplexArray) {
+            SplitComplexArray tmpValues = (SplitComplexArray) values;
+            System.arraycopy(tmpValues.re, 0, re, 0, limit);
+            System.arraycopy(tmpValues.im, 0, im, 0, limit);
+        } else {
+            for (int i = 0; i < limit; i++) {
+                this.set(i, values.get(i));
+            }
+        }
+    }
+
+    @Override
+    public void fillMatching(final Access1D<ComplexNumber> left, final BinaryFunction<ComplexNumber> function, final Access1D<ComplexNumber> right) {
+        int limit = MissingMath.toMinIntExact(this.count(), left.count(), right.count());
+        for (int i = 0; i < limit; i++) {
+            this.fillOne(i, function.invoke(left.get(i), right.get(i)));
+        }
+    }
+
+    @Override
+    public void fillMatching(final UnaryFunction<ComplexNumber> function, final Access1D<ComplexNumber> arguments) {
+        int limit = MissingMath.toMinIntExact(this.count(), arguments.count());
+        for (int i = 0; i < limit; i++) {
+            this.fillOne(i, function.invoke(arguments.get(i)));
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = super.hashCode();
+        result = prime * result + Arrays.hashCode(re);
+        return prime * result + Arrays.hashCode(im);
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(re, PrimitiveMath.ZERO);
+        Arrays.fill(im, PrimitiveMath.ZERO);
+    }
+
+    @Override
+    public void sortAscending() {
+        ComplexNumber[] tmpValues = this.toComplexNumbers();
+        Arrays.parallelSort(tmpValues);
+        this.fillMatching(Access1D.wrap(tmpValues));
+    }
+
+    @Override
+    public void sortDescending() {
+        ComplexNumber[] tmpValues = this.toComplexNumbers();
+        Arrays.parallelSort(tmpValues, (a, b) -> b.compareTo(a));
+        this.fillMatching(Access1D.wrap(tmpValues));
+    }
+
+    @Override
+    protected void add(final int index, final Comparable<?> addend) {
+        ComplexNumber tmpAddend = ComplexNumber.valueOf(addend);
+        re[index] += tmpAddend.getReal();
+        im[index] += tmpAddend.getImaginary();
+    }
+
+    @Override
+    protected void add(final int index, final double addend) {
+        re[index] += addend;
+    }
+
+    @Override
+    protected byte byteValue(final int index) {
+        return (byte) re[index];
+    }
+
+    @Override
+    protected double doubleValue(final int index) {
+        return re[index];
+    }
+
+    @Override
+    protected void exchange(final int firstA, final int firstB, final int step, final int count) {
+
+        int tmpIndexA = firstA;
+        int tmpIndexB = firstB;
+
+        for (int i = 0; i < count; i++) {
+
+            double tmpRe = re[tmpIndexA];
+            re[tmpIndexA] = re[tmpIndexB];
+            re[tmpIndexB] = tmpRe;
+
+            double tmpIm = im[tmpIndexA];
+            im[tmpIndexA] = im[tmpIndexB];
+            im[tmpIndexB] = tmpIm;
+
+            tmpIndexA += step;
+            tmpIndexB += step;
+        }
+    }
+
+    @Override
+    protected void fill(final int first, final int limit, final int step, final ComplexNumber value) {
+        double tmpRe = value.getReal();
+        double tmpIm = value.getImaginary();
+        for (int i = first; i < limit; i += step) {
+            re[i] = tmpRe;
+            im[i] = tmpIm;
+        }
+    }
+
+    @Override
+    protected void fill(final int first, final int limit, final int step, final NullaryFunction<?> supplier) {
+        for (int i = first; i < limit; i += step) {
+            this.set(i, supplier.get());
+        }
+    }
+
+    @Override
+    protected void fillOne(final int index, final Access1D<?> values, final long valueIndex) {
+        this.set(index, values.get(valueIndex));
+    }
+
+    @Override
+    protected void fillOne(final int index, final ComplexNumber value) {
+        re[index] = value.getReal();
+        im[index] = value.getImaginary();
+    }
+
+    @Override
+    protected void fillOne(final int index, final NullaryFunction<?> supplier) {
+        this.set(index, supplier.get());
+    }
+
+    @Override
+    protected float floatValue(final int index) {
+        return (float) re[index];
+    }
+
+    @Override
+    protected ComplexNumber get(final int index) {
+        return ComplexNumber.of(re[index], im[index]);
+    }
+
+    /**
+     * Largest modulus
+     */
+    @Override
+    protected int indexOfLargest(final int first, final int limit, final int step) {
+        int retVal = first;
+        double tmpLargest = PrimitiveMath.ZERO;
+        for (int i = first; i < limit; i += step) {
+            double tmpSquared = re[i] * re[i] + im[i] * im[i];
+            if (tmpSquared > tmpLargest) {
+                tmpLargest = tmpSquared;
+                retVal = i;
+            }
+        }
+        return retVal;
+    }
+
+    @Override
+    protected int intValue(final int index) {
+        return (int) re[index];
+    }
+
+    @Override
+    protected boolean isAbsolute(final int index) {
+        return this.get(index).isAbsolute();
+    }
+
+    @Override
+    protected boolean isSmall(final int index, final double comparedTo) {
+        return PrimitiveScalar.isSmall(comparedTo, PrimitiveMath.HYPOT.invoke(re[index], im[index]));
+    }
+
+    @Override
+    protected long longValue(final int index) {
+        return (long) re[index];
+    }
+
+    @Override
+    protected void modify(final int first, final int limit, final int step, final Access1D<ComplexNumber> left,
+            final BinaryFunction<ComplexNumber> function) {
+        for (int i = first; i < limit; i += step) {
+            this.fillOne(i, function.invoke(left.get(i), this.get(i)));
+        }
+    }
+
+    @Override
+    protected void modify(final int first, final int limit, final int step, final BinaryFunction<ComplexNumber> function,
+            final Access1D<ComplexNumber> right) {
+        for (int i = first; i < limit; i += step) {
+            this.fillOne(i, function.invoke(this.get(i), right.get(i)));
+        }
+    }
+
+    @Override
+    protected void modify(final int first, final int limit, final int step, final UnaryFunction<ComplexNumber> function) {
+        for (int i = first; i < limit; i += step) {
+            this.fillOne(i, function.invoke(this.get(i)));
+        }
+    }
+
+    @Override
+    protected void modifyOne(final int index, final UnaryFunction<ComplexNumber> modifier) {
+        this.fillOne(index, modifier.invoke(this.get(index)));
+    }
+
+    @Override
+    protected int searchAscending(final ComplexNumber number) {
+        return Arrays.binarySearch(this.toComplexNumbers(), number);
+    }
+
+    @Override
+    protected void set(final int index, final Comparable<?> number) {
+        this.fillOne(index, ComplexNumber.valueOf(number));
+    }
+
+    @Override
+    protected void set(final int index, final double value) {
+        re[index] = value;
+        im[index] = PrimitiveMath.ZERO;
+    }
+
+    @Override
+    protected void set(final int index, final float value) {
+        this.set(index, (double) value);
+    }
+
+    @Override
+    protected void set(final int index, final long value) {
+        this.set(index, (double) value);
+    }
+
+    @Override
+    protected short shortValue(final int index) {
+        return (short) re[index];
+    }
+
+    @Override
+    protected void visit(final int first, final int limit, final int step, final VoidFunction<ComplexNumber> visitor) {
+        for (int i = first; i < limit; i += step) {
+            visitor.invoke(this.get(i));
+        }
+    }
+
+    @Override
+    protected void visitOne(final int index, final VoidFunction<ComplexNumber> visitor) {
+        visitor.invoke(this.get(index));
+    }
+
+    @Override
+    void modify(final long extIndex, final int intIndex, final Access1D<ComplexNumber> left, final BinaryFunction<ComplexNumber> function) {
+        this.fillOne(intIndex, function.invoke(left.get(extIndex), this.get(intIndex)));
+    }
+
+    @Override
+    void modify(final long extIndex, final int intIndex, final BinaryFunction<ComplexNumber> function, final Access1D<ComplexNumber> right) {
+        this.fillOne(intIndex, function.invoke(this.get(intIndex), right.get(extIndex)));
+    }
+
+    @Override
+    void modify(final long extIndex, final int intIndex, final UnaryFunction<ComplexNumber> function) {
+        this.fillOne(intIndex, function.invoke(this.get(intIndex)));
+    }
+
+    private ComplexNumber[] toComplexNumbers() {
+        ComplexNumber[] retVal = new ComplexNumber[re.length];
+        for (int i = 0; i < retVal.length; i++) {
+            retVal[i] = this.get(i);
+        }
+        return retVal;
+    }
+
+}
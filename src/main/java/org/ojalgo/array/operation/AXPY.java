@@ -45,14 +45,35 @@ public abstract class AXPY implements ArrayOperation {
     }
 
     public static void invoke(final double[] y, final int basey, final double a, final double[] x, final int basex, final int first, final int limit) {
+        if (SIMD.AVAILABLE && limit - first >= SIMD.THRESHOLD) {
+            SIMD.axpy(y, basey, a, x, basex, first, limit);
+        } else {
+            for (int i = first; i < limit; i++) {
+                y[basey + i] += a * x[basex + i];
+            }
+        }
+    }
+
+    /**
+     * y += a*x where a = aRe + i*aIm, and x and y use split storage, see {@link org.ojalgo.array.SplitComplexArray}
+     */
+    public static void invoke(final double[] yRe, final double[] yIm, final int basey, final double aRe, final double aIm, final double[] xRe,
+            final double[] xIm, final int basex, final int first, final int limit) {
         for (int i = first; i < limit; i++) {
-            y[basey + i] += a * x[basex + i];
+            double re = xRe[basex + i];
+            double im = xIm[basex + i];
+            yRe[basey + i] += aRe * re - aIm * im;
+            yIm[basey + i] += aRe * im + aIm * re;
         }
     }
 
     public static void invoke(final float[] y, final int basey, final float a, final float[] x, final int basex, final int first, final int limit) {
-        for (int i = first; i < limit; i++) {
-            y[basey + i] += a * x[basex + i];
+        if (SIMD.AVAILABLE && limit - first >= SIMD.THRESHOLD) {
+            SIMD.axpy(y, basey, a, x, basex, first, limit);
+        } else {
+            for (int i = first; i < limit; i++) {
+                y[basey + i] += a * x[basex + i];
+            }
         }
     }
 
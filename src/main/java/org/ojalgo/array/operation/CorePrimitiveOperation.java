@@ -39,6 +39,8 @@ public abstract class CorePrimitiveOperation implements ArrayOperation {
             }
             break;
         case R032:
+        case R016:
+        case R008:
             for (long i = first; i < limit; i += step) {
                 data.set(i, left.floatValue(i) + right.floatValue(i));
             }
@@ -71,6 +73,8 @@ public abstract class CorePrimitiveOperation implements ArrayOperation {
             }
             break;
         case R032:
+        case R016:
+        case R008:
             float floatValue = Scalar.floatValue(right);
             for (long i = first; i < limit; i += step) {
                 data.set(i, left.floatValue(i) + floatValue);
@@ -106,6 +110,8 @@ public abstract class CorePrimitiveOperation implements ArrayOperation {
             }
             break;
         case R032:
+        case R016:
+        case R008:
             float floatValue = Scalar.floatValue(left);
             for (long i = first; i < limit; i += step) {
                 data.set(i, floatValue + right.floatValue(i));
@@ -161,8 +167,12 @@ public abstract class CorePrimitiveOperation implements ArrayOperation {
     }
 
     public static void add(final double[] data, final int first, final int limit, final int step, final double[] left, final double[] right) {
-        for (int i = first; i < limit; i += step) {
-            data[i] = left[i] + right[i];
+        if (SIMD.AVAILABLE && step == 1 && limit - first >= SIMD.THRESHOLD) {
+            SIMD.add(data, first, limit, left, right);
+        } else {
+            for (int i = first; i < limit; i += step) {
+                data[i] = left[i] + right[i];
+            }
         }
     }
 
@@ -179,8 +189,12 @@ public abstract class CorePrimitiveOperation implements ArrayOperation {
     }
 
     public static void add(final float[] data, final int first, final int limit, final int step, final float[] left, final float[] right) {
-        for (int i = first; i < limit; i += step) {
-            data[i] = left[i] + right[i];
+        if (SIMD.AVAILABLE && step == 1 && limit - first >= SIMD.THRESHOLD) {
+            SIMD.add(data, first, limit, left, right);
+        } else {
+            for (int i = first; i < limit; i += step) {
+                data[i] = left[i] + right[i];
+            }
         }
     }
 
@@ -248,6 +262,8 @@ public abstract class CorePrimitiveOperation implements ArrayOperation {
             }
             break;
         case R032:
+        case R016:
+        case R008:
             for (long i = first; i < limit; i += step) {
                 data.set(i, left.floatValue(i) / right.floatValue(i));
             }
@@ -280,6 +296,8 @@ public abstract class CorePrimitiveOperation implements ArrayOperation {
             }
             break;
         case R032:
+        case R016:
+        case R008:
             float floatValue = Scalar.floatValue(right);
             for (long i = first; i < limit; i += step) {
                 data.set(i, left.floatValue(i) / floatValue);
@@ -315,6 +333,8 @@ public abstract class CorePrimitiveOperation implements ArrayOperation {
             }
             break;
         case R032:
+        case R016:
+        case R008:
             float floatValue = Scalar.floatValue(left);
             for (long i = first; i < limit; i += step) {
                 data.set(i, floatValue / right.floatValue(i));
@@ -370,8 +390,12 @@ public abstract class CorePrimitiveOperation implements ArrayOperation {
     }
 
     public static void divide(final double[] data, final int first, final int limit, final int step, final double[] left, final double[] right) {
-        for (int i = first; i < limit; i += step) {
-            data[i] = left[i] / right[i];
+        if (SIMD.AVAILABLE && step == 1 && limit - first >= SIMD.THRESHOLD) {
+            SIMD.divide(data, first, limit, left, right);
+        } else {
+            for (int i = first; i < limit; i += step) {
+                data[i] = left[i] / right[i];
+            }
         }
     }
 
@@ -388,8 +412,12 @@ public abstract class CorePrimitiveOperation implements ArrayOperation {
     }
 
     public static void divide(final float[] data, final int first, final int limit, final int step, final float[] left, final float[] right) {
-        for (int i = first; i < limit; i += step) {
-            data[i] = left[i] / right[i];
+        if (SIMD.AVAILABLE && step == 1 && limit - first >= SIMD.THRESHOLD) {
+            SIMD.divide(data, first, limit, left, right);
+        } else {
+            for (int i = first; i < limit; i += step) {
+                data[i] = left[i] / right[i];
+            }
         }
     }
 
@@ -457,6 +485,8 @@ public abstract class CorePrimitiveOperation implements ArrayOperation {
             }
             break;
         case R032:
+        case R016:
+        case R008:
             for (long i = first; i < limit; i += step) {
                 data.set(i, left.floatValue(i) * right.floatValue(i));
             }
@@ -489,6 +519,8 @@ public abstract class CorePrimitiveOperation implements ArrayOperation {
             }
             break;
         case R032:
+        case R016:
+        case R008:
             float floatValue = Scalar.floatValue(right);
             for (long i = first; i < limit; i += step) {
                 data.set(i, left.floatValue(i) * floatValue);
@@ -524,6 +556,8 @@ public abstract class CorePrimitiveOperation implements ArrayOperation {
             }
             break;
         case R032:
+        case R016:
+        case R008:
             float floatValue = Scalar.floatValue(left);
             for (long i = first; i < limit; i += step) {
                 data.set(i, floatValue * right.floatValue(i));
@@ -567,38 +601,62 @@ public abstract class CorePrimitiveOperation implements ArrayOperation {
     }
 
     public static void multiply(final double[] data, final int first, final int limit, final int step, final double left, final double[] right) {
-        for (int i = first; i < limit; i += step) {
-            data[i] = left * right[i];
+        if (SIMD.AVAILABLE && step == 1 && limit - first >= SIMD.THRESHOLD) {
+            SIMD.multiply(data, first, limit, right, left);
+        } else {
+            for (int i = first; i < limit; i += step) {
+                data[i] = left * right[i];
+            }
         }
     }
 
     public static void multiply(final double[] data, final int first, final int limit, final int step, final double[] left, final double right) {
-        for (int i = first; i < limit; i += step) {
-            data[i] = left[i] * right;
+        if (SIMD.AVAILABLE && step == 1 && limit - first >= SIMD.THRESHOLD) {
+            SIMD.multiply(data, first, limit, left, right);
+        } else {
+            for (int i = first; i < limit; i += step) {
+                data[i] = left[i] * right;
+            }
         }
     }
 
     public static void multiply(final double[] data, final int first, final int limit, final int step, final double[] left, final double[] right) {
-        for (int i = first; i < limit; i += step) {
-            data[i] = left[i] * right[i];
+        if (SIMD.AVAILABLE && step == 1 && limit - first >= SIMD.THRESHOLD) {
+            SIMD.multiply(data, first, limit, left, right);
+        } else {
+            for (int i = first; i < limit; i += step) {
+                data[i] = left[i] * right[i];
+            }
         }
     }
 
     public static void multiply(final float[] data, final int first, final int limit, final int step, final float left, final float[] right) {
-        for (int i = first; i < limit; i += step) {
-            data[i] = left * right[i];
+        if (SIMD.AVAILABLE && step == 1 && limit - first >= SIMD.THRESHOLD) {
+            SIMD.multiply(data, first, limit, right, left);
+        } else {
+            for (int i = first; i < limit; i += step) {
+                data[i] = left * right[i];
+            }
         }
     }
 
     public static void multiply(final float[] data, final int first, final int limit, final int step, final float[] left, final float right) {
-        for (int i = first; i < limit; i += step) {
-            data[i] = left[i] * right;
+        if (SIMD.AVAILABLE && step == 1 && limit - first >= SIMD.THRESHOLD) {
+            SIMD.multiply(data, first, limit, left, right);
+        } else {
+            for (int i = first; i < limit; i += step) {
+                data[i] = left[i] * right;
+            }
         }
     }
 
     public static void multiply(final float[] data, final int first, final int limit, final int step, final float[] left, final float[] right) {
-        for (int i = first; i < limit; i += step) {
-            data[i] = left[i] * right[i];
+        if (SIMD.AVAILABLE && step == 1 && limit - first >= SIMD.THRESHOLD) {
+            SIMD.multiply(data, first, limit, left, right);
+        } else {
+            for (int i = first; i < limit; i += step) {
+                data[i] = left[i] * right[i];
+            }
         }
     }
 
@@ -666,6 +724,8 @@ public abstract class CorePrimitiveOperation implements ArrayOperation {
             }
             break;
         case R032:
+        case R016:
+        case R008:
             for (long i = first; i < limit; i += step) {
                 data.set(i, -values.floatValue(i));
             }
@@ -733,6 +793,8 @@ public abstract class CorePrimitiveOperation implements ArrayOperation {
             }
             break;
         case R032:
+        case R016:
+        case R008:
             for (long i = first; i < limit; i += step) {
                 data.set(i, left.floatValue(i) - right.floatValue(i));
             }
@@ -765,6 +827,8 @@ public abstract class CorePrimitiveOperation implements ArrayOperation {
             }
             break;
         case R032:
+        case R016:
+        case R008:
             float floatValue = Scalar.floatValue(right);
             for (long i = first; i < limit; i += step) {
                 data.set(i, left.floatValue(i) - floatValue);
@@ -800,6 +864,8 @@ public abstract class CorePrimitiveOperation implements ArrayOperation {
             }
             break;
         case R032:
+        case R016:
+        case R008:
             float floatValue = Scalar.floatValue(left);
             for (long i = first; i < limit; i += step) {
                 data.set(i, floatValue - right.floatValue(i));
@@ -855,8 +921,12 @@ public abstract class CorePrimitiveOperation implements ArrayOperation {
     }
 
     public static void subtract(final double[] data, final int first, final int limit, final int step, final double[] left, final double[] right) {
-        for (int i = first; i < limit; i += step) {
-            data[i] = left[i] - right[i];
+        if (SIMD.AVAILABLE && step == 1 && limit - first >= SIMD.THRESHOLD) {
+            SIMD.subtract(data, first, limit, left, right);
+        } else {
+            for (int i = first; i < limit; i += step) {
+                data[i] = left[i] - right[i];
+            }
         }
     }
 
@@ -873,8 +943,12 @@ public abstract class CorePrimitiveOperation implements ArrayOperation {
     }
 
     public static void subtract(final float[] data, final int first, final int limit, final int step, final float[] left, final float[] right) {
-        for (int i = first; i < limit; i += step) {
-            data[i] = left[i] - right[i];
+        if (SIMD.AVAILABLE && step == 1 && limit - first >= SIMD.THRESHOLD) {
+            SIMD.subtract(data, first, limit, left, right);
+        } else {
+            for (int i = first; i < limit; i += step) {
+                data[i] = left[i] - right[i];
+            }
         }
     }
 
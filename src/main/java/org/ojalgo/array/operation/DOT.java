@@ -87,7 +87,11 @@ public abstract class DOT implements ArrayOperation {
     }
 
     public static double invoke(final double[] array1, final int offset1, final double[] array2, final int offset2, final int first, final int limit) {
-        return DOT.unrolled04(array1, offset1, array2, offset2, first, limit);
+        if (SIMD.AVAILABLE && limit - first >= SIMD.THRESHOLD) {
+            return SIMD.dot(array1, offset1, array2, offset2, first, limit);
+        } else {
+            return DOT.unrolled04(array1, offset1, array2, offset2, first, limit);
+        }
     }
 
     public static float invoke(final float[] array1, final int offset1, final Access1D<?> array2, final int offset2, final int first, final int limit) {
@@ -99,7 +103,11 @@ public abstract class DOT implements ArrayOperation {
     }
 
     public static float invoke(final float[] array1, final int offset1, final float[] array2, final int offset2, final int first, final int limit) {
-        return DOT.unrolled04(array1, offset1, array2, offset2, first, limit);
+        if (SIMD.AVAILABLE && limit - first >= SIMD.THRESHOLD) {
+            return SIMD.dot(array1, offset1, array2, offset2, first, limit);
+        } else {
+            return DOT.unrolled04(array1, offset1, array2, offset2, first, limit);
+        }
     }
 
     public static <N extends Scalar<N>> N invoke(final N[] array1, final int offset1, final Access1D<N> array2, final int offset2, final int first,
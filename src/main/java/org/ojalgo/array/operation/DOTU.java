@@ -21,6 +21,8 @@
  */
 package org.ojalgo.array.operation;
 
+import org.ojalgo.scalar.ComplexNumber;
+
 /**
  * The ?dotu routines perform a vector-vector reduction operation defined as Equation where xi and yi are
  * elements of complex vectors x and y.
@@ -31,4 +33,25 @@ public abstract class DOTU implements ArrayOperation {
 
     public static int THRESHOLD = 128;
 
+    /**
+     * Split storage, see {@link org.ojalgo.array.SplitComplexArray}. Neither vector is conjugated: sum(x*y)
+     */
+    public static ComplexNumber invoke(final double[] re1, final double[] im1, final int offset1, final double[] re2, final double[] im2, final int offset2,
+            final int first, final int limit) {
+
+        double retRe = 0.0;
+        double retIm = 0.0;
+
+        for (int i = first; i < limit; i++) {
+            double xRe = re1[offset1 + i];
+            double xIm = im1[offset1 + i];
+            double yRe = re2[offset2 + i];
+            double yIm = im2[offset2 + i];
+            retRe += xRe * yRe - xIm * yIm;
+            retIm += xRe * yIm + xIm * yRe;
+        }
+
+        return ComplexNumber.of(retRe, retIm);
+    }
+
 }
@@ -59,6 +59,8 @@ public abstract class FillAll implements ArrayOperation {
             }
             break;
         case R032:
+        case R016:
+        case R008:
             float floatValue = Scalar.floatValue(value);
             for (long i = first; i < limit; i += step) {
                 data.set(i, floatValue);
@@ -96,6 +98,8 @@ public abstract class FillAll implements ArrayOperation {
             }
             break;
         case R032:
+        case R016:
+        case R008:
             for (long i = first; i < limit; i += step) {
                 data.set(i, supplier.floatValue());
             }
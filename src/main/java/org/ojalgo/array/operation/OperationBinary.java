@@ -52,6 +52,8 @@ public abstract class OperationBinary implements ArrayOperation {
             } else {
                 switch (data.getMathType()) {
                 case R032:
+                case R016:
+                case R008:
                     for (long i = first; i < limit; i += step) {
                         data.set(i, function.invoke(left.floatValue(i), right.floatValue(i)));
                     }
@@ -97,6 +99,8 @@ public abstract class OperationBinary implements ArrayOperation {
             } else {
                 switch (data.getMathType()) {
                 case R032:
+                case R016:
+                case R008:
                     float floatValue = Scalar.floatValue(right);
                     for (long i = first; i < limit; i += step) {
                         data.set(i, function.invoke(left.floatValue(i), floatValue));
@@ -146,6 +150,8 @@ public abstract class OperationBinary implements ArrayOperation {
             } else {
                 switch (data.getMathType()) {
                 case R032:
+                case R016:
+                case R008:
                     float floatValue = Scalar.floatValue(left);
                     for (long i = first; i < limit; i += step) {
                         data.set(i, function.invoke(floatValue, right.floatValue(i)));
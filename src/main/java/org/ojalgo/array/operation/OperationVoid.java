@@ -45,6 +45,8 @@ public abstract class OperationVoid implements ArrayOperation {
             }
             break;
         case R032:
+        case R016:
+        case R008:
             for (long i = first; i < limit; i += step) {
                 visitor.invoke(data.floatValue(i));
             }
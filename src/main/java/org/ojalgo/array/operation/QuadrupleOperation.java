@@ -0,0 +1,271 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array.operation;
+
+import java.util.Arrays;
+import java.util.function.IntSupplier;
+
+import org.ojalgo.array.QuadrupleArray;
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.concurrent.Parallelism;
+import org.ojalgo.concurrent.ProcessingService;
+import org.ojalgo.function.constant.PrimitiveMath;
+import org.ojalgo.scalar.Quadruple;
+
+/**
+ * Double-double kernels for {@link QuadrupleArray} – each number is stored as a pair of doubles (hi/lo) in 2
+ * separate arrays. This is the same representation, and the same arithmetic, as {@link Quadruple} but
+ * without creating any {@link Quadruple} instances in the inner loops.
+ * <p>
+ * All matrices are column-major (as everywhere else in ojAlgo).
+ *
+ * @author apete
+ */
+public abstract class QuadrupleOperation implements ArrayOperation {
+
+    public static IntSupplier PARALLELISM = Parallelism.THREADS;
+    public static int THRESHOLD = 32;
+
+    private static final DivideAndConquer.Divider DIVIDER = ProcessingService.INSTANCE.divider();
+    /**
+     * 1+2^27 (same as in {@link Quadruple})
+     */
+    private static final double SPLIT = 134217729.0;
+
+    public static void applyCholesky(final double[] dataHi, final double[] dataLo, final int structure, final int firstColumn, final int columnLimit,
+            final double[] multipliersHi, final double[] multipliersLo) {
+        for (int j = firstColumn; j < columnLimit; j++) {
+            QuadrupleOperation.axpy(dataHi, dataLo, j * structure, -multipliersHi[j], -multipliersLo[j], multipliersHi, multipliersLo, 0, j, structure);
+        }
+    }
+
+    public static void applyLDL(final double[] dataHi, final double[] dataLo, final int structure, final int firstColumn, final int columnLimit,
+            final double[] multipliersHi, final double[] multipliersLo, final int iterationPoint) {
+
+        int diagonal = iterationPoint + iterationPoint * structure;
+
+        double[] scaleHi = new double[1];
+        double[] scaleLo = new double[1];
+
+        for (int j = firstColumn; j < columnLimit; j++) {
+            scaleHi[0] = PrimitiveMath.ZERO;
+            scaleLo[0] = PrimitiveMath.ZERO;
+            QuadrupleOperation.fma(scaleHi, scaleLo, 0, dataHi[diagonal], dataLo[diagonal], multipliersHi[j], multipliersLo[j]);
+            QuadrupleOperation.axpy(dataHi, dataLo, j * structure, -scaleHi[0], -scaleLo[0], multipliersHi, multipliersLo, 0, j, structure);
+        }
+    }
+
+    public static void applyLU(final double[] dataHi, final double[] dataLo, final int structure, final int firstColumn, final int columnLimit,
+            final double[] multipliersHi, final double[] multipliersLo, final int iterationPoint) {
+        for (int j = firstColumn; j < columnLimit; j++) {
+            int index = iterationPoint + j * structure;
+            QuadrupleOperation.axpy(dataHi, dataLo, j * structure, -dataHi[index], -dataLo[index], multipliersHi, multipliersLo, 0, iterationPoint + 1,
+                    structure);
+        }
+    }
+
+    /**
+     * y += a*x
+     */
+    public static void axpy(final double[] yHi, final double[] yLo, final int basey, final double aHi, final double aLo, final double[] xHi,
+            final double[] xLo, final int basex, final int first, final int limit) {
+        for (int i = first; i < limit; i++) {
+            QuadrupleOperation.fma(yHi, yLo, basey + i, aHi, aLo, xHi[basex + i], xLo[basex + i]);
+        }
+    }
+
+    /**
+     * In-place division of the elements in the range [first, limit) by the denominator.
+     */
+    public static void divide(final double[] hi, final double[] lo, final int first, final int limit, final double denominatorHi,
+            final double denominatorLo) {
+        for (int i = first; i < limit; i++) {
+
+            double tmpHi = hi[i];
+
+            double q1 = tmpHi / denominatorHi;
+
+            // r = this - q1 * denominator
+            double p = q1 * denominatorHi;
+            double r = tmpHi - p - (QuadrupleOperation.error(q1, denominatorHi, p) + q1 * denominatorLo) + lo[i];
+
+            double q2 = r / denominatorHi;
+
+            double sum = q1 + q2;
+            lo[i] = q2 - (sum - q1);
+            hi[i] = sum;
+        }
+    }
+
+    public static Quadruple dot(final double[] hi1, final double[] lo1, final int offset1, final double[] hi2, final double[] lo2, final int offset2,
+            final int first, final int limit) {
+
+        double[] sumHi = new double[1];
+        double[] sumLo = new double[1];
+
+        QuadrupleOperation.dot(hi1, lo1, offset1, hi2, lo2, offset2, first, limit, sumHi, sumLo);
+
+        return Quadruple.of(sumHi[0], sumLo[0]);
+    }
+
+    /**
+     * y += a*x for a single element (index) – the double-double multiply-add that all the other kernels are
+     * built on.
+     */
+    public static void fma(final double[] yHi, final double[] yLo, final int index, final double aHi, final double aLo, final double xHi, final double xLo) {
+
+        double product = aHi * xHi;
+        double productError = QuadrupleOperation.error(aHi, xHi, product) + (aHi * xLo + aLo * xHi);
+
+        double base = yHi[index];
+        double sum = base + product;
+        double virtual = sum - base;
+        double sumError = (base - (sum - virtual)) + (product - virtual) + yLo[index] + productError;
+
+        double hi = sum + sumError;
+        yLo[index] = sumError - (hi - sum);
+        yHi[index] = hi;
+    }
+
+    /**
+     * For each of the columns in the range [first, limit): a -= (beta * sum(v * a)) * v, only including the
+     * rows from hFirst.
+     */
+    public static void householderLeft(final double[] dataHi, final double[] dataLo, final int structure, final int first, final int limit,
+            final double[] hVectorHi, final double[] hVectorLo, final int hFirst, final double hBetaHi, final double hBetaLo) {
+
+        double[] sumHi = new double[1];
+        double[] sumLo = new double[1];
+        double[] scaleHi = new double[1];
+        double[] scaleLo = new double[1];
+
+        for (int j = first; j < limit; j++) {
+
+            QuadrupleOperation.dot(hVectorHi, hVectorLo, 0, dataHi, dataLo, j * structure, hFirst, structure, sumHi, sumLo);
+
+            scaleHi[0] = PrimitiveMath.ZERO;
+            scaleLo[0] = PrimitiveMath.ZERO;
+            QuadrupleOperation.fma(scaleHi, scaleLo, 0, hBetaHi, hBetaLo, sumHi[0], sumLo[0]);
+
+            QuadrupleOperation.axpy(dataHi, dataLo, j * structure, -scaleHi[0], -scaleLo[0], hVectorHi, hVectorLo, 0, hFirst, structure);
+        }
+    }
+
+    /**
+     * For each of the rows in the range [first, limit): a -= (beta * sum(v * a)) * v, only including the
+     * columns from hFirst.
+     */
+    public static void householderRight(final double[] dataHi, final double[] dataLo, final int structure, final int first, final int limit,
+            final int numberOfColumns, final double[] hVectorHi, final double[] hVectorLo, final int hFirst, final double hBetaHi, final double hBetaLo) {
+
+        double[] scaleHi = new double[1];
+        double[] scaleLo = new double[1];
+
+        for (int i = first; i < limit; i++) {
+
+            scaleHi[0] = PrimitiveMath.ZERO;
+            scaleLo[0] = PrimitiveMath.ZERO;
+            for (int j = hFirst; j < numberOfColumns; j++) {
+                int index = i + j * structure;
+                QuadrupleOperation.fma(scaleHi, scaleLo, 0, hVectorHi[j], hVectorLo[j], dataHi[index], dataLo[index]);
+            }
+
+            double sumHi = scaleHi[0];
+            double sumLo = scaleLo[0];
+            scaleHi[0] = PrimitiveMath.ZERO;
+            scaleLo[0] = PrimitiveMath.ZERO;
+            QuadrupleOperation.fma(scaleHi, scaleLo, 0, hBetaHi, hBetaLo, sumHi, sumLo);
+
+            double negHi = -scaleHi[0];
+            double negLo = -scaleLo[0];
+            for (int j = hFirst; j < numberOfColumns; j++) {
+                QuadrupleOperation.fma(dataHi, dataLo, i + j * structure, negHi, negLo, hVectorHi[j], hVectorLo[j]);
+            }
+        }
+    }
+
+    /**
+     * [product] = [left][right] – the product columns are calculated in parallel if there are more than
+     * {@link #THRESHOLD} of them.
+     */
+    public static void multiply(final double[] productHi, final double[] productLo, final double[] leftHi, final double[] leftLo, final int complexity,
+            final double[] rightHi, final double[] rightLo) {
+
+        if (complexity == 0) {
+            Arrays.fill(productHi, PrimitiveMath.ZERO);
+            Arrays.fill(productLo, PrimitiveMath.ZERO);
+            return;
+        }
+
+        int nbRows = leftHi.length / complexity;
+        int nbCols = rightHi.length / complexity;
+
+        if (nbCols > THRESHOLD) {
+            DIVIDER.parallelism(PARALLELISM).threshold(THRESHOLD).divide(0, nbCols,
+                    (f, l) -> QuadrupleOperation.multiply(productHi, productLo, nbRows, f, l, leftHi, leftLo, complexity, rightHi, rightLo));
+        } else {
+            QuadrupleOperation.multiply(productHi, productLo, nbRows, 0, nbCols, leftHi, leftLo, complexity, rightHi, rightLo);
+        }
+    }
+
+    private static void dot(final double[] hi1, final double[] lo1, final int offset1, final double[] hi2, final double[] lo2, final int offset2,
+            final int first, final int limit, final double[] sumHi, final double[] sumLo) {
+
+        sumHi[0] = PrimitiveMath.ZERO;
+        sumLo[0] = PrimitiveMath.ZERO;
+
+        for (int i = first; i < limit; i++) {
+            QuadrupleOperation.fma(sumHi, sumLo, 0, hi1[offset1 + i], lo1[offset1 + i], hi2[offset2 + i], lo2[offset2 + i]);
+        }
+    }
+
+    /**
+     * The exact rounding error of the double product p = a*b, calculated using Dekker's splitting.
+     */
+    private static double error(final double a, final double b, final double p) {
+
+        double tmpA = a * SPLIT;
+        double tmpB = b * SPLIT;
+
+        double a1 = tmpA - (tmpA - a);
+        double b1 = tmpB - (tmpB - b);
+        double a2 = a - a1;
+        double b2 = b - b1;
+
+        return a2 * b2 + (a2 * b1 + (a1 * b2 + (a1 * b1 - p)));
+    }
+
+    private static void multiply(final double[] productHi, final double[] productLo, final int nbRows, final int first, final int limit,
+            final double[] leftHi, final double[] leftLo, final int complexity, final double[] rightHi, final double[] rightLo) {
+
+        Arrays.fill(productHi, first * nbRows, limit * nbRows, PrimitiveMath.ZERO);
+        Arrays.fill(productLo, first * nbRows, limit * nbRows, PrimitiveMath.ZERO);
+
+        for (int j = first; j < limit; j++) {
+            for (int c = 0; c < complexity; c++) {
+                int index = c + j * complexity;
+                QuadrupleOperation.axpy(productHi, productLo, j * nbRows, rightHi[index], rightLo[index], leftHi, leftLo, c * nbRows, 0, nbRows);
+            }
+        }
+    }
+
+}
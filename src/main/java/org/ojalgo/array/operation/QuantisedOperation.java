@@ -0,0 +1,170 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array.operation;
+
+import java.util.Arrays;
+
+import org.ojalgo.array.ArrayR008;
+import org.ojalgo.array.ArrayR016;
+
+/**
+ * Fused dequantising kernels for the compact real number arrays {@link ArrayR008} and {@link ArrayR016}.
+ * The elements are decoded on the fly, and never written back to memory as double or float. With memory
+ * bound workloads, like scoring a query against a large collection of embeddings, only the compact
+ * representation is streamed from memory.
+ * <p>
+ * With {@link ArrayR008} the per-block scale and offset are factored out of the inner loops:
+ * <code>sum((o + s*q)*y) = o*sum(y) + s*sum(q*y)</code>
+ * <p>
+ * All matrices are column-major (as everywhere else in ojAlgo).
+ *
+ * @author apete
+ */
+public abstract class QuantisedOperation implements ArrayOperation {
+
+    /**
+     * <code>y[] += a * x[]</code>
+     */
+    public static void axpy(final double[] y, final int basey, final double a, final ArrayR008 x, final int basex, final int first, final int limit) {
+
+        byte[] codes = x.data;
+        int blockSize = x.getBlockSize();
+
+        for (int i = first; i < limit;) {
+
+            int block = (basex + i) / blockSize;
+            int end = Math.min(limit, (block + 1) * blockSize - basex);
+
+            double ao = a * x.offsets[block];
+            double as = a * x.scales[block];
+
+            for (; i < end; i++) {
+                y[basey + i] += ao + as * (codes[basex + i] & 0xFF);
+            }
+        }
+    }
+
+    /**
+     * <code>y[] += a * x[]</code>
+     */
+    public static void axpy(final double[] y, final int basey, final double a, final ArrayR016 x, final int basex, final int first, final int limit) {
+
+        short[] bits = x.data;
+
+        if (x.isHalf()) {
+            for (int i = first; i < limit; i++) {
+                y[basey + i] += a * ArrayR016.fromHalf(bits[basex + i]);
+            }
+        } else {
+            for (int i = first; i < limit; i++) {
+                y[basey + i] += a * ArrayR016.fromBFloat16(bits[basex + i]);
+            }
+        }
+    }
+
+    public static double dot(final ArrayR008 array1, final int offset1, final double[] array2, final int offset2, final int first, final int limit) {
+
+        byte[] codes = array1.data;
+        int blockSize = array1.getBlockSize();
+
+        double retVal = 0.0;
+
+        for (int i = first; i < limit;) {
+
+            int block = (offset1 + i) / blockSize;
+            int end = Math.min(limit, (block + 1) * blockSize - offset1);
+
+            double sum = 0.0;
+            double weighted = 0.0;
+
+            for (; i < end; i++) {
+                double value = array2[offset2 + i];
+                sum += value;
+                weighted += (codes[offset1 + i] & 0xFF) * value;
+            }
+
+            retVal += array1.offsets[block] * sum + array1.scales[block] * weighted;
+        }
+
+        return retVal;
+    }
+
+    public static double dot(final ArrayR016 array1, final int offset1, final double[] array2, final int offset2, final int first, final int limit) {
+
+        short[] bits = array1.data;
+
+        double retVal = 0.0;
+
+        if (array1.isHalf()) {
+            for (int i = first; i < limit; i++) {
+                retVal += ArrayR016.fromHalf(bits[offset1 + i]) * array2[offset2 + i];
+            }
+        } else {
+            for (int i = first; i < limit; i++) {
+                retVal += ArrayR016.fromBFloat16(bits[offset1 + i]) * array2[offset2 + i];
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * <code>product = left * right</code> where [left] is a quantised [rows]x[complexity] matrix and [right] a
+     * [complexity]x[columns] matrix. Each column of [left] is read once.
+     */
+    public static void multiply(final double[] product, final ArrayR008 left, final int rows, final double[] right, final int columns) {
+
+        int complexity = right.length / columns;
+
+        Arrays.fill(product, 0, rows * columns, 0.0);
+
+        for (int c = 0; c < complexity; c++) {
+            for (int j = 0; j < columns; j++) {
+                double factor = right[c + j * complexity];
+                if (factor != 0.0) {
+                    QuantisedOperation.axpy(product, j * rows, factor, left, c * rows, 0, rows);
+                }
+            }
+        }
+    }
+
+    /**
+     * <code>product = left * right</code> where [left] is a 16 bit [rows]x[complexity] matrix and [right] a
+     * [complexity]x[columns] matrix. Each column of [left] is read once.
+     */
+    public static void multiply(final double[] product, final ArrayR016 left, final int rows, final double[] right, final int columns) {
+
+        int complexity = right.length / columns;
+
+        Arrays.fill(product, 0, rows * columns, 0.0);
+
+        for (int c = 0; c < complexity; c++) {
+            for (int j = 0; j < columns; j++) {
+                double factor = right[c + j * complexity];
+                if (factor != 0.0) {
+                    QuantisedOperation.axpy(product, j * rows, factor, left, c * rows, 0, rows);
+                }
+            }
+        }
+    }
+
+}
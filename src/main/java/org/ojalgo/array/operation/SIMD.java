@@ -0,0 +1,140 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array.operation;
+
+/**
+ * Vectorised (SIMD) implementations of some of the primitive (double and float) array kernels, used by
+ * {@link DOT}, {@link AXPY} and {@link CorePrimitiveOperation}. The kernels are only used if
+ * {@link #AVAILABLE} is true.
+ * <p>
+ * This is the Java 11 version of this class – there is no vectorisation and {@link #AVAILABLE} is always
+ * false. The methods are plain scalar loops. The ojAlgo jar is a multi-release jar, and with Java 17 or
+ * later another version of this class, implemented using the JDK's Vector API, is used instead. That API
+ * is an incubator module that has to be added explicitly: <code>--add-modules jdk.incubator.vector</code>
+ *
+ * @author apete
+ */
+final class SIMD {
+
+    /**
+     * Not a compile time constant – the value is determined by the version of this class actually loaded.
+     */
+    static final boolean AVAILABLE = SIMD.isAvailable();
+
+    /**
+     * The kernels are used for ranges at least this long.
+     */
+    static int THRESHOLD = 16;
+
+    static void add(final double[] data, final int first, final int limit, final double[] left, final double[] right) {
+        for (int i = first; i < limit; i++) {
+            data[i] = left[i] + right[i];
+        }
+    }
+
+    static void add(final float[] data, final int first, final int limit, final float[] left, final float[] right) {
+        for (int i = first; i < limit; i++) {
+            data[i] = left[i] + right[i];
+        }
+    }
+
+    static void axpy(final double[] y, final int basey, final double a, final double[] x, final int basex, final int first, final int limit) {
+        for (int i = first; i < limit; i++) {
+            y[basey + i] += a * x[basex + i];
+        }
+    }
+
+    static void axpy(final float[] y, final int basey, final float a, final float[] x, final int basex, final int first, final int limit) {
+        for (int i = first; i < limit; i++) {
+            y[basey + i] += a * x[basex + i];
+        }
+    }
+
+    static void divide(final double[] data, final int first, final int limit, final double[] left, final double[] right) {
+        for (int i = first; i < limit; i++) {
+            data[i] = left[i] / right[i];
+        }
+    }
+
+    static void divide(final float[] data, final int first, final int limit, final float[] left, final float[] right) {
+        for (int i = first; i < limit; i++) {
+            data[i] = left[i] / right[i];
+        }
+    }
+
+    static double dot(final double[] array1, final int offset1, final double[] array2, final int offset2, final int first, final int limit) {
+        double retVal = 0.0;
+        for (int i = first; i < limit; i++) {
+            retVal += array1[offset1 + i] * array2[offset2 + i];
+        }
+        return retVal;
+    }
+
+    static float dot(final float[] array1, final int offset1, final float[] array2, final int offset2, final int first, final int limit) {
+        float retVal = 0F;
+        for (int i = first; i < limit; i++) {
+            retVal += array1[offset1 + i] * array2[offset2 + i];
+        }
+        return retVal;
+    }
+
+    static void multiply(final double[] data, final int first, final int limit, final double[] left, final double[] right) {
+        for (int i = first; i < limit; i++) {
+            data[i] = left[i] * right[i];
+        }
+    }
+
+    static void multiply(final float[] data, final int first, final int limit, final float[] left, final float[] right) {
+        for (int i = first; i < limit; i++) {
+            data[i] = left[i] * right[i];
+        }
+    }
+
+    static void multiply(final double[] data, final int first, final int limit, final double[] left, final double right) {
+        for (int i = first; i < limit; i++) {
+            data[i] = left[i] * right;
+        }
+    }
+
+    static void multiply(final float[] data, final int first, final int limit, final float[] left, final float right) {
+        for (int i = first; i < limit; i++) {
+            data[i] = left[i] * right;
+        }
+    }
+
+    static void subtract(final double[] data, final int first, final int limit, final double[] left, final double[] right) {
+        for (int i = first; i < limit; i++) {
+            data[i] = left[i] - right[i];
+        }
+    }
+
+    static void subtract(final float[] data, final int first, final int limit, final float[] left, final float[] right) {
+        for (int i = first; i < limit; i++) {
+            data[i] = left[i] - right[i];
+        }
+    }
+
+    private static boolean isAvailable() {
+        return false;
+    }
+
+}
@@ -31,6 +31,7 @@ import org.ojalgo.matrix.store.GenericStore;
 import org.ojalgo.matrix.store.MatrixStore;
 import org.ojalgo.matrix.store.PhysicalStore;
 import org.ojalgo.matrix.store.Primitive64Store;
+import org.ojalgo.matrix.store.QuadrupleStore;
 import org.ojalgo.scalar.ComplexNumber;
 import org.ojalgo.scalar.Quadruple;
 import org.ojalgo.scalar.Quaternion;
@@ -76,7 +77,7 @@ abstract class CholeskyDecomposition<N extends Comparable<N>> extends InPlaceDec
     static final class R128 extends CholeskyDecomposition<Quadruple> {
 
         R128() {
-            super(GenericStore.R128);
+            super(QuadrupleStore.FACTORY);
         }
 
     }
@@ -32,6 +32,7 @@ import org.ojalgo.matrix.store.GenericStore;
 import org.ojalgo.matrix.store.MatrixStore;
 import org.ojalgo.matrix.store.PhysicalStore;
 import org.ojalgo.matrix.store.Primitive64Store;
+import org.ojalgo.matrix.store.QuadrupleStore;
 import org.ojalgo.scalar.ComplexNumber;
 import org.ojalgo.scalar.Quadruple;
 import org.ojalgo.scalar.Quaternion;
@@ -79,7 +80,7 @@ abstract class LUDecomposition<N extends Comparable<N>> extends InPlaceDecomposi
     static final class R128 extends LUDecomposition<Quadruple> {
 
         R128() {
-            super(GenericStore.R128);
+            super(QuadrupleStore.FACTORY);
         }
 
     }
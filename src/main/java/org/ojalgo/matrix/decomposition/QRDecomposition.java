@@ -30,6 +30,7 @@ import org.ojalgo.matrix.store.GenericStore;
 import org.ojalgo.matrix.store.MatrixStore;
 import org.ojalgo.matrix.store.PhysicalStore;
 import org.ojalgo.matrix.store.Primitive64Store;
+import org.ojalgo.matrix.store.QuadrupleStore;
 import org.ojalgo.matrix.transformation.Householder;
 import org.ojalgo.matrix.transformation.HouseholderReference;
 import org.ojalgo.scalar.ComplexNumber;
@@ -98,7 +99,7 @@ abstract class QRDecomposition<N extends Comparable<N>> extends InPlaceDecomposi
         }
 
         R128(final boolean fullSize) {
-            super(GenericStore.R128, fullSize);
+            super(QuadrupleStore.FACTORY, fullSize);
         }
 
     }
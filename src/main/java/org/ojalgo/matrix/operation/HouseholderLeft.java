@@ -25,11 +25,13 @@ import java.util.function.IntSupplier;
 
 import org.ojalgo.array.operation.AXPY;
 import org.ojalgo.array.operation.DOT;
+import org.ojalgo.array.operation.DOTC;
 import org.ojalgo.concurrent.DivideAndConquer;
 import org.ojalgo.concurrent.DivideAndConquer.Conquerer;
 import org.ojalgo.concurrent.Parallelism;
 import org.ojalgo.concurrent.ProcessingService;
 import org.ojalgo.matrix.transformation.Householder;
+import org.ojalgo.scalar.ComplexNumber;
 import org.ojalgo.scalar.Scalar;
 
 public final class HouseholderLeft implements MatrixOperation {
@@ -54,6 +56,22 @@ public final class HouseholderLeft implements MatrixOperation {
         HouseholderLeft.call(data, structure, first, householder.vector, householder.first, householder.beta);
     }
 
+    /**
+     * Column-major data and Householder vector with split storage, see {@link org.ojalgo.array.SplitComplexArray}
+     */
+    public static void call(final double[] dataRe, final double[] dataIm, final int structure, final int first, final double[] hVectorRe,
+            final double[] hVectorIm, final int hFirst, final double hBetaRe, final double hBetaIm) {
+
+        int nbCols = dataRe.length / structure;
+
+        if (nbCols > THRESHOLD) {
+            HouseholderLeft.divide(first, nbCols,
+                    (f, l) -> HouseholderLeft.invoke(dataRe, dataIm, structure, f, l, hVectorRe, hVectorIm, hFirst, hBetaRe, hBetaIm));
+        } else {
+            HouseholderLeft.invoke(dataRe, dataIm, structure, first, nbCols, hVectorRe, hVectorIm, hFirst, hBetaRe, hBetaIm);
+        }
+    }
+
     public static void call(final double[][] data, final int structure, final int first, final double[] hVector, final int hFirst, final double hBeta) {
 
         int nbCols = data.length;
@@ -131,6 +149,16 @@ public final class HouseholderLeft implements MatrixOperation {
         }
     }
 
+    static void invoke(final double[] dataRe, final double[] dataIm, final int structure, final int first, final int limit,
+            final double[] hVectorRe, final double[] hVectorIm, final int hFirst, final double hBetaRe, final double hBetaIm) {
+        for (int j = first; j < limit; j++) {
+            ComplexNumber dot = DOTC.invoke(hVectorRe, hVectorIm, 0, dataRe, dataIm, j * structure, hFirst, structure);
+            double scaleRe = hBetaRe * dot.getReal() - hBetaIm * dot.getImaginary();
+            double scaleIm = hBetaRe * dot.getImaginary() + hBetaIm * dot.getReal();
+            AXPY.invoke(dataRe, dataIm, j * structure, -scaleRe, -scaleIm, hVectorRe, hVectorIm, 0, hFirst, structure);
+        }
+    }
+
     static <N extends Scalar<N>> void invoke(final N[] data, final int structure, final int first, final int limit, final Householder.Generic<N> householder,
             final Scalar.Factory<N> scalar) {
 
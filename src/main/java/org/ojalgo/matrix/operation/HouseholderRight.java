@@ -57,6 +57,19 @@ public final class HouseholderRight implements MatrixOperation {
         }
     }
 
+    /**
+     * Column-major data and Householder vector with split storage, see {@link org.ojalgo.array.SplitComplexArray}
+     */
+    public static void call(final double[] dataRe, final double[] dataIm, final int structure, final int first, final double[] hVectorRe,
+            final double[] hVectorIm, final int hFirst, final double hBetaRe, final double hBetaIm) {
+
+        int nbRows = structure;
+        int nbCols = dataRe.length / structure;
+
+        HouseholderRight.divide(first, nbRows,
+                (f, l) -> HouseholderRight.invoke(dataRe, dataIm, structure, f, l, nbCols, hVectorRe, hVectorIm, hFirst, hBetaRe, hBetaIm));
+    }
+
     public static void call(final float[] data, final int structure, final int first, final Householder.Primitive32 householder, final float[] work) {
 
         int nbRows = structure;
@@ -95,6 +108,30 @@ public final class HouseholderRight implements MatrixOperation {
         HouseholderRight.step2(data, structure, first, work, limit, numberOfColumns, hVector, hFirst);
     }
 
+    private static void invoke(final double[] dataRe, final double[] dataIm, final int structure, final int first, final int limit,
+            final int numberOfColumns, final double[] hVectorRe, final double[] hVectorIm, final int hFirst, final double hBetaRe, final double hBetaIm) {
+
+        for (int i = first; i < limit; i++) {
+
+            double tmpRe = PrimitiveMath.ZERO;
+            double tmpIm = PrimitiveMath.ZERO;
+            for (int j = hFirst, index = i + hFirst * structure; j < numberOfColumns; j++, index += structure) {
+                tmpRe += hVectorRe[j] * dataRe[index] - hVectorIm[j] * dataIm[index];
+                tmpIm += hVectorRe[j] * dataIm[index] + hVectorIm[j] * dataRe[index];
+            }
+
+            // scale = beta * conj(sum(v*a))
+            double scaleRe = hBetaRe * tmpRe + hBetaIm * tmpIm;
+            double scaleIm = hBetaIm * tmpRe - hBetaRe * tmpIm;
+
+            // a -= conj(scale * v)
+            for (int j = hFirst, index = i + hFirst * structure; j < numberOfColumns; j++, index += structure) {
+                dataRe[index] -= scaleRe * hVectorRe[j] - scaleIm * hVectorIm[j];
+                dataIm[index] += scaleRe * hVectorIm[j] + scaleIm * hVectorRe[j];
+            }
+        }
+    }
+
     private static void invoke(final float[] data, final int structure, final int first, final int limit, final int numberOfColumns,
             final Householder.Primitive32 householder, final float[] work) {
 
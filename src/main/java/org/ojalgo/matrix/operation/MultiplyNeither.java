@@ -36,6 +36,16 @@ import org.ojalgo.scalar.Scalar.Factory;
 
 public class MultiplyNeither implements MatrixOperation {
 
+    /**
+     * Column-major matrices with split storage, see {@link org.ojalgo.array.SplitComplexArray}
+     */
+    @FunctionalInterface
+    public interface Complex {
+
+        void invoke(double[] productRe, double[] productIm, double[] leftRe, double[] leftIm, int complexity, double[] rightRe, double[] rightIm);
+
+    }
+
     @FunctionalInterface
     public interface Generic<N extends Scalar<N>> {
 
@@ -62,6 +72,13 @@ public class MultiplyNeither implements MatrixOperation {
 
     private static final DivideAndConquer.Divider DIVIDER = ProcessingService.INSTANCE.divider();
 
+    public static MultiplyNeither.Complex newComplex(final long rows, final long columns) {
+        if (rows > THRESHOLD && columns > THRESHOLD) {
+            return MultiplyNeither::fillMxN_MT;
+        }
+        return MultiplyNeither::fillMxN;
+    }
+
     public static <N extends Scalar<N>> MultiplyNeither.Generic<N> newGeneric(final long rows, final long columns) {
         if (rows > THRESHOLD && columns > THRESHOLD) {
             return MultiplyNeither::fillMxN_MT;
@@ -189,6 +206,22 @@ public class MultiplyNeither implements MatrixOperation {
         }
     }
 
+    /**
+     * Each column of the left matrix is read once per column of the product, and no temporary complex
+     * numbers are created.
+     */
+    static void addMxC(final double[] productRe, final double[] productIm, final int firstColumn, final int columnLimit, final double[] leftRe,
+            final double[] leftIm, final int complexity, final double[] rightRe, final double[] rightIm) {
+
+        int nbRows = leftRe.length / complexity;
+
+        for (int j = firstColumn; j < columnLimit; j++) {
+            for (int c = 0; c < complexity; c++) {
+                AXPY.invoke(productRe, productIm, j * nbRows, rightRe[c + j * complexity], rightIm[c + j * complexity], leftRe, leftIm, c * nbRows, 0, nbRows);
+            }
+        }
+    }
+
     static void addMxC(final double[] product, final int firstColumn, final int columnLimit, final double[] left, final int complexity, final double[] right) {
 
         int nbRows = left.length / complexity;
@@ -223,6 +256,12 @@ public class MultiplyNeither implements MatrixOperation {
         }
     }
 
+    static void addMxN_MT(final double[] productRe, final double[] productIm, final double[] leftRe, final double[] leftIm, final int complexity,
+            final double[] rightRe, final double[] rightIm) {
+        MultiplyNeither.divide(0, rightRe.length / complexity,
+                (f, l) -> MultiplyNeither.addMxC(productRe, productIm, f, l, leftRe, leftIm, complexity, rightRe, rightIm));
+    }
+
     static void addMxN_MT(final double[] product, final double[] left, final int complexity, final double[] right) {
         MultiplyNeither.divide(0, right.length / complexity, (f, l) -> MultiplyNeither.addMxC(product, f, l, left, complexity, right));
     }
@@ -756,6 +795,15 @@ public class MultiplyNeither implements MatrixOperation {
         MultiplyNeither.addMx1(product, left, complexity, right);
     }
 
+    static void fillMxN(final double[] productRe, final double[] productIm, final double[] leftRe, final double[] leftIm, final int complexity,
+            final double[] rightRe, final double[] rightIm) {
+
+        Arrays.fill(productRe, 0D);
+        Arrays.fill(productIm, 0D);
+
+        MultiplyNeither.addMxC(productRe, productIm, 0, rightRe.length / complexity, leftRe, leftIm, complexity, rightRe, rightIm);
+    }
+
     static void fillMxN(final double[] product, final double[] left, final int complexity, final double[] right) {
 
         Arrays.fill(product, 0D);
@@ -777,6 +825,15 @@ public class MultiplyNeither implements MatrixOperation {
         MultiplyNeither.addMxC(product, 0, right.length / complexity, left, complexity, right);
     }
 
+    static void fillMxN_MT(final double[] productRe, final double[] productIm, final double[] leftRe, final double[] leftIm, final int complexity,
+            final double[] rightRe, final double[] rightIm) {
+
+        Arrays.fill(productRe, 0D);
+        Arrays.fill(productIm, 0D);
+
+        MultiplyNeither.addMxN_MT(productRe, productIm, leftRe, leftIm, complexity, rightRe, rightIm);
+    }
+
     static void fillMxN_MT(final double[] product, final double[] left, final int complexity, final double[] right) {
 
         Arrays.fill(product, 0D);
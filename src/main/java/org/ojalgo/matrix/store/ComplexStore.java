@@ -0,0 +1,698 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import java.util.List;
+
+import org.ojalgo.ProgrammingError;
+import org.ojalgo.array.Array1D;
+import org.ojalgo.array.Array2D;
+import org.ojalgo.array.DenseArray;
+import org.ojalgo.array.SplitComplexArray;
+import org.ojalgo.array.operation.SubstituteBackwards;
+import org.ojalgo.array.operation.SubstituteForwards;
+import org.ojalgo.function.ComplexFunction;
+import org.ojalgo.function.FunctionSet;
+import org.ojalgo.function.NullaryFunction;
+import org.ojalgo.function.UnaryFunction;
+import org.ojalgo.function.VoidFunction;
+import org.ojalgo.function.aggregator.AggregatorSet;
+import org.ojalgo.function.aggregator.ComplexAggregator;
+import org.ojalgo.function.constant.ComplexMath;
+import org.ojalgo.matrix.operation.HouseholderLeft;
+import org.ojalgo.matrix.operation.HouseholderRight;
+import org.ojalgo.matrix.operation.MultiplyBoth;
+import org.ojalgo.matrix.operation.MultiplyNeither;
+import org.ojalgo.matrix.transformation.Householder;
+import org.ojalgo.matrix.transformation.HouseholderReference;
+import org.ojalgo.matrix.transformation.Rotation;
+import org.ojalgo.scalar.ComplexNumber;
+import org.ojalgo.scalar.Scalar;
+import org.ojalgo.structure.Access1D;
+import org.ojalgo.structure.Access2D;
+
+/**
+ * A {@link PhysicalStore} of {@link ComplexNumber} backed by a {@link SplitComplexArray} – the real and imaginary
+ * parts are stored in 2 separate (column-major) double[]. Compared to {@link GenericStore#C128} the
+ * multiplication and Householder kernels work directly on the double[]:s, without creating any
+ * {@link ComplexNumber} instances. Element-wise access, rotations and substitutions work, but go via
+ * {@link ComplexNumber}.
+ *
+ * @author apete
+ */
+@SuppressWarnings("deprecation")
+public final class ComplexStore extends SplitComplexArray implements PhysicalStore<ComplexNumber> {
+
+    public static final PhysicalStore.Factory<ComplexNumber, ComplexStore> FACTORY = new PhysicalStore.Factory<>() {
+
+        public AggregatorSet<ComplexNumber> aggregator() {
+            return ComplexAggregator.getSet();
+        }
+
+        public DenseArray.Factory<ComplexNumber> array() {
+            return SplitComplexArray.FACTORY;
+        }
+
+        public ComplexStore columns(final Access1D<?>... source) {
+
+            int tmpRowDim = (int) source[0].count();
+            int tmpColDim = source.length;
+
+            ComplexStore retVal = new ComplexStore(tmpRowDim, tmpColDim);
+
+            for (int j = 0; j < tmpColDim; j++) {
+                Access1D<?> tmpColumn = source[j];
+                for (int i = 0; i < tmpRowDim; i++) {
+                    retVal.put(i + tmpRowDim * j, tmpColumn.get(i));
+                }
+            }
+
+            return retVal;
+        }
+
+        public ComplexStore columns(final Comparable<?>[]... source) {
+
+            int tmpRowDim = source[0].length;
+            int tmpColDim = source.length;
+
+            ComplexStore retVal = new ComplexStore(tmpRowDim, tmpColDim);
+
+            for (int j = 0; j < tmpColDim; j++) {
+                Comparable<?>[] tmpColumn = source[j];
+                for (int i = 0; i < tmpRowDim; i++) {
+                    retVal.put(i + tmpRowDim * j, tmpColumn[i]);
+                }
+            }
+
+            return retVal;
+        }
+
+        public ComplexStore columns(final double[]... source) {
+
+            int tmpRowDim = source[0].length;
+            int tmpColDim = source.length;
+
+            ComplexStore retVal = new ComplexStore(tmpRowDim, tmpColDim);
+
+            for (int j = 0; j < tmpColDim; j++) {
+                System.arraycopy(source[j], 0, retVal.re, tmpRowDim * j, tmpRowDim);
+            }
+
+            return retVal;
+        }
+
+        @SafeVarargs
+        public final ComplexStore columns(final List<? extends Comparable<?>>... source) {
+
+            int tmpRowDim = source[0].size();
+            int tmpColDim = source.length;
+
+            ComplexStore retVal = new ComplexStore(tmpRowDim, tmpColDim);
+
+            for (int j = 0; j < tmpColDim; j++) {
+                List<? extends Comparable<?>> tmpColumn = source[j];
+                for (int i = 0; i < tmpRowDim; i++) {
+                    retVal.put(i + tmpRowDim * j, tmpColumn.get(i));
+                }
+            }
+
+            return retVal;
+        }
+
+        public ComplexStore conjugate(final Access2D<?> source) {
+
+            ComplexStore retVal = this.transpose(source);
+
+            double[] tmpIm = retVal.im;
+            for (int i = 0; i < tmpIm.length; i++) {
+                tmpIm[i] = -tmpIm[i];
+            }
+
+            return retVal;
+        }
+
+        public ComplexStore copy(final Access2D<?> source) {
+
+            int tmpRowDim = Math.toIntExact(source.countRows());
+            int tmpColDim = Math.toIntExact(source.countColumns());
+
+            ComplexStore retVal = new ComplexStore(tmpRowDim, tmpColDim);
+
+            retVal.fillMatching(source);
+
+            return retVal;
+        }
+
+        public FunctionSet<ComplexNumber> function() {
+            return ComplexFunction.getSet();
+        }
+
+        public ComplexStore make(final long rows, final long columns) {
+            return new ComplexStore(Math.toIntExact(rows), Math.toIntExact(columns));
+        }
+
+        public Householder.Generic<ComplexNumber> makeHouseholder(final int length) {
+            return new Householder.Generic<>(ComplexNumber.FACTORY, length);
+        }
+
+        public Rotation.Generic<ComplexNumber> makeRotation(final int low, final int high, final ComplexNumber cos, final ComplexNumber sin) {
+            return new Rotation.Generic<>(low, high, cos, sin);
+        }
+
+        public Rotation.Generic<ComplexNumber> makeRotation(final int low, final int high, final double cos, final double sin) {
+            return this.makeRotation(low, high, ComplexNumber.valueOf(cos), ComplexNumber.valueOf(sin));
+        }
+
+        public ComplexStore rows(final Access1D<?>... source) {
+
+            int tmpRowDim = source.length;
+            int tmpColDim = (int) source[0].count();
+
+            ComplexStore retVal = new ComplexStore(tmpRowDim, tmpColDim);
+
+            for (int i = 0; i < tmpRowDim; i++) {
+                Access1D<?> tmpRow = source[i];
+                for (int j = 0; j < tmpColDim; j++) {
+                    retVal.put(i + tmpRowDim * j, tmpRow.get(j));
+                }
+            }
+
+            return retVal;
+        }
+
+        public ComplexStore rows(final Comparable<?>[]... source) {
+
+            int tmpRowDim = source.length;
+            int tmpColDim = source[0].length;
+
+            ComplexStore retVal = new ComplexStore(tmpRowDim, tmpColDim);
+
+            for (int i = 0; i < tmpRowDim; i++) {
+                Comparable<?>[] tmpRow = source[i];
+                for (int j = 0; j < tmpColDim; j++) {
+                    retVal.put(i + tmpRowDim * j, tmpRow[j]);
+                }
+            }
+
+            return retVal;
+        }
+
+        public ComplexStore rows(final double[]... source) {
+
+            int tmpRowDim = source.length;
+            int tmpColDim = source[0].length;
+
+            ComplexStore retVal = new ComplexStore(tmpRowDim, tmpColDim);
+
+            for (int i = 0; i < tmpRowDim; i++) {
+                double[] tmpRow = source[i];
+                for (int j = 0; j < tmpColDim; j++) {
+                    retVal.re[i + tmpRowDim * j] = tmpRow[j];
+                }
+            }
+
+            return retVal;
+        }
+
+        @SafeVarargs
+        public final ComplexStore rows(final List<? extends Comparable<?>>... source) {
+
+            int tmpRowDim = source.length;
+            int tmpColDim = source[0].size();
+
+            ComplexStore retVal = new ComplexStore(tmpRowDim, tmpColDim);
+
+            for (int i = 0; i < tmpRowDim; i++) {
+                List<? extends Comparable<?>> tmpRow = source[i];
+                for (int j = 0; j < tmpColDim; j++) {
+                    retVal.put(i + tmpRowDim * j, tmpRow.get(j));
+                }
+            }
+
+            return retVal;
+        }
+
+        public Scalar.Factory<ComplexNumber> scalar() {
+            return ComplexNumber.FACTORY;
+        }
+
+        public ComplexStore transpose(final Access2D<?> source) {
+
+            int tmpRowDim = Math.toIntExact(source.countColumns());
+            int tmpColDim = Math.toIntExact(source.countRows());
+
+            ComplexStore retVal = new ComplexStore(tmpRowDim, tmpColDim);
+
+            for (int j = 0; j < tmpColDim; j++) {
+                for (int i = 0; i < tmpRowDim; i++) {
+                    retVal.put(i + tmpRowDim * j, source.get(j, i));
+                }
+            }
+
+            return retVal;
+        }
+
+    };
+
+    public static ComplexStore wrap(final double[] real, final double[] imaginary, final int structure) {
+        return new ComplexStore(structure, real.length / structure, real, imaginary);
+    }
+
+    /**
+     * Returns the argument if it already is a {@link SplitComplexArray}, otherwise copies the elements to a new
+     * one (column-major, same as the stores).
+     */
+    private static SplitComplexArray cast(final Access1D<?> matrix) {
+
+        if (matrix instanceof SplitComplexArray) {
+            return (SplitComplexArray) matrix;
+        }
+
+        int tmpCount = Math.toIntExact(matrix.count());
+
+        SplitComplexArray retVal = SplitComplexArray.make(tmpCount);
+
+        for (int i = 0; i < tmpCount; i++) {
+            ComplexNumber tmpValue = ComplexNumber.valueOf(matrix.get(i));
+            retVal.re[i] = tmpValue.getReal();
+            retVal.im[i] = tmpValue.getImaginary();
+        }
+
+        return retVal;
+    }
+
+    private final int myColDim;
+    private final MultiplyNeither.Complex myMultiplyNeither;
+    private final int myRowDim;
+    private final Array2D<ComplexNumber> myUtility;
+
+    ComplexStore(final int numbRows, final int numbCols) {
+        this(numbRows, numbCols, new double[numbRows * numbCols], new double[numbRows * numbCols]);
+    }
+
+    ComplexStore(final int numbRows, final int numbCols, final double[] real, final double[] imaginary) {
+
+        super(real, imaginary);
+
+        myRowDim = numbRows;
+        myColDim = numbCols;
+
+        myUtility = this.wrapInArray2D(myRowDim);
+
+        myMultiplyNeither = MultiplyNeither.newComplex(myRowDim, myColDim);
+    }
+
+    public void add(final long row, final long col, final Comparable<?> addend) {
+        myUtility.add(row, col, addend);
+    }
+
+    public void add(final long row, final long col, final double addend) {
+        myUtility.add(row, col, addend);
+    }
+
+    public Array1D<ComplexNumber> asList() {
+        return myUtility.flatten();
+    }
+
+    public MatrixStore<ComplexNumber> conjugate() {
+        return new ConjugatedStore<>(this);
+    }
+
+    public ComplexStore copy() {
+        return new ComplexStore(myRowDim, myColDim, re.clone(), im.clone());
+    }
+
+    public long countColumns() {
+        return myColDim;
+    }
+
+    public long countRows() {
+        return myRowDim;
+    }
+
+    public double doubleValue(final long row, final long col) {
+        return re[Math.toIntExact(row + col * myRowDim)];
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!super.equals(obj) || !(obj instanceof ComplexStore)) {
+            return false;
+        }
+        ComplexStore other = (ComplexStore) obj;
+        if (myColDim != other.myColDim || myRowDim != other.myRowDim) {
+            return false;
+        }
+        return true;
+    }
+
+    public void exchangeColumns(final long colA, final long colB) {
+        myUtility.exchangeColumns(colA, colB);
+    }
+
+    public void exchangeRows(final long rowA, final long rowB) {
+        myUtility.exchangeRows(rowA, rowB);
+    }
+
+    /**
+     * If neither argument is a {@link SplitComplexArray} they are first copied to one.
+     */
+    public void fillByMultiplying(final Access1D<ComplexNumber> left, final Access1D<ComplexNumber> right) {
+
+        int complexity = Math.toIntExact(left.count() / myRowDim);
+        if (complexity != Math.toIntExact(right.count() / myColDim)) {
+            ProgrammingError.throwForMultiplicationNotPossible();
+        }
+
+        SplitComplexArray tmpLeft = ComplexStore.cast(left);
+        SplitComplexArray tmpRight = ComplexStore.cast(right);
+
+        myMultiplyNeither.invoke(re, im, tmpLeft.re, tmpLeft.im, complexity, tmpRight.re, tmpRight.im);
+    }
+
+    public void fillColumn(final long row, final long col, final Access1D<ComplexNumber> values) {
+        myUtility.fillColumn(row, col, values);
+    }
+
+    public void fillColumn(final long row, final long col, final ComplexNumber value) {
+        myUtility.fillColumn(row, col, value);
+    }
+
+    public void fillColumn(final long row, final long col, final NullaryFunction<?> supplier) {
+        myUtility.fillColumn(row, col, supplier);
+    }
+
+    public void fillDiagonal(final long row, final long col, final ComplexNumber value) {
+        myUtility.fillDiagonal(row, col, value);
+    }
+
+    public void fillDiagonal(final long row, final long col, final NullaryFunction<?> supplier) {
+        myUtility.fillDiagonal(row, col, supplier);
+    }
+
+    public void fillRow(final long row, final long col, final Access1D<ComplexNumber> values) {
+        myUtility.fillRow(row, col, values);
+    }
+
+    public void fillRow(final long row, final long col, final ComplexNumber value) {
+        myUtility.fillRow(row, col, value);
+    }
+
+    public void fillRow(final long row, final long col, final NullaryFunction<?> supplier) {
+        myUtility.fillRow(row, col, supplier);
+    }
+
+    public ComplexNumber get(final long row, final long col) {
+        return myUtility.get(row, col);
+    }
+
+    public int getColDim() {
+        return myColDim;
+    }
+
+    public int getRowDim() {
+        return myRowDim;
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = super.hashCode();
+        result = prime * result + myColDim;
+        return prime * result + myRowDim;
+    }
+
+    public void modifyColumn(final long row, final long col, final UnaryFunction<ComplexNumber> modifier) {
+        myUtility.modifyColumn(row, col, modifier);
+    }
+
+    public void modifyDiagonal(final long row, final long col, final UnaryFunction<ComplexNumber> modifier) {
+        myUtility.modifyDiagonal(row, col, modifier);
+    }
+
+    public void modifyOne(final long row, final long col, final UnaryFunction<ComplexNumber> modifier) {
+        myUtility.modifyOne(row, col, modifier);
+    }
+
+    public void modifyRow(final long row, final long col, final UnaryFunction<ComplexNumber> modifier) {
+        myUtility.modifyRow(row, col, modifier);
+    }
+
+    public MatrixStore<ComplexNumber> multiply(final MatrixStore<ComplexNumber> right) {
+
+        ComplexStore retVal = FACTORY.make(myRowDim, right.countColumns());
+
+        retVal.fillByMultiplying(this, right);
+
+        return retVal;
+    }
+
+    public PhysicalStore.Factory<ComplexNumber, ComplexStore> physical() {
+        return FACTORY;
+    }
+
+    public TransformableRegion<ComplexNumber> regionByColumns(final int... columns) {
+        return new Subregion2D.ColumnsRegion<>(this, this.multiplier(), columns);
+    }
+
+    public TransformableRegion<ComplexNumber> regionByLimits(final int rowLimit, final int columnLimit) {
+        return new Subregion2D.LimitRegion<>(this, this.multiplier(), rowLimit, columnLimit);
+    }
+
+    public TransformableRegion<ComplexNumber> regionByOffsets(final int rowOffset, final int columnOffset) {
+        return new Subregion2D.OffsetRegion<>(this, this.multiplier(), rowOffset, columnOffset);
+    }
+
+    public TransformableRegion<ComplexNumber> regionByRows(final int... rows) {
+        return new Subregion2D.RowsRegion<>(this, this.multiplier(), rows);
+    }
+
+    public TransformableRegion<ComplexNumber> regionByTransposing() {
+        return new Subregion2D.TransposedRegion<>(this, this.multiplier());
+    }
+
+    public void set(final long row, final long col, final Comparable<?> value) {
+        myUtility.set(row, col, value);
+    }
+
+    public void set(final long row, final long col, final double value) {
+        myUtility.set(row, col, value);
+    }
+
+    public Array1D<ComplexNumber> sliceColumn(final long row, final long col) {
+        return myUtility.sliceColumn(row, col);
+    }
+
+    public Array1D<ComplexNumber> sliceDiagonal(final long row, final long col) {
+        return myUtility.sliceDiagonal(row, col);
+    }
+
+    public Array1D<ComplexNumber> sliceRange(final long first, final long limit) {
+        return myUtility.sliceRange(first, limit);
+    }
+
+    public Array1D<ComplexNumber> sliceRow(final long row, final long col) {
+        return myUtility.sliceRow(row, col);
+    }
+
+    public void substituteBackwards(final Access2D<ComplexNumber> body, final boolean unitDiagonal, final boolean conjugated, final boolean hermitian) {
+        ComplexNumber[] column = new ComplexNumber[myRowDim];
+        for (int j = 0; j < myColDim; j++) {
+            this.getColumn(j, column);
+            SubstituteBackwards.invoke(column, myRowDim, 0, 1, body, unitDiagonal, conjugated, hermitian, ComplexNumber.FACTORY);
+            this.setColumn(j, column);
+        }
+    }
+
+    public void substituteForwards(final Access2D<ComplexNumber> body, final boolean unitDiagonal, final boolean conjugated, final boolean identity) {
+        ComplexNumber[] column = new ComplexNumber[myRowDim];
+        for (int j = 0; j < myColDim; j++) {
+            this.getColumn(j, column);
+            SubstituteForwards.invoke(column, myRowDim, 0, 1, body, unitDiagonal, conjugated, identity, ComplexNumber.FACTORY);
+            this.setColumn(j, column);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return Access2D.toString(this);
+    }
+
+    public void transformLeft(final Householder<ComplexNumber> transformation, final int firstColumn) {
+
+        Householder.Generic<ComplexNumber> tmpTransf = this.cast(transformation);
+
+        double[] tmpVectorRe = new double[myRowDim];
+        double[] tmpVectorIm = new double[myRowDim];
+        for (int i = tmpTransf.first; i < myRowDim; i++) {
+            tmpVectorRe[i] = tmpTransf.vector[i].getReal();
+            tmpVectorIm[i] = tmpTransf.vector[i].getImaginary();
+        }
+
+        HouseholderLeft.call(re, im, myRowDim, firstColumn, tmpVectorRe, tmpVectorIm, tmpTransf.first, tmpTransf.beta.getReal(),
+                tmpTransf.beta.getImaginary());
+    }
+
+    public void transformLeft(final Rotation<ComplexNumber> transformation) {
+
+        Rotation.Generic<ComplexNumber> tmpTransf = this.cast(transformation);
+
+        int tmpLow = tmpTransf.low;
+        int tmpHigh = tmpTransf.high;
+
+        if (tmpLow != tmpHigh) {
+            if (tmpTransf.cos != null && tmpTransf.sin != null) {
+                this.rotate(tmpLow, tmpHigh, myRowDim, myColDim, tmpTransf.cos, tmpTransf.sin);
+            } else {
+                myUtility.exchangeRows(tmpLow, tmpHigh);
+            }
+        } else if (tmpTransf.cos != null) {
+            myUtility.modifyRow(tmpLow, 0, ComplexMath.MULTIPLY.second(tmpTransf.cos));
+        } else if (tmpTransf.sin != null) {
+            myUtility.modifyRow(tmpLow, 0, ComplexMath.DIVIDE.second(tmpTransf.sin));
+        } else {
+            myUtility.modifyRow(tmpLow, 0, ComplexMath.NEGATE);
+        }
+    }
+
+    public void transformRight(final Householder<ComplexNumber> transformation, final int firstRow) {
+
+        Householder.Generic<ComplexNumber> tmpTransf = this.cast(transformation);
+
+        double[] tmpVectorRe = new double[myColDim];
+        double[] tmpVectorIm = new double[myColDim];
+        for (int j = tmpTransf.first; j < myColDim; j++) {
+            tmpVectorRe[j] = tmpTransf.vector[j].getReal();
+            tmpVectorIm[j] = tmpTransf.vector[j].getImaginary();
+        }
+
+        HouseholderRight.call(re, im, myRowDim, firstRow, tmpVectorRe, tmpVectorIm, tmpTransf.first, tmpTransf.beta.getReal(),
+                tmpTransf.beta.getImaginary());
+    }
+
+    public void transformRight(final Rotation<ComplexNumber> transformation) {
+
+        Rotation.Generic<ComplexNumber> tmpTransf = this.cast(transformation);
+
+        int tmpLow = tmpTransf.low;
+        int tmpHigh = tmpTransf.high;
+
+        if (tmpLow != tmpHigh) {
+            if (tmpTransf.cos != null && tmpTransf.sin != null) {
+                this.rotate(tmpLow * myRowDim, tmpHigh * myRowDim, 1, myRowDim, tmpTransf.cos, tmpTransf.sin.negate());
+            } else {
+                myUtility.exchangeColumns(tmpLow, tmpHigh);
+            }
+        } else if (tmpTransf.cos != null) {
+            myUtility.modifyColumn(0, tmpHigh, ComplexMath.MULTIPLY.second(tmpTransf.cos));
+        } else if (tmpTransf.sin != null) {
+            myUtility.modifyColumn(0, tmpHigh, ComplexMath.DIVIDE.second(tmpTransf.sin));
+        } else {
+            myUtility.modifyColumn(0, tmpHigh, ComplexMath.NEGATE);
+        }
+    }
+
+    public MatrixStore<ComplexNumber> transpose() {
+        return new TransposedStore<>(this);
+    }
+
+    public void visitColumn(final long row, final long col, final VoidFunction<ComplexNumber> visitor) {
+        myUtility.visitColumn(row, col, visitor);
+    }
+
+    public void visitDiagonal(final long row, final long col, final VoidFunction<ComplexNumber> visitor) {
+        myUtility.visitDiagonal(row, col, visitor);
+    }
+
+    public void visitRow(final long row, final long col, final VoidFunction<ComplexNumber> visitor) {
+        myUtility.visitRow(row, col, visitor);
+    }
+
+    private Householder.Generic<ComplexNumber> cast(final Householder<ComplexNumber> transformation) {
+        if (transformation instanceof Householder.Generic) {
+            return (Householder.Generic<ComplexNumber>) transformation;
+        }
+        if (transformation instanceof HouseholderReference<?>) {
+            return ((Householder.Generic<ComplexNumber>) ((HouseholderReference<ComplexNumber>) transformation).getWorker(FACTORY)).copy(transformation);
+        }
+        return new Householder.Generic<>(ComplexNumber.FACTORY, transformation);
+    }
+
+    private Rotation.Generic<ComplexNumber> cast(final Rotation<ComplexNumber> transformation) {
+        if (transformation instanceof Rotation.Generic) {
+            return (Rotation.Generic<ComplexNumber>) transformation;
+        }
+        return new Rotation.Generic<>(transformation);
+    }
+
+    private void getColumn(final int col, final ComplexNumber[] destination) {
+        for (int i = 0, index = col * myRowDim; i < myRowDim; i++, index++) {
+            destination[i] = ComplexNumber.of(re[index], im[index]);
+        }
+    }
+
+    private TransformableRegion.FillByMultiplying<ComplexNumber> multiplier() {
+        return MultiplyBoth.newGeneric(myRowDim, myColDim);
+    }
+
+    private void put(final int index, final Object value) {
+        ComplexNumber tmpValue = ComplexNumber.valueOf((Comparable<?>) value);
+        re[index] = tmpValue.getReal();
+        im[index] = tmpValue.getImaginary();
+    }
+
+    /**
+     * a = cos*a + sin*b and b = cos*b - sin*a, for count elements starting at indexA and indexB respectively.
+     */
+    private void rotate(final int indexA, final int indexB, final int stride, final int count, final ComplexNumber cos,
+            final ComplexNumber sin) {
+
+        double cosRe = cos.getReal();
+        double cosIm = cos.getImaginary();
+        double sinRe = sin.getReal();
+        double sinIm = sin.getImaginary();
+
+        for (int k = 0, a = indexA, b = indexB; k < count; k++, a += stride, b += stride) {
+
+            double aRe = re[a];
+            double aIm = im[a];
+            double bRe = re[b];
+            double bIm = im[b];
+
+            re[a] = cosRe * aRe - cosIm * aIm + sinRe * bRe - sinIm * bIm;
+            im[a] = cosRe * aIm + cosIm * aRe + sinRe * bIm + sinIm * bRe;
+            re[b] = cosRe * bRe - cosIm * bIm - sinRe * aRe + sinIm * aIm;
+            im[b] = cosRe * bIm + cosIm * bRe - sinRe * aIm - sinIm * aRe;
+        }
+    }
+
+    private void setColumn(final int col, final ComplexNumber[] source) {
+        for (int i = 0, index = col * myRowDim; i < myRowDim; i++, index++) {
+            re[index] = source[i].getReal();
+            im[index] = source[i].getImaginary();
+        }
+    }
+
+}
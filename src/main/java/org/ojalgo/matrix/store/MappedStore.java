@@ -0,0 +1,768 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import org.ojalgo.ProgrammingError;
+import org.ojalgo.array.operation.SubstituteBackwards;
+import org.ojalgo.array.operation.SubstituteForwards;
+import org.ojalgo.concurrent.DaemonPoolExecutor;
+import org.ojalgo.function.UnaryFunction;
+import org.ojalgo.function.constant.PrimitiveMath;
+import org.ojalgo.matrix.operation.MultiplyBoth;
+import org.ojalgo.matrix.transformation.Householder;
+import org.ojalgo.matrix.transformation.Rotation;
+import org.ojalgo.structure.Access1D;
+import org.ojalgo.structure.Access2D;
+import org.ojalgo.type.NumberDefinition;
+import org.ojalgo.type.math.MathType;
+
+/**
+ * A {@link PhysicalStore} backed by a memory mapped file – for matrices larger than the available memory.
+ * <p>
+ * The matrix is stored in (column-major) tiles, ordered column-major, and the file is mapped in several
+ * segments (so there is no 2GB limit). The file starts with a small header containing the shape, the element
+ * type and the tile size, and an existing file can be reopened, with {@link #open(File)}, without reading or
+ * converting any of the elements.
+ * <p>
+ * The {@link #fillByMultiplying(Access1D, Access1D)} and {@link #multiply(Access1D, TransformableRegion)}
+ * implementations process one tile at the time, in file order. Iterating over {@link #columns()} prefetches
+ * the next tile column on a background thread. Element-wise operations work, but are not particularly fast.
+ * <p>
+ * Remember to {@link #close()} it – that writes all changes to the file.
+ *
+ * @author apete
+ */
+public final class MappedStore implements PhysicalStore<Double>, AutoCloseable {
+
+    final class MappedColumns extends ColumnView<Double> {
+
+        MappedColumns() {
+            super(MappedStore.this);
+        }
+
+        @Override
+        public MappedColumns iterator() {
+            return new MappedColumns();
+        }
+
+        @Override
+        public MappedColumns next() {
+            super.next();
+            long column = this.column();
+            if (column % myTileColumns == 0L) {
+                MappedStore.this.prefetch(column / myTileColumns + 1L);
+            }
+            return this;
+        }
+
+    }
+
+    /**
+     * The header size in bytes – the elements start at this file position.
+     */
+    public static final int HEADER = 64;
+
+    static final long MAGIC = 0x6F6A416C676F4D53L;
+    static final long PAGE = 4_096L;
+    static final int VERSION = 1;
+
+    /**
+     * Max number of bytes mapped in each segment. Does not affect the file layout.
+     */
+    static long SEGMENT = 1L << 30;
+
+    private static final ExecutorService PREFETCHER = DaemonPoolExecutor.newSingleThreadExecutor("ojAlgo-mapped-prefetch");
+
+    /**
+     * Create a new file (overwriting any existing) with a {@link MathType#R064} matrix using the default tile
+     * size.
+     */
+    public static MappedStore make(final File file, final long rows, final long columns) {
+
+        int tileColumns = (int) Math.min(256L, columns);
+        int tileRows = (int) Math.min(rows, Math.max(256L, 65_536L / tileColumns));
+
+        return MappedStore.make(file, MathType.R064, rows, columns, tileRows, tileColumns);
+    }
+
+    /**
+     * Create a new file (overwriting any existing).
+     *
+     * @param type Either {@link MathType#R064} or {@link MathType#R032}
+     * @param tileRows The number of rows in each tile
+     * @param tileColumns The number of columns in each tile
+     */
+    public static MappedStore make(final File file, final MathType type, final long rows, final long columns, final int tileRows, final int tileColumns) {
+
+        if (type != MathType.R064 && type != MathType.R032) {
+            throw new IllegalArgumentException("Only R064 or R032 supported!");
+        }
+        if (rows <= 0L || columns <= 0L || tileRows <= 0 || tileColumns <= 0) {
+            throw new IllegalArgumentException();
+        }
+
+        int rowsInTile = (int) Math.min(tileRows, rows);
+        int columnsInTile = (int) Math.min(tileColumns, columns);
+
+        if ((long) rowsInTile * columnsInTile * type.getTotalMemory() > SEGMENT) {
+            throw new IllegalArgumentException("Tile too large!");
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+        header.putLong(MAGIC);
+        header.putInt(VERSION);
+        header.putInt((int) type.getTotalMemory());
+        header.putLong(rows);
+        header.putLong(columns);
+        header.putInt(rowsInTile);
+        header.putInt(columnsInTile);
+        header.clear();
+
+        try (RandomAccessFile access = new RandomAccessFile(file, "rw")) {
+            access.setLength(0L);
+            access.getChannel().write(header, 0L);
+        } catch (IOException cause) {
+            throw new RuntimeException(cause);
+        }
+
+        return MappedStore.open(file);
+    }
+
+    /**
+     * Open (map) an existing file, previously created using one of the <code>make(...)</code> methods.
+     */
+    public static MappedStore open(final File file) {
+
+        try {
+
+            FileChannel channel = new RandomAccessFile(file, "rw").getChannel();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0L);
+            header.flip();
+
+            if (header.remaining() < HEADER || header.getLong() != MAGIC || header.getInt() != VERSION) {
+                channel.close();
+                throw new IllegalArgumentException("Not a MappedStore file: " + file);
+            }
+
+            MathType type = header.getInt() == 4 ? MathType.R032 : MathType.R064;
+            long rows = header.getLong();
+            long columns = header.getLong();
+            int tileRows = header.getInt();
+            int tileColumns = header.getInt();
+
+            return new MappedStore(channel, type, rows, columns, tileRows, tileColumns);
+
+        } catch (IOException cause) {
+            throw new RuntimeException(cause);
+        }
+    }
+
+    private static double value(final Access1D<?> matrix, final long structure, final long row, final long col) {
+        if (matrix instanceof Access2D) {
+            return ((Access2D<?>) matrix).doubleValue(row, col);
+        } else {
+            return matrix.doubleValue(row + col * structure);
+        }
+    }
+
+    private final MappedByteBuffer[] myBuffers;
+    private final FileChannel myChannel;
+    private final long myColumns;
+    private final DoubleBuffer[] myDoubles;
+    private final long myElementsPerSegment;
+    private final FloatBuffer[] myFloats;
+    private final long myRows;
+    private final int myTileColumns;
+    private final int myTileRows;
+    private final long myTileRowsCount;
+    private final long myTileSize;
+    private final MathType myType;
+
+    MappedStore(final FileChannel channel, final MathType type, final long rows, final long columns, final int tileRows, final int tileColumns)
+            throws IOException {
+
+        super();
+
+        myChannel = channel;
+        myType = type;
+        myRows = rows;
+        myColumns = columns;
+        myTileRows = tileRows;
+        myTileColumns = tileColumns;
+
+        myTileRowsCount = (rows + tileRows - 1L) / tileRows;
+        long tileColumnsCount = (columns + tileColumns - 1L) / tileColumns;
+        myTileSize = (long) tileRows * tileColumns;
+
+        long elementBytes = type.getTotalMemory();
+        long tilesPerSegment = Math.max(1L, SEGMENT / (myTileSize * elementBytes));
+        myElementsPerSegment = tilesPerSegment * myTileSize;
+
+        long nbElements = myTileRowsCount * tileColumnsCount * myTileSize;
+        int nbSegments = Math.toIntExact((nbElements + myElementsPerSegment - 1L) / myElementsPerSegment);
+
+        myBuffers = new MappedByteBuffer[nbSegments];
+        myDoubles = type == MathType.R064 ? new DoubleBuffer[nbSegments] : null;
+        myFloats = type == MathType.R032 ? new FloatBuffer[nbSegments] : null;
+
+        for (int s = 0; s < nbSegments; s++) {
+
+            long first = s * myElementsPerSegment;
+            long count = Math.min(myElementsPerSegment, nbElements - first);
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, HEADER + first * elementBytes, count * elementBytes);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            myBuffers[s] = buffer;
+            if (myDoubles != null) {
+                myDoubles[s] = buffer.asDoubleBuffer();
+            } else {
+                myFloats[s] = buffer.asFloatBuffer();
+            }
+        }
+    }
+
+    public void add(final long row, final long col, final Comparable<?> addend) {
+        this.add(row, col, NumberDefinition.doubleValue(addend));
+    }
+
+    public void add(final long row, final long col, final double addend) {
+        long index = this.index(row, col);
+        this.put(index, this.value(index) + addend);
+    }
+
+    public List<Double> asList() {
+        return new AbstractList<Double>() {
+
+            @Override
+            public Double get(final int index) {
+                return MappedStore.this.get(index % myRows, index / myRows);
+            }
+
+            @Override
+            public Double set(final int index, final Double value) {
+                Double retVal = this.get(index);
+                MappedStore.this.set(index % myRows, index / myRows, value);
+                return retVal;
+            }
+
+            @Override
+            public int size() {
+                return Math.toIntExact(MappedStore.this.count());
+            }
+
+        };
+    }
+
+    /**
+     * Writes all changes to the file, and closes it.
+     */
+    public void close() {
+        this.flush();
+        try {
+            myChannel.close();
+        } catch (IOException cause) {
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * Prefetches the next tile column while iterating.
+     */
+    @Override
+    public ColumnView<Double> columns() {
+        return new MappedColumns();
+    }
+
+    public long countColumns() {
+        return myColumns;
+    }
+
+    public long countRows() {
+        return myRows;
+    }
+
+    @Override
+    public double doubleValue(final long row, final long col) {
+        return this.value(this.index(row, col));
+    }
+
+    public void fillByMultiplying(final Access1D<Double> left, final Access1D<Double> right) {
+
+        long complexity = left.count() / myRows;
+        if (complexity != right.count() / myColumns) {
+            ProgrammingError.throwForMultiplicationNotPossible();
+        }
+
+        int blockSize = myTileColumns;
+
+        double[] tile = new double[Math.toIntExact(myTileSize)];
+        double[] leftBlock = new double[myTileRows * blockSize];
+        double[] rightBlock = new double[blockSize * myTileColumns];
+
+        for (long j0 = 0L; j0 < myColumns; j0 += myTileColumns) {
+            int nbCols = (int) Math.min(myTileColumns, myColumns - j0);
+
+            for (long i0 = 0L; i0 < myRows; i0 += myTileRows) {
+                int nbRows = (int) Math.min(myTileRows, myRows - i0);
+
+                Arrays.fill(tile, 0.0);
+
+                for (long k0 = 0L; k0 < complexity; k0 += blockSize) {
+                    int nbK = (int) Math.min(blockSize, complexity - k0);
+
+                    for (int k = 0; k < nbK; k++) {
+                        for (int i = 0; i < nbRows; i++) {
+                            leftBlock[k * nbRows + i] = MappedStore.value(left, myRows, i0 + i, k0 + k);
+                        }
+                    }
+                    for (int j = 0; j < nbCols; j++) {
+                        for (int k = 0; k < nbK; k++) {
+                            rightBlock[j * nbK + k] = MappedStore.value(right, complexity, k0 + k, j0 + j);
+                        }
+                    }
+
+                    for (int j = 0; j < nbCols; j++) {
+                        for (int k = 0; k < nbK; k++) {
+                            double r = rightBlock[j * nbK + k];
+                            if (r != 0.0) {
+                                for (int i = 0, t = j * myTileRows, l = k * nbRows; i < nbRows; i++) {
+                                    tile[t + i] += leftBlock[l + i] * r;
+                                }
+                            }
+                        }
+                    }
+                }
+
+                long first = this.index(i0, j0);
+                for (int j = 0; j < nbCols; j++) {
+                    for (int i = 0; i < nbRows; i++) {
+                        this.put(first + j * myTileRows + i, tile[j * myTileRows + i]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes all changes to the file.
+     */
+    public void flush() {
+        for (MappedByteBuffer buffer : myBuffers) {
+            buffer.force();
+        }
+    }
+
+    public Double get(final long row, final long col) {
+        return Double.valueOf(this.doubleValue(row, col));
+    }
+
+    public MathType getMathType() {
+        return myType;
+    }
+
+    public int getTileColumns() {
+        return myTileColumns;
+    }
+
+    public int getTileRows() {
+        return myTileRows;
+    }
+
+    public void modifyOne(final long row, final long col, final UnaryFunction<Double> modifier) {
+        long index = this.index(row, col);
+        this.put(index, modifier.invoke(this.value(index)));
+    }
+
+    /**
+     * Streams this matrix, one tile at the time in file order, accumulating the product in memory. If the
+     * product is too large for that the target's own implementation is used.
+     */
+    @Override
+    public void multiply(final Access1D<Double> right, final TransformableRegion<Double> target) {
+
+        long complexity = myColumns;
+        long nbCols = right.count() / complexity;
+
+        if (myRows * nbCols > Integer.MAX_VALUE - 8) {
+            target.fillByMultiplying(this, right);
+            return;
+        }
+
+        int rows = (int) myRows;
+        double[] product = new double[Math.toIntExact(myRows * nbCols)];
+
+        for (long j0 = 0L; j0 < myColumns; j0 += myTileColumns) {
+            int nbTileCols = (int) Math.min(myTileColumns, myColumns - j0);
+
+            for (long i0 = 0L; i0 < myRows; i0 += myTileRows) {
+                int nbTileRows = (int) Math.min(myTileRows, myRows - i0);
+
+                long first = this.index(i0, j0);
+
+                for (int j = 0; j < nbTileCols; j++) {
+                    long offset = first + j * myTileRows;
+                    for (int k = 0; k < nbCols; k++) {
+                        double r = MappedStore.value(right, complexity, j0 + j, k);
+                        if (r != 0.0) {
+                            for (int i = 0, p = k * rows + (int) i0; i < nbTileRows; i++) {
+                                product[p + i] += this.value(offset + i) * r;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        target.fillMatching(Access1D.wrap(product));
+    }
+
+    public PhysicalStore.Factory<Double, ?> physical() {
+        return myType == MathType.R032 ? Primitive32Store.FACTORY : Primitive64Store.FACTORY;
+    }
+
+    public TransformableRegion<Double> regionByColumns(final int... columns) {
+        return new Subregion2D.ColumnsRegion<>(this, this.multiplier(), columns);
+    }
+
+    public TransformableRegion<Double> regionByLimits(final int rowLimit, final int columnLimit) {
+        return new Subregion2D.LimitRegion<>(this, this.multiplier(), rowLimit, columnLimit);
+    }
+
+    public TransformableRegion<Double> regionByOffsets(final int rowOffset, final int columnOffset) {
+        return new Subregion2D.OffsetRegion<>(this, this.multiplier(), rowOffset, columnOffset);
+    }
+
+    public TransformableRegion<Double> regionByRows(final int... rows) {
+        return new Subregion2D.RowsRegion<>(this, this.multiplier(), rows);
+    }
+
+    public TransformableRegion<Double> regionByTransposing() {
+        return new Subregion2D.TransposedRegion<>(this, this.multiplier());
+    }
+
+    public void set(final long row, final long col, final Comparable<?> value) {
+        this.set(row, col, NumberDefinition.doubleValue(value));
+    }
+
+    public void set(final long row, final long col, final double value) {
+        this.put(this.index(row, col), value);
+    }
+
+    public void substituteBackwards(final Access2D<Double> body, final boolean unitDiagonal, final boolean conjugated, final boolean hermitian) {
+        double[] column = new double[Math.toIntExact(myRows)];
+        for (long j = 0L; j < myColumns; j++) {
+            this.getColumn(j, column);
+            SubstituteBackwards.invoke(column, column.length, 0, 1, body, unitDiagonal, conjugated, hermitian);
+            this.setColumn(j, column);
+        }
+    }
+
+    public void substituteForwards(final Access2D<Double> body, final boolean unitDiagonal, final boolean conjugated, final boolean identity) {
+        double[] column = new double[Math.toIntExact(myRows)];
+        for (long j = 0L; j < myColumns; j++) {
+            this.getColumn(j, column);
+            SubstituteForwards.invoke(column, column.length, 0, 1, body, unitDiagonal, conjugated, identity);
+            this.setColumn(j, column);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return Access2D.toString(this);
+    }
+
+    public void transformLeft(final Householder<Double> transformation, final int firstColumn) {
+
+        int first = transformation.first();
+        int limit = (int) Math.min(transformation.count(), myRows);
+
+        double[] vector = new double[limit];
+        double norm2 = 0.0;
+        for (int i = first; i < limit; i++) {
+            double value = transformation.doubleValue(i);
+            vector[i] = value;
+            norm2 += value * value;
+        }
+        if (norm2 == 0.0) {
+            return;
+        }
+
+        double[] column = new double[Math.toIntExact(myRows)];
+        for (long j = firstColumn; j < myColumns; j++) {
+            this.getColumn(j, column);
+            double scale = 0.0;
+            for (int i = first; i < limit; i++) {
+                scale += vector[i] * column[i];
+            }
+            scale *= 2.0 / norm2;
+            for (int i = first; i < limit; i++) {
+                column[i] -= scale * vector[i];
+            }
+            this.setColumn(j, column);
+        }
+    }
+
+    public void transformLeft(final Rotation<Double> transformation) {
+
+        Rotation.Primitive rotation = Primitive64Store.cast(transformation);
+
+        int low = rotation.low;
+        int high = rotation.high;
+
+        if (low != high) {
+            if (!Double.isNaN(rotation.cos) && !Double.isNaN(rotation.sin)) {
+                for (long j = 0L; j < myColumns; j++) {
+                    double oldLow = this.doubleValue(low, j);
+                    double oldHigh = this.doubleValue(high, j);
+                    this.set(low, j, rotation.cos * oldLow + rotation.sin * oldHigh);
+                    this.set(high, j, rotation.cos * oldHigh - rotation.sin * oldLow);
+                }
+            } else {
+                this.exchangeRows(low, high);
+            }
+        } else if (!Double.isNaN(rotation.cos)) {
+            this.modifyRow(low, 0L, PrimitiveMath.MULTIPLY.second(rotation.cos));
+        } else if (!Double.isNaN(rotation.sin)) {
+            this.modifyRow(low, 0L, PrimitiveMath.DIVIDE.second(rotation.sin));
+        } else {
+            this.modifyRow(low, 0L, PrimitiveMath.NEGATE);
+        }
+    }
+
+    public void transformRight(final Householder<Double> transformation, final int firstRow) {
+
+        int first = transformation.first();
+        int limit = (int) Math.min(transformation.count(), myColumns);
+
+        double[] vector = new double[limit];
+        double norm2 = 0.0;
+        for (int j = first; j < limit; j++) {
+            double value = transformation.doubleValue(j);
+            vector[j] = value;
+            norm2 += value * value;
+        }
+        if (norm2 == 0.0) {
+            return;
+        }
+
+        int rows = Math.toIntExact(myRows);
+        double[] column = new double[rows];
+        double[] product = new double[rows];
+
+        for (int j = first; j < limit; j++) {
+            if (vector[j] != 0.0) {
+                this.getColumn(j, column);
+                for (int i = firstRow; i < rows; i++) {
+                    product[i] += column[i] * vector[j];
+                }
+            }
+        }
+
+        for (int j = first; j < limit; j++) {
+            if (vector[j] != 0.0) {
+                double scale = 2.0 * vector[j] / norm2;
+                this.getColumn(j, column);
+                for (int i = firstRow; i < rows; i++) {
+                    column[i] -= scale * product[i];
+                }
+                this.setColumn(j, column);
+            }
+        }
+    }
+
+    public void transformRight(final Rotation<Double> transformation) {
+
+        Rotation.Primitive rotation = Primitive64Store.cast(transformation);
+
+        int low = rotation.low;
+        int high = rotation.high;
+
+        if (low != high) {
+            if (!Double.isNaN(rotation.cos) && !Double.isNaN(rotation.sin)) {
+                for (long i = 0L; i < myRows; i++) {
+                    double oldLow = this.doubleValue(i, low);
+                    double oldHigh = this.doubleValue(i, high);
+                    this.set(i, low, rotation.cos * oldLow - rotation.sin * oldHigh);
+                    this.set(i, high, rotation.cos * oldHigh + rotation.sin * oldLow);
+                }
+            } else {
+                this.exchangeColumns(low, high);
+            }
+        } else if (!Double.isNaN(rotation.cos)) {
+            this.modifyColumn(0L, high, PrimitiveMath.MULTIPLY.second(rotation.cos));
+        } else if (!Double.isNaN(rotation.sin)) {
+            this.modifyColumn(0L, high, PrimitiveMath.DIVIDE.second(rotation.sin));
+        } else {
+            this.modifyColumn(0L, high, PrimitiveMath.NEGATE);
+        }
+    }
+
+    int columnsInTile(final long tileColumn) {
+        return (int) Math.min(myTileColumns, myColumns - tileColumn * myTileColumns);
+    }
+
+    void getColumn(final long col, final double[] destination) {
+        for (long i0 = 0L; i0 < myRows; i0 += myTileRows) {
+            long first = this.index(i0, col);
+            for (int i = 0, limit = (int) Math.min(myTileRows, myRows - i0); i < limit; i++) {
+                destination[(int) i0 + i] = this.value(first + i);
+            }
+        }
+    }
+
+    long index(final long row, final long col) {
+
+        long tileRow = row / myTileRows;
+        long tileColumn = col / myTileColumns;
+
+        long tile = tileColumn * myTileRowsCount + tileRow;
+
+        return tile * myTileSize + (col - tileColumn * myTileColumns) * myTileRows + (row - tileRow * myTileRows);
+    }
+
+    void prefetch(final long tileColumn) {
+
+        long first = tileColumn * myTileRowsCount * myTileSize;
+        long limit = Math.min(first + myTileRowsCount * myTileSize, myBuffers.length * myElementsPerSegment);
+
+        if (first < limit) {
+            long elementBytes = myType.getTotalMemory();
+            PREFETCHER.execute(() -> {
+                for (long index = first; index < limit; index += PAGE / elementBytes) {
+                    MappedByteBuffer buffer = myBuffers[(int) (index / myElementsPerSegment)];
+                    int position = (int) ((index % myElementsPerSegment) * elementBytes);
+                    if (position < buffer.capacity()) {
+                        buffer.get(position);
+                    }
+                }
+            });
+        }
+    }
+
+    void put(final long index, final double value) {
+        int segment = (int) (index / myElementsPerSegment);
+        int offset = (int) (index % myElementsPerSegment);
+        if (myDoubles != null) {
+            myDoubles[segment].put(offset, value);
+        } else {
+            myFloats[segment].put(offset, (float) value);
+        }
+    }
+
+    /**
+     * Copies a tile to a heap array of (at least) {@link #getTileRows()} * {@link #getTileColumns()}
+     * elements, column-major with {@link #getTileRows()} as the leading dimension.
+     */
+    void readTile(final long tileRow, final long tileColumn, final double[] destination) {
+
+        long first = (tileColumn * myTileRowsCount + tileRow) * myTileSize;
+        int segment = (int) (first / myElementsPerSegment);
+        int offset = (int) (first % myElementsPerSegment);
+
+        if (myDoubles != null) {
+            DoubleBuffer buffer = myDoubles[segment];
+            for (int i = 0, limit = (int) myTileSize; i < limit; i++) {
+                destination[i] = buffer.get(offset + i);
+            }
+        } else {
+            FloatBuffer buffer = myFloats[segment];
+            for (int i = 0, limit = (int) myTileSize; i < limit; i++) {
+                destination[i] = buffer.get(offset + i);
+            }
+        }
+    }
+
+    int rowsInTile(final long tileRow) {
+        return (int) Math.min(myTileRows, myRows - tileRow * myTileRows);
+    }
+
+    void setColumn(final long col, final double[] source) {
+        for (long i0 = 0L; i0 < myRows; i0 += myTileRows) {
+            long first = this.index(i0, col);
+            for (int i = 0, limit = (int) Math.min(myTileRows, myRows - i0); i < limit; i++) {
+                this.put(first + i, source[(int) i0 + i]);
+            }
+        }
+    }
+
+    long tilesHorizontally() {
+        return (myColumns + myTileColumns - 1L) / myTileColumns;
+    }
+
+    long tilesVertically() {
+        return myTileRowsCount;
+    }
+
+    double value(final long index) {
+        int segment = (int) (index / myElementsPerSegment);
+        int offset = (int) (index % myElementsPerSegment);
+        if (myDoubles != null) {
+            return myDoubles[segment].get(offset);
+        } else {
+            return myFloats[segment].get(offset);
+        }
+    }
+
+    /**
+     * @see #readTile(long, long, double[])
+     */
+    void writeTile(final long tileRow, final long tileColumn, final double[] source) {
+
+        long first = (tileColumn * myTileRowsCount + tileRow) * myTileSize;
+        int segment = (int) (first / myElementsPerSegment);
+        int offset = (int) (first % myElementsPerSegment);
+
+        if (myDoubles != null) {
+            DoubleBuffer buffer = myDoubles[segment];
+            for (int i = 0, limit = (int) myTileSize; i < limit; i++) {
+                buffer.put(offset + i, source[i]);
+            }
+        } else {
+            FloatBuffer buffer = myFloats[segment];
+            for (int i = 0, limit = (int) myTileSize; i < limit; i++) {
+                buffer.put(offset + i, (float) source[i]);
+            }
+        }
+    }
+
+    private TransformableRegion.FillByMultiplying<Double> multiplier() {
+        return MultiplyBoth.newPrimitive64(Math.toIntExact(myRows), Math.toIntExact(myColumns));
+    }
+
+}
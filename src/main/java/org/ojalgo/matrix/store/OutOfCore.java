@@ -0,0 +1,469 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.ojalgo.ProgrammingError;
+import org.ojalgo.array.operation.AXPY;
+import org.ojalgo.array.operation.DOT;
+import org.ojalgo.concurrent.DaemonPoolExecutor;
+import org.ojalgo.matrix.decomposition.QR;
+
+/**
+ * Out-of-core (tiled) algorithms for matrices stored in {@link MappedStore}s – matrices larger than the
+ * available memory. Tiles are read into heap memory, in the order they will be needed, by a background
+ * thread. The I/O (the page faults of the memory mapped files) thereby overlaps with the computations. At most
+ * {@link #DEPTH} tiles are read ahead.
+ * <p>
+ * The tiles of the different matrices need to match – same tile size for corresponding dimensions. Each
+ * instance counts the number of bytes read and written (matrix elements, excluding tile padding).
+ *
+ * @author apete
+ */
+public final class OutOfCore {
+
+    static final class Prefetcher implements AutoCloseable {
+
+        private static final double[] END = new double[0];
+
+        private volatile Throwable myFailure = null;
+        private final OutOfCore myOwner;
+        private final ArrayBlockingQueue<double[]> myQueue;
+        private final Future<?> myTask;
+
+        Prefetcher(final OutOfCore owner, final TileOrder order) {
+
+            super();
+
+            myOwner = owner;
+            myQueue = new ArrayBlockingQueue<>(DEPTH);
+
+            myTask = EXECUTOR.submit(() -> {
+                try {
+                    order.request(this);
+                } catch (InterruptedException cause) {
+                    Thread.currentThread().interrupt();
+                } catch (Throwable cause) {
+                    myFailure = cause;
+                    myQueue.clear();
+                    myQueue.offer(END);
+                }
+            });
+        }
+
+        public void close() {
+            myTask.cancel(true);
+        }
+
+        void request(final MappedStore store, final long tileRow, final long tileColumn) throws InterruptedException {
+            double[] tile = new double[store.getTileRows() * store.getTileColumns()];
+            store.readTile(tileRow, tileColumn, tile);
+            myOwner.countRead(store, tileRow, tileColumn);
+            myQueue.put(tile);
+        }
+
+        double[] take() {
+            try {
+                double[] tile = myQueue.take();
+                if (tile == END) {
+                    throw new RuntimeException(myFailure);
+                }
+                return tile;
+            } catch (InterruptedException cause) {
+                throw new RuntimeException(cause);
+            }
+        }
+
+    }
+
+    /**
+     * Emits tile requests, to a {@link Prefetcher}, in the same order as they will be taken.
+     */
+    @FunctionalInterface
+    interface TileOrder {
+
+        void request(Prefetcher prefetcher) throws InterruptedException;
+
+    }
+
+    /**
+     * The max number of tiles read ahead.
+     */
+    public static int DEPTH = 4;
+
+    private static final ExecutorService EXECUTOR = DaemonPoolExecutor.newCachedThreadPool("ojAlgo-out-of-core");
+
+    /**
+     * In-place lower Cholesky factorisation of an n x n tile.
+     *
+     * @return false if not positive definite
+     */
+    static boolean factor(final double[] a, final int lda, final int n) {
+        for (int j = 0; j < n; j++) {
+            double diagonal = a[j * lda + j] - OutOfCore.dotRows(a, lda, j, j, j);
+            if (diagonal <= 0.0 || !Double.isFinite(diagonal)) {
+                return false;
+            }
+            diagonal = Math.sqrt(diagonal);
+            a[j * lda + j] = diagonal;
+            for (int i = j + 1; i < n; i++) {
+                a[j * lda + i] = (a[j * lda + i] - OutOfCore.dotRows(a, lda, i, j, j)) / diagonal;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * C += A B
+     */
+    static void multiply(final double[] c, final int ldc, final double[] a, final int lda, final double[] b, final int ldb, final int m, final int n,
+            final int k) {
+        for (int j = 0; j < n; j++) {
+            for (int p = 0; p < k; p++) {
+                double factor = b[j * ldb + p];
+                if (factor != 0.0) {
+                    AXPY.invoke(c, j * ldc, factor, a, p * lda, 0, m);
+                }
+            }
+        }
+    }
+
+    /**
+     * X Lᵀ = A, for X, in-place, where L is a lower triangular n x n tile and A is m x n.
+     */
+    static void solve(final double[] a, final int lda, final double[] l, final int ldl, final int m, final int n) {
+        for (int j = 0; j < n; j++) {
+            for (int p = 0; p < j; p++) {
+                double factor = l[p * ldl + j];
+                if (factor != 0.0) {
+                    AXPY.invoke(a, j * lda, -factor, a, p * lda, 0, m);
+                }
+            }
+            double diagonal = l[j * ldl + j];
+            for (int i = 0; i < m; i++) {
+                a[j * lda + i] /= diagonal;
+            }
+        }
+    }
+
+    /**
+     * C -= A Bᵀ
+     */
+    static void subtractTransposed(final double[] c, final int ldc, final double[] a, final int lda, final double[] b, final int ldb, final int m,
+            final int n, final int k) {
+        for (int j = 0; j < n; j++) {
+            for (int p = 0; p < k; p++) {
+                double factor = b[p * ldb + j];
+                if (factor != 0.0) {
+                    AXPY.invoke(c, j * ldc, -factor, a, p * lda, 0, m);
+                }
+            }
+        }
+    }
+
+    private static double dotRows(final double[] a, final int lda, final int row1, final int row2, final int limit) {
+        double retVal = 0.0;
+        for (int p = 0; p < limit; p++) {
+            retVal += a[p * lda + row1] * a[p * lda + row2];
+        }
+        return retVal;
+    }
+
+    private final AtomicLong myBytesRead = new AtomicLong();
+    private final AtomicLong myBytesWritten = new AtomicLong();
+
+    public OutOfCore() {
+        super();
+    }
+
+    /**
+     * In-place (lower) Cholesky decomposition of a symmetric positive definite matrix, stored with square
+     * tiles. Only the lower triangle is referenced, and it is overwritten with L. The tiles of one column of
+     * tiles (a panel) are kept in memory at the time.
+     *
+     * @return false if the matrix is not positive definite (the factorisation is then incomplete)
+     */
+    public boolean cholesky(final MappedStore matrix) {
+
+        int size = matrix.getTileRows();
+        if (matrix.countRows() != matrix.countColumns() || size != matrix.getTileColumns()) {
+            throw new IllegalArgumentException("Square matrix with square tiles required!");
+        }
+
+        int nbTiles = (int) matrix.tilesVertically();
+
+        for (int k = 0; k < nbTiles; k++) {
+
+            int step = k;
+            TileOrder order = prefetcher -> {
+                for (int i = step; i < nbTiles; i++) {
+                    prefetcher.request(matrix, i, step);
+                }
+                for (int j = step + 1; j < nbTiles; j++) {
+                    for (int i = j; i < nbTiles; i++) {
+                        prefetcher.request(matrix, i, j);
+                    }
+                }
+            };
+
+            try (Prefetcher prefetcher = new Prefetcher(this, order)) {
+
+                double[][] panel = new double[nbTiles][];
+
+                panel[k] = prefetcher.take();
+                int dimK = matrix.rowsInTile(k);
+                if (!OutOfCore.factor(panel[k], size, dimK)) {
+                    return false;
+                }
+                this.write(matrix, k, k, panel[k]);
+
+                for (int i = k + 1; i < nbTiles; i++) {
+                    panel[i] = prefetcher.take();
+                    OutOfCore.solve(panel[i], size, panel[k], size, matrix.rowsInTile(i), dimK);
+                    this.write(matrix, i, k, panel[i]);
+                }
+
+                for (int j = k + 1; j < nbTiles; j++) {
+                    for (int i = j; i < nbTiles; i++) {
+                        double[] tile = prefetcher.take();
+                        OutOfCore.subtractTransposed(tile, size, panel[i], size, panel[j], size, matrix.rowsInTile(i), matrix.rowsInTile(j), dimK);
+                        this.write(matrix, i, j, tile);
+                    }
+                }
+            }
+        }
+
+        return true;
+    }
+
+    public long getBytesRead() {
+        return myBytesRead.get();
+    }
+
+    public long getBytesWritten() {
+        return myBytesWritten.get();
+    }
+
+    /**
+     * [A]<sup>T</sup>[A] – the result is assumed to fit in memory. The matrix is streamed one band of tile
+     * rows at the time.
+     */
+    public Primitive64Store gram(final MappedStore matrix) {
+
+        int nbColumns = Math.toIntExact(matrix.countColumns());
+        int tileRows = matrix.getTileRows();
+        int tileColumns = matrix.getTileColumns();
+        long nbBands = matrix.tilesVertically();
+        int nbTiles = (int) matrix.tilesHorizontally();
+
+        Primitive64Store retVal = Primitive64Store.FACTORY.make(nbColumns, nbColumns);
+        double[] gram = retVal.data;
+
+        TileOrder order = prefetcher -> {
+            for (long i = 0L; i < nbBands; i++) {
+                for (int j = 0; j < nbTiles; j++) {
+                    prefetcher.request(matrix, i, j);
+                }
+            }
+        };
+
+        try (Prefetcher prefetcher = new Prefetcher(this, order)) {
+
+            double[][] band = new double[nbTiles][];
+
+            for (long i = 0L; i < nbBands; i++) {
+
+                int rows = matrix.rowsInTile(i);
+
+                for (int j = 0; j < nbTiles; j++) {
+                    band[j] = prefetcher.take();
+                }
+
+                for (int tj = 0; tj < nbTiles; tj++) {
+                    for (int tl = tj; tl < nbTiles; tl++) {
+                        for (int c = 0, nbC = matrix.columnsInTile(tj); c < nbC; c++) {
+                            int col = tj * tileColumns + c;
+                            for (int d = tl == tj ? c : 0, nbD = matrix.columnsInTile(tl); d < nbD; d++) {
+                                int row = tl * tileColumns + d;
+                                gram[row * nbColumns + col] += DOT.invoke(band[tj], c * tileRows, band[tl], d * tileRows, 0, rows);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        for (int j = 0; j < nbColumns; j++) {
+            for (int i = j + 1; i < nbColumns; i++) {
+                gram[j * nbColumns + i] = gram[i * nbColumns + j];
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * [product] = [left][right]. The product is computed one tile at the time, in file order.
+     */
+    public void multiply(final MappedStore left, final MappedStore right, final MappedStore product) {
+
+        if (left.countColumns() != right.countRows() || left.countRows() != product.countRows() || right.countColumns() != product.countColumns()) {
+            ProgrammingError.throwForMultiplicationNotPossible();
+        }
+        if (left.getTileRows() != product.getTileRows() || right.getTileColumns() != product.getTileColumns()
+                || left.getTileColumns() != right.getTileRows()) {
+            throw new IllegalArgumentException("The tiles don't match!");
+        }
+        if (product == left || product == right) {
+            throw new IllegalArgumentException("The product can't be one of the factors!");
+        }
+
+        int ldl = left.getTileRows();
+        int ldr = right.getTileRows();
+        long nbI = product.tilesVertically();
+        long nbJ = product.tilesHorizontally();
+        long nbK = left.tilesHorizontally();
+
+        TileOrder order = prefetcher -> {
+            for (long j = 0L; j < nbJ; j++) {
+                for (long i = 0L; i < nbI; i++) {
+                    for (long k = 0L; k < nbK; k++) {
+                        prefetcher.request(left, i, k);
+                        prefetcher.request(right, k, j);
+                    }
+                }
+            }
+        };
+
+        try (Prefetcher prefetcher = new Prefetcher(this, order)) {
+
+            double[] tile = new double[product.getTileRows() * product.getTileColumns()];
+
+            for (long j = 0L; j < nbJ; j++) {
+                for (long i = 0L; i < nbI; i++) {
+
+                    Arrays.fill(tile, 0.0);
+
+                    for (long k = 0L; k < nbK; k++) {
+                        double[] tileL = prefetcher.take();
+                        double[] tileR = prefetcher.take();
+                        OutOfCore.multiply(tile, ldl, tileL, ldl, tileR, ldr, product.rowsInTile(i), product.columnsInTile(j), left.columnsInTile(k));
+                    }
+
+                    this.write(product, i, j, tile);
+                }
+            }
+        }
+    }
+
+    /**
+     * Resets the bytes read/written counters.
+     */
+    public void reset() {
+        myBytesRead.set(0L);
+        myBytesWritten.set(0L);
+    }
+
+    /**
+     * Tall-skinny QR – the R factor of a QR decomposition of a tall matrix, with non-negative diagonal
+     * elements. The matrix is streamed (once) one band of tile rows at the time, and [R] is updated with a QR
+     * decomposition of the [R] stacked on top of each band. The result is assumed to fit in memory, and Q is
+     * not formed. Since [A]<sup>T</sup>[A] = [R]<sup>T</sup>[R] this is a numerically better alternative to
+     * {@link #gram(MappedStore)} followed by a Cholesky decomposition.
+     */
+    public Primitive64Store tsqr(final MappedStore matrix) {
+
+        int nbColumns = Math.toIntExact(matrix.countColumns());
+        int tileRows = matrix.getTileRows();
+        int tileColumns = matrix.getTileColumns();
+        long nbBands = matrix.tilesVertically();
+        int nbTiles = (int) matrix.tilesHorizontally();
+
+        Primitive64Store retVal = Primitive64Store.FACTORY.make(nbColumns, nbColumns);
+
+        QR<Double> decomposition = QR.R064.make(tileRows + nbColumns, nbColumns);
+
+        TileOrder order = prefetcher -> {
+            for (long i = 0L; i < nbBands; i++) {
+                for (int j = 0; j < nbTiles; j++) {
+                    prefetcher.request(matrix, i, j);
+                }
+            }
+        };
+
+        try (Prefetcher prefetcher = new Prefetcher(this, order)) {
+
+            for (long i = 0L; i < nbBands; i++) {
+
+                int rows = matrix.rowsInTile(i);
+                int stackedRows = nbColumns + rows;
+
+                Primitive64Store stacked = Primitive64Store.FACTORY.make(stackedRows, nbColumns);
+                double[] data = stacked.data;
+
+                for (int j = 0; j < nbColumns; j++) {
+                    System.arraycopy(retVal.data, j * nbColumns, data, j * stackedRows, j + 1);
+                }
+                for (int tj = 0; tj < nbTiles; tj++) {
+                    double[] tile = prefetcher.take();
+                    for (int c = 0, nbC = matrix.columnsInTile(tj); c < nbC; c++) {
+                        System.arraycopy(tile, c * tileRows, data, (tj * tileColumns + c) * stackedRows + nbColumns, rows);
+                    }
+                }
+
+                decomposition.decompose(stacked);
+                MatrixStore<Double> factorR = decomposition.getR();
+
+                for (int j = 0; j < nbColumns; j++) {
+                    for (int r = 0; r <= j; r++) {
+                        retVal.set(r, j, factorR.doubleValue(r, j));
+                    }
+                }
+            }
+        }
+
+        for (int r = 0; r < nbColumns; r++) {
+            if (retVal.doubleValue(r, r) < 0.0) {
+                for (int j = r; j < nbColumns; j++) {
+                    retVal.set(r, j, -retVal.doubleValue(r, j));
+                }
+            }
+        }
+
+        return retVal;
+    }
+
+    void countRead(final MappedStore store, final long tileRow, final long tileColumn) {
+        myBytesRead.addAndGet(store.rowsInTile(tileRow) * store.columnsInTile(tileColumn) * store.getMathType().getTotalMemory());
+    }
+
+    private void write(final MappedStore store, final long tileRow, final long tileColumn, final double[] tile) {
+        store.writeTile(tileRow, tileColumn, tile);
+        myBytesWritten.addAndGet(store.rowsInTile(tileRow) * store.columnsInTile(tileColumn) * store.getMathType().getTotalMemory());
+    }
+
+}
@@ -0,0 +1,929 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import java.util.List;
+
+import org.ojalgo.ProgrammingError;
+import org.ojalgo.array.Array1D;
+import org.ojalgo.array.Array2D;
+import org.ojalgo.array.BasicArray;
+import org.ojalgo.array.DenseArray;
+import org.ojalgo.array.QuadrupleArray;
+import org.ojalgo.array.operation.ApplyCholesky;
+import org.ojalgo.array.operation.ApplyLDL;
+import org.ojalgo.array.operation.ApplyLU;
+import org.ojalgo.array.operation.GenerateApplyAndCopyHouseholderColumn;
+import org.ojalgo.array.operation.GenerateApplyAndCopyHouseholderRow;
+import org.ojalgo.array.operation.HouseholderHermitian;
+import org.ojalgo.array.operation.QuadrupleOperation;
+import org.ojalgo.array.operation.SubstituteBackwards;
+import org.ojalgo.array.operation.SubstituteForwards;
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.function.FunctionSet;
+import org.ojalgo.function.NullaryFunction;
+import org.ojalgo.function.QuadrupleFunction;
+import org.ojalgo.function.UnaryFunction;
+import org.ojalgo.function.VoidFunction;
+import org.ojalgo.function.aggregator.AggregatorSet;
+import org.ojalgo.function.aggregator.QuadrupleAggregator;
+import org.ojalgo.function.constant.PrimitiveMath;
+import org.ojalgo.function.constant.QuadrupleMath;
+import org.ojalgo.matrix.decomposition.DecompositionStore;
+import org.ojalgo.matrix.operation.HouseholderLeft;
+import org.ojalgo.matrix.operation.HouseholderRight;
+import org.ojalgo.matrix.operation.MultiplyBoth;
+import org.ojalgo.matrix.transformation.Householder;
+import org.ojalgo.matrix.transformation.HouseholderReference;
+import org.ojalgo.matrix.transformation.Rotation;
+import org.ojalgo.scalar.ComplexNumber;
+import org.ojalgo.scalar.Quadruple;
+import org.ojalgo.scalar.Scalar;
+import org.ojalgo.structure.Access1D;
+import org.ojalgo.structure.Access2D;
+
+/**
+ * A {@link PhysicalStore} of {@link Quadruple} backed by a {@link QuadrupleArray} – each element is stored as
+ * a pair of doubles (hi/lo) in 2 separate (column-major) double[]. Compared to {@link GenericStore#R128}
+ * matrix multiplication, the LU, LDL and Cholesky updates, Householder transformations and rotations use the
+ * double-double kernels in {@link QuadrupleOperation} and do not create any {@link Quadruple} instances.
+ * <p>
+ * Generating the Householder vectors, substitutions and symmetric Householder transformations work, but go
+ * via {@link Quadruple}.
+ *
+ * @author apete
+ */
+@SuppressWarnings("deprecation")
+public final class QuadrupleStore extends QuadrupleArray implements PhysicalStore<Quadruple>, DecompositionStore<Quadruple> {
+
+    public static final PhysicalStore.Factory<Quadruple, QuadrupleStore> FACTORY = new PhysicalStore.Factory<>() {
+
+        public AggregatorSet<Quadruple> aggregator() {
+            return QuadrupleAggregator.getSet();
+        }
+
+        public DenseArray.Factory<Quadruple> array() {
+            return QuadrupleArray.FACTORY;
+        }
+
+        public QuadrupleStore columns(final Access1D<?>... source) {
+
+            int tmpRowDim = (int) source[0].count();
+            int tmpColDim = source.length;
+
+            QuadrupleStore retVal = new QuadrupleStore(tmpRowDim, tmpColDim);
+
+            for (int j = 0; j < tmpColDim; j++) {
+                Access1D<?> tmpColumn = source[j];
+                for (int i = 0; i < tmpRowDim; i++) {
+                    retVal.put(i + tmpRowDim * j, tmpColumn.get(i));
+                }
+            }
+
+            return retVal;
+        }
+
+        public QuadrupleStore columns(final Comparable<?>[]... source) {
+
+            int tmpRowDim = source[0].length;
+            int tmpColDim = source.length;
+
+            QuadrupleStore retVal = new QuadrupleStore(tmpRowDim, tmpColDim);
+
+            for (int j = 0; j < tmpColDim; j++) {
+                Comparable<?>[] tmpColumn = source[j];
+                for (int i = 0; i < tmpRowDim; i++) {
+                    retVal.put(i + tmpRowDim * j, tmpColumn[i]);
+                }
+            }
+
+            return retVal;
+        }
+
+        public QuadrupleStore columns(final double[]... source) {
+
+            int tmpRowDim = source[0].length;
+            int tmpColDim = source.length;
+
+            QuadrupleStore retVal = new QuadrupleStore(tmpRowDim, tmpColDim);
+
+            for (int j = 0; j < tmpColDim; j++) {
+                System.arraycopy(source[j], 0, retVal.hi, tmpRowDim * j, tmpRowDim);
+            }
+
+            return retVal;
+        }
+
+        @SafeVarargs
+        public final QuadrupleStore columns(final List<? extends Comparable<?>>... source) {
+
+            int tmpRowDim = source[0].size();
+            int tmpColDim = source.length;
+
+            QuadrupleStore retVal = new QuadrupleStore(tmpRowDim, tmpColDim);
+
+            for (int j = 0; j < tmpColDim; j++) {
+                List<? extends Comparable<?>> tmpColumn = source[j];
+                for (int i = 0; i < tmpRowDim; i++) {
+                    retVal.put(i + tmpRowDim * j, tmpColumn.get(i));
+                }
+            }
+
+            return retVal;
+        }
+
+        public QuadrupleStore conjugate(final Access2D<?> source) {
+            return this.transpose(source);
+        }
+
+        public QuadrupleStore copy(final Access2D<?> source) {
+
+            int tmpRowDim = Math.toIntExact(source.countRows());
+            int tmpColDim = Math.toIntExact(source.countColumns());
+
+            QuadrupleStore retVal = new QuadrupleStore(tmpRowDim, tmpColDim);
+
+            retVal.fillMatching(source);
+
+            return retVal;
+        }
+
+        public FunctionSet<Quadruple> function() {
+            return QuadrupleFunction.getSet();
+        }
+
+        public QuadrupleStore make(final long rows, final long columns) {
+            return new QuadrupleStore(Math.toIntExact(rows), Math.toIntExact(columns));
+        }
+
+        public Householder.Generic<Quadruple> makeHouseholder(final int length) {
+            return new Householder.Generic<>(Quadruple.FACTORY, length);
+        }
+
+        public Rotation.Generic<Quadruple> makeRotation(final int low, final int high, final double cos, final double sin) {
+            return this.makeRotation(low, high, Quadruple.valueOf(cos), Quadruple.valueOf(sin));
+        }
+
+        public Rotation.Generic<Quadruple> makeRotation(final int low, final int high, final Quadruple cos, final Quadruple sin) {
+            return new Rotation.Generic<>(low, high, cos, sin);
+        }
+
+        public QuadrupleStore rows(final Access1D<?>... source) {
+
+            int tmpRowDim = source.length;
+            int tmpColDim = (int) source[0].count();
+
+            QuadrupleStore retVal = new QuadrupleStore(tmpRowDim, tmpColDim);
+
+            for (int i = 0; i < tmpRowDim; i++) {
+                Access1D<?> tmpRow = source[i];
+                for (int j = 0; j < tmpColDim; j++) {
+                    retVal.put(i + tmpRowDim * j, tmpRow.get(j));
+                }
+            }
+
+            return retVal;
+        }
+
+        public QuadrupleStore rows(final Comparable<?>[]... source) {
+
+            int tmpRowDim = source.length;
+            int tmpColDim = source[0].length;
+
+            QuadrupleStore retVal = new QuadrupleStore(tmpRowDim, tmpColDim);
+
+            for (int i = 0; i < tmpRowDim; i++) {
+                Comparable<?>[] tmpRow = source[i];
+                for (int j = 0; j < tmpColDim; j++) {
+                    retVal.put(i + tmpRowDim * j, tmpRow[j]);
+                }
+            }
+
+            return retVal;
+        }
+
+        public QuadrupleStore rows(final double[]... source) {
+
+            int tmpRowDim = source.length;
+            int tmpColDim = source[0].length;
+
+            QuadrupleStore retVal = new QuadrupleStore(tmpRowDim, tmpColDim);
+
+            for (int i = 0; i < tmpRowDim; i++) {
+                double[] tmpRow = source[i];
+                for (int j = 0; j < tmpColDim; j++) {
+                    retVal.hi[i + tmpRowDim * j] = tmpRow[j];
+                }
+            }
+
+            return retVal;
+        }
+
+        @SafeVarargs
+        public final QuadrupleStore rows(final List<? extends Comparable<?>>... source) {
+
+            int tmpRowDim = source.length;
+            int tmpColDim = source[0].size();
+
+            QuadrupleStore retVal = new QuadrupleStore(tmpRowDim, tmpColDim);
+
+            for (int i = 0; i < tmpRowDim; i++) {
+                List<? extends Comparable<?>> tmpRow = source[i];
+                for (int j = 0; j < tmpColDim; j++) {
+                    retVal.put(i + tmpRowDim * j, tmpRow.get(j));
+                }
+            }
+
+            return retVal;
+        }
+
+        public Scalar.Factory<Quadruple> scalar() {
+            return Quadruple.FACTORY;
+        }
+
+        public QuadrupleStore transpose(final Access2D<?> source) {
+
+            int tmpRowDim = Math.toIntExact(source.countColumns());
+            int tmpColDim = Math.toIntExact(source.countRows());
+
+            QuadrupleStore retVal = new QuadrupleStore(tmpRowDim, tmpColDim);
+
+            for (int j = 0; j < tmpColDim; j++) {
+                for (int i = 0; i < tmpRowDim; i++) {
+                    retVal.put(i + tmpRowDim * j, source.get(j, i));
+                }
+            }
+
+            return retVal;
+        }
+
+    };
+
+    public static QuadrupleStore wrap(final double[] high, final double[] low, final int structure) {
+        return new QuadrupleStore(structure, high.length / structure, high, low);
+    }
+
+    /**
+     * Returns the argument if it already is a {@link QuadrupleArray}, otherwise copies the elements to a new
+     * one (column-major, same as the stores).
+     */
+    private static QuadrupleArray cast(final Access1D<?> matrix) {
+
+        if (matrix instanceof QuadrupleArray) {
+            return (QuadrupleArray) matrix;
+        }
+
+        int tmpCount = Math.toIntExact(matrix.count());
+
+        QuadrupleArray retVal = QuadrupleArray.make(tmpCount);
+
+        for (int i = 0; i < tmpCount; i++) {
+            Quadruple tmpValue = Quadruple.valueOf(matrix.get(i));
+            retVal.hi[i] = tmpValue.getBase();
+            retVal.lo[i] = tmpValue.getRemainder();
+        }
+
+        return retVal;
+    }
+
+    private final int myColDim;
+    private final int myRowDim;
+    private final Array2D<Quadruple> myUtility;
+
+    QuadrupleStore(final int numbRows, final int numbCols) {
+        this(numbRows, numbCols, new double[numbRows * numbCols], new double[numbRows * numbCols]);
+    }
+
+    QuadrupleStore(final int numbRows, final int numbCols, final double[] high, final double[] low) {
+
+        super(high, low);
+
+        myRowDim = numbRows;
+        myColDim = numbCols;
+
+        myUtility = this.wrapInArray2D(myRowDim);
+    }
+
+    public void add(final long row, final long col, final Comparable<?> addend) {
+        myUtility.add(row, col, addend);
+    }
+
+    public void add(final long row, final long col, final double addend) {
+        myUtility.add(row, col, addend);
+    }
+
+    public void applyCholesky(final int iterationPoint, final BasicArray<Quadruple> multipliers) {
+
+        QuadrupleArray tmpMultipliers = QuadrupleStore.cast(multipliers);
+
+        if (myColDim - iterationPoint - 1 > ApplyCholesky.THRESHOLD) {
+
+            DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+                @Override
+                protected void conquer(final int first, final int limit) {
+                    QuadrupleOperation.applyCholesky(hi, lo, myRowDim, first, limit, tmpMultipliers.hi, tmpMultipliers.lo);
+                }
+            };
+
+            tmpConquerer.invoke(iterationPoint + 1, myColDim, ApplyCholesky.THRESHOLD);
+
+        } else {
+
+            QuadrupleOperation.applyCholesky(hi, lo, myRowDim, iterationPoint + 1, myColDim, tmpMultipliers.hi, tmpMultipliers.lo);
+        }
+    }
+
+    public void applyLDL(final int iterationPoint, final BasicArray<Quadruple> multipliers) {
+
+        QuadrupleArray tmpMultipliers = QuadrupleStore.cast(multipliers);
+
+        if (myColDim - iterationPoint - 1 > ApplyLDL.THRESHOLD) {
+
+            DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+                @Override
+                protected void conquer(final int first, final int limit) {
+                    QuadrupleOperation.applyLDL(hi, lo, myRowDim, first, limit, tmpMultipliers.hi, tmpMultipliers.lo, iterationPoint);
+                }
+            };
+
+            tmpConquerer.invoke(iterationPoint + 1, myColDim, ApplyLDL.THRESHOLD);
+
+        } else {
+
+            QuadrupleOperation.applyLDL(hi, lo, myRowDim, iterationPoint + 1, myColDim, tmpMultipliers.hi, tmpMultipliers.lo, iterationPoint);
+        }
+    }
+
+    public void applyLU(final int iterationPoint, final BasicArray<Quadruple> multipliers) {
+
+        QuadrupleArray tmpMultipliers = QuadrupleStore.cast(multipliers);
+
+        if (myColDim - iterationPoint - 1 > ApplyLU.THRESHOLD) {
+
+            DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+                @Override
+                protected void conquer(final int first, final int limit) {
+                    QuadrupleOperation.applyLU(hi, lo, myRowDim, first, limit, tmpMultipliers.hi, tmpMultipliers.lo, iterationPoint);
+                }
+            };
+
+            tmpConquerer.invoke(iterationPoint + 1, myColDim, ApplyLU.THRESHOLD);
+
+        } else {
+
+            QuadrupleOperation.applyLU(hi, lo, myRowDim, iterationPoint + 1, myColDim, tmpMultipliers.hi, tmpMultipliers.lo, iterationPoint);
+        }
+    }
+
+    public Array1D<Quadruple> asList() {
+        return myUtility.flatten();
+    }
+
+    public Array1D<ComplexNumber> computeInPlaceSchur(final PhysicalStore<Quadruple> transformationCollector, final boolean eigenvalue) {
+        ProgrammingError.throwForUnsupportedOptionalOperation();
+        return null;
+    }
+
+    public MatrixStore<Quadruple> conjugate() {
+        return this.transpose();
+    }
+
+    public QuadrupleStore copy() {
+        return new QuadrupleStore(myRowDim, myColDim, hi.clone(), lo.clone());
+    }
+
+    public long countColumns() {
+        return myColDim;
+    }
+
+    public long countRows() {
+        return myRowDim;
+    }
+
+    public void divideAndCopyColumn(final int row, final int column, final BasicArray<Quadruple> destination) {
+
+        int index = row + column * myRowDim;
+        int first = index + 1;
+        int limit = (column + 1) * myRowDim;
+
+        QuadrupleOperation.divide(hi, lo, first, limit, hi[index], lo[index]);
+
+        if (destination instanceof QuadrupleArray) {
+            QuadrupleArray tmpDestination = (QuadrupleArray) destination;
+            System.arraycopy(hi, first, tmpDestination.hi, row + 1, limit - first);
+            System.arraycopy(lo, first, tmpDestination.lo, row + 1, limit - first);
+        } else {
+            for (int i = row + 1; i < myRowDim; i++) {
+                destination.set(i, this.get(i, column));
+            }
+        }
+    }
+
+    public double doubleValue(final long row, final long col) {
+        return this.doubleValue(row + col * myRowDim);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!super.equals(obj) || !(obj instanceof QuadrupleStore)) {
+            return false;
+        }
+        QuadrupleStore other = (QuadrupleStore) obj;
+        if (myColDim != other.myColDim || myRowDim != other.myRowDim) {
+            return false;
+        }
+        return true;
+    }
+
+    public void exchangeColumns(final long colA, final long colB) {
+        myUtility.exchangeColumns(colA, colB);
+    }
+
+    public void exchangeHermitian(final int indexA, final int indexB) {
+
+        int tmpMin = Math.min(indexA, indexB);
+        int tmpMax = Math.max(indexA, indexB);
+
+        for (int j = 0; j < tmpMin; j++) {
+            this.swap(tmpMin + j * myRowDim, tmpMax + j * myRowDim);
+        }
+
+        this.swap(tmpMin + tmpMin * myRowDim, tmpMax + tmpMax * myRowDim);
+
+        for (int ij = tmpMin + 1; ij < tmpMax; ij++) {
+            this.swap(ij + tmpMin * myRowDim, tmpMax + ij * myRowDim);
+        }
+
+        for (int i = tmpMax + 1; i < myRowDim; i++) {
+            this.swap(i + tmpMin * myRowDim, i + tmpMax * myRowDim);
+        }
+    }
+
+    public void exchangeRows(final long rowA, final long rowB) {
+        myUtility.exchangeRows(rowA, rowB);
+    }
+
+    /**
+     * If neither argument is a {@link QuadrupleArray} they are first copied to one.
+     */
+    public void fillByMultiplying(final Access1D<Quadruple> left, final Access1D<Quadruple> right) {
+
+        int complexity = Math.toIntExact(left.count() / myRowDim);
+        if (complexity != Math.toIntExact(right.count() / myColDim)) {
+            ProgrammingError.throwForMultiplicationNotPossible();
+        }
+
+        QuadrupleArray tmpLeft = QuadrupleStore.cast(left);
+        QuadrupleArray tmpRight = QuadrupleStore.cast(right);
+
+        QuadrupleOperation.multiply(hi, lo, tmpLeft.hi, tmpLeft.lo, complexity, tmpRight.hi, tmpRight.lo);
+    }
+
+    public void fillColumn(final long row, final long col, final Access1D<Quadruple> values) {
+        myUtility.fillColumn(row, col, values);
+    }
+
+    public void fillColumn(final long row, final long col, final NullaryFunction<?> supplier) {
+        myUtility.fillColumn(row, col, supplier);
+    }
+
+    public void fillColumn(final long row, final long col, final Quadruple value) {
+        myUtility.fillColumn(row, col, value);
+    }
+
+    public void fillDiagonal(final long row, final long col, final NullaryFunction<?> supplier) {
+        myUtility.fillDiagonal(row, col, supplier);
+    }
+
+    public void fillDiagonal(final long row, final long col, final Quadruple value) {
+        myUtility.fillDiagonal(row, col, value);
+    }
+
+    public void fillRow(final long row, final long col, final Access1D<Quadruple> values) {
+        myUtility.fillRow(row, col, values);
+    }
+
+    public void fillRow(final long row, final long col, final NullaryFunction<?> supplier) {
+        myUtility.fillRow(row, col, supplier);
+    }
+
+    public void fillRow(final long row, final long col, final Quadruple value) {
+        myUtility.fillRow(row, col, value);
+    }
+
+    public boolean generateApplyAndCopyHouseholderColumn(final int row, final int column, final Householder<Quadruple> destination) {
+
+        Quadruple[] tmpColumn = new Quadruple[myRowDim];
+        for (int i = 0, index = column * myRowDim; i < myRowDim; i++, index++) {
+            tmpColumn[i] = this.get(index);
+        }
+
+        boolean retVal = GenerateApplyAndCopyHouseholderColumn.invoke(tmpColumn, myRowDim, row, 0, (Householder.Generic<Quadruple>) destination,
+                Quadruple.FACTORY);
+
+        for (int i = 0, index = column * myRowDim; i < myRowDim; i++, index++) {
+            this.fillOne(index, tmpColumn[i]);
+        }
+
+        return retVal;
+    }
+
+    public boolean generateApplyAndCopyHouseholderRow(final int row, final int column, final Householder<Quadruple> destination) {
+
+        Quadruple[] tmpRow = new Quadruple[myColDim];
+        for (int j = 0, index = row; j < myColDim; j++, index += myRowDim) {
+            tmpRow[j] = this.get(index);
+        }
+
+        boolean retVal = GenerateApplyAndCopyHouseholderRow.invoke(tmpRow, 1, 0, column, (Householder.Generic<Quadruple>) destination, Quadruple.FACTORY);
+
+        for (int j = 0, index = row; j < myColDim; j++, index += myRowDim) {
+            this.fillOne(index, tmpRow[j]);
+        }
+
+        return retVal;
+    }
+
+    public Quadruple get(final long row, final long col) {
+        return myUtility.get(row, col);
+    }
+
+    public int getColDim() {
+        return myColDim;
+    }
+
+    public int getRowDim() {
+        return myRowDim;
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = super.hashCode();
+        result = prime * result + myColDim;
+        return prime * result + myRowDim;
+    }
+
+    public void modifyColumn(final long row, final long col, final UnaryFunction<Quadruple> modifier) {
+        myUtility.modifyColumn(row, col, modifier);
+    }
+
+    public void modifyDiagonal(final long row, final long col, final UnaryFunction<Quadruple> modifier) {
+        myUtility.modifyDiagonal(row, col, modifier);
+    }
+
+    public void modifyOne(final long row, final long col, final UnaryFunction<Quadruple> modifier) {
+        myUtility.modifyOne(row, col, modifier);
+    }
+
+    public void modifyRow(final long row, final long col, final UnaryFunction<Quadruple> modifier) {
+        myUtility.modifyRow(row, col, modifier);
+    }
+
+    public MatrixStore<Quadruple> multiply(final MatrixStore<Quadruple> right) {
+
+        QuadrupleStore retVal = FACTORY.make(myRowDim, right.countColumns());
+
+        retVal.fillByMultiplying(this, right);
+
+        return retVal;
+    }
+
+    public void negateColumn(final int column) {
+        for (int i = column * myRowDim, limit = i + myRowDim; i < limit; i++) {
+            hi[i] = -hi[i];
+            lo[i] = -lo[i];
+        }
+    }
+
+    public PhysicalStore.Factory<Quadruple, QuadrupleStore> physical() {
+        return FACTORY;
+    }
+
+    public TransformableRegion<Quadruple> regionByColumns(final int... columns) {
+        return new Subregion2D.ColumnsRegion<>(this, this.multiplier(), columns);
+    }
+
+    public TransformableRegion<Quadruple> regionByLimits(final int rowLimit, final int columnLimit) {
+        return new Subregion2D.LimitRegion<>(this, this.multiplier(), rowLimit, columnLimit);
+    }
+
+    public TransformableRegion<Quadruple> regionByOffsets(final int rowOffset, final int columnOffset) {
+        return new Subregion2D.OffsetRegion<>(this, this.multiplier(), rowOffset, columnOffset);
+    }
+
+    public TransformableRegion<Quadruple> regionByRows(final int... rows) {
+        return new Subregion2D.RowsRegion<>(this, this.multiplier(), rows);
+    }
+
+    public TransformableRegion<Quadruple> regionByTransposing() {
+        return new Subregion2D.TransposedRegion<>(this, this.multiplier());
+    }
+
+    public void rotateRight(final int low, final int high, final double cos, final double sin) {
+        this.rotate(low * myRowDim, high * myRowDim, 1, myRowDim, cos, PrimitiveMath.ZERO, -sin, PrimitiveMath.ZERO);
+    }
+
+    public void set(final long row, final long col, final Comparable<?> value) {
+        myUtility.set(row, col, value);
+    }
+
+    public void set(final long row, final long col, final double value) {
+        myUtility.set(row, col, value);
+    }
+
+    public void setToIdentity(final int col) {
+        myUtility.set(col, col, PrimitiveMath.ONE);
+        myUtility.fillColumn(col + 1, col, Quadruple.ZERO);
+    }
+
+    public Array1D<Quadruple> sliceColumn(final long row, final long col) {
+        return myUtility.sliceColumn(row, col);
+    }
+
+    public Array1D<Quadruple> sliceDiagonal(final long row, final long col) {
+        return myUtility.sliceDiagonal(row, col);
+    }
+
+    public Array1D<Quadruple> sliceRange(final long first, final long limit) {
+        return myUtility.sliceRange(first, limit);
+    }
+
+    public Array1D<Quadruple> sliceRow(final long row, final long col) {
+        return myUtility.sliceRow(row, col);
+    }
+
+    public void substituteBackwards(final Access2D<Quadruple> body, final boolean unitDiagonal, final boolean conjugated, final boolean hermitian) {
+        Quadruple[] data = this.getAll();
+        SubstituteBackwards.invoke(data, myRowDim, 0, myColDim, body, unitDiagonal, conjugated, hermitian, Quadruple.FACTORY);
+        this.setAll(data);
+    }
+
+    public void substituteForwards(final Access2D<Quadruple> body, final boolean unitDiagonal, final boolean conjugated, final boolean identity) {
+        Quadruple[] data = this.getAll();
+        SubstituteForwards.invoke(data, myRowDim, 0, myColDim, body, unitDiagonal, conjugated, identity, Quadruple.FACTORY);
+        this.setAll(data);
+    }
+
+    @Override
+    public String toString() {
+        return Access2D.toString(this);
+    }
+
+    public void transformLeft(final Householder<Quadruple> transformation, final int firstColumn) {
+
+        Householder.Generic<Quadruple> tmpTransf = this.cast(transformation);
+
+        int tmpFirst = tmpTransf.first;
+        double[] tmpVectorHi = new double[myRowDim];
+        double[] tmpVectorLo = new double[myRowDim];
+        for (int i = tmpFirst; i < myRowDim; i++) {
+            tmpVectorHi[i] = tmpTransf.vector[i].getBase();
+            tmpVectorLo[i] = tmpTransf.vector[i].getRemainder();
+        }
+        double tmpBetaHi = tmpTransf.beta.getBase();
+        double tmpBetaLo = tmpTransf.beta.getRemainder();
+
+        if (myColDim - firstColumn > HouseholderLeft.THRESHOLD) {
+
+            DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+                @Override
+                protected void conquer(final int first, final int limit) {
+                    QuadrupleOperation.householderLeft(hi, lo, myRowDim, first, limit, tmpVectorHi, tmpVectorLo, tmpFirst, tmpBetaHi, tmpBetaLo);
+                }
+            };
+
+            tmpConquerer.invoke(firstColumn, myColDim, HouseholderLeft.THRESHOLD);
+
+        } else {
+
+            QuadrupleOperation.householderLeft(hi, lo, myRowDim, firstColumn, myColDim, tmpVectorHi, tmpVectorLo, tmpFirst, tmpBetaHi, tmpBetaLo);
+        }
+    }
+
+    public void transformLeft(final Rotation<Quadruple> transformation) {
+
+        Rotation.Generic<Quadruple> tmpTransf = this.cast(transformation);
+
+        int tmpLow = tmpTransf.low;
+        int tmpHigh = tmpTransf.high;
+
+        if (tmpLow != tmpHigh) {
+            if (tmpTransf.cos != null && tmpTransf.sin != null) {
+                this.rotate(tmpLow, tmpHigh, myRowDim, myColDim, tmpTransf.cos.getBase(), tmpTransf.cos.getRemainder(), tmpTransf.sin.getBase(),
+                        tmpTransf.sin.getRemainder());
+            } else {
+                myUtility.exchangeRows(tmpLow, tmpHigh);
+            }
+        } else if (tmpTransf.cos != null) {
+            myUtility.modifyRow(tmpLow, 0, QuadrupleMath.MULTIPLY.second(tmpTransf.cos));
+        } else if (tmpTransf.sin != null) {
+            myUtility.modifyRow(tmpLow, 0, QuadrupleMath.DIVIDE.second(tmpTransf.sin));
+        } else {
+            myUtility.modifyRow(tmpLow, 0, QuadrupleMath.NEGATE);
+        }
+    }
+
+    public void transformRight(final Householder<Quadruple> transformation, final int firstRow) {
+
+        Householder.Generic<Quadruple> tmpTransf = this.cast(transformation);
+
+        int tmpFirst = tmpTransf.first;
+        double[] tmpVectorHi = new double[myColDim];
+        double[] tmpVectorLo = new double[myColDim];
+        for (int j = tmpFirst; j < myColDim; j++) {
+            tmpVectorHi[j] = tmpTransf.vector[j].getBase();
+            tmpVectorLo[j] = tmpTransf.vector[j].getRemainder();
+        }
+        double tmpBetaHi = tmpTransf.beta.getBase();
+        double tmpBetaLo = tmpTransf.beta.getRemainder();
+
+        if (myRowDim - firstRow > HouseholderRight.THRESHOLD) {
+
+            DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+                @Override
+                protected void conquer(final int first, final int limit) {
+                    QuadrupleOperation.householderRight(hi, lo, myRowDim, first, limit, myColDim, tmpVectorHi, tmpVectorLo, tmpFirst, tmpBetaHi,
+                            tmpBetaLo);
+                }
+            };
+
+            tmpConquerer.invoke(firstRow, myRowDim, HouseholderRight.THRESHOLD);
+
+        } else {
+
+            QuadrupleOperation.householderRight(hi, lo, myRowDim, firstRow, myRowDim, myColDim, tmpVectorHi, tmpVectorLo, tmpFirst, tmpBetaHi, tmpBetaLo);
+        }
+    }
+
+    public void transformRight(final Rotation<Quadruple> transformation) {
+
+        Rotation.Generic<Quadruple> tmpTransf = this.cast(transformation);
+
+        int tmpLow = tmpTransf.low;
+        int tmpHigh = tmpTransf.high;
+
+        if (tmpLow != tmpHigh) {
+            if (tmpTransf.cos != null && tmpTransf.sin != null) {
+                this.rotate(tmpLow * myRowDim, tmpHigh * myRowDim, 1, myRowDim, tmpTransf.cos.getBase(), tmpTransf.cos.getRemainder(),
+                        -tmpTransf.sin.getBase(), -tmpTransf.sin.getRemainder());
+            } else {
+                myUtility.exchangeColumns(tmpLow, tmpHigh);
+            }
+        } else if (tmpTransf.cos != null) {
+            myUtility.modifyColumn(0, tmpHigh, QuadrupleMath.MULTIPLY.second(tmpTransf.cos));
+        } else if (tmpTransf.sin != null) {
+            myUtility.modifyColumn(0, tmpHigh, QuadrupleMath.DIVIDE.second(tmpTransf.sin));
+        } else {
+            myUtility.modifyColumn(0, tmpHigh, QuadrupleMath.NEGATE);
+        }
+    }
+
+    /**
+     * Copies the elements to a {@link Quadruple}[] and back.
+     */
+    public void transformSymmetric(final Householder<Quadruple> transformation) {
+
+        Quadruple[] tmpData = new Quadruple[hi.length];
+        for (int i = 0; i < tmpData.length; i++) {
+            tmpData[i] = this.get(i);
+        }
+
+        Quadruple[] tmpWorker = new Quadruple[myRowDim];
+        for (int i = 0; i < tmpWorker.length; i++) {
+            tmpWorker[i] = Quadruple.ZERO;
+        }
+
+        HouseholderHermitian.invoke(tmpData, this.cast(transformation), tmpWorker, Quadruple.FACTORY);
+
+        for (int i = 0; i < tmpData.length; i++) {
+            this.fillOne(i, tmpData[i]);
+        }
+    }
+
+    public MatrixStore<Quadruple> transpose() {
+        return new TransposedStore<>(this);
+    }
+
+    public void tred2(final BasicArray<Quadruple> mainDiagonal, final BasicArray<Quadruple> offDiagonal, final boolean yesvecs) {
+        ProgrammingError.throwForUnsupportedOptionalOperation();
+    }
+
+    public void visitColumn(final long row, final long col, final VoidFunction<Quadruple> visitor) {
+        myUtility.visitColumn(row, col, visitor);
+    }
+
+    public void visitDiagonal(final long row, final long col, final VoidFunction<Quadruple> visitor) {
+        myUtility.visitDiagonal(row, col, visitor);
+    }
+
+    public void visitRow(final long row, final long col, final VoidFunction<Quadruple> visitor) {
+        myUtility.visitRow(row, col, visitor);
+    }
+
+    private Householder.Generic<Quadruple> cast(final Householder<Quadruple> transformation) {
+        if (transformation instanceof Householder.Generic) {
+            return (Householder.Generic<Quadruple>) transformation;
+        }
+        if (transformation instanceof HouseholderReference<?>) {
+            return ((Householder.Generic<Quadruple>) ((HouseholderReference<Quadruple>) transformation).getWorker(FACTORY)).copy(transformation);
+        }
+        return new Householder.Generic<>(Quadruple.FACTORY, transformation);
+    }
+
+    private Rotation.Generic<Quadruple> cast(final Rotation<Quadruple> transformation) {
+        if (transformation instanceof Rotation.Generic) {
+            return (Rotation.Generic<Quadruple>) transformation;
+        }
+        return new Rotation.Generic<>(transformation);
+    }
+
+    /**
+     * All elements, column-major, as {@link Quadruple} instances.
+     */
+    private Quadruple[] getAll() {
+        Quadruple[] retVal = new Quadruple[myRowDim * myColDim];
+        for (int index = 0; index < retVal.length; index++) {
+            retVal[index] = this.get(index);
+        }
+        return retVal;
+    }
+
+    private TransformableRegion.FillByMultiplying<Quadruple> multiplier() {
+        return MultiplyBoth.newGeneric(myRowDim, myColDim);
+    }
+
+    private void put(final int index, final Object value) {
+        this.fillOne(index, Quadruple.valueOf((Comparable<?>) value));
+    }
+
+    /**
+     * a = cos*a + sin*b and b = cos*b - sin*a, for count elements starting at indexA and indexB respectively.
+     */
+    private void rotate(final int indexA, final int indexB, final int stride, final int count, final double cosHi, final double cosLo,
+            final double sinHi, final double sinLo) {
+
+        double[] tmpHi = new double[2];
+        double[] tmpLo = new double[2];
+
+        for (int k = 0, a = indexA, b = indexB; k < count; k++, a += stride, b += stride) {
+
+            tmpHi[0] = tmpLo[0] = tmpHi[1] = tmpLo[1] = PrimitiveMath.ZERO;
+
+            QuadrupleOperation.fma(tmpHi, tmpLo, 0, cosHi, cosLo, hi[a], lo[a]);
+            QuadrupleOperation.fma(tmpHi, tmpLo, 0, sinHi, sinLo, hi[b], lo[b]);
+            QuadrupleOperation.fma(tmpHi, tmpLo, 1, cosHi, cosLo, hi[b], lo[b]);
+            QuadrupleOperation.fma(tmpHi, tmpLo, 1, -sinHi, -sinLo, hi[a], lo[a]);
+
+            hi[a] = tmpHi[0];
+            lo[a] = tmpLo[0];
+            hi[b] = tmpHi[1];
+            lo[b] = tmpLo[1];
+        }
+    }
+
+    private void setAll(final Quadruple[] source) {
+        for (int index = 0; index < source.length; index++) {
+            this.fillOne(index, source[index]);
+        }
+    }
+
+    private void swap(final int indexA, final int indexB) {
+
+        double tmpHi = hi[indexA];
+        hi[indexA] = hi[indexB];
+        hi[indexB] = tmpHi;
+
+        double tmpLo = lo[indexA];
+        lo[indexA] = lo[indexB];
+        lo[indexB] = tmpLo;
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import org.ojalgo.array.ArrayR008;
+import org.ojalgo.array.ArrayR016;
+import org.ojalgo.array.DenseArray;
+import org.ojalgo.array.QuantisedArray;
+import org.ojalgo.array.operation.QuantisedOperation;
+import org.ojalgo.structure.Access1D;
+import org.ojalgo.structure.Access2D;
+
+/**
+ * An immutable {@link MatrixStore} backed by one of the compact real number arrays, {@link ArrayR008} or
+ * {@link ArrayR016}. The elements are stored column-major, same as with {@link Primitive64Store}, but use 1/8
+ * or 1/4 of the memory.
+ * <p>
+ * Multiplying with a right hand side matrix, and premultiplying with a left hand side matrix (vector), use
+ * the fused dequantising kernels in {@link QuantisedOperation}. Typical use: a (large) collection of
+ * embeddings stored one per column, premultiplied by a query vector to get the similarity scores.
+ *
+ * @author apete
+ */
+public final class QuantisedStore extends FactoryStore<Double> {
+
+    /**
+     * @param type One of {@link ArrayR008#FACTORY}, {@link ArrayR008#factory(int)}, {@link ArrayR016#FACTORY}
+     *        or {@link ArrayR016#HALF}
+     * @param source The matrix to quantise/copy
+     */
+    public static QuantisedStore copy(final DenseArray.Factory<Double> type, final Access2D<?> source) {
+
+        DenseArray<Double> data = type.copy(source);
+
+        if (!(data instanceof QuantisedArray)) {
+            throw new IllegalArgumentException("Not a quantised array type!");
+        }
+
+        return new QuantisedStore((QuantisedArray) data, source.countRows(), source.countColumns());
+    }
+
+    private final QuantisedArray myData;
+
+    QuantisedStore(final QuantisedArray data, final long rowsCount, final long columnsCount) {
+
+        super(Primitive64Store.FACTORY, rowsCount, columnsCount);
+
+        myData = data;
+    }
+
+    public double doubleValue(final long row, final long col) {
+        return myData.doubleValue(row + col * this.getRowDim());
+    }
+
+    public Double get(final long row, final long col) {
+        return Double.valueOf(this.doubleValue(row, col));
+    }
+
+    /**
+     * @return The underlying (column-major) array, an instance of either {@link ArrayR008} or
+     *         {@link ArrayR016}
+     */
+    public QuantisedArray getData() {
+        return myData;
+    }
+
+    @Override
+    public void multiply(final Access1D<Double> right, final TransformableRegion<Double> target) {
+
+        int rows = this.getRowDim();
+        int columns = Math.toIntExact(right.count() / this.getColDim());
+
+        double[] factors = right instanceof Primitive64Store ? ((Primitive64Store) right).data : right.toRawCopy1D();
+        double[] product = new double[rows * columns];
+
+        if (myData instanceof ArrayR008) {
+            QuantisedOperation.multiply(product, (ArrayR008) myData, rows, factors, columns);
+        } else {
+            QuantisedOperation.multiply(product, (ArrayR016) myData, rows, factors, columns);
+        }
+
+        target.fillMatching(Access1D.wrap(product));
+    }
+
+    @Override
+    public ElementsSupplier<Double> premultiply(final Access1D<Double> left) {
+
+        int complexity = this.getRowDim();
+        int columns = this.getColDim();
+        int rows = Math.toIntExact(left.count() / complexity);
+
+        double[] product = new double[rows * columns];
+        double[] leftRow = new double[complexity];
+
+        for (int i = 0; i < rows; i++) {
+
+            for (int c = 0; c < complexity; c++) {
+                leftRow[c] = left.doubleValue(i + c * rows);
+            }
+
+            for (int j = 0; j < columns; j++) {
+                product[i + j * rows] = this.dot(leftRow, j * complexity, complexity);
+            }
+        }
+
+        return Primitive64Store.wrap(product, rows);
+    }
+
+    private double dot(final double[] vector, final int offset, final int length) {
+        if (myData instanceof ArrayR008) {
+            return QuantisedOperation.dot((ArrayR008) myData, offset, vector, 0, 0, length);
+        } else {
+            return QuantisedOperation.dot((ArrayR016) myData, offset, vector, 0, 0, length);
+        }
+    }
+
+}
@@ -0,0 +1,531 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.netio;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads (ASCII/Latin-1) text files line by line, without creating any {@link String}:s. Files are memory mapped
+ * (in regions) and compressed files/streams are read in chunks. The current line is available as characters and
+ * (whitespace separated) tokens, and tokens can be parsed to numbers or compared to text in place. The intention
+ * is to read very large model/data files with minimal allocation.
+ *
+ * @author apete
+ */
+public final class ASCIILineReader implements Closeable {
+
+    /**
+     * A hash table mapping names (character sequences) to int values. Lookups are done directly on the
+     * {@link ASCIILineReader}'s current line, without creating any {@link String}:s.
+     */
+    public static final class Symbols {
+
+        private String[] myKeys = new String[64];
+        private int mySize = 0;
+        private int[] myValues = new int[64];
+
+        public Symbols() {
+            super();
+        }
+
+        /**
+         * @return The value associated with the characters [start,end) of the reader's current line, or -1 if
+         *         there is no such key.
+         */
+        public int get(final ASCIILineReader reader, final int start, final int end) {
+
+            int mask = myKeys.length - 1;
+            int length = end - start;
+
+            for (int h = Symbols.hash(reader.myLine, start, end) & mask;; h = h + 1 & mask) {
+                String key = myKeys[h];
+                if (key == null) {
+                    return -1;
+                }
+                if (key.length() == length && Symbols.matches(key, reader.myLine, start)) {
+                    return myValues[h];
+                }
+            }
+        }
+
+        /**
+         * @return The value associated with the reader's current line token, or -1 if there is no such key.
+         */
+        public int get(final ASCIILineReader reader, final int token) {
+            return this.get(reader, reader.start(token), reader.end(token));
+        }
+
+        public void put(final String key, final int value) {
+
+            if (2 * (mySize + 1) > myKeys.length) {
+                this.rehash(2 * myKeys.length);
+            }
+
+            int mask = myKeys.length - 1;
+
+            for (int h = Symbols.hash(key) & mask;; h = h + 1 & mask) {
+                if (myKeys[h] == null) {
+                    myKeys[h] = key;
+                    myValues[h] = value;
+                    mySize++;
+                    return;
+                }
+                if (myKeys[h].equals(key)) {
+                    myValues[h] = value;
+                    return;
+                }
+            }
+        }
+
+        public int size() {
+            return mySize;
+        }
+
+        private void rehash(final int capacity) {
+
+            String[] keys = myKeys;
+            int[] values = myValues;
+
+            myKeys = new String[capacity];
+            myValues = new int[capacity];
+            mySize = 0;
+
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != null) {
+                    this.put(keys[i], values[i]);
+                }
+            }
+        }
+
+        private static int hash(final byte[] bytes, final int start, final int end) {
+            int retVal = 0;
+            for (int i = start; i < end; i++) {
+                retVal = 31 * retVal + (bytes[i] & 0xFF);
+            }
+            return Symbols.spread(retVal);
+        }
+
+        private static int hash(final String key) {
+            int retVal = 0;
+            for (int i = 0, limit = key.length(); i < limit; i++) {
+                retVal = 31 * retVal + key.charAt(i);
+            }
+            return Symbols.spread(retVal);
+        }
+
+        /**
+         * Names in model files tend to differ only in a few trailing characters. With linear probing that
+         * causes long clusters unless the bits are mixed well.
+         */
+        private static int spread(final int hash) {
+            int retVal = hash * 0x9E3779B9;
+            return retVal ^ retVal >>> 15;
+        }
+
+        private static boolean matches(final String key, final byte[] bytes, final int start) {
+            for (int i = 0, limit = key.length(); i < limit; i++) {
+                if (key.charAt(i) != (bytes[start + i] & 0xFF)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+    private static final int CHUNK = 1 << 16;
+    /**
+     * Exactly representable powers of 10
+     */
+    private static final double[] POWERS_OF_TEN = { 1E0, 1E1, 1E2, 1E3, 1E4, 1E5, 1E6, 1E7, 1E8, 1E9, 1E10, 1E11, 1E12, 1E13, 1E14, 1E15, 1E16, 1E17,
+            1E18, 1E19, 1E20, 1E21, 1E22 };
+    private static final long REGION = 1L << 26;
+
+    /**
+     * Files with names ending with ".gz" or ".zip" are decompressed while reading, other files are memory mapped.
+     */
+    public static ASCIILineReader of(final File file) {
+
+        String name = file.getName();
+
+        if (name.endsWith(".gz") || name.endsWith(".zip")) {
+            return new ASCIILineReader(FromFileReader.input(file));
+        }
+
+        try {
+            return new ASCIILineReader(FileChannel.open(file.toPath(), StandardOpenOption.READ));
+        } catch (IOException cause) {
+            throw new RuntimeException(cause);
+        }
+    }
+
+    public static ASCIILineReader of(final InputStream input) {
+        return new ASCIILineReader(input);
+    }
+
+    private ByteBuffer myBuffer;
+    private final FileChannel myChannel;
+    private final byte[] myChunk;
+    private final InputStream myInput;
+    private int myLength = 0;
+    private byte[] myLine = new byte[256];
+    private int myLineNumber = 0;
+    private int myNbTokens = -1;
+    private long myPosition = 0L;
+    private int[] myTokenEnds = new int[16];
+    private int[] myTokenStarts = new int[16];
+
+    ASCIILineReader(final FileChannel channel) {
+
+        super();
+
+        myChannel = channel;
+        myInput = null;
+        myChunk = null;
+        myBuffer = ByteBuffer.allocate(0);
+    }
+
+    ASCIILineReader(final InputStream input) {
+
+        super();
+
+        myChannel = null;
+        myInput = input;
+        myChunk = new byte[CHUNK];
+        myBuffer = ByteBuffer.wrap(myChunk, 0, 0);
+    }
+
+    public char charAt(final int index) {
+        return (char) (myLine[index] & 0xFF);
+    }
+
+    public void close() throws IOException {
+        if (myChannel != null) {
+            myChannel.close();
+        }
+        if (myInput != null) {
+            myInput.close();
+        }
+    }
+
+    /**
+     * @return true if the current line contains the text
+     */
+    public boolean contains(final String text) {
+        for (int i = 0, limit = myLength - text.length(); i <= limit; i++) {
+            if (this.matches(i, i + text.length(), text)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The number of (whitespace separated) tokens on the current line
+     */
+    public int countTokens() {
+        if (myNbTokens < 0) {
+            this.tokenize();
+        }
+        return myNbTokens;
+    }
+
+    /**
+     * @return The (exclusive) end index of the token
+     */
+    public int end(final int token) {
+        if (myNbTokens < 0) {
+            this.tokenize();
+        }
+        return myTokenEnds[token];
+    }
+
+    /**
+     * The length of the current line, excluding any line terminator
+     */
+    public int length() {
+        return myLength;
+    }
+
+    /**
+     * The (1-based) number of the current line
+     */
+    public int lineNumber() {
+        return myLineNumber;
+    }
+
+    /**
+     * @return true if the characters [start,end) of the current line are exactly the text
+     */
+    public boolean matches(final int start, final int end, final String text) {
+        if (end - start != text.length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if ((myLine[start + i] & 0xFF) != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean matches(final int token, final String text) {
+        return this.matches(this.start(token), this.end(token), text);
+    }
+
+    /**
+     * @return true if the characters [start,end) of the current line are the text, ignoring case
+     */
+    public boolean matchesIgnoreCase(final int start, final int end, final String text) {
+        if (end - start != text.length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (ASCII.toLowercase(myLine[start + i] & 0xFF) != ASCII.toLowercase(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Advance to the next line.
+     *
+     * @return false if there are no more lines
+     */
+    public boolean next() {
+
+        myLength = 0;
+        myNbTokens = -1;
+
+        boolean any = false;
+
+        for (;;) {
+
+            while (myBuffer.hasRemaining()) {
+                byte b = myBuffer.get();
+                any = true;
+                if (b == ASCII.LF) {
+                    myLineNumber++;
+                    return true;
+                }
+                if (b != ASCII.CR) {
+                    if (myLength == myLine.length) {
+                        myLine = Arrays.copyOf(myLine, 2 * myLength);
+                    }
+                    myLine[myLength++] = b;
+                }
+            }
+
+            if (!this.refill()) {
+                if (any) {
+                    myLineNumber++;
+                }
+                return any;
+            }
+        }
+    }
+
+    /**
+     * @return The start index of the token
+     */
+    public int start(final int token) {
+        if (myNbTokens < 0) {
+            this.tokenize();
+        }
+        return myTokenStarts[token];
+    }
+
+    /**
+     * Parse the characters [start,end) of the current line as a double. The common cases (not too many
+     * significant digits and a moderate exponent) are parsed directly, and correctly rounded, everything else
+     * is delegated to {@link Double#parseDouble(String)}.
+     */
+    public double toDouble(final int start, final int end) {
+
+        int i = start;
+        boolean negative = false;
+
+        if (i < end && (myLine[i] == '-' || myLine[i] == '+')) {
+            negative = myLine[i] == '-';
+            i++;
+        }
+
+        long mantissa = 0L;
+        int digits = 0;
+        int exponent = 0;
+        boolean any = false;
+        boolean point = false;
+
+        for (; i < end; i++) {
+            int c = myLine[i];
+            if (c >= '0' && c <= '9') {
+                any = true;
+                if (digits < 18) {
+                    mantissa = 10L * mantissa + (c - '0');
+                    if (mantissa != 0L) {
+                        digits++;
+                    }
+                    if (point) {
+                        exponent--;
+                    }
+                } else {
+                    digits++;
+                    if (!point) {
+                        exponent++;
+                    }
+                }
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+
+        if (any && i < end && (myLine[i] == 'e' || myLine[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (myLine[i] == '-' || myLine[i] == '+')) {
+                negativeExponent = myLine[i] == '-';
+                i++;
+            }
+            int value = 0;
+            boolean anyExponent = false;
+            for (; i < end && myLine[i] >= '0' && myLine[i] <= '9' && value < 10_000; i++) {
+                value = 10 * value + (myLine[i] - '0');
+                anyExponent = true;
+            }
+            if (!anyExponent) {
+                any = false;
+            }
+            exponent += negativeExponent ? -value : value;
+        }
+
+        if (any && i == end && digits <= 15) {
+            double retVal;
+            if (mantissa == 0L) {
+                retVal = 0.0;
+            } else if (exponent >= 0 && exponent < POWERS_OF_TEN.length) {
+                retVal = mantissa * POWERS_OF_TEN[exponent];
+            } else if (exponent < 0 && -exponent < POWERS_OF_TEN.length) {
+                retVal = mantissa / POWERS_OF_TEN[-exponent];
+            } else {
+                return Double.parseDouble(this.toString(start, end));
+            }
+            return negative ? -retVal : retVal;
+        }
+
+        return Double.parseDouble(this.toString(start, end));
+    }
+
+    public double toDouble(final int token) {
+        return this.toDouble(this.start(token), this.end(token));
+    }
+
+    /**
+     * The current line
+     */
+    @Override
+    public String toString() {
+        return this.toString(0, myLength);
+    }
+
+    public String toString(final int start, final int end) {
+        return new String(myLine, start, end - start, StandardCharsets.ISO_8859_1);
+    }
+
+    public String toString(final int token) {
+        return this.toString(this.start(token), this.end(token));
+    }
+
+    private boolean refill() {
+
+        try {
+
+            if (myChannel != null) {
+
+                long size = myChannel.size();
+                if (myPosition >= size) {
+                    return false;
+                }
+
+                long length = Math.min(REGION, size - myPosition);
+                myBuffer = myChannel.map(MapMode.READ_ONLY, myPosition, length);
+                myPosition += length;
+                return true;
+            }
+
+            int read = myInput.read(myChunk);
+            while (read == 0) {
+                read = myInput.read(myChunk);
+            }
+            if (read < 0) {
+                return false;
+            }
+
+            myBuffer = ByteBuffer.wrap(myChunk, 0, read);
+            return true;
+
+        } catch (IOException cause) {
+            throw new RuntimeException(cause);
+        }
+    }
+
+    private void tokenize() {
+
+        int count = 0;
+
+        for (int i = 0; i < myLength;) {
+
+            while (i < myLength && ASCII.isSpace(myLine[i] & 0xFF)) {
+                i++;
+            }
+            if (i >= myLength) {
+                break;
+            }
+
+            if (count == myTokenStarts.length) {
+                myTokenStarts = Arrays.copyOf(myTokenStarts, 2 * count);
+                myTokenEnds = Arrays.copyOf(myTokenEnds, 2 * count);
+            }
+
+            myTokenStarts[count] = i;
+            while (i < myLength && !ASCII.isSpace(myLine[i] & 0xFF)) {
+                i++;
+            }
+            myTokenEnds[count] = i;
+            count++;
+        }
+
+        myNbTokens = count;
+    }
+
+}
@@ -143,7 +143,9 @@ public interface FromFileReader<T> extends AutoSupplier<T>, Closeable {
             if (name.endsWith(".gz")) {
                 retVal = new GZIPInputStream(retVal);
             } else if (name.endsWith(".zip")) {
-                retVal = new ZipInputStream(retVal);
+                ZipInputStream zip = new ZipInputStream(retVal);
+                zip.getNextEntry(); // Position at the first (only) entry
+                retVal = zip;
             }
 
             return retVal;
@@ -457,6 +457,13 @@ public final class ServiceClient {
             mySession.print(receiver);
         }
 
+        /**
+         * @return The underlying future response – to continue processing asynchronously
+         */
+        public CompletableFuture<HttpResponse<T>> toCompletableFuture() {
+            return myFutureResponse;
+        }
+
         @Override
         public String toString() {
             return myFutureResponse.toString();
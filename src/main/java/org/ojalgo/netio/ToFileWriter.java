@@ -34,6 +34,7 @@ import java.util.concurrent.LinkedBlockingQueue;
 import java.util.function.Function;
 import java.util.function.ToIntFunction;
 import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 import org.ojalgo.type.function.AutoConsumer;
@@ -171,7 +172,9 @@ public interface ToFileWriter<T> extends AutoConsumer<T>, Closeable {
             if (name.endsWith(".gz")) {
                 retVal = new GZIPOutputStream(retVal);
             } else if (name.endsWith(".zip")) {
-                retVal = new ZipOutputStream(retVal);
+                ZipOutputStream zip = new ZipOutputStream(retVal);
+                zip.putNextEntry(new ZipEntry(name.substring(0, name.length() - 4)));
+                retVal = zip;
             }
 
             return retVal;
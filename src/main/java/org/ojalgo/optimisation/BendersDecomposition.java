@@ -0,0 +1,665 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.ojalgo.array.ArrayR064;
+import org.ojalgo.concurrent.Parallelism;
+import org.ojalgo.concurrent.ProcessingService;
+import org.ojalgo.structure.Structure1D.IntIndex;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * Benders decomposition of a block structured (block angular with linking variables) model. Typical
+ * examples are 2-stage stochastic programs – many scenario blocks linked by a few first-stage variables.
+ * <p>
+ * The master problem contains the linking variables, the constraints that only involve those, and one
+ * variable per block estimating the block's contribution to the objective function. The block subproblems
+ * are linear programs in the block variables with the linking variables fixed at the master solution. They
+ * are solved, in parallel, as their dual problems. The dual feasible region does not depend on the master
+ * solution – only the objective does – and each block's dual is kept as a {@link CompiledModel} so that
+ * re-solving it is a warm-started continuation from the previous solution. Optimality cuts (and, when a block
+ * is infeasible, feasibility cuts) are added to the master problem until the lower and upper bounds meet.
+ * <p>
+ * The linking variables may be integer, the block variables may not. Quadratic objective functions or
+ * constraints are not supported. If the model is not suitable for decomposition, or something unexpected
+ * happens, the model is solved the usual way.
+ *
+ * @author apete
+ */
+public final class BendersDecomposition {
+
+    /**
+     * One block (subproblem) of the decomposition, and the latest evaluation of it
+     */
+    static final class Block {
+
+        /**
+         * The objective function factors of the block variables (minimisation)
+         */
+        final double[] cost;
+        /**
+         * The block variable factors of each row
+         */
+        final double[][] factor;
+        /**
+         * The block (local) variable indices of each row
+         */
+        final int[][] index;
+        /**
+         * The linking variable factors of each row
+         */
+        final double[][] linkFactor;
+        /**
+         * The linking (master) variable indices of each row
+         */
+        final int[][] linked;
+        final double[] lower;
+        final double[] upper;
+        final List<Variable> variables;
+
+        double[] cut;
+        double constant;
+        boolean feasible;
+        Optimisation.State state;
+        double value;
+
+        private Dual myFeasibility = null;
+        private Dual myOptimality = null;
+
+        Block(final List<Variable> variables, final List<Expression> constraints, final double[] cost, final int[] localIndex,
+                final int[] masterIndex) {
+
+            super();
+
+            this.variables = variables;
+            this.cost = cost;
+
+            int nbRows = constraints.size();
+
+            lower = new double[nbRows];
+            upper = new double[nbRows];
+            index = new int[nbRows][];
+            factor = new double[nbRows][];
+            linked = new int[nbRows][];
+            linkFactor = new double[nbRows][];
+
+            for (int r = 0; r < nbRows; r++) {
+
+                Expression constraint = constraints.get(r);
+
+                lower[r] = constraint.getLowerLimit(false, Double.NEGATIVE_INFINITY);
+                upper[r] = constraint.getUpperLimit(false, Double.POSITIVE_INFINITY);
+
+                int nbLocal = 0;
+                int nbLinked = 0;
+                for (IntIndex key : constraint.getLinearKeySet()) {
+                    if (masterIndex[key.index] >= 0) {
+                        nbLinked++;
+                    } else {
+                        nbLocal++;
+                    }
+                }
+
+                index[r] = new int[nbLocal];
+                factor[r] = new double[nbLocal];
+                linked[r] = new int[nbLinked];
+                linkFactor[r] = new double[nbLinked];
+
+                nbLocal = 0;
+                nbLinked = 0;
+                for (IntIndex key : constraint.getLinearKeySet()) {
+                    double value = constraint.doubleValue(key, false);
+                    if (masterIndex[key.index] >= 0) {
+                        linked[r][nbLinked] = masterIndex[key.index];
+                        linkFactor[r][nbLinked++] = value;
+                    } else {
+                        index[r][nbLocal] = localIndex[key.index];
+                        factor[r][nbLocal++] = value;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Evaluate the block for the given linking variable values. Afterwards {@link #state} is the state
+         * of the (optimality) dual problem. When {@link #feasible} is true {@link #value} is the optimal
+         * value of the subproblem and the optimality cut is {@link #cut}·x + θ ≥ {@link #constant}, else
+         * the feasibility cut is {@link #cut}·x ≥ {@link #constant}.
+         */
+        void evaluate(final double[] linking) {
+
+            double[] shift = this.shift(linking);
+
+            if (myOptimality == null) {
+                myOptimality = new Dual(this, false);
+            }
+
+            Optimisation.Result dual = myOptimality.evaluate(this, shift);
+            state = dual.getState();
+
+            if (state.isOptimal()) {
+                feasible = true;
+                value = dual.getValue();
+                this.cut(dual, linking);
+            } else if (state == Optimisation.State.UNBOUNDED) {
+                if (myFeasibility == null) {
+                    myFeasibility = new Dual(this, true);
+                }
+                Optimisation.Result ray = myFeasibility.evaluate(this, shift);
+                state = ray.getState();
+                feasible = false;
+                if (state.isOptimal()) {
+                    value = ray.getValue();
+                    this.cut(ray, linking);
+                }
+            }
+        }
+
+        /**
+         * Solve the block (primal) subproblem for the given linking variable values.
+         */
+        Optimisation.Result solve(final double[] linking) {
+
+            double[] shift = this.shift(linking);
+
+            ExpressionsBasedModel subproblem = new ExpressionsBasedModel();
+
+            for (int j = 0; j < variables.size(); j++) {
+                Variable variable = variables.get(j);
+                subproblem.addVariable(variable.getName()).lower(variable.getLowerLimit()).upper(variable.getUpperLimit()).weight(cost[j]);
+            }
+
+            for (int r = 0; r < lower.length; r++) {
+                Expression row = subproblem.addExpression("R" + r);
+                if (Double.isFinite(lower[r])) {
+                    row.lower(lower[r] - shift[r]);
+                }
+                if (Double.isFinite(upper[r])) {
+                    row.upper(upper[r] - shift[r]);
+                }
+                for (int k = 0; k < index[r].length; k++) {
+                    row.set(index[r][k], factor[r][k]);
+                }
+            }
+
+            return subproblem.minimise();
+        }
+
+        private void cut(final Optimisation.Result dual, final double[] linking) {
+
+            cut = new double[linking.length];
+            for (int r = 0; r < lower.length; r++) {
+                double pi = dual.doubleValue(r);
+                for (int k = 0; k < linked[r].length; k++) {
+                    cut[linked[r][k]] += pi * linkFactor[r][k];
+                }
+            }
+
+            constant = value;
+            for (int k = 0; k < linking.length; k++) {
+                constant += cut[k] * linking[k];
+            }
+        }
+
+        private double[] shift(final double[] linking) {
+            double[] retVal = new double[lower.length];
+            for (int r = 0; r < lower.length; r++) {
+                for (int k = 0; k < linked[r].length; k++) {
+                    retVal[r] += linkFactor[r][k] * linking[linked[r][k]];
+                }
+            }
+            return retVal;
+        }
+
+    }
+
+    /**
+     * The dual problem of a block subproblem. With the normalised version (all dual variables bounded by
+     * [-1,1] and a zero objective function) a positive optimal value proves the subproblem is infeasible.
+     */
+    static final class Dual {
+
+        private final Variable[] myAlpha;
+        private final Variable[] myBeta;
+        private final CompiledModel myCompiled;
+        private final ExpressionsBasedModel myModel;
+
+        Dual(final Block block, final boolean normalised) {
+
+            super();
+
+            myModel = new ExpressionsBasedModel();
+
+            int nbRows = block.lower.length;
+            int nbVariables = block.variables.size();
+
+            myAlpha = new Variable[nbRows];
+            myBeta = new Variable[nbRows];
+
+            BigDecimal unit = normalised ? BigDecimal.ONE : null;
+
+            for (int r = 0; r < nbRows; r++) {
+                if (block.lower[r] == block.upper[r]) {
+                    myAlpha[r] = myModel.addVariable("PI" + r).lower(unit != null ? unit.negate() : null).upper(unit);
+                } else {
+                    if (Double.isFinite(block.lower[r])) {
+                        myAlpha[r] = myModel.addVariable("ALPHA" + r).lower(BigDecimal.ZERO).upper(unit);
+                    }
+                    if (Double.isFinite(block.upper[r])) {
+                        myBeta[r] = myModel.addVariable("BETA" + r).lower(BigDecimal.ZERO).upper(unit);
+                    }
+                }
+                if (myAlpha[r] != null) {
+                    myAlpha[r].weight(block.lower[r]);
+                }
+                if (myBeta[r] != null) {
+                    myBeta[r].weight(-block.upper[r]);
+                }
+            }
+
+            List<Expression> columns = new ArrayList<>(nbVariables);
+
+            for (int j = 0; j < nbVariables; j++) {
+
+                Variable variable = block.variables.get(j);
+
+                Expression column = myModel.addExpression("C" + j).level(normalised ? 0.0 : block.cost[j]);
+                columns.add(column);
+
+                double lower = variable.getLowerLimit(false, Double.NEGATIVE_INFINITY);
+                double upper = variable.getUpperLimit(false, Double.POSITIVE_INFINITY);
+
+                if (Double.isFinite(lower)) {
+                    column.set(myModel.addVariable("GAMMA" + j).lower(BigDecimal.ZERO).upper(unit).weight(lower), 1.0);
+                }
+                if (Double.isFinite(upper)) {
+                    column.set(myModel.addVariable("DELTA" + j).lower(BigDecimal.ZERO).upper(unit).weight(-upper), -1.0);
+                }
+            }
+
+            for (int r = 0; r < nbRows; r++) {
+                int[] locals = block.index[r];
+                double[] factors = block.factor[r];
+                for (int k = 0; k < locals.length; k++) {
+                    if (myAlpha[r] != null) {
+                        columns.get(locals[k]).add(myAlpha[r], factors[k]);
+                    }
+                    if (myBeta[r] != null) {
+                        columns.get(locals[k]).add(myBeta[r], -factors[k]);
+                    }
+                }
+            }
+
+            myCompiled = myModel.compile();
+        }
+
+        /**
+         * @param shift The linking variables' contribution to each row
+         * @return The dual solution – the state, the optimal value and π = α - β per row
+         */
+        Optimisation.Result evaluate(final Block block, final double[] shift) {
+
+            for (int r = 0; r < shift.length; r++) {
+                if (block.linked[r].length > 0) {
+                    this.weigh(block, r, shift[r]);
+                }
+            }
+
+            Optimisation.Result result = myCompiled.maximise();
+
+            if (!result.getState().isOptimal()) {
+                myCompiled.reset();
+                return result;
+            }
+
+            ArrayR064 pi = ArrayR064.make(shift.length);
+            for (int r = 0; r < shift.length; r++) {
+                double value = 0.0;
+                if (myAlpha[r] != null) {
+                    value += result.doubleValue(myAlpha[r].getIndex().index);
+                }
+                if (myBeta[r] != null) {
+                    value -= result.doubleValue(myBeta[r].getIndex().index);
+                }
+                pi.set(r, value);
+            }
+
+            return new Optimisation.Result(result.getState(), result.getValue(), pi);
+        }
+
+        private void weigh(final Block block, final int row, final double shift) {
+            if (myAlpha[row] != null) {
+                myCompiled.weight(myAlpha[row], block.lower[row] - shift);
+            }
+            if (myBeta[row] != null) {
+                myCompiled.weight(myBeta[row], shift - block.upper[row]);
+            }
+        }
+
+    }
+
+    private int myIterations = 0;
+    private int myIterationsLimit = 1_000;
+    private final ExpressionsBasedModel myModel;
+    private IntSupplier myParallelism = Parallelism.CORES;
+    private final BlockStructure myStructure;
+    private NumberContext myTolerance = NumberContext.of(8, 10);
+
+    BendersDecomposition(final ExpressionsBasedModel model, final BlockStructure structure) {
+        super();
+        myModel = model;
+        myStructure = structure;
+    }
+
+    /**
+     * @return The number of (master problem) iterations of the latest solve
+     */
+    public int countIterations() {
+        return myIterations;
+    }
+
+    public BlockStructure getStructure() {
+        return myStructure;
+    }
+
+    /**
+     * The max number of iterations (master problem solves)
+     */
+    public BendersDecomposition iterations(final int limit) {
+        myIterationsLimit = limit;
+        return this;
+    }
+
+    public Optimisation.Result maximise() {
+        return this.optimise(Optimisation.Sense.MAX);
+    }
+
+    public Optimisation.Result minimise() {
+        return this.optimise(Optimisation.Sense.MIN);
+    }
+
+    /**
+     * How many blocks to solve in parallel
+     */
+    public BendersDecomposition parallelism(final IntSupplier parallelism) {
+        myParallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * The relative tolerance used to decide if the lower and upper bounds have met, and if a block's
+     * contribution to the objective function is correctly estimated by the master problem.
+     */
+    public BendersDecomposition tolerance(final NumberContext tolerance) {
+        myTolerance = tolerance;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "Benders decomposition: " + myStructure;
+    }
+
+    private boolean isApplicable() {
+
+        if (myStructure.countBlocks() == 0 || myModel.objective().isAnyQuadraticFactorNonZero()) {
+            return false;
+        }
+
+        for (Expression constraint : myModel.getExpressions()) {
+            if (constraint.isConstraint() && constraint.isAnyQuadraticFactorNonZero()) {
+                return false;
+            }
+        }
+
+        for (int b = 0; b < myStructure.countBlocks(); b++) {
+            for (Variable variable : myStructure.getBlockVariables(b)) {
+                if (variable.isInteger()) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private Optimisation.Result optimise(final Optimisation.Sense sense) {
+
+        myIterations = 0;
+
+        if (!this.isApplicable()) {
+            return this.solveMonolithic(sense);
+        }
+
+        int nbVariables = myModel.countVariables();
+        double sign = sense == Optimisation.Sense.MAX ? -1.0 : 1.0;
+
+        Expression objective = myModel.objective();
+        double[] cost = new double[nbVariables];
+        for (IntIndex key : objective.getLinearKeySet()) {
+            cost[key.index] = sign * objective.doubleValue(key, false);
+        }
+
+        // The master problem
+
+        List<Variable> linking = myStructure.getLinkingVariables();
+        int nbLinking = linking.size();
+
+        int[] masterIndex = new int[nbVariables];
+        int[] localIndex = new int[nbVariables];
+        Arrays.fill(masterIndex, -1);
+
+        ExpressionsBasedModel master = new ExpressionsBasedModel(myModel.options.copy());
+
+        for (int k = 0; k < nbLinking; k++) {
+            Variable variable = linking.get(k);
+            masterIndex[variable.getIndex().index] = k;
+            master.addVariable(variable.getName()).lower(variable.getLowerLimit()).upper(variable.getUpperLimit()).integer(variable.isInteger());
+        }
+
+        for (Expression constraint : myStructure.getMasterConstraints()) {
+            Expression copy = master.addExpression(constraint.getName()).lower(constraint.getLowerLimit()).upper(constraint.getUpperLimit());
+            for (IntIndex key : constraint.getLinearKeySet()) {
+                copy.set(masterIndex[key.index], constraint.get(key));
+            }
+        }
+
+        // The blocks
+
+        int nbBlocks = myStructure.countBlocks();
+        List<Block> blocks = new ArrayList<>(nbBlocks);
+
+        for (int b = 0; b < nbBlocks; b++) {
+            List<Variable> variables = myStructure.getBlockVariables(b);
+            double[] blockCost = new double[variables.size()];
+            for (int j = 0; j < blockCost.length; j++) {
+                int index = variables.get(j).getIndex().index;
+                localIndex[index] = j;
+                blockCost[j] = cost[index];
+            }
+            blocks.add(new Block(variables, myStructure.getBlockConstraints(b), blockCost, localIndex, masterIndex));
+        }
+
+        // Initially just find a feasible master solution, then add the objective function. The master problem
+        // is always solved as a copy – the presolver modifies the model it works on.
+
+        Optimisation.Result masterResult = nbLinking > 0 ? master.copy().minimise() : new Optimisation.Result(Optimisation.State.OPTIMAL, ArrayR064.make(0));
+        if (!masterResult.getState().isFeasible()) {
+            return this.solveMonolithic(sense);
+        }
+        for (int k = 0; k < nbLinking; k++) {
+            master.getVariable(k).weight(cost[linking.get(k).getIndex().index]);
+        }
+
+        Variable[] theta = new Variable[nbBlocks];
+
+        double upper = Double.POSITIVE_INFINITY;
+        double lower = Double.NEGATIVE_INFINITY;
+        double[] incumbent = null;
+
+        long started = System.currentTimeMillis();
+        boolean converged = false;
+
+        while (!converged && myIterations < myIterationsLimit && System.currentTimeMillis() - started < myModel.options.time_abort) {
+
+            myIterations++;
+
+            double[] current = new double[nbLinking];
+            for (int k = 0; k < nbLinking; k++) {
+                current[k] = masterResult.doubleValue(k);
+            }
+
+            ProcessingService.INSTANCE.process(blocks, myParallelism, block -> block.evaluate(current));
+
+            boolean feasible = true;
+            double total = 0.0;
+            for (int k = 0; k < nbLinking; k++) {
+                total += cost[linking.get(k).getIndex().index] * current[k];
+            }
+
+            int nbCuts = 0;
+
+            for (int b = 0; b < nbBlocks; b++) {
+
+                Block block = blocks.get(b);
+
+                if (!block.state.isFeasible()) {
+                    // The dual is infeasible, or something else unexpected
+                    return this.solveMonolithic(sense);
+                }
+
+                if (!block.feasible) {
+                    feasible = false;
+                    if (block.value <= 0.0 || myTolerance.isZero(block.value)) {
+                        continue;
+                    }
+                    Expression cut = master.addExpression("FEASIBILITY_" + b + "_" + myIterations).lower(block.constant);
+                    for (int k = 0; k < nbLinking; k++) {
+                        if (block.cut[k] != 0.0) {
+                            cut.set(k, block.cut[k]);
+                        }
+                    }
+                    nbCuts++;
+                    continue;
+                }
+
+                total += block.value;
+
+                double estimate = theta[b] != null ? masterResult.doubleValue(theta[b].getIndex().index) : Double.NEGATIVE_INFINITY;
+
+                if (block.value > estimate && (theta[b] == null || myTolerance.isDifferent(block.value, estimate))) {
+
+                    if (theta[b] == null) {
+                        theta[b] = master.addVariable("THETA_" + b).weight(1.0);
+                    }
+
+                    Expression cut = master.addExpression("OPTIMALITY_" + b + "_" + myIterations).lower(block.constant);
+                    cut.set(theta[b], 1.0);
+                    for (int k = 0; k < nbLinking; k++) {
+                        if (block.cut[k] != 0.0) {
+                            cut.set(k, block.cut[k]);
+                        }
+                    }
+                    nbCuts++;
+                }
+            }
+
+            if (feasible && total < upper) {
+                upper = total;
+                incumbent = current;
+            }
+
+            if (nbCuts == 0) {
+                converged = feasible;
+                if (!feasible) {
+                    // Infeasible, but no useful cut
+                    return this.solveMonolithic(sense);
+                }
+                break;
+            }
+
+            masterResult = master.copy().minimise();
+
+            if (masterResult.getState() == Optimisation.State.INFEASIBLE) {
+                return new Optimisation.Result(Optimisation.State.INFEASIBLE, myModel.getVariableValues());
+            } else if (!masterResult.getState().isOptimal()) {
+                return this.solveMonolithic(sense);
+            }
+
+            boolean estimated = true;
+            for (int b = 0; b < nbBlocks; b++) {
+                estimated &= theta[b] != null;
+            }
+            if (estimated) {
+                lower = Math.max(lower, masterResult.getValue());
+                converged = feasible && !myTolerance.isDifferent(upper, lower) || upper <= lower;
+            }
+        }
+
+        if (incumbent == null) {
+            return this.solveMonolithic(sense);
+        }
+
+        // Solve the block subproblems with the best linking variable values found
+
+        double[] best = incumbent;
+        ArrayR064 solution = ArrayR064.make(nbVariables);
+        for (int k = 0; k < nbLinking; k++) {
+            solution.set(linking.get(k).getIndex().index, best[k]);
+        }
+
+        List<Optimisation.Result> results = new ArrayList<>(nbBlocks);
+        for (int b = 0; b < nbBlocks; b++) {
+            results.add(null);
+        }
+        ProcessingService.INSTANCE.process(IntStream.range(0, nbBlocks).boxed().collect(Collectors.toList()), myParallelism,
+                b -> results.set(b, blocks.get(b).solve(best)));
+
+        for (int b = 0; b < nbBlocks; b++) {
+            Optimisation.Result result = results.get(b);
+            if (!result.getState().isFeasible()) {
+                return this.solveMonolithic(sense);
+            }
+            List<Variable> variables = blocks.get(b).variables;
+            for (int j = 0; j < variables.size(); j++) {
+                solution.set(variables.get(j).getIndex().index, result.doubleValue(j));
+            }
+        }
+
+        myModel.setOptimisationSense(sense);
+
+        return myModel.setVariableValues(new Optimisation.Result(converged ? Optimisation.State.OPTIMAL : Optimisation.State.FEASIBLE, solution));
+    }
+
+    private Optimisation.Result solveMonolithic(final Optimisation.Sense sense) {
+        return sense == Optimisation.Sense.MAX ? myModel.maximise() : myModel.minimise();
+    }
+
+}
@@ -0,0 +1,366 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.ojalgo.structure.Structure1D.IntIndex;
+import org.ojalgo.structure.Structure2D.IntRowColumn;
+
+/**
+ * Describes the (bordered) block diagonal structure of a model: a set of linking (complicating) variables
+ * and a number of blocks – groups of constraints and variables that are independent of each other apart
+ * from through the linking variables. Constraints that only involve linking variables belong to the master
+ * problem, as do variables that are not part of any constraint.
+ * <p>
+ * The structure can be detected automatically from the constraint/variable incidence. That is done
+ * greedily – the variables are ordered by the number of constraints they are part of, and the most
+ * connected ones are made linking variables until the constraints split in to (reasonably balanced)
+ * independent blocks. Finally, any linking variable that only connects to one block is moved back in to
+ * that block.
+ *
+ * @author apete
+ */
+public final class BlockStructure {
+
+    /**
+     * Union-find (disjoint set) over constraint indices
+     */
+    static final class Components {
+
+        private final int[] myParent;
+
+        Components(final int size) {
+            super();
+            myParent = new int[size];
+            for (int i = 0; i < size; i++) {
+                myParent[i] = i;
+            }
+        }
+
+        int find(final int index) {
+            int root = index;
+            while (myParent[root] != root) {
+                root = myParent[root];
+            }
+            for (int i = index; myParent[i] != root;) {
+                int next = myParent[i];
+                myParent[i] = root;
+                i = next;
+            }
+            return root;
+        }
+
+        void union(final int index1, final int index2) {
+            int root1 = this.find(index1);
+            int root2 = this.find(index2);
+            if (root1 != root2) {
+                myParent[Math.max(root1, root2)] = Math.min(root1, root2);
+            }
+        }
+
+    }
+
+    /**
+     * The max share of the constraints in any one block for a detected structure to be considered useful
+     */
+    private static final double BALANCE = 0.5;
+
+    /**
+     * The max share of the variables that may be made linking variables while detecting the structure
+     */
+    private static final double MAX_LINKING = 0.25;
+
+    /**
+     * Detect the block structure of the model.
+     */
+    public static BlockStructure of(final ExpressionsBasedModel model) {
+        return BlockStructure.detect(model, variable -> false);
+    }
+
+    /**
+     * The block structure given by the specified linking variables.
+     */
+    public static BlockStructure of(final ExpressionsBasedModel model, final Collection<Variable> linking) {
+
+        List<Expression> constraints = model.constraints().collect(Collectors.toList());
+        int[][] incidence = BlockStructure.incidence(model, constraints);
+
+        boolean[] linked = new boolean[model.countVariables()];
+        for (Variable variable : linking) {
+            linked[model.indexOf(variable)] = true;
+        }
+
+        return new BlockStructure(model, constraints, incidence, linked);
+    }
+
+    /**
+     * @param forced Variables that must be linking variables
+     */
+    static BlockStructure detect(final ExpressionsBasedModel model, final Predicate<Variable> forced) {
+
+        List<Expression> constraints = model.constraints().collect(Collectors.toList());
+        int[][] incidence = BlockStructure.incidence(model, constraints);
+
+        int nbVariables = model.countVariables();
+        int nbConstraints = constraints.size();
+
+        boolean[] linked = new boolean[nbVariables];
+        boolean[] fixed = new boolean[nbVariables];
+        for (int j = 0; j < nbVariables; j++) {
+            linked[j] = fixed[j] = forced.test(model.getVariable(j));
+        }
+
+        Integer[] order = new Integer[nbVariables];
+        for (int j = 0; j < nbVariables; j++) {
+            order[j] = Integer.valueOf(j);
+        }
+        Arrays.sort(order, (j1, j2) -> Integer.compare(incidence[j2].length, incidence[j1].length));
+
+        int limit = Math.max(1, (int) (MAX_LINKING * nbVariables));
+        int count = 0;
+
+        BlockStructure retVal = new BlockStructure(model, constraints, incidence, linked.clone());
+
+        for (int k = 0; !retVal.isBalanced(nbConstraints) && k < nbVariables && count < limit;) {
+
+            // All variables with the same degree are made linking variables at the same time
+            int degree = incidence[order[k]].length;
+            for (; k < nbVariables && incidence[order[k]].length == degree; k++) {
+                if (!linked[order[k]]) {
+                    linked[order[k]] = true;
+                    count++;
+                }
+            }
+
+            retVal = new BlockStructure(model, constraints, incidence, linked.clone());
+        }
+
+        if (!retVal.isBalanced(nbConstraints)) {
+            return new BlockStructure(model, constraints, incidence, fixed);
+        }
+
+        // Linking variables that only connect to one block are moved in to that block
+        for (int j = 0; j < nbVariables; j++) {
+            if (linked[j] && !fixed[j]) {
+                int block = -1;
+                boolean single = true;
+                for (int i : incidence[j]) {
+                    int other = retVal.myConstraintBlock[i];
+                    if (other >= 0) {
+                        if (block < 0) {
+                            block = other;
+                        } else if (block != other) {
+                            single = false;
+                        }
+                    }
+                }
+                if (single && block >= 0) {
+                    linked[j] = false;
+                }
+            }
+        }
+
+        return new BlockStructure(model, constraints, incidence, linked);
+    }
+
+    /**
+     * For each variable, the indices of the constraints it is part of
+     */
+    private static int[][] incidence(final ExpressionsBasedModel model, final List<Expression> constraints) {
+
+        int nbVariables = model.countVariables();
+
+        List<List<Integer>> lists = new ArrayList<>(nbVariables);
+        for (int j = 0; j < nbVariables; j++) {
+            lists.add(new ArrayList<>());
+        }
+
+        for (int i = 0; i < constraints.size(); i++) {
+            Expression constraint = constraints.get(i);
+            for (IntIndex key : constraint.getLinearKeySet()) {
+                lists.get(key.index).add(i);
+            }
+            for (IntRowColumn key : constraint.getQuadraticKeySet()) {
+                BlockStructure.addIfAbsent(lists.get(key.row), i);
+                BlockStructure.addIfAbsent(lists.get(key.column), i);
+            }
+        }
+
+        int[][] retVal = new int[nbVariables][];
+        for (int j = 0; j < nbVariables; j++) {
+            List<Integer> list = lists.get(j);
+            retVal[j] = new int[list.size()];
+            for (int k = 0; k < retVal[j].length; k++) {
+                retVal[j][k] = list.get(k);
+            }
+        }
+        return retVal;
+    }
+
+    private static void addIfAbsent(final List<Integer> list, final int index) {
+        if (list.isEmpty() || list.get(list.size() - 1).intValue() != index) {
+            list.add(index);
+        }
+    }
+
+    private final List<List<Expression>> myBlockConstraints;
+    private final List<List<Variable>> myBlockVariables;
+    private final int[] myConstraintBlock;
+    private final List<Variable> myLinkingVariables;
+    private final List<Expression> myMasterConstraints;
+    private final int[] myVariableBlock;
+
+    private BlockStructure(final ExpressionsBasedModel model, final List<Expression> constraints, final int[][] incidence, final boolean[] linked) {
+
+        super();
+
+        int nbVariables = model.countVariables();
+        int nbConstraints = constraints.size();
+
+        Components components = new Components(nbConstraints);
+
+        for (int j = 0; j < nbVariables; j++) {
+            if (!linked[j]) {
+                int[] rows = incidence[j];
+                for (int k = 1; k < rows.length; k++) {
+                    components.union(rows[0], rows[k]);
+                }
+            }
+        }
+
+        // Constraints with only linking variables belong to the master
+
+        boolean[] master = new boolean[nbConstraints];
+        Arrays.fill(master, true);
+        for (int j = 0; j < nbVariables; j++) {
+            if (!linked[j]) {
+                for (int i : incidence[j]) {
+                    master[i] = false;
+                }
+            }
+        }
+
+        myConstraintBlock = new int[nbConstraints];
+        myMasterConstraints = new ArrayList<>();
+        myBlockConstraints = new ArrayList<>();
+
+        int[] blockOfRoot = new int[nbConstraints];
+        Arrays.fill(blockOfRoot, -1);
+
+        for (int i = 0; i < nbConstraints; i++) {
+            if (master[i]) {
+                myConstraintBlock[i] = -1;
+                myMasterConstraints.add(constraints.get(i));
+            } else {
+                int root = components.find(i);
+                if (blockOfRoot[root] < 0) {
+                    blockOfRoot[root] = myBlockConstraints.size();
+                    myBlockConstraints.add(new ArrayList<>());
+                }
+                myConstraintBlock[i] = blockOfRoot[root];
+                myBlockConstraints.get(blockOfRoot[root]).add(constraints.get(i));
+            }
+        }
+
+        // Variables not part of any constraint are handled by the master
+
+        myVariableBlock = new int[nbVariables];
+        myLinkingVariables = new ArrayList<>();
+        myBlockVariables = new ArrayList<>(myBlockConstraints.size());
+        for (int b = 0; b < myBlockConstraints.size(); b++) {
+            myBlockVariables.add(new ArrayList<>());
+        }
+
+        for (int j = 0; j < nbVariables; j++) {
+            Variable variable = model.getVariable(j);
+            if (linked[j] || incidence[j].length == 0) {
+                myVariableBlock[j] = -1;
+                myLinkingVariables.add(variable);
+            } else {
+                myVariableBlock[j] = myConstraintBlock[incidence[j][0]];
+                myBlockVariables.get(myVariableBlock[j]).add(variable);
+            }
+        }
+    }
+
+    public int countBlocks() {
+        return myBlockConstraints.size();
+    }
+
+    public List<Expression> getBlockConstraints(final int block) {
+        return Collections.unmodifiableList(myBlockConstraints.get(block));
+    }
+
+    public List<Variable> getBlockVariables(final int block) {
+        return Collections.unmodifiableList(myBlockVariables.get(block));
+    }
+
+    /**
+     * The linking (complicating) variables, as well as any variables not part of any constraint
+     */
+    public List<Variable> getLinkingVariables() {
+        return Collections.unmodifiableList(myLinkingVariables);
+    }
+
+    /**
+     * Constraints that only involve linking variables
+     */
+    public List<Expression> getMasterConstraints() {
+        return Collections.unmodifiableList(myMasterConstraints);
+    }
+
+    /**
+     * @return The block of the variable, or -1 if it is a linking variable
+     */
+    public int indexOfBlock(final Variable variable) {
+        return myVariableBlock[variable.getIndex().index];
+    }
+
+    @Override
+    public String toString() {
+        return this.countBlocks() + " blocks with " + myLinkingVariables.size() + " linking variables and " + myMasterConstraints.size()
+                + " master constraints";
+    }
+
+    /**
+     * At least 2 blocks, and no block with more than half of the constraints
+     */
+    private boolean isBalanced(final int nbConstraints) {
+        if (myBlockConstraints.size() < 2) {
+            return false;
+        }
+        for (List<Expression> block : myBlockConstraints) {
+            if (block.size() > BALANCE * nbConstraints) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,344 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.ojalgo.structure.Access1D;
+import org.ojalgo.structure.Structure1D.IntIndex;
+import org.ojalgo.structure.Structure2D.IntRowColumn;
+
+/**
+ * A compiled {@link Expression} – the (unadjusted) linear and quadratic factors, the constant and the limits
+ * as primitive arrays. Evaluates in primitive double arithmetic, without any allocation, and can also
+ * calculate the partial derivatives and how much the value would change if a single variable is changed.
+ * Meant for local search heuristics and feasibility checks that evaluate the same expressions over and over
+ * again.
+ * <p>
+ * The points are indexed the same way as the model's variables. Instances are immutable, and thus thread
+ * safe, but they are snapshots – later changes to the expression are not reflected. Create them using
+ * {@link Expression#compile()}.
+ *
+ * @author apete
+ */
+public final class CompiledExpression {
+
+    private static final int[] NO_INDICES = new int[0];
+
+    private final double myConstant;
+    private final double[] myLinearFactors;
+    private final int[] myLinearIndices;
+    private final double myLowerLimit;
+    private final String myName;
+    private final int[] myQuadraticColumns;
+    private final double[] myQuadraticFactors;
+    /**
+     * For each of {@link #myQuadraticVariables} the quadratic terms it is part of – myQuadraticTerms[k] for
+     * k in [myQuadraticPointers[v],myQuadraticPointers[v+1]).
+     */
+    private final int[] myQuadraticPointers;
+    private final int[] myQuadraticRows;
+    private final int[] myQuadraticTerms;
+    /**
+     * The (sorted) indices of the variables that are part of any quadratic term
+     */
+    private final int[] myQuadraticVariables;
+    private final double myUpperLimit;
+
+    CompiledExpression(final Expression expression, final BigDecimal constant) {
+
+        super();
+
+        myName = expression.getName();
+        myConstant = constant.doubleValue();
+        myLowerLimit = SparseModel.toDouble(expression.getLowerLimit(), Double.NEGATIVE_INFINITY);
+        myUpperLimit = SparseModel.toDouble(expression.getUpperLimit(), Double.POSITIVE_INFINITY);
+
+        // Linear, sorted by variable index
+
+        List<Entry<IntIndex, BigDecimal>> linear = new ArrayList<>(expression.getLinearEntrySet());
+        linear.sort(Comparator.comparingInt(entry -> entry.getKey().index));
+
+        int nbLinear = 0;
+        int[] indices = new int[linear.size()];
+        double[] factors = new double[linear.size()];
+        for (Entry<IntIndex, BigDecimal> entry : linear) {
+            double factor = entry.getValue().doubleValue();
+            if (factor != 0.0) {
+                indices[nbLinear] = entry.getKey().index;
+                factors[nbLinear] = factor;
+                nbLinear++;
+            }
+        }
+        myLinearIndices = nbLinear == indices.length ? indices : Arrays.copyOf(indices, nbLinear);
+        myLinearFactors = nbLinear == factors.length ? factors : Arrays.copyOf(factors, nbLinear);
+
+        // Quadratic, with an index of the terms by variable
+
+        int nbQuadratic = expression.getQuadraticEntrySet().size();
+        myQuadraticRows = new int[nbQuadratic];
+        myQuadraticColumns = new int[nbQuadratic];
+        myQuadraticFactors = new double[nbQuadratic];
+
+        int q = 0;
+        for (Entry<IntRowColumn, BigDecimal> entry : expression.getQuadraticEntrySet()) {
+            myQuadraticRows[q] = entry.getKey().row;
+            myQuadraticColumns[q] = entry.getKey().column;
+            myQuadraticFactors[q] = entry.getValue().doubleValue();
+            q++;
+        }
+
+        if (nbQuadratic > 0) {
+
+            int[] variables = new int[2 * nbQuadratic];
+            System.arraycopy(myQuadraticRows, 0, variables, 0, nbQuadratic);
+            System.arraycopy(myQuadraticColumns, 0, variables, nbQuadratic, nbQuadratic);
+            Arrays.sort(variables);
+            int nbVariables = 0;
+            for (int k = 0; k < variables.length; k++) {
+                if (k == 0 || variables[k] != variables[k - 1]) {
+                    variables[nbVariables++] = variables[k];
+                }
+            }
+            myQuadraticVariables = Arrays.copyOf(variables, nbVariables);
+
+            myQuadraticPointers = new int[nbVariables + 1];
+            for (int t = 0; t < nbQuadratic; t++) {
+                int row = Arrays.binarySearch(myQuadraticVariables, myQuadraticRows[t]);
+                int col = Arrays.binarySearch(myQuadraticVariables, myQuadraticColumns[t]);
+                myQuadraticPointers[row + 1]++;
+                if (col != row) {
+                    myQuadraticPointers[col + 1]++;
+                }
+            }
+            for (int v = 0; v < nbVariables; v++) {
+                myQuadraticPointers[v + 1] += myQuadraticPointers[v];
+            }
+            myQuadraticTerms = new int[myQuadraticPointers[nbVariables]];
+            int[] next = Arrays.copyOf(myQuadraticPointers, nbVariables);
+            for (int t = 0; t < nbQuadratic; t++) {
+                int row = Arrays.binarySearch(myQuadraticVariables, myQuadraticRows[t]);
+                int col = Arrays.binarySearch(myQuadraticVariables, myQuadraticColumns[t]);
+                myQuadraticTerms[next[row]++] = t;
+                if (col != row) {
+                    myQuadraticTerms[next[col]++] = t;
+                }
+            }
+
+        } else {
+
+            myQuadraticVariables = NO_INDICES;
+            myQuadraticPointers = NO_INDICES;
+            myQuadraticTerms = NO_INDICES;
+        }
+    }
+
+    public int countLinearFactors() {
+        return myLinearIndices.length;
+    }
+
+    public int countQuadraticFactors() {
+        return myQuadraticFactors.length;
+    }
+
+    /**
+     * How much the value would change if the variable is changed to the new value (all other variables
+     * unchanged). Only the factors involving that variable are visited.
+     *
+     * @param point The current point
+     * @param variable The index of the variable to change
+     * @param newValue The new value of that variable
+     * @return evaluate(changed point) - evaluate(point)
+     */
+    public double delta(final double[] point, final int variable, final double newValue) {
+
+        double change = newValue - point[variable];
+
+        double retVal = this.getLinearFactor(variable) * change;
+
+        int v = myQuadraticVariables.length > 0 ? Arrays.binarySearch(myQuadraticVariables, variable) : -1;
+        if (v >= 0) {
+            for (int k = myQuadraticPointers[v], limit = myQuadraticPointers[v + 1]; k < limit; k++) {
+                int t = myQuadraticTerms[k];
+                int row = myQuadraticRows[t];
+                int col = myQuadraticColumns[t];
+                double factor = myQuadraticFactors[t];
+                if (row == col) {
+                    retVal += factor * change * (newValue + point[variable]);
+                } else if (row == variable) {
+                    retVal += factor * change * point[col];
+                } else {
+                    retVal += factor * change * point[row];
+                }
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * The partial derivative with respect to one variable. Only the factors involving that variable are
+     * visited.
+     */
+    public double derivative(final double[] point, final int variable) {
+
+        double retVal = this.getLinearFactor(variable);
+
+        int v = myQuadraticVariables.length > 0 ? Arrays.binarySearch(myQuadraticVariables, variable) : -1;
+        if (v >= 0) {
+            for (int k = myQuadraticPointers[v], limit = myQuadraticPointers[v + 1]; k < limit; k++) {
+                int t = myQuadraticTerms[k];
+                int row = myQuadraticRows[t];
+                int col = myQuadraticColumns[t];
+                double factor = myQuadraticFactors[t];
+                if (row == variable) {
+                    retVal += factor * point[col];
+                }
+                if (col == variable) {
+                    retVal += factor * point[row];
+                }
+            }
+        }
+
+        return retVal;
+    }
+
+    public double evaluate(final Access1D<?> point) {
+
+        double retVal = myConstant;
+
+        for (int k = 0, limit = myLinearIndices.length; k < limit; k++) {
+            retVal += myLinearFactors[k] * point.doubleValue(myLinearIndices[k]);
+        }
+        for (int t = 0, limit = myQuadraticFactors.length; t < limit; t++) {
+            retVal += myQuadraticFactors[t] * point.doubleValue(myQuadraticRows[t]) * point.doubleValue(myQuadraticColumns[t]);
+        }
+
+        return retVal;
+    }
+
+    public double evaluate(final double[] point) {
+
+        double retVal = myConstant;
+
+        for (int k = 0, limit = myLinearIndices.length; k < limit; k++) {
+            retVal += myLinearFactors[k] * point[myLinearIndices[k]];
+        }
+        for (int t = 0, limit = myQuadraticFactors.length; t < limit; t++) {
+            retVal += myQuadraticFactors[t] * point[myQuadraticRows[t]] * point[myQuadraticColumns[t]];
+        }
+
+        return retVal;
+    }
+
+    /**
+     * Adds the gradient, scaled by the factor, to the array. Only the elements corresponding to variables
+     * that are part of this expression are touched. Several (constraint) expressions can thus be accumulated
+     * in the same array, e.g. when calculating the gradient of a penalty function.
+     */
+    public void gradient(final double[] point, final double scale, final double[] gradient) {
+
+        for (int k = 0, limit = myLinearIndices.length; k < limit; k++) {
+            gradient[myLinearIndices[k]] += scale * myLinearFactors[k];
+        }
+        for (int t = 0, limit = myQuadraticFactors.length; t < limit; t++) {
+            int row = myQuadraticRows[t];
+            int col = myQuadraticColumns[t];
+            double factor = scale * myQuadraticFactors[t];
+            gradient[row] += factor * point[col];
+            gradient[col] += factor * point[row];
+        }
+    }
+
+    public double getConstant() {
+        return myConstant;
+    }
+
+    /**
+     * @return The linear factor of the variable, 0.0 if there is none
+     */
+    public double getLinearFactor(final int variable) {
+        int k = Arrays.binarySearch(myLinearIndices, variable);
+        return k >= 0 ? myLinearFactors[k] : 0.0;
+    }
+
+    /**
+     * @return The index of the k:th linear factor's variable, in increasing order
+     */
+    public int getLinearIndex(final int k) {
+        return myLinearIndices[k];
+    }
+
+    /**
+     * @return The value of the k:th linear factor
+     */
+    public double getLinearValue(final int k) {
+        return myLinearFactors[k];
+    }
+
+    /**
+     * @return The lower limit, or {@link Double#NEGATIVE_INFINITY} if there is none
+     */
+    public double getLowerLimit() {
+        return myLowerLimit;
+    }
+
+    public String getName() {
+        return myName;
+    }
+
+    /**
+     * @return The upper limit, or {@link Double#POSITIVE_INFINITY} if there is none
+     */
+    public double getUpperLimit() {
+        return myUpperLimit;
+    }
+
+    public boolean isFeasible(final double value, final double tolerance) {
+        return value >= myLowerLimit - tolerance && value <= myUpperLimit + tolerance;
+    }
+
+    @Override
+    public String toString() {
+        return myName + ": " + myLowerLimit + " <= " + myLinearIndices.length + " linear and " + myQuadraticFactors.length + " quadratic factors <= "
+                + myUpperLimit;
+    }
+
+    /**
+     * @return How much the value violates the limits – 0.0 if within the limits
+     */
+    public double violation(final double value) {
+        if (value < myLowerLimit) {
+            return myLowerLimit - value;
+        } else if (value > myUpperLimit) {
+            return value - myUpperLimit;
+        } else {
+            return 0.0;
+        }
+    }
+
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation;
+
+import java.math.BigDecimal;
+
+import org.ojalgo.function.constant.BigMath;
+import org.ojalgo.optimisation.Optimisation.ConstraintType;
+import org.ojalgo.structure.Structure1D.IntIndex;
+
+/**
+ * A compiled {@link ExpressionsBasedModel} – a handle that keeps the solver instance, and with it any internal
+ * state (basis, factorisations...), between solves.
+ * <p>
+ * Variable bounds, constraint limits and objective function weights should be changed via this class rather
+ * than directly on the model entities. When the underlying solver supports it the changes are applied
+ * in-place, and the next solve continues from where the previous one ended. With the linear (simplex) solver
+ * changed constraint limits are handled with dual simplex iterations, and changed objective function weights
+ * with continued primal iterations. Any other change (or a solver that does not support in-place updates)
+ * results in the solver being re-generated, and then warm-started with the previous solution.
+ * <p>
+ * The presolver is not used – that would make it impossible to map changes to the solver. Don't change the
+ * structure of the model (add variables or expressions, change constraint factors...) while using a compiled
+ * model without calling {@link #reset()}. The solution is not written back to the model.
+ *
+ * @author apete
+ */
+public final class CompiledModel implements Optimisation.Solver {
+
+    private transient ExpressionsBasedModel.Integration<?> myIntegration = null;
+    private final ExpressionsBasedModel myModel;
+    private transient Optimisation.Result myResult = null;
+    private transient Optimisation.Solver mySolver = null;
+
+    CompiledModel(final ExpressionsBasedModel model) {
+        super();
+        myModel = model;
+    }
+
+    @Override
+    public void dispose() {
+
+        this.reset();
+
+        Solver.super.dispose();
+    }
+
+    /**
+     * Set the level of an equality constraint expression.
+     */
+    public CompiledModel level(final ModelEntity<?> entity, final Comparable<?> level) {
+        BigDecimal limit = ModelEntity.toBigDecimal(level);
+        this.update(entity, ConstraintType.EQUALITY, limit);
+        entity.level(limit);
+        return this;
+    }
+
+    public CompiledModel level(final ModelEntity<?> entity, final double level) {
+        return this.level(entity, BigDecimal.valueOf(level));
+    }
+
+    /**
+     * Set the lower limit of an expression or variable.
+     */
+    public CompiledModel lower(final ModelEntity<?> entity, final Comparable<?> lower) {
+        BigDecimal limit = ModelEntity.toBigDecimal(lower);
+        this.update(entity, ConstraintType.LOWER, limit);
+        entity.lower(limit);
+        return this;
+    }
+
+    public CompiledModel lower(final ModelEntity<?> entity, final double lower) {
+        return this.lower(entity, BigDecimal.valueOf(lower));
+    }
+
+    public Optimisation.Result maximise() {
+        return this.optimise(Optimisation.Sense.MAX);
+    }
+
+    public Optimisation.Result minimise() {
+        return this.optimise(Optimisation.Sense.MIN);
+    }
+
+    /**
+     * Force re-generation of the solver, and forget the previous solution.
+     */
+    public void reset() {
+        this.invalidate();
+        myResult = null;
+    }
+
+    public Optimisation.Result solve(final Optimisation.Result kickStarter) {
+
+        if (mySolver == null) {
+            myModel.categoriseVariables();
+        }
+
+        if (myModel.isFixed()) {
+
+            Optimisation.Result derivedSolution = myModel.getVariableValues();
+
+            if (derivedSolution.getState().isFeasible()) {
+                return new Optimisation.Result(State.DISTINCT, derivedSolution);
+            }
+            return new Optimisation.Result(State.INVALID, derivedSolution);
+        }
+
+        ExpressionsBasedModel.Integration<?> integration = this.getIntegration();
+        Optimisation.Solver solver = this.getSolver();
+
+        Optimisation.Result retVal = kickStarter != null ? kickStarter : myModel.getVariableValues();
+        retVal = integration.toSolverState(retVal, myModel);
+        SolverTelemetry telemetry = myModel.options.telemetry();
+        long started = telemetry != null ? System.nanoTime() : 0L;
+        retVal = solver.solve(retVal);
+        if (telemetry != null) {
+            IntermediateSolver.report(telemetry, solver, retVal.getState(), started);
+        }
+        retVal = integration.toModelState(retVal, myModel);
+
+        return retVal;
+    }
+
+    @Override
+    public String toString() {
+        return myModel.toString();
+    }
+
+    /**
+     * Set the upper limit of an expression or variable.
+     */
+    public CompiledModel upper(final ModelEntity<?> entity, final Comparable<?> upper) {
+        BigDecimal limit = ModelEntity.toBigDecimal(upper);
+        this.update(entity, ConstraintType.UPPER, limit);
+        entity.upper(limit);
+        return this;
+    }
+
+    public CompiledModel upper(final ModelEntity<?> entity, final double upper) {
+        return this.upper(entity, BigDecimal.valueOf(upper));
+    }
+
+    /**
+     * Set the objective function contribution weight of an expression or variable.
+     */
+    public CompiledModel weight(final ModelEntity<?> entity, final Comparable<?> weight) {
+
+        BigDecimal current = entity.isObjective() ? entity.getContributionWeight() : BigMath.ZERO;
+        BigDecimal change = weight != null ? ModelEntity.toBigDecimal(weight).subtract(current) : current.negate();
+
+        boolean inPlace = mySolver instanceof UpdatableSolver;
+
+        if (inPlace && change.signum() != 0) {
+
+            UpdatableSolver solver = (UpdatableSolver) mySolver;
+
+            if (entity instanceof Variable) {
+
+                inPlace = solver.updateObjective(((Variable) entity).getIndex().index, change.doubleValue());
+
+            } else if (entity instanceof Expression && !((Expression) entity).isAnyQuadraticFactorNonZero()) {
+
+                Expression expression = (Expression) entity;
+                for (IntIndex key : expression.getLinearKeySet()) {
+                    if (inPlace) {
+                        inPlace = solver.updateObjective(key.index, change.multiply(expression.get(key)).doubleValue());
+                    }
+                }
+
+            } else {
+
+                inPlace = false;
+            }
+        }
+
+        if (!inPlace) {
+            this.invalidate();
+        }
+
+        entity.weight(weight);
+
+        return this;
+    }
+
+    public CompiledModel weight(final ModelEntity<?> entity, final double weight) {
+        return this.weight(entity, BigDecimal.valueOf(weight));
+    }
+
+    private ExpressionsBasedModel.Integration<?> getIntegration() {
+        if (myIntegration == null) {
+            myIntegration = myModel.getIntegration();
+        }
+        return myIntegration;
+    }
+
+    Optimisation.Solver getSolver() {
+        if (mySolver == null) {
+            // Own copy of the options – the model's options may be shared. The entities must be the same
+            // instances, as updates are matched by identity.
+            Optimisation.Options options = myModel.options.copy();
+            options.linear().updatable(true);
+            ExpressionsBasedModel model = new ExpressionsBasedModel(myModel, options);
+            model.categoriseVariables();
+            mySolver = this.getIntegration().build(model);
+        }
+        return mySolver;
+    }
+
+    private void invalidate() {
+
+        if (mySolver != null) {
+            mySolver.dispose();
+            mySolver = null;
+        }
+
+        myIntegration = null;
+    }
+
+    private Optimisation.Result optimise(final Optimisation.Sense sense) {
+
+        if (myModel.getOptimisationSense() != sense) {
+            this.invalidate();
+            myModel.setOptimisationSense(sense);
+        }
+
+        // Only a still feasible previous solution is useful as a warm-start, and it's no longer known to be optimal
+        Optimisation.Result kickStarter = null;
+        if (myResult != null && mySolver == null && myModel.validate(myResult)) {
+            kickStarter = new Optimisation.Result(State.FEASIBLE, myResult);
+        }
+
+        Optimisation.Result solution = this.solve(kickStarter);
+
+        double value = myModel.objective().evaluate(solution).doubleValue();
+
+        myResult = new Optimisation.Result(solution.getState(), value, solution);
+
+        return myResult;
+    }
+
+    private void update(final ModelEntity<?> entity, final ConstraintType type, final BigDecimal limit) {
+        if (limit == null || !(mySolver instanceof UpdatableSolver) || !((UpdatableSolver) mySolver).updateRange(entity, type, limit.doubleValue())) {
+            this.invalidate();
+        }
+    }
+
+}
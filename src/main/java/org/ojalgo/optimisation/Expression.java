@@ -437,6 +437,14 @@ public final class Expression extends ModelEntity<Expression> {
 
     }
 
+    /**
+     * Creates a {@link CompiledExpression} – a snapshot of this expression's factors and limits, as
+     * primitive arrays, for fast repeated (and incremental) evaluation.
+     */
+    public CompiledExpression compile() {
+        return new CompiledExpression(this, this.getConstant());
+    }
+
     public double doubleValue(final IntIndex key, final boolean adjusted) {
         return this.getLinearFactor(key, adjusted).doubleValue();
     }
@@ -24,7 +24,6 @@ package org.ojalgo.optimisation;
 import static org.ojalgo.function.constant.BigMath.*;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -41,10 +40,13 @@ import org.ojalgo.array.Array1D;
 import org.ojalgo.array.ArrayR064;
 import org.ojalgo.function.constant.BigMath;
 import org.ojalgo.netio.BasicLogger;
+import org.ojalgo.netio.FromFileReader;
 import org.ojalgo.netio.InMemoryFile;
 import org.ojalgo.netio.ToFileWriter;
 import org.ojalgo.optimisation.Optimisation.Integration;
 import org.ojalgo.optimisation.convex.ConvexSolver;
+import org.ojalgo.optimisation.convex.InteriorPointSolver;
+import org.ojalgo.optimisation.convex.SparseQPESolver;
 import org.ojalgo.optimisation.integer.IntegerSolver;
 import org.ojalgo.optimisation.linear.LinearSolver;
 import org.ojalgo.structure.Access1D;
@@ -152,12 +154,13 @@ public final class ExpressionsBasedModel implements Optimisation.Model {
 
     public enum FileFormat {
 
-        EBM, MPS;
+        EBM, LP, MPS;
 
         /**
-         * Apart from the "native" EBM file format, currently only supports the MPS file format, but with some
-         * of the various extensions. In particular it is possible to parse QP models using QUADOBJ or QMATRIX
-         * file sections.
+         * Apart from the "native" EBM file format, supports the MPS file format, with some of the various
+         * extensions, and the CPLEX LP file format. In particular it is possible to parse QP models using
+         * QUADOBJ or QMATRIX file sections. Compressed files, with names ending with ".gz" or ".zip", are
+         * identified by the name without that suffix.
          */
         public static FileFormat from(final File file) {
             return FileFormat.from(file.getPath());
@@ -167,6 +170,12 @@ public final class ExpressionsBasedModel implements Optimisation.Model {
 
             String lowerCasePath = path.toLowerCase();
 
+            if (lowerCasePath.endsWith(".gz")) {
+                lowerCasePath = lowerCasePath.substring(0, lowerCasePath.length() - 3);
+            } else if (lowerCasePath.endsWith(".zip")) {
+                lowerCasePath = lowerCasePath.substring(0, lowerCasePath.length() - 4);
+            }
+
             if (lowerCasePath.endsWith("mps") || lowerCasePath.endsWith("sif")) {
                 return FileFormat.MPS;
             }
@@ -175,6 +184,10 @@ public final class ExpressionsBasedModel implements Optimisation.Model {
                 return FileFormat.EBM;
             }
 
+            if (lowerCasePath.endsWith(".lp")) {
+                return FileFormat.LP;
+            }
+
             throw new IllegalArgumentException();
         }
     }
@@ -559,15 +572,17 @@ public final class ExpressionsBasedModel implements Optimisation.Model {
     }
 
     /**
-     * Apart from the "native" EBM file format, currently only supports the MPS file format, but with some of
-     * the various extensions. In particular it is possible to parse QP models using QUADOBJ or QMATRIX file
-     * sections.
+     * Apart from the "native" EBM file format, supports the MPS file format, with some of the various
+     * extensions, and the CPLEX LP file format. In particular it is possible to parse QP models using QUADOBJ
+     * or QMATRIX file sections. Compressed (".gz" or ".zip") files are decompressed while reading.
+     * <p>
+     * To read very large MPS or LP files use {@link SparseModel#parse(File)} instead.
      */
     public static ExpressionsBasedModel parse(final File file) {
 
         FileFormat fileFormat = FileFormat.from(file);
 
-        try (FileInputStream input = new FileInputStream(file)) {
+        try (InputStream input = FromFileReader.input(file)) {
             return ExpressionsBasedModel.parse(input, fileFormat);
         } catch (IOException cause) {
             throw new RuntimeException(cause);
@@ -580,6 +595,8 @@ public final class ExpressionsBasedModel implements Optimisation.Model {
             return FileFormatMPS.read(input);
         case EBM:
             return FileFormatEBM.read(input);
+        case LP:
+            return SparseModel.parse(input, format).toModel();
         default:
             throw new IllegalArgumentException();
         }
@@ -656,11 +673,38 @@ public final class ExpressionsBasedModel implements Optimisation.Model {
         }
     }
 
+    /**
+     * Shares the variables and expressions, the same instances, with the other model. Only the options
+     * differ. Use this to build a solver with modified options, while the solver still refers to the
+     * original model entities.
+     */
+    ExpressionsBasedModel(final ExpressionsBasedModel modelToShare, final Optimisation.Options optimisationOptions) {
+
+        super();
+
+        options = optimisationOptions;
+
+        this.setOptimisationSense(modelToShare.getOptimisationSense());
+        this.addObjectiveConstant(modelToShare.getObjectiveConstant());
+
+        myVariables.addAll(modelToShare.getVariables());
+        myExpressions.putAll(modelToShare.myExpressions);
+
+        myReferences = modelToShare.getReferences();
+
+        myShallowCopy = true;
+        myRelaxed = modelToShare.isRelaxed();
+    }
+
     ExpressionsBasedModel(final ExpressionsBasedModel modelToCopy, final boolean shallow, final boolean prune) {
+        this(modelToCopy, shallow, prune, modelToCopy.options);
+    }
+
+    ExpressionsBasedModel(final ExpressionsBasedModel modelToCopy, final boolean shallow, final boolean prune, final Optimisation.Options optimisationOptions) {
 
         super();
 
-        options = modelToCopy.options;
+        options = optimisationOptions;
 
         this.setOptimisationSense(modelToCopy.getOptimisationSense());
         this.addObjectiveConstant(modelToCopy.getObjectiveConstant());
@@ -832,6 +876,15 @@ public final class ExpressionsBasedModel implements Optimisation.Model {
         return myExpressions.values().stream().filter(c -> c.isConstraint() && !c.isRedundant());
     }
 
+    /**
+     * Creates a {@link CompiledModel} – a handle that keeps the solver, and its internal state, between
+     * solves. Variable bounds, constraint limits and objective weights changed via that handle are, when
+     * possible, updated in-place and the model re-solved incrementally.
+     */
+    public CompiledModel compile() {
+        return new CompiledModel(this);
+    }
+
     public ExpressionsBasedModel copy() {
         return new ExpressionsBasedModel(this, false, false);
     }
@@ -856,6 +909,21 @@ public final class ExpressionsBasedModel implements Optimisation.Model {
         return myVariables.size();
     }
 
+    /**
+     * Creates a {@link BendersDecomposition} of this model using an automatically detected
+     * {@link BlockStructure} – integer variables are always linking variables.
+     */
+    public BendersDecomposition decompose() {
+        return new BendersDecomposition(this, BlockStructure.detect(this, Variable::isInteger));
+    }
+
+    /**
+     * Creates a {@link BendersDecomposition} of this model using the specified block structure.
+     */
+    public BendersDecomposition decompose(final BlockStructure structure) {
+        return new BendersDecomposition(this, structure);
+    }
+
     /**
      * Counts variables and expressions of different categories.
      */
@@ -1298,6 +1366,15 @@ public final class ExpressionsBasedModel implements Optimisation.Model {
         return factory.apply(this);
     }
 
+    /**
+     * Creates a {@link SolverRace} – solve this model with several differently configured solvers in
+     * parallel, and use the result of whichever is first to finish. Unless you add contenders yourself, a
+     * default set suitable for the type of model is used.
+     */
+    public SolverRace race() {
+        return new SolverRace(this);
+    }
+
     /**
      * Will try to indentify constraints with equal variables set, and check if those can be combined or not.
      * This is a relatively slow process with small chance to actually achieve somthing. Therefore it is not
@@ -1486,29 +1563,7 @@ public final class ExpressionsBasedModel implements Optimisation.Model {
     }
 
     private Optimisation.Result optimise() {
-
-        if (!myShallowCopy && PRESOLVERS.size() > 0) {
-            this.scanEntities();
-        }
-
-        DefaultIntermediate prepared = this.prepare(DefaultIntermediate::new);
-
-        Optimisation.Result result = prepared.solve(null);
-
-        for (int i = 0, limit = myVariables.size(); i < limit; i++) {
-            Variable tmpVariable = myVariables.get(i);
-            if (!tmpVariable.isFixed()) {
-                tmpVariable.setValue(options.solution.toBigDecimal(result.doubleValue(i)));
-            }
-        }
-
-        Result retSolution = this.getVariableValues();
-        double retValue = this.objective().evaluate(retSolution).doubleValue();
-        Optimisation.State retState = result.getState();
-
-        prepared.dispose();
-
-        return new Optimisation.Result(retState, retValue, retSolution);
+        return this.optimise(null);
     }
 
     private void scanEntities() {
@@ -1551,6 +1606,13 @@ public final class ExpressionsBasedModel implements Optimisation.Model {
         myReferences.add(index);
     }
 
+    /**
+     * Re-categorise the variables (fixed, positive, negative...) after their bounds have been changed.
+     */
+    void categoriseVariables() {
+        myVariablesCategorisation.update(myVariables);
+    }
+
     int deriveAdjustmentRange(final Expression expression) {
 
         int retVal = 0;
@@ -1587,6 +1649,11 @@ public final class ExpressionsBasedModel implements Optimisation.Model {
                 if (IntegerSolver.INTEGRATION.isCapable(this)) {
                     retVal = IntegerSolver.INTEGRATION;
                 }
+            } else if ((this.isAnyObjectiveQuadratic() ? options.convex().interiorPoint() : options.linear().interiorPoint())
+                    && InteriorPointSolver.INTEGRATION.isCapable(this)) {
+                retVal = InteriorPointSolver.INTEGRATION;
+            } else if (SparseQPESolver.INTEGRATION.isCapable(this)) {
+                retVal = SparseQPESolver.INTEGRATION;
             } else if (ConvexSolver.INTEGRATION.isCapable(this)) {
                 retVal = ConvexSolver.INTEGRATION;
             } else if (LinearSolver.INTEGRATION.isCapable(this)) {
@@ -1661,6 +1728,26 @@ public final class ExpressionsBasedModel implements Optimisation.Model {
         return myVariables.stream().anyMatch(Variable::isUnbounded);
     }
 
+    /**
+     * Solve (using the current optimisation sense) and write the solution to the variables.
+     *
+     * @param kickStarter Passed on to the solver, may be null
+     */
+    Optimisation.Result optimise(final Optimisation.Result kickStarter) {
+
+        if (!myShallowCopy && PRESOLVERS.size() > 0) {
+            this.scanEntities();
+        }
+
+        DefaultIntermediate prepared = this.prepare(DefaultIntermediate::new);
+
+        Optimisation.Result result = prepared.solve(kickStarter);
+
+        prepared.dispose();
+
+        return this.setVariableValues(result);
+    }
+
     void presolve() {
 
         //  myExpressions.values().forEach(expr -> expr.reset());
@@ -1734,4 +1821,24 @@ public final class ExpressionsBasedModel implements Optimisation.Model {
         myOptimisationSense = optimisationSense;
     }
 
+    /**
+     * Set the (not fixed) variables' values from the solution, and return the resulting model solution –
+     * with the objective function value evaluated and the input state.
+     */
+    Optimisation.Result setVariableValues(final Optimisation.Result solution) {
+
+        for (int i = 0, limit = myVariables.size(); i < limit; i++) {
+            Variable tmpVariable = myVariables.get(i);
+            if (!tmpVariable.isFixed()) {
+                tmpVariable.setValue(options.solution.toBigDecimal(solution.doubleValue(i)));
+            }
+        }
+
+        Result retSolution = this.getVariableValues();
+        double retValue = this.objective().evaluate(retSolution).doubleValue();
+        Optimisation.State retState = solution.getState();
+
+        return new Optimisation.Result(retState, retValue, retSolution);
+    }
+
 }
@@ -0,0 +1,500 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation;
+
+import java.util.Arrays;
+
+import org.ojalgo.netio.ASCIILineReader;
+import org.ojalgo.optimisation.FileFormatMPS.BoundType;
+import org.ojalgo.optimisation.FileFormatMPS.FileSection;
+import org.ojalgo.optimisation.FileFormatMPS.RowType;
+
+/**
+ * Streaming MPS parser that builds a {@link SparseModel} – no intermediate {@link Expression}:s or
+ * {@link Variable}:s, and no {@link java.math.BigDecimal}:s. The fields are whitespace separated (free MPS),
+ * which also works for fixed format files as long as the names do not contain spaces. The interpretation of the
+ * various sections, and bound types, is the same as with {@link FileFormatMPS}.
+ *
+ * @author apete
+ */
+final class FileFormatFreeMPS {
+
+    /**
+     * Start positions of the fields in fixed format
+     */
+    private static final int[] FIELD_START = new int[] { 1, 4, 14, 24, 39, 49 };
+    private static final int FREE = -3;
+    private static final String INTEND = "INTEND";
+    private static final String INTORG = "INTORG";
+    private static final String MARKER = "'MARKER'";
+    private static final String MAX = "MAX";
+    private static final int OBJECTIVE = -2;
+
+    static SparseModel.Builder read(final ASCIILineReader reader) {
+
+        FileFormatFreeMPS parser = new FileFormatFreeMPS(reader);
+
+        FileSection section = null;
+
+        while (reader.next() && section != FileSection.ENDATA) {
+
+            if (reader.countTokens() == 0 || reader.charAt(0) == '*' || reader.charAt(0) == '&') {
+                // Skip this line
+            } else if (reader.charAt(0) == ' ' || reader.charAt(0) == '\t') {
+                if (section != null) {
+                    parser.parseSectionLine(section);
+                }
+            } else {
+                section = parser.identifySection();
+            }
+        }
+
+        return parser.getBuilder();
+    }
+
+    private final SparseModel.Builder myBuilder = SparseModel.newBuilder();
+    private final ASCIILineReader.Symbols myColumns = new ASCIILineReader.Symbols();
+    private final int[] myEnds = new int[FIELD_START.length];
+    private boolean myFixed = false;
+    private String myIdBOUNDS = null;
+    private String myIdRANGES = null;
+    private String myIdRHS = null;
+    private boolean myIntegerMarker = false;
+    private boolean myObjectiveDefined = false;
+    private int myNbTokens = 0;
+    private final ASCIILineReader myReader;
+    private final ASCIILineReader.Symbols myRows = new ASCIILineReader.Symbols();
+    private RowType[] myRowTypes = new RowType[64];
+    private final int[] myStarts = new int[FIELD_START.length];
+
+    FileFormatFreeMPS(final ASCIILineReader reader) {
+        super();
+        myReader = reader;
+    }
+
+    private void bound(final BoundType type, final int column, final double value) {
+
+        double lower = myBuilder.getLowerBound(column);
+        double upper = myBuilder.getUpperBound(column);
+
+        switch (type) {
+
+        case LO:
+            myBuilder.lower(column, value);
+            break;
+
+        case UP:
+            myBuilder.upper(column, value);
+            if (lower == Double.NEGATIVE_INFINITY) {
+                myBuilder.lower(column, 0.0);
+            }
+            break;
+
+        case FX:
+            myBuilder.bounds(column, value, value);
+            break;
+
+        case FR:
+            myBuilder.bounds(column, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+            break;
+
+        case MI:
+            myBuilder.lower(column, Double.NEGATIVE_INFINITY);
+            if (upper == Double.POSITIVE_INFINITY) {
+                myBuilder.upper(column, 0.0);
+            }
+            break;
+
+        case PL:
+            myBuilder.upper(column, Double.POSITIVE_INFINITY);
+            if (lower == Double.NEGATIVE_INFINITY) {
+                myBuilder.lower(column, 0.0);
+            }
+            break;
+
+        case BV:
+            myBuilder.bounds(column, 0.0, 1.0).integer(column, true);
+            break;
+
+        case LI:
+            myBuilder.bounds(column, value, Double.POSITIVE_INFINITY).integer(column, true);
+            break;
+
+        case UI:
+            myBuilder.upper(column, value).integer(column, true);
+            if (lower == Double.NEGATIVE_INFINITY) {
+                myBuilder.lower(column, 0.0);
+            }
+            break;
+
+        case SC:
+            myBuilder.upper(column, value);
+            if (lower == Double.NEGATIVE_INFINITY) {
+                myBuilder.lower(column, 1.0);
+            }
+            break;
+
+        default:
+            break;
+        }
+    }
+
+    private int column(final int token) {
+
+        int retVal = myColumns.get(myReader, myStarts[token], myEnds[token]);
+
+        if (retVal < 0) {
+            throw new IllegalArgumentException("Unknown column " + this.toString(token) + " on line " + myReader.lineNumber());
+        }
+
+        return retVal;
+    }
+
+    private SparseModel.Builder getBuilder() {
+        return myBuilder;
+    }
+
+    private FileSection identifySection() {
+
+        for (FileSection section : FileSection.values()) {
+            if (myReader.matches(0, section.name())) {
+                if (section == FileSection.OBJSENSE && myReader.countTokens() > 1) {
+                    this.sense();
+                }
+                return section;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Is the current line's first token a set name (RHS, RANGES or BOUNDS) that does not match the first one
+     * encountered.
+     */
+    private boolean isOtherSet(final String first, final int token) {
+        return first != null && !myReader.matches(myStarts[token], myEnds[token], first);
+    }
+
+    private void parseSectionLine(final FileSection section) {
+
+        this.tokenize();
+
+        int nbTokens = myNbTokens;
+
+        switch (section) {
+
+        case OBJSENSE:
+
+            this.sense();
+
+            break;
+
+        case ROWS:
+
+            if (!myFixed && nbTokens > 2) {
+                // Names with spaces – must be fixed format
+                myFixed = true;
+                this.tokenize();
+            }
+
+            this.row(RowType.valueOf(this.toString(0)), this.toString(1));
+
+            break;
+
+        case COLUMNS:
+
+            if (myReader.contains(MARKER)) {
+
+                if (myReader.contains(INTORG)) {
+                    myIntegerMarker = true;
+                } else if (myReader.contains(INTEND)) {
+                    myIntegerMarker = false;
+                }
+
+            } else {
+
+                int column = myColumns.get(myReader, myStarts[0], myEnds[0]);
+                if (column < 0) {
+                    String name = this.toString(0);
+                    column = myBuilder.addVariable(name);
+                    myBuilder.bounds(column, 0.0, Double.POSITIVE_INFINITY);
+                    myColumns.put(name, column);
+                }
+
+                if (myIntegerMarker) {
+                    myBuilder.integer(column, true);
+                }
+
+                for (int t = 1; t + 1 < nbTokens; t += 2) {
+                    int row = this.row(t);
+                    double value = this.toDouble(t + 1);
+                    if (row == OBJECTIVE) {
+                        myBuilder.objective(column, value);
+                    } else if (row >= 0) {
+                        myBuilder.add(row, column, value);
+                    }
+                }
+            }
+
+            break;
+
+        case RHS:
+
+            if ((nbTokens & 1) == 1) {
+                if (myIdRHS == null) {
+                    myIdRHS = this.toString(0);
+                } else if (this.isOtherSet(myIdRHS, 0)) {
+                    break;
+                }
+            }
+
+            for (int t = nbTokens & 1; t + 1 < nbTokens; t += 2) {
+                this.rhs(this.row(t), this.toDouble(t + 1));
+            }
+
+            break;
+
+        case RANGES:
+
+            if ((nbTokens & 1) == 1) {
+                if (myIdRANGES == null) {
+                    myIdRANGES = this.toString(0);
+                } else if (this.isOtherSet(myIdRANGES, 0)) {
+                    break;
+                }
+            }
+
+            for (int t = nbTokens & 1; t + 1 < nbTokens; t += 2) {
+                this.range(this.row(t), this.toDouble(t + 1));
+            }
+
+            break;
+
+        case BOUNDS:
+
+            BoundType type = BoundType.valueOf(this.toString(0));
+
+            // The set name is optional – if the third token is a column then the second is the set name
+
+            int token = 1;
+            if (nbTokens >= 3 && myColumns.get(myReader, myStarts[2], myEnds[2]) >= 0) {
+                if (myIdBOUNDS == null) {
+                    myIdBOUNDS = this.toString(1);
+                } else if (this.isOtherSet(myIdBOUNDS, 1)) {
+                    break;
+                }
+                token = 2;
+            }
+
+            double value = token + 1 < nbTokens ? this.toDouble(token + 1) : Double.POSITIVE_INFINITY;
+
+            this.bound(type, this.column(token), value);
+
+            break;
+
+        case QUADOBJ:
+
+            int first = this.column(0);
+            int second = this.column(1);
+            double factor = this.toDouble(2) / 2.0;
+
+            myBuilder.addObjective(first, second, factor);
+            if (first != second) {
+                myBuilder.addObjective(second, first, factor);
+            }
+
+            break;
+
+        case QMATRIX:
+
+            myBuilder.addObjective(this.column(0), this.column(1), this.toDouble(2) / 2.0);
+
+            break;
+
+        default:
+
+            break;
+        }
+    }
+
+    private void range(final int row, final double value) {
+
+        if (row < 0) {
+            return;
+        }
+
+        double lower = myBuilder.getLowerLimit(row);
+        double upper = myBuilder.getUpperLimit(row);
+
+        switch (myRowTypes[row]) {
+
+        case E:
+            if (value > 0.0) {
+                myBuilder.upperLimit(row, lower + value);
+            } else if (value < 0.0) {
+                myBuilder.lowerLimit(row, upper + value);
+            }
+            break;
+
+        case L:
+            myBuilder.lowerLimit(row, upper - Math.abs(value));
+            break;
+
+        case G:
+            myBuilder.upperLimit(row, lower + Math.abs(value));
+            break;
+
+        default:
+            break;
+        }
+    }
+
+    private void rhs(final int row, final double value) {
+
+        if (row == OBJECTIVE) {
+            myBuilder.objectiveConstant(-value);
+            return;
+        }
+
+        if (row < 0) {
+            return;
+        }
+
+        switch (myRowTypes[row]) {
+
+        case E:
+            myBuilder.limits(row, value, value);
+            break;
+
+        case L:
+            myBuilder.upperLimit(row, value);
+            break;
+
+        case G:
+            myBuilder.lowerLimit(row, value);
+            break;
+
+        default:
+            break;
+        }
+    }
+
+    private int row(final int token) {
+
+        int retVal = myRows.get(myReader, myStarts[token], myEnds[token]);
+
+        if (retVal == -1) {
+            throw new IllegalArgumentException("Unknown row " + this.toString(token) + " on line " + myReader.lineNumber());
+        }
+
+        return retVal;
+    }
+
+    private void row(final RowType type, final String name) {
+
+        if (type == RowType.N) {
+            // The first N row is the objective function, any others are free rows that are ignored
+            myRows.put(name, myObjectiveDefined ? FREE : OBJECTIVE);
+            myObjectiveDefined = true;
+            return;
+        }
+
+        int row = myBuilder.addConstraint(name);
+
+        if (row == myRowTypes.length) {
+            myRowTypes = Arrays.copyOf(myRowTypes, 2 * row);
+        }
+        myRowTypes[row] = type;
+
+        switch (type) {
+        case E:
+            myBuilder.limits(row, 0.0, 0.0);
+            break;
+        case L:
+            myBuilder.upperLimit(row, 0.0);
+            break;
+        case G:
+            myBuilder.lowerLimit(row, 0.0);
+            break;
+        default:
+            break;
+        }
+
+        myRows.put(name, row);
+    }
+
+    private void sense() {
+        myBuilder.sense(myReader.contains(MAX) ? Optimisation.Sense.MAX : Optimisation.Sense.MIN);
+    }
+
+    private double toDouble(final int token) {
+        return myReader.toDouble(myStarts[token], myEnds[token]);
+    }
+
+    private String toString(final int token) {
+        return myReader.toString(myStarts[token], myEnds[token]);
+    }
+
+    /**
+     * Identify the fields of the current line. With free format these are the whitespace separated tokens,
+     * and with fixed format the (trimmed) non-empty fields at their fixed positions. In both cases an empty
+     * field is simply not there.
+     */
+    private void tokenize() {
+
+        myNbTokens = 0;
+
+        if (myFixed) {
+
+            int length = myReader.length();
+
+            for (int f = 0; f < FIELD_START.length && FIELD_START[f] < length; f++) {
+
+                int start = FIELD_START[f];
+                int end = f + 1 < FIELD_START.length ? Math.min(FIELD_START[f + 1] - 1, length) : length;
+
+                while (start < end && myReader.charAt(start) == ' ') {
+                    start++;
+                }
+                while (end > start && myReader.charAt(end - 1) == ' ') {
+                    end--;
+                }
+
+                if (end > start) {
+                    myStarts[myNbTokens] = start;
+                    myEnds[myNbTokens] = end;
+                    myNbTokens++;
+                }
+            }
+
+        } else {
+
+            for (int t = 0, limit = Math.min(myReader.countTokens(), myStarts.length); t < limit; t++) {
+                myStarts[t] = myReader.start(t);
+                myEnds[t] = myReader.end(t);
+                myNbTokens++;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,641 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation;
+
+import java.util.Arrays;
+
+import org.ojalgo.netio.ASCII;
+import org.ojalgo.netio.ASCIILineReader;
+
+/**
+ * Streaming CPLEX LP file format parser that builds a {@link SparseModel}. Supports the objective function
+ * (linear, and quadratic within square brackets), linear and ranged constraints, bounds, and general and binary
+ * integer variables. Semi-continuous and SOS sections are skipped. As with the MPS format variables
+ * are by default non-negative.
+ *
+ * @author apete
+ */
+final class FileFormatLP {
+
+    enum Section {
+        BINARY, BOUNDS, CONSTRAINTS, END, GENERAL, OBJECTIVE, SKIP;
+    }
+
+    private static final int COLON = 1;
+    private static final int EOF = 0;
+    private static final int EQ = 2;
+    private static final int GE = 3;
+    private static final int LBRACKET = 4;
+    private static final int LE = 5;
+    private static final int MINUS = 6;
+    private static final int NAME = 7;
+    private static final int NUMBER = 8;
+    private static final int OTHER = 9;
+    private static final int PLUS = 10;
+    private static final int RBRACKET = 11;
+
+    static SparseModel.Builder read(final ASCIILineReader reader) {
+
+        FileFormatLP parser = new FileFormatLP(reader);
+
+        parser.parse();
+
+        return parser.getBuilder();
+    }
+
+    private static boolean isNameCharacter(final char character) {
+        switch (character) {
+        case '+':
+        case '-':
+        case '*':
+        case '^':
+        case '[':
+        case ']':
+        case ':':
+        case '<':
+        case '>':
+        case '=':
+        case '\\':
+            return false;
+        default:
+            return !ASCII.isSpace(character);
+        }
+    }
+
+    private final SparseModel.Builder myBuilder = SparseModel.newBuilder();
+    private final ASCIILineReader.Symbols myColumns = new ASCIILineReader.Symbols();
+    private int myEnd = 0;
+    private boolean myFirst = false;
+    private int myKind = EOF;
+    private int myNbTerms = 0;
+    private int myPosition = 0;
+    private final ASCIILineReader myReader;
+    private int myStart = 0;
+    private int[] myTermColumns = new int[16];
+    private double[] myTermValues = new double[16];
+
+    FileFormatLP(final ASCIILineReader reader) {
+        super();
+        myReader = reader;
+    }
+
+    private void advance() {
+
+        myFirst = false;
+
+        for (;;) {
+
+            while (myPosition < myReader.length() && ASCII.isSpace(myReader.charAt(myPosition))) {
+                myPosition++;
+            }
+
+            if (myPosition < myReader.length() && myReader.charAt(myPosition) != '\\') {
+                break;
+            }
+
+            if (!myReader.next()) {
+                myKind = EOF;
+                return;
+            }
+
+            myPosition = 0;
+            myFirst = true;
+        }
+
+        int length = myReader.length();
+
+        myStart = myPosition;
+        char character = myReader.charAt(myPosition++);
+
+        switch (character) {
+
+        case '+':
+            myKind = PLUS;
+            break;
+
+        case '-':
+            myKind = MINUS;
+            break;
+
+        case ':':
+            myKind = COLON;
+            break;
+
+        case '[':
+            myKind = LBRACKET;
+            break;
+
+        case ']':
+            myKind = RBRACKET;
+            break;
+
+        case '<':
+        case '>':
+        case '=':
+            if (myPosition < length && (myReader.charAt(myPosition) == '=' || myReader.charAt(myPosition) == '<' || myReader.charAt(myPosition) == '>')) {
+                myPosition++;
+            }
+            char other = myPosition - myStart == 2 ? myReader.charAt(myStart + 1) : character;
+            if (character == '<' || other == '<') {
+                myKind = LE;
+            } else if (character == '>' || other == '>') {
+                myKind = GE;
+            } else {
+                myKind = EQ;
+            }
+            break;
+
+        case '*':
+        case '^':
+        case '/':
+            myKind = OTHER;
+            break;
+
+        default:
+
+            if (ASCII.isDigit(character) || character == '.') {
+
+                while (myPosition < length && (ASCII.isDigit(myReader.charAt(myPosition)) || myReader.charAt(myPosition) == '.')) {
+                    myPosition++;
+                }
+
+                if (myPosition < length && (myReader.charAt(myPosition) == 'e' || myReader.charAt(myPosition) == 'E')) {
+                    int exponent = myPosition + 1;
+                    if (exponent < length && (myReader.charAt(exponent) == '+' || myReader.charAt(exponent) == '-')) {
+                        exponent++;
+                    }
+                    if (exponent < length && ASCII.isDigit(myReader.charAt(exponent))) {
+                        myPosition = exponent;
+                        while (myPosition < length && ASCII.isDigit(myReader.charAt(myPosition))) {
+                            myPosition++;
+                        }
+                    }
+                }
+
+                myKind = NUMBER;
+
+            } else {
+
+                while (myPosition < length && FileFormatLP.isNameCharacter(myReader.charAt(myPosition))) {
+                    myPosition++;
+                }
+
+                myKind = NAME;
+            }
+
+            break;
+        }
+
+        myEnd = myPosition;
+    }
+
+    private void bounds() {
+
+        if (myKind == NAME && !this.isInfinity()) {
+
+            int column = this.column();
+            this.advance();
+
+            if (myKind == NAME && myReader.matchesIgnoreCase(myStart, myEnd, "free")) {
+                myBuilder.bounds(column, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+                this.advance();
+                return;
+            }
+
+            int operator = this.operator();
+            this.bound(column, operator, this.value());
+
+        } else {
+
+            double value = this.value();
+            int operator = this.operator();
+            int column = this.column();
+            this.advance();
+
+            this.bound(column, operator == LE ? GE : operator == GE ? LE : EQ, value);
+
+            if (myKind == LE || myKind == GE || myKind == EQ) {
+                operator = this.operator();
+                this.bound(column, operator, this.value());
+            }
+        }
+    }
+
+    /**
+     * variable [operator] value
+     */
+    private void bound(final int column, final int operator, final double value) {
+        switch (operator) {
+        case LE:
+            myBuilder.upper(column, value);
+            break;
+        case GE:
+            myBuilder.lower(column, value);
+            break;
+        default:
+            myBuilder.bounds(column, value, value);
+            break;
+        }
+    }
+
+    /**
+     * The variable named by the current token – created if it does not already exist.
+     */
+    private int column() {
+
+        if (myKind != NAME) {
+            this.fail("Expected a variable name");
+        }
+
+        int retVal = myColumns.get(myReader, myStart, myEnd);
+
+        if (retVal < 0) {
+            String name = myReader.toString(myStart, myEnd);
+            retVal = myBuilder.addVariable(name);
+            myBuilder.bounds(retVal, 0.0, Double.POSITIVE_INFINITY);
+            myColumns.put(name, retVal);
+        }
+
+        return retVal;
+    }
+
+    private void constraint() {
+
+        String name = null;
+        if (myKind == NAME && this.isFollowedByColon()) {
+            name = myReader.toString(myStart, myEnd);
+            this.advance();
+            this.advance();
+        }
+
+        double constant = this.expression(false);
+        int operator = this.operator();
+
+        double lower = Double.NEGATIVE_INFINITY;
+        double upper = Double.POSITIVE_INFINITY;
+
+        if (myNbTerms == 0) {
+
+            // Ranged constraint: value operator expression operator value
+
+            if (operator == LE) {
+                lower = constant;
+            } else if (operator == GE) {
+                upper = constant;
+            } else {
+                lower = upper = constant;
+            }
+
+            constant = this.expression(false);
+            operator = this.operator();
+        }
+
+        double value = this.value() - constant;
+
+        if (operator == LE) {
+            upper = value;
+        } else if (operator == GE) {
+            lower = value;
+        } else {
+            lower = upper = value;
+        }
+
+        int row = myBuilder.addConstraint(name);
+        myBuilder.limits(row, lower, upper);
+        for (int t = 0; t < myNbTerms; t++) {
+            myBuilder.add(row, myTermColumns[t], myTermValues[t]);
+        }
+    }
+
+    /**
+     * Parses a sum of terms, collecting the linear terms (the previous ones are cleared) and returning the
+     * constant. Quadratic terms, within square brackets, are only allowed in the objective function and are
+     * then added directly to the model.
+     */
+    private double expression(final boolean objective) {
+
+        myNbTerms = 0;
+        double retVal = 0.0;
+
+        while (!this.isSection() && (myKind == PLUS || myKind == MINUS || myKind == NUMBER || myKind == NAME || myKind == LBRACKET)) {
+
+            double sign = 1.0;
+            while (myKind == PLUS || myKind == MINUS) {
+                if (myKind == MINUS) {
+                    sign = -sign;
+                }
+                this.advance();
+            }
+
+            if (myKind == LBRACKET) {
+                if (!objective) {
+                    this.fail("Quadratic constraints are not supported");
+                }
+                this.quadratic(sign);
+                continue;
+            }
+
+            double coefficient = sign;
+            if (myKind == NUMBER) {
+                coefficient *= myReader.toDouble(myStart, myEnd);
+                this.advance();
+            }
+
+            if (myKind == NAME && !this.isSection()) {
+                int column = this.column();
+                this.advance();
+                if (myNbTerms == myTermColumns.length) {
+                    myTermColumns = Arrays.copyOf(myTermColumns, 2 * myNbTerms);
+                    myTermValues = Arrays.copyOf(myTermValues, 2 * myNbTerms);
+                }
+                myTermColumns[myNbTerms] = column;
+                myTermValues[myNbTerms] = coefficient;
+                myNbTerms++;
+            } else {
+                retVal += coefficient;
+            }
+        }
+
+        return retVal;
+    }
+
+    private void fail(final String message) {
+        throw new IllegalArgumentException(message + " on line " + myReader.lineNumber() + ": " + myReader);
+    }
+
+    private SparseModel.Builder getBuilder() {
+        return myBuilder;
+    }
+
+    private boolean isFollowedByColon() {
+        int position = myEnd;
+        while (position < myReader.length() && ASCII.isSpace(myReader.charAt(position))) {
+            position++;
+        }
+        return position < myReader.length() && myReader.charAt(position) == ':';
+    }
+
+    private boolean isInfinity() {
+        return myKind == NAME && (myReader.matchesIgnoreCase(myStart, myEnd, "inf") || myReader.matchesIgnoreCase(myStart, myEnd, "infinity"));
+    }
+
+    /**
+     * Section keywords are only recognised first on a line
+     */
+    private boolean isSection() {
+        return myKind == NAME && myFirst && this.section(false) != null;
+    }
+
+    private void objective() {
+
+        if (myKind == NAME && this.isFollowedByColon()) {
+            this.advance();
+            this.advance();
+        }
+
+        double constant = this.expression(true);
+
+        for (int t = 0; t < myNbTerms; t++) {
+            int column = myTermColumns[t];
+            myBuilder.objective(column, myBuilder.getObjective(column) + myTermValues[t]);
+        }
+        myBuilder.objectiveConstant(constant);
+    }
+
+    private int operator() {
+        int retVal = myKind;
+        if (retVal != LE && retVal != GE && retVal != EQ) {
+            this.fail("Expected <=, >= or =");
+        }
+        this.advance();
+        return retVal;
+    }
+
+    private void parse() {
+
+        Section section = null;
+
+        this.advance();
+
+        while (myKind != EOF) {
+
+            Section next = this.isSection() ? this.section(true) : null;
+
+            if (next != null) {
+
+                section = next;
+
+                switch (section) {
+                case OBJECTIVE:
+                    this.objective();
+                    break;
+                case END:
+                    return;
+                default:
+                    break;
+                }
+
+                continue;
+            }
+
+            if (section == null) {
+                this.fail("Expected a section keyword");
+            }
+
+            switch (section) {
+
+            case CONSTRAINTS:
+                this.constraint();
+                break;
+
+            case BOUNDS:
+                this.bounds();
+                break;
+
+            case GENERAL:
+                myBuilder.integer(this.column(), true);
+                this.advance();
+                break;
+
+            case BINARY:
+                int column = this.column();
+                myBuilder.bounds(column, 0.0, 1.0).integer(column, true);
+                this.advance();
+                break;
+
+            default:
+                this.advance();
+                break;
+            }
+        }
+    }
+
+    private void quadratic(final double sign) {
+
+        this.advance();
+
+        int first = myNbTerms;
+
+        while (myKind != RBRACKET) {
+
+            double coefficient = sign;
+            while (myKind == PLUS || myKind == MINUS) {
+                if (myKind == MINUS) {
+                    coefficient = -coefficient;
+                }
+                this.advance();
+            }
+            if (myKind == NUMBER) {
+                coefficient *= myReader.toDouble(myStart, myEnd);
+                this.advance();
+            }
+
+            int column1 = this.column();
+            int column2 = column1;
+            this.advance();
+
+            if (myKind == OTHER && myReader.charAt(myStart) == '^') {
+                this.advance(); // The exponent, must be 2
+                this.advance();
+            } else if (myKind == OTHER && myReader.charAt(myStart) == '*') {
+                this.advance();
+                column2 = this.column();
+                this.advance();
+            } else {
+                this.fail("Expected ^ or *");
+            }
+
+            if (myNbTerms + 2 > myTermColumns.length) {
+                myTermColumns = Arrays.copyOf(myTermColumns, 2 * myTermColumns.length);
+                myTermValues = Arrays.copyOf(myTermValues, 2 * myTermValues.length);
+            }
+            myTermColumns[myNbTerms] = column1;
+            myTermValues[myNbTerms] = coefficient;
+            myNbTerms++;
+            myTermColumns[myNbTerms] = column2;
+            myNbTerms++;
+        }
+
+        this.advance();
+
+        double divisor = 1.0;
+        if (myKind == OTHER && myReader.charAt(myStart) == '/') {
+            this.advance();
+            divisor = myReader.toDouble(myStart, myEnd);
+            this.advance();
+        }
+
+        for (int t = first; t < myNbTerms; t += 2) {
+            myBuilder.addObjective(myTermColumns[t], myTermColumns[t + 1], myTermValues[t] / divisor);
+        }
+
+        myNbTerms = first;
+    }
+
+    /**
+     * @param consume If true the keyword token(s) are consumed
+     */
+    private Section section(final boolean consume) {
+
+        Section retVal = null;
+        boolean two = false;
+
+        if (this.matches("minimize", "minimise", "minimum", "min")) {
+            if (consume) {
+                myBuilder.sense(Optimisation.Sense.MIN);
+            }
+            retVal = Section.OBJECTIVE;
+        } else if (this.matches("maximize", "maximise", "maximum", "max")) {
+            if (consume) {
+                myBuilder.sense(Optimisation.Sense.MAX);
+            }
+            retVal = Section.OBJECTIVE;
+        } else if (this.matches("subject", "such")) {
+            retVal = Section.CONSTRAINTS;
+            two = true;
+        } else if (this.matches("st", "s.t.")) {
+            retVal = Section.CONSTRAINTS;
+        } else if (this.matches("bounds", "bound")) {
+            retVal = Section.BOUNDS;
+        } else if (this.matches("general", "generals", "gen", "integer", "integers")) {
+            retVal = Section.GENERAL;
+        } else if (this.matches("binary", "binaries", "bin")) {
+            retVal = Section.BINARY;
+        } else if (this.matches("semis", "semi", "sos")) {
+            retVal = Section.SKIP;
+        } else if (this.matches("end")) {
+            retVal = Section.END;
+        }
+
+        if (retVal != null && this.isFollowedByColon()) {
+            // A constraint (or objective) name, not a keyword
+            retVal = null;
+        }
+
+        if (consume && retVal != null) {
+            this.advance();
+            if (two) {
+                this.advance(); // "to" or "that"
+            }
+        }
+
+        return retVal;
+    }
+
+    private boolean matches(final String... keywords) {
+        for (String keyword : keywords) {
+            if (myReader.matchesIgnoreCase(myStart, myEnd, keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * [sign] number or infinity
+     */
+    private double value() {
+
+        double sign = 1.0;
+        while (myKind == PLUS || myKind == MINUS) {
+            if (myKind == MINUS) {
+                sign = -sign;
+            }
+            this.advance();
+        }
+
+        double retVal;
+        if (myKind == NUMBER) {
+            retVal = myReader.toDouble(myStart, myEnd);
+        } else if (this.isInfinity()) {
+            retVal = Double.POSITIVE_INFINITY;
+        } else {
+            this.fail("Expected a number");
+            retVal = Double.NaN;
+        }
+
+        this.advance();
+
+        return sign * retVal;
+    }
+
+}
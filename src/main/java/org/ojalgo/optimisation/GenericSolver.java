@@ -357,7 +357,7 @@ public abstract class GenericSolver implements Optimisation.Solver {
      */
     protected final boolean isIterationAllowed() {
 
-        if (myState.isFailure() || Thread.currentThread().isInterrupted()) {
+        if (myState.isFailure() || options.isCancelled() || Thread.currentThread().isInterrupted()) {
             return false;
         }
 
@@ -419,6 +419,19 @@ public abstract class GenericSolver implements Optimisation.Solver {
         this.log("Done {} {} iterations in {}.", iterationsDone, classSimpleName, duration);
     }
 
+    /**
+     * Report a completed matrix factorisation to the {@link SolverTelemetry}, if there is one.
+     *
+     * @param dim The size of the (square) matrix
+     * @param started When the factorisation started, as returned by {@link #startFactorisation()}
+     */
+    protected final void reportFactorisation(final int dim, final long started) {
+        SolverTelemetry telemetry = options.telemetry();
+        if (telemetry != null) {
+            telemetry.factorisation(this.getClass(), dim, System.nanoTime() - started);
+        }
+    }
+
     protected final void resetIterationsCount() {
         myIterationsCount.set(0);
         myStopwatch.reset();
@@ -433,4 +446,12 @@ public abstract class GenericSolver implements Optimisation.Solver {
         myState = state;
     }
 
+    /**
+     * @return The time to pass to {@link #reportFactorisation(int, long)} – {@link System#nanoTime()} only if
+     *         there is a {@link SolverTelemetry} to report to.
+     */
+    protected final long startFactorisation() {
+        return options.telemetry() != null ? System.nanoTime() : 0L;
+    }
+
 }
@@ -36,6 +36,11 @@ import org.ojalgo.structure.Access1D;
  */
 public abstract class IntermediateSolver implements Optimisation.Solver {
 
+    static void report(final SolverTelemetry telemetry, final Optimisation.Solver solver, final Optimisation.State state, final long started) {
+        int iterations = solver instanceof GenericSolver ? ((GenericSolver) solver).countIterations() : 0;
+        telemetry.solve(solver.getClass(), state, iterations, System.nanoTime() - started);
+    }
+
     private boolean myInPlaceUpdatesOK = true;
     private transient ExpressionsBasedModel.Integration<?> myIntegration = null;
     private final ExpressionsBasedModel myModel;
@@ -77,8 +82,14 @@ public abstract class IntermediateSolver implements Optimisation.Solver {
 
     public Optimisation.Result solve(final Optimisation.Result candidate) {
 
+        SolverTelemetry telemetry = myModel.options.telemetry();
+
         if (mySolver == null && ExpressionsBasedModel.PRESOLVERS.size() > 0) {
+            long started = telemetry != null ? System.nanoTime() : 0L;
             myModel.presolve();
+            if (telemetry != null) {
+                telemetry.presolve(myModel.countVariables(), myModel.getFreeVariables().size(), System.nanoTime() - started);
+            }
         }
 
         if (myModel.isInfeasible()) {
@@ -114,7 +125,11 @@ public abstract class IntermediateSolver implements Optimisation.Solver {
 
         Optimisation.Result retVal = candidate != null ? candidate : myModel.getVariableValues();
         retVal = integration.toSolverState(retVal, myModel);
+        long started = telemetry != null ? System.nanoTime() : 0L;
         retVal = solver.solve(retVal);
+        if (telemetry != null) {
+            IntermediateSolver.report(telemetry, solver, retVal.getState(), started);
+        }
         retVal = integration.toModelState(retVal, myModel);
 
         myResult = retVal;
@@ -135,7 +150,7 @@ public abstract class IntermediateSolver implements Optimisation.Solver {
             int indexInSolver = this.getIntegration().getIndexInSolver(myModel, variable);
             double fixedValue = variable.getValue().doubleValue();
 
-            if (updatableSolver.fixVariable(indexInSolver, fixedValue)) {
+            if (indexInSolver >= 0 && updatableSolver.fixVariable(indexInSolver, fixedValue)) {
                 // Solver updated in-place
                 return;
             }
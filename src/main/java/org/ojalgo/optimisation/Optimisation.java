@@ -21,6 +21,9 @@
  */
 package org.ojalgo.optimisation;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.Objects;
@@ -30,6 +33,7 @@ import org.ojalgo.ProgrammingError;
 import org.ojalgo.array.ArrayR064;
 import org.ojalgo.array.ArrayR256;
 import org.ojalgo.netio.BasicLogger;
+import org.ojalgo.netio.DataInterpreter;
 import org.ojalgo.optimisation.convex.ConvexSolver;
 import org.ojalgo.optimisation.integer.IntegerSolver;
 import org.ojalgo.optimisation.integer.IntegerStrategy;
@@ -250,11 +254,13 @@ public interface Optimisation {
          * algorithmical differences that could make one alternative better than the other for a (your)
          * specific case. There are 3 different possibilities for this option:
          * <ol>
-         * <li><b>TRUE</b> Will use the sparse linear solver and the iterative convex solver.</li>
+         * <li><b>TRUE</b> Will use the sparse linear solver and the iterative convex solver. Equality
+         * constrained QP problems are solved using a sparse KKT factorisation.</li>
          * <li><b>FALSE</b> Will use the dense linear solver and the direct convex solver.</li>
          * <li><b>NULL</b> ojAlgo will use some logic to choose for you. This is the default. Currently, the
-         * dense LinearSolver and the iterative ConvexSolver will be used. In the vast majority of cases these
-         * are the best alternatives.</li>
+         * dense LinearSolver and the iterative ConvexSolver will be used, and large equality constrained QP
+         * problems are solved using a sparse KKT factorisation. In the vast majority of cases these are the
+         * best alternatives.</li>
          * </ol>
          * In most cases you do not need to worry about this configuration option - leave this choice to
          * ojAlgo.
@@ -282,10 +288,12 @@ public interface Optimisation {
          */
         public boolean validate = false;
 
+        private volatile boolean myCancelled = false;
         private Object myConfigurator = null;
         private ConvexSolver.Configuration myConvexConfiguration = new ConvexSolver.Configuration();
         private IntegerStrategy myIntegerStrategy = IntegerStrategy.DEFAULT;
         private LinearSolver.Configuration myLinearConfiguration = new LinearSolver.Configuration();
+        private SolverTelemetry myTelemetry = null;
 
         public Options() {
             super();
@@ -297,6 +305,16 @@ public interface Optimisation {
             return this;
         }
 
+        /**
+         * Ask any solver, currently running or started later, using these options to stop as soon as
+         * possible. The solvers check this between iterations – the same way they check the time and
+         * iteration limits – and then return whatever they have. There is no way to undo this; use a
+         * {@link #copy()} of the options for later solves.
+         */
+        public void cancel() {
+            myCancelled = true;
+        }
+
         /**
          * Configurations specific to ojAlgo's built-in {@link ConvexSolver}.
          */
@@ -310,6 +328,36 @@ public interface Optimisation {
             return this;
         }
 
+        /**
+         * @return A new instance with the same settings (the solver configurations are copied as well) that
+         *         is not cancelled.
+         */
+        public Options copy() {
+
+            Options retVal = new Options();
+
+            retVal.feasibility = feasibility;
+            retVal.iterations_abort = iterations_abort;
+            retVal.iterations_suffice = iterations_suffice;
+            retVal.logger_appender = logger_appender;
+            retVal.logger_detailed = logger_detailed;
+            retVal.logger_solver = logger_solver;
+            retVal.print = print;
+            retVal.solution = solution;
+            retVal.sparse = sparse;
+            retVal.time_abort = time_abort;
+            retVal.time_suffice = time_suffice;
+            retVal.validate = validate;
+
+            retVal.myConfigurator = myConfigurator;
+            retVal.myConvexConfiguration = myConvexConfiguration.copy();
+            retVal.myIntegerStrategy = myIntegerStrategy;
+            retVal.myLinearConfiguration = myLinearConfiguration.copy();
+            retVal.myTelemetry = myTelemetry;
+
+            return retVal;
+        }
+
         /**
          * Will configure detailed debug logging and validation
          */
@@ -343,6 +391,13 @@ public interface Optimisation {
             return this;
         }
 
+        /**
+         * @see #cancel()
+         */
+        public boolean isCancelled() {
+            return myCancelled;
+        }
+
         public LinearSolver.Configuration linear() {
             return myLinearConfiguration;
         }
@@ -381,10 +436,65 @@ public interface Optimisation {
             return this;
         }
 
+        /**
+         * @return The telemetry receiver, or null if there is none (the default).
+         */
+        public SolverTelemetry telemetry() {
+            return myTelemetry;
+        }
+
+        /**
+         * Receive structured telemetry (timings, iteration counts, factorisations, branch&amp;bound
+         * progress...) from the solvers. Set to null to turn it off.
+         *
+         * @see SolverStatistics
+         */
+        public Options telemetry(final SolverTelemetry telemetry) {
+            myTelemetry = telemetry;
+            return this;
+        }
+
     }
 
     public static final class Result implements Optimisation, Access1D<BigDecimal>, Comparable<Optimisation.Result> {
 
+        /**
+         * The binary format of a result: state, objective function value and the solution (primal variable
+         * values). Used by the {@link ResultCache} disk tier and the optimisation service protocol.
+         */
+        public static final DataInterpreter<Optimisation.Result> INTERPRETER = new DataInterpreter<>() {
+
+            public Optimisation.Result deserialize(final DataInput input) throws IOException {
+
+                Optimisation.State state = Optimisation.State.valueOf(input.readUTF());
+                double value = input.readDouble();
+
+                int length = input.readInt();
+                if (length < 0) {
+                    throw new IOException("Invalid solution length: " + length);
+                }
+                ArrayR064 solution = ArrayR064.make(length);
+                for (int i = 0; i < length; i++) {
+                    solution.set(i, input.readDouble());
+                }
+
+                return new Optimisation.Result(state, value, solution);
+            }
+
+            public void serialize(final Optimisation.Result data, final DataOutput output) throws IOException {
+
+                output.writeUTF(data.getState().name());
+                output.writeDouble(data.getValue());
+
+                int length = data.size();
+                output.writeInt(length);
+                for (int i = 0; i < length; i++) {
+                    output.writeDouble(data.doubleValue(i));
+                }
+            }
+
+        };
+
         public static Result of(final double value, final Optimisation.State state, final double... solution) {
             return new Result(state, value, ArrayR064.wrap(solution));
         }
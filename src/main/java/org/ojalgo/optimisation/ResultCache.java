@@ -0,0 +1,376 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.ojalgo.netio.DataReader;
+import org.ojalgo.netio.DataWriter;
+import org.ojalgo.structure.Structure1D.IntIndex;
+import org.ojalgo.structure.Structure2D.IntRowColumn;
+
+/**
+ * Caches solutions of {@link ExpressionsBasedModel}s keyed by a canonical fingerprint of the model, so that
+ * solving an identical model again (typically a different instance built from the same input) does not
+ * require solving it at all. Models that only differ in variable bounds, constraint limits or objective
+ * function weights are considered near matches – a cached solution is then used as the starting point
+ * (kickStarter) if it is still feasible.
+ * <p>
+ * The fingerprint is a hash of the variables (in order), the expressions (in any order – names are ignored),
+ * their factors, bounds/limits and weights, the objective function constant and the optimisation sense. To
+ * guard against hash collisions a cached solution is always validated against the model before it is used.
+ * Only feasible solutions are cached, and only optimal solutions are returned directly.
+ * <p>
+ * The in-memory cache is a size bounded LRU cache. Optionally there is a second, disk based, tier – a
+ * directory with one file per solution. That tier is not size bounded, and can be shared between processes
+ * and reused between runs.
+ *
+ * @author apete
+ */
+public final class ResultCache {
+
+    /**
+     * A model fingerprint
+     *
+     * @author apete
+     */
+    public static final class Fingerprint {
+
+        /**
+         * Everything: structure, bounds, limits, weights and sense
+         */
+        public final long exact;
+        /**
+         * Only the structure – variables (integer or not), expressions and their factors
+         */
+        public final long structural;
+
+        Fingerprint(final long structural, final long exact) {
+            super();
+            this.structural = structural;
+            this.exact = exact;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Fingerprint)) {
+                return false;
+            }
+            Fingerprint other = (Fingerprint) obj;
+            return exact == other.exact && structural == other.structural;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(exact, structural);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%016x-%016x", structural, exact);
+        }
+
+    }
+
+    static final class LeastRecentlyUsed<K> extends LinkedHashMap<K, Optimisation.Result> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int myCapacity;
+
+        LeastRecentlyUsed(final int capacity) {
+            super(16, 0.75F, true);
+            myCapacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<K, Optimisation.Result> eldest) {
+            return this.size() > myCapacity;
+        }
+
+    }
+
+    private static final String SUFFIX = ".result";
+
+    /**
+     * Calculate the fingerprint of a model. This is a fast (single pass, no sorting) operation.
+     */
+    public static Fingerprint fingerprint(final ExpressionsBasedModel model) {
+
+        long structural = ResultCache.combine(model.countVariables(), model.countExpressions());
+        long exact = structural;
+
+        for (Variable variable : model.getVariables()) {
+            structural = ResultCache.combine(structural, variable.isInteger() ? 1L : 0L);
+            exact = ResultCache.combine(exact, variable.isInteger() ? 1L : 0L);
+            exact = ResultCache.combine(exact, ResultCache.bits(variable.getLowerLimit()));
+            exact = ResultCache.combine(exact, ResultCache.bits(variable.getUpperLimit()));
+            exact = ResultCache.combine(exact, ResultCache.bits(variable.getContributionWeight()));
+        }
+
+        // The expressions are combined in an order independent way
+
+        long structuralSum = 0L;
+        long exactSum = 0L;
+
+        for (Expression expression : model.getExpressions()) {
+
+            long terms = 0L;
+
+            for (IntIndex key : expression.getLinearKeySet()) {
+                terms += ResultCache.mix(ResultCache.combine(key.index, ResultCache.bits(expression.get(key))));
+            }
+            for (IntRowColumn key : expression.getQuadraticKeySet()) {
+                terms += ResultCache.mix(ResultCache.combine(ResultCache.combine(key.row, key.column), ResultCache.bits(expression.get(key))));
+            }
+
+            long limits = ResultCache.combine(terms, ResultCache.bits(expression.getLowerLimit()));
+            limits = ResultCache.combine(limits, ResultCache.bits(expression.getUpperLimit()));
+            limits = ResultCache.combine(limits, ResultCache.bits(expression.getContributionWeight()));
+
+            structuralSum += ResultCache.mix(terms);
+            exactSum += ResultCache.mix(limits);
+        }
+
+        structural = ResultCache.combine(structural, structuralSum);
+        exact = ResultCache.combine(exact, exactSum);
+
+        exact = ResultCache.combine(exact, ResultCache.bits(model.getObjectiveConstant()));
+        Optimisation.Sense sense = model.getOptimisationSense();
+        exact = ResultCache.combine(exact, sense != null ? sense.ordinal() : -1L);
+
+        return new Fingerprint(structural, exact);
+    }
+
+    private static long bits(final BigDecimal value) {
+        if (value == null) {
+            return 0x7FF8DEADBEEF0001L;
+        }
+        // Adding 0.0 turns -0.0 into 0.0
+        return Double.doubleToLongBits(value.doubleValue() + 0.0);
+    }
+
+    private static long combine(final long hash, final long value) {
+        return ResultCache.mix(hash ^ (value + 0x9E3779B97F4A7C15L + (hash << 6) + (hash >>> 2)));
+    }
+
+    /**
+     * The SplitMix64 finaliser
+     */
+    private static long mix(final long value) {
+        long x = value;
+        x = (x ^ x >>> 30) * 0xBF58476D1CE4E5B9L;
+        x = (x ^ x >>> 27) * 0x94D049BB133111EBL;
+        return x ^ x >>> 31;
+    }
+
+    private final File myDirectory;
+    private final LeastRecentlyUsed<Fingerprint> myExact;
+    private final LongAdder myHits = new LongAdder();
+    private final LongAdder myMisses = new LongAdder();
+    private final LeastRecentlyUsed<Long> myStructural;
+    private final LongAdder myWarmStarts = new LongAdder();
+
+    /**
+     * An in-memory only cache
+     *
+     * @param capacity The max number of cached solutions
+     */
+    public ResultCache(final int capacity) {
+        this(capacity, null);
+    }
+
+    /**
+     * @param capacity The max number of cached solutions (in memory)
+     * @param directory The directory of the disk based tier
+     */
+    public ResultCache(final int capacity, final File directory) {
+
+        super();
+
+        myExact = new LeastRecentlyUsed<>(capacity);
+        myStructural = new LeastRecentlyUsed<>(capacity);
+
+        myDirectory = directory;
+        if (myDirectory != null) {
+            myDirectory.mkdirs();
+        }
+    }
+
+    /**
+     * Clear the in-memory cache (not the disk based tier) and reset the counters.
+     */
+    public synchronized void clear() {
+        myExact.clear();
+        myStructural.clear();
+        myHits.reset();
+        myMisses.reset();
+        myWarmStarts.reset();
+    }
+
+    /**
+     * @return The number of times a cached solution was returned without solving
+     */
+    public long countHits() {
+        return myHits.sum();
+    }
+
+    /**
+     * @return The number of times the model had to be solved (including warm started solves)
+     */
+    public long countMisses() {
+        return myMisses.sum();
+    }
+
+    /**
+     * @return The number of times a cached (near match) solution was used as the starting point
+     */
+    public long countWarmStarts() {
+        return myWarmStarts.sum();
+    }
+
+    /**
+     * Like {@link ExpressionsBasedModel#maximise()}, but using the cache.
+     */
+    public Optimisation.Result maximise(final ExpressionsBasedModel model) {
+        return this.optimise(model, Optimisation.Sense.MAX);
+    }
+
+    /**
+     * Like {@link ExpressionsBasedModel#minimise()}, but using the cache.
+     */
+    public Optimisation.Result minimise(final ExpressionsBasedModel model) {
+        return this.optimise(model, Optimisation.Sense.MIN);
+    }
+
+    private synchronized Optimisation.Result getExact(final Fingerprint fingerprint) {
+
+        Optimisation.Result retVal = myExact.get(fingerprint);
+
+        if (retVal == null && myDirectory != null) {
+            retVal = this.read(new File(myDirectory, fingerprint + SUFFIX));
+            if (retVal != null) {
+                myExact.put(fingerprint, retVal);
+            }
+        }
+
+        return retVal;
+    }
+
+    private synchronized Optimisation.Result getStructural(final Fingerprint fingerprint) {
+
+        Optimisation.Result retVal = myStructural.get(fingerprint.structural);
+
+        if (retVal == null && myDirectory != null) {
+            String prefix = String.format("%016x-", fingerprint.structural);
+            File[] candidates = myDirectory.listFiles((dir, name) -> name.startsWith(prefix) && name.endsWith(SUFFIX));
+            if (candidates != null && candidates.length > 0) {
+                retVal = this.read(candidates[0]);
+            }
+        }
+
+        return retVal;
+    }
+
+    private Optimisation.Result optimise(final ExpressionsBasedModel model, final Optimisation.Sense sense) {
+
+        model.setOptimisationSense(sense);
+
+        Fingerprint fingerprint = ResultCache.fingerprint(model);
+
+        Optimisation.Result cached = this.getExact(fingerprint);
+
+        if (cached != null && cached.getState().isOptimal() && cached.size() == model.countVariables() && model.validate(cached)) {
+            myHits.increment();
+            return model.setVariableValues(cached);
+        }
+
+        myMisses.increment();
+
+        Optimisation.Result kickStarter = null;
+
+        if (cached == null) {
+            cached = this.getStructural(fingerprint);
+        }
+        if (cached != null && cached.size() == model.countVariables() && model.validate(cached)) {
+            myWarmStarts.increment();
+            kickStarter = new Optimisation.Result(Optimisation.State.FEASIBLE, cached);
+        }
+
+        Optimisation.Result retVal = model.optimise(kickStarter);
+
+        if (retVal.getState().isFeasible()) {
+            this.put(fingerprint, retVal);
+        }
+
+        return retVal;
+    }
+
+    private synchronized void put(final Fingerprint fingerprint, final Optimisation.Result result) {
+
+        myExact.put(fingerprint, result);
+        myStructural.put(fingerprint.structural, result);
+
+        if (myDirectory != null) {
+            this.write(new File(myDirectory, fingerprint + SUFFIX), result);
+        }
+    }
+
+    private Optimisation.Result read(final File file) {
+
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try (DataReader<Optimisation.Result> reader = DataReader.of(file, Optimisation.Result.INTERPRETER)) {
+            return reader.read();
+        } catch (IOException | RuntimeException cause) {
+            return null;
+        }
+    }
+
+    private void write(final File file, final Optimisation.Result result) {
+
+        File temporary = new File(file.getParentFile(), file.getName() + ".tmp");
+
+        try (DataWriter<Optimisation.Result> writer = DataWriter.of(temporary, Optimisation.Result.INTERPRETER)) {
+            writer.write(result);
+        } catch (IOException | RuntimeException cause) {
+            temporary.delete();
+            return;
+        }
+
+        if (!temporary.renameTo(file)) {
+            temporary.delete();
+        }
+    }
+
+}
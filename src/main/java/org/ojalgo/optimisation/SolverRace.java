@@ -0,0 +1,315 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import org.ojalgo.concurrent.Parallelism;
+import org.ojalgo.concurrent.ProcessingService;
+import org.ojalgo.optimisation.convex.ConvexSolver;
+import org.ojalgo.optimisation.convex.InteriorPointSolver;
+import org.ojalgo.optimisation.integer.IntegerSolver;
+import org.ojalgo.optimisation.integer.IntegerStrategy;
+import org.ojalgo.optimisation.integer.IntegerStrategy.ConfigurableStrategy;
+import org.ojalgo.optimisation.integer.NodeKey;
+import org.ojalgo.optimisation.linear.LinearSolver;
+
+/**
+ * Solve an {@link ExpressionsBasedModel} with several differently configured solvers in parallel – a
+ * portfolio of solvers racing each other. The runtime of different solver configurations can vary a lot, and
+ * it's difficult to know beforehand which will be the fastest.
+ * <p>
+ * Each contender works on its own copy of the model, with its own copy of the options, and is executed using
+ * {@link ProcessingService#INSTANCE}. As soon as one contender proves optimality (or infeasibility/
+ * unboundedness) the others are cancelled, and that result is used. If no contender manages that, the best
+ * result is used when all have finished. Integer solvers share their incumbent (best integer solution found
+ * so far) with each other.
+ * <p>
+ * Cancellation is cooperative ({@link Optimisation.Options#cancel()}). The race returns as soon as the
+ * winner is known, but the losers may continue to run (in the background) for a short while.
+ *
+ * @author apete
+ */
+public final class SolverRace {
+
+    static final class Contender {
+
+        final ExpressionsBasedModel.Integration<?> integration;
+        final Consumer<Optimisation.Options> modifier;
+        final String name;
+
+        Contender(final String name, final ExpressionsBasedModel.Integration<?> integration, final Consumer<Optimisation.Options> modifier) {
+            super();
+            this.name = name;
+            this.integration = integration;
+            this.modifier = modifier;
+        }
+
+    }
+
+    static final class ContenderSolver extends IntermediateSolver {
+
+        private final AtomicReference<Optimisation.Result> myIncumbent;
+        private final ExpressionsBasedModel.Integration<?> myIntegration;
+
+        ContenderSolver(final ExpressionsBasedModel model, final ExpressionsBasedModel.Integration<?> integration,
+                final AtomicReference<Optimisation.Result> incumbent) {
+            super(model);
+            myIntegration = integration;
+            myIncumbent = incumbent;
+        }
+
+        @Override
+        protected Optimisation.Solver getSolver() {
+
+            Optimisation.Solver solver = super.getSolver();
+
+            if (solver instanceof IntegerSolver) {
+                ((IntegerSolver) solver).share(myIncumbent);
+            }
+
+            return solver;
+        }
+
+        @Override
+        ExpressionsBasedModel.Integration<?> getIntegration() {
+            return myIntegration != null ? myIntegration : super.getIntegration();
+        }
+
+    }
+
+    private static boolean isConclusive(final Optimisation.State state) {
+        return state.isOptimal() || state == Optimisation.State.INFEASIBLE || state == Optimisation.State.UNBOUNDED;
+    }
+
+    private final List<Contender> myContenders = new ArrayList<>();
+    private final ExpressionsBasedModel myModel;
+    private String myWinner = null;
+
+    SolverRace(final ExpressionsBasedModel model) {
+        super();
+        myModel = model;
+    }
+
+    /**
+     * Add a contender that uses the solver {@link ExpressionsBasedModel} would normally choose, but with
+     * modified options. The modifier gets a copy of the model's options – typically you set a different
+     * {@link IntegerStrategy}.
+     */
+    public SolverRace add(final String name, final Consumer<Optimisation.Options> modifier) {
+        myContenders.add(new Contender(name, null, modifier));
+        return this;
+    }
+
+    /**
+     * Add a contender that uses a specific solver integration. Contenders that are not capable of handling
+     * the model are ignored.
+     */
+    public SolverRace add(final String name, final ExpressionsBasedModel.Integration<?> integration) {
+        myContenders.add(new Contender(name, integration, null));
+        return this;
+    }
+
+    public SolverRace add(final String name, final ExpressionsBasedModel.Integration<?> integration, final Consumer<Optimisation.Options> modifier) {
+        myContenders.add(new Contender(name, integration, modifier));
+        return this;
+    }
+
+    /**
+     * @return The name of the contender that won the latest race, or null if no race has been run or if
+     *         no contender produced a result.
+     */
+    public String getWinner() {
+        return myWinner;
+    }
+
+    public Optimisation.Result maximise() {
+        return this.optimise(Optimisation.Sense.MAX);
+    }
+
+    public Optimisation.Result minimise() {
+        return this.optimise(Optimisation.Sense.MIN);
+    }
+
+    @Override
+    public String toString() {
+        List<String> names = new ArrayList<>();
+        for (Contender contender : this.getContenders()) {
+            names.add(contender.name);
+        }
+        return "SolverRace " + names + " winner=" + myWinner;
+    }
+
+    private List<Contender> getContenders() {
+
+        if (myContenders.size() > 0) {
+            return myContenders;
+        }
+
+        List<Contender> retVal = new ArrayList<>();
+
+        if (myModel.isAnyVariableInteger()) {
+
+            IntegerStrategy strategy = myModel.options.integer();
+
+            if (strategy instanceof ConfigurableStrategy) {
+
+                ConfigurableStrategy configurable = ((ConfigurableStrategy) strategy).withParallelism(Parallelism.CORES.divideBy(4).require(2));
+
+                retVal.add(new Contender("default", null, options -> options.integer(configurable)));
+                retVal.add(new Contender("objective", null,
+                        options -> options.integer(configurable.withPriorityDefinitions(NodeKey.MIN_OBJECTIVE, NodeKey.MAX_OBJECTIVE))));
+                retVal.add(new Contender("displacement", null,
+                        options -> options.integer(configurable.withPriorityDefinitions(NodeKey.LARGEST_DISPLACEMENT, NodeKey.SMALLEST_DISPLACEMENT))));
+                retVal.add(new Contender("plain", null, options -> options.integer(configurable.withCutSeparators().withPrimalHeuristics())));
+
+            } else {
+
+                retVal.add(new Contender("default", null, null));
+            }
+
+        } else if (myModel.isAnyObjectiveQuadratic()) {
+
+            retVal.add(new Contender("active-set", ConvexSolver.INTEGRATION, null));
+            retVal.add(new Contender("interior-point", InteriorPointSolver.INTEGRATION, null));
+
+        } else {
+
+            retVal.add(new Contender("simplex", LinearSolver.INTEGRATION, null));
+            retVal.add(new Contender("interior-point", InteriorPointSolver.INTEGRATION, null));
+        }
+
+        return retVal;
+    }
+
+    private boolean isBetter(final Optimisation.Result candidate, final Optimisation.Result reference) {
+
+        Optimisation.State candidateState = candidate.getState();
+        Optimisation.State referenceState = reference.getState();
+
+        if (candidateState.isFeasible() && referenceState.isFeasible()) {
+            if (candidateState.isOptimal() != referenceState.isOptimal()) {
+                return candidateState.isOptimal();
+            }
+            if (myModel.getOptimisationSense() == Optimisation.Sense.MAX) {
+                return candidate.getValue() > reference.getValue();
+            }
+            return candidate.getValue() < reference.getValue();
+        }
+
+        return candidateState.isFeasible() && !referenceState.isFeasible();
+    }
+
+    private Optimisation.Result optimise(final Optimisation.Sense sense) {
+
+        myModel.setOptimisationSense(sense);
+        myWinner = null;
+
+        AtomicReference<Optimisation.Result> incumbent = new AtomicReference<>();
+        CompletionService<Optimisation.Result> service = new ExecutorCompletionService<>(ProcessingService.INSTANCE.getExecutor());
+
+        Map<Future<Optimisation.Result>, String> names = new HashMap<>();
+        List<Optimisation.Options> options = new ArrayList<>();
+
+        for (Contender contender : this.getContenders()) {
+
+            Optimisation.Options contenderOptions = myModel.options.copy();
+            if (contender.modifier != null) {
+                contender.modifier.accept(contenderOptions);
+            }
+
+            ExpressionsBasedModel contenderModel = new ExpressionsBasedModel(myModel, false, false, contenderOptions);
+
+            if (contender.integration != null && !contender.integration.isCapable(contenderModel)) {
+                continue;
+            }
+
+            ContenderSolver solver = new ContenderSolver(contenderModel, contender.integration, incumbent);
+
+            names.put(service.submit(() -> {
+                try {
+                    return solver.solve(null);
+                } catch (RuntimeException cause) {
+                    return new Optimisation.Result(Optimisation.State.FAILED, contenderModel.getVariableValues());
+                } finally {
+                    solver.dispose();
+                }
+            }), contender.name);
+            options.add(contenderOptions);
+        }
+
+        Optimisation.Result best = null;
+
+        try {
+
+            for (int remaining = names.size(); remaining > 0;) {
+
+                Future<Optimisation.Result> done = service.poll(100L, TimeUnit.MILLISECONDS);
+
+                if (done == null) {
+                    if (myModel.options.isCancelled()) {
+                        break;
+                    }
+                    continue;
+                }
+                remaining--;
+
+                Optimisation.Result result = done.get();
+
+                if (best == null || this.isBetter(result, best) || SolverRace.isConclusive(result.getState())) {
+                    best = result;
+                    myWinner = names.get(done);
+                }
+
+                if (SolverRace.isConclusive(result.getState())) {
+                    break;
+                }
+            }
+
+        } catch (InterruptedException cause) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException cause) {
+            throw new RuntimeException(cause);
+        } finally {
+            for (Optimisation.Options contenderOptions : options) {
+                contenderOptions.cancel();
+            }
+        }
+
+        if (best == null) {
+            return new Optimisation.Result(Optimisation.State.FAILED, myModel.getVariableValues());
+        }
+
+        return myModel.setVariableValues(best);
+    }
+
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.ojalgo.optimisation.integer.IntegerSolver;
+import org.ojalgo.type.management.MBeanUtils;
+import org.ojalgo.type.management.Throughput;
+
+/**
+ * A {@link SolverTelemetry} implementation that aggregates everything reported, and makes it available as a
+ * JMX MBean. Set it on the options of the models/solvers you want to monitor and then {@link #register()}
+ * it. The same instance can be shared by any number of models/solvers.
+ *
+ * @author apete
+ */
+public final class SolverStatistics implements SolverTelemetry, SolverStatisticsMBean {
+
+    private static final double MILLIS = 1E6;
+
+    private volatile double myBound = Double.NaN;
+    private final LongAdder myCutRounds = new LongAdder();
+    private final LongAdder myCuts = new LongAdder();
+    private final LongAdder myFactorisations = new LongAdder();
+    private final LongAdder myFactorisationTime = new LongAdder();
+    private final LongAdder myFallbacks = new LongAdder();
+    private volatile double myIncumbent = Double.NaN;
+    private final Throughput myIterations = new Throughput();
+    private final Throughput myNodes = new Throughput();
+    private volatile int myOpenNodes = 0;
+    private final LongAdder myPresolveTime = new LongAdder();
+    private final LongAdder mySolves = new LongAdder();
+    private final LongAdder mySolveTime = new LongAdder();
+
+    public SolverStatistics() {
+        super();
+    }
+
+    @Override
+    public void cuts(final int round, final int cuts, final double objective) {
+        myCutRounds.increment();
+        myCuts.add(cuts);
+    }
+
+    @Override
+    public void factorisation(final Class<?> solver, final int dim, final long duration) {
+        myFactorisations.increment();
+        myFactorisationTime.add(duration);
+    }
+
+    @Override
+    public void fallback(final Class<?> solver, final Optimisation.State state) {
+        myFallbacks.increment();
+    }
+
+    public double getBound() {
+        return myBound;
+    }
+
+    public long getCutRounds() {
+        return myCutRounds.sum();
+    }
+
+    public long getCuts() {
+        return myCuts.sum();
+    }
+
+    public long getFactorisations() {
+        return myFactorisations.sum();
+    }
+
+    public double getFactorisationTime() {
+        return myFactorisationTime.sum() / MILLIS;
+    }
+
+    public long getFallbacks() {
+        return myFallbacks.longValue();
+    }
+
+    public double getGap() {
+        double incumbent = myIncumbent;
+        double bound = myBound;
+        return Math.abs(incumbent - bound) / Math.max(1.0, Math.abs(incumbent));
+    }
+
+    public double getIncumbent() {
+        return myIncumbent;
+    }
+
+    public double getIterationRate() {
+        return myIterations.getRate();
+    }
+
+    public long getIterations() {
+        return myIterations.getTotal();
+    }
+
+    public double getNodeRate() {
+        return myNodes.getRate();
+    }
+
+    public long getNodes() {
+        return myNodes.getTotal();
+    }
+
+    public int getOpenNodes() {
+        return myOpenNodes;
+    }
+
+    public double getPresolveTime() {
+        return myPresolveTime.sum() / MILLIS;
+    }
+
+    public long getSolves() {
+        return mySolves.sum();
+    }
+
+    public double getSolveTime() {
+        return mySolveTime.sum() / MILLIS;
+    }
+
+    @Override
+    public void incumbent(final double value, final double bound, final long elapsed) {
+        myIncumbent = value;
+        myBound = bound;
+    }
+
+    @Override
+    public void node(final long nodes, final int open) {
+        myNodes.increment();
+        myOpenNodes = open;
+    }
+
+    @Override
+    public void presolve(final int variables, final int remaining, final long duration) {
+        myPresolveTime.add(duration);
+    }
+
+    /**
+     * Register this instance with the platform MBean server.
+     */
+    public SolverStatistics register() {
+        MBeanUtils.register(this, "SolverStatistics");
+        return this;
+    }
+
+    @Override
+    public void solve(final Class<?> solver, final Optimisation.State state, final int iterations, final long duration) {
+        if (!IntegerSolver.class.isAssignableFrom(solver)) {
+            // The integer solver's "iterations" are nodes, and its time includes that of the node subproblems
+            mySolves.increment();
+            mySolveTime.add(duration);
+            myIterations.add(iterations);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SolverStatistics [solves=" + this.getSolves() + ", iterations=" + this.getIterations() + ", factorisations=" + this.getFactorisations() + ", fallbacks=" + this.getFallbacks()
+                + ", nodes=" + this.getNodes() + ", cuts=" + this.getCuts() + ", incumbent=" + myIncumbent + ", bound=" + myBound + "]";
+    }
+
+}
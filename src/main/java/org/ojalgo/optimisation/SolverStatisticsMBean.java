@@ -0,0 +1,106 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation;
+
+public interface SolverStatisticsMBean {
+
+    /**
+     * The best known bound on the optimal value of the latest integer model (the root node relaxation).
+     */
+    double getBound();
+
+    /**
+     * The total number of root node cut rounds.
+     */
+    long getCutRounds();
+
+    /**
+     * The total number of root node cuts added.
+     */
+    long getCuts();
+
+    /**
+     * The total number of matrix factorisations.
+     */
+    long getFactorisations();
+
+    /**
+     * The total time spent factorising matrices (ms).
+     */
+    double getFactorisationTime();
+
+    /**
+     * The total number of times a solver's result failed validation and the model had to be solved again.
+     */
+    long getFallbacks();
+
+    /**
+     * The relative gap between the incumbent and the bound of the latest integer model.
+     */
+    double getGap();
+
+    /**
+     * The objective function value of the latest incumbent (integer solution).
+     */
+    double getIncumbent();
+
+    /**
+     * The current iterations rate (iterations/second).
+     */
+    double getIterationRate();
+
+    /**
+     * The total number of (LP/QP) solver iterations.
+     */
+    long getIterations();
+
+    /**
+     * The current branch&amp;bound node rate (nodes/second).
+     */
+    double getNodeRate();
+
+    /**
+     * The total number of branch&amp;bound nodes evaluated.
+     */
+    long getNodes();
+
+    /**
+     * The number of open branch&amp;bound nodes (latest reported).
+     */
+    int getOpenNodes();
+
+    /**
+     * The total time spent presolving (ms).
+     */
+    double getPresolveTime();
+
+    /**
+     * The total number of (LP/QP) solves, including branch&amp;bound node subproblems.
+     */
+    long getSolves();
+
+    /**
+     * The total time spent solving (LP/QP) problems (ms).
+     */
+    double getSolveTime();
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation;
+
+/**
+ * Structured telemetry from the solvers. Set an instance with
+ * {@link Optimisation.Options#telemetry(SolverTelemetry)} and the solvers will report what they do. All
+ * methods have no-op default implementations – implement those you're interested in. With no telemetry set
+ * (the default) nothing is measured or reported.
+ * <p>
+ * The same options instance (and therefore the same telemetry instance) is typically used by many solvers,
+ * including the subproblem solvers of the {@link org.ojalgo.optimisation.integer.IntegerSolver}, and they
+ * may run concurrently. Implementations must be thread safe, and should be fast. {@link SolverStatistics} is
+ * an implementation that aggregates everything and exposes it as a JMX MBean.
+ * <p>
+ * All durations are in nanoseconds.
+ *
+ * @author apete
+ */
+public interface SolverTelemetry {
+
+    /**
+     * A round of root node cuts was added by the integer solver.
+     *
+     * @param round The round number (0, 1, 2...)
+     * @param cuts The number of cuts added in this round
+     * @param objective The relaxed objective function value before the cuts were added
+     */
+    default void cuts(final int round, final int cuts, final double objective) {
+    }
+
+    /**
+     * A matrix (KKT system or similar) was factorised.
+     *
+     * @param solver The solver that did it
+     * @param dim The size of the (square) matrix
+     * @param duration How long it took
+     */
+    default void factorisation(final Class<?> solver, final int dim, final long duration) {
+    }
+
+    /**
+     * A solver's result failed validation, and the model was solved again another (slower but more robust)
+     * way. This should not happen, and indicates a weakness in how the model was fed to that solver.
+     *
+     * @param solver The solver whose result was rejected
+     * @param state The state it reported
+     */
+    default void fallback(final Class<?> solver, final Optimisation.State state) {
+    }
+
+    /**
+     * A new integer solution (incumbent) was found.
+     *
+     * @param value The objective function value of the new incumbent
+     * @param bound The best known bound on the optimal value – the root node relaxation value. It is not
+     *        updated as the search progresses.
+     * @param elapsed The time since the integer solver started
+     */
+    default void incumbent(final double value, final double bound, final long elapsed) {
+    }
+
+    /**
+     * A branch&amp;bound node was evaluated.
+     *
+     * @param nodes The total number of nodes evaluated so far
+     * @param open The number of open (not yet evaluated) nodes in the queue
+     */
+    default void node(final long nodes, final int open) {
+    }
+
+    /**
+     * A model was presolved.
+     *
+     * @param variables The number of variables in the model
+     * @param remaining The number of variables remaining (not fixed/eliminated) after presolve
+     * @param duration How long it took
+     */
+    default void presolve(final int variables, final int remaining, final long duration) {
+    }
+
+    /**
+     * A solver, built from an {@link ExpressionsBasedModel}, finished.
+     *
+     * @param solver The solver class
+     * @param state The resulting state
+     * @param iterations The number of iterations (nodes for the integer solver) performed
+     * @param duration How long it took
+     */
+    default void solve(final Class<?> solver, final Optimisation.State state, final int iterations, final long duration) {
+    }
+
+}
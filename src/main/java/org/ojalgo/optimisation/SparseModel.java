@@ -0,0 +1,1219 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.ojalgo.ProgrammingError;
+import org.ojalgo.array.ArrayR064;
+import org.ojalgo.array.SparseArray;
+import org.ojalgo.matrix.store.Primitive64Store;
+import org.ojalgo.matrix.store.RowsSupplier;
+import org.ojalgo.matrix.store.SparseStore;
+import org.ojalgo.netio.ASCIILineReader;
+import org.ojalgo.optimisation.ExpressionsBasedModel.FileFormat;
+import org.ojalgo.optimisation.convex.ConvexSolver;
+import org.ojalgo.optimisation.convex.InteriorPointSolver;
+import org.ojalgo.optimisation.linear.LinearSolver;
+import org.ojalgo.structure.Access1D;
+import org.ojalgo.structure.Mutate1D;
+import org.ojalgo.structure.Mutate2D;
+import org.ojalgo.structure.Structure1D.IntIndex;
+import org.ojalgo.structure.Structure2D.IntRowColumn;
+
+/**
+ * A compact, primitive double based, representation of a (mixed integer) linear or quadratic model. The
+ * constraints are stored row-wise in compressed sparse row (CSR) format, and column-wise (CSC) is built
+ * lazily when needed. Variables and constraints are identified by their indices – names are optional.
+ * <p>
+ * Compared to {@link ExpressionsBasedModel} there are no {@link BigDecimal}:s, no boxed keys and no
+ * per-entity objects. This makes it much faster, and less memory intensive, to build large models.
+ * Instances are immutable – use a {@link SparseModel.Builder} to create one – and can be:
+ * <ol>
+ * <li>Solved directly with {@link #minimise()} or {@link #maximise()}. Continuous models are fed to the
+ * {@link LinearSolver} or {@link ConvexSolver} without any intermediate {@link BigDecimal} conversion.
+ * <li>Converted to an {@link ExpressionsBasedModel}, {@link #toModel()}, to make use of all its features.
+ * <li>Created from an existing {@link ExpressionsBasedModel}, {@link #of(ExpressionsBasedModel)}, to access
+ * its data in bulk.
+ * </ol>
+ * When solving directly the model is first presolved using a {@link SparsePresolver}. Linear models are fed to
+ * the {@link LinearSolver} with non-negative (shifted) variables, the same way {@link ExpressionsBasedModel}
+ * does it. The only scaling done is that each constraint row is multiplied by a power of 2 when fed to the
+ * {@link ConvexSolver}. If the interior point option is set,
+ * {@link LinearSolver.Configuration#interiorPoint(boolean)} or
+ * {@link ConvexSolver.Configuration#interiorPoint(boolean)}, the (presolved) model is instead solved using the
+ * {@link InteriorPointSolver} that works directly with the sparse data.
+ * <p>
+ * If the result of a directly fed continuous solver fails validation (with a tolerance relative to the
+ * magnitude of each constraint's terms), the model is solved again via
+ * {@link #toModel()}. That is logged, and reported as a {@link SolverTelemetry#fallback(Class, Optimisation.State)}
+ * event. The results only contain primal solutions (variable values) – no dual values (multipliers) are mapped
+ * back through the presolve.
+ *
+ * @author apete
+ */
+public final class SparseModel {
+
+    /**
+     * Variables, constraints and matrix entries can be added in any order. Entries are collected in
+     * coordinate (triplet) format, and then sorted/compressed when building. Adding to the same row/column
+     * position more than once sums the values.
+     *
+     * @author apete
+     */
+    public static final class Builder {
+
+        private int myNbEntries = 0;
+        private int myNbQuadratic = 0;
+        private int myNbRows = 0;
+        private int myNbVariables = 0;
+
+        private int[] myEntryColumns = new int[16];
+        private int[] myEntryRows = new int[16];
+        private double[] myEntryValues = new double[16];
+
+        private double myConstant = 0.0;
+        private boolean[] myIntegers = new boolean[16];
+        private double[] myLowerBounds = new double[16];
+        private double[] myObjective = new double[16];
+        private double[] myUpperBounds = new double[16];
+        private String[] myVariableNames = new String[16];
+        private Map<String, Integer> myVariableIndices = null;
+        private int myNbVariablesIndexed = 0;
+
+        private int[] myQuadraticColumns = new int[4];
+        private int[] myQuadraticRows = new int[4];
+        private double[] myQuadraticValues = new double[4];
+
+        private double[] myRowLower = new double[16];
+        private String[] myRowNames = new String[16];
+        private double[] myRowUpper = new double[16];
+        private Map<String, Integer> myRowIndices = null;
+        private int myNbRowsIndexed = 0;
+
+        private Optimisation.Sense mySense = null;
+
+        Builder() {
+            super();
+        }
+
+        /**
+         * Add to the linear coefficient of variable in row.
+         */
+        public Builder add(final int row, final int variable, final double value) {
+
+            if (row < 0 || row >= myNbRows || variable < 0 || variable >= myNbVariables) {
+                throw new ProgrammingError("Index out of range!");
+            }
+
+            if (value != 0.0) {
+
+                if (myNbEntries == myEntryValues.length) {
+                    int capacity = 2 * myNbEntries;
+                    myEntryRows = Arrays.copyOf(myEntryRows, capacity);
+                    myEntryColumns = Arrays.copyOf(myEntryColumns, capacity);
+                    myEntryValues = Arrays.copyOf(myEntryValues, capacity);
+                }
+
+                myEntryRows[myNbEntries] = row;
+                myEntryColumns[myNbEntries] = variable;
+                myEntryValues[myNbEntries] = value;
+                myNbEntries++;
+            }
+
+            return this;
+        }
+
+        /**
+         * Add a new constraint row, without any limits
+         *
+         * @param name May be null
+         * @return The index of the new row
+         */
+        public int addConstraint(final String name) {
+
+            if (myNbRows == myRowLower.length) {
+                int capacity = 2 * myNbRows;
+                myRowNames = Arrays.copyOf(myRowNames, capacity);
+                myRowLower = Arrays.copyOf(myRowLower, capacity);
+                myRowUpper = Arrays.copyOf(myRowUpper, capacity);
+            }
+
+            myRowNames[myNbRows] = name;
+            myRowLower[myNbRows] = Double.NEGATIVE_INFINITY;
+            myRowUpper[myNbRows] = Double.POSITIVE_INFINITY;
+
+            return myNbRows++;
+        }
+
+        /**
+         * Add a new constraint row with all its entries
+         *
+         * @return The index of the new row
+         */
+        public int addConstraint(final String name, final double lower, final double upper, final int[] variables, final double[] values) {
+
+            int retVal = this.addConstraint(name);
+
+            this.limits(retVal, lower, upper);
+
+            for (int k = 0; k < variables.length; k++) {
+                this.add(retVal, variables[k], values[k]);
+            }
+
+            return retVal;
+        }
+
+        /**
+         * Add to the quadratic objective function factor for the variable pair
+         */
+        public Builder addObjective(final int variable1, final int variable2, final double value) {
+
+            if (variable1 < 0 || variable1 >= myNbVariables || variable2 < 0 || variable2 >= myNbVariables) {
+                throw new ProgrammingError("Index out of range!");
+            }
+
+            if (value != 0.0) {
+
+                if (myNbQuadratic == myQuadraticValues.length) {
+                    int capacity = 2 * myNbQuadratic;
+                    myQuadraticRows = Arrays.copyOf(myQuadraticRows, capacity);
+                    myQuadraticColumns = Arrays.copyOf(myQuadraticColumns, capacity);
+                    myQuadraticValues = Arrays.copyOf(myQuadraticValues, capacity);
+                }
+
+                myQuadraticRows[myNbQuadratic] = variable1;
+                myQuadraticColumns[myNbQuadratic] = variable2;
+                myQuadraticValues[myNbQuadratic] = value;
+                myNbQuadratic++;
+            }
+
+            return this;
+        }
+
+        /**
+         * Add a new variable, without any bounds and not part of the objective function
+         *
+         * @param name May be null
+         * @return The index of the new variable
+         */
+        public int addVariable(final String name) {
+
+            if (myNbVariables == myLowerBounds.length) {
+                int capacity = 2 * myNbVariables;
+                myVariableNames = Arrays.copyOf(myVariableNames, capacity);
+                myLowerBounds = Arrays.copyOf(myLowerBounds, capacity);
+                myUpperBounds = Arrays.copyOf(myUpperBounds, capacity);
+                myIntegers = Arrays.copyOf(myIntegers, capacity);
+                myObjective = Arrays.copyOf(myObjective, capacity);
+            }
+
+            myVariableNames[myNbVariables] = name;
+            myLowerBounds[myNbVariables] = Double.NEGATIVE_INFINITY;
+            myUpperBounds[myNbVariables] = Double.POSITIVE_INFINITY;
+            myIntegers[myNbVariables] = false;
+            myObjective[myNbVariables] = 0.0;
+
+            return myNbVariables++;
+        }
+
+        public Builder bounds(final int variable, final double lower, final double upper) {
+            myLowerBounds[variable] = lower;
+            myUpperBounds[variable] = upper;
+            return this;
+        }
+
+        public SparseModel build() {
+            return this.build(new Optimisation.Options());
+        }
+
+        public int countConstraints() {
+            return myNbRows;
+        }
+
+        public int countVariables() {
+            return myNbVariables;
+        }
+
+        /**
+         * @return The index of the named constraint, or -1 if no such constraint exists
+         */
+        public int indexOfConstraint(final String name) {
+            Integer index = this.getRowIndices().get(name);
+            return index != null ? index.intValue() : -1;
+        }
+
+        /**
+         * @return The index of the named variable, or -1 if no such variable exists
+         */
+        public int indexOfVariable(final String name) {
+            Integer index = this.getVariableIndices().get(name);
+            return index != null ? index.intValue() : -1;
+        }
+
+        public Builder integer(final int variable, final boolean integer) {
+            myIntegers[variable] = integer;
+            return this;
+        }
+
+        public Builder limits(final int row, final double lower, final double upper) {
+            myRowLower[row] = lower;
+            myRowUpper[row] = upper;
+            return this;
+        }
+
+        public Builder lower(final int variable, final double lower) {
+            myLowerBounds[variable] = lower;
+            return this;
+        }
+
+        public Builder lowerLimit(final int row, final double lower) {
+            myRowLower[row] = lower;
+            return this;
+        }
+
+        /**
+         * Set the linear objective function weight/factor of a variable
+         */
+        public Builder objective(final int variable, final double weight) {
+            myObjective[variable] = weight;
+            return this;
+        }
+
+        public Builder objectiveConstant(final double constant) {
+            myConstant = constant;
+            return this;
+        }
+
+        public Builder sense(final Optimisation.Sense sense) {
+            mySense = sense;
+            return this;
+        }
+
+        public Builder upper(final int variable, final double upper) {
+            myUpperBounds[variable] = upper;
+            return this;
+        }
+
+        public Builder upperLimit(final int row, final double upper) {
+            myRowUpper[row] = upper;
+            return this;
+        }
+
+        double getLowerBound(final int variable) {
+            return myLowerBounds[variable];
+        }
+
+        double getLowerLimit(final int row) {
+            return myRowLower[row];
+        }
+
+        double getObjective(final int variable) {
+            return myObjective[variable];
+        }
+
+        double getUpperBound(final int variable) {
+            return myUpperBounds[variable];
+        }
+
+        double getUpperLimit(final int row) {
+            return myRowUpper[row];
+        }
+
+        /**
+         * @param options The built model's options – may be shared with other models
+         */
+        SparseModel build(final Optimisation.Options options) {
+
+            // CSR – counting sort by row, then by column within each row, merging duplicates
+
+            int[] pointers = new int[myNbRows + 1];
+            for (int e = 0; e < myNbEntries; e++) {
+                pointers[myEntryRows[e] + 1]++;
+            }
+            for (int i = 0; i < myNbRows; i++) {
+                pointers[i + 1] += pointers[i];
+            }
+
+            int[] columns = new int[myNbEntries];
+            double[] values = new double[myNbEntries];
+
+            int[] next = Arrays.copyOf(pointers, myNbRows);
+            for (int e = 0; e < myNbEntries; e++) {
+                int k = next[myEntryRows[e]]++;
+                columns[k] = myEntryColumns[e];
+                values[k] = myEntryValues[e];
+            }
+
+            int nnz = 0;
+            int[] dense = new int[myNbVariables];
+            Arrays.fill(dense, -1);
+            int start = 0;
+            for (int i = 0; i < myNbRows; i++) {
+                int end = pointers[i + 1];
+                int first = nnz;
+                for (int k = start; k < end; k++) {
+                    int j = columns[k];
+                    if (dense[j] >= first) {
+                        values[dense[j]] += values[k];
+                    } else {
+                        dense[j] = nnz;
+                        columns[nnz] = j;
+                        values[nnz] = values[k];
+                        nnz++;
+                    }
+                }
+                SparseModel.sort(columns, values, first, nnz);
+                start = end;
+                pointers[i + 1] = nnz;
+            }
+
+            SparseModel retVal = new SparseModel(options, myNbVariables, myNbRows);
+
+            System.arraycopy(myVariableNames, 0, retVal.myVariableNames, 0, myNbVariables);
+            System.arraycopy(myLowerBounds, 0, retVal.myLowerBounds, 0, myNbVariables);
+            System.arraycopy(myUpperBounds, 0, retVal.myUpperBounds, 0, myNbVariables);
+            System.arraycopy(myIntegers, 0, retVal.myIntegers, 0, myNbVariables);
+            System.arraycopy(myObjective, 0, retVal.myObjective, 0, myNbVariables);
+
+            System.arraycopy(myRowNames, 0, retVal.myRowNames, 0, myNbRows);
+            System.arraycopy(myRowLower, 0, retVal.myRowLower, 0, myNbRows);
+            System.arraycopy(myRowUpper, 0, retVal.myRowUpper, 0, myNbRows);
+
+            retVal.myRowPointers = pointers;
+            retVal.myColumnIndices = Arrays.copyOf(columns, nnz);
+            retVal.myValues = Arrays.copyOf(values, nnz);
+
+            retVal.myQuadraticRows = Arrays.copyOf(myQuadraticRows, myNbQuadratic);
+            retVal.myQuadraticColumns = Arrays.copyOf(myQuadraticColumns, myNbQuadratic);
+            retVal.myQuadraticValues = Arrays.copyOf(myQuadraticValues, myNbQuadratic);
+
+            retVal.myConstant = myConstant;
+            retVal.mySense = mySense;
+
+            return retVal;
+        }
+
+        /**
+         * The name to index maps are only built (incrementally) if/when needed.
+         */
+        private Map<String, Integer> getRowIndices() {
+            if (myRowIndices == null) {
+                myRowIndices = new HashMap<>();
+            }
+            for (; myNbRowsIndexed < myNbRows; myNbRowsIndexed++) {
+                if (myRowNames[myNbRowsIndexed] != null) {
+                    myRowIndices.put(myRowNames[myNbRowsIndexed], Integer.valueOf(myNbRowsIndexed));
+                }
+            }
+            return myRowIndices;
+        }
+
+        private Map<String, Integer> getVariableIndices() {
+            if (myVariableIndices == null) {
+                myVariableIndices = new HashMap<>();
+            }
+            for (; myNbVariablesIndexed < myNbVariables; myNbVariablesIndexed++) {
+                if (myVariableNames[myNbVariablesIndexed] != null) {
+                    myVariableIndices.put(myVariableNames[myNbVariablesIndexed], Integer.valueOf(myNbVariablesIndexed));
+                }
+            }
+            return myVariableIndices;
+        }
+
+    }
+
+    public static SparseModel.Builder newBuilder() {
+        return new SparseModel.Builder();
+    }
+
+    /**
+     * Extract the model's variables, (linear) constraints and objective function. The values are the model's
+     * values – not adjusted/scaled.
+     *
+     * @throws ProgrammingError If the model has quadratic constraints
+     */
+    public static SparseModel of(final ExpressionsBasedModel model) {
+
+        if (model.isAnyConstraintQuadratic()) {
+            throw new ProgrammingError("Quadratic constraints are not supported!");
+        }
+
+        SparseModel.Builder builder = SparseModel.newBuilder();
+
+        List<Variable> variables = model.getVariables();
+        for (int j = 0, limit = variables.size(); j < limit; j++) {
+            Variable variable = variables.get(j);
+            builder.addVariable(variable.getName());
+            builder.bounds(j, SparseModel.toDouble(variable.getLowerLimit(), Double.NEGATIVE_INFINITY),
+                    SparseModel.toDouble(variable.getUpperLimit(), Double.POSITIVE_INFINITY));
+            builder.integer(j, variable.isInteger());
+        }
+
+        Expression objective = model.objective();
+        for (Entry<IntIndex, BigDecimal> entry : objective.getLinearEntrySet()) {
+            builder.objective(entry.getKey().index, entry.getValue().doubleValue());
+        }
+        for (Entry<IntRowColumn, BigDecimal> entry : objective.getQuadraticEntrySet()) {
+            builder.addObjective(entry.getKey().row, entry.getKey().column, entry.getValue().doubleValue());
+        }
+        builder.objectiveConstant(model.getObjectiveConstant().doubleValue());
+        builder.sense(model.getOptimisationSense());
+
+        model.constraints().forEach(constraint -> {
+            int row = builder.addConstraint(constraint.getName());
+            builder.limits(row, SparseModel.toDouble(constraint.getLowerLimit(), Double.NEGATIVE_INFINITY),
+                    SparseModel.toDouble(constraint.getUpperLimit(), Double.POSITIVE_INFINITY));
+            for (Entry<IntIndex, BigDecimal> entry : constraint.getLinearEntrySet()) {
+                builder.add(row, entry.getKey().index, entry.getValue().doubleValue());
+            }
+        });
+
+        return builder.build();
+    }
+
+    /**
+     * Parse an MPS or (CPLEX) LP file directly to a {@link SparseModel}, streaming/memory mapped and without
+     * any intermediate {@link ExpressionsBasedModel}. Compressed (".gz" or ".zip") files are decompressed while
+     * reading. The format is determined by the file name, see {@link FileFormat#from(File)}. EBM files are
+     * parsed to an {@link ExpressionsBasedModel} that is then converted.
+     */
+    public static SparseModel parse(final File file) {
+
+        FileFormat format = FileFormat.from(file);
+
+        if (format == FileFormat.EBM) {
+            return SparseModel.of(ExpressionsBasedModel.parse(file));
+        }
+
+        try (ASCIILineReader reader = ASCIILineReader.of(file)) {
+            return SparseModel.parse(reader, format);
+        } catch (IOException cause) {
+            throw new RuntimeException(cause);
+        }
+    }
+
+    public static SparseModel parse(final InputStream input, final FileFormat format) {
+
+        if (format == FileFormat.EBM) {
+            return SparseModel.of(ExpressionsBasedModel.parse(input, format));
+        }
+
+        try (ASCIILineReader reader = ASCIILineReader.of(input)) {
+            return SparseModel.parse(reader, format);
+        } catch (IOException cause) {
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * Insertion sort of the (short) index range, sorting both arrays by the indices.
+     */
+    static void sort(final int[] indices, final double[] values, final int first, final int limit) {
+        for (int k = first + 1; k < limit; k++) {
+            int index = indices[k];
+            double value = values[k];
+            int p = k - 1;
+            while (p >= first && indices[p] > index) {
+                indices[p + 1] = indices[p];
+                values[p + 1] = values[p];
+                p--;
+            }
+            indices[p + 1] = index;
+            values[p + 1] = value;
+        }
+    }
+
+    private static final double FEASIBILITY = 1E-6;
+
+    static double toDouble(final BigDecimal value, final double defaultValue) {
+        return value != null ? value.doubleValue() : defaultValue;
+    }
+
+    private static SparseModel parse(final ASCIILineReader reader, final FileFormat format) {
+        switch (format) {
+        case MPS:
+            return FileFormatFreeMPS.read(reader).build();
+        case LP:
+            return FileFormatLP.read(reader).build();
+        default:
+            throw new IllegalArgumentException();
+        }
+    }
+
+    public final Optimisation.Options options;
+
+    private transient int[] myColumnPointers = null;
+    private transient int[] myColumnRows = null;
+    private transient double[] myColumnValues = null;
+    private int[] myColumnIndices;
+    private double myConstant;
+    private final boolean[] myIntegers;
+    private final double[] myLowerBounds;
+    private final double[] myObjective;
+    private int[] myQuadraticColumns;
+    private int[] myQuadraticRows;
+    private double[] myQuadraticValues;
+    private final double[] myRowLower;
+    private final String[] myRowNames;
+    private int[] myRowPointers;
+    private final double[] myRowUpper;
+    private Optimisation.Sense mySense;
+    private final double[] myUpperBounds;
+    private double[] myValues;
+    private final String[] myVariableNames;
+
+    private SparseModel(final Optimisation.Options options, final int nbVariables, final int nbRows) {
+
+        super();
+
+        this.options = options;
+
+        myVariableNames = new String[nbVariables];
+        myLowerBounds = new double[nbVariables];
+        myUpperBounds = new double[nbVariables];
+        myIntegers = new boolean[nbVariables];
+        myObjective = new double[nbVariables];
+
+        myRowNames = new String[nbRows];
+        myRowLower = new double[nbRows];
+        myRowUpper = new double[nbRows];
+    }
+
+    /**
+     * Same data (shared) but different optimisation sense
+     */
+    private SparseModel(final SparseModel other, final Optimisation.Sense sense) {
+
+        super();
+
+        options = other.options;
+
+        myVariableNames = other.myVariableNames;
+        myLowerBounds = other.myLowerBounds;
+        myUpperBounds = other.myUpperBounds;
+        myIntegers = other.myIntegers;
+        myObjective = other.myObjective;
+
+        myRowNames = other.myRowNames;
+        myRowLower = other.myRowLower;
+        myRowUpper = other.myRowUpper;
+
+        myRowPointers = other.myRowPointers;
+        myColumnIndices = other.myColumnIndices;
+        myValues = other.myValues;
+
+        myQuadraticRows = other.myQuadraticRows;
+        myQuadraticColumns = other.myQuadraticColumns;
+        myQuadraticValues = other.myQuadraticValues;
+
+        myConstant = other.myConstant;
+        mySense = sense;
+    }
+
+    public int countConstraints() {
+        return myRowLower.length;
+    }
+
+    /**
+     * The total number of nonzero constraint coefficients
+     */
+    public int countNonzeros() {
+        return myValues.length;
+    }
+
+    /**
+     * The number of nonzero coefficients in the row
+     */
+    public int countNonzeros(final int row) {
+        return myRowPointers[row + 1] - myRowPointers[row];
+    }
+
+    /**
+     * The number of nonzero coefficients in the column (variable)
+     */
+    public int countNonzerosInColumn(final int variable) {
+        this.transpose();
+        return myColumnPointers[variable + 1] - myColumnPointers[variable];
+    }
+
+    public int countVariables() {
+        return myLowerBounds.length;
+    }
+
+    /**
+     * The row's (constraint expression's) value at the point
+     */
+    public double evaluate(final int row, final Access1D<?> point) {
+        double retVal = 0.0;
+        for (int k = myRowPointers[row], limit = myRowPointers[row + 1]; k < limit; k++) {
+            retVal += myValues[k] * point.doubleValue(myColumnIndices[k]);
+        }
+        return retVal;
+    }
+
+    /**
+     * The objective function value at the point
+     */
+    public double evaluate(final Access1D<?> point) {
+
+        double retVal = myConstant;
+
+        for (int j = 0; j < myObjective.length; j++) {
+            if (myObjective[j] != 0.0) {
+                retVal += myObjective[j] * point.doubleValue(j);
+            }
+        }
+
+        for (int q = 0; q < myQuadraticValues.length; q++) {
+            retVal += myQuadraticValues[q] * point.doubleValue(myQuadraticRows[q]) * point.doubleValue(myQuadraticColumns[q]);
+        }
+
+        return retVal;
+    }
+
+    /**
+     * @param row The row/constraint index
+     * @param k Index among the nonzeros of that row, [0,{@link #countNonzeros(int)})
+     * @return The variable index of that nonzero
+     */
+    public int getColumn(final int row, final int k) {
+        return myColumnIndices[myRowPointers[row] + k];
+    }
+
+    public String getConstraintName(final int row) {
+        return myRowNames[row];
+    }
+
+    public double getLowerBound(final int variable) {
+        return myLowerBounds[variable];
+    }
+
+    public double getLowerLimit(final int row) {
+        return myRowLower[row];
+    }
+
+    /**
+     * The linear objective function weight/factor of the variable
+     */
+    public double getObjective(final int variable) {
+        return myObjective[variable];
+    }
+
+    public double getObjectiveConstant() {
+        return myConstant;
+    }
+
+    /**
+     * @param variable The variable/column index
+     * @param k Index among the nonzeros of that column, [0,{@link #countNonzerosInColumn(int)})
+     * @return The row index of that nonzero
+     */
+    public int getRow(final int variable, final int k) {
+        this.transpose();
+        return myColumnRows[myColumnPointers[variable] + k];
+    }
+
+    /**
+     * May be null
+     */
+    public Optimisation.Sense getSense() {
+        return mySense;
+    }
+
+    public double getUpperBound(final int variable) {
+        return myUpperBounds[variable];
+    }
+
+    public double getUpperLimit(final int row) {
+        return myRowUpper[row];
+    }
+
+    /**
+     * @param row The row/constraint index
+     * @param k Index among the nonzeros of that row, [0,{@link #countNonzeros(int)})
+     * @return The coefficient value of that nonzero
+     */
+    public double getValue(final int row, final int k) {
+        return myValues[myRowPointers[row] + k];
+    }
+
+    /**
+     * @param variable The variable/column index
+     * @param k Index among the nonzeros of that column, [0,{@link #countNonzerosInColumn(int)})
+     * @return The coefficient value of that nonzero
+     */
+    public double getValueInColumn(final int variable, final int k) {
+        this.transpose();
+        return myColumnValues[myColumnPointers[variable] + k];
+    }
+
+    public String getVariableName(final int variable) {
+        return myVariableNames[variable];
+    }
+
+    public boolean isAnyObjectiveQuadratic() {
+        return myQuadraticValues.length > 0;
+    }
+
+    public boolean isAnyVariableInteger() {
+        for (int j = 0; j < myIntegers.length; j++) {
+            if (myIntegers[j]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isInteger(final int variable) {
+        return myIntegers[variable];
+    }
+
+    public Optimisation.Result maximise() {
+        return this.solve(Optimisation.Sense.MAX);
+    }
+
+    public Optimisation.Result minimise() {
+        return this.solve(Optimisation.Sense.MIN);
+    }
+
+    /**
+     * The number of quadratic objective function factors
+     */
+    public int countQuadraticFactors() {
+        return myQuadraticValues.length;
+    }
+
+    /**
+     * @param q Index among the quadratic factors, [0,{@link #countQuadraticFactors()})
+     */
+    public int getQuadraticColumn(final int q) {
+        return myQuadraticColumns[q];
+    }
+
+    /**
+     * @param q Index among the quadratic factors, [0,{@link #countQuadraticFactors()})
+     */
+    public int getQuadraticRow(final int q) {
+        return myQuadraticRows[q];
+    }
+
+    /**
+     * @param q Index among the quadratic factors, [0,{@link #countQuadraticFactors()})
+     */
+    public double getQuadraticValue(final int q) {
+        return myQuadraticValues[q];
+    }
+
+    /**
+     * Creates a new {@link ExpressionsBasedModel} with the same variables, constraints and objective
+     * function. The {@link #options} are shared.
+     */
+    public ExpressionsBasedModel toModel() {
+
+        ExpressionsBasedModel retVal = new ExpressionsBasedModel(options);
+
+        for (int j = 0, limit = this.countVariables(); j < limit; j++) {
+            String name = myVariableNames[j] != null ? myVariableNames[j] : "X" + j;
+            Variable variable = retVal.newVariable(name);
+            if (myLowerBounds[j] > Double.NEGATIVE_INFINITY) {
+                variable.lower(myLowerBounds[j]);
+            }
+            if (myUpperBounds[j] < Double.POSITIVE_INFINITY) {
+                variable.upper(myUpperBounds[j]);
+            }
+            if (myIntegers[j]) {
+                variable.integer(true);
+            }
+            if (myObjective[j] != 0.0) {
+                variable.weight(myObjective[j]);
+            }
+        }
+
+        if (myQuadraticValues.length > 0) {
+            Expression quadratic = retVal.newExpression("QUADRATIC_OBJECTIVE").weight(1);
+            for (int q = 0; q < myQuadraticValues.length; q++) {
+                quadratic.add(myQuadraticRows[q], myQuadraticColumns[q], myQuadraticValues[q]);
+            }
+        }
+
+        if (myConstant != 0.0) {
+            retVal.addObjectiveConstant(BigDecimal.valueOf(myConstant));
+        }
+
+        if (mySense != null) {
+            retVal.setOptimisationSense(mySense);
+        }
+
+        for (int i = 0, limit = this.countConstraints(); i < limit; i++) {
+            String name = myRowNames[i] != null ? myRowNames[i] : "R" + i;
+            Expression expression = retVal.newExpression(name);
+            for (int k = myRowPointers[i], end = myRowPointers[i + 1]; k < end; k++) {
+                expression.set(myColumnIndices[k], myValues[k]);
+            }
+            if (myRowLower[i] > Double.NEGATIVE_INFINITY) {
+                expression.lower(myRowLower[i]);
+            }
+            if (myRowUpper[i] < Double.POSITIVE_INFINITY) {
+                expression.upper(myRowUpper[i]);
+            }
+        }
+
+        return retVal;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("SparseModel [variables=");
+        builder.append(this.countVariables());
+        builder.append(", constraints=");
+        builder.append(this.countConstraints());
+        builder.append(", nonzeros=");
+        builder.append(this.countNonzeros());
+        builder.append("]");
+        return builder.toString();
+    }
+
+    /**
+     * Checks variable bounds and constraint limits.
+     */
+    public boolean validate(final Access1D<?> solution, final double tolerance) {
+
+        for (int j = 0, limit = this.countVariables(); j < limit; j++) {
+            double value = solution.doubleValue(j);
+            if (value < myLowerBounds[j] - tolerance || value > myUpperBounds[j] + tolerance) {
+                return false;
+            }
+        }
+
+        for (int i = 0, limit = this.countConstraints(); i < limit; i++) {
+            double activity = this.evaluate(i, solution);
+            if (activity < myRowLower[i] - tolerance || activity > myRowUpper[i] + tolerance) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private Optimisation.Result solve(final Optimisation.Sense sense) {
+
+        SparseModel model = sense == mySense ? this : new SparseModel(this, sense);
+
+        SolverTelemetry telemetry = options.telemetry();
+        long started = telemetry != null ? System.nanoTime() : 0L;
+
+        SparsePresolver presolver = new SparsePresolver(model);
+        SparseModel reduced = presolver.reduce();
+
+        if (telemetry != null) {
+            telemetry.presolve(this.countVariables(), reduced != null ? reduced.countVariables() : 0, System.nanoTime() - started);
+        }
+
+        if (reduced == null) {
+            return new Optimisation.Result(Optimisation.State.INFEASIBLE, ArrayR064.make(this.countVariables()));
+        }
+
+        return presolver.postsolve(reduced.solveDirectly());
+    }
+
+    /**
+     * No presolve, and using this model's sense
+     */
+    private Optimisation.Result solveDirectly() {
+
+        if (this.countVariables() == 0) {
+            return new Optimisation.Result(Optimisation.State.OPTIMAL, myConstant, ArrayR064.make(0));
+        }
+
+        if (this.isAnyVariableInteger()) {
+            ExpressionsBasedModel model = this.toModel();
+            return mySense == Optimisation.Sense.MAX ? model.maximise() : model.minimise();
+        }
+
+        if (this.isAnyObjectiveQuadratic() ? options.convex().interiorPoint() : options.linear().interiorPoint()) {
+            return InteriorPointSolver.of(this, options).solve();
+        }
+
+        Class<?> solver;
+        Optimisation.Result result;
+        ArrayR064 solution = ArrayR064.make(this.countVariables());
+
+        if (this.isAnyObjectiveQuadratic()) {
+
+            ConvexSolver.Builder builder = ConvexSolver.newBuilder();
+            ConvexSolver.copy(this, builder);
+
+            solver = ConvexSolver.class;
+            result = builder.build(options).solve();
+
+            for (int j = 0, limit = solution.size(); j < limit; j++) {
+                solution.set(j, result.doubleValue(j));
+            }
+
+        } else {
+
+            solver = LinearSolver.class;
+            result = this.solveLinear(solution);
+        }
+
+        if (result.getState().isFeasible() && !this.validateRelative(solution, FEASIBILITY)) {
+            // Should not happen – log it and count it
+            if (options.logger_appender != null) {
+                options.logger_appender.println("{} result ({}) failed validation – solving again via ExpressionsBasedModel", solver.getSimpleName(),
+                        result.getState());
+            }
+            SolverTelemetry telemetry = options.telemetry();
+            if (telemetry != null) {
+                telemetry.fallback(solver, result.getState());
+            }
+            ExpressionsBasedModel model = this.toModel();
+            return mySense == Optimisation.Sense.MAX ? model.maximise() : model.minimise();
+        }
+
+        return new Optimisation.Result(result.getState(), this.evaluate(solution), solution);
+    }
+
+    /**
+     * Feeds the {@link LinearSolver} non-negative variables, the same way {@link ExpressionsBasedModel} does:
+     * Each variable is shifted by its lower bound, or if that is unbounded mirrored at its upper bound.
+     * Only free variables are split in a positive and a negative part. Remaining upper bounds are
+     * inequality constraints.
+     *
+     * @param solution Where to put the solution (in terms of this model's variables)
+     */
+    private Optimisation.Result solveLinear(final ArrayR064 solution) {
+
+        int nbVariables = this.countVariables();
+        int nbConstraints = this.countConstraints();
+
+        // x[j] = shift[j] + sign[j] * y[j] - y[negative[j]]
+        double[] shift = new double[nbVariables];
+        double[] sign = new double[nbVariables];
+        int[] negative = new int[nbVariables];
+
+        int nbColumns = nbVariables;
+        int nbBounds = 0;
+        for (int j = 0; j < nbVariables; j++) {
+            double lower = myLowerBounds[j];
+            double upper = myUpperBounds[j];
+            negative[j] = -1;
+            if (lower > Double.NEGATIVE_INFINITY) {
+                shift[j] = lower;
+                sign[j] = 1.0;
+                if (upper < Double.POSITIVE_INFINITY) {
+                    nbBounds++;
+                }
+            } else if (upper < Double.POSITIVE_INFINITY) {
+                shift[j] = upper;
+                sign[j] = -1.0;
+            } else {
+                sign[j] = 1.0;
+                negative[j] = nbColumns++;
+            }
+        }
+
+        int nbEq = 0;
+        int nbIn = nbBounds;
+        double[] shifted = new double[nbConstraints];
+        for (int i = 0; i < nbConstraints; i++) {
+            for (int k = myRowPointers[i], end = myRowPointers[i + 1]; k < end; k++) {
+                shifted[i] += myValues[k] * shift[myColumnIndices[k]];
+            }
+            if (myRowLower[i] == myRowUpper[i]) {
+                nbEq++;
+            } else {
+                if (myRowUpper[i] < Double.POSITIVE_INFINITY) {
+                    nbIn++;
+                }
+                if (myRowLower[i] > Double.NEGATIVE_INFINITY) {
+                    nbIn++;
+                }
+            }
+        }
+
+        SparseStore<Double> mtrxAE = SparseStore.R064.make(nbEq, nbColumns);
+        Primitive64Store mtrxBE = Primitive64Store.FACTORY.make(nbEq, 1);
+        RowsSupplier<Double> mtrxAI = Primitive64Store.FACTORY.makeRowsSupplier(nbColumns);
+        Primitive64Store mtrxBI = Primitive64Store.FACTORY.make(nbIn, 1);
+
+        int rowE = 0;
+        int rowI = 0;
+        for (int i = 0; i < nbConstraints; i++) {
+            double lower = myRowLower[i] - shifted[i];
+            double upper = myRowUpper[i] - shifted[i];
+            if (myRowLower[i] == myRowUpper[i]) {
+                for (int k = myRowPointers[i], end = myRowPointers[i + 1]; k < end; k++) {
+                    this.setShifted(mtrxAE, rowE, k, sign, negative, 1.0);
+                }
+                mtrxBE.set(rowE++, upper);
+            } else {
+                if (upper < Double.POSITIVE_INFINITY) {
+                    SparseArray<Double> rowAI = mtrxAI.addRow();
+                    for (int k = myRowPointers[i], end = myRowPointers[i + 1]; k < end; k++) {
+                        this.setShifted(rowAI, k, sign, negative, 1.0);
+                    }
+                    mtrxBI.set(rowI++, upper);
+                }
+                if (lower > Double.NEGATIVE_INFINITY) {
+                    SparseArray<Double> rowAI = mtrxAI.addRow();
+                    for (int k = myRowPointers[i], end = myRowPointers[i + 1]; k < end; k++) {
+                        this.setShifted(rowAI, k, sign, negative, -1.0);
+                    }
+                    mtrxBI.set(rowI++, -lower);
+                }
+            }
+        }
+        for (int j = 0; j < nbVariables; j++) {
+            if (myLowerBounds[j] > Double.NEGATIVE_INFINITY && myUpperBounds[j] < Double.POSITIVE_INFINITY) {
+                mtrxAI.addRow().set(j, 1.0);
+                mtrxBI.set(rowI++, myUpperBounds[j] - myLowerBounds[j]);
+            }
+        }
+
+        double[] objective = new double[nbColumns];
+        double direction = mySense == Optimisation.Sense.MAX ? -1.0 : 1.0;
+        for (int j = 0; j < nbVariables; j++) {
+            objective[j] = direction * sign[j] * myObjective[j];
+            if (negative[j] >= 0) {
+                objective[negative[j]] = -direction * myObjective[j];
+            }
+        }
+
+        LinearSolver.GeneralBuilder builder = LinearSolver.newGeneralBuilder(objective);
+        if (nbEq > 0) {
+            builder.equalities(mtrxAE, mtrxBE);
+        }
+        if (nbIn > 0) {
+            builder.inequalities(mtrxAI, mtrxBI);
+        }
+
+        Optimisation.Result retVal = builder.build(options).solve();
+
+        for (int j = 0; j < nbVariables; j++) {
+            double value = shift[j] + sign[j] * retVal.doubleValue(j);
+            if (negative[j] >= 0) {
+                value -= retVal.doubleValue(negative[j]);
+            }
+            solution.set(j, value);
+        }
+
+        return retVal;
+    }
+
+    private void setShifted(final Mutate1D row, final int k, final double[] sign, final int[] negative, final double factor) {
+        int j = myColumnIndices[k];
+        double value = factor * myValues[k];
+        row.set(j, sign[j] * value);
+        if (negative[j] >= 0) {
+            row.set(negative[j], -value);
+        }
+    }
+
+    private void setShifted(final Mutate2D matrix, final int row, final int k, final double[] sign, final int[] negative, final double factor) {
+        int j = myColumnIndices[k];
+        double value = factor * myValues[k];
+        matrix.set(row, j, sign[j] * value);
+        if (negative[j] >= 0) {
+            matrix.set(row, negative[j], -value);
+        }
+    }
+
+    /**
+     * Lazily build the column-wise (CSC) structure
+     */
+    private synchronized void transpose() {
+
+        if (myColumnPointers != null) {
+            return;
+        }
+
+        int nbVariables = this.countVariables();
+        int nnz = myValues.length;
+
+        int[] pointers = new int[nbVariables + 1];
+        for (int k = 0; k < nnz; k++) {
+            pointers[myColumnIndices[k] + 1]++;
+        }
+        for (int j = 0; j < nbVariables; j++) {
+            pointers[j + 1] += pointers[j];
+        }
+
+        int[] rows = new int[nnz];
+        double[] values = new double[nnz];
+        int[] next = Arrays.copyOf(pointers, nbVariables);
+
+        for (int i = 0, limit = this.countConstraints(); i < limit; i++) {
+            for (int k = myRowPointers[i], end = myRowPointers[i + 1]; k < end; k++) {
+                int p = next[myColumnIndices[k]]++;
+                rows[p] = i;
+                values[p] = myValues[k];
+            }
+        }
+
+        myColumnRows = rows;
+        myColumnValues = values;
+        myColumnPointers = pointers;
+    }
+
+    /**
+     * Like {@link #validate(Access1D, double)}, but with the constraint tolerance relative to the largest
+     * (absolute) term of each row. With large coefficients and/or variable values the round-off errors are
+     * correspondingly large.
+     */
+    private boolean validateRelative(final Access1D<?> solution, final double tolerance) {
+
+        for (int j = 0, limit = this.countVariables(); j < limit; j++) {
+            double value = solution.doubleValue(j);
+            double scaled = tolerance * Math.max(1.0, Math.abs(value));
+            if (value < myLowerBounds[j] - scaled || value > myUpperBounds[j] + scaled) {
+                return false;
+            }
+        }
+
+        for (int i = 0, limit = this.countConstraints(); i < limit; i++) {
+            double activity = 0.0;
+            double largest = 1.0;
+            for (int k = myRowPointers[i], end = myRowPointers[i + 1]; k < end; k++) {
+                double term = myValues[k] * solution.doubleValue(myColumnIndices[k]);
+                activity += term;
+                largest = Math.max(largest, Math.abs(term));
+            }
+            double scaled = tolerance * largest;
+            if (activity < myRowLower[i] - scaled || activity > myRowUpper[i] + scaled) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+}
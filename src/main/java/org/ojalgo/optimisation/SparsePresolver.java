@@ -0,0 +1,1172 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.ojalgo.array.ArrayR064;
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.concurrent.Parallelism;
+import org.ojalgo.concurrent.ProcessingService;
+import org.ojalgo.structure.Access1D;
+
+/**
+ * Presolve for {@link SparseModel}:s – all in primitive double arithmetic, working on a mutable sparse
+ * row/column representation of the model. The reductions are performed in rounds, until nothing more can be
+ * done. Each round first analyses the rows (activity bounds, implied variable bounds and duplicate
+ * detection) in parallel, and then applies the reductions sequentially.
+ * <p>
+ * The reductions implemented are:
+ * <ul>
+ * <li>Empty, singleton, redundant and duplicate (parallel) rows
+ * <li>Bound propagation (only tightening integer variable bounds) and infeasibility detection
+ * <li>Fixed, empty and dominated (dual fixing) columns
+ * <li>Free column singletons in equality constraints
+ * <li>Doubleton equality constraints – substituting out a continuous variable
+ * <li>Coefficient tightening of binary variables in one-sided constraints
+ * </ul>
+ * Every variable elimination is recorded on a postsolve stack, used to map solutions to the reduced model
+ * back to solutions of the original model. Only primal solutions are mapped – any dual values (multipliers)
+ * of the reduced model's solution are dropped.
+ *
+ * @author apete
+ */
+public final class SparsePresolver {
+
+    /**
+     * Postsolve operation – recover the value of an eliminated variable.
+     */
+    abstract static class Postsolve {
+
+        final int column;
+
+        Postsolve(final int column) {
+            super();
+            this.column = column;
+        }
+
+        abstract void apply(double[] solution);
+
+    }
+
+    /**
+     * The variable was fixed at some value.
+     */
+    static final class Fixed extends Postsolve {
+
+        final double value;
+
+        Fixed(final int column, final double value) {
+            super(column);
+            this.value = value;
+        }
+
+        @Override
+        void apply(final double[] solution) {
+            solution[column] = value;
+        }
+
+    }
+
+    /**
+     * The variable was substituted out using an equality constraint: coefficient * x[column] +
+     * [values]*[x[columns]] = rhs
+     */
+    static final class Substituted extends Postsolve {
+
+        final double coefficient;
+        final int[] columns;
+        final double rhs;
+        final double[] values;
+
+        Substituted(final int column, final double coefficient, final int[] columns, final double[] values, final double rhs) {
+            super(column);
+            this.coefficient = coefficient;
+            this.columns = columns;
+            this.values = values;
+            this.rhs = rhs;
+        }
+
+        @Override
+        void apply(final double[] solution) {
+            double value = rhs;
+            for (int k = 0; k < columns.length; k++) {
+                value -= values[k] * solution[columns[k]];
+            }
+            solution[column] = value / coefficient;
+        }
+
+    }
+
+    /**
+     * Max number of presolve rounds
+     */
+    public static int MAX_ROUNDS = 100;
+    /**
+     * Rows with fewer nonzeros than this are analysed sequentially
+     */
+    public static int THRESHOLD = 512;
+
+    /**
+     * Doubleton substitution is only done if the pivot element is not too small compared to the other
+     */
+    private static final double PIVOT = 1E-3;
+    private static final double TOLERANCE = 1E-9;
+
+    private static boolean isNegInf(final double value) {
+        return value == Double.NEGATIVE_INFINITY;
+    }
+
+    private static boolean isPosInf(final double value) {
+        return value == Double.POSITIVE_INFINITY;
+    }
+
+    private static double tolerance(final double value) {
+        return Double.isFinite(value) ? TOLERANCE * Math.max(1.0, Math.abs(value)) : TOLERANCE;
+    }
+
+    private final boolean[] myActiveColumns;
+    private final boolean[] myActiveRows;
+    private int[][] myColumnRows;
+    private final int[] myColumnSizes;
+    private double myConstant;
+    private boolean myInfeasible = false;
+    private final boolean[] myIntegers;
+    private final double[] myLower;
+    private final boolean myMaximisation;
+    private final SparseModel myModel;
+    private final double[] myObjective;
+    private final List<Postsolve> myPostsolve = new ArrayList<>();
+    private final int[] myQuadraticColumns;
+    private final boolean[] myQuadratic;
+    private final int[] myQuadraticRows;
+    private final double[] myQuadraticValues;
+    private final boolean[] myQuadraticActive;
+    private int myRounds = 0;
+    private final int[][] myRowColumns;
+    private final double[] myRowLower;
+    private final int[] myRowSizes;
+    private final double[] myRowUpper;
+    private final double[][] myRowValues;
+    private final double[] myUpper;
+
+    // Row analysis, recomputed every round (in parallel)
+    private final double[] myMaxActivity;
+    private final int[] myMaxInfinite;
+    private final double[] myMinActivity;
+    private final int[] myMinInfinite;
+    private final long[] myRowHashes;
+    private final double[][] myImpliedLower;
+    private final double[][] myImpliedUpper;
+
+    // Statistics
+    private int myNbCoefficients = 0;
+    private int myNbColumns = 0;
+    private int myNbRows = 0;
+    private int myNbTightened = 0;
+
+    public SparsePresolver(final SparseModel model) {
+
+        super();
+
+        myModel = model;
+        myMaximisation = model.getSense() == Optimisation.Sense.MAX;
+
+        int nbVars = model.countVariables();
+        int nbRows = model.countConstraints();
+
+        myLower = new double[nbVars];
+        myUpper = new double[nbVars];
+        myIntegers = new boolean[nbVars];
+        myObjective = new double[nbVars];
+        myActiveColumns = new boolean[nbVars];
+        myColumnSizes = new int[nbVars];
+        myQuadratic = new boolean[nbVars];
+
+        for (int j = 0; j < nbVars; j++) {
+            myLower[j] = model.getLowerBound(j);
+            myUpper[j] = model.getUpperBound(j);
+            myIntegers[j] = model.isInteger(j);
+            myObjective[j] = model.getObjective(j);
+            myActiveColumns[j] = true;
+        }
+        myConstant = model.getObjectiveConstant();
+
+        int nbQuad = model.countQuadraticFactors();
+        myQuadraticRows = new int[nbQuad];
+        myQuadraticColumns = new int[nbQuad];
+        myQuadraticValues = new double[nbQuad];
+        myQuadraticActive = new boolean[nbQuad];
+        for (int q = 0; q < nbQuad; q++) {
+            myQuadraticRows[q] = model.getQuadraticRow(q);
+            myQuadraticColumns[q] = model.getQuadraticColumn(q);
+            myQuadraticValues[q] = model.getQuadraticValue(q);
+            myQuadraticActive[q] = true;
+            myQuadratic[myQuadraticRows[q]] = true;
+            myQuadratic[myQuadraticColumns[q]] = true;
+        }
+
+        myRowColumns = new int[nbRows][];
+        myRowValues = new double[nbRows][];
+        myRowSizes = new int[nbRows];
+        myRowLower = new double[nbRows];
+        myRowUpper = new double[nbRows];
+        myActiveRows = new boolean[nbRows];
+
+        for (int i = 0; i < nbRows; i++) {
+            int size = model.countNonzeros(i);
+            int[] columns = new int[size];
+            double[] values = new double[size];
+            for (int k = 0; k < size; k++) {
+                columns[k] = model.getColumn(i, k);
+                values[k] = model.getValue(i, k);
+                myColumnSizes[columns[k]]++;
+            }
+            myRowColumns[i] = columns;
+            myRowValues[i] = values;
+            myRowSizes[i] = size;
+            myRowLower[i] = model.getLowerLimit(i);
+            myRowUpper[i] = model.getUpperLimit(i);
+            myActiveRows[i] = true;
+        }
+
+        myColumnRows = new int[nbVars][];
+        for (int j = 0; j < nbVars; j++) {
+            myColumnRows[j] = new int[Math.max(2, myColumnSizes[j])];
+            myColumnSizes[j] = 0;
+        }
+        for (int i = 0; i < nbRows; i++) {
+            for (int k = 0; k < myRowSizes[i]; k++) {
+                int j = myRowColumns[i][k];
+                myColumnRows[j][myColumnSizes[j]++] = i;
+            }
+        }
+
+        myMinActivity = new double[nbRows];
+        myMaxActivity = new double[nbRows];
+        myMinInfinite = new int[nbRows];
+        myMaxInfinite = new int[nbRows];
+        myRowHashes = new long[nbRows];
+        myImpliedLower = new double[nbRows][];
+        myImpliedUpper = new double[nbRows][];
+    }
+
+    /**
+     * The number of presolve rounds performed
+     */
+    public int countRounds() {
+        return myRounds;
+    }
+
+    /**
+     * @return true if the model was found to be infeasible
+     */
+    public boolean isInfeasible() {
+        return myInfeasible;
+    }
+
+    /**
+     * Map a solution to the reduced model back to the original model.
+     *
+     * @param reducedSolution A solution to the reduced model, as returned by {@link #reduce()}
+     * @return A solution to the original model – the state is the same as that of the input, and the
+     *         objective function value is evaluated using the original model.
+     */
+    public Optimisation.Result postsolve(final Optimisation.Result reducedSolution) {
+
+        double[] solution = new double[myModel.countVariables()];
+
+        for (int j = 0, k = 0; j < solution.length; j++) {
+            if (myActiveColumns[j]) {
+                solution[j] = reducedSolution.doubleValue(k++);
+            }
+        }
+
+        for (int p = myPostsolve.size() - 1; p >= 0; p--) {
+            myPostsolve.get(p).apply(solution);
+        }
+
+        ArrayR064 retVal = ArrayR064.wrap(solution);
+
+        return new Optimisation.Result(reducedSolution.getState(), myModel.evaluate(retVal), retVal);
+    }
+
+    /**
+     * Perform the presolve and build a reduced model. The variables of the reduced model are those of the
+     * original model that were not eliminated, in the same relative order. Should only be called once.
+     *
+     * @return The reduced model, or null if the model was found to be infeasible
+     */
+    public SparseModel reduce() {
+
+        boolean changed = true;
+
+        while (changed && !myInfeasible && myRounds < MAX_ROUNDS) {
+
+            myRounds++;
+
+            this.analyse();
+
+            changed = this.reduceRows();
+            if (!myInfeasible) {
+                changed |= this.reduceDuplicateRows();
+                changed |= this.reduceColumns();
+                changed |= this.reduceSubstitutions();
+                changed |= this.tightenCoefficients();
+            }
+        }
+
+        if (myInfeasible) {
+            return null;
+        }
+
+        return this.build();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("SparsePresolver [rounds=");
+        builder.append(myRounds);
+        builder.append(", rows=");
+        builder.append(myNbRows);
+        builder.append(", columns=");
+        builder.append(myNbColumns);
+        builder.append(", bounds=");
+        builder.append(myNbTightened);
+        builder.append(", coefficients=");
+        builder.append(myNbCoefficients);
+        builder.append("]");
+        return builder.toString();
+    }
+
+    /**
+     * Add a (possibly) new entry to a row, or add to the existing one.
+     */
+    private void addToRow(final int row, final int column, final double value) {
+
+        int[] columns = myRowColumns[row];
+        double[] values = myRowValues[row];
+        int size = myRowSizes[row];
+
+        for (int k = 0; k < size; k++) {
+            if (columns[k] == column) {
+                double sum = values[k] + value;
+                if (Math.abs(sum) <= TOLERANCE * Math.max(Math.abs(values[k]), Math.abs(value))) {
+                    this.removeFromRow(row, k);
+                } else {
+                    values[k] = sum;
+                }
+                return;
+            }
+        }
+
+        if (size == columns.length) {
+            int capacity = Math.max(4, 2 * size);
+            myRowColumns[row] = columns = Arrays.copyOf(columns, capacity);
+            myRowValues[row] = values = Arrays.copyOf(values, capacity);
+        }
+        columns[size] = column;
+        values[size] = value;
+        myRowSizes[row] = size + 1;
+
+        int[] rows = myColumnRows[column];
+        int colSize = myColumnSizes[column];
+        if (colSize == rows.length) {
+            myColumnRows[column] = rows = Arrays.copyOf(rows, Math.max(4, 2 * colSize));
+        }
+        rows[colSize] = row;
+        myColumnSizes[column] = colSize + 1;
+    }
+
+    /**
+     * Compute row activity bounds, implied variable bounds and row hashes – in parallel.
+     */
+    private void analyse() {
+
+        int nbRows = myRowSizes.length;
+
+        DivideAndConquer.Conquerer conquerer = (first, limit) -> {
+            for (int i = first; i < limit; i++) {
+                if (myActiveRows[i]) {
+                    this.analyse(i);
+                }
+            }
+        };
+
+        if (nbRows > THRESHOLD) {
+            ProcessingService.INSTANCE.divider().parallelism(Parallelism.CORES).threshold(THRESHOLD).divide(0, nbRows, conquerer);
+        } else {
+            conquerer.conquer(0, nbRows);
+        }
+    }
+
+    private void analyse(final int row) {
+
+        int[] columns = myRowColumns[row];
+        double[] values = myRowValues[row];
+        int size = myRowSizes[row];
+
+        double minAct = 0.0;
+        double maxAct = 0.0;
+        int minInf = 0;
+        int maxInf = 0;
+
+        long hash = size;
+
+        for (int k = 0; k < size; k++) {
+
+            int j = columns[k];
+            double a = values[k];
+
+            hash = 31L * hash + j;
+
+            if (a > 0.0) {
+                if (isNegInf(myLower[j])) {
+                    minInf++;
+                } else {
+                    minAct += a * myLower[j];
+                }
+                if (isPosInf(myUpper[j])) {
+                    maxInf++;
+                } else {
+                    maxAct += a * myUpper[j];
+                }
+            } else {
+                if (isPosInf(myUpper[j])) {
+                    minInf++;
+                } else {
+                    minAct += a * myUpper[j];
+                }
+                if (isNegInf(myLower[j])) {
+                    maxInf++;
+                } else {
+                    maxAct += a * myLower[j];
+                }
+            }
+        }
+
+        myMinActivity[row] = minAct;
+        myMaxActivity[row] = maxAct;
+        myMinInfinite[row] = minInf;
+        myMaxInfinite[row] = maxInf;
+        myRowHashes[row] = hash;
+
+        // Implied bounds – only for integer variables
+
+        double lower = myRowLower[row];
+        double upper = myRowUpper[row];
+
+        double[] impliedLower = myImpliedLower[row];
+        double[] impliedUpper = myImpliedUpper[row];
+        if (impliedLower == null || impliedLower.length < size) {
+            myImpliedLower[row] = impliedLower = new double[myRowColumns[row].length];
+            myImpliedUpper[row] = impliedUpper = new double[myRowColumns[row].length];
+        }
+
+        for (int k = 0; k < size; k++) {
+
+            int j = columns[k];
+            double a = values[k];
+
+            impliedLower[k] = Double.NEGATIVE_INFINITY;
+            impliedUpper[k] = Double.POSITIVE_INFINITY;
+
+            if (!myIntegers[j]) {
+                continue;
+            }
+
+            // Residual min/max activity, excluding this variable
+            double resMin = Double.NEGATIVE_INFINITY;
+            double resMax = Double.POSITIVE_INFINITY;
+
+            if (a > 0.0) {
+                if (minInf == 0) {
+                    resMin = minAct - a * myLower[j];
+                } else if (minInf == 1 && isNegInf(myLower[j])) {
+                    resMin = minAct;
+                }
+                if (maxInf == 0) {
+                    resMax = maxAct - a * myUpper[j];
+                } else if (maxInf == 1 && isPosInf(myUpper[j])) {
+                    resMax = maxAct;
+                }
+                // a*x <= upper - resMin and a*x >= lower - resMax
+                if (!isPosInf(upper) && !isNegInf(resMin)) {
+                    impliedUpper[k] = (upper - resMin) / a;
+                }
+                if (!isNegInf(lower) && !isPosInf(resMax)) {
+                    impliedLower[k] = (lower - resMax) / a;
+                }
+            } else {
+                if (minInf == 0) {
+                    resMin = minAct - a * myUpper[j];
+                } else if (minInf == 1 && isPosInf(myUpper[j])) {
+                    resMin = minAct;
+                }
+                if (maxInf == 0) {
+                    resMax = maxAct - a * myLower[j];
+                } else if (maxInf == 1 && isNegInf(myLower[j])) {
+                    resMax = maxAct;
+                }
+                if (!isPosInf(upper) && !isNegInf(resMin)) {
+                    impliedLower[k] = (upper - resMin) / a;
+                }
+                if (!isNegInf(lower) && !isPosInf(resMax)) {
+                    impliedUpper[k] = (lower - resMax) / a;
+                }
+            }
+        }
+    }
+
+    private SparseModel build() {
+
+        SparseModel.Builder builder = SparseModel.newBuilder();
+
+        int nbVars = myLower.length;
+        int[] newIndex = new int[nbVars];
+
+        for (int j = 0; j < nbVars; j++) {
+            if (myActiveColumns[j]) {
+                int index = builder.addVariable(myModel.getVariableName(j));
+                builder.bounds(index, myLower[j], myUpper[j]).integer(index, myIntegers[j]).objective(index, myObjective[j]);
+                newIndex[j] = index;
+            } else {
+                newIndex[j] = -1;
+            }
+        }
+
+        for (int q = 0; q < myQuadraticValues.length; q++) {
+            if (myQuadraticActive[q]) {
+                builder.addObjective(newIndex[myQuadraticRows[q]], newIndex[myQuadraticColumns[q]], myQuadraticValues[q]);
+            }
+        }
+
+        builder.objectiveConstant(myConstant);
+        builder.sense(myModel.getSense());
+
+        for (int i = 0; i < myRowSizes.length; i++) {
+            if (myActiveRows[i]) {
+                int row = builder.addConstraint(myModel.getConstraintName(i));
+                builder.limits(row, myRowLower[i], myRowUpper[i]);
+                for (int k = 0; k < myRowSizes[i]; k++) {
+                    builder.add(row, newIndex[myRowColumns[i][k]], myRowValues[i][k]);
+                }
+            }
+        }
+
+        return builder.build(myModel.options);
+    }
+
+    /**
+     * Eliminate a variable by fixing it at a value.
+     */
+    private void fix(final int column, final double value) {
+
+        int[] rows = myColumnRows[column];
+        for (int c = myColumnSizes[column] - 1; c >= 0; c--) {
+            int row = rows[c];
+            int k = this.indexInRow(row, column);
+            double shift = myRowValues[row][k] * value;
+            myRowLower[row] -= shift;
+            myRowUpper[row] -= shift;
+            this.removeFromRow(row, k);
+        }
+
+        myConstant += myObjective[column] * value;
+        myObjective[column] = 0.0;
+
+        if (myQuadratic[column]) {
+            for (int q = 0; q < myQuadraticValues.length; q++) {
+                if (myQuadraticActive[q]) {
+                    int r = myQuadraticRows[q];
+                    int c = myQuadraticColumns[q];
+                    if (r == column && c == column) {
+                        myConstant += myQuadraticValues[q] * value * value;
+                        myQuadraticActive[q] = false;
+                    } else if (r == column) {
+                        myObjective[c] += myQuadraticValues[q] * value;
+                        myQuadraticActive[q] = false;
+                    } else if (c == column) {
+                        myObjective[r] += myQuadraticValues[q] * value;
+                        myQuadraticActive[q] = false;
+                    }
+                }
+            }
+        }
+
+        myLower[column] = value;
+        myUpper[column] = value;
+        myActiveColumns[column] = false;
+        myPostsolve.add(new Fixed(column, value));
+        myNbColumns++;
+    }
+
+    private int indexInRow(final int row, final int column) {
+        int[] columns = myRowColumns[row];
+        for (int k = 0, size = myRowSizes[row]; k < size; k++) {
+            if (columns[k] == column) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return The objective function weight of the variable, as if minimising
+     */
+    private double objective(final int column) {
+        return myMaximisation ? -myObjective[column] : myObjective[column];
+    }
+
+    /**
+     * Empty, fixed and dominated columns
+     */
+    private boolean reduceColumns() {
+
+        boolean retVal = false;
+
+        for (int j = 0; j < myLower.length; j++) {
+
+            if (!myActiveColumns[j]) {
+                continue;
+            }
+
+            double lower = myLower[j];
+            double upper = myUpper[j];
+
+            if (lower > upper + tolerance(upper)) {
+                myInfeasible = true;
+                return false;
+            }
+
+            if (upper - lower <= tolerance(upper)) {
+                this.fix(j, myIntegers[j] ? Math.rint(lower) : lower);
+                retVal = true;
+                continue;
+            }
+
+            if (myQuadratic[j]) {
+                continue;
+            }
+
+            double weight = this.objective(j);
+
+            // Dual fixing: count the constraints that block decreasing (down) or increasing (up) the variable
+
+            boolean downLocked = weight < 0.0;
+            boolean upLocked = weight > 0.0;
+
+            int[] rows = myColumnRows[j];
+            for (int c = 0, size = myColumnSizes[j]; c < size && !(downLocked && upLocked); c++) {
+                int row = rows[c];
+                double a = myRowValues[row][this.indexInRow(row, j)];
+                boolean hasLower = !isNegInf(myRowLower[row]);
+                boolean hasUpper = !isPosInf(myRowUpper[row]);
+                if (a > 0.0) {
+                    downLocked |= hasLower;
+                    upLocked |= hasUpper;
+                } else {
+                    downLocked |= hasUpper;
+                    upLocked |= hasLower;
+                }
+            }
+
+            if (!downLocked && !isNegInf(lower)) {
+                this.fix(j, lower);
+                retVal = true;
+            } else if (!upLocked && !isPosInf(upper)) {
+                this.fix(j, upper);
+                retVal = true;
+            } else if (!downLocked && !upLocked && myColumnSizes[j] == 0) {
+                // Empty column with zero objective weight and no finite bound
+                this.fix(j, Math.max(lower, Math.min(upper, 0.0)));
+                retVal = true;
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * Parallel rows: a row that is a multiple of another row is merged into that other row.
+     */
+    private boolean reduceDuplicateRows() {
+
+        boolean retVal = false;
+
+        Map<Long, List<Integer>> groups = new HashMap<>();
+
+        for (int i = 0; i < myRowSizes.length; i++) {
+            if (myActiveRows[i] && myRowSizes[i] > 1) {
+                groups.computeIfAbsent(Long.valueOf(myRowHashes[i]), key -> new ArrayList<>(2)).add(Integer.valueOf(i));
+            }
+        }
+
+        for (List<Integer> group : groups.values()) {
+
+            for (int g = 1, limit = group.size(); g < limit; g++) {
+
+                int row = group.get(g).intValue();
+
+                for (int h = 0; h < g; h++) {
+
+                    int other = group.get(h).intValue();
+
+                    if (!myActiveRows[other] || !myActiveRows[row]) {
+                        continue;
+                    }
+
+                    double ratio = this.ratio(row, other);
+
+                    if (ratio != 0.0) {
+                        // row = ratio * other => lower(row)/ratio <= other <= upper(row)/ratio
+                        double lower = (ratio > 0.0 ? myRowLower[row] : myRowUpper[row]) / ratio;
+                        double upper = (ratio > 0.0 ? myRowUpper[row] : myRowLower[row]) / ratio;
+                        myRowLower[other] = Math.max(myRowLower[other], lower);
+                        myRowUpper[other] = Math.min(myRowUpper[other], upper);
+                        if (myRowLower[other] > myRowUpper[other] + tolerance(myRowUpper[other])) {
+                            myInfeasible = true;
+                            return false;
+                        }
+                        this.removeRow(row);
+                        retVal = true;
+                    }
+                }
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * Empty, singleton, redundant and infeasible rows. Also bound propagation.
+     */
+    private boolean reduceRows() {
+
+        boolean retVal = false;
+
+        for (int i = 0; i < myRowSizes.length; i++) {
+
+            if (!myActiveRows[i]) {
+                continue;
+            }
+
+            double lower = myRowLower[i];
+            double upper = myRowUpper[i];
+            int size = myRowSizes[i];
+
+            if (lower > upper + tolerance(upper)) {
+                myInfeasible = true;
+                return false;
+            }
+
+            if (size == 0) {
+                if (lower > tolerance(lower) || upper < -tolerance(upper)) {
+                    myInfeasible = true;
+                    return false;
+                }
+                this.removeRow(i);
+                retVal = true;
+                continue;
+            }
+
+            // Activities are from the start of the round – bounds may since have been tightened, but that only
+            // makes these conclusions conservative.
+
+            double minAct = myMinInfinite[i] == 0 ? myMinActivity[i] : Double.NEGATIVE_INFINITY;
+            double maxAct = myMaxInfinite[i] == 0 ? myMaxActivity[i] : Double.POSITIVE_INFINITY;
+
+            if (minAct > upper + tolerance(upper) || maxAct < lower - tolerance(lower)) {
+                myInfeasible = true;
+                return false;
+            }
+
+            if (size == 1) {
+
+                int j = myRowColumns[i][0];
+                double a = myRowValues[i][0];
+
+                double newLower = (a > 0.0 ? lower : upper) / a;
+                double newUpper = (a > 0.0 ? upper : lower) / a;
+
+                // The row is removed so the bounds must always be applied
+                this.tighten(j, newLower, newUpper, true);
+                this.removeRow(i);
+                retVal = true;
+                continue;
+            }
+
+            if (minAct >= lower - tolerance(lower) && maxAct <= upper + tolerance(upper)) {
+                this.removeRow(i);
+                retVal = true;
+                continue;
+            }
+
+            double[] impliedLower = myImpliedLower[i];
+            double[] impliedUpper = myImpliedUpper[i];
+            if (impliedLower != null) {
+                int[] columns = myRowColumns[i];
+                for (int k = 0, limit = Math.min(size, impliedLower.length); k < limit; k++) {
+                    retVal |= this.tighten(columns[k], impliedLower[k], impliedUpper[k]);
+                }
+            }
+
+            if (myInfeasible) {
+                return false;
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * Free column singletons in equality rows, and doubleton equality rows.
+     */
+    private boolean reduceSubstitutions() {
+
+        boolean retVal = false;
+
+        for (int i = 0; i < myRowSizes.length; i++) {
+
+            if (!myActiveRows[i] || myRowLower[i] != myRowUpper[i]) {
+                continue;
+            }
+
+            int size = myRowSizes[i];
+            int[] columns = myRowColumns[i];
+            double[] values = myRowValues[i];
+
+            // Free column singleton
+
+            int singleton = -1;
+            for (int k = 0; k < size && singleton < 0; k++) {
+                int j = columns[k];
+                if (myColumnSizes[j] == 1 && !myIntegers[j] && !myQuadratic[j] && isNegInf(myLower[j]) && isPosInf(myUpper[j])) {
+                    singleton = k;
+                }
+            }
+
+            if (singleton >= 0) {
+                this.substitute(i, singleton);
+                retVal = true;
+                continue;
+            }
+
+            // Doubleton
+
+            if (size == 2) {
+
+                double a0 = Math.abs(values[0]);
+                double a1 = Math.abs(values[1]);
+
+                int k = -1;
+                if (this.isSubstitutable(columns[1]) && a1 >= PIVOT * a0) {
+                    k = 1;
+                }
+                if (this.isSubstitutable(columns[0]) && a0 >= PIVOT * a1 && (k < 0 || a0 > a1)) {
+                    k = 0;
+                }
+
+                if (k >= 0) {
+
+                    int other = columns[1 - k];
+                    double pivot = values[k];
+                    double coefficient = values[1 - k];
+                    double rhs = myRowUpper[i];
+                    int column = columns[k];
+
+                    // Transfer the substituted variable's bounds to the other variable
+                    double lower = myLower[column];
+                    double upper = myUpper[column];
+                    // x[column] = (rhs - coefficient * x[other]) / pivot
+                    double ratio = -coefficient / pivot;
+                    double offset = rhs / pivot;
+                    double newLower = ratio > 0.0 ? (lower - offset) / ratio : (upper - offset) / ratio;
+                    double newUpper = ratio > 0.0 ? (upper - offset) / ratio : (lower - offset) / ratio;
+                    if (isNegInf(lower) && ratio > 0.0 || isPosInf(upper) && ratio < 0.0) {
+                        newLower = Double.NEGATIVE_INFINITY;
+                    }
+                    if (isPosInf(upper) && ratio > 0.0 || isNegInf(lower) && ratio < 0.0) {
+                        newUpper = Double.POSITIVE_INFINITY;
+                    }
+                    this.tighten(other, newLower, newUpper, true);
+
+                    if (myInfeasible) {
+                        return false;
+                    }
+
+                    this.substitute(i, k);
+                    retVal = true;
+                }
+            }
+        }
+
+        return retVal;
+    }
+
+    private boolean isSubstitutable(final int column) {
+        return !myIntegers[column] && !myQuadratic[column];
+    }
+
+    private double ratio(final int row, final int other) {
+
+        int size = myRowSizes[row];
+        if (size != myRowSizes[other]) {
+            return 0.0;
+        }
+
+        int[] columns = myRowColumns[row];
+        double[] values = myRowValues[row];
+        int[] otherColumns = myRowColumns[other];
+        double[] otherValues = myRowValues[other];
+
+        double ratio = 0.0;
+
+        for (int k = 0; k < size; k++) {
+            // The hash is order dependent, so same hash means (most likely) same column order
+            if (columns[k] != otherColumns[k]) {
+                return 0.0;
+            }
+            if (k == 0) {
+                ratio = values[0] / otherValues[0];
+            } else if (Math.abs(values[k] - ratio * otherValues[k]) > TOLERANCE * Math.abs(values[k])) {
+                return 0.0;
+            }
+        }
+
+        return ratio;
+    }
+
+    private void removeFromColumn(final int column, final int row) {
+        int[] rows = myColumnRows[column];
+        int last = myColumnSizes[column] - 1;
+        for (int c = 0; c <= last; c++) {
+            if (rows[c] == row) {
+                rows[c] = rows[last];
+                myColumnSizes[column] = last;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Remove the k:th entry of the row, and the corresponding column entry
+     */
+    private void removeFromRow(final int row, final int k) {
+        int last = myRowSizes[row] - 1;
+        int column = myRowColumns[row][k];
+        // Keep the row entries in order (the duplicate row detection relies on it)
+        System.arraycopy(myRowColumns[row], k + 1, myRowColumns[row], k, last - k);
+        System.arraycopy(myRowValues[row], k + 1, myRowValues[row], k, last - k);
+        myRowSizes[row] = last;
+        this.removeFromColumn(column, row);
+    }
+
+    private void removeRow(final int row) {
+        for (int k = 0, size = myRowSizes[row]; k < size; k++) {
+            this.removeFromColumn(myRowColumns[row][k], row);
+        }
+        myRowSizes[row] = 0;
+        myActiveRows[row] = false;
+        myNbRows++;
+    }
+
+    /**
+     * Substitute out the k:th variable of an equality row, using that row. The row and the variable are
+     * removed.
+     */
+    private void substitute(final int row, final int k) {
+
+        int size = myRowSizes[row];
+        int column = myRowColumns[row][k];
+        double pivot = myRowValues[row][k];
+        double rhs = myRowUpper[row];
+
+        int[] others = new int[size - 1];
+        double[] values = new double[size - 1];
+        for (int p = 0, o = 0; p < size; p++) {
+            if (p != k) {
+                others[o] = myRowColumns[row][p];
+                values[o] = myRowValues[row][p];
+                o++;
+            }
+        }
+
+        this.removeRow(row);
+        myNbRows--; // Counted as a column reduction
+
+        // Substitute in all other rows: x[column] = (rhs - [values]*[others]) / pivot
+
+        int[] rows = Arrays.copyOf(myColumnRows[column], myColumnSizes[column]);
+        for (int r : rows) {
+            int index = this.indexInRow(r, column);
+            double d = myRowValues[r][index];
+            this.removeFromRow(r, index);
+            double factor = d / pivot;
+            myRowLower[r] -= factor * rhs;
+            myRowUpper[r] -= factor * rhs;
+            for (int o = 0; o < others.length; o++) {
+                this.addToRow(r, others[o], -factor * values[o]);
+            }
+        }
+
+        double weight = myObjective[column];
+        if (weight != 0.0) {
+            double factor = weight / pivot;
+            myConstant += factor * rhs;
+            for (int o = 0; o < others.length; o++) {
+                myObjective[others[o]] -= factor * values[o];
+            }
+            myObjective[column] = 0.0;
+        }
+
+        myActiveColumns[column] = false;
+        myPostsolve.add(new Substituted(column, pivot, others, values, rhs));
+        myNbColumns++;
+    }
+
+    private boolean tighten(final int column, final double lower, final double upper) {
+        return this.tighten(column, lower, upper, myIntegers[column]);
+    }
+
+    /**
+     * @param apply If false the new bounds are only used to detect infeasibility (and fixed variables)
+     */
+    private boolean tighten(final int column, final double lower, final double upper, final boolean apply) {
+
+        double newLower = lower;
+        double newUpper = upper;
+
+        if (myIntegers[column]) {
+            newLower = Math.ceil(newLower - tolerance(newLower));
+            newUpper = Math.floor(newUpper + tolerance(newUpper));
+        }
+
+        boolean retVal = false;
+
+        double currentLower = myLower[column];
+        double currentUpper = myUpper[column];
+
+        if (newLower > currentUpper + tolerance(currentUpper) || newUpper < currentLower - tolerance(currentLower)) {
+            myInfeasible = true;
+            return false;
+        }
+
+        if (apply) {
+            if (newLower > currentLower + tolerance(currentLower)) {
+                myLower[column] = Math.min(newLower, currentUpper);
+                retVal = true;
+            }
+            if (newUpper < currentUpper - tolerance(currentUpper)) {
+                myUpper[column] = Math.max(newUpper, myLower[column]);
+                retVal = true;
+            }
+            if (retVal) {
+                myNbTightened++;
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * Coefficient tightening of binary variables in one-sided constraints.
+     */
+    private boolean tightenCoefficients() {
+
+        boolean retVal = false;
+
+        for (int i = 0; i < myRowSizes.length; i++) {
+
+            if (!myActiveRows[i]) {
+                continue;
+            }
+
+            boolean hasLower = !isNegInf(myRowLower[i]);
+            boolean hasUpper = !isPosInf(myRowUpper[i]);
+            if (hasLower == hasUpper) {
+                continue;
+            }
+
+            // As a <= constraint: sign * row <= rhs
+            double sign = hasUpper ? 1.0 : -1.0;
+            double rhs = hasUpper ? myRowUpper[i] : -myRowLower[i];
+
+            int size = myRowSizes[i];
+            int[] columns = myRowColumns[i];
+            double[] values = myRowValues[i];
+
+            boolean binaries = false;
+            double maxAct = 0.0;
+            for (int k = 0; k < size && !Double.isInfinite(maxAct); k++) {
+                int j = columns[k];
+                double a = sign * values[k];
+                double bound = a > 0.0 ? myUpper[j] : myLower[j];
+                maxAct += a * bound;
+                binaries |= myIntegers[j] && myLower[j] == 0.0 && myUpper[j] == 1.0;
+            }
+
+            if (!binaries || Double.isInfinite(maxAct) || Double.isNaN(maxAct)) {
+                continue;
+            }
+
+            for (int k = 0; k < size; k++) {
+                int j = columns[k];
+                if (!myIntegers[j] || myLower[j] != 0.0 || myUpper[j] != 1.0) {
+                    continue;
+                }
+                double a = sign * values[k];
+                if (a > 0.0) {
+                    double delta = rhs - (maxAct - a);
+                    if (delta > tolerance(rhs) && delta < a) {
+                        values[k] = sign * (a - delta);
+                        rhs -= delta;
+                        maxAct -= delta;
+                        myNbCoefficients++;
+                        retVal = true;
+                    }
+                } else if (a < 0.0) {
+                    double delta = rhs - (maxAct + a);
+                    if (delta > tolerance(rhs) && delta < -a) {
+                        values[k] = sign * (a + delta);
+                        myNbCoefficients++;
+                        retVal = true;
+                    }
+                }
+            }
+
+            if (hasUpper) {
+                myRowUpper[i] = rhs;
+            } else {
+                myRowLower[i] = -rhs;
+            }
+        }
+
+        return retVal;
+    }
+
+}
@@ -25,6 +25,7 @@ import java.util.Collection;
 import java.util.Collections;
 
 import org.ojalgo.equation.Equation;
+import org.ojalgo.optimisation.Optimisation.ConstraintType;
 import org.ojalgo.type.keyvalue.EntryPair;
 
 public interface UpdatableSolver extends Optimisation.Solver {
@@ -87,4 +88,30 @@ public interface UpdatableSolver extends Optimisation.Solver {
 
     UpdatableSolver.EntityMap getEntityMap();
 
+    /**
+     * Change the linear objective function factor of a model variable. The solver should continue from its
+     * current state when next solved.
+     *
+     * @param index The model variable index
+     * @param change The change of the (unadjusted) linear objective factor
+     * @return true if the update is supported and was successful, otherwise false
+     */
+    default boolean updateObjective(final int index, final double change) {
+        return false;
+    }
+
+    /**
+     * Change a constraint limit – the lower or upper limit of an expression or variable, or the level of an
+     * equality constraint. This must be called before the model entity itself is changed. The solver should
+     * continue from its current state when next solved.
+     *
+     * @param entity The model entity (expression or variable) that is about to be changed
+     * @param type Which limit to change
+     * @param value The new (unadjusted) limit value
+     * @return true if the update is supported and was successful, otherwise false
+     */
+    default boolean updateRange(final ModelEntity<?> entity, final ConstraintType type, final double value) {
+        return false;
+    }
+
 }
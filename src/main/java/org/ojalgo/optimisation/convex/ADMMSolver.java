@@ -0,0 +1,764 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.convex;
+
+import static org.ojalgo.function.constant.PrimitiveMath.*;
+
+import java.util.Arrays;
+
+import org.ojalgo.array.ArrayR064;
+import org.ojalgo.optimisation.ExpressionsBasedModel;
+import org.ojalgo.optimisation.GenericSolver;
+import org.ojalgo.optimisation.Optimisation;
+import org.ojalgo.optimisation.SparseModel;
+import org.ojalgo.structure.Access1D;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * An operator splitting (ADMM) solver for convex QP (and LP) problems, in the style of OSQP. The problem is
+ * read from a {@link SparseModel} and solved in the form
+ *
+ * <pre>
+ * min 1/2 [x]<sup>T</sup>[P][x] + [q]<sup>T</sup>[x] subject to [l] &lt;= [A][x] &lt;= [u]
+ * </pre>
+ *
+ * where the variable bounds are included as (identity) rows of [A]. Each iteration solves a quasi-definite
+ * KKT system with the same matrix – it is factorised (sparse LDL<sup>T</sup>) once and then only solved
+ * with. The matrix is refactorised only when the step size parameter (rho) is adapted, or when constraints
+ * change between being equalities and inequalities.
+ * <p>
+ * The solver is meant to be reused: Change the linear objective factors, the constraint limits and/or the
+ * variable bounds, and solve again. Each solve is warm started from the previous primal and dual
+ * iterates. Convergence is typically fast to moderate accuracy, configured using
+ * {@link ConvexSolver.Configuration#admm(NumberContext)}, but slow to high accuracy. Primal and dual
+ * infeasibility (unboundedness) are detected from the differences between successive iterates.
+ *
+ * @author apete
+ */
+public final class ADMMSolver extends GenericSolver {
+
+    public static final class ModelIntegration extends ExpressionsBasedModel.Integration<ADMMSolver> {
+
+        public ADMMSolver build(final ExpressionsBasedModel model) {
+            return ADMMSolver.of(SparseModel.of(model), model.options);
+        }
+
+        public boolean isCapable(final ExpressionsBasedModel model) {
+            return !model.isAnyVariableInteger() && !model.isAnyConstraintQuadratic();
+        }
+
+        /**
+         * There are no slack or split variables – the variable bounds are rows of [A]. The solver's [x] is
+         * the model's variables.
+         */
+        @Override
+        protected boolean isSolutionMapped() {
+            return false;
+        }
+
+    }
+
+    public static final ModelIntegration INTEGRATION = new ModelIntegration();
+
+    /**
+     * Over-relaxation parameter
+     */
+    private static final double ALPHA = 1.6;
+    /**
+     * Check for convergence, and possibly adapt rho, this often
+     */
+    private static final int CHECK_INTERVAL = 5, ADAPT_INTERVAL = 50;
+    /**
+     * Rho for equality constraints is this much larger
+     */
+    private static final double EQUALITY_FACTOR = 1E3;
+    private static final double INFEASIBILITY = 1E-5;
+    private static final int MAX_ITERATIONS = 4_000;
+    private static final double RHO = 0.1, RHO_MIN = 1E-6, RHO_MAX = 1E6;
+    /**
+     * Rho is only changed (requiring a refactorisation) if it should change by more than this factor.
+     */
+    private static final double RHO_TOLERANCE = 5.0;
+    private static final int SCALING_PASSES = 10;
+    private static final double SIGMA = 1E-6;
+
+    public static ADMMSolver of(final SparseModel model, final Optimisation.Options options) {
+        return new ADMMSolver(model, options);
+    }
+
+    private static double max(final double[] values) {
+        double retVal = ZERO;
+        for (int i = 0; i < values.length; i++) {
+            retVal = Math.max(retVal, Math.abs(values[i]));
+        }
+        return retVal;
+    }
+
+    private final int[] myA_Columns;
+    private final int[] myA_Pointers;
+    private final double[] myA_Values;
+    private final double myAccuracyAbsolute;
+    private final double myAccuracyRelative;
+    private double myCostScale = ONE;
+    private SparseLDL myFactorisation = null;
+    private boolean myFactorised = false;
+    private final double[] myKKT_Values;
+    private final double[] myLower;
+    private final SparseModel myModel;
+    private final int myNbConstraints;
+    private final int myNbRows;
+    private final int myNbVariables;
+    private final double[] myP_Diagonal;
+    private final int[] myP_Columns;
+    private final int[] myP_Rows;
+    private final double[] myP_Values;
+    private final double[] myQ;
+    private double myRho = RHO;
+    private final double[] myRhos;
+    private final double[] myScaleRows;
+    private final double[] myScaleX;
+    private final double mySign;
+    private final double[] myUpper;
+    private final double[] myX;
+    private final double[] myY;
+    private final double[] myZ;
+
+    private ADMMSolver(final SparseModel model, final Optimisation.Options options) {
+
+        super(options);
+
+        myModel = model;
+
+        int nbVariables = model.countVariables();
+        int nbConstraints = model.countConstraints();
+        int nbRows = nbConstraints + nbVariables;
+
+        myNbVariables = nbVariables;
+        myNbConstraints = nbConstraints;
+        myNbRows = nbRows;
+        mySign = model.getSense() == Optimisation.Sense.MAX ? NEG : ONE;
+
+        NumberContext accuracy = options.convex().admm();
+        myAccuracyRelative = accuracy.epsilon();
+        myAccuracyAbsolute = Math.pow(TEN, -accuracy.getScale());
+
+        // Constraint rows followed by the variable bound (identity) rows
+
+        int nnz = model.countNonzeros();
+        myA_Pointers = new int[nbRows + 1];
+        myA_Columns = new int[nnz + nbVariables];
+        myA_Values = new double[nnz + nbVariables];
+        myLower = new double[nbRows];
+        myUpper = new double[nbRows];
+
+        int p = 0;
+        for (int i = 0; i < nbConstraints; i++) {
+            for (int k = 0, limit = model.countNonzeros(i); k < limit; k++) {
+                myA_Columns[p] = model.getColumn(i, k);
+                myA_Values[p++] = model.getValue(i, k);
+            }
+            myA_Pointers[i + 1] = p;
+            myLower[i] = model.getLowerLimit(i);
+            myUpper[i] = model.getUpperLimit(i);
+        }
+        for (int j = 0; j < nbVariables; j++) {
+            myA_Columns[p] = j;
+            myA_Values[p++] = ONE;
+            myA_Pointers[nbConstraints + j + 1] = p;
+            myLower[nbConstraints + j] = model.getLowerBound(j);
+            myUpper[nbConstraints + j] = model.getUpperBound(j);
+        }
+
+        // Objective
+
+        myQ = new double[nbVariables];
+        for (int j = 0; j < nbVariables; j++) {
+            myQ[j] = mySign * model.getObjective(j);
+        }
+
+        myP_Diagonal = new double[nbVariables];
+        int nbQuadratic = model.countQuadraticFactors();
+        int[] rows = new int[nbQuadratic];
+        int[] columns = new int[nbQuadratic];
+        double[] values = new double[nbQuadratic];
+        int nbP = 0;
+        for (int q = 0; q < nbQuadratic; q++) {
+            int row = model.getQuadraticRow(q);
+            int col = model.getQuadraticColumn(q);
+            double factor = mySign * model.getQuadraticValue(q);
+            if (row == col) {
+                myP_Diagonal[row] += TWO * factor;
+            } else {
+                rows[nbP] = Math.min(row, col);
+                columns[nbP] = Math.max(row, col);
+                values[nbP++] = factor;
+            }
+        }
+        myP_Rows = Arrays.copyOf(rows, nbP);
+        myP_Columns = Arrays.copyOf(columns, nbP);
+        myP_Values = Arrays.copyOf(values, nbP);
+
+        myScaleX = new double[nbVariables];
+        myScaleRows = new double[nbRows];
+        this.scale();
+
+        myRhos = new double[nbRows];
+        this.updateRhos();
+
+        myKKT_Values = new double[nbVariables + nbP + myA_Values.length + nbRows];
+
+        myX = new double[nbVariables];
+        myZ = new double[nbRows];
+        myY = new double[nbRows];
+    }
+
+    /**
+     * Forget the previous iterates – the next solve is started from scratch (unless there is a kick
+     * starter).
+     */
+    public void reset() {
+        Arrays.fill(myX, ZERO);
+        Arrays.fill(myZ, ZERO);
+        Arrays.fill(myY, ZERO);
+    }
+
+    /**
+     * Change the bounds of a variable
+     */
+    public void setBounds(final int variable, final double lower, final double upper) {
+        this.setRow(myNbConstraints + variable, lower, upper);
+    }
+
+    /**
+     * Change the lower/upper limits of a constraint
+     */
+    public void setLimits(final int constraint, final double lower, final double upper) {
+        this.setRow(constraint, lower, upper);
+    }
+
+    /**
+     * Change the linear objective function factor of a variable
+     */
+    public void setLinearFactor(final int variable, final double factor) {
+        myQ[variable] = myCostScale * myScaleX[variable] * mySign * factor;
+    }
+
+    /**
+     * Set all the linear objective function factors
+     */
+    public void setLinearFactors(final Access1D<?> factors) {
+        for (int j = 0; j < myNbVariables; j++) {
+            this.setLinearFactor(j, factors.doubleValue(j));
+        }
+    }
+
+    /**
+     * Solves, warm started from the previous iterates. If the kick starter contains a solution the primal
+     * iterate is set from that instead.
+     */
+    public Optimisation.Result solve(final Optimisation.Result kickStarter) {
+
+        int nbVariables = myNbVariables;
+        int nbRows = myNbRows;
+
+        for (int i = 0; i < nbRows; i++) {
+            if (myLower[i] > myUpper[i]) {
+                return this.buildResult(Optimisation.State.INFEASIBLE);
+            }
+        }
+
+        if (myFactorisation == null) {
+            myFactorisation = this.analyse();
+        }
+        if (!myFactorised) {
+            if (!this.factor()) {
+                return this.buildResult(Optimisation.State.FAILED);
+            }
+            myFactorised = true;
+        }
+
+        double[] x = myX;
+        double[] z = myZ;
+        double[] y = myY;
+
+        if (kickStarter != null && kickStarter.getState().isApproximate() && kickStarter.size() == nbVariables) {
+            for (int j = 0; j < nbVariables; j++) {
+                x[j] = kickStarter.doubleValue(j) / myScaleX[j];
+            }
+            this.multiplyA(x, z);
+        }
+        for (int i = 0; i < nbRows; i++) {
+            z[i] = Math.max(myLower[i], Math.min(myUpper[i], z[i]));
+        }
+
+        double[] work = new double[nbVariables + nbRows];
+        double[] previousX = new double[nbVariables];
+        double[] previousY = new double[nbRows];
+        double[] ax = new double[nbRows];
+        double[] px = new double[nbVariables];
+        double[] aty = new double[nbVariables];
+
+        this.resetIterationsCount();
+
+        Optimisation.State state = null;
+
+        while (state == null) {
+
+            System.arraycopy(x, 0, previousX, 0, nbVariables);
+            System.arraycopy(y, 0, previousY, 0, nbRows);
+
+            for (int j = 0; j < nbVariables; j++) {
+                work[j] = SIGMA * x[j] - myQ[j];
+            }
+            for (int i = 0; i < nbRows; i++) {
+                work[nbVariables + i] = z[i] - y[i] / myRhos[i];
+            }
+
+            myFactorisation.solve(work);
+
+            for (int j = 0; j < nbVariables; j++) {
+                x[j] = ALPHA * work[j] + (ONE - ALPHA) * x[j];
+            }
+            for (int i = 0; i < nbRows; i++) {
+                double rho = myRhos[i];
+                double tilde = z[i] + (work[nbVariables + i] - y[i]) / rho;
+                double relaxed = ALPHA * tilde + (ONE - ALPHA) * z[i];
+                z[i] = Math.max(myLower[i], Math.min(myUpper[i], relaxed + y[i] / rho));
+                y[i] += rho * (relaxed - z[i]);
+            }
+
+            this.incrementIterationsCount();
+            int iterations = this.countIterations();
+
+            boolean last = iterations >= MAX_ITERATIONS || !this.isIterationAllowed();
+
+            if (last || iterations % CHECK_INTERVAL == 0) {
+
+                this.multiplyA(x, ax);
+                this.multiplyP(x, px);
+                this.multiplyAT(y, aty);
+
+                // Residuals and norms – unscaled to check convergence, scaled to adapt rho
+
+                double residualPrimal = ZERO, normPrimal = ZERO, scaledPrimal = ZERO, scaledNormPrimal = ZERO;
+                for (int i = 0; i < nbRows; i++) {
+                    double residual = Math.abs(ax[i] - z[i]);
+                    double norm = Math.max(Math.abs(ax[i]), Math.abs(z[i]));
+                    double unscale = ONE / myScaleRows[i];
+                    residualPrimal = Math.max(residualPrimal, residual * unscale);
+                    normPrimal = Math.max(normPrimal, norm * unscale);
+                    scaledPrimal = Math.max(scaledPrimal, residual);
+                    scaledNormPrimal = Math.max(scaledNormPrimal, norm);
+                }
+
+                double residualDual = ZERO, normDual = ZERO, scaledDual = ZERO, scaledNormDual = ZERO;
+                for (int j = 0; j < nbVariables; j++) {
+                    double residual = Math.abs(px[j] + myQ[j] + aty[j]);
+                    double norm = Math.max(Math.abs(px[j]), Math.max(Math.abs(aty[j]), Math.abs(myQ[j])));
+                    double unscale = ONE / (myScaleX[j] * myCostScale);
+                    residualDual = Math.max(residualDual, residual * unscale);
+                    normDual = Math.max(normDual, norm * unscale);
+                    scaledDual = Math.max(scaledDual, residual);
+                    scaledNormDual = Math.max(scaledNormDual, norm);
+                }
+
+                if (this.isLogDebug()) {
+                    this.log("{}: primal={} dual={} rho={}", iterations, residualPrimal, residualDual, myRho);
+                }
+
+                if (residualPrimal <= myAccuracyAbsolute + myAccuracyRelative * normPrimal
+                        && residualDual <= myAccuracyAbsolute + myAccuracyRelative * normDual) {
+                    state = Optimisation.State.OPTIMAL;
+                } else if (this.isPrimalInfeasible(previousY)) {
+                    state = Optimisation.State.INFEASIBLE;
+                } else if (this.isDualInfeasible(previousX)) {
+                    state = Optimisation.State.UNBOUNDED;
+                } else if (last) {
+                    state = residualPrimal <= Math.sqrt(myAccuracyAbsolute + myAccuracyRelative * normPrimal) ? Optimisation.State.APPROXIMATE
+                            : Optimisation.State.FAILED;
+                } else if (iterations % ADAPT_INTERVAL == 0 && !this.adapt(scaledPrimal / Math.max(scaledNormPrimal, MACHINE_EPSILON),
+                        scaledDual / Math.max(scaledNormDual, MACHINE_EPSILON))) {
+                    state = Optimisation.State.FAILED;
+                }
+            }
+        }
+
+        if (state == Optimisation.State.INFEASIBLE || state == Optimisation.State.UNBOUNDED || state == Optimisation.State.FAILED) {
+            // Don't warm start from a certificate, or whatever it is
+            Optimisation.Result retVal = this.buildResult(state);
+            this.reset();
+            return retVal;
+        }
+
+        return this.buildResult(state);
+    }
+
+    /**
+     * Adapt rho to balance the (relative) primal and dual residuals. Refactorises if rho changes.
+     *
+     * @return false if the refactorisation failed
+     */
+    private boolean adapt(final double primal, final double dual) {
+
+        double rho = myRho * Math.sqrt(primal / Math.max(dual, MACHINE_EPSILON));
+        rho = Math.max(RHO_MIN, Math.min(RHO_MAX, rho));
+
+        if (rho > RHO_TOLERANCE * myRho || rho * RHO_TOLERANCE < myRho) {
+            myRho = rho;
+            this.updateRhos();
+            myFactorised = this.factor();
+            return myFactorised;
+        }
+
+        return true;
+    }
+
+    private SparseLDL analyse() {
+
+        int nbVariables = myNbVariables;
+        int nbP = myP_Values.length;
+        int nbEntries = myKKT_Values.length;
+
+        int[] rows = new int[nbEntries];
+        int[] columns = new int[nbEntries];
+
+        int e = 0;
+        for (int j = 0; j < nbVariables; j++, e++) {
+            rows[e] = j;
+            columns[e] = j;
+        }
+        for (int h = 0; h < nbP; h++, e++) {
+            rows[e] = myP_Rows[h];
+            columns[e] = myP_Columns[h];
+        }
+        for (int i = 0; i < myNbRows; i++) {
+            for (int p = myA_Pointers[i], limit = myA_Pointers[i + 1]; p < limit; p++, e++) {
+                rows[e] = nbVariables + i;
+                columns[e] = myA_Columns[p];
+            }
+        }
+        for (int i = 0; i < myNbRows; i++, e++) {
+            rows[e] = nbVariables + i;
+            columns[e] = nbVariables + i;
+        }
+
+        boolean[] negative = new boolean[nbVariables + myNbRows];
+        Arrays.fill(negative, nbVariables, negative.length, true);
+
+        return new SparseLDL(nbVariables + myNbRows, rows, columns, nbEntries, negative);
+    }
+
+    private Optimisation.Result buildResult(final Optimisation.State state) {
+
+        ArrayR064 solution = ArrayR064.make(myNbVariables);
+        double[] x = new double[myNbVariables];
+
+        for (int j = 0; j < myNbVariables; j++) {
+            int i = myNbConstraints + j;
+            double lower = myLower[i] / myScaleRows[i];
+            double upper = myUpper[i] / myScaleRows[i];
+            double value = Math.max(lower, Math.min(upper, myScaleX[j] * myX[j]));
+            solution.set(j, value);
+            x[j] = value / myScaleX[j];
+        }
+
+        // The objective function may have changed since the model was created
+
+        double[] px = new double[myNbVariables];
+        this.multiplyP(x, px);
+        double value = ZERO;
+        for (int j = 0; j < myNbVariables; j++) {
+            value += (HALF * px[j] + myQ[j]) * x[j];
+        }
+
+        return new Optimisation.Result(state, mySign * value / myCostScale + myModel.getObjectiveConstant(), solution);
+    }
+
+    private boolean factor() {
+        long started = this.startFactorisation();
+        boolean retVal = myFactorisation.factor(this.values());
+        this.reportFactorisation(myNbVariables + myNbRows, started);
+        return retVal;
+    }
+
+    /**
+     * Is the change in x a certificate of dual infeasibility (unboundedness)?
+     */
+    private boolean isDualInfeasible(final double[] previousX) {
+
+        double[] dx = new double[myNbVariables];
+        double norm = ZERO;
+        double objective = ZERO;
+        for (int j = 0; j < myNbVariables; j++) {
+            dx[j] = myX[j] - previousX[j];
+            norm = Math.max(norm, Math.abs(myScaleX[j] * dx[j]));
+            objective += myQ[j] * dx[j];
+        }
+
+        if (norm <= MACHINE_EPSILON) {
+            return false;
+        }
+
+        double limit = INFEASIBILITY * norm;
+
+        if (objective / myCostScale > -limit) {
+            return false;
+        }
+
+        double[] product = new double[myNbVariables];
+        this.multiplyP(dx, product);
+        for (int j = 0; j < myNbVariables; j++) {
+            if (Math.abs(product[j]) / (myScaleX[j] * myCostScale) > limit) {
+                return false;
+            }
+        }
+
+        double[] adx = new double[myNbRows];
+        this.multiplyA(dx, adx);
+        for (int i = 0; i < myNbRows; i++) {
+            double value = adx[i] / myScaleRows[i];
+            if (myUpper[i] < Double.POSITIVE_INFINITY && value > limit || myLower[i] > Double.NEGATIVE_INFINITY && value < -limit) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Is the change in y a certificate of primal infeasibility?
+     */
+    private boolean isPrimalInfeasible(final double[] previousY) {
+
+        double[] dy = new double[myNbRows];
+        double norm = ZERO;
+        for (int i = 0; i < myNbRows; i++) {
+            dy[i] = myY[i] - previousY[i];
+            norm = Math.max(norm, Math.abs(myScaleRows[i] * dy[i]));
+        }
+
+        if (norm <= MACHINE_EPSILON) {
+            return false;
+        }
+
+        double limit = INFEASIBILITY * norm;
+
+        double support = ZERO;
+        for (int i = 0; i < myNbRows; i++) {
+            double value = dy[i];
+            if (value > ZERO) {
+                if (myUpper[i] < Double.POSITIVE_INFINITY) {
+                    support += myUpper[i] * value;
+                } else if (myScaleRows[i] * value > limit) {
+                    return false;
+                }
+            } else if (value < ZERO) {
+                if (myLower[i] > Double.NEGATIVE_INFINITY) {
+                    support += myLower[i] * value;
+                } else if (-myScaleRows[i] * value > limit) {
+                    return false;
+                }
+            }
+        }
+
+        if (support > -limit) {
+            return false;
+        }
+
+        double[] product = new double[myNbVariables];
+        this.multiplyAT(dy, product);
+        for (int j = 0; j < myNbVariables; j++) {
+            if (Math.abs(product[j]) / myScaleX[j] > limit) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void multiplyA(final double[] x, final double[] product) {
+        for (int i = 0; i < myNbRows; i++) {
+            double sum = ZERO;
+            for (int p = myA_Pointers[i], limit = myA_Pointers[i + 1]; p < limit; p++) {
+                sum += myA_Values[p] * x[myA_Columns[p]];
+            }
+            product[i] = sum;
+        }
+    }
+
+    private void multiplyAT(final double[] y, final double[] product) {
+        Arrays.fill(product, ZERO);
+        for (int i = 0; i < myNbRows; i++) {
+            double yi = y[i];
+            if (yi != ZERO) {
+                for (int p = myA_Pointers[i], limit = myA_Pointers[i + 1]; p < limit; p++) {
+                    product[myA_Columns[p]] += myA_Values[p] * yi;
+                }
+            }
+        }
+    }
+
+    private void multiplyP(final double[] x, final double[] product) {
+        for (int j = 0; j < myNbVariables; j++) {
+            product[j] = myP_Diagonal[j] * x[j];
+        }
+        for (int h = 0; h < myP_Values.length; h++) {
+            int r = myP_Rows[h];
+            int c = myP_Columns[h];
+            product[r] += myP_Values[h] * x[c];
+            product[c] += myP_Values[h] * x[r];
+        }
+    }
+
+    /**
+     * Ruiz equilibration of the KKT matrix using powers of 2, followed by scaling of the objective function.
+     */
+    private void scale() {
+
+        int nbVariables = myNbVariables;
+        int nbRows = myNbRows;
+
+        Arrays.fill(myScaleX, ONE);
+        Arrays.fill(myScaleRows, ONE);
+
+        double[] normX = new double[nbVariables];
+        double[] normRows = new double[nbRows];
+
+        for (int pass = 0; pass < SCALING_PASSES; pass++) {
+
+            for (int j = 0; j < nbVariables; j++) {
+                normX[j] = Math.abs(myP_Diagonal[j]);
+            }
+            for (int h = 0; h < myP_Values.length; h++) {
+                double value = Math.abs(myP_Values[h]);
+                normX[myP_Rows[h]] = Math.max(normX[myP_Rows[h]], value);
+                normX[myP_Columns[h]] = Math.max(normX[myP_Columns[h]], value);
+            }
+            for (int i = 0; i < nbRows; i++) {
+                double norm = ZERO;
+                for (int p = myA_Pointers[i], limit = myA_Pointers[i + 1]; p < limit; p++) {
+                    double value = Math.abs(myA_Values[p]);
+                    norm = Math.max(norm, value);
+                    normX[myA_Columns[p]] = Math.max(normX[myA_Columns[p]], value);
+                }
+                normRows[i] = norm;
+            }
+
+            boolean changed = false;
+
+            for (int j = 0; j < nbVariables; j++) {
+                double factor = ConvexSolver.scale(normX[j]);
+                normX[j] = factor;
+                if (factor != ONE) {
+                    changed = true;
+                    myScaleX[j] *= factor;
+                    myP_Diagonal[j] *= factor * factor;
+                    myQ[j] *= factor;
+                }
+            }
+            for (int h = 0; h < myP_Values.length; h++) {
+                myP_Values[h] *= normX[myP_Rows[h]] * normX[myP_Columns[h]];
+            }
+            for (int i = 0; i < nbRows; i++) {
+                double factor = ConvexSolver.scale(normRows[i]);
+                if (factor != ONE) {
+                    changed = true;
+                    myScaleRows[i] *= factor;
+                    myLower[i] *= factor;
+                    myUpper[i] *= factor;
+                }
+                for (int p = myA_Pointers[i], limit = myA_Pointers[i + 1]; p < limit; p++) {
+                    myA_Values[p] *= factor * normX[myA_Columns[p]];
+                }
+            }
+
+            if (!changed) {
+                break;
+            }
+        }
+
+        double norm = ZERO;
+        for (int j = 0; j < nbVariables; j++) {
+            norm += Math.abs(myP_Diagonal[j]);
+        }
+        norm = Math.max(norm / Math.max(1, nbVariables), ADMMSolver.max(myQ));
+        if (norm > ZERO && Double.isFinite(norm)) {
+            myCostScale = Math.scalb(ONE, -Math.getExponent(norm));
+            for (int j = 0; j < nbVariables; j++) {
+                myP_Diagonal[j] *= myCostScale;
+                myQ[j] *= myCostScale;
+            }
+            for (int h = 0; h < myP_Values.length; h++) {
+                myP_Values[h] *= myCostScale;
+            }
+        }
+    }
+
+    private double rho(final int row) {
+        if (myLower[row] == Double.NEGATIVE_INFINITY && myUpper[row] == Double.POSITIVE_INFINITY) {
+            return RHO_MIN;
+        } else if (myLower[row] == myUpper[row]) {
+            return EQUALITY_FACTOR * myRho;
+        } else {
+            return myRho;
+        }
+    }
+
+    private void setRow(final int row, final double lower, final double upper) {
+
+        myLower[row] = myScaleRows[row] * lower;
+        myUpper[row] = myScaleRows[row] * upper;
+
+        double rho = this.rho(row);
+        if (rho != myRhos[row]) {
+            myRhos[row] = rho;
+            myFactorised = false;
+        }
+    }
+
+    private void updateRhos() {
+        for (int i = 0; i < myNbRows; i++) {
+            myRhos[i] = this.rho(i);
+        }
+    }
+
+    private double[] values() {
+
+        double[] retVal = myKKT_Values;
+
+        int e = 0;
+        for (int j = 0; j < myNbVariables; j++) {
+            retVal[e++] = myP_Diagonal[j] + SIGMA;
+        }
+        for (int h = 0; h < myP_Values.length; h++) {
+            retVal[e++] = myP_Values[h];
+        }
+        System.arraycopy(myA_Values, 0, retVal, e, myA_Values.length);
+        e += myA_Values.length;
+        for (int i = 0; i < myNbRows; i++) {
+            retVal[e++] = -ONE / myRhos[i];
+        }
+
+        return retVal;
+    }
+
+}
@@ -51,6 +51,7 @@ import org.ojalgo.optimisation.ExpressionsBasedModel;
 import org.ojalgo.optimisation.GenericSolver;
 import org.ojalgo.optimisation.Optimisation;
 import org.ojalgo.optimisation.OptimisationData;
+import org.ojalgo.optimisation.SparseModel;
 import org.ojalgo.optimisation.UpdatableSolver;
 import org.ojalgo.optimisation.Variable;
 import org.ojalgo.optimisation.linear.LinearSolver;
@@ -366,11 +367,59 @@ public abstract class ConvexSolver extends GenericSolver implements UpdatableSol
 
     public static final class Configuration {
 
+        private NumberContext myADMM = NumberContext.of(6, 8);
+        private boolean myInteriorPoint = false;
         private NumberContext myIterative = NumberContext.of(10, 14).withMode(RoundingMode.HALF_DOWN);
         private double mySmallDiagonal = RELATIVELY_SMALL + MACHINE_EPSILON;
         private Function<Structure2D, MatrixDecomposition.Solver<Double>> mySolverGeneral = LU.R064::make;
         private Function<Structure2D, MatrixDecomposition.Solver<Double>> mySolverSPD = Cholesky.R064::make;
 
+        public NumberContext admm() {
+            return myADMM;
+        }
+
+        /**
+         * The accuracy of the {@link ADMMSolver}. The precision determines the relative, and the scale the
+         * absolute, tolerance of the primal and dual residuals. The default is moderate accuracy – more
+         * accuracy requires many more iterations.
+         */
+        public Configuration admm(final NumberContext accuracy) {
+            Objects.requireNonNull(accuracy);
+            myADMM = accuracy;
+            return this;
+        }
+
+        /**
+         * @return A new instance with the same settings
+         */
+        public Configuration copy() {
+
+            Configuration retVal = new Configuration();
+
+            retVal.myADMM = myADMM;
+            retVal.myInteriorPoint = myInteriorPoint;
+            retVal.myIterative = myIterative;
+            retVal.mySmallDiagonal = mySmallDiagonal;
+            retVal.mySolverGeneral = mySolverGeneral;
+            retVal.mySolverSPD = mySolverSPD;
+
+            return retVal;
+        }
+
+        public boolean interiorPoint() {
+            return myInteriorPoint;
+        }
+
+        /**
+         * Solve (continuous) QP models from {@link ExpressionsBasedModel} using the
+         * {@link InteriorPointSolver} rather than the active set solvers. Can be much faster for large
+         * models with many inequality constraints, but there is no warm start.
+         */
+        public Configuration interiorPoint(final boolean interiorPoint) {
+            myInteriorPoint = interiorPoint;
+            return this;
+        }
+
         public NumberContext iterative() {
             return myIterative;
         }
@@ -607,6 +656,178 @@ public abstract class ConvexSolver extends GenericSolver implements UpdatableSol
         }
     }
 
+    /**
+     * Same as {@link #copy(ExpressionsBasedModel, Builder)} but reading the primitive (double) data of a
+     * {@link SparseModel}. All variables are kept (fixed variables become equality constraints), so the
+     * solution is in the same order as the model's variables. Integer constraints are ignored.
+     */
+    public static void copy(final SparseModel sourceModel, final ConvexSolver.Builder destinationBuilder) {
+
+        destinationBuilder.reset();
+
+        int nbVariables = sourceModel.countVariables();
+        int nbConstraints = sourceModel.countConstraints();
+
+        int nbEq = 0;
+        int nbIn = 0;
+        for (int i = 0; i < nbConstraints; i++) {
+            double lower = sourceModel.getLowerLimit(i);
+            double upper = sourceModel.getUpperLimit(i);
+            if (lower == upper) {
+                nbEq++;
+            } else {
+                if (upper < Double.POSITIVE_INFINITY) {
+                    nbIn++;
+                }
+                if (lower > Double.NEGATIVE_INFINITY) {
+                    nbIn++;
+                }
+            }
+        }
+        for (int j = 0; j < nbVariables; j++) {
+            double lower = sourceModel.getLowerBound(j);
+            double upper = sourceModel.getUpperBound(j);
+            if (lower == upper) {
+                nbEq++;
+            } else {
+                if (upper < Double.POSITIVE_INFINITY) {
+                    nbIn++;
+                }
+                if (lower > Double.NEGATIVE_INFINITY) {
+                    nbIn++;
+                }
+            }
+        }
+
+        // AE & BE
+
+        if (nbEq > 0) {
+
+            SparseStore<Double> mtrxAE = SparseStore.R064.make(nbEq, nbVariables);
+            PhysicalStore<Double> mtrxBE = Primitive64Store.FACTORY.make(nbEq, 1);
+
+            int row = 0;
+            for (int i = 0; i < nbConstraints; i++) {
+                double upper = sourceModel.getUpperLimit(i);
+                if (sourceModel.getLowerLimit(i) == upper) {
+                    double scale = ConvexSolver.scale(sourceModel, i);
+                    for (int k = 0, limit = sourceModel.countNonzeros(i); k < limit; k++) {
+                        mtrxAE.set(row, sourceModel.getColumn(i, k), scale * sourceModel.getValue(i, k));
+                    }
+                    mtrxBE.set(row, 0, scale * upper);
+                    row++;
+                }
+            }
+            for (int j = 0; j < nbVariables; j++) {
+                double upper = sourceModel.getUpperBound(j);
+                if (sourceModel.getLowerBound(j) == upper) {
+                    mtrxAE.set(row, j, ONE);
+                    mtrxBE.set(row, 0, upper);
+                    row++;
+                }
+            }
+
+            destinationBuilder.equalities(mtrxAE, mtrxBE);
+        }
+
+        // Q & C
+
+        boolean max = sourceModel.getSense() == Optimisation.Sense.MAX;
+
+        PhysicalStore<Double> mtrxQ = null;
+        if (sourceModel.isAnyObjectiveQuadratic()) {
+            mtrxQ = Primitive64Store.FACTORY.make(nbVariables, nbVariables);
+            for (int q = 0, limit = sourceModel.countQuadraticFactors(); q < limit; q++) {
+                int row = sourceModel.getQuadraticRow(q);
+                int col = sourceModel.getQuadraticColumn(q);
+                double factor = max ? -sourceModel.getQuadraticValue(q) : sourceModel.getQuadraticValue(q);
+                mtrxQ.add(row, col, factor);
+                mtrxQ.add(col, row, factor);
+            }
+        }
+
+        PhysicalStore<Double> mtrxC = Primitive64Store.FACTORY.make(nbVariables, 1);
+        for (int j = 0; j < nbVariables; j++) {
+            double weight = sourceModel.getObjective(j);
+            if (weight != ZERO) {
+                mtrxC.set(j, 0, max ? weight : -weight);
+            }
+        }
+
+        destinationBuilder.objective(mtrxQ, mtrxC);
+
+        // AI & BI
+
+        if (nbIn > 0) {
+
+            RowsSupplier<Double> mtrxAI = Primitive64Store.FACTORY.makeRowsSupplier(nbVariables);
+            PhysicalStore<Double> mtrxBI = Primitive64Store.FACTORY.make(nbIn, 1);
+
+            int row = 0;
+            for (int i = 0; i < nbConstraints; i++) {
+                double lower = sourceModel.getLowerLimit(i);
+                double upper = sourceModel.getUpperLimit(i);
+                if (lower != upper) {
+                    int limit = sourceModel.countNonzeros(i);
+                    double scale = ConvexSolver.scale(sourceModel, i);
+                    if (upper < Double.POSITIVE_INFINITY) {
+                        SparseArray<Double> rowAI = mtrxAI.addRow();
+                        for (int k = 0; k < limit; k++) {
+                            rowAI.set(sourceModel.getColumn(i, k), scale * sourceModel.getValue(i, k));
+                        }
+                        mtrxBI.set(row++, 0, scale * upper);
+                    }
+                    if (lower > Double.NEGATIVE_INFINITY) {
+                        SparseArray<Double> rowAI = mtrxAI.addRow();
+                        for (int k = 0; k < limit; k++) {
+                            rowAI.set(sourceModel.getColumn(i, k), -scale * sourceModel.getValue(i, k));
+                        }
+                        mtrxBI.set(row++, 0, -scale * lower);
+                    }
+                }
+            }
+            for (int j = 0; j < nbVariables; j++) {
+                double lower = sourceModel.getLowerBound(j);
+                double upper = sourceModel.getUpperBound(j);
+                if (lower != upper) {
+                    if (upper < Double.POSITIVE_INFINITY) {
+                        mtrxAI.addRow().set(j, ONE);
+                        mtrxBI.set(row++, 0, upper);
+                    }
+                    if (lower > Double.NEGATIVE_INFINITY) {
+                        mtrxAI.addRow().set(j, NEG);
+                        mtrxBI.set(row++, 0, -lower);
+                    }
+                }
+            }
+
+            destinationBuilder.inequalities(mtrxAI, mtrxBI);
+        }
+    }
+
+    /**
+     * A power of 2 that brings the largest (absolute) coefficient of the row close to 1. Scaling by powers of 2 is
+     * exact, and the constraints are equivalent, but the solvers are better off with rows of similar magnitudes.
+     */
+    static double scale(final SparseModel sourceModel, final int row) {
+
+        double largest = ZERO;
+        for (int k = 0, limit = sourceModel.countNonzeros(row); k < limit; k++) {
+            largest = Math.max(largest, Math.abs(sourceModel.getValue(row, k)));
+        }
+
+        return largest > ZERO ? Math.scalb(ONE, -Math.getExponent(largest)) : ONE;
+    }
+
+    /**
+     * The power of 2 closest to 1/sqrt(norm). One (Ruiz) equilibration step for a row/column of a symmetric
+     * KKT matrix, scaled from both sides, brings its (infinity) norm close to 1. Nonpositive and non-finite
+     * norms give 1.
+     */
+    static double scale(final double norm) {
+        return norm > ZERO && Double.isFinite(norm) ? Math.scalb(ONE, -Math.getExponent(norm) / 2) : ONE;
+    }
+
     public static Builder newBuilder() {
         return new Builder();
     }
@@ -723,7 +944,10 @@ public abstract class ConvexSolver extends GenericSolver implements UpdatableSol
     }
 
     protected boolean computeGeneral(final Collectable<Double, ? super PhysicalStore<Double>> matrix) {
-        return mySolverGeneral.compute(matrix);
+        long started = this.startFactorisation();
+        boolean retVal = mySolverGeneral.compute(matrix);
+        this.reportFactorisation(matrix.getRowDim(), started);
+        return retVal;
     }
 
     protected int countEqualityConstraints() {
@@ -864,6 +1088,7 @@ public abstract class ConvexSolver extends GenericSolver implements UpdatableSol
 
         myPatchedQ = false;
         myZeroQ = false;
+        long started = this.startFactorisation();
         if (!mySolverQ.compute(matrixQ)) {
             double largest = matrixQ.aggregateAll(Aggregator.LARGEST).doubleValue();
             double small = options.convex().smallDiagonal();
@@ -875,6 +1100,7 @@ public abstract class ConvexSolver extends GenericSolver implements UpdatableSol
                 myZeroQ = true;
             }
         }
+        this.reportFactorisation(matrixQ.getRowDim(), started);
 
         boolean semidefinite = true;
         if (options.validate && !mySolverQ.isSolvable()) {
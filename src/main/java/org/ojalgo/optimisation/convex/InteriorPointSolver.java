@@ -0,0 +1,922 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.convex;
+
+import static org.ojalgo.function.constant.PrimitiveMath.*;
+
+import java.util.Arrays;
+
+import org.ojalgo.array.ArrayR064;
+import org.ojalgo.optimisation.ExpressionsBasedModel;
+import org.ojalgo.optimisation.GenericSolver;
+import org.ojalgo.optimisation.Optimisation;
+import org.ojalgo.optimisation.SparseModel;
+import org.ojalgo.optimisation.linear.LinearSolver;
+
+/**
+ * A primal-dual interior point solver, Mehrotra predictor-corrector, for LP and convex QP problems. Compared
+ * to the active set methods of the {@link ConvexSolver}, or the simplex based {@link LinearSolver}, the
+ * number of iterations does not depend much on the size of the problem or the number of active
+ * constraints. Each iteration is more expensive though, and there is no warm start. It is best suited for
+ * large (sparse) models.
+ * <p>
+ * The problem is read from a {@link SparseModel} and reformulated as
+ *
+ * <pre>
+ * min 1/2 [z]<sup>T</sup>[H][z] + [g]<sup>T</sup>[z] subject to [B][z] = [b] and [lo] &lt;= [z] &lt;= [hi]
+ * </pre>
+ *
+ * where the inequality constraints have been converted to equalities by adding (bounded) slack variables,
+ * and fixed variables have been eliminated. The problem is scaled (equilibrated) using powers of 2. Each
+ * iteration solves the regularised augmented (KKT) system using a sparse LDL<sup>T</sup> factorisation,
+ * with a minimum degree ordering and symbolic analysis that are done only once.
+ * <p>
+ * The iterates are kept strictly within the variable bounds, but the equality constraints are only
+ * satisfied at convergence. The distances to the bounds are iterated as separate variables, rather than
+ * calculated from the variables and the bounds, to avoid cancellation. Detecting infeasible or unbounded problems is heuristic.
+ * <p>
+ * To use this solver with {@link ExpressionsBasedModel} either set
+ * {@link ConvexSolver.Configuration#interiorPoint(boolean)} and/or
+ * {@link LinearSolver.Configuration#interiorPoint(boolean)}, or register {@link #INTEGRATION}.
+ *
+ * @author apete
+ */
+public final class InteriorPointSolver extends GenericSolver {
+
+    public static final class ModelIntegration extends ExpressionsBasedModel.Integration<InteriorPointSolver> {
+
+        public InteriorPointSolver build(final ExpressionsBasedModel model) {
+            return InteriorPointSolver.of(SparseModel.of(model), model.options);
+        }
+
+        public boolean isCapable(final ExpressionsBasedModel model) {
+            return !model.isAnyVariableInteger() && !model.isAnyConstraintQuadratic();
+        }
+
+        /**
+         * The slack variables, and the eliminated fixed variables, are internal to the solver. The solution it
+         * returns is expressed in the model's variables.
+         */
+        @Override
+        protected boolean isSolutionMapped() {
+            return false;
+        }
+
+    }
+
+    public static final ModelIntegration INTEGRATION = new ModelIntegration();
+
+    /**
+     * Iterates this large (scaled) signal unboundedness (primal) or infeasibility (dual).
+     */
+    private static final double BLOW_UP = 1E15;
+    private static final int MAX_ITERATIONS = 200;
+    private static final int REFINEMENTS = 3;
+    /**
+     * The initial and the largest regularisation of the KKT system
+     */
+    private static final double REGULARISATION = 1E-8, REGULARISATION_LIMIT = 1E-4;
+    private static final int SCALING_PASSES = 10;
+    private static final double STEP_FACTOR = 0.995;
+    private static final double TOLERANCE = 1E-8;
+
+    public static InteriorPointSolver of(final SparseModel model, final Optimisation.Options options) {
+        return new InteriorPointSolver(model, options);
+    }
+
+    private static double max(final double[] values, final int length) {
+        double retVal = ZERO;
+        for (int i = 0; i < length; i++) {
+            retVal = Math.max(retVal, Math.abs(values[i]));
+        }
+        return retVal;
+    }
+
+    private final int[] myB_Columns;
+    private final int[] myB_Pointers;
+    private final double[] myB_Values;
+    private final double[] myBoundLower;
+    private final double[] myBoundUpper;
+    private double myCostScale = ONE;
+    private final double[] myH_Diagonal;
+    private final int[] myH_Rows;
+    private final int[] myH_Columns;
+    private final double[] myH_Values;
+    private boolean myInfeasible = false;
+    private final double[] myKKT_Values;
+    private final SparseModel myModel;
+    private final double[] myObjective;
+    private final int myNbH;
+    private final int myNbRows;
+    private final int myNbZ;
+    private final double[] myRHS;
+    private final double[] myScaleRows;
+    private final double[] myScaleZ;
+    private SparseLDL myFactorisation = null;
+    private double myRegularisation = REGULARISATION;
+    /**
+     * For each of the model's variables the index in z, or -1 if the variable is fixed
+     */
+    private final int[] myVariableIndices;
+
+    private InteriorPointSolver(final SparseModel model, final Optimisation.Options options) {
+
+        super(options);
+
+        myModel = model;
+
+        int nbVariables = model.countVariables();
+        int nbConstraints = model.countConstraints();
+        double sign = model.getSense() == Optimisation.Sense.MAX ? NEG : ONE;
+
+        myVariableIndices = new int[nbVariables];
+
+        int nbX = 0;
+        for (int j = 0; j < nbVariables; j++) {
+            double lower = model.getLowerBound(j);
+            double upper = model.getUpperBound(j);
+            if (lower > upper) {
+                myInfeasible = true;
+            }
+            myVariableIndices[j] = lower == upper ? -1 : nbX++;
+        }
+
+        int nbSlacks = 0;
+        for (int i = 0; i < nbConstraints; i++) {
+            if (model.getLowerLimit(i) != model.getUpperLimit(i)) {
+                nbSlacks++;
+            }
+        }
+
+        int capacityZ = nbX + nbSlacks;
+
+        double[] lowerBounds = new double[capacityZ];
+        double[] upperBounds = new double[capacityZ];
+        double[] objective = new double[capacityZ];
+
+        for (int j = 0; j < nbVariables; j++) {
+            int k = myVariableIndices[j];
+            if (k >= 0) {
+                lowerBounds[k] = model.getLowerBound(j);
+                upperBounds[k] = model.getUpperBound(j);
+                objective[k] = sign * model.getObjective(j);
+            }
+        }
+
+        // Rows – inequalities get a slack variable
+
+        int[] pointers = new int[nbConstraints + 1];
+        int[] columns = new int[model.countNonzeros() + nbSlacks];
+        double[] values = new double[columns.length];
+        double[] rhs = new double[nbConstraints];
+
+        int nbRows = 0;
+        int nbZ = nbX;
+        int nnz = 0;
+
+        for (int i = 0; i < nbConstraints; i++) {
+
+            double lower = model.getLowerLimit(i);
+            double upper = model.getUpperLimit(i);
+
+            if (lower > upper) {
+                myInfeasible = true;
+            }
+
+            double shift = ZERO;
+            int first = nnz;
+            for (int k = 0, limit = model.countNonzeros(i); k < limit; k++) {
+                int j = model.getColumn(i, k);
+                double value = model.getValue(i, k);
+                if (myVariableIndices[j] >= 0) {
+                    columns[nnz] = myVariableIndices[j];
+                    values[nnz++] = value;
+                } else {
+                    shift += value * model.getLowerBound(j);
+                }
+            }
+
+            lower -= shift;
+            upper -= shift;
+
+            if (nnz == first) {
+                // Nothing left of the row
+                if (lower > MACHINE_EPSILON * (ONE + Math.abs(shift)) || upper < -MACHINE_EPSILON * (ONE + Math.abs(shift))) {
+                    myInfeasible = true;
+                }
+                continue;
+            }
+
+            if (lower == Double.NEGATIVE_INFINITY && upper == Double.POSITIVE_INFINITY) {
+                nnz = first;
+                continue;
+            }
+
+            if (lower == upper) {
+                rhs[nbRows] = lower;
+            } else {
+                lowerBounds[nbZ] = lower;
+                upperBounds[nbZ] = upper;
+                columns[nnz] = nbZ++;
+                values[nnz++] = NEG;
+                rhs[nbRows] = ZERO;
+            }
+
+            pointers[++nbRows] = nnz;
+        }
+
+        myNbZ = nbZ;
+        myNbRows = nbRows;
+
+        myB_Pointers = Arrays.copyOf(pointers, nbRows + 1);
+        myB_Columns = Arrays.copyOf(columns, nnz);
+        myB_Values = Arrays.copyOf(values, nnz);
+        myRHS = Arrays.copyOf(rhs, nbRows);
+        myBoundLower = Arrays.copyOf(lowerBounds, nbZ);
+        myBoundUpper = Arrays.copyOf(upperBounds, nbZ);
+
+        // Quadratic part, fixed variables contribute to the linear part
+
+        myH_Diagonal = new double[nbZ];
+        int nbQuadratic = model.countQuadraticFactors();
+        int[] hRows = new int[nbQuadratic];
+        int[] hColumns = new int[nbQuadratic];
+        double[] hValues = new double[nbQuadratic];
+        int nbH = 0;
+
+        for (int q = 0; q < nbQuadratic; q++) {
+            int row = model.getQuadraticRow(q);
+            int col = model.getQuadraticColumn(q);
+            double factor = sign * model.getQuadraticValue(q);
+            int r = myVariableIndices[row];
+            int c = myVariableIndices[col];
+            if (r >= 0 && c >= 0) {
+                if (r == c) {
+                    myH_Diagonal[r] += TWO * factor;
+                } else {
+                    hRows[nbH] = Math.min(r, c);
+                    hColumns[nbH] = Math.max(r, c);
+                    hValues[nbH++] = factor;
+                }
+            } else if (r >= 0) {
+                objective[r] += factor * model.getLowerBound(col);
+            } else if (c >= 0) {
+                objective[c] += factor * model.getLowerBound(row);
+            }
+        }
+
+        myNbH = nbH;
+        myH_Rows = hRows;
+        myH_Columns = hColumns;
+        myH_Values = hValues;
+
+        myObjective = Arrays.copyOf(objective, nbZ);
+
+        myScaleZ = new double[nbZ];
+        myScaleRows = new double[nbRows];
+        this.scale();
+
+        myKKT_Values = new double[nbZ + myNbH + myB_Values.length + nbRows];
+    }
+
+    /**
+     * There is no warm start – the kick starter is ignored.
+     */
+    public Optimisation.Result solve(final Optimisation.Result kickStarter) {
+
+        if (myInfeasible) {
+            return this.buildResult(Optimisation.State.INFEASIBLE, null);
+        }
+
+        int nbZ = myNbZ;
+        int nbRows = myNbRows;
+
+        if (myFactorisation == null) {
+            myFactorisation = this.analyse();
+        }
+
+        double[] z = new double[nbZ];
+        double[] y = new double[nbRows];
+        double[] pl = new double[nbZ];
+        double[] pu = new double[nbZ];
+
+        double[] dz = new double[nbZ];
+        double[] dy = new double[nbRows];
+        double[] dpl = new double[nbZ];
+        double[] dpu = new double[nbZ];
+
+        double[] diagonal = new double[nbZ];
+        double[] rhsZ = new double[nbZ];
+        double[] rhsY = new double[nbRows];
+        double[] rp = new double[nbRows];
+        double[] rd = new double[nbZ];
+        double[] gl = new double[nbZ];
+        double[] gu = new double[nbZ];
+        double[] rl = new double[nbZ];
+        double[] ru = new double[nbZ];
+        double[] hz = new double[nbZ];
+        double[] bty = new double[nbZ];
+
+        boolean[] hasL = new boolean[nbZ];
+        boolean[] hasU = new boolean[nbZ];
+        int nbComplementarity = 0;
+        for (int j = 0; j < nbZ; j++) {
+            hasL[j] = myBoundLower[j] > Double.NEGATIVE_INFINITY;
+            hasU[j] = myBoundUpper[j] < Double.POSITIVE_INFINITY;
+            nbComplementarity += (hasL[j] ? 1 : 0) + (hasU[j] ? 1 : 0);
+        }
+
+        boolean quadratic = myNbH > 0 || InteriorPointSolver.max(myH_Diagonal, nbZ) > ZERO;
+
+        // Starting point – minimise 1/2 z'(H+I)z + g'z subject to Bz = b, then move into the interior
+
+        Arrays.fill(diagonal, ONE);
+        if (!this.factor(diagonal)) {
+            return this.buildResult(Optimisation.State.FAILED, null);
+        }
+        System.arraycopy(myObjective, 0, rhsZ, 0, nbZ);
+        System.arraycopy(myRHS, 0, rhsY, 0, nbRows);
+        if (!this.solve(diagonal, rhsZ, rhsY, z, y)) {
+            return this.buildResult(Optimisation.State.FAILED, null);
+        }
+
+        this.multiplyH(z, hz);
+        this.multiplyBT(y, bty);
+
+        for (int j = 0; j < nbZ; j++) {
+            double lower = myBoundLower[j];
+            double upper = myBoundUpper[j];
+            if (hasL[j] && hasU[j]) {
+                double margin = Math.min(ONE, (upper - lower) / FOUR);
+                z[j] = Math.max(lower + margin, Math.min(upper - margin, z[j]));
+            } else if (hasL[j]) {
+                z[j] = Math.max(lower + ONE, z[j]);
+            } else if (hasU[j]) {
+                z[j] = Math.min(upper - ONE, z[j]);
+            }
+            gl[j] = hasL[j] ? z[j] - lower : ONE;
+            gu[j] = hasU[j] ? upper - z[j] : ONE;
+            double reduced = hz[j] + myObjective[j] - bty[j];
+            pl[j] = hasL[j] ? Math.max(ONE, reduced) : ZERO;
+            pu[j] = hasU[j] ? Math.max(ONE, -reduced) : ZERO;
+        }
+
+        double normB = InteriorPointSolver.max(myRHS, nbRows);
+        double normG = InteriorPointSolver.max(myObjective, nbZ);
+
+        Optimisation.State state = null;
+        int nbStalled = 0;
+
+        while (state == null) {
+
+            // Residuals and convergence
+
+            this.multiplyB(z, rp);
+            for (int i = 0; i < nbRows; i++) {
+                rp[i] -= myRHS[i];
+            }
+            this.multiplyH(z, hz);
+            this.multiplyBT(y, bty);
+
+            double complementarity = ZERO;
+            double objective = ZERO;
+            for (int j = 0; j < nbZ; j++) {
+                rd[j] = hz[j] + myObjective[j] - bty[j] - pl[j] + pu[j];
+                complementarity += gl[j] * pl[j] + gu[j] * pu[j];
+                objective += (HALF * hz[j] + myObjective[j]) * z[j];
+            }
+            double mu = nbComplementarity > 0 ? complementarity / nbComplementarity : ZERO;
+
+            double infeasibilityPrimal = InteriorPointSolver.max(rp, nbRows) / (ONE + normB);
+            double infeasibilityDual = InteriorPointSolver.max(rd, nbZ) / (ONE + normG);
+            double gap = complementarity / (ONE + Math.abs(objective));
+
+            if (this.isLogDebug()) {
+                this.log("{}: primal={} dual={} gap={} mu={} regularisation={}", this.countIterations(), infeasibilityPrimal, infeasibilityDual, gap, mu,
+                        myRegularisation);
+            }
+
+            if (infeasibilityPrimal <= TOLERANCE && infeasibilityDual <= TOLERANCE && gap <= TOLERANCE) {
+                state = Optimisation.State.OPTIMAL;
+                break;
+            }
+
+            if (InteriorPointSolver.max(z, nbZ) > BLOW_UP) {
+                state = Optimisation.State.UNBOUNDED;
+                break;
+            }
+
+            if (Math.max(InteriorPointSolver.max(y, nbRows), Math.max(InteriorPointSolver.max(pl, nbZ), InteriorPointSolver.max(pu, nbZ))) > BLOW_UP) {
+                state = Optimisation.State.INFEASIBLE;
+                break;
+            }
+
+            // If the iterations have to stop before converging, a nearly feasible iterate is still useful
+            Optimisation.State fallback = infeasibilityPrimal <= Math.sqrt(TOLERANCE) && infeasibilityDual <= Math.sqrt(TOLERANCE)
+                    ? Optimisation.State.APPROXIMATE
+                    : Optimisation.State.FAILED;
+
+            if (nbStalled >= 3 || this.countIterations() >= MAX_ITERATIONS || !this.isIterationAllowed()) {
+                if (fallback == Optimisation.State.APPROXIMATE) {
+                    state = fallback;
+                } else if (infeasibilityPrimal > infeasibilityDual) {
+                    state = Optimisation.State.INFEASIBLE;
+                } else {
+                    state = Optimisation.State.UNBOUNDED;
+                }
+                break;
+            }
+
+            for (int j = 0; j < nbZ; j++) {
+                diagonal[j] = (hasL[j] ? pl[j] / gl[j] : ZERO) + (hasU[j] ? pu[j] / gu[j] : ZERO);
+            }
+
+            if (!this.factor(diagonal)) {
+                state = fallback;
+                break;
+            }
+
+            // Predictor (affine scaling direction)
+
+            for (int j = 0; j < nbZ; j++) {
+                rl[j] = hasL[j] ? -gl[j] * pl[j] : ZERO;
+                ru[j] = hasU[j] ? -gu[j] * pu[j] : ZERO;
+            }
+            if (!this.direction(diagonal, rd, rp, gl, gu, pl, pu, rl, ru, rhsZ, rhsY, dz, dy, dpl, dpu, hasL, hasU)) {
+                state = fallback;
+                break;
+            }
+
+            double stepPrimal = this.stepPrimal(gl, gu, dz, hasL, hasU);
+            double stepDual = this.stepDual(pl, pu, dpl, dpu, hasL, hasU);
+            if (quadratic) {
+                stepPrimal = stepDual = Math.min(stepPrimal, stepDual);
+            }
+
+            double sigma = ZERO;
+            if (nbComplementarity > 0) {
+                double affine = ZERO;
+                for (int j = 0; j < nbZ; j++) {
+                    if (hasL[j]) {
+                        affine += (gl[j] + stepPrimal * dz[j]) * (pl[j] + stepDual * dpl[j]);
+                    }
+                    if (hasU[j]) {
+                        affine += (gu[j] - stepPrimal * dz[j]) * (pu[j] + stepDual * dpu[j]);
+                    }
+                }
+                sigma = Math.pow(affine / complementarity, 3);
+            }
+
+            // Corrector (and centering)
+
+            double target = sigma * mu;
+            for (int j = 0; j < nbZ; j++) {
+                rl[j] = hasL[j] ? target - gl[j] * pl[j] - dz[j] * dpl[j] : ZERO;
+                ru[j] = hasU[j] ? target - gu[j] * pu[j] + dz[j] * dpu[j] : ZERO;
+            }
+            if (!this.direction(diagonal, rd, rp, gl, gu, pl, pu, rl, ru, rhsZ, rhsY, dz, dy, dpl, dpu, hasL, hasU)) {
+                state = fallback;
+                break;
+            }
+
+            stepPrimal = Math.min(ONE, STEP_FACTOR * this.stepPrimal(gl, gu, dz, hasL, hasU));
+            stepDual = Math.min(ONE, STEP_FACTOR * this.stepDual(pl, pu, dpl, dpu, hasL, hasU));
+            if (quadratic) {
+                stepPrimal = stepDual = Math.min(stepPrimal, stepDual);
+            }
+
+            for (int j = 0; j < nbZ; j++) {
+                z[j] += stepPrimal * dz[j];
+                if (hasL[j]) {
+                    gl[j] += stepPrimal * dz[j];
+                }
+                if (hasU[j]) {
+                    gu[j] -= stepPrimal * dz[j];
+                }
+                pl[j] += stepDual * dpl[j];
+                pu[j] += stepDual * dpu[j];
+            }
+            for (int i = 0; i < nbRows; i++) {
+                y[i] += stepDual * dy[i];
+            }
+
+            // Complementarity vanishing while still (primal or dual) infeasible is also a stall
+            nbStalled = stepPrimal < TOLERANCE && stepDual < TOLERANCE || gap < TOLERANCE * TOLERANCE ? nbStalled + 1 : 0;
+
+            this.incrementIterationsCount();
+        }
+
+        return this.buildResult(state, z);
+    }
+
+    /**
+     * Analyse the KKT matrix structure, and create the factorisation
+     */
+    private SparseLDL analyse() {
+
+        int nbZ = myNbZ;
+        int nbRows = myNbRows;
+        int nbEntries = myKKT_Values.length;
+
+        int[] rows = new int[nbEntries];
+        int[] columns = new int[nbEntries];
+
+        int e = 0;
+        for (int j = 0; j < nbZ; j++, e++) {
+            rows[e] = j;
+            columns[e] = j;
+        }
+        for (int h = 0; h < myNbH; h++, e++) {
+            rows[e] = myH_Rows[h];
+            columns[e] = myH_Columns[h];
+        }
+        for (int i = 0; i < nbRows; i++) {
+            for (int p = myB_Pointers[i], end = myB_Pointers[i + 1]; p < end; p++, e++) {
+                rows[e] = nbZ + i;
+                columns[e] = myB_Columns[p];
+            }
+        }
+        for (int i = 0; i < nbRows; i++, e++) {
+            rows[e] = nbZ + i;
+            columns[e] = nbZ + i;
+        }
+
+        boolean[] negative = new boolean[nbZ + nbRows];
+        Arrays.fill(negative, 0, nbZ, true);
+
+        return new SparseLDL(nbZ + nbRows, rows, columns, nbEntries, negative);
+    }
+
+    private Optimisation.Result buildResult(final Optimisation.State state, final double[] z) {
+
+        int nbVariables = myModel.countVariables();
+
+        ArrayR064 solution = ArrayR064.make(nbVariables);
+
+        for (int j = 0; j < nbVariables; j++) {
+            int k = myVariableIndices[j];
+            double lower = myModel.getLowerBound(j);
+            double upper = myModel.getUpperBound(j);
+            double value;
+            if (k < 0) {
+                value = lower;
+            } else if (z != null) {
+                value = Math.max(lower, Math.min(upper, myScaleZ[k] * z[k]));
+            } else {
+                value = Math.max(lower, Math.min(upper, ZERO));
+            }
+            solution.set(j, value);
+        }
+
+        return new Optimisation.Result(state, myModel.evaluate(solution), solution);
+    }
+
+    /**
+     * Solve for the search direction given the complementarity targets rl and ru. Requires that the KKT
+     * matrix has been factorised.
+     */
+    private boolean direction(final double[] diagonal, final double[] rd, final double[] rp, final double[] gl, final double[] gu, final double[] pl,
+            final double[] pu, final double[] rl, final double[] ru, final double[] rhsZ, final double[] rhsY, final double[] dz, final double[] dy,
+            final double[] dpl, final double[] dpu, final boolean[] hasL, final boolean[] hasU) {
+
+        for (int j = 0, limit = myNbZ; j < limit; j++) {
+            rhsZ[j] = rd[j] - (hasL[j] ? rl[j] / gl[j] : ZERO) + (hasU[j] ? ru[j] / gu[j] : ZERO);
+        }
+        for (int i = 0, limit = myNbRows; i < limit; i++) {
+            rhsY[i] = -rp[i];
+        }
+
+        if (!this.solve(diagonal, rhsZ, rhsY, dz, dy)) {
+            return false;
+        }
+
+        for (int j = 0, limit = myNbZ; j < limit; j++) {
+            dpl[j] = hasL[j] ? (rl[j] - pl[j] * dz[j]) / gl[j] : ZERO;
+            dpu[j] = hasU[j] ? (ru[j] + pu[j] * dz[j]) / gu[j] : ZERO;
+        }
+
+        return true;
+    }
+
+    private boolean factor(final double[] diagonal) {
+        long started = this.startFactorisation();
+        boolean retVal = myFactorisation.factor(this.values(diagonal));
+        this.reportFactorisation(myNbZ + myNbRows, started);
+        return retVal;
+    }
+
+    private void multiplyB(final double[] z, final double[] product) {
+        for (int i = 0, limit = myNbRows; i < limit; i++) {
+            double sum = ZERO;
+            for (int p = myB_Pointers[i], end = myB_Pointers[i + 1]; p < end; p++) {
+                sum += myB_Values[p] * z[myB_Columns[p]];
+            }
+            product[i] = sum;
+        }
+    }
+
+    private void multiplyBT(final double[] y, final double[] product) {
+        Arrays.fill(product, ZERO);
+        for (int i = 0, limit = myNbRows; i < limit; i++) {
+            double yi = y[i];
+            if (yi != ZERO) {
+                for (int p = myB_Pointers[i], end = myB_Pointers[i + 1]; p < end; p++) {
+                    product[myB_Columns[p]] += myB_Values[p] * yi;
+                }
+            }
+        }
+    }
+
+    private void multiplyH(final double[] z, final double[] product) {
+        for (int j = 0, limit = myNbZ; j < limit; j++) {
+            product[j] = myH_Diagonal[j] * z[j];
+        }
+        for (int h = 0, limit = myNbH; h < limit; h++) {
+            int r = myH_Rows[h];
+            int c = myH_Columns[h];
+            product[r] += myH_Values[h] * z[c];
+            product[c] += myH_Values[h] * z[r];
+        }
+    }
+
+    /**
+     * The residual of the (unregularised) KKT system, returns its largest absolute element
+     */
+    private double residual(final double[] diagonal, final double[] rhsZ, final double[] rhsY, final double[] solZ, final double[] solY,
+            final double[] resZ, final double[] resY) {
+
+        this.multiplyH(solZ, resZ);
+        double[] bty = new double[myNbZ];
+        this.multiplyBT(solY, bty);
+        this.multiplyB(solZ, resY);
+
+        double retVal = ZERO;
+        for (int j = 0, limit = myNbZ; j < limit; j++) {
+            resZ[j] = rhsZ[j] + resZ[j] + diagonal[j] * solZ[j] - bty[j];
+            retVal = Math.max(retVal, Math.abs(resZ[j]));
+        }
+        for (int i = 0, limit = myNbRows; i < limit; i++) {
+            resY[i] = rhsY[i] - resY[i];
+            retVal = Math.max(retVal, Math.abs(resY[i]));
+        }
+
+        return Double.isNaN(retVal) ? Double.POSITIVE_INFINITY : retVal;
+    }
+
+    /**
+     * Solve [-(H+D) B<sup>T</sup>; B 0][solZ; solY] = [rhsZ; rhsY] using the current factorisation. If the
+     * solution is very inaccurate, the regularisation is increased and the matrix refactorised. If that helps
+     * the larger regularisation is kept for the remaining iterations.
+     *
+     * @return false if there is no (finite) solution
+     */
+    private boolean solve(final double[] diagonal, final double[] rhsZ, final double[] rhsY, final double[] solZ, final double[] solY) {
+
+        double residual = this.solveRefined(diagonal, rhsZ, rhsY, solZ, solY);
+
+        double acceptable = Math.sqrt(TOLERANCE) * (ONE + Math.max(InteriorPointSolver.max(rhsZ, myNbZ), InteriorPointSolver.max(rhsY, myNbRows)));
+
+        if (!(residual > acceptable) || myRegularisation >= REGULARISATION_LIMIT) {
+            return Double.isFinite(residual);
+        }
+
+        double[] previousZ = solZ.clone();
+        double[] previousY = solY.clone();
+        double previous = residual;
+
+        while (residual > acceptable && myRegularisation < REGULARISATION_LIMIT) {
+
+            myRegularisation *= HUNDRED;
+
+            if (!this.factor(diagonal)) {
+                return false;
+            }
+
+            residual = this.solveRefined(diagonal, rhsZ, rhsY, solZ, solY);
+        }
+
+        if (!(residual < previous)) {
+            myRegularisation = REGULARISATION;
+            System.arraycopy(previousZ, 0, solZ, 0, myNbZ);
+            System.arraycopy(previousY, 0, solY, 0, myNbRows);
+            residual = previous;
+            if (!this.factor(diagonal)) {
+                return false;
+            }
+        }
+
+        return Double.isFinite(residual);
+    }
+
+    /**
+     * The (regularised) factorisation followed by iterative refinement with the unregularised matrix.
+     *
+     * @return The largest absolute residual
+     */
+    private double solveRefined(final double[] diagonal, final double[] rhsZ, final double[] rhsY, final double[] solZ, final double[] solY) {
+
+        int nbZ = myNbZ;
+        int nbRows = myNbRows;
+
+        double[] work = new double[nbZ + nbRows];
+        System.arraycopy(rhsZ, 0, work, 0, nbZ);
+        System.arraycopy(rhsY, 0, work, nbZ, nbRows);
+        myFactorisation.solve(work);
+        System.arraycopy(work, 0, solZ, 0, nbZ);
+        System.arraycopy(work, nbZ, solY, 0, nbRows);
+
+        double[] resZ = new double[nbZ];
+        double[] resY = new double[nbRows];
+        double residual = this.residual(diagonal, rhsZ, rhsY, solZ, solY, resZ, resY);
+
+        double[] candZ = new double[nbZ];
+        double[] candY = new double[nbRows];
+        double[] candResZ = new double[nbZ];
+        double[] candResY = new double[nbRows];
+
+        for (int r = 0; r < REFINEMENTS && residual > MACHINE_EPSILON; r++) {
+
+            System.arraycopy(resZ, 0, work, 0, nbZ);
+            System.arraycopy(resY, 0, work, nbZ, nbRows);
+            myFactorisation.solve(work);
+
+            for (int j = 0; j < nbZ; j++) {
+                candZ[j] = solZ[j] + work[j];
+            }
+            for (int i = 0; i < nbRows; i++) {
+                candY[i] = solY[i] + work[nbZ + i];
+            }
+
+            double candidate = this.residual(diagonal, rhsZ, rhsY, candZ, candY, candResZ, candResY);
+            if (candidate >= residual) {
+                break;
+            }
+
+            residual = candidate;
+            System.arraycopy(candZ, 0, solZ, 0, nbZ);
+            System.arraycopy(candY, 0, solY, 0, nbRows);
+            System.arraycopy(candResZ, 0, resZ, 0, nbZ);
+            System.arraycopy(candResY, 0, resY, 0, nbRows);
+        }
+
+        return residual;
+    }
+
+    private double stepDual(final double[] pl, final double[] pu, final double[] dpl, final double[] dpu, final boolean[] hasL, final boolean[] hasU) {
+        double retVal = ONE;
+        for (int j = 0, limit = myNbZ; j < limit; j++) {
+            if (hasL[j] && dpl[j] < ZERO) {
+                retVal = Math.min(retVal, -pl[j] / dpl[j]);
+            }
+            if (hasU[j] && dpu[j] < ZERO) {
+                retVal = Math.min(retVal, -pu[j] / dpu[j]);
+            }
+        }
+        return retVal;
+    }
+
+    private double stepPrimal(final double[] gl, final double[] gu, final double[] dz, final boolean[] hasL, final boolean[] hasU) {
+        double retVal = ONE;
+        for (int j = 0, limit = myNbZ; j < limit; j++) {
+            if (hasL[j] && dz[j] < ZERO) {
+                retVal = Math.min(retVal, -gl[j] / dz[j]);
+            }
+            if (hasU[j] && dz[j] > ZERO) {
+                retVal = Math.min(retVal, gu[j] / dz[j]);
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * The KKT matrix values, in the order specified by {@link #analyse()}, with the regularisation added
+     */
+    private double[] values(final double[] diagonal) {
+
+        double[] retVal = myKKT_Values;
+        int nbZ = myNbZ;
+
+        int e = 0;
+        for (int j = 0; j < nbZ; j++) {
+            retVal[e++] = -(myH_Diagonal[j] + diagonal[j] + myRegularisation);
+        }
+        for (int h = 0; h < myNbH; h++) {
+            retVal[e++] = -myH_Values[h];
+        }
+        for (int p = 0, limit = myB_Values.length; p < limit; p++) {
+            retVal[e++] = myB_Values[p];
+        }
+        for (int i = 0; i < myNbRows; i++) {
+            retVal[e++] = myRegularisation;
+        }
+
+        return retVal;
+    }
+
+    /**
+     * Ruiz equilibration of the KKT matrix, with powers of 2, followed by scaling of the objective function.
+     */
+    private void scale() {
+
+        int nbZ = myNbZ;
+        int nbRows = myNbRows;
+
+        double[] scaleZ = myScaleZ;
+        double[] scaleRows = myScaleRows;
+        Arrays.fill(scaleZ, ONE);
+        Arrays.fill(scaleRows, ONE);
+
+        double[] normZ = new double[nbZ];
+        double[] normRows = new double[nbRows];
+
+        for (int pass = 0; pass < SCALING_PASSES; pass++) {
+
+            Arrays.fill(normZ, ZERO);
+            Arrays.fill(normRows, ZERO);
+
+            for (int j = 0; j < nbZ; j++) {
+                normZ[j] = Math.abs(myH_Diagonal[j] * scaleZ[j] * scaleZ[j]);
+            }
+            for (int h = 0; h < myNbH; h++) {
+                int r = myH_Rows[h];
+                int c = myH_Columns[h];
+                double value = Math.abs(myH_Values[h] * scaleZ[r] * scaleZ[c]);
+                normZ[r] = Math.max(normZ[r], value);
+                normZ[c] = Math.max(normZ[c], value);
+            }
+            for (int i = 0; i < nbRows; i++) {
+                for (int p = myB_Pointers[i], end = myB_Pointers[i + 1]; p < end; p++) {
+                    int j = myB_Columns[p];
+                    double value = Math.abs(myB_Values[p] * scaleRows[i] * scaleZ[j]);
+                    normZ[j] = Math.max(normZ[j], value);
+                    normRows[i] = Math.max(normRows[i], value);
+                }
+            }
+
+            boolean changed = false;
+            for (int j = 0; j < nbZ; j++) {
+                double factor = ConvexSolver.scale(normZ[j]);
+                changed |= factor != ONE;
+                scaleZ[j] *= factor;
+            }
+            for (int i = 0; i < nbRows; i++) {
+                double factor = ConvexSolver.scale(normRows[i]);
+                changed |= factor != ONE;
+                scaleRows[i] *= factor;
+            }
+
+            if (!changed) {
+                break;
+            }
+        }
+
+        for (int j = 0; j < nbZ; j++) {
+            myH_Diagonal[j] *= scaleZ[j] * scaleZ[j];
+            myObjective[j] *= scaleZ[j];
+            myBoundLower[j] /= scaleZ[j];
+            myBoundUpper[j] /= scaleZ[j];
+        }
+        for (int h = 0; h < myNbH; h++) {
+            myH_Values[h] *= scaleZ[myH_Rows[h]] * scaleZ[myH_Columns[h]];
+        }
+        for (int i = 0; i < nbRows; i++) {
+            for (int p = myB_Pointers[i], end = myB_Pointers[i + 1]; p < end; p++) {
+                myB_Values[p] *= scaleRows[i] * scaleZ[myB_Columns[p]];
+            }
+            myRHS[i] *= scaleRows[i];
+        }
+
+        double largest = Math.max(InteriorPointSolver.max(myObjective, nbZ), InteriorPointSolver.max(myH_Diagonal, nbZ));
+        largest = Math.max(largest, InteriorPointSolver.max(myH_Values, myNbH));
+        if (largest > ZERO && Double.isFinite(largest)) {
+            myCostScale = Math.scalb(ONE, -Math.getExponent(largest));
+            for (int j = 0; j < nbZ; j++) {
+                myObjective[j] *= myCostScale;
+                myH_Diagonal[j] *= myCostScale;
+            }
+            for (int h = 0; h < myNbH; h++) {
+                myH_Values[h] *= myCostScale;
+            }
+        }
+    }
+
+}
@@ -26,6 +26,7 @@ import static org.ojalgo.function.constant.PrimitiveMath.*;
 import org.ojalgo.matrix.store.MatrixStore;
 import org.ojalgo.matrix.store.PhysicalStore;
 import org.ojalgo.matrix.store.Primitive64Store;
+import org.ojalgo.matrix.store.SparseStore;
 import org.ojalgo.optimisation.Optimisation;
 
 /**
@@ -34,11 +35,25 @@ import org.ojalgo.optimisation.Optimisation;
  * min 1/2 [X]<sup>T</sup>[Q][X] - [C]<sup>T</sup>[X]<br>
  * when [AE][X] == [BE]
  * </p>
+ * For large problems, or when {@link Optimisation.Options#sparse} is set to true, the KKT system is solved
+ * using a sparse LDL<sup>T</sup> factorisation (see {@link SparseKKT}) rather than via the (dense) Schur
+ * complement. Falls back to the dense alternatives if that fails.
  *
  * @author apete
  */
 final class QPESolver extends ConstrainedSolver {
 
+    /**
+     * With at least this many variables, and [AE] stored as a {@link SparseStore}, the sparse KKT path is
+     * used by default.
+     */
+    static final int SPARSE_THRESHOLD = 1_000;
+
+    /**
+     * Largest acceptable relative residual of the sparse KKT solution
+     */
+    private static final double SPARSE_ACCURACY = 1E-10;
+
     private boolean myFeasible = false;
     private final Primitive64Store myIterationX;
 
@@ -87,7 +102,11 @@ final class QPESolver extends ConstrainedSolver {
         Primitive64Store iterX = myIterationX;
         Primitive64Store iterL = this.getSolutionL();
 
-        if (iterA.countRows() < iterA.countColumns() && (solved = this.isSolvableQ())) {
+        if (this.isSparseKKT(iterA)) {
+            solved = this.solveSparseKKT(iterA, iterB, iterC, iterX, iterL);
+        }
+
+        if (!solved && iterA.countRows() < iterA.countColumns() && (solved = this.isSolvableQ())) {
             // Q is SPD
             // Actual/normal optimisation problem
 
@@ -171,4 +190,56 @@ final class QPESolver extends ConstrainedSolver {
         }
     }
 
+    private boolean isSparseKKT(final MatrixStore<Double> iterA) {
+        if (options.sparse != null) {
+            return options.sparse.booleanValue();
+        } else {
+            return iterA instanceof SparseStore && this.countVariables() >= SPARSE_THRESHOLD;
+        }
+    }
+
+    private boolean solveSparseKKT(final MatrixStore<Double> iterA, final MatrixStore<Double> iterB, final MatrixStore<Double> iterC,
+            final Primitive64Store iterX, final Primitive64Store iterL) {
+
+        int nbVariables = this.countVariables();
+        int nbRows = this.countIterationConstraints();
+
+        long started = this.startFactorisation();
+        SparseKKT kkt = SparseKKT.of(this.getMatrixQ(), iterA);
+        boolean factored = kkt.factor();
+        this.reportFactorisation(nbVariables + nbRows, started);
+
+        if (!factored) {
+            return false;
+        }
+
+        double[] rhs = new double[nbVariables + nbRows];
+        for (int j = 0; j < nbVariables; j++) {
+            rhs[j] = iterC.doubleValue(j);
+        }
+        for (int i = 0; i < nbRows; i++) {
+            rhs[nbVariables + i] = iterB.doubleValue(i);
+        }
+
+        double[] solution = new double[nbVariables + nbRows];
+        double residual = kkt.solve(rhs, solution);
+
+        if (this.isLogDebug()) {
+            this.log("Sparse KKT: {} nonzeros in the factor, relative residual {}", kkt.countNonzeros(), residual);
+        }
+
+        if (!(residual <= SPARSE_ACCURACY)) {
+            return false;
+        }
+
+        for (int j = 0; j < nbVariables; j++) {
+            iterX.set(j, solution[j]);
+        }
+        for (int i = 0; i < nbRows; i++) {
+            iterL.set(i, solution[nbVariables + i]);
+        }
+
+        return true;
+    }
+
 }
@@ -0,0 +1,293 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.convex;
+
+import static org.ojalgo.function.constant.PrimitiveMath.*;
+
+import java.util.Arrays;
+
+import org.ojalgo.structure.Access2D;
+import org.ojalgo.structure.ElementView2D;
+
+/**
+ * The KKT system of an equality constrained QP
+ *
+ * <pre>
+ * [Q A<sup>T</sup>][x] = [c]
+ * [A   0  ][l]   [b]
+ * </pre>
+ *
+ * in sparse (coordinate) form. It is factorised as a regularised quasi-definite matrix, using
+ * {@link SparseLDL}, and the solution is then iteratively refined using the unregularised matrix. Memory
+ * use is proportional to the number of nonzeros in [Q], [A] and the factor – neither the KKT matrix nor
+ * the Schur complement is ever formed densely.
+ * <p>
+ * [Q] is assumed to be symmetric positive semidefinite. Only the diagonal and upper triangular entries are
+ * used.
+ *
+ * @author apete
+ */
+final class SparseKKT {
+
+    /**
+     * Growable coordinate (triplet) lists of matrix entries
+     */
+    static final class Entries {
+
+        private int myCount = 0;
+        private int[] myColumns;
+        private int[] myRows;
+        private double[] myValues;
+
+        Entries(final int capacity) {
+            super();
+            myRows = new int[Math.max(capacity, 8)];
+            myColumns = new int[myRows.length];
+            myValues = new double[myRows.length];
+        }
+
+        void add(final int row, final int column, final double value) {
+            if (myCount == myRows.length) {
+                int capacity = 2 * myCount;
+                myRows = Arrays.copyOf(myRows, capacity);
+                myColumns = Arrays.copyOf(myColumns, capacity);
+                myValues = Arrays.copyOf(myValues, capacity);
+            }
+            myRows[myCount] = row;
+            myColumns[myCount] = column;
+            myValues[myCount] = value;
+            myCount++;
+        }
+
+        int size() {
+            return myCount;
+        }
+
+    }
+
+    private static final int REFINEMENTS = 20;
+    private static final double REGULARISATION = 1E-9;
+
+    /**
+     * Collect the nonzeros of the matrices. Works with any {@link Access2D}, but is only memory efficient if
+     * the matrices are sparse – e.g. {@link org.ojalgo.matrix.store.SparseStore}.
+     */
+    static SparseKKT of(final Access2D<?> mtrxQ, final Access2D<?> mtrxA) {
+
+        int nbVariables = Math.toIntExact(mtrxQ.countColumns());
+        int nbRows = mtrxA != null ? Math.toIntExact(mtrxA.countRows()) : 0;
+
+        Entries entriesQ = new Entries(nbVariables);
+        for (ElementView2D<?, ?> nonzero : mtrxQ.nonzeros()) {
+            int row = Math.toIntExact(nonzero.row());
+            int col = Math.toIntExact(nonzero.column());
+            double value = nonzero.doubleValue();
+            if (row <= col && value != ZERO) {
+                entriesQ.add(row, col, value);
+            }
+        }
+
+        Entries entriesA = new Entries(nbRows);
+        if (mtrxA != null) {
+            for (ElementView2D<?, ?> nonzero : mtrxA.nonzeros()) {
+                double value = nonzero.doubleValue();
+                if (value != ZERO) {
+                    entriesA.add(Math.toIntExact(nonzero.row()), Math.toIntExact(nonzero.column()), value);
+                }
+            }
+        }
+
+        return new SparseKKT(nbVariables, nbRows, entriesQ, entriesA);
+    }
+
+    private final Entries myA;
+    private SparseLDL myFactorisation = null;
+    private final int myNbRows;
+    private final int myNbVariables;
+    private final Entries myQ;
+    private double myRegularisation = ZERO;
+    private final double[] myValues;
+
+    /**
+     * @param entriesQ Diagonal and upper (strictly) triangular entries of [Q]
+     * @param entriesA All entries of [A]
+     */
+    SparseKKT(final int nbVariables, final int nbRows, final Entries entriesQ, final Entries entriesA) {
+
+        super();
+
+        myNbVariables = nbVariables;
+        myNbRows = nbRows;
+        myQ = entriesQ;
+        myA = entriesA;
+
+        myValues = new double[myQ.size() + myA.size() + nbVariables + nbRows];
+    }
+
+    /**
+     * The number of (strictly lower triangular) nonzeros in the factor
+     */
+    int countNonzeros() {
+        return myFactorisation != null ? myFactorisation.countNonzeros() : 0;
+    }
+
+    /**
+     * Factorise the (regularised) KKT matrix. The ordering and symbolic analysis are done the first time
+     * this method is called.
+     *
+     * @return false if the factorisation failed (NaN or infinite values)
+     */
+    boolean factor() {
+
+        int nbVariables = myNbVariables;
+        int nbRows = myNbRows;
+        int nbQ = myQ.size();
+        int nbA = myA.size();
+        int dim = nbVariables + nbRows;
+
+        if (myFactorisation == null) {
+
+            int[] rows = new int[myValues.length];
+            int[] columns = new int[myValues.length];
+
+            System.arraycopy(myQ.myRows, 0, rows, 0, nbQ);
+            System.arraycopy(myQ.myColumns, 0, columns, 0, nbQ);
+            for (int e = 0; e < nbA; e++) {
+                rows[nbQ + e] = nbVariables + myA.myRows[e];
+                columns[nbQ + e] = myA.myColumns[e];
+            }
+            for (int k = 0, e = nbQ + nbA; k < dim; k++, e++) {
+                rows[e] = k;
+                columns[e] = k;
+            }
+
+            boolean[] negative = new boolean[dim];
+            Arrays.fill(negative, nbVariables, dim, true);
+
+            myFactorisation = new SparseLDL(dim, rows, columns, myValues.length, negative);
+        }
+
+        double largest = ONE;
+        for (int e = 0; e < nbQ; e++) {
+            largest = Math.max(largest, Math.abs(myQ.myValues[e]));
+        }
+        for (int e = 0; e < nbA; e++) {
+            largest = Math.max(largest, Math.abs(myA.myValues[e]));
+        }
+        myRegularisation = REGULARISATION * largest;
+
+        double[] values = myValues;
+        System.arraycopy(myQ.myValues, 0, values, 0, nbQ);
+        System.arraycopy(myA.myValues, 0, values, nbQ, nbA);
+        Arrays.fill(values, nbQ + nbA, nbQ + nbA + nbVariables, myRegularisation);
+        Arrays.fill(values, nbQ + nbA + nbVariables, values.length, -myRegularisation);
+
+        return myFactorisation.factor(values);
+    }
+
+    /**
+     * [KKT][solution] - [rhs] using the unregularised KKT matrix
+     *
+     * @return The largest absolute element of the residual
+     */
+    double residual(final double[] rhs, final double[] solution, final double[] residual) {
+
+        int nbVariables = myNbVariables;
+
+        Arrays.fill(residual, ZERO);
+
+        for (int e = 0, limit = myQ.size(); e < limit; e++) {
+            int row = myQ.myRows[e];
+            int col = myQ.myColumns[e];
+            double value = myQ.myValues[e];
+            residual[row] += value * solution[col];
+            if (row != col) {
+                residual[col] += value * solution[row];
+            }
+        }
+        for (int e = 0, limit = myA.size(); e < limit; e++) {
+            int row = nbVariables + myA.myRows[e];
+            int col = myA.myColumns[e];
+            double value = myA.myValues[e];
+            residual[row] += value * solution[col];
+            residual[col] += value * solution[row];
+        }
+
+        double retVal = ZERO;
+        for (int k = 0, limit = residual.length; k < limit; k++) {
+            residual[k] -= rhs[k];
+            retVal = Math.max(retVal, Math.abs(residual[k]));
+        }
+
+        return Double.isNaN(retVal) ? Double.POSITIVE_INFINITY : retVal;
+    }
+
+    /**
+     * Solve the KKT system using the current factorisation, and then refine the solution. Requires that
+     * {@link #factor()} has been called (successfully).
+     *
+     * @param rhs [c;b]
+     * @param solution [x;l] – overwritten
+     * @return The largest absolute element of the (unregularised) residual, relative to the largest
+     *         absolute element of the right hand side
+     */
+    double solve(final double[] rhs, final double[] solution) {
+
+        int dim = myNbVariables + myNbRows;
+
+        System.arraycopy(rhs, 0, solution, 0, dim);
+        myFactorisation.solve(solution);
+
+        double[] residual = new double[dim];
+        double[] candidate = new double[dim];
+        double[] correction = new double[dim];
+
+        double largest = this.residual(rhs, solution, residual);
+
+        for (int r = 0; r < REFINEMENTS && largest > ZERO; r++) {
+
+            System.arraycopy(residual, 0, correction, 0, dim);
+            myFactorisation.solve(correction);
+
+            for (int k = 0; k < dim; k++) {
+                candidate[k] = solution[k] - correction[k];
+            }
+
+            double refined = this.residual(rhs, candidate, correction);
+            if (!(refined < largest)) {
+                break;
+            }
+
+            largest = refined;
+            System.arraycopy(candidate, 0, solution, 0, dim);
+            System.arraycopy(correction, 0, residual, 0, dim);
+        }
+
+        double scale = ONE;
+        for (int k = 0; k < dim; k++) {
+            scale = Math.max(scale, Math.abs(rhs[k]));
+        }
+
+        return largest / scale;
+    }
+
+}
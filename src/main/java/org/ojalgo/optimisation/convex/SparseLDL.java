@@ -0,0 +1,505 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.convex;
+
+import java.util.Arrays;
+
+/**
+ * Sparse LDL<sup>T</sup> factorisation of symmetric quasi-definite matrices, such as regularised KKT
+ * systems. Such matrices can be factorised without pivoting using any symmetric ordering. The ordering
+ * (minimum degree) and the symbolic analysis are done once, when instantiated, and after that the matrix can
+ * be factorised numerically any number of times with different values.
+ * <p>
+ * The sparsity pattern is specified as the (row,column) coordinates of the entries in either the upper or
+ * the lower triangular part, or a mix of the two. When factorising the values are given in that same order.
+ * Duplicate coordinates are allowed – the values are summed.
+ * <p>
+ * Each diagonal element (pivot) is expected to be either positive or negative, and is replaced by a small
+ * value of the expected sign if it turns out too small – dynamic regularisation.
+ *
+ * @author apete
+ */
+final class SparseLDL {
+
+    /**
+     * Nodes with a larger (initial) degree are ordered last.
+     */
+    private static final double DENSE = 10.0;
+    private static final double PIVOT_REGULARISATION = 2E-7;
+    private static final double PIVOT_THRESHOLD = 1E-13;
+
+    /**
+     * Minimum degree ordering of the (symmetric) graph, using an explicit elimination graph. Nodes with a
+     * very large degree are removed up front and ordered last, and when what remains of the graph is dense
+     * the remaining nodes are ordered as they are.
+     *
+     * @param adjacency The neighbours of each node – no self references and no duplicates
+     * @return The permutation – the node that is to be eliminated k:th is at index k
+     */
+    static int[] order(final int[][] adjacency) {
+
+        int dim = adjacency.length;
+
+        int[][] graph = new int[dim][];
+        int[] degree = new int[dim];
+        boolean[] active = new boolean[dim];
+
+        int limit = Math.max(16, (int) (DENSE * Math.sqrt(dim)));
+
+        int[] retVal = new int[dim];
+        int nbOrdered = 0;
+        int nbDeferred = 0;
+        int[] deferred = new int[dim];
+
+        for (int i = 0; i < dim; i++) {
+            if (adjacency[i].length > limit) {
+                deferred[nbDeferred++] = i;
+            } else {
+                active[i] = true;
+            }
+        }
+
+        for (int i = 0; i < dim; i++) {
+            if (active[i]) {
+                int[] neighbours = adjacency[i];
+                int[] copy = new int[neighbours.length];
+                int size = 0;
+                for (int j : neighbours) {
+                    if (active[j]) {
+                        copy[size++] = j;
+                    }
+                }
+                graph[i] = copy;
+                degree[i] = size;
+            }
+        }
+
+        // Doubly linked lists of nodes with the same degree
+        int[] head = new int[dim + 1];
+        int[] next = new int[dim];
+        int[] previous = new int[dim];
+        Arrays.fill(head, -1);
+
+        int nbActive = 0;
+        for (int i = 0; i < dim; i++) {
+            if (active[i]) {
+                SparseLDL.insert(i, degree[i], head, next, previous);
+                nbActive++;
+            }
+        }
+
+        int[] marker = new int[dim];
+        int stamp = 0;
+        int[] clique = new int[dim];
+
+        int minDegree = 0;
+
+        while (nbActive > 0) {
+
+            while (head[minDegree] < 0) {
+                minDegree++;
+            }
+
+            if (minDegree > 0 && 2 * minDegree >= nbActive) {
+                // What remains is (close to) a dense matrix
+                break;
+            }
+
+            int p = head[minDegree];
+            SparseLDL.remove(p, degree[p], head, next, previous);
+            active[p] = false;
+            nbActive--;
+            retVal[nbOrdered++] = p;
+
+            int[] neighboursP = graph[p];
+            int size = 0;
+            for (int k = 0, end = degree[p]; k < end; k++) {
+                int u = neighboursP[k];
+                if (active[u]) {
+                    clique[size++] = u;
+                }
+            }
+            graph[p] = null;
+
+            for (int c = 0; c < size; c++) {
+
+                int u = clique[c];
+                SparseLDL.remove(u, degree[u], head, next, previous);
+
+                stamp++;
+
+                int[] neighboursU = graph[u];
+                int count = 0;
+                for (int k = 0, end = degree[u]; k < end; k++) {
+                    int w = neighboursU[k];
+                    if (active[w]) {
+                        neighboursU[count++] = w;
+                        marker[w] = stamp;
+                    }
+                }
+
+                for (int k = 0; k < size; k++) {
+                    int w = clique[k];
+                    if (w != u && marker[w] != stamp) {
+                        if (count == neighboursU.length) {
+                            neighboursU = Arrays.copyOf(neighboursU, Math.max(2 * count, count + size));
+                        }
+                        neighboursU[count++] = w;
+                    }
+                }
+
+                graph[u] = neighboursU;
+                degree[u] = count;
+                SparseLDL.insert(u, count, head, next, previous);
+            }
+
+            minDegree = Math.max(0, minDegree - 1);
+        }
+
+        for (int d = 0; d <= dim; d++) {
+            for (int i = head[d]; i >= 0; i = next[i]) {
+                retVal[nbOrdered++] = i;
+            }
+        }
+
+        for (int k = 0; k < nbDeferred; k++) {
+            retVal[nbOrdered++] = deferred[k];
+        }
+
+        return retVal;
+    }
+
+    private static void insert(final int node, final int degree, final int[] head, final int[] next, final int[] previous) {
+        int first = head[degree];
+        next[node] = first;
+        previous[node] = -1;
+        if (first >= 0) {
+            previous[first] = node;
+        }
+        head[degree] = node;
+    }
+
+    private static void remove(final int node, final int degree, final int[] head, final int[] next, final int[] previous) {
+        if (previous[node] >= 0) {
+            next[previous[node]] = next[node];
+        } else {
+            head[degree] = next[node];
+        }
+        if (next[node] >= 0) {
+            previous[next[node]] = previous[node];
+        }
+    }
+
+    private final double[] myD;
+    private final int myDim;
+    private final int[] myFlag;
+    private final int[] myInverse;
+    private final int[] myLi;
+    private final int[] myLnz;
+    private final int[] myLp;
+    private final double[] myLx;
+    private final int[] myParent;
+    private final int[] myPattern;
+    private final int[] myPermutation;
+    private final int[] myPointers;
+    private final int[] myPositions;
+    private int myRegularised = 0;
+    private final int[] myRows;
+    private final double[] mySigns;
+    private final double[] myValues;
+    private final double[] myWork;
+
+    /**
+     * @param dim The matrix dimension
+     * @param rows The row indices of the entries
+     * @param columns The column indices of the entries
+     * @param nbEntries The number of entries – the arrays may be longer
+     * @param negative Which pivots are expected to be negative
+     */
+    SparseLDL(final int dim, final int[] rows, final int[] columns, final int nbEntries, final boolean[] negative) {
+
+        super();
+
+        myDim = dim;
+
+        // Adjacency, for the ordering
+
+        int[] counts = new int[dim];
+        for (int e = 0; e < nbEntries; e++) {
+            if (rows[e] != columns[e]) {
+                counts[rows[e]]++;
+                counts[columns[e]]++;
+            }
+        }
+        int[][] adjacency = new int[dim][];
+        for (int i = 0; i < dim; i++) {
+            adjacency[i] = new int[counts[i]];
+        }
+        Arrays.fill(counts, 0);
+        for (int e = 0; e < nbEntries; e++) {
+            int i = rows[e];
+            int j = columns[e];
+            if (i != j) {
+                adjacency[i][counts[i]++] = j;
+                adjacency[j][counts[j]++] = i;
+            }
+        }
+        int[] marker = new int[dim];
+        Arrays.fill(marker, -1);
+        for (int i = 0; i < dim; i++) {
+            int[] neighbours = adjacency[i];
+            int size = 0;
+            for (int j : neighbours) {
+                if (marker[j] != i) {
+                    marker[j] = i;
+                    neighbours[size++] = j;
+                }
+            }
+            adjacency[i] = size == neighbours.length ? neighbours : Arrays.copyOf(neighbours, size);
+        }
+
+        myPermutation = SparseLDL.order(adjacency);
+        myInverse = new int[dim];
+        for (int k = 0; k < dim; k++) {
+            myInverse[myPermutation[k]] = k;
+        }
+
+        mySigns = new double[dim];
+        for (int k = 0; k < dim; k++) {
+            mySigns[k] = negative[myPermutation[k]] ? -1.0 : 1.0;
+        }
+
+        // Permuted upper triangular part, column-wise, always including the diagonal
+
+        int[] pointers = new int[dim + 1];
+        for (int e = 0; e < nbEntries; e++) {
+            pointers[Math.max(myInverse[rows[e]], myInverse[columns[e]]) + 1]++;
+        }
+        for (int k = 0; k < dim; k++) {
+            pointers[k + 1] += pointers[k] + 1;
+        }
+        int[] entries = new int[pointers[dim]];
+        int[] next = new int[dim];
+        for (int k = 0; k < dim; k++) {
+            entries[pointers[k]] = -1 - k;
+            next[k] = pointers[k] + 1;
+        }
+        for (int e = 0; e < nbEntries; e++) {
+            entries[next[Math.max(myInverse[rows[e]], myInverse[columns[e]])]++] = e;
+        }
+
+        myPositions = new int[nbEntries];
+        int[] compressedRows = new int[entries.length];
+        int[] compressedPointers = new int[dim + 1];
+        Arrays.fill(marker, -1);
+        int[] position = new int[dim];
+        int nnz = 0;
+        for (int k = 0; k < dim; k++) {
+            compressedPointers[k] = nnz;
+            for (int p = pointers[k]; p < pointers[k + 1]; p++) {
+                int e = entries[p];
+                int row = e < 0 ? k : Math.min(myInverse[rows[e]], myInverse[columns[e]]);
+                if (marker[row] != k) {
+                    marker[row] = k;
+                    position[row] = nnz;
+                    compressedRows[nnz++] = row;
+                }
+                if (e >= 0) {
+                    myPositions[e] = position[row];
+                }
+            }
+        }
+        compressedPointers[dim] = nnz;
+
+        myPointers = compressedPointers;
+        myRows = Arrays.copyOf(compressedRows, nnz);
+        myValues = new double[nnz];
+
+        // Symbolic analysis – elimination tree and column counts
+
+        myParent = new int[dim];
+        myFlag = new int[dim];
+        myLnz = new int[dim];
+        myLp = new int[dim + 1];
+
+        for (int k = 0; k < dim; k++) {
+            myParent[k] = -1;
+            myFlag[k] = k;
+            myLnz[k] = 0;
+            for (int p = myPointers[k]; p < myPointers[k + 1]; p++) {
+                for (int i = myRows[p]; i < k && myFlag[i] != k; i = myParent[i]) {
+                    if (myParent[i] == -1) {
+                        myParent[i] = k;
+                    }
+                    myLnz[i]++;
+                    myFlag[i] = k;
+                }
+            }
+        }
+        for (int k = 0; k < dim; k++) {
+            myLp[k + 1] = myLp[k] + myLnz[k];
+        }
+
+        myLi = new int[myLp[dim]];
+        myLx = new double[myLp[dim]];
+        myD = new double[dim];
+        myPattern = new int[dim];
+        myWork = new double[dim];
+    }
+
+    /**
+     * The number of (strictly lower triangular) nonzeros in L
+     */
+    int countNonzeros() {
+        return myLp[myDim];
+    }
+
+    /**
+     * The number of pivots that were replaced by the latest factorisation
+     */
+    int countRegularised() {
+        return myRegularised;
+    }
+
+    /**
+     * @param values The entry values in the same order as the coordinates were specified when instantiated
+     * @return false if the factorisation failed (NaN or infinite values)
+     */
+    boolean factor(final double[] values) {
+
+        double[] cx = myValues;
+        Arrays.fill(cx, 0.0);
+        for (int e = 0; e < myPositions.length; e++) {
+            cx[myPositions[e]] += values[e];
+        }
+
+        int dim = myDim;
+        double[] y = myWork;
+        int[] flag = myFlag;
+        int[] pattern = myPattern;
+        int[] parent = myParent;
+        int[] lnz = myLnz;
+        int[] lp = myLp;
+        int[] li = myLi;
+        double[] lx = myLx;
+        double[] d = myD;
+
+        myRegularised = 0;
+        Arrays.fill(y, 0.0);
+
+        for (int k = 0; k < dim; k++) {
+
+            y[k] = 0.0;
+            int top = dim;
+            flag[k] = k;
+            lnz[k] = 0;
+
+            for (int p = myPointers[k], end = myPointers[k + 1]; p < end; p++) {
+                int i = myRows[p];
+                y[i] += cx[p];
+                int len = 0;
+                for (; flag[i] != k; i = parent[i]) {
+                    pattern[len++] = i;
+                    flag[i] = k;
+                }
+                while (len > 0) {
+                    pattern[--top] = pattern[--len];
+                }
+            }
+
+            double dk = y[k];
+            y[k] = 0.0;
+
+            for (; top < dim; top++) {
+                int i = pattern[top];
+                double yi = y[i];
+                y[i] = 0.0;
+                int p = lp[i];
+                for (int end = p + lnz[i]; p < end; p++) {
+                    y[li[p]] -= lx[p] * yi;
+                }
+                double lki = yi / d[i];
+                dk -= lki * yi;
+                li[p] = k;
+                lx[p] = lki;
+                lnz[i]++;
+            }
+
+            if (!Double.isFinite(dk)) {
+                return false;
+            }
+
+            if (mySigns[k] * dk < PIVOT_THRESHOLD) {
+                dk = mySigns[k] * PIVOT_REGULARISATION;
+                myRegularised++;
+            }
+
+            d[k] = dk;
+        }
+
+        return true;
+    }
+
+    /**
+     * Solve [A][X] = [B] in place, [B] is replaced by [X]. Requires that {@link #factor(double[])} has been
+     * called (successfully).
+     */
+    void solve(final double[] rhs) {
+
+        int dim = myDim;
+        double[] x = myWork;
+        int[] lp = myLp;
+        int[] lnz = myLnz;
+        int[] li = myLi;
+        double[] lx = myLx;
+
+        for (int k = 0; k < dim; k++) {
+            x[k] = rhs[myPermutation[k]];
+        }
+
+        for (int j = 0; j < dim; j++) {
+            double xj = x[j];
+            if (xj != 0.0) {
+                for (int p = lp[j], end = p + lnz[j]; p < end; p++) {
+                    x[li[p]] -= lx[p] * xj;
+                }
+            }
+        }
+
+        for (int j = 0; j < dim; j++) {
+            x[j] /= myD[j];
+        }
+
+        for (int j = dim - 1; j >= 0; j--) {
+            double xj = x[j];
+            for (int p = lp[j], end = p + lnz[j]; p < end; p++) {
+                xj -= lx[p] * x[li[p]];
+            }
+            x[j] = xj;
+        }
+
+        for (int k = 0; k < dim; k++) {
+            rhs[myPermutation[k]] = x[k];
+        }
+    }
+
+}
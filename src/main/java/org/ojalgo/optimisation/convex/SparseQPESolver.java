@@ -0,0 +1,293 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.convex;
+
+import static org.ojalgo.function.constant.PrimitiveMath.*;
+
+import org.ojalgo.array.ArrayR064;
+import org.ojalgo.optimisation.Expression;
+import org.ojalgo.optimisation.ExpressionsBasedModel;
+import org.ojalgo.optimisation.GenericSolver;
+import org.ojalgo.optimisation.Optimisation;
+import org.ojalgo.optimisation.SparseModel;
+
+/**
+ * Solves equality constrained QP problems
+ *
+ * <pre>
+ * min 1/2 [x]<sup>T</sup>[Q][x] + [q]<sup>T</sup>[x] subject to [A][x] = [b]
+ * </pre>
+ *
+ * directly from a {@link SparseModel} – the same problems as the (dense) equality constrained
+ * {@link ConvexSolver}, but without ever forming any dense matrices. The KKT system is assembled from the
+ * model's nonzeros and factorised using a sparse LDL<sup>T</sup> factorisation, see {@link SparseKKT}, so
+ * memory use is proportional to the number of nonzeros (in the model and the factor).
+ * <p>
+ * The variables have to be either free or fixed, and the constraints equalities. Fixed variables are
+ * eliminated. [Q] is assumed to be positive semidefinite (negative semidefinite if maximising). If the KKT
+ * system has no accurate solution the problem is reported as infeasible (the constraints are inconsistent)
+ * or unbounded.
+ * <p>
+ * {@link ExpressionsBasedModel} uses this solver for large enough models that qualify, see
+ * {@link ModelIntegration#isCapable(ExpressionsBasedModel)}.
+ *
+ * @author apete
+ */
+public final class SparseQPESolver extends GenericSolver {
+
+    public static final class ModelIntegration extends ExpressionsBasedModel.Integration<SparseQPESolver> {
+
+        public SparseQPESolver build(final ExpressionsBasedModel model) {
+            return SparseQPESolver.of(SparseModel.of(model), model.options);
+        }
+
+        /**
+         * Continuous models with a quadratic objective function, only (linear) equality constraints, and
+         * where all variables are either free or fixed. Unless {@link Optimisation.Options#sparse} is set to
+         * true the model also has to be large – at least 1000 variables. If set to false this integration is
+         * never capable.
+         */
+        public boolean isCapable(final ExpressionsBasedModel model) {
+
+            Boolean sparse = model.options.sparse;
+            if (sparse != null && !sparse.booleanValue() || sparse == null && model.countVariables() < QPESolver.SPARSE_THRESHOLD) {
+                return false;
+            }
+
+            return !model.isAnyVariableInteger() && model.isAnyObjectiveQuadratic() && !model.isAnyConstraintQuadratic()
+                    && model.constraints().allMatch(Expression::isEqualityConstraint)
+                    && model.variables().noneMatch(variable -> variable.isLowerLimitSet() || variable.isUpperLimitSet());
+        }
+
+        /**
+         * Fixed variables are eliminated from the KKT system, but put back in the solution the solver
+         * returns.
+         */
+        @Override
+        protected boolean isSolutionMapped() {
+            return false;
+        }
+
+    }
+
+    public static final ModelIntegration INTEGRATION = new ModelIntegration();
+
+    private static final double ACCURACY = 1E-10;
+    private static final double FEASIBILITY = 1E-6;
+
+    /**
+     * @throws IllegalArgumentException If there are inequality constraints or bounded (not fixed) variables
+     */
+    public static SparseQPESolver of(final SparseModel model, final Optimisation.Options options) {
+        return new SparseQPESolver(model, options);
+    }
+
+    private boolean myInfeasible = false;
+    private final SparseKKT myKKT;
+    private final SparseModel myModel;
+    private final int myNbRows;
+    private final int myNbX;
+    private final double[] myRHS;
+    /**
+     * For each of the model's variables the index in x, or -1 if the variable is fixed
+     */
+    private final int[] myVariableIndices;
+
+    private SparseQPESolver(final SparseModel model, final Optimisation.Options options) {
+
+        super(options);
+
+        myModel = model;
+
+        int nbVariables = model.countVariables();
+        int nbConstraints = model.countConstraints();
+        double sign = model.getSense() == Optimisation.Sense.MAX ? NEG : ONE;
+
+        myVariableIndices = new int[nbVariables];
+
+        int nbX = 0;
+        for (int j = 0; j < nbVariables; j++) {
+            double lower = model.getLowerBound(j);
+            double upper = model.getUpperBound(j);
+            if (lower == upper) {
+                myVariableIndices[j] = -1;
+            } else if (lower == Double.NEGATIVE_INFINITY && upper == Double.POSITIVE_INFINITY) {
+                myVariableIndices[j] = nbX++;
+            } else {
+                throw new IllegalArgumentException("Variables have to be free or fixed!");
+            }
+        }
+
+        double[] linear = new double[nbX];
+        for (int j = 0; j < nbVariables; j++) {
+            int k = myVariableIndices[j];
+            if (k >= 0) {
+                linear[k] = -sign * model.getObjective(j);
+            }
+        }
+
+        // Quadratic part, fixed variables contribute to the linear part
+
+        SparseKKT.Entries entriesQ = new SparseKKT.Entries(model.countQuadraticFactors());
+
+        for (int q = 0, limit = model.countQuadraticFactors(); q < limit; q++) {
+            int row = model.getQuadraticRow(q);
+            int col = model.getQuadraticColumn(q);
+            double factor = sign * model.getQuadraticValue(q);
+            int r = myVariableIndices[row];
+            int c = myVariableIndices[col];
+            if (r >= 0 && c >= 0) {
+                if (r == c) {
+                    entriesQ.add(r, c, TWO * factor);
+                } else {
+                    entriesQ.add(Math.min(r, c), Math.max(r, c), factor);
+                }
+            } else if (r >= 0) {
+                linear[r] -= factor * model.getLowerBound(col);
+            } else if (c >= 0) {
+                linear[c] -= factor * model.getLowerBound(row);
+            }
+        }
+
+        // Rows
+
+        SparseKKT.Entries entriesA = new SparseKKT.Entries(model.countNonzeros());
+        double[] rhs = new double[nbConstraints];
+
+        int nbRows = 0;
+        for (int i = 0; i < nbConstraints; i++) {
+
+            double lower = model.getLowerLimit(i);
+            double upper = model.getUpperLimit(i);
+
+            if (lower == Double.NEGATIVE_INFINITY && upper == Double.POSITIVE_INFINITY) {
+                continue;
+            } else if (lower != upper) {
+                throw new IllegalArgumentException("Constraints have to be equalities!");
+            }
+
+            double shift = ZERO;
+            int count = 0;
+            for (int k = 0, limit = model.countNonzeros(i); k < limit; k++) {
+                int j = model.getColumn(i, k);
+                double value = model.getValue(i, k);
+                if (myVariableIndices[j] >= 0) {
+                    if (value != ZERO) {
+                        entriesA.add(nbRows, myVariableIndices[j], value);
+                        count++;
+                    }
+                } else {
+                    shift += value * model.getLowerBound(j);
+                }
+            }
+
+            if (count == 0) {
+                // Nothing left of the row
+                if (Math.abs(lower - shift) > FEASIBILITY * (ONE + Math.abs(shift))) {
+                    myInfeasible = true;
+                }
+                continue;
+            }
+
+            rhs[nbRows++] = lower - shift;
+        }
+
+        myNbX = nbX;
+        myNbRows = nbRows;
+
+        myRHS = new double[nbX + nbRows];
+        System.arraycopy(linear, 0, myRHS, 0, nbX);
+        System.arraycopy(rhs, 0, myRHS, nbX, nbRows);
+
+        myKKT = new SparseKKT(nbX, nbRows, entriesQ, entriesA);
+    }
+
+    /**
+     * There is no warm start – the kick starter is ignored.
+     */
+    public Optimisation.Result solve(final Optimisation.Result kickStarter) {
+
+        if (myInfeasible) {
+            return this.buildResult(Optimisation.State.INFEASIBLE, null);
+        }
+
+        int nbX = myNbX;
+        int nbRows = myNbRows;
+
+        this.resetIterationsCount();
+
+        long started = this.startFactorisation();
+        boolean factored = myKKT.factor();
+        this.reportFactorisation(nbX + nbRows, started);
+
+        if (!factored) {
+            return this.buildResult(Optimisation.State.FAILED, null);
+        }
+
+        double[] solution = new double[nbX + nbRows];
+        double accuracy = myKKT.solve(myRHS, solution);
+
+        this.incrementIterationsCount();
+
+        if (this.isLogDebug()) {
+            this.log("Sparse KKT: {} nonzeros in the factor, relative residual {}", myKKT.countNonzeros(), accuracy);
+        }
+
+        if (accuracy <= ACCURACY) {
+            return this.buildResult(Optimisation.State.OPTIMAL, solution);
+        }
+
+        double[] residual = new double[nbX + nbRows];
+        myKKT.residual(myRHS, solution, residual);
+
+        double scale = ONE;
+        for (int k = 0; k < nbX + nbRows; k++) {
+            scale = Math.max(scale, Math.abs(myRHS[k]));
+        }
+        for (int i = 0; i < nbRows; i++) {
+            if (Math.abs(residual[nbX + i]) > FEASIBILITY * scale) {
+                return this.buildResult(Optimisation.State.INFEASIBLE, null);
+            }
+        }
+
+        return this.buildResult(Optimisation.State.UNBOUNDED, null);
+    }
+
+    private Optimisation.Result buildResult(final Optimisation.State state, final double[] x) {
+
+        int nbVariables = myModel.countVariables();
+
+        ArrayR064 solution = ArrayR064.make(nbVariables);
+
+        for (int j = 0; j < nbVariables; j++) {
+            int k = myVariableIndices[j];
+            if (k < 0) {
+                solution.set(j, myModel.getLowerBound(j));
+            } else if (x != null) {
+                solution.set(j, x[k]);
+            }
+        }
+
+        return new Optimisation.Result(state, myModel.evaluate(solution), solution);
+    }
+
+}
@@ -0,0 +1,472 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.integer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.ojalgo.optimisation.Expression;
+import org.ojalgo.optimisation.ExpressionsBasedModel;
+import org.ojalgo.optimisation.Optimisation;
+import org.ojalgo.structure.Access1D;
+
+/**
+ * Keeps track of the cuts generated by the {@link CutSeparator}s. Cuts are normalised and deduplicated when
+ * added, scored by efficacy (violation distance) when selected, and selected cuts should not be too
+ * parallel. Cuts that are repeatedly not violated age, and are eventually purged.
+ *
+ * @author apete
+ */
+final class CutPool {
+
+    /**
+     * A cut of the form [coefficients]*[x] &lt;= rhs, normalised so that the largest (absolute) coefficient
+     * is 1.0 and with the indices sorted.
+     */
+    static final class Cut {
+
+        final double[] coefficients;
+        final int[] indices;
+        final double norm;
+        final double rhs;
+        final CutSeparator separator;
+
+        private int myAge = 0;
+        private final int myHashCode;
+
+        Cut(final CutSeparator separator, final int[] indices, final double[] coefficients, final double rhs) {
+
+            super();
+
+            this.separator = separator;
+            this.indices = indices;
+            this.coefficients = coefficients;
+            this.rhs = rhs;
+
+            double sumOfSquares = 0.0;
+            for (int k = 0; k < coefficients.length; k++) {
+                sumOfSquares += coefficients[k] * coefficients[k];
+            }
+            norm = Math.sqrt(sumOfSquares);
+
+            myHashCode = Arrays.hashCode(indices);
+        }
+
+        /**
+         * Same indices and (roughly) the same coefficients – the rhs may differ.
+         */
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Cut)) {
+                return false;
+            }
+            Cut other = (Cut) obj;
+            if (myHashCode != other.myHashCode || !Arrays.equals(indices, other.indices)) {
+                return false;
+            }
+            for (int k = 0; k < coefficients.length; k++) {
+                if (Math.abs(coefficients[k] - other.coefficients[k]) > EQUALITY) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return myHashCode;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            builder.append(separator);
+            builder.append(" ");
+            for (int k = 0; k < indices.length; k++) {
+                builder.append(coefficients[k]);
+                builder.append("*x");
+                builder.append(indices[k]);
+                builder.append(" ");
+            }
+            builder.append("<= ");
+            builder.append(rhs);
+            return builder.toString();
+        }
+
+        Expression addTo(final ExpressionsBasedModel model) {
+
+            Expression retVal = model.newExpression("CUT_" + separator + "_" + COUNTER.incrementAndGet());
+
+            for (int k = 0; k < indices.length; k++) {
+                retVal.set(indices[k], coefficients[k]);
+            }
+            retVal.upper(rhs);
+
+            return retVal;
+        }
+
+        /**
+         * The (Euclidean) distance by which the point violates the cut. Negative if the point does not
+         * violate the cut.
+         */
+        double efficacy(final double[] point) {
+            double activity = 0.0;
+            for (int k = 0; k < indices.length; k++) {
+                activity += coefficients[k] * point[indices[k]];
+            }
+            return (activity - rhs) / norm;
+        }
+
+        /**
+         * The absolute value of the cosine of the angle between the two cuts – 1.0 means parallel and 0.0
+         * means orthogonal.
+         */
+        double parallelism(final Cut other) {
+
+            double product = 0.0;
+
+            int[] otherIndices = other.indices;
+            double[] otherCoefficients = other.coefficients;
+
+            for (int k = 0, o = 0; k < indices.length && o < otherIndices.length;) {
+                if (indices[k] < otherIndices[o]) {
+                    k++;
+                } else if (indices[k] > otherIndices[o]) {
+                    o++;
+                } else {
+                    product += coefficients[k] * otherCoefficients[o];
+                    k++;
+                    o++;
+                }
+            }
+
+            return Math.abs(product) / (norm * other.norm);
+        }
+
+    }
+
+    /**
+     * Max number of rounds of cut generation at the root node
+     */
+    static final int ROOT_ROUNDS = 5;
+    /**
+     * Max number of cuts added to a (node) model per round
+     */
+    static final int MAX_CUTS = 20;
+    /**
+     * A cut not violated this number of times (in a row) is purged from the pool
+     */
+    static final int MAX_AGE = 10;
+    /**
+     * Number of local cut rounds before deciding if they are useful – at least 1 in this many rounds need to
+     * improve the node bound
+     */
+    static final int LOCAL_TRIALS = 10;
+    static final double MAX_PARALLELISM = 0.95;
+    static final int MAX_SIZE = 1_000;
+    static final double MIN_EFFICACY = 1E-4;
+    /**
+     * Root cuts are only kept if they improved the relaxed objective function value (relatively) more than
+     * this
+     */
+    static final double MIN_GAIN = 1E-3;
+    /**
+     * Stop the root cut rounds when the relaxed objective function value no longer improves (relatively) more
+     * than this
+     */
+    static final double STALLING = 1E-6;
+
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+    /**
+     * Smallest/largest (absolute) coefficient ratio
+     */
+    private static final double DYNAMISM = 1E-6;
+    private static final double EQUALITY = 1E-9;
+    private static final Comparator<Cut> OLDEST = Comparator.comparingInt((final Cut cut) -> cut.myAge).reversed();
+
+    private static boolean isIntegral(final double value) {
+        return Math.abs(value - Math.rint(value)) <= EQUALITY;
+    }
+
+    private final LongAdder myApplied = new LongAdder();
+    private transient CutSeparators.ConflictGraph myConflictGraph = null;
+    private final Map<Cut, Cut> myCuts = new LinkedHashMap<>();
+    private final LongAdder myGenerated = new LongAdder();
+    private final LongAdder myLocalGains = new LongAdder();
+    private final LongAdder myLocalRounds = new LongAdder();
+    private final PrimalHeuristic.Context.Rows myRows;
+
+    CutPool(final ExpressionsBasedModel model) {
+        super();
+        myRows = new PrimalHeuristic.Context.Rows(model);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("CutPool [G=");
+        builder.append(myGenerated);
+        builder.append(", A=");
+        builder.append(myApplied);
+        builder.append(", P=");
+        builder.append(this.size());
+        builder.append("]");
+        return builder.toString();
+    }
+
+    /**
+     * Add cuts to the pool – duplicates are merged keeping the tightest rhs.
+     */
+    synchronized void add(final Collection<Cut> cuts) {
+
+        for (Cut cut : cuts) {
+            Cut existing = myCuts.get(cut);
+            if (existing == null || cut.rhs < existing.rhs) {
+                myCuts.remove(cut);
+                myCuts.put(cut, cut);
+                myGenerated.increment();
+            }
+        }
+
+        if (myCuts.size() > MAX_SIZE) {
+            List<Cut> oldest = new ArrayList<>(myCuts.keySet());
+            oldest.sort(OLDEST);
+            for (int i = 0, limit = oldest.size() - MAX_SIZE; i < limit; i++) {
+                myCuts.remove(oldest.get(i));
+            }
+        }
+    }
+
+    long countApplied() {
+        return myApplied.longValue();
+    }
+
+    long countGenerated() {
+        return myGenerated.longValue();
+    }
+
+    /**
+     * Local (in-tree) cut rounds cost an extra node solve each. If, after a number of trials, they rarely
+     * improve the node bound then stop doing them.
+     */
+    boolean isLocalCuttingUseful() {
+        long rounds = myLocalRounds.longValue();
+        return rounds < LOCAL_TRIALS || myLocalGains.longValue() * LOCAL_TRIALS >= rounds;
+    }
+
+    /**
+     * Record the outcome of a local cut round – did it (relatively) improve the node bound by at least
+     * {@link #MIN_GAIN}, or make the node infeasible?
+     */
+    void recordLocal(final Optimisation.Result before, final Optimisation.Result after) {
+        myLocalRounds.increment();
+        if (!after.getState().isOptimal()) {
+            myLocalGains.increment();
+        } else {
+            double value = before.getValue();
+            if (Math.abs(after.getValue() - value) > MIN_GAIN * Math.max(1.0, Math.abs(value))) {
+                myLocalGains.increment();
+            }
+        }
+    }
+
+    /**
+     * Built lazily, on demand, and only once.
+     */
+    synchronized CutSeparators.ConflictGraph getConflictGraph() {
+        if (myConflictGraph == null) {
+            myConflictGraph = new CutSeparators.ConflictGraph(myRows);
+        }
+        return myConflictGraph;
+    }
+
+    PrimalHeuristic.Context.Rows getRows() {
+        return myRows;
+    }
+
+    /**
+     * Validates and normalises a cut candidate.
+     *
+     * @return The normalised cut, or null if the candidate is numerically unsafe
+     */
+    Cut newCut(final CutSeparator separator, final int[] indices, final double[] coefficients, final double rhs) {
+
+        PrimalHeuristic.Context.Rows rows = this.getRows();
+
+        int length = Math.min(indices.length, coefficients.length);
+
+        double largest = 0.0;
+        for (int k = 0; k < length; k++) {
+            largest = Math.max(largest, Math.abs(coefficients[k]));
+        }
+        if (largest <= 0.0 || !Double.isFinite(largest) || !Double.isFinite(rhs)) {
+            return null;
+        }
+
+        double[] dense = new double[rows.countVariables()];
+        for (int k = 0; k < length; k++) {
+            dense[indices[k]] += coefficients[k];
+        }
+
+        double relaxed = rhs;
+        int count = 0;
+        for (int j = 0; j < dense.length; j++) {
+            double aj = dense[j];
+            if (aj != 0.0) {
+                if (Math.abs(aj) < DYNAMISM * largest) {
+                    // Remove tiny coefficients by relaxing the rhs, using the variable's bounds
+                    double bound = aj > 0.0 ? rows.lower[j] : rows.upper[j];
+                    if (!Double.isFinite(bound)) {
+                        return null;
+                    }
+                    relaxed -= aj * bound;
+                    dense[j] = 0.0;
+                } else {
+                    count++;
+                }
+            }
+        }
+
+        if (count == 0) {
+            return null;
+        }
+
+        // Cuts with integral coefficients and rhs (cover and clique cuts) need no safety margin
+        boolean integral = CutPool.isIntegral(relaxed);
+        for (int j = 0; integral && j < dense.length; j++) {
+            integral = CutPool.isIntegral(dense[j]);
+        }
+
+        int[] cutIndices = new int[count];
+        double[] cutCoefficients = new double[count];
+        for (int j = 0, k = 0; j < dense.length; j++) {
+            if (dense[j] != 0.0) {
+                cutIndices[k] = j;
+                cutCoefficients[k] = dense[j] / largest;
+                k++;
+            }
+        }
+
+        double cutRHS = relaxed / largest;
+        if (!integral) {
+            // Safety margin
+            cutRHS += EQUALITY * Math.max(1.0, Math.abs(cutRHS));
+        }
+
+        return new Cut(separator, cutIndices, cutCoefficients, cutRHS);
+    }
+
+    /**
+     * Invoke the separators, add whatever they find to the pool, and then select cuts from the pool.
+     *
+     * @param separators The separators to invoke
+     * @param solution The solution to separate (cut off)
+     * @param strategy The strategy
+     * @param limit Max number of cuts to select
+     * @return The selected cuts – violated, efficacious and not parallel
+     */
+    List<Cut> separate(final Collection<CutSeparator> separators, final Access1D<?> solution, final ModelStrategy strategy, final int limit) {
+
+        double[] point = solution.toRawCopy1D();
+
+        CutSeparator.Context context = new CutSeparator.Context(this, point, strategy.getIntegralityTolerance());
+
+        for (CutSeparator separator : separators) {
+            separator.separate(context);
+        }
+
+        this.add(context.getCuts());
+
+        return this.select(point, limit);
+    }
+
+    /**
+     * Select the most efficacious cuts, violated by the point, while avoiding parallel cuts. Cuts that are not
+     * violated are aged, and possibly purged.
+     */
+    synchronized List<Cut> select(final double[] point, final int limit) {
+
+        List<Cut> candidates = new ArrayList<>();
+        Map<Cut, Double> efficacies = new LinkedHashMap<>();
+
+        for (Iterator<Cut> iterator = myCuts.keySet().iterator(); iterator.hasNext();) {
+            Cut cut = iterator.next();
+            double efficacy = cut.efficacy(point);
+            if (efficacy > MIN_EFFICACY) {
+                cut.myAge = 0;
+                candidates.add(cut);
+                efficacies.put(cut, efficacy);
+            } else if (++cut.myAge > MAX_AGE) {
+                iterator.remove();
+            }
+        }
+
+        candidates.sort(Comparator.comparingDouble((final Cut cut) -> efficacies.get(cut)).reversed());
+
+        List<Cut> retVal = new ArrayList<>();
+
+        for (Cut candidate : candidates) {
+            if (retVal.size() >= limit) {
+                break;
+            }
+            boolean parallel = false;
+            for (Cut selected : retVal) {
+                if (candidate.parallelism(selected) > MAX_PARALLELISM) {
+                    parallel = true;
+                    break;
+                }
+            }
+            if (!parallel) {
+                retVal.add(candidate);
+            }
+        }
+
+        myApplied.add(retVal.size());
+
+        return retVal;
+    }
+
+    synchronized int size() {
+        return myCuts.size();
+    }
+
+    /**
+     * Remove cuts from the pool – typically because they've been added to the model itself.
+     */
+    synchronized void remove(final Collection<Cut> cuts) {
+        for (Cut cut : cuts) {
+            myCuts.remove(cut);
+        }
+    }
+
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.integer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.ojalgo.optimisation.integer.CutPool.Cut;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * A cut separator tries to find valid inequalities (cuts) that are violated by the solution to a node's
+ * relaxed problem. Unlike the Gomory Mixed Integer cuts, that are derived from the simplex tableau, these
+ * separators work on the structure of the (linear) constraints of the {@link IntegerSolver}'s model.
+ * <p>
+ * All cuts are globally valid – derived from the model's original constraints and variable bounds. They are
+ * collected in a {@link CutPool} from which the most efficacious and the least parallel are selected. At the
+ * root node this is done in a number of rounds, and the selected cuts are added to the model itself. Further
+ * down the tree the cuts are only added to the node models, and the separators are invoked with a frequency
+ * specific to each separator. The built-in separators are defined in {@link CutSeparators}, and which ones
+ * to use is configured via {@link IntegerStrategy.ConfigurableStrategy#withCutSeparators(CutSeparator...)}.
+ *
+ * @author apete
+ */
+public abstract class CutSeparator {
+
+    /**
+     * What a separator has access to when invoked. A new instance is created for each invocation.
+     *
+     * @author apete
+     */
+    public static final class Context {
+
+        private final List<Cut> myCuts = new ArrayList<>();
+        private final NumberContext myIntegrality;
+        private final double[] myPoint;
+        private final CutPool myPool;
+
+        Context(final CutPool pool, final double[] point, final NumberContext integrality) {
+
+            super();
+
+            myPool = pool;
+            myPoint = point;
+            myIntegrality = integrality;
+        }
+
+        /**
+         * Add a cut candidate of the form [coefficients]*[x] &lt;= rhs. Candidates that are numerically
+         * unsafe, or not violated by the current solution, are silently ignored.
+         *
+         * @param separator The separator that generated the cut
+         * @param indices Model/global variable indices
+         * @param coefficients The coefficients corresponding to those indices
+         * @param rhs The right hand side (upper limit) of the inequality
+         * @return true if the cut was accepted as a candidate
+         */
+        public boolean add(final CutSeparator separator, final int[] indices, final double[] coefficients, final double rhs) {
+
+            Cut cut = myPool.newCut(separator, indices, coefficients, rhs);
+
+            if (cut != null && cut.efficacy(myPoint) > CutPool.MIN_EFFICACY) {
+                myCuts.add(cut);
+                return true;
+            } else {
+                return false;
+            }
+        }
+
+        public int countVariables() {
+            return myPoint.length;
+        }
+
+        public NumberContext getIntegralityTolerance() {
+            return myIntegrality;
+        }
+
+        public double getLowerBound(final int index) {
+            return myPool.getRows().lower[index];
+        }
+
+        /**
+         * @return The (fractional) solution to separate – the model's variables in model order
+         */
+        public double[] getPoint() {
+            return myPoint;
+        }
+
+        public double getUpperBound(final int index) {
+            return myPool.getRows().upper[index];
+        }
+
+        public boolean isFractional(final double value) {
+            return !myIntegrality.isZero(Math.abs(value - Math.rint(value)));
+        }
+
+        public boolean isInteger(final int index) {
+            return myPool.getRows().integer[index];
+        }
+
+        List<Cut> getCuts() {
+            return myCuts;
+        }
+
+        CutPool getPool() {
+            return myPool;
+        }
+
+        PrimalHeuristic.Context.Rows getRows() {
+            return myPool.getRows();
+        }
+
+    }
+
+    private final int myFrequency;
+
+    /**
+     * @param frequency Invoke at every node where the node sequence number is a multiple of this (positive)
+     *        frequency. Zero (or negative) means the separator is only invoked at the root node.
+     */
+    protected CutSeparator(final int frequency) {
+        super();
+        myFrequency = frequency;
+    }
+
+    public final int getFrequency() {
+        return myFrequency;
+    }
+
+    /**
+     * @return true if the separator should be invoked at this node
+     */
+    public boolean isApplicable(final NodeKey node) {
+
+        if (node.sequence == 0L) {
+            return true;
+        }
+
+        return myFrequency > 0 && node.sequence % myFrequency == 0L;
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName();
+    }
+
+    /**
+     * Look for violated cuts, and add them to the context using
+     * {@link Context#add(CutSeparator, int[], double[], double)}.
+     */
+    protected abstract void separate(CutSeparator.Context context);
+
+}
@@ -0,0 +1,669 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.integer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.ojalgo.array.IntHashSet;
+import org.ojalgo.optimisation.integer.PrimalHeuristic.Context.Rows;
+
+/**
+ * The built-in {@link CutSeparator}s.
+ *
+ * @author apete
+ */
+public abstract class CutSeparators {
+
+    /**
+     * Clique cuts derived from a conflict graph. Two binary variables (or their complements) are in conflict
+     * if they can not both be 1 without violating some constraint. A set of pairwise conflicting literals –
+     * a clique – can sum to at most 1.
+     */
+    static final class CliqueCuts extends CutSeparator {
+
+        private static final int MAX_STARTS = 100;
+
+        /**
+         * Insertion sort of the literals, in descending order of their values.
+         */
+        private static void sortDescending(final int[] literals, final double[] values) {
+            for (int k = 1; k < literals.length; k++) {
+                int literal = literals[k];
+                double value = values[literal];
+                int p = k - 1;
+                while (p >= 0 && values[literals[p]] < value) {
+                    literals[p + 1] = literals[p];
+                    p--;
+                }
+                literals[p + 1] = literal;
+            }
+        }
+
+        CliqueCuts(final int frequency) {
+            super(frequency);
+        }
+
+        @Override
+        protected void separate(final CutSeparator.Context context) {
+
+            ConflictGraph graph = context.getPool().getConflictGraph();
+
+            if (graph.isEmpty()) {
+                return;
+            }
+
+            double[] point = context.getPoint();
+
+            int nbLiterals = 2 * point.length;
+            double[] values = new double[nbLiterals];
+            for (int j = 0; j < point.length; j++) {
+                values[2 * j] = point[j];
+                values[2 * j + 1] = 1.0 - point[j];
+            }
+
+            List<Integer> starts = new ArrayList<>();
+            for (int l = 0; l < nbLiterals; l++) {
+                if (graph.degree(l) > 0 && context.isFractional(values[l])) {
+                    starts.add(l);
+                }
+            }
+            starts.sort((l1, l2) -> Double.compare(values[l2], values[l1]));
+
+            IntHashSet used = new IntHashSet();
+
+            for (int s = 0, limit = Math.min(starts.size(), MAX_STARTS); s < limit; s++) {
+
+                int start = starts.get(s);
+                if (used.contains(start)) {
+                    continue;
+                }
+
+                List<Integer> clique = new ArrayList<>();
+                clique.add(start);
+
+                int[] candidates = graph.neighbours(start);
+                CliqueCuts.sortDescending(candidates, values);
+
+                double sum = values[start];
+                for (int candidate : candidates) {
+                    boolean adjacent = true;
+                    for (Integer member : clique) {
+                        if (!graph.isAdjacent(candidate, member)) {
+                            adjacent = false;
+                            break;
+                        }
+                    }
+                    if (adjacent) {
+                        clique.add(candidate);
+                        sum += values[candidate];
+                    }
+                }
+
+                if (clique.size() >= 2 && sum > 1.0 + CutPool.MIN_EFFICACY) {
+
+                    int[] indices = new int[clique.size()];
+                    double[] coefficients = new double[clique.size()];
+                    double rhs = 1.0;
+
+                    for (int k = 0; k < indices.length; k++) {
+                        int literal = clique.get(k);
+                        indices[k] = literal / 2;
+                        if (literal % 2 == 0) {
+                            coefficients[k] = 1.0;
+                        } else {
+                            coefficients[k] = -1.0;
+                            rhs -= 1.0;
+                        }
+                    }
+
+                    if (context.add(this, indices, coefficients, rhs)) {
+                        for (int literal : clique) {
+                            used.add(literal);
+                        }
+                    }
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Literal 2j represents x<sub>j</sub> = 1 and literal 2j+1 represents x<sub>j</sub> = 0 (the
+     * complement).
+     */
+    static final class ConflictGraph {
+
+        private static final int MAX_ITEMS = 200;
+
+        private final IntHashSet[] myAdjacent;
+        private int myEdges = 0;
+
+        ConflictGraph(final Rows rows) {
+
+            super();
+
+            myAdjacent = new IntHashSet[2 * rows.countVariables()];
+
+            Knapsack knapsack = new Knapsack(rows.countVariables());
+
+            for (int i = 0, limit = rows.countRows(); i < limit; i++) {
+                for (int sign = -1; sign <= 1; sign += 2) {
+
+                    if (!knapsack.reset(rows, i, sign) || knapsack.size < 2) {
+                        continue;
+                    }
+
+                    double capacity = knapsack.capacity;
+
+                    // Only items heavier than half the capacity can be in conflict
+                    List<Integer> heavy = new ArrayList<>();
+                    for (int k = 0; k < knapsack.size; k++) {
+                        if (knapsack.weights[k] > capacity / 2.0 + EPSILON) {
+                            heavy.add(k);
+                        }
+                    }
+
+                    if (heavy.size() < 2 || heavy.size() > MAX_ITEMS) {
+                        continue;
+                    }
+
+                    for (int p = 0; p < heavy.size(); p++) {
+                        int kp = heavy.get(p);
+                        for (int q = p + 1; q < heavy.size(); q++) {
+                            int kq = heavy.get(q);
+                            if (knapsack.weights[kp] + knapsack.weights[kq] > capacity + EPSILON) {
+                                this.addEdge(knapsack.literal(kp), knapsack.literal(kq));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        int degree(final int literal) {
+            IntHashSet adjacent = myAdjacent[literal];
+            return adjacent != null ? adjacent.size() : 0;
+        }
+
+        boolean isAdjacent(final int literal1, final int literal2) {
+            IntHashSet adjacent = myAdjacent[literal1];
+            return adjacent != null && adjacent.contains(literal2);
+        }
+
+        boolean isEmpty() {
+            return myEdges == 0;
+        }
+
+        /**
+         * @return A new array (that the caller may modify) of the literals adjacent to this one
+         */
+        int[] neighbours(final int literal) {
+            IntHashSet adjacent = myAdjacent[literal];
+            return adjacent != null ? adjacent.keys().data : new int[0];
+        }
+
+        private void addEdge(final int literal1, final int literal2) {
+            if (literal1 / 2 == literal2 / 2) {
+                return;
+            }
+            if (myAdjacent[literal1] == null) {
+                myAdjacent[literal1] = new IntHashSet();
+            }
+            if (myAdjacent[literal2] == null) {
+                myAdjacent[literal2] = new IntHashSet();
+            }
+            if (myAdjacent[literal1].add(literal2)) {
+                myAdjacent[literal2].add(literal1);
+                myEdges++;
+            }
+        }
+
+    }
+
+    /**
+     * Lifted (extended) knapsack cover cuts. For a knapsack constraint, possibly after complementing some
+     * variables and relaxing the non-binary variables to their bounds, a cover is a set of items that
+     * together exceed the capacity. At most |C|-1 of the items in the cover can be 1. The cover is extended
+     * with all items at least as heavy as the heaviest item in the cover.
+     */
+    static final class CoverCuts extends CutSeparator {
+
+        CoverCuts(final int frequency) {
+            super(frequency);
+        }
+
+        @Override
+        protected void separate(final CutSeparator.Context context) {
+
+            Rows rows = context.getRows();
+            double[] point = context.getPoint();
+
+            Knapsack knapsack = new Knapsack(rows.countVariables());
+
+            for (int i = 0, limit = rows.countRows(); i < limit; i++) {
+                for (int sign = -1; sign <= 1; sign += 2) {
+
+                    if (!knapsack.reset(rows, i, sign) || knapsack.size < 2 || knapsack.total <= knapsack.capacity + EPSILON) {
+                        continue;
+                    }
+
+                    int size = knapsack.size;
+                    double[] values = new double[size];
+                    boolean fractional = false;
+                    for (int k = 0; k < size; k++) {
+                        values[k] = knapsack.value(k, point);
+                        fractional |= context.isFractional(values[k]);
+                    }
+                    if (!fractional) {
+                        continue;
+                    }
+
+                    // Greedy – prefer items with value close to 1 and large weight
+                    Integer[] order = new Integer[size];
+                    for (int k = 0; k < size; k++) {
+                        order[k] = k;
+                    }
+                    Arrays.sort(order, (k1, k2) -> Double.compare((1.0 - values[k1]) / knapsack.weights[k1], (1.0 - values[k2]) / knapsack.weights[k2]));
+
+                    boolean[] cover = new boolean[size];
+                    double weight = 0.0;
+                    int count = 0;
+                    for (int o = 0; o < size && weight <= knapsack.capacity + EPSILON; o++) {
+                        int k = order[o];
+                        cover[k] = true;
+                        weight += knapsack.weights[k];
+                        count++;
+                    }
+                    if (weight <= knapsack.capacity + EPSILON) {
+                        continue;
+                    }
+
+                    // Make it minimal – drop items with the smallest values while still a cover
+                    for (int o = size - 1; o >= 0; o--) {
+                        int k = order[o];
+                        if (cover[k] && weight - knapsack.weights[k] > knapsack.capacity + EPSILON) {
+                            cover[k] = false;
+                            weight -= knapsack.weights[k];
+                            count--;
+                        }
+                    }
+
+                    double heaviest = 0.0;
+                    for (int k = 0; k < size; k++) {
+                        if (cover[k]) {
+                            heaviest = Math.max(heaviest, knapsack.weights[k]);
+                        }
+                    }
+
+                    List<Integer> extended = new ArrayList<>();
+                    double lhs = 0.0;
+                    for (int k = 0; k < size; k++) {
+                        if (cover[k] || knapsack.weights[k] >= heaviest) {
+                            extended.add(k);
+                            lhs += values[k];
+                        }
+                    }
+
+                    if (lhs <= count - 1 + CutPool.MIN_EFFICACY) {
+                        continue;
+                    }
+
+                    int[] indices = new int[extended.size()];
+                    double[] coefficients = new double[extended.size()];
+                    double rhs = count - 1;
+                    for (int e = 0; e < indices.length; e++) {
+                        int k = extended.get(e);
+                        indices[e] = knapsack.indices[k];
+                        if (knapsack.complemented[k]) {
+                            coefficients[e] = -1.0;
+                            rhs -= 1.0;
+                        } else {
+                            coefficients[e] = 1.0;
+                        }
+                    }
+
+                    context.add(this, indices, coefficients, rhs);
+                }
+            }
+        }
+
+    }
+
+    /**
+     * A constraint row, in the form sign*[row]*[x] &lt;= sign*limit, transformed to a binary knapsack:
+     * binary variables with negative coefficients are complemented, and all other variables are moved to
+     * the rhs at the bound that minimises their contribution.
+     */
+    static final class Knapsack {
+
+        double capacity;
+        final boolean[] complemented;
+        final int[] indices;
+        int size;
+        double total;
+        final double[] weights;
+
+        Knapsack(final int nbVariables) {
+            super();
+            complemented = new boolean[nbVariables];
+            indices = new int[nbVariables];
+            weights = new double[nbVariables];
+        }
+
+        int literal(final int k) {
+            return complemented[k] ? 2 * indices[k] + 1 : 2 * indices[k];
+        }
+
+        /**
+         * @return false if the row/sign combination can't be transformed
+         */
+        boolean reset(final Rows rows, final int row, final int sign) {
+
+            double limit = sign > 0 ? rows.rowUpper[row] : -rows.rowLower[row];
+            if (!Double.isFinite(limit)) {
+                return false;
+            }
+
+            int[] columns = rows.rowColumns[row];
+            double[] values = rows.rowValues[row];
+
+            size = 0;
+            total = 0.0;
+            capacity = limit;
+
+            for (int c = 0; c < columns.length; c++) {
+
+                int j = columns[c];
+                double aj = sign * values[c];
+
+                if (aj == 0.0) {
+                    continue;
+                }
+
+                if (CutSeparators.isBinary(rows, j)) {
+                    indices[size] = j;
+                    if (aj > 0.0) {
+                        weights[size] = aj;
+                        complemented[size] = false;
+                    } else {
+                        weights[size] = -aj;
+                        complemented[size] = true;
+                        capacity -= aj;
+                    }
+                    total += weights[size];
+                    size++;
+                } else {
+                    double bound = aj > 0.0 ? rows.lower[j] : rows.upper[j];
+                    if (!Double.isFinite(bound)) {
+                        return false;
+                    }
+                    capacity -= aj * bound;
+                }
+            }
+
+            return capacity >= 0.0;
+        }
+
+        double value(final int k, final double[] point) {
+            double value = point[indices[k]];
+            return complemented[k] ? 1.0 - value : value;
+        }
+
+    }
+
+    /**
+     * Complemented Mixed Integer Rounding (c-MIR) cuts. Each constraint row is transformed, using bound
+     * substitution, to only have non-negative variables. The row is then divided by a number of different
+     * candidate deltas, and the MIR formula applied. The most efficacious cut is kept.
+     */
+    static final class MIRCuts extends CutSeparator {
+
+        private static final int MAX_DELTAS = 8;
+        private static final double MAX_FRACTION = 0.95;
+        private static final double MIN_FRACTION = 0.05;
+
+        private static double mir(final double coefficient, final double f0) {
+            double floor = Math.floor(coefficient);
+            double fraction = coefficient - floor;
+            return floor + Math.max(0.0, fraction - f0) / (1.0 - f0);
+        }
+
+        MIRCuts(final int frequency) {
+            super(frequency);
+        }
+
+        @Override
+        protected void separate(final CutSeparator.Context context) {
+
+            Rows rows = context.getRows();
+            double[] point = context.getPoint();
+
+            int nbVars = rows.countVariables();
+
+            int[] columns = new int[nbVars];
+            double[] coefficients = new double[nbVars];
+            double[] shifted = new double[nbVars];
+            boolean[] complemented = new boolean[nbVars];
+            boolean[] integer = new boolean[nbVars];
+
+            double[] cut = new double[nbVars];
+
+            for (int i = 0, limit = rows.countRows(); i < limit; i++) {
+                for (int sign = -1; sign <= 1; sign += 2) {
+
+                    double beta = sign > 0 ? rows.rowUpper[i] : -rows.rowLower[i];
+                    if (!Double.isFinite(beta)) {
+                        continue;
+                    }
+
+                    int[] rowColumns = rows.rowColumns[i];
+                    double[] rowValues = rows.rowValues[i];
+
+                    int size = 0;
+                    boolean fractional = false;
+                    boolean substitutable = true;
+
+                    for (int c = 0; c < rowColumns.length && substitutable; c++) {
+
+                        int j = rowColumns[c];
+                        double aj = sign * rowValues[c];
+
+                        if (aj == 0.0) {
+                            continue;
+                        }
+
+                        boolean intj = rows.integer[j];
+                        double lower = intj ? Math.ceil(rows.lower[j]) : rows.lower[j];
+                        double upper = intj ? Math.floor(rows.upper[j]) : rows.upper[j];
+                        double xj = point[j];
+
+                        if (Double.isFinite(lower) && (!Double.isFinite(upper) || xj - lower <= upper - xj)) {
+                            // x = lower + y
+                            coefficients[size] = aj;
+                            shifted[size] = xj - lower;
+                            complemented[size] = false;
+                            beta -= aj * lower;
+                        } else if (Double.isFinite(upper)) {
+                            // x = upper - y
+                            coefficients[size] = -aj;
+                            shifted[size] = upper - xj;
+                            complemented[size] = true;
+                            beta -= aj * upper;
+                        } else {
+                            substitutable = false;
+                        }
+
+                        columns[size] = j;
+                        integer[size] = intj;
+                        fractional |= intj && context.isFractional(xj);
+                        size++;
+                    }
+
+                    if (!substitutable || !fractional) {
+                        continue;
+                    }
+
+                    double[] deltas = new double[MAX_DELTAS];
+                    int nbDeltas = 0;
+                    deltas[nbDeltas++] = 1.0;
+                    for (int k = 0; k < size && nbDeltas < MAX_DELTAS - 3; k++) {
+                        double delta = Math.abs(coefficients[k]);
+                        if (integer[k] && shifted[k] > EPSILON && delta > EPSILON) {
+                            boolean known = false;
+                            for (int d = 0; d < nbDeltas; d++) {
+                                known |= Math.abs(deltas[d] - delta) <= EPSILON;
+                            }
+                            if (!known) {
+                                deltas[nbDeltas++] = delta;
+                            }
+                        }
+                    }
+
+                    double bestEfficacy = CutPool.MIN_EFFICACY;
+                    double bestDelta = Double.NaN;
+                    for (int d = 0; d < nbDeltas; d++) {
+                        double efficacy = this.efficacy(coefficients, shifted, integer, size, beta, deltas[d]);
+                        if (efficacy > bestEfficacy) {
+                            bestEfficacy = efficacy;
+                            bestDelta = deltas[d];
+                        }
+                    }
+                    if (Double.isNaN(bestDelta)) {
+                        continue;
+                    }
+                    double baseDelta = bestDelta;
+                    for (int div = 2; div <= 8; div *= 2) {
+                        double efficacy = this.efficacy(coefficients, shifted, integer, size, beta, baseDelta / div);
+                        if (efficacy > bestEfficacy) {
+                            bestEfficacy = efficacy;
+                            bestDelta = baseDelta / div;
+                        }
+                    }
+
+                    double scaled = beta / bestDelta;
+                    double f0 = scaled - Math.floor(scaled);
+                    double rhs = Math.floor(scaled);
+
+                    int count = 0;
+                    for (int k = 0; k < size; k++) {
+
+                        double alpha = coefficients[k] / bestDelta;
+                        double gamma;
+                        if (integer[k]) {
+                            gamma = MIRCuts.mir(alpha, f0);
+                        } else if (alpha < 0.0) {
+                            gamma = alpha / (1.0 - f0);
+                        } else {
+                            gamma = 0.0;
+                        }
+
+                        if (gamma != 0.0) {
+                            // Substitute back to the original variables
+                            int j = columns[k];
+                            if (complemented[k]) {
+                                double upper = integer[k] ? Math.floor(rows.upper[j]) : rows.upper[j];
+                                cut[count] = -gamma;
+                                rhs -= gamma * upper;
+                            } else {
+                                double lower = integer[k] ? Math.ceil(rows.lower[j]) : rows.lower[j];
+                                cut[count] = gamma;
+                                rhs += gamma * lower;
+                            }
+                            columns[count] = j;
+                            count++;
+                        }
+                    }
+
+                    if (count > 0) {
+                        context.add(this, Arrays.copyOf(columns, count), Arrays.copyOf(cut, count), rhs);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Efficacy of the MIR cut, in the transformed (non-negative) variables, for this delta. Bound
+         * substitution doesn't change the norm or the violation.
+         */
+        private double efficacy(final double[] coefficients, final double[] shifted, final boolean[] integer, final int size, final double beta,
+                final double delta) {
+
+            double scaled = beta / delta;
+            double f0 = scaled - Math.floor(scaled);
+
+            if (f0 < MIN_FRACTION || f0 > MAX_FRACTION) {
+                return Double.NEGATIVE_INFINITY;
+            }
+
+            double activity = 0.0;
+            double sumOfSquares = 0.0;
+
+            for (int k = 0; k < size; k++) {
+                double alpha = coefficients[k] / delta;
+                double gamma;
+                if (integer[k]) {
+                    gamma = MIRCuts.mir(alpha, f0);
+                } else if (alpha < 0.0) {
+                    gamma = alpha / (1.0 - f0);
+                } else {
+                    gamma = 0.0;
+                }
+                activity += gamma * shifted[k];
+                sumOfSquares += gamma * gamma;
+            }
+
+            if (sumOfSquares <= 0.0) {
+                return Double.NEGATIVE_INFINITY;
+            }
+
+            return (activity - Math.floor(scaled)) / Math.sqrt(sumOfSquares);
+        }
+
+    }
+
+    /**
+     * Clique cuts, at the root node and then every 10th node.
+     */
+    public static final CutSeparator CLIQUE = new CliqueCuts(10);
+    /**
+     * Lifted knapsack cover cuts, at the root node and then every 10th node.
+     */
+    public static final CutSeparator COVER = new CoverCuts(10);
+    /**
+     * Complemented mixed integer rounding cuts, at the root node and then every 20th node.
+     */
+    public static final CutSeparator MIR = new MIRCuts(20);
+
+    /**
+     * The separators used by default
+     */
+    public static final List<CutSeparator> DEFAULT = List.of(COVER, CLIQUE, MIR);
+
+    static final double EPSILON = 1E-9;
+
+    static boolean isBinary(final Rows rows, final int index) {
+        return rows.integer[index] && rows.lower[index] == 0.0 && rows.upper[index] == 1.0;
+    }
+
+}
@@ -24,13 +24,18 @@ package org.ojalgo.optimisation.integer;
 import static org.ojalgo.function.constant.PrimitiveMath.*;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.LongAdder;
 
+import org.ojalgo.array.ArrayR064;
 import org.ojalgo.concurrent.MultiviewSet;
 import org.ojalgo.concurrent.ProcessingService;
 import org.ojalgo.function.multiary.MultiaryFunction;
@@ -42,6 +47,7 @@ import org.ojalgo.netio.CharacterRing.RingLogger;
 import org.ojalgo.optimisation.ExpressionsBasedModel;
 import org.ojalgo.optimisation.GenericSolver;
 import org.ojalgo.optimisation.Optimisation;
+import org.ojalgo.optimisation.SolverTelemetry;
 import org.ojalgo.structure.Access1D;
 import org.ojalgo.type.CalendarDateDuration;
 import org.ojalgo.type.TypeUtils;
@@ -84,6 +90,7 @@ public final class IntegerSolver extends GenericSolver {
 
         private final LongAdder myAbandoned = new LongAdder();
         private final LongAdder myExhausted = new LongAdder();
+        private final LongAdder myHeuristic = new LongAdder();
         private final LongAdder myInfeasible = new LongAdder();
         private final LongAdder myInteger = new LongAdder();
 
@@ -98,6 +105,8 @@ public final class IntegerSolver extends GenericSolver {
             builder.append(myInfeasible);
             builder.append(", A=");
             builder.append(myAbandoned);
+            builder.append(", H=");
+            builder.append(myHeuristic);
             builder.append("]");
             return builder.toString();
         }
@@ -115,6 +124,10 @@ public final class IntegerSolver extends GenericSolver {
             return myInteger.longValue() + myInfeasible.longValue() + myExhausted.longValue();
         }
 
+        int countHeuristicSolutions() {
+            return myHeuristic.intValue();
+        }
+
         int countIntegerSolutions() {
             return myInteger.intValue();
         }
@@ -144,6 +157,14 @@ public final class IntegerSolver extends GenericSolver {
             return false;
         }
 
+        /**
+         * Integer solution found by a primal heuristic (not a leaf node)
+         */
+        boolean heuristic() {
+            myHeuristic.increment();
+            return true;
+        }
+
         /**
          * Node problem infeasible
          */
@@ -175,15 +196,22 @@ public final class IntegerSolver extends GenericSolver {
     }
 
     private volatile Optimisation.Result myBestResultSoFar = null;
+    private CutPool myCutPool = null;
     private final MultiviewSet<NodeKey> myDeferredNodes = new MultiviewSet<>();
     private final MultiaryFunction.TwiceDifferentiable<Double> myFunction;
     private final ExpressionsBasedModel myIntegerModel;
     private final boolean myMinimisation;
     private final NodeStatistics myNodeStatistics = new NodeStatistics();
+    private volatile double myRootBound = NaN;
+    private AtomicReference<Optimisation.Result> mySharedIncumbent = null;
 
     IntegerSolver(final ExpressionsBasedModel model) {
+        this(model, model.options);
+    }
+
+    IntegerSolver(final ExpressionsBasedModel model, final Optimisation.Options solverOptions) {
 
-        super(model.options);
+        super(solverOptions);
 
         myIntegerModel = model.simplify();
         myFunction = myIntegerModel.limitObjective(null, null).toFunction();
@@ -202,6 +230,7 @@ public final class IntegerSolver extends GenericSolver {
             // The kickStarter may be user-supplied
             this.markInteger(null, point, strategy);
         }
+        this.adoptSharedIncumbent(strategy);
 
         this.resetIterationsCount();
 
@@ -210,14 +239,24 @@ public final class IntegerSolver extends GenericSolver {
         Result cutResult = cutSolver.solve();
         cutSolver.generateCuts(strategy, myIntegerModel);
 
+        if (strategy.getCutSeparators().size() > 0) {
+            myCutPool = new CutPool(myIntegerModel);
+            this.cut(strategy);
+        }
+
         NodeKey rootNode = new NodeKey(myIntegerModel);
         ExpressionsBasedModel rootModel = myIntegerModel.snapshot();
         rootNode.setNodeState(rootModel, strategy);
 
         RingLogger rootPrinter = this.newPrinter();
 
+        SolverTelemetry telemetry = options.telemetry();
+
         AtomicBoolean solverNormalExit = new AtomicBoolean(this.compute(rootNode, rootModel.prepare(NodeSolver::new), rootPrinter, strategy));
         rootNode.dispose();
+        if (telemetry != null) {
+            telemetry.node(this.countIterations(), myDeferredNodes.size());
+        }
 
         Map<Comparator<NodeKey>, MultiviewSet<NodeKey>.PrioritisedView> views = new ConcurrentHashMap<>();
 
@@ -233,6 +272,8 @@ public final class IntegerSolver extends GenericSolver {
             while (workerNormalExit && solverNormalExit.get() && !myDeferredNodes.isEmpty()) {
                 if ((node = view.poll()) != null) {
 
+                    this.adoptSharedIncumbent(strategy);
+
                     if (!this.isIterationAllowed()) {
                         workerNormalExit = false;
                     } else if (!strategy.isGoodEnough(myBestResultSoFar, node.objective)) {
@@ -242,6 +283,9 @@ public final class IntegerSolver extends GenericSolver {
                         node.setNodeState(nodeModel, strategy);
                         NodeSolver nodeSolver = nodeModel.prepare(NodeSolver::new);
                         workerNormalExit &= this.compute(node, nodeSolver, nodePrinter, strategy);
+                        if (telemetry != null) {
+                            telemetry.node(this.countIterations(), myDeferredNodes.size());
+                        }
                     }
 
                     node.dispose();
@@ -274,12 +318,40 @@ public final class IntegerSolver extends GenericSolver {
         return bestSolutionFound.withState(State.FAILED);
     }
 
+    /**
+     * Share the incumbent (best integer solution found so far) with other solvers working on the same model,
+     * typically with different strategies. Integer solutions found by this solver are published to the
+     * shared reference, and better solutions found by the others are picked up and used to prune the
+     * search tree. Call this before {@link #solve(Optimisation.Result)}.
+     */
+    public void share(final AtomicReference<Optimisation.Result> incumbent) {
+        mySharedIncumbent = incumbent;
+    }
+
     @Override
     public String toString() {
         return TypeUtils.format("Solutions={} Nodes/Iterations={} {}", myNodeStatistics.countIntegerSolutions(), this.countIterations(),
                 this.getBestResultSoFar());
     }
 
+    private void adoptSharedIncumbent(final ModelStrategy strategy) {
+
+        if (mySharedIncumbent == null) {
+            return;
+        }
+
+        Optimisation.Result shared = mySharedIncumbent.get();
+        Optimisation.Result own = myBestResultSoFar;
+
+        if (shared != null && shared != own && (own == null || this.isBetter(shared, own))) {
+            this.markInteger(null, shared, strategy);
+        }
+    }
+
+    private boolean isBetter(final Optimisation.Result candidate, final Optimisation.Result reference) {
+        return myMinimisation ? candidate.getValue() < reference.getValue() : candidate.getValue() > reference.getValue();
+    }
+
     private RingLogger newPrinter() {
         return options.validate || this.isLogProgress() ? CharacterRing.newRingLogger() : null;
     }
@@ -371,10 +443,20 @@ public final class IntegerSolver extends GenericSolver {
         if (previouslyTheBest == null) {
             myBestResultSoFar = result;
             this.setState(Optimisation.State.FEASIBLE);
-        } else if (myMinimisation ? result.getValue() < previouslyTheBest.getValue() : result.getValue() > previouslyTheBest.getValue()) {
+        } else if (this.isBetter(result, previouslyTheBest)) {
             myBestResultSoFar = result;
         }
 
+        SolverTelemetry telemetry = options.telemetry();
+        if (telemetry != null && myBestResultSoFar == result) {
+            telemetry.incumbent(result.getValue(), myRootBound, TimeUnit.MILLISECONDS.toNanos(this.countTime()));
+        }
+
+        if (mySharedIncumbent != null) {
+            Optimisation.Result ownBest = myBestResultSoFar;
+            mySharedIncumbent.accumulateAndGet(ownBest, (shared, own) -> shared == null || this.isBetter(own, shared) ? own : shared);
+        }
+
         strategy.markInteger(key, result);
 
         double bestIntegerSolutionValue = myBestResultSoFar.getValue();
@@ -426,6 +508,15 @@ public final class IntegerSolver extends GenericSolver {
     }
 
     boolean compute(final NodeKey nodeKey, final NodeSolver nodeSolver, final RingLogger nodePrinter, final ModelStrategy strategy) {
+        return this.compute(nodeKey, nodeSolver, nodePrinter, strategy, true);
+    }
+
+    /**
+     * @param heuristics Whether or not to run the primal heuristics at this node. Not when re-solving the
+     *        same node after cuts were added – they already ran on it.
+     */
+    boolean compute(final NodeKey nodeKey, final NodeSolver nodeSolver, final RingLogger nodePrinter, final ModelStrategy strategy,
+            final boolean heuristics) {
 
         if (this.isLogDebug()) {
             nodePrinter.println();
@@ -444,6 +535,10 @@ public final class IntegerSolver extends GenericSolver {
         // Increment when/if an iteration was actually performed
         this.incrementIterationsCount();
 
+        if (nodeKey.index >= 0 && nodeResult.getState().isOptimal()) {
+            nodeResult = this.cut(nodeKey, nodeSolver, nodeResult, strategy);
+        }
+
         if (this.isLogDebug()) {
             nodePrinter.println("Node Result: {}", nodeResult);
         }
@@ -468,6 +563,10 @@ public final class IntegerSolver extends GenericSolver {
             nodePrinter.println("Node solved to optimality!");
         }
 
+        if (nodeKey.sequence == 0) {
+            myRootBound = nodeResult.getValue();
+        }
+
         if (options.validate && !nodeSolver.validate(nodeResult, nodePrinter)) {
             // This should not be possible. There is a bug somewhere.
             nodePrinter.println("Node solution marked as OPTIMAL, but is actually INVALID/INFEASIBLE/FAILED. Stop this branch!");
@@ -489,7 +588,7 @@ public final class IntegerSolver extends GenericSolver {
                 nodePrinter.println("Integer solution! Store it among the others, and stop this branch!");
             }
 
-            Optimisation.Result tmpIntegerSolutionResult = new Optimisation.Result(Optimisation.State.FEASIBLE, tmpSolutionValue, nodeResult);
+            Optimisation.Result tmpIntegerSolutionResult = this.round(new Optimisation.Result(Optimisation.State.FEASIBLE, tmpSolutionValue, nodeResult), strategy);
 
             this.markInteger(nodeKey, tmpIntegerSolutionResult, strategy);
 
@@ -511,7 +610,17 @@ public final class IntegerSolver extends GenericSolver {
 
         double variableValue = nodeResult.doubleValue(strategy.getIndex(branchIntegerIndex));
 
-        if (!strategy.isGoodEnough(myBestResultSoFar, tmpSolutionValue)) {
+        boolean goodEnough = strategy.isGoodEnough(myBestResultSoFar, tmpSolutionValue);
+
+        if (goodEnough && heuristics && this.search(nodeKey, nodeResult, strategy)) {
+            if (this.isLogDebug()) {
+                nodePrinter.println("Heuristic found integer solution: {}", myBestResultSoFar);
+            }
+            // The incumbent improved – this node may no longer be worth branching on
+            goodEnough = strategy.isGoodEnough(myBestResultSoFar, tmpSolutionValue);
+        }
+
+        if (!goodEnough) {
             if (this.isLogDebug()) {
                 nodePrinter.println("Can't find better integer solutions - stop this branch!");
                 IntegerSolver.flush(nodePrinter, myIntegerModel.options.logger_appender);
@@ -531,7 +640,7 @@ public final class IntegerSolver extends GenericSolver {
             double displacement = nodeKey.getMinimumDisplacement(branchIntegerIndex, variableValue);
             if (strategy.isCutRatherThanBranch(displacement, myBestResultSoFar != null)) {
                 if (nodeSolver.generateCuts(strategy)) {
-                    return this.compute(nodeKey, nodeSolver, nodePrinter, strategy);
+                    return this.compute(nodeKey, nodeSolver, nodePrinter, strategy, false);
                 }
                 strategy.cutting = false;
             }
@@ -565,6 +674,197 @@ public final class IntegerSolver extends GenericSolver {
         return retVal;
     }
 
+    /**
+     * Node solutions are only integer to within some tolerance – cuts with inexact coefficients make that
+     * more obvious. Exactly round the integer variables, but only if the rounded solution is still valid.
+     */
+    Optimisation.Result round(final Optimisation.Result result, final ModelStrategy strategy) {
+
+        ArrayR064 solution = ArrayR064.make(result.size());
+        for (int i = 0, limit = solution.size(); i < limit; i++) {
+            solution.set(i, result.doubleValue(i));
+        }
+
+        boolean changed = false;
+        for (int i = 0, limit = strategy.countIntegerVariables(); i < limit; i++) {
+            int index = strategy.getIndex(i);
+            double value = solution.doubleValue(index);
+            double rounded = Math.rint(value);
+            if (rounded != value) {
+                solution.set(index, rounded);
+                changed = true;
+            }
+        }
+
+        if (!changed) {
+            return result;
+        }
+
+        Optimisation.Result retVal = new Optimisation.Result(result.getState(), solution);
+
+        if (!myIntegerModel.validate(retVal, myIntegerModel.options.feasibility, BasicLogger.NULL)) {
+            return result;
+        }
+
+        return new Optimisation.Result(result.getState(), this.evaluateFunction(retVal), retVal);
+    }
+
+    /**
+     * Rounds of cuts at the root node. The rounds are performed on a copy of the integer model. If, in the
+     * end, the relaxed objective function value improved enough, the cuts that are binding at the final
+     * relaxed solution are added to the integer model itself, and will then be part of every node model
+     * created later.
+     */
+    void cut(final ModelStrategy strategy) {
+
+        List<CutSeparator> separators = strategy.getCutSeparators();
+
+        ExpressionsBasedModel cutModel = myIntegerModel.snapshot();
+        List<CutPool.Cut> added = new ArrayList<>();
+
+        double initial = Double.NaN;
+        double previous = Double.NaN;
+        double[] point = null;
+
+        for (int round = 0; round <= CutPool.ROOT_ROUNDS; round++) {
+
+            NodeSolver roundSolver = cutModel.prepare(NodeSolver::new);
+            Optimisation.Result roundResult = roundSolver.solve();
+            roundSolver.dispose();
+
+            if (!roundResult.getState().isOptimal()) {
+                break;
+            }
+
+            double value = roundResult.getValue();
+            if (Math.abs(value - previous) <= CutPool.STALLING * Math.max(ONE, Math.abs(previous))) {
+                break;
+            }
+
+            if (round == 0) {
+                initial = value;
+            }
+            previous = value;
+            point = roundResult.toRawCopy1D();
+
+            if (round == CutPool.ROOT_ROUNDS) {
+                break;
+            }
+
+            List<CutPool.Cut> cuts = myCutPool.separate(separators, roundResult, strategy, CutPool.MAX_CUTS);
+
+            if (cuts.isEmpty()) {
+                break;
+            }
+
+            for (CutPool.Cut cut : cuts) {
+                cut.addTo(cutModel);
+            }
+            myCutPool.remove(cuts);
+            added.addAll(cuts);
+
+            if (this.isLogProgress()) {
+                this.log("Root cut round {}: {} cuts added, relaxed objective {}", round, cuts.size(), value);
+            }
+            if (options.telemetry() != null) {
+                options.telemetry().cuts(round, cuts.size(), value);
+            }
+        }
+
+        if (point == null || Math.abs(previous - initial) <= CutPool.MIN_GAIN * Math.max(ONE, Math.abs(initial))) {
+            return;
+        }
+
+        int count = 0;
+        for (CutPool.Cut cut : added) {
+            if (cut.efficacy(point) >= -CutPool.MIN_EFFICACY) {
+                cut.addTo(myIntegerModel);
+                count++;
+            }
+        }
+
+        if (this.isLogProgress()) {
+            this.log("Root cuts: {} of {} kept, relaxed objective {} -> {}", count, added.size(), initial, previous);
+        }
+    }
+
+    /**
+     * A (single) round of cuts at this node. The cuts are only added to the node model, but are kept in the
+     * pool to potentially be used at other nodes as well.
+     *
+     * @return The (possibly) new node result, or the input node result if no cuts were added
+     */
+    Optimisation.Result cut(final NodeKey nodeKey, final NodeSolver nodeSolver, final Optimisation.Result nodeResult, final ModelStrategy strategy) {
+
+        if (myCutPool == null || !myCutPool.isLocalCuttingUseful()) {
+            return nodeResult;
+        }
+
+        List<CutSeparator> separators = new ArrayList<>();
+        for (CutSeparator separator : strategy.getCutSeparators()) {
+            if (separator.isApplicable(nodeKey)) {
+                separators.add(separator);
+            }
+        }
+
+        if (separators.isEmpty()) {
+            return nodeResult;
+        }
+
+        List<CutPool.Cut> cuts = myCutPool.separate(separators, nodeResult, strategy, CutPool.MAX_CUTS);
+
+        if (cuts.isEmpty()) {
+            return nodeResult;
+        }
+
+        nodeSolver.addCuts(cuts);
+
+        Optimisation.Result retVal = nodeSolver.solve(this.getBestEstimate());
+
+        myCutPool.recordLocal(nodeResult, retVal);
+
+        return retVal;
+    }
+
+    /**
+     * Invoke the primal heuristics applicable at this node.
+     *
+     * @return true if (at least) one heuristic found an integer solution
+     */
+    boolean search(final NodeKey nodeKey, final Optimisation.Result nodeResult, final ModelStrategy strategy) {
+
+        boolean retVal = false;
+
+        PrimalHeuristic.Context context = null;
+
+        for (PrimalHeuristic heuristic : strategy.getPrimalHeuristics()) {
+
+            if (heuristic.isApplicable(nodeKey, myBestResultSoFar != null)) {
+
+                if (context == null) {
+                    context = new PrimalHeuristic.Context(this, myIntegerModel, strategy, nodeKey, nodeResult, myBestResultSoFar);
+                }
+
+                Optimisation.Result heuristicResult = heuristic.search(context);
+
+                if (heuristicResult != null && heuristicResult.getState().isFeasible()) {
+
+                    if (this.isLogProgress()) {
+                        this.log("{} found integer solution at node {}", heuristic, nodeKey.sequence);
+                    }
+
+                    this.markInteger(nodeKey, heuristicResult, strategy);
+                    retVal = myNodeStatistics.heuristic();
+
+                    // The incumbent, and the objective function limit, changed
+                    context = null;
+                }
+            }
+        }
+
+        return retVal;
+    }
+
     /**
      * Should return the index of the (best) integer variable to branch on. Returning a negative index means
      * an integer solution has been found (no further branching). Does NOT return a global variable index -
@@ -39,15 +39,18 @@ public interface IntegerStrategy {
 
     final class ConfigurableStrategy implements IntegerStrategy {
 
+        private final List<CutSeparator> myCutSeparators;
         private final BiFunction<ExpressionsBasedModel, IntegerStrategy, ModelStrategy> myFactory;
         private final NumberContext myGapTolerance;
         private final GMICutConfiguration myGMICutConfiguration;
         private final NumberContext myIntegralityTolerance;
         private final IntSupplier myParallelism;
+        private final List<PrimalHeuristic> myPrimalHeuristics;
         private final Comparator<NodeKey>[] myPriorityDefinitions;
 
         ConfigurableStrategy(final IntSupplier parallelism, final Comparator<NodeKey>[] definitions, final NumberContext integrality, final NumberContext gap,
-                final BiFunction<ExpressionsBasedModel, IntegerStrategy, ModelStrategy> factory, final GMICutConfiguration configuration) {
+                final BiFunction<ExpressionsBasedModel, IntegerStrategy, ModelStrategy> factory, final GMICutConfiguration configuration,
+                final List<CutSeparator> separators, final List<PrimalHeuristic> heuristics) {
 
             super();
 
@@ -57,13 +60,16 @@ public interface IntegerStrategy {
             myGapTolerance = gap;
             myFactory = factory;
             myGMICutConfiguration = configuration;
+            myCutSeparators = separators;
+            myPrimalHeuristics = heuristics;
         }
 
         /**
          * Retains any existing definitions, but adds these to be used rather than the existing. If there are
          * enough threads both these additional and the previously existing definitions will be used.
          */
-        public ConfigurableStrategy addPriorityDefinitions(final Comparator<NodeKey>... additionalDefinitions) {
+        @SafeVarargs
+        public final ConfigurableStrategy addPriorityDefinitions(final Comparator<NodeKey>... additionalDefinitions) {
 
             Comparator<NodeKey>[] totalDefinitions = (Comparator<NodeKey>[]) new Comparator<?>[additionalDefinitions.length + myPriorityDefinitions.length];
 
@@ -75,7 +81,12 @@ public interface IntegerStrategy {
                 totalDefinitions[additionalDefinitions.length + i] = myPriorityDefinitions[i];
             }
 
-            return new ConfigurableStrategy(myParallelism, totalDefinitions, myIntegralityTolerance, myGapTolerance, myFactory, myGMICutConfiguration);
+            return new ConfigurableStrategy(myParallelism, totalDefinitions, myIntegralityTolerance, myGapTolerance, myFactory, myGMICutConfiguration,
+                    myCutSeparators, myPrimalHeuristics);
+        }
+
+        public List<CutSeparator> getCutSeparators() {
+            return myCutSeparators;
         }
 
         public NumberContext getGapTolerance() {
@@ -90,6 +101,10 @@ public interface IntegerStrategy {
             return myIntegralityTolerance;
         }
 
+        public List<PrimalHeuristic> getPrimalHeuristics() {
+            return myPrimalHeuristics;
+        }
+
         public List<Comparator<NodeKey>> getWorkerPriorities() {
             int parallelism = myParallelism.getAsInt();
             List<Comparator<NodeKey>> retVal = new ArrayList<>(parallelism);
@@ -103,33 +118,65 @@ public interface IntegerStrategy {
             return myFactory.apply(model, this);
         }
 
+        /**
+         * Replace the cut separators with these ones. Calling this method with no arguments turns off those
+         * cuts completely. (Gomory Mixed Integer cuts are configured separately.)
+         */
+        public ConfigurableStrategy withCutSeparators(final CutSeparator... newSeparators) {
+            return new ConfigurableStrategy(myParallelism, myPriorityDefinitions, myIntegralityTolerance, myGapTolerance, myFactory, myGMICutConfiguration,
+                    List.of(newSeparators), myPrimalHeuristics);
+        }
+
         /**
          * Change the MIP gap
          */
         public ConfigurableStrategy withGapTolerance(final NumberContext newTolerance) {
-            return new ConfigurableStrategy(myParallelism, myPriorityDefinitions, myIntegralityTolerance, newTolerance, myFactory, myGMICutConfiguration);
+            return new ConfigurableStrategy(myParallelism, myPriorityDefinitions, myIntegralityTolerance, newTolerance, myFactory, myGMICutConfiguration,
+                    myCutSeparators, myPrimalHeuristics);
         }
 
         public ConfigurableStrategy withGMICutConfiguration(final GMICutConfiguration newConfiguration) {
-            return new ConfigurableStrategy(myParallelism, myPriorityDefinitions, myIntegralityTolerance, myGapTolerance, myFactory, newConfiguration);
+            return new ConfigurableStrategy(myParallelism, myPriorityDefinitions, myIntegralityTolerance, myGapTolerance, myFactory, newConfiguration,
+                    myCutSeparators, myPrimalHeuristics);
         }
 
         public ConfigurableStrategy withModelStrategyFactory(final BiFunction<ExpressionsBasedModel, IntegerStrategy, ModelStrategy> newFactory) {
-            return new ConfigurableStrategy(myParallelism, myPriorityDefinitions, myIntegralityTolerance, myGapTolerance, newFactory, myGMICutConfiguration);
+            return new ConfigurableStrategy(myParallelism, myPriorityDefinitions, myIntegralityTolerance, myGapTolerance, newFactory, myGMICutConfiguration,
+                    myCutSeparators, myPrimalHeuristics);
+        }
+
+        /**
+         * Replace the primal heuristics with these ones. Calling this method with no arguments turns off
+         * primal heuristics completely.
+         */
+        public ConfigurableStrategy withPrimalHeuristics(final PrimalHeuristic... newHeuristics) {
+            return new ConfigurableStrategy(myParallelism, myPriorityDefinitions, myIntegralityTolerance, myGapTolerance, myFactory, myGMICutConfiguration,
+                    myCutSeparators, List.of(newHeuristics));
         }
 
         /**
          * How many threads will be used? Perhaps use {@link Parallelism} to obtain a suitable value.
          */
         public ConfigurableStrategy withParallelism(final IntSupplier newParallelism) {
-            return new ConfigurableStrategy(newParallelism, myPriorityDefinitions, myIntegralityTolerance, myGapTolerance, myFactory, myGMICutConfiguration);
+            return new ConfigurableStrategy(newParallelism, myPriorityDefinitions, myIntegralityTolerance, myGapTolerance, myFactory, myGMICutConfiguration,
+                    myCutSeparators, myPrimalHeuristics);
         }
 
         /**
          * Replace the priority definitions with these ones.
          */
-        public ConfigurableStrategy withPriorityDefinitions(final Comparator<NodeKey>... newDefinitions) {
-            return new ConfigurableStrategy(myParallelism, newDefinitions, myIntegralityTolerance, myGapTolerance, myFactory, myGMICutConfiguration);
+        @SafeVarargs
+        public final ConfigurableStrategy withPriorityDefinitions(final Comparator<NodeKey>... newDefinitions) {
+
+            @SuppressWarnings("unchecked")
+            Comparator<NodeKey>[] totalDefinitions = (Comparator<NodeKey>[]) new Comparator<?>[newDefinitions.length];
+
+            for (int i = 0; i < newDefinitions.length; i++) {
+                totalDefinitions[i] = newDefinitions[i];
+            }
+
+            return new ConfigurableStrategy(myParallelism, totalDefinitions, myIntegralityTolerance, myGapTolerance, myFactory, myGMICutConfiguration,
+                    myCutSeparators, myPrimalHeuristics);
         }
 
     }
@@ -186,7 +233,16 @@ public interface IntegerStrategy {
                 NodeKey.SMALLEST_DISPLACEMENT, NodeKey.LATEST_SEQUENCE };
 
         return new ConfigurableStrategy(Parallelism.CORES.require(4), definitions, NumberContext.of(12, 8), NumberContext.of(7, 8), DefaultStrategy::new,
-                new GMICutConfiguration());
+                new GMICutConfiguration(), CutSeparators.DEFAULT, PrimalHeuristics.DEFAULT);
+    }
+
+    /**
+     * The cut separators to use, in addition to the Gomory Mixed Integer cuts, when trying to tighten the
+     * relaxed node problems. Return an empty {@link List} to not use any such separators. The default
+     * implementation returns {@link CutSeparators#DEFAULT}.
+     */
+    default List<CutSeparator> getCutSeparators() {
+        return CutSeparators.DEFAULT;
     }
 
     /**
@@ -207,6 +263,15 @@ public interface IntegerStrategy {
      */
     NumberContext getIntegralityTolerance();
 
+    /**
+     * The primal heuristics to use, in the order they should be invoked, when searching for (new) integer
+     * solutions. Return an empty {@link List} to not use any heuristics. The default implementation returns
+     * {@link PrimalHeuristics#DEFAULT}.
+     */
+    default List<PrimalHeuristic> getPrimalHeuristics() {
+        return PrimalHeuristics.DEFAULT;
+    }
+
     /**
      * There will be 1 worker thread per item in the returned {@link List}. The {@link Comparator} instances
      * need not be unique. Used to prioritise among the nodes waiting to be evaluated.
@@ -211,6 +211,10 @@ public abstract class ModelStrategy implements IntegerStrategy {
         myWorkerPriorities = strategy.getWorkerPriorities();
     }
 
+    public List<CutSeparator> getCutSeparators() {
+        return myStrategy.getCutSeparators();
+    }
+
     public NumberContext getGapTolerance() {
         return myStrategy.getGapTolerance();
     }
@@ -223,6 +227,10 @@ public abstract class ModelStrategy implements IntegerStrategy {
         return myStrategy.getIntegralityTolerance();
     }
 
+    public List<PrimalHeuristic> getPrimalHeuristics() {
+        return myStrategy.getPrimalHeuristics();
+    }
+
     public List<Comparator<NodeKey>> getWorkerPriorities() {
         return myWorkerPriorities;
     }
@@ -249,6 +257,10 @@ public abstract class ModelStrategy implements IntegerStrategy {
         return myIndices[idx];
     }
 
+    Optimisation.Sense getOptimisationSense() {
+        return myOptimisationSense;
+    }
+
     /**
      * Called, once, at the very beginning of the solve process.
      */
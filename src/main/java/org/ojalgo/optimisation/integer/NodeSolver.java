@@ -55,6 +55,20 @@ public final class NodeSolver extends IntermediateSolver {
         super(model);
     }
 
+    /**
+     * Add cuts, from the {@link CutPool}, to this node solver's model.
+     */
+    void addCuts(final Collection<CutPool.Cut> cuts) {
+
+        ExpressionsBasedModel model = this.getModel();
+
+        for (CutPool.Cut cut : cuts) {
+            cut.addTo(model);
+        }
+
+        this.reset();
+    }
+
     boolean generateCuts(final ModelStrategy strategy) {
         boolean retVal = this.generateCuts(strategy, this.getModel());
         if (retVal) {
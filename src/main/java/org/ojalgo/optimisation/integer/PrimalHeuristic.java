@@ -0,0 +1,377 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.integer;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.ojalgo.array.ArrayR064;
+import org.ojalgo.netio.BasicLogger;
+import org.ojalgo.optimisation.Expression;
+import org.ojalgo.optimisation.ExpressionsBasedModel;
+import org.ojalgo.optimisation.Optimisation;
+import org.ojalgo.optimisation.Variable;
+import org.ojalgo.structure.Access1D;
+import org.ojalgo.structure.Structure1D.IntIndex;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * A primal heuristic tries to find integer feasible solutions, that can be used as incumbents by the
+ * {@link IntegerSolver}, without (completely) solving the problem. The earlier a good incumbent is found the
+ * sooner branches of the search tree can be pruned.
+ * <p>
+ * Heuristics are invoked at the root node and then periodically, with a frequency specific to each
+ * heuristic, as nodes are evaluated by the worker threads. The built-in heuristics are defined in
+ * {@link PrimalHeuristics}, and which ones to use is configured via
+ * {@link IntegerStrategy.ConfigurableStrategy#withPrimalHeuristics(PrimalHeuristic...)}.
+ *
+ * @author apete
+ */
+public abstract class PrimalHeuristic {
+
+    /**
+     * What a heuristic has access to when invoked. A new instance is created for each (node) invocation.
+     *
+     * @author apete
+     */
+    public static final class Context {
+
+        /**
+         * Linear constraints, and variable bounds, as primitive double arrays – row-wise as well as
+         * column-wise. Built lazily, on demand, and only once per context instance.
+         */
+        static final class Rows {
+
+            final int[][] columnRows;
+            final double[][] columnValues;
+            final boolean[] integer;
+            final double[] lower;
+            final double[] objective;
+            final int[][] rowColumns;
+            final double[] rowLower;
+            final double[] rowUpper;
+            final double[][] rowValues;
+            final double[] upper;
+
+            Rows(final ExpressionsBasedModel model) {
+
+                super();
+
+                List<Variable> variables = model.getVariables();
+                int nbVars = variables.size();
+
+                lower = new double[nbVars];
+                upper = new double[nbVars];
+                integer = new boolean[nbVars];
+                objective = new double[nbVars];
+
+                for (int j = 0; j < nbVars; j++) {
+                    Variable variable = variables.get(j);
+                    lower[j] = Context.toDouble(variable.getLowerLimit(), Double.NEGATIVE_INFINITY);
+                    upper[j] = Context.toDouble(variable.getUpperLimit(), Double.POSITIVE_INFINITY);
+                    integer[j] = variable.isInteger();
+                }
+
+                for (Entry<IntIndex, BigDecimal> entry : model.objective().getLinearEntrySet()) {
+                    objective[entry.getKey().index] = entry.getValue().doubleValue();
+                }
+
+                Expression[] constraints = model.constraints().filter(Expression::isFunctionLinear).toArray(Expression[]::new);
+                int nbRows = constraints.length;
+
+                rowColumns = new int[nbRows][];
+                rowValues = new double[nbRows][];
+                rowLower = new double[nbRows];
+                rowUpper = new double[nbRows];
+
+                int[] columnCounts = new int[nbVars];
+
+                for (int i = 0; i < nbRows; i++) {
+
+                    Expression constraint = constraints[i];
+
+                    rowLower[i] = Context.toDouble(constraint.getLowerLimit(), Double.NEGATIVE_INFINITY);
+                    rowUpper[i] = Context.toDouble(constraint.getUpperLimit(), Double.POSITIVE_INFINITY);
+
+                    int nbEntries = constraint.getLinearEntrySet().size();
+                    int[] columns = new int[nbEntries];
+                    double[] values = new double[nbEntries];
+
+                    int k = 0;
+                    for (Entry<IntIndex, BigDecimal> entry : constraint.getLinearEntrySet()) {
+                        int j = entry.getKey().index;
+                        columns[k] = j;
+                        values[k] = entry.getValue().doubleValue();
+                        columnCounts[j]++;
+                        k++;
+                    }
+
+                    rowColumns[i] = columns;
+                    rowValues[i] = values;
+                }
+
+                columnRows = new int[nbVars][];
+                columnValues = new double[nbVars][];
+                for (int j = 0; j < nbVars; j++) {
+                    columnRows[j] = new int[columnCounts[j]];
+                    columnValues[j] = new double[columnCounts[j]];
+                    columnCounts[j] = 0;
+                }
+                for (int i = 0; i < nbRows; i++) {
+                    int[] columns = rowColumns[i];
+                    double[] values = rowValues[i];
+                    for (int k = 0; k < columns.length; k++) {
+                        int j = columns[k];
+                        columnRows[j][columnCounts[j]] = i;
+                        columnValues[j][columnCounts[j]] = values[k];
+                        columnCounts[j]++;
+                    }
+                }
+            }
+
+            int countRows() {
+                return rowColumns.length;
+            }
+
+            int countVariables() {
+                return lower.length;
+            }
+
+            double evaluate(final int row, final double[] point) {
+                int[] columns = rowColumns[row];
+                double[] values = rowValues[row];
+                double retVal = 0.0;
+                for (int k = 0; k < columns.length; k++) {
+                    retVal += values[k] * point[columns[k]];
+                }
+                return retVal;
+            }
+
+            /**
+             * Checks variable bounds and all linear constraints.
+             */
+            boolean isFeasible(final double[] point, final double tolerance) {
+
+                for (int j = 0, limit = lower.length; j < limit; j++) {
+                    if (point[j] < lower[j] - tolerance || point[j] > upper[j] + tolerance) {
+                        return false;
+                    }
+                }
+
+                for (int i = 0, limit = rowColumns.length; i < limit; i++) {
+                    double activity = this.evaluate(i, point);
+                    if (activity < rowLower[i] - tolerance || activity > rowUpper[i] + tolerance) {
+                        return false;
+                    }
+                }
+
+                return true;
+            }
+
+        }
+
+        private static final NumberContext FEASIBILITY = NumberContext.of(8, 6);
+
+        static double toDouble(final BigDecimal value, final double defaultValue) {
+            return value != null ? value.doubleValue() : defaultValue;
+        }
+
+        private final Optimisation.Result myIncumbent;
+        private final ExpressionsBasedModel myModel;
+        private final NodeKey myNode;
+        private final Optimisation.Result myRelaxed;
+        private transient Rows myRows = null;
+        private final IntegerSolver mySolver;
+        private final ModelStrategy myStrategy;
+
+        Context(final IntegerSolver solver, final ExpressionsBasedModel model, final ModelStrategy strategy, final NodeKey node,
+                final Optimisation.Result relaxed, final Optimisation.Result incumbent) {
+
+            super();
+
+            mySolver = solver;
+            myModel = model;
+            myStrategy = strategy;
+            myNode = node;
+            myRelaxed = relaxed;
+            myIncumbent = incumbent;
+        }
+
+        public int countIntegerVariables() {
+            return myStrategy.countIntegerVariables();
+        }
+
+        /**
+         * @return The best integer solution found so far, or null if no integer solution has been found yet
+         */
+        public Optimisation.Result getIncumbent() {
+            return myIncumbent;
+        }
+
+        /**
+         * @param idx Index among the integer variables
+         * @return The global (model) index of that integer variable
+         */
+        public int getIntegerIndex(final int idx) {
+            return myStrategy.getIndex(idx);
+        }
+
+        public NumberContext getIntegralityTolerance() {
+            return myStrategy.getIntegralityTolerance();
+        }
+
+        /**
+         * The (simplified) integer model being solved. This is shared with all the worker threads – do not
+         * modify it! Create a {@link ExpressionsBasedModel#snapshot()} or a copy if you need to modify
+         * something.
+         */
+        public ExpressionsBasedModel getModel() {
+            return myModel;
+        }
+
+        /**
+         * @return The node at which the heuristic is invoked
+         */
+        public NodeKey getNode() {
+            return myNode;
+        }
+
+        /**
+         * @return The (non-integer) solution to the node's relaxed problem
+         */
+        public Optimisation.Result getRelaxedSolution() {
+            return myRelaxed;
+        }
+
+        public boolean isFractional(final double value) {
+            return !myStrategy.getIntegralityTolerance().isZero(Math.abs(value - Math.rint(value)));
+        }
+
+        public boolean isMinimisation() {
+            return myStrategy.getOptimisationSense() != Optimisation.Sense.MAX;
+        }
+
+        /**
+         * Will (exactly) round the integer variables of the candidate solution, and then validate it against
+         * the model.
+         *
+         * @param candidate A potential solution
+         * @return A feasible result, including the objective function value, or null if the candidate is not
+         *         feasible.
+         */
+        public Optimisation.Result toFeasible(final Access1D<?> candidate) {
+
+            if (candidate == null || candidate.count() != myModel.countVariables()) {
+                return null;
+            }
+
+            ArrayR064 solution = ArrayR064.make(myModel.countVariables());
+            for (int i = 0, limit = solution.size(); i < limit; i++) {
+                solution.set(i, candidate.doubleValue(i));
+            }
+            for (int i = 0, limit = this.countIntegerVariables(); i < limit; i++) {
+                int globalIndex = this.getIntegerIndex(i);
+                double value = solution.doubleValue(globalIndex);
+                if (this.isFractional(value)) {
+                    return null;
+                }
+                solution.set(globalIndex, Math.rint(value));
+            }
+
+            Optimisation.Result result = new Optimisation.Result(Optimisation.State.FEASIBLE, solution);
+
+            if (!this.getRows().isFeasible(solution.data, FEASIBILITY.epsilon()) || !myModel.validate(result, myModel.options.feasibility, BasicLogger.NULL)) {
+                return null;
+            }
+
+            return new Optimisation.Result(Optimisation.State.FEASIBLE, mySolver.evaluateFunction(result), result);
+        }
+
+        Rows getRows() {
+            if (myRows == null) {
+                myRows = new Rows(myModel);
+            }
+            return myRows;
+        }
+
+        IntegerSolver getSolver() {
+            return mySolver;
+        }
+
+        ModelStrategy getStrategy() {
+            return myStrategy;
+        }
+
+    }
+
+    private final int myFrequency;
+    private final boolean myIncumbentRequired;
+
+    /**
+     * @param frequency Invoke at every node where the node sequence number is a multiple of this (positive)
+     *        frequency. Zero (or negative) means the heuristic is only invoked at the root node.
+     * @param incumbentRequired If true the heuristic is only invoked after an integer solution has been
+     *        found.
+     */
+    protected PrimalHeuristic(final int frequency, final boolean incumbentRequired) {
+        super();
+        myFrequency = frequency;
+        myIncumbentRequired = incumbentRequired;
+    }
+
+    public final int getFrequency() {
+        return myFrequency;
+    }
+
+    /**
+     * @return true if the heuristic should be invoked at this node
+     */
+    public boolean isApplicable(final NodeKey node, final boolean found) {
+
+        if (myIncumbentRequired && !found) {
+            return false;
+        }
+
+        if (node.sequence == 0L) {
+            return true;
+        }
+
+        return myFrequency > 0 && node.sequence % myFrequency == 0L;
+    }
+
+    public final boolean isIncumbentRequired() {
+        return myIncumbentRequired;
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName();
+    }
+
+    /**
+     * @return An integer feasible solution – preferably one that is better than the incumbent – or null if
+     *         none was found. Use {@link Context#toFeasible(Access1D)} to validate candidates.
+     */
+    protected abstract Optimisation.Result search(PrimalHeuristic.Context context);
+
+}
@@ -0,0 +1,572 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.integer;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.ojalgo.concurrent.Parallelism;
+import org.ojalgo.optimisation.Expression;
+import org.ojalgo.optimisation.ExpressionsBasedModel;
+import org.ojalgo.optimisation.Optimisation;
+import org.ojalgo.optimisation.Variable;
+import org.ojalgo.optimisation.integer.IntegerStrategy.ConfigurableStrategy;
+import org.ojalgo.optimisation.integer.PrimalHeuristic.Context;
+
+/**
+ * The built-in {@link PrimalHeuristic}s.
+ *
+ * @author apete
+ */
+public abstract class PrimalHeuristics {
+
+    /**
+     * Common logic for the diving heuristics. Starting from the node's relaxed solution, repeatedly bound one
+     * fractional integer variable and re-solve the relaxation – diving down a single path of the search tree
+     * – until an integer solution is found or the relaxation becomes infeasible. At each step, before
+     * bounding, a simple rounding of the current relaxed solution is also tried. If bounding in the preferred
+     * direction makes the relaxation infeasible the opposite direction is tried (single backtrack).
+     */
+    static abstract class Diving extends PrimalHeuristic {
+
+        private final int myMaxDepth;
+
+        Diving(final int frequency, final boolean incumbentRequired, final int maxDepth) {
+            super(frequency, incumbentRequired);
+            myMaxDepth = maxDepth;
+        }
+
+        private void bound(final Variable variable, final double value, final boolean down) {
+            if (down) {
+                variable.upper(Math.floor(value));
+            } else {
+                variable.lower(Math.ceil(value));
+            }
+        }
+
+        @Override
+        protected Optimisation.Result search(final Context context) {
+
+            ExpressionsBasedModel diveModel = context.getModel().snapshot();
+            NodeSolver diveSolver = diveModel.prepare(NodeSolver::new);
+
+            try {
+
+                Optimisation.Result current = context.getRelaxedSolution();
+
+                for (int depth = 0; depth < myMaxDepth; depth++) {
+
+                    Optimisation.Result feasible = context.toFeasible(current);
+                    if (feasible == null) {
+                        feasible = context.toFeasible(PrimalHeuristics.round(context, current));
+                    }
+                    if (feasible != null) {
+                        return feasible;
+                    }
+
+                    int idx = this.select(context, current);
+                    if (idx < 0) {
+                        return null;
+                    }
+
+                    int globalIndex = context.getIntegerIndex(idx);
+                    double value = current.doubleValue(globalIndex);
+                    boolean down = this.isDown(context, idx, value);
+
+                    Variable variable = diveSolver.getVariable(globalIndex);
+                    BigDecimal lower = variable.getLowerLimit();
+                    BigDecimal upper = variable.getUpperLimit();
+
+                    this.bound(variable, value, down);
+                    diveSolver.update(variable);
+                    Optimisation.Result next = diveSolver.solve(current);
+
+                    if (!next.getState().isOptimal()) {
+
+                        variable.lower(lower).upper(upper);
+                        this.bound(variable, value, !down);
+                        diveSolver.update(variable);
+                        next = diveSolver.solve(current);
+
+                        if (!next.getState().isOptimal()) {
+                            return null;
+                        }
+                    }
+
+                    current = next;
+                }
+
+                return context.toFeasible(current);
+
+            } finally {
+                diveSolver.dispose();
+            }
+        }
+
+        /**
+         * @return true to round down (set a new upper bound), false to round up
+         */
+        abstract boolean isDown(Context context, int idx, double value);
+
+        /**
+         * @return The index (among the integer variables) of the variable to bound, or -1 if there is no
+         *         fractional integer variable.
+         */
+        abstract int select(Context context, Optimisation.Result current);
+
+    }
+
+    /**
+     * Alternates between rounding the current relaxed solution and solving an LP that minimises the distance
+     * to that rounded point. Cycles are broken by flipping the most fractional variables, and if that's not
+     * enough by random perturbation. The distance function is exact for variables rounded to one of their
+     * bounds (e.g. binaries). For general integer variables rounded to an interior value it is approximated by
+     * the direction of the current displacement. Any existing objective cutoff constraint is retained.
+     */
+    static final class FeasibilityPump extends PrimalHeuristic {
+
+        private static final int FLIPS = 10;
+        private static final int ROUNDS = 50;
+
+        FeasibilityPump() {
+            super(0, false);
+        }
+
+        @Override
+        protected Optimisation.Result search(final Context context) {
+
+            ExpressionsBasedModel pumpModel = context.getModel().copy(true);
+
+            for (Variable variable : pumpModel.getVariables()) {
+                variable.weight(null);
+            }
+            for (Expression expression : pumpModel.getExpressions()) {
+                expression.weight(null);
+            }
+
+            int nbIntegers = context.countIntegerVariables();
+            Context.Rows rows = context.getRows();
+
+            Random random = new Random(nbIntegers);
+            Set<Integer> history = new HashSet<>();
+
+            double[] relaxed = PrimalHeuristics.copy(context.getRelaxedSolution());
+            double[] rounded = PrimalHeuristics.round(context, relaxed);
+
+            for (int r = 0; r < ROUNDS; r++) {
+
+                Optimisation.Result feasible = context.toFeasible(Optimisation.Result.of(Optimisation.State.APPROXIMATE, rounded));
+                if (feasible != null) {
+                    return feasible;
+                }
+
+                for (int i = 0; i < nbIntegers; i++) {
+                    int globalIndex = context.getIntegerIndex(i);
+                    double target = rounded[globalIndex];
+                    if (target <= rows.lower[globalIndex]) {
+                        pumpModel.getVariable(globalIndex).weight(1L);
+                    } else if (target >= rows.upper[globalIndex]) {
+                        pumpModel.getVariable(globalIndex).weight(-1L);
+                    } else if (relaxed[globalIndex] > target) {
+                        pumpModel.getVariable(globalIndex).weight(1L);
+                    } else if (relaxed[globalIndex] < target) {
+                        pumpModel.getVariable(globalIndex).weight(-1L);
+                    } else {
+                        pumpModel.getVariable(globalIndex).weight(null);
+                    }
+                }
+
+                Optimisation.Result pumped = pumpModel.minimise();
+                if (!pumped.getState().isFeasible()) {
+                    return null;
+                }
+
+                relaxed = PrimalHeuristics.copy(pumped);
+
+                feasible = context.toFeasible(pumped);
+                if (feasible != null) {
+                    return feasible;
+                }
+
+                double[] next = PrimalHeuristics.round(context, relaxed);
+
+                if (Arrays.equals(rounded, next)) {
+                    this.flip(context, relaxed, next, FLIPS / 2 + random.nextInt(FLIPS));
+                } else if (history.contains(Arrays.hashCode(next))) {
+                    this.perturb(context, relaxed, next, random);
+                }
+
+                history.add(Arrays.hashCode(next));
+                rounded = next;
+            }
+
+            return null;
+        }
+
+        private void flip(final Context context, final double[] relaxed, final double[] rounded, final int count) {
+
+            int nbIntegers = context.countIntegerVariables();
+            Integer[] order = new Integer[nbIntegers];
+            for (int i = 0; i < nbIntegers; i++) {
+                order[i] = context.getIntegerIndex(i);
+            }
+            Arrays.sort(order, (i1, i2) -> Double.compare(Math.abs(relaxed[i2] - rounded[i2]), Math.abs(relaxed[i1] - rounded[i1])));
+
+            Context.Rows rows = context.getRows();
+            for (int k = 0, limit = Math.min(count, nbIntegers); k < limit; k++) {
+                int globalIndex = order[k];
+                if (Math.abs(relaxed[globalIndex] - rounded[globalIndex]) <= 0.0) {
+                    break;
+                }
+                PrimalHeuristics.flip(rows, rounded, globalIndex, relaxed[globalIndex]);
+            }
+        }
+
+        private void perturb(final Context context, final double[] relaxed, final double[] rounded, final Random random) {
+            Context.Rows rows = context.getRows();
+            for (int i = 0, limit = context.countIntegerVariables(); i < limit; i++) {
+                int globalIndex = context.getIntegerIndex(i);
+                double threshold = random.nextDouble() - 0.3;
+                if (Math.abs(relaxed[globalIndex] - rounded[globalIndex]) + Math.max(threshold, 0.0) > 0.5) {
+                    PrimalHeuristics.flip(rows, rounded, globalIndex, relaxed[globalIndex]);
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Repeatedly bounds the fractional variable with the smallest fractionality, rounding it to the nearest
+     * integer.
+     */
+    static final class FractionalDiving extends Diving {
+
+        FractionalDiving() {
+            super(0, false, 100);
+        }
+
+        @Override
+        boolean isDown(final Context context, final int idx, final double value) {
+            return value - Math.floor(value) <= 0.5;
+        }
+
+        @Override
+        int select(final Context context, final Optimisation.Result current) {
+
+            int retVal = -1;
+            double smallest = Double.POSITIVE_INFINITY;
+
+            for (int i = 0, limit = context.countIntegerVariables(); i < limit; i++) {
+                double value = current.doubleValue(context.getIntegerIndex(i));
+                if (context.isFractional(value)) {
+                    double fractionality = Math.abs(value - Math.rint(value));
+                    if (fractionality < smallest) {
+                        smallest = fractionality;
+                        retVal = i;
+                    }
+                }
+            }
+
+            return retVal;
+        }
+
+    }
+
+    /**
+     * Repeatedly bounds the fractional variable closest to its value in the incumbent solution, rounding it
+     * in the direction of that incumbent value. Requires an incumbent.
+     */
+    static final class GuidedDiving extends Diving {
+
+        GuidedDiving() {
+            super(500, true, 100);
+        }
+
+        @Override
+        boolean isDown(final Context context, final int idx, final double value) {
+            return context.getIncumbent().doubleValue(context.getIntegerIndex(idx)) <= value;
+        }
+
+        @Override
+        int select(final Context context, final Optimisation.Result current) {
+
+            Optimisation.Result incumbent = context.getIncumbent();
+
+            int retVal = -1;
+            double smallest = Double.POSITIVE_INFINITY;
+
+            for (int i = 0, limit = context.countIntegerVariables(); i < limit; i++) {
+                int globalIndex = context.getIntegerIndex(i);
+                double value = current.doubleValue(globalIndex);
+                if (context.isFractional(value)) {
+                    double distance = Math.abs(value - incumbent.doubleValue(globalIndex));
+                    if (distance < smallest) {
+                        smallest = distance;
+                        retVal = i;
+                    }
+                }
+            }
+
+            return retVal;
+        }
+
+    }
+
+    /**
+     * Relaxation Induced Neighbourhood Search: Integer variables that have the same value in the incumbent
+     * and in the node's relaxed solution are fixed, and the resulting (smaller) sub-MIP is solved with a
+     * node limit, without parallelism and without primal heuristics.
+     */
+    static final class NeighbourhoodSearch extends PrimalHeuristic {
+
+        private final double myMinFixingRate;
+        private final int myNodeLimit;
+
+        NeighbourhoodSearch() {
+            super(1000, true);
+            myMinFixingRate = 0.5;
+            myNodeLimit = 200;
+        }
+
+        @Override
+        protected Optimisation.Result search(final Context context) {
+
+            Optimisation.Result incumbent = context.getIncumbent();
+            Optimisation.Result relaxed = context.getRelaxedSolution();
+
+            ExpressionsBasedModel subModel = context.getModel().copy();
+
+            int nbIntegers = context.countIntegerVariables();
+            int nbFixed = 0;
+
+            for (int i = 0; i < nbIntegers; i++) {
+                int globalIndex = context.getIntegerIndex(i);
+                double value = incumbent.doubleValue(globalIndex);
+                if (context.getIntegralityTolerance().isZero(Math.abs(relaxed.doubleValue(globalIndex) - value))) {
+                    subModel.getVariable(globalIndex).level(Math.rint(value));
+                    nbFixed++;
+                }
+            }
+
+            if (nbFixed < myMinFixingRate * nbIntegers || nbFixed == nbIntegers) {
+                return null;
+            }
+
+            Optimisation.Options subOptions = new Optimisation.Options();
+            subOptions.iterations_abort = myNodeLimit;
+            subOptions.iterations_suffice = myNodeLimit;
+            subOptions.time_abort = context.getModel().options.time_abort;
+            subOptions.time_suffice = context.getModel().options.time_suffice;
+            subOptions.integer(PrimalHeuristics.newSubStrategy(context.getModel().options.integer()));
+
+            IntegerSolver subSolver = new IntegerSolver(subModel, subOptions);
+            Optimisation.Result subResult = subSolver.solve(incumbent);
+
+            if (!subResult.getState().isFeasible()) {
+                return null;
+            }
+
+            return context.toFeasible(subResult);
+        }
+
+    }
+
+    /**
+     * Rounds every integer variable to its nearest integer value, and then checks feasibility.
+     */
+    static final class SimpleRounding extends PrimalHeuristic {
+
+        SimpleRounding() {
+            super(20, false);
+        }
+
+        @Override
+        protected Optimisation.Result search(final Context context) {
+            return context.toFeasible(PrimalHeuristics.round(context, context.getRelaxedSolution()));
+        }
+
+    }
+
+    /**
+     * ZI Round – for each fractional integer variable, calculate how far it can be shifted (up or down)
+     * without violating any constraint (given the current row activities/slacks), and if that's enough to
+     * reach an integer value then shift it. The direction that improves the objective function is preferred.
+     * Repeated until no more shifts can be made.
+     */
+    static final class ZIRounding extends PrimalHeuristic {
+
+        private static final double TOLERANCE = 1E-9;
+
+        ZIRounding() {
+            super(20, false);
+        }
+
+        @Override
+        protected Optimisation.Result search(final Context context) {
+
+            Context.Rows rows = context.getRows();
+            int nbRows = rows.countRows();
+            int nbIntegers = context.countIntegerVariables();
+            boolean minimisation = context.isMinimisation();
+
+            double[] point = PrimalHeuristics.copy(context.getRelaxedSolution());
+
+            double[] activities = new double[nbRows];
+            for (int i = 0; i < nbRows; i++) {
+                activities[i] = rows.evaluate(i, point);
+            }
+
+            boolean changed = true;
+            boolean fractional = true;
+
+            while (changed && fractional) {
+
+                changed = false;
+                fractional = false;
+
+                for (int idx = 0; idx < nbIntegers; idx++) {
+
+                    int j = context.getIntegerIndex(idx);
+                    double value = point[j];
+
+                    if (!context.isFractional(value)) {
+                        continue;
+                    }
+
+                    double maxDown = value - rows.lower[j];
+                    double maxUp = rows.upper[j] - value;
+
+                    int[] columnRows = rows.columnRows[j];
+                    double[] columnValues = rows.columnValues[j];
+
+                    for (int k = 0; k < columnRows.length; k++) {
+                        int i = columnRows[k];
+                        double coefficient = columnValues[k];
+                        double slackUp = Math.max(rows.rowUpper[i] - activities[i], 0.0);
+                        double slackDown = Math.max(activities[i] - rows.rowLower[i], 0.0);
+                        if (coefficient > 0.0) {
+                            maxDown = Math.min(maxDown, slackDown / coefficient);
+                            maxUp = Math.min(maxUp, slackUp / coefficient);
+                        } else if (coefficient < 0.0) {
+                            maxDown = Math.min(maxDown, -slackUp / coefficient);
+                            maxUp = Math.min(maxUp, -slackDown / coefficient);
+                        }
+                    }
+
+                    double down = value - Math.floor(value);
+                    double up = Math.ceil(value) - value;
+
+                    boolean canDown = down <= maxDown + TOLERANCE;
+                    boolean canUp = up <= maxUp + TOLERANCE;
+
+                    double shift;
+                    if (canDown && canUp) {
+                        double cost = rows.objective[j];
+                        if (cost == 0.0) {
+                            shift = down <= up ? -down : up;
+                        } else {
+                            shift = cost > 0.0 == minimisation ? -down : up;
+                        }
+                    } else if (canDown) {
+                        shift = -down;
+                    } else if (canUp) {
+                        shift = up;
+                    } else {
+                        fractional = true;
+                        continue;
+                    }
+
+                    point[j] = Math.rint(value + shift);
+                    for (int k = 0; k < columnRows.length; k++) {
+                        activities[columnRows[k]] += columnValues[k] * shift;
+                    }
+                    changed = true;
+                }
+            }
+
+            if (fractional) {
+                return null;
+            }
+
+            return context.toFeasible(Optimisation.Result.of(Optimisation.State.APPROXIMATE, point));
+        }
+
+    }
+
+    public static final PrimalHeuristic FEASIBILITY_PUMP = new FeasibilityPump();
+    public static final PrimalHeuristic FRACTIONAL_DIVING = new FractionalDiving();
+    public static final PrimalHeuristic GUIDED_DIVING = new GuidedDiving();
+    public static final PrimalHeuristic RINS = new NeighbourhoodSearch();
+    public static final PrimalHeuristic SIMPLE_ROUNDING = new SimpleRounding();
+    public static final PrimalHeuristic ZI_ROUNDING = new ZIRounding();
+
+    /**
+     * The heuristics used by {@link IntegerStrategy#DEFAULT} – the cheap ones first.
+     */
+    public static final List<PrimalHeuristic> DEFAULT = List.of(SIMPLE_ROUNDING, ZI_ROUNDING, FRACTIONAL_DIVING, FEASIBILITY_PUMP, GUIDED_DIVING, RINS);
+
+    static double[] copy(final Optimisation.Result solution) {
+        double[] retVal = new double[solution.size()];
+        for (int i = 0; i < retVal.length; i++) {
+            retVal[i] = solution.doubleValue(i);
+        }
+        return retVal;
+    }
+
+    /**
+     * Flip the rounding direction of a variable – the new value has to be within the variable's bounds.
+     */
+    static void flip(final Context.Rows rows, final double[] rounded, final int globalIndex, final double relaxed) {
+        double flipped = rounded[globalIndex] <= relaxed ? rounded[globalIndex] + 1.0 : rounded[globalIndex] - 1.0;
+        if (flipped >= rows.lower[globalIndex] && flipped <= rows.upper[globalIndex]) {
+            rounded[globalIndex] = flipped;
+        }
+    }
+
+    static ConfigurableStrategy newSubStrategy(final IntegerStrategy strategy) {
+        ConfigurableStrategy base;
+        if (strategy instanceof ConfigurableStrategy) {
+            base = (ConfigurableStrategy) strategy;
+        } else {
+            base = IntegerStrategy.DEFAULT.withGapTolerance(strategy.getGapTolerance());
+        }
+        return base.withPrimalHeuristics().withParallelism(Parallelism.ONE);
+    }
+
+    static double[] round(final Context context, final double[] point) {
+        double[] retVal = Arrays.copyOf(point, point.length);
+        for (int i = 0, limit = context.countIntegerVariables(); i < limit; i++) {
+            int globalIndex = context.getIntegerIndex(i);
+            retVal[globalIndex] = Math.rint(retVal[globalIndex]);
+        }
+        return retVal;
+    }
+
+    static Optimisation.Result round(final Context context, final Optimisation.Result point) {
+        return Optimisation.Result.of(Optimisation.State.APPROXIMATE, PrimalHeuristics.round(context, PrimalHeuristics.copy(point)));
+    }
+
+}
@@ -41,6 +41,7 @@ import org.ojalgo.optimisation.OptimisationData;
 import org.ojalgo.optimisation.UpdatableSolver;
 import org.ojalgo.optimisation.Variable;
 import org.ojalgo.optimisation.convex.ConvexSolver;
+import org.ojalgo.optimisation.convex.InteriorPointSolver;
 import org.ojalgo.structure.Access1D;
 import org.ojalgo.structure.Access2D;
 import org.ojalgo.structure.Structure1D.IntIndex;
@@ -50,6 +51,50 @@ public abstract class LinearSolver extends GenericSolver implements UpdatableSol
 
     public static final class Configuration {
 
+        private boolean myInteriorPoint = false;
+        private boolean myUpdatable = false;
+
+        /**
+         * @return A new instance with the same settings
+         */
+        public Configuration copy() {
+
+            Configuration retVal = new Configuration();
+
+            retVal.myInteriorPoint = myInteriorPoint;
+            retVal.myUpdatable = myUpdatable;
+
+            return retVal;
+        }
+
+        public boolean interiorPoint() {
+            return myInteriorPoint;
+        }
+
+        /**
+         * Solve (continuous) LP models from {@link ExpressionsBasedModel} using the
+         * {@link InteriorPointSolver} rather than the simplex solvers. Can be much faster for large sparse
+         * models, but there is no warm start and the solution is typically not a vertex (basic) solution.
+         */
+        public Configuration interiorPoint(final boolean interiorPoint) {
+            myInteriorPoint = interiorPoint;
+            return this;
+        }
+
+        public boolean updatable() {
+            return myUpdatable;
+        }
+
+        /**
+         * Build the simplex tableau with a full set of (explicit) artificial variables. That makes the
+         * tableau larger, but it's necessary to be able to update constraint limits in-place. The
+         * {@link org.ojalgo.optimisation.CompiledModel} switches this on when building its solver.
+         */
+        public Configuration updatable(final boolean updatable) {
+            myUpdatable = updatable;
+            return this;
+        }
+
     }
 
     /**
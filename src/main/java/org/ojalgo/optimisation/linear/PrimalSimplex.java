@@ -627,7 +627,7 @@ final class PrimalSimplex extends SimplexTableauSolver {
         int nbIdentitySlackVars = exprUpPos.size() + exprLoNeg.size() + varsPosUp.size() + varsNegLo.size();
         int nbOtherSlackVars = exprUpNeg.size() + exprLoPos.size() + varsNegUp.size() + varsPosLo.size();
         int nbConstraints = nbIdentitySlackVars + nbOtherSlackVars + exprEqPos.size() + exprEqNeg.size();
-        boolean needDuals = false;
+        boolean needDuals = model.options.linear().updatable();
 
         SimplexTableau retVal = SimplexTableau.make(nbConstraints, nbPosProbVars, nbNegProbVars, nbOtherSlackVars, nbIdentitySlackVars, needDuals,
                 model.options);
@@ -665,6 +665,8 @@ final class PrimalSimplex extends SimplexTableauSolver {
             }
         }
 
+        meta.objective = model.getOptimisationSense() == Optimisation.Sense.MAX ? -objective.getAdjustmentFactor() : objective.getAdjustmentFactor();
+
         //  BasicLogger.debug("objective", retVal);
 
         int indCnstr = 0;
@@ -683,6 +685,7 @@ final class PrimalSimplex extends SimplexTableauSolver {
             retConstraintsRHS.set(indCnstr, rhs);
 
             meta.slack[indSlack - baseSlackVars] = EntryPair.of(expression, ConstraintType.UPPER);
+            meta.constraint[indCnstr] = meta.slack[indSlack - baseSlackVars];
             indCnstr++;
             indSlack++;
         }
@@ -702,6 +705,8 @@ final class PrimalSimplex extends SimplexTableauSolver {
             retConstraintsRHS.set(indCnstr, rhs);
 
             meta.slack[indSlack - baseSlackVars] = EntryPair.of(expression, ConstraintType.LOWER);
+            meta.constraint[indCnstr] = meta.slack[indSlack - baseSlackVars];
+            meta.negatedConstraint[indCnstr] = true;
             indCnstr++;
             indSlack++;
         }
@@ -719,6 +724,7 @@ final class PrimalSimplex extends SimplexTableauSolver {
             retConstraintsRHS.set(indCnstr, rhs);
 
             meta.slack[indSlack - baseSlackVars] = EntryPair.of(variable, ConstraintType.UPPER);
+            meta.constraint[indCnstr] = meta.slack[indSlack - baseSlackVars];
             indCnstr++;
             indSlack++;
         }
@@ -736,6 +742,8 @@ final class PrimalSimplex extends SimplexTableauSolver {
             retConstraintsRHS.set(indCnstr, rhs);
 
             meta.slack[indSlack - baseSlackVars] = EntryPair.of(variable, ConstraintType.LOWER);
+            meta.constraint[indCnstr] = meta.slack[indSlack - baseSlackVars];
+            meta.negatedConstraint[indCnstr] = true;
             indCnstr++;
             indSlack++;
         }
@@ -757,6 +765,7 @@ final class PrimalSimplex extends SimplexTableauSolver {
             retConstraintsRHS.set(indCnstr, rhs);
 
             meta.slack[indSlack - baseSlackVars] = EntryPair.of(expression, ConstraintType.LOWER);
+            meta.constraint[indCnstr] = meta.slack[indSlack - baseSlackVars];
             indCnstr++;
             indSlack++;
         }
@@ -776,6 +785,8 @@ final class PrimalSimplex extends SimplexTableauSolver {
             retConstraintsRHS.set(indCnstr, rhs);
 
             meta.slack[indSlack - baseSlackVars] = EntryPair.of(expression, ConstraintType.UPPER);
+            meta.constraint[indCnstr] = meta.slack[indSlack - baseSlackVars];
+            meta.negatedConstraint[indCnstr] = true;
             indCnstr++;
             indSlack++;
         }
@@ -793,6 +804,7 @@ final class PrimalSimplex extends SimplexTableauSolver {
             retConstraintsRHS.set(indCnstr, rhs);
 
             meta.slack[indSlack - baseSlackVars] = EntryPair.of(variable, ConstraintType.LOWER);
+            meta.constraint[indCnstr] = meta.slack[indSlack - baseSlackVars];
             indCnstr++;
             indSlack++;
         }
@@ -810,6 +822,8 @@ final class PrimalSimplex extends SimplexTableauSolver {
             retConstraintsRHS.set(indCnstr, rhs);
 
             meta.slack[indSlack - baseSlackVars] = EntryPair.of(variable, ConstraintType.UPPER);
+            meta.constraint[indCnstr] = meta.slack[indSlack - baseSlackVars];
+            meta.negatedConstraint[indCnstr] = true;
             indCnstr++;
             indSlack++;
         }
@@ -828,6 +842,7 @@ final class PrimalSimplex extends SimplexTableauSolver {
             double rhs = expression.getAdjustedUpperLimit();
             retConstraintsRHS.set(indCnstr, rhs);
 
+            meta.constraint[indCnstr] = EntryPair.of(expression, ConstraintType.EQUALITY);
             indCnstr++;
         }
 
@@ -843,6 +858,8 @@ final class PrimalSimplex extends SimplexTableauSolver {
             double rhs = -expression.getAdjustedLowerLimit();
             retConstraintsRHS.set(indCnstr, rhs);
 
+            meta.constraint[indCnstr] = EntryPair.of(expression, ConstraintType.EQUALITY);
+            meta.negatedConstraint[indCnstr] = true;
             indCnstr++;
         }
 
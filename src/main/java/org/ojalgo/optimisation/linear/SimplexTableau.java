@@ -618,16 +618,30 @@ abstract class SimplexTableau extends Primitive2D {
 
     static final class MetaData implements UpdatableSolver.EntityMap {
 
+        /**
+         * Which model entity, and constraint type, that each constraint row corresponds to. Only set when
+         * the tableau was built from a model.
+         */
+        final EntryPair<ModelEntity<?>, ConstraintType>[] constraint;
+        final boolean[] negatedConstraint;
         final boolean[] negatedDual;
         final int[] negativePartVariables;
+        /**
+         * The (signed) scale factor of the objective function row, NaN unless the tableau was built from a
+         * model.
+         */
+        double objective = NaN;
         final int[] positivePartVariables;
         final EntryPair<ModelEntity<?>, ConstraintType>[] slack;
 
+        @SuppressWarnings("unchecked")
         MetaData(final int nbConstr, final int nbPos, final int nbNeg, final int nbSlack) {
             positivePartVariables = new int[nbPos];
             negativePartVariables = new int[nbNeg];
             slack = (EntryPair<ModelEntity<?>, ConstraintType>[]) new EntryPair<?, ?>[nbSlack];
             negatedDual = new boolean[nbConstr];
+            constraint = (EntryPair<ModelEntity<?>, ConstraintType>[]) new EntryPair<?, ?>[nbConstr];
+            negatedConstraint = new boolean[nbConstr];
         }
 
         public int countSlackVariables() {
@@ -1503,6 +1517,59 @@ abstract class SimplexTableau extends Primitive2D {
         };
     }
 
+    /**
+     * Add to the (phase 2) objective function factor of a variable, and update the reduced costs
+     * accordingly.
+     *
+     * @param col The tableau column
+     * @param change The change of the objective function factor
+     */
+    void shiftObjective(final int col, final double change) {
+
+        int rowObjective = this.countConstraints();
+
+        this.set(rowObjective, col, this.doubleValue(rowObjective, col) + change);
+
+        int row = this.getBasisRowIndex(col);
+
+        if (row >= 0) {
+            for (int j = 0, limit = this.countVariablesTotally(); j <= limit; j++) {
+                double value = this.doubleValue(row, j);
+                if (value != ZERO) {
+                    this.set(rowObjective, j, this.doubleValue(rowObjective, j) - change * value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Add to the right hand side of one of the original constraint rows. The current basis inverse column,
+     * corresponding to that row, is found where the initial identity (slack or artificial variables) was.
+     * Without (explicit) artificial variables that's only possible for the identity slack rows.
+     *
+     * @param row The constraint row, as it was when the tableau was built
+     * @param change The change of the right hand side
+     */
+    void shiftRHS(final int row, final double change) {
+
+        int nbConstraints = this.countConstraints();
+        int colRHS = this.countVariablesTotally();
+        int col = this.countVariables() - this.countIdentitySlackVariables() + row;
+
+        for (int i = 0; i < nbConstraints; i++) {
+            double value = this.doubleValue(i, col);
+            if (value != ZERO) {
+                this.set(i, colRHS, this.doubleValue(i, colRHS) + change * value);
+            }
+        }
+
+        this.set(nbConstraints, colRHS, this.doubleValue(nbConstraints, colRHS) + change * this.doubleValue(nbConstraints, col));
+
+        // The phase 1 objective has unit weights on the artificial variables
+        double weight = row >= this.countIdentitySlackVariables() ? ONE : ZERO;
+        this.set(nbConstraints + 1, colRHS, this.doubleValue(nbConstraints + 1, colRHS) + change * (this.doubleValue(nbConstraints + 1, col) - weight));
+    }
+
     abstract DenseTableau toDense();
 
     void update(final int pivotRow, final int pivotCol) {
@@ -34,9 +34,12 @@ import org.ojalgo.array.SparseArray.NonzeroView;
 import org.ojalgo.equation.Equation;
 import org.ojalgo.matrix.store.Primitive64Store;
 import org.ojalgo.optimisation.ExpressionsBasedModel;
+import org.ojalgo.optimisation.ModelEntity;
 import org.ojalgo.optimisation.Optimisation;
+import org.ojalgo.optimisation.Variable;
 import org.ojalgo.structure.Access1D;
 import org.ojalgo.type.context.NumberContext;
+import org.ojalgo.type.keyvalue.EntryPair;
 
 /**
  * The general recommendation is to construct optimisation problems using {@linkplain ExpressionsBasedModel}
@@ -88,9 +91,29 @@ abstract class SimplexTableauSolver extends LinearSolver {
     private static final NumberContext RATIO = NumberContext.of(12, 8).withMode(RoundingMode.HALF_DOWN);
     private static final NumberContext WEIGHT = NumberContext.of(8, 10).withMode(RoundingMode.HALF_DOWN);
 
+    /**
+     * Same sign, in the sense that the tableau structure is the same. Variable bounds equal to zero are not
+     * represented by any constraint rows, and expression limits are negated when negative.
+     */
+    private static boolean isSameSign(final ModelEntity<?> entity, final double limit1, final double limit2) {
+        if (entity instanceof Variable) {
+            return Math.signum(limit1) == Math.signum(limit2);
+        }
+        return limit1 < ZERO == limit2 < ZERO;
+    }
+
     private LongToNumberMap<Double> myFixedVariables = null;
+    /**
+     * Pending objective function changes, applied after feasibility has been restored.
+     */
+    private double[] myObjectiveChanges = null;
     private final SimplexTableauSolver.IterationPoint myPoint;
+    private boolean myRHSChanged = false;
     private final SimplexTableau myTableau;
+    /**
+     * The tableau is both primal and dual feasible (optimal) – in-place updates are possible.
+     */
+    private boolean myUpdatable = false;
 
     SimplexTableauSolver(final SimplexTableau tableau, final Optimisation.Options solverOptions) {
 
@@ -152,7 +175,9 @@ abstract class SimplexTableauSolver extends LinearSolver {
 
         this.resetIterationsCount();
 
-        while (this.isIterationAllowed() && this.needsAnotherIteration()) {
+        boolean feasible = this.restoreFeasibility();
+
+        while (feasible && this.isIterationAllowed() && this.needsAnotherIteration()) {
 
             this.performIteration(myPoint);
 
@@ -169,9 +194,100 @@ abstract class SimplexTableauSolver extends LinearSolver {
 
         // BasicLogger.debug("Total iters: {}", this.countIterations());
 
+        myUpdatable = this.getState() == State.OPTIMAL && !myTableau.isBasicArtificials() && myFixedVariables == null;
+
         return this.buildResult();
     }
 
+    @Override
+    public boolean updateObjective(final int index, final double change) {
+
+        double factor = myTableau.meta.objective;
+
+        if (!myUpdatable || Double.isNaN(factor)) {
+            return false;
+        }
+
+        if (myObjectiveChanges == null) {
+            myObjectiveChanges = new double[myTableau.countProblemVariables()];
+        }
+
+        int[] positive = myTableau.meta.positivePartVariables;
+        int[] negative = myTableau.meta.negativePartVariables;
+
+        for (int j = 0; j < positive.length; j++) {
+            if (positive[j] == index) {
+                myObjectiveChanges[j] += factor * change;
+            }
+        }
+        for (int j = 0; j < negative.length; j++) {
+            if (negative[j] == index) {
+                myObjectiveChanges[positive.length + j] -= factor * change;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean updateRange(final ModelEntity<?> entity, final ConstraintType type, final double value) {
+
+        if (!myUpdatable || !Double.isFinite(value)) {
+            return false;
+        }
+
+        double lower = entity.getLowerLimit(false, Double.NEGATIVE_INFINITY);
+        double upper = entity.getUpperLimit(false, Double.POSITIVE_INFINITY);
+
+        double current;
+        switch (type) {
+        case LOWER:
+            if (lower == upper || value == upper) {
+                return false;
+            }
+            current = lower;
+            break;
+        case UPPER:
+            if (lower == upper || value == lower) {
+                return false;
+            }
+            current = upper;
+            break;
+        default:
+            if (lower != upper || entity instanceof Variable) {
+                return false;
+            }
+            current = upper;
+            break;
+        }
+
+        if (!Double.isFinite(current) || !SimplexTableauSolver.isSameSign(entity, current, value)) {
+            return false;
+        }
+
+        if (value == current) {
+            return true;
+        }
+
+        EntryPair<ModelEntity<?>, ConstraintType>[] constraint = myTableau.meta.constraint;
+        boolean[] negated = myTableau.meta.negatedConstraint;
+
+        // Without artificial variables the basis inverse is only available for the identity slack rows
+        int limit = myTableau.isArtificials() ? constraint.length : myTableau.countIdentitySlackVariables();
+
+        for (int i = 0; i < limit; i++) {
+            EntryPair<ModelEntity<?>, ConstraintType> pair = constraint[i];
+            if (pair != null && pair.getKey() == entity && pair.getValue() == type) {
+                double change = entity.getAdjustmentFactor() * (value - current);
+                myTableau.shiftRHS(i, negated[i] ? -change : change);
+                myRHSChanged = true;
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     /**
      * https://math.stackexchange.com/questions/3254444/artificial-variables-in-two-phase-simplex-method
      */
@@ -216,6 +332,84 @@ abstract class SimplexTableauSolver extends LinearSolver {
         return myPoint.isPhase1() ? myTableau.countConstraints() + 1 : myTableau.countConstraints();
     }
 
+    /**
+     * After the constraints' RHS has been updated in-place: Dual simplex iterations until the tableau is
+     * (again) primal feasible. Then, any pending objective function changes are applied, and the (primal)
+     * iterations may continue from there.
+     *
+     * @return false if it's already established that the problem is infeasible
+     */
+    private boolean restoreFeasibility() {
+
+        boolean retVal = true;
+
+        if (myObjectiveChanges != null) {
+            // No longer optimal, but still feasible
+            this.setState(State.FEASIBLE);
+        }
+
+        if (myRHSChanged) {
+
+            // No longer feasible, but still dual feasible
+            this.setState(State.VALID);
+
+            int nbConstraints = myTableau.countConstraints();
+            int colRHS = myTableau.countVariablesTotally();
+
+            Access1D<Double> objectiveRow = myTableau.sliceTableauRow(nbConstraints);
+
+            while (this.isIterationAllowed()) {
+
+                myPoint.reset();
+
+                double minRHS = ZERO;
+                for (int i = 0; i < nbConstraints; i++) {
+                    double rhs = myTableau.doubleValue(i, colRHS);
+                    if (rhs < minRHS && !DEGENERATE.isZero(rhs)) {
+                        minRHS = rhs;
+                        myPoint.row = i;
+                    }
+                }
+
+                if (myPoint.row < 0) {
+                    this.setState(State.FEASIBLE);
+                    break;
+                }
+
+                myPoint.col = myTableau.findNextPivotColumn(myTableau.sliceTableauRow(myPoint.row), objectiveRow);
+
+                if (myPoint.col < 0) {
+                    this.setState(State.INFEASIBLE);
+                    retVal = false;
+                    break;
+                }
+
+                if (this.isLogDebug()) {
+                    this.log("\n==>>\tDual Row: {},\tExit: {},\tColumn/Enter: {}.\n", myPoint.row, myTableau.getBasisColumnIndex(myPoint.row), myPoint.col);
+                }
+
+                this.performIteration(myPoint);
+
+                this.incrementIterationsCount();
+            }
+
+            myRHSChanged = false;
+        }
+
+        if (myObjectiveChanges != null) {
+            for (int j = 0; j < myObjectiveChanges.length; j++) {
+                if (myObjectiveChanges[j] != ZERO) {
+                    myTableau.shiftObjective(j, myObjectiveChanges[j]);
+                }
+            }
+            myObjectiveChanges = null;
+        }
+
+        myUpdatable = false;
+
+        return retVal;
+    }
+
     private double infeasibility() {
         return -myTableau.value(true);
     }
@@ -21,13 +21,41 @@
  */
 package org.ojalgo.optimisation.service;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient.Version;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+import org.ojalgo.OjAlgoUtils;
+import org.ojalgo.array.ArrayR064;
+import org.ojalgo.concurrent.DaemonPoolExecutor;
+import org.ojalgo.concurrent.Parallelism;
 import org.ojalgo.netio.BasicLogger;
 import org.ojalgo.netio.InMemoryFile;
+import org.ojalgo.netio.ResourceLocator;
 import org.ojalgo.netio.ServiceClient;
 import org.ojalgo.netio.ServiceClient.Response;
 import org.ojalgo.optimisation.ExpressionsBasedModel;
 import org.ojalgo.optimisation.Optimisation;
 
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
 /**
  * {@link Solver} and {@link Integration} implementations that make use of Optimatika's
  * Optimisation-as-a-Service (OaaS).
@@ -38,15 +66,182 @@ import org.ojalgo.optimisation.Optimisation;
  * <p>
  * If you'd like access to a service instance for (private) production use, you should contact Optimatika
  * using: https://www.optimatika.se/products-services-inquiry/
+ * <p>
+ * There is also a {@link Server} – a lightweight embeddable implementation of (the core parts of) the same
+ * service using the in-process solvers – and a {@link Client} that batches many models per request and
+ * returns the results asynchronously.
  *
  * @author apete
  * @see https://www.optimatika.se/products-services-inquiry/
  */
 public abstract class OptimisationService {
 
-    public static final class Integration extends ExpressionsBasedModel.Integration<OptimisationService.Solver> {
+    /**
+     * Queues models and posts them to the service in batches. Each model gets a {@link CompletableFuture}
+     * result. A batch is sent as soon as it is full, or when {@link #flush()} is called, and does not wait
+     * for any previously sent batch to complete – several batches can be in flight at the same time
+     * (pipelining). A batch is solved, sequentially, by one server thread. To solve models in parallel use a
+     * smaller batch size, and/or several servers (clients).
+     * <p>
+     * The batch endpoint is only available with the {@link Server} implementation.
+     *
+     * @author apete
+     */
+    public static final class Client {
+
+        static final class Pending {
+
+            final CompletableFuture<Optimisation.Result> future = new CompletableFuture<>();
+            final byte[] model;
+            final Optimisation.Sense sense;
+
+            Pending(final Optimisation.Sense sense, final byte[] model) {
+                super();
+                this.sense = sense;
+                this.model = model;
+            }
+
+        }
+
+        private static List<Optimisation.Result> parse(final HttpResponse<byte[]> response) {
+
+            int statusCode = response.statusCode();
+            if (statusCode < 200 || statusCode >= 300) {
+                throw new CompletionException(new IOException("Calling " + response.uri() + " failed with status " + statusCode));
+            }
+
+            try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(response.body()))) {
+                int count = OptimisationService.check(input.readInt(), MAX_BATCH_SIZE);
+                List<Optimisation.Result> retVal = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    retVal.add(Optimisation.Result.INTERPRETER.deserialize(input));
+                }
+                return retVal;
+            } catch (IOException cause) {
+                throw new CompletionException(cause);
+            }
+        }
+
+        private final int myBatchSize;
+        private final String myHost;
+        private List<Pending> myQueue;
+        private final ServiceClient.Session mySession = ServiceClient.newSession();
+
+        Client(final String host, final int batchSize) {
+            super();
+            myHost = host;
+            myBatchSize = Math.max(1, Math.min(batchSize, MAX_BATCH_SIZE));
+            myQueue = new ArrayList<>(myBatchSize);
+        }
+
+        /**
+         * Send any queued models now, rather than waiting for the batch to fill up.
+         */
+        public void flush() {
+
+            List<Pending> batch;
+            synchronized (this) {
+                if (myQueue.isEmpty()) {
+                    return;
+                }
+                batch = myQueue;
+                myQueue = new ArrayList<>(myBatchSize);
+            }
+
+            this.send(batch);
+        }
+
+        public CompletableFuture<Optimisation.Result> maximise(final ExpressionsBasedModel model) {
+            return this.enqueue(model, Optimisation.Sense.MAX);
+        }
+
+        public CompletableFuture<Optimisation.Result> minimise(final ExpressionsBasedModel model) {
+            return this.enqueue(model, Optimisation.Sense.MIN);
+        }
+
+        /**
+         * Solve all the models and wait for the results.
+         */
+        public List<Optimisation.Result> solve(final List<ExpressionsBasedModel> models, final Optimisation.Sense sense) {
+
+            List<CompletableFuture<Optimisation.Result>> futures = new ArrayList<>(models.size());
+            for (ExpressionsBasedModel model : models) {
+                futures.add(this.enqueue(model, sense));
+            }
+            this.flush();
+
+            List<Optimisation.Result> retVal = new ArrayList<>(futures.size());
+            for (CompletableFuture<Optimisation.Result> future : futures) {
+                retVal.add(future.join());
+            }
+            return retVal;
+        }
+
+        private CompletableFuture<Optimisation.Result> enqueue(final ExpressionsBasedModel model, final Optimisation.Sense sense) {
+
+            InMemoryFile file = new InMemoryFile();
+            model.writeTo(file);
+
+            Pending pending = new Pending(sense, file.getContentsAsByteArray());
+
+            List<Pending> batch = null;
+            synchronized (this) {
+                myQueue.add(pending);
+                if (myQueue.size() >= myBatchSize) {
+                    batch = myQueue;
+                    myQueue = new ArrayList<>(myBatchSize);
+                }
+            }
 
-        private static final String PATH_TEST = "/optimisation/v01/test";
+            if (batch != null) {
+                this.send(batch);
+            }
+
+            return pending.future;
+        }
+
+        private void send(final List<Pending> batch) {
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream output = new DataOutputStream(bytes)) {
+                output.writeInt(batch.size());
+                for (Pending pending : batch) {
+                    output.writeUTF(pending.sense.name());
+                    output.writeInt(pending.model.length);
+                    output.write(pending.model);
+                }
+            } catch (IOException cause) {
+                throw new RuntimeException(cause);
+            }
+
+            Response<byte[]> response = mySession.newRequest(myHost + PATH_BATCH).method(ResourceLocator.Method.POST).version(Version.HTTP_1_1)
+                    .body(bytes.toByteArray()).send(BodyHandlers.ofByteArray());
+
+            response.toCompletableFuture().whenComplete((httpResponse, throwable) -> {
+
+                if (throwable != null) {
+                    for (Pending pending : batch) {
+                        pending.future.completeExceptionally(throwable);
+                    }
+                    return;
+                }
+
+                try {
+                    List<Optimisation.Result> results = Client.parse(httpResponse);
+                    for (int i = 0; i < batch.size(); i++) {
+                        batch.get(i).future.complete(results.get(i));
+                    }
+                } catch (RuntimeException cause) {
+                    for (Pending pending : batch) {
+                        pending.future.completeExceptionally(cause);
+                    }
+                }
+            });
+        }
+
+    }
+
+    public static final class Integration extends ExpressionsBasedModel.Integration<OptimisationService.Solver> {
 
         private Boolean myCapable = null;
         private final String myHost;
@@ -62,6 +257,11 @@ public abstract class OptimisationService {
 
         public boolean isCapable(final ExpressionsBasedModel model) {
 
+            if (Server.isServing()) {
+                // Models solved by an in-process server should not be sent to the/a server
+                return false;
+            }
+
             if (myCapable == null) {
                 Response<String> response = ServiceClient.get(myHost + PATH_TEST);
                 if (response.isResponseOK() && response.getBody().contains("VALID")) {
@@ -82,10 +282,184 @@ public abstract class OptimisationService {
 
     }
 
-    public static final class Solver implements Optimisation.Solver {
+    /**
+     * A lightweight, embeddable, implementation of the optimisation service based on the JDK's
+     * {@link HttpServer}. The models are solved in-process using {@link ExpressionsBasedModel}. Implements
+     * the test, environment, maximise and minimise endpoints of the Optimatika service, and in addition a
+     * batch endpoint used by the {@link Client}.
+     * <p>
+     * There is no authentication. Unless explicitly bound to some other address, the server only listens to
+     * the loopback interface.
+     *
+     * @author apete
+     */
+    public static final class Server implements AutoCloseable {
+
+        @FunctionalInterface
+        interface Endpoint {
 
-        private static final String PATH_MAXIMISE = "/optimisation/v01/maximise";
-        private static final String PATH_MINIMISE = "/optimisation/v01/minimise";
+            byte[] respond(HttpExchange exchange) throws IOException;
+
+        }
+
+        private static final ThreadLocal<Boolean> SERVING = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+        private static byte[] batch(final HttpExchange exchange) throws IOException {
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+            try (DataInputStream input = new DataInputStream(exchange.getRequestBody()); DataOutputStream output = new DataOutputStream(bytes)) {
+
+                int count = OptimisationService.check(input.readInt(), MAX_BATCH_SIZE);
+                output.writeInt(count);
+
+                for (int i = 0; i < count; i++) {
+
+                    Optimisation.Sense sense = Server.sense(input.readUTF());
+                    byte[] model = new byte[OptimisationService.check(input.readInt(), MAX_MODEL_SIZE)];
+                    input.readFully(model);
+
+                    Optimisation.Result.INTERPRETER.serialize(Server.solve(new ByteArrayInputStream(model), sense), output);
+                }
+            }
+
+            return bytes.toByteArray();
+        }
+
+        /**
+         * Every request gets a response – an invalid request results in status 400 (Bad Request), and any
+         * other failure in status 500 (Internal Server Error).
+         */
+        private static HttpHandler handler(final Endpoint endpoint) {
+            return exchange -> {
+                try {
+
+                    int status;
+                    byte[] body;
+                    try {
+                        body = endpoint.respond(exchange);
+                        status = 200;
+                    } catch (IOException cause) {
+                        BasicLogger.error("Invalid request to {}: {}", exchange.getRequestURI(), cause.getMessage());
+                        body = String.valueOf(cause.getMessage()).getBytes(StandardCharsets.UTF_8);
+                        status = 400;
+                    } catch (RuntimeException cause) {
+                        BasicLogger.error("Failed to handle request to {}: {}", exchange.getRequestURI(), cause.getMessage());
+                        body = String.valueOf(cause.getMessage()).getBytes(StandardCharsets.UTF_8);
+                        status = 500;
+                    }
+
+                    Server.respond(exchange, status, body);
+
+                } finally {
+                    exchange.close();
+                }
+            };
+        }
+
+        private static void respond(final HttpExchange exchange, final int status, final byte[] body) throws IOException {
+            try (OutputStream output = exchange.getResponseBody()) {
+                exchange.sendResponseHeaders(status, body.length);
+                output.write(body);
+            }
+        }
+
+        private static Optimisation.Sense sense(final String name) throws IOException {
+            try {
+                return Optimisation.Sense.valueOf(name);
+            } catch (IllegalArgumentException cause) {
+                throw new IOException("Invalid sense: " + name, cause);
+            }
+        }
+
+        private static byte[] solve(final HttpExchange exchange, final Optimisation.Sense sense) throws IOException {
+            try (InputStream input = exchange.getRequestBody()) {
+                return Server.solve(input, sense).toString().getBytes(StandardCharsets.UTF_8);
+            }
+        }
+
+        /**
+         * A model that can't be parsed or solved results in a {@link Optimisation.State#FAILED} result rather
+         * than failing the entire request.
+         */
+        private static Optimisation.Result solve(final InputStream model, final Optimisation.Sense sense) {
+            SERVING.set(Boolean.TRUE);
+            try {
+                ExpressionsBasedModel parsed = ExpressionsBasedModel.parse(model, ExpressionsBasedModel.FileFormat.EBM);
+                return sense == Optimisation.Sense.MAX ? parsed.maximise() : parsed.minimise();
+            } catch (RuntimeException cause) {
+                BasicLogger.error("Failed to solve model: {}", cause.getMessage());
+                return new Optimisation.Result(Optimisation.State.FAILED, ArrayR064.make(0));
+            } finally {
+                SERVING.set(Boolean.FALSE);
+            }
+        }
+
+        static boolean isServing() {
+            return SERVING.get().booleanValue();
+        }
+
+        private final ExecutorService myExecutor;
+        private final HttpServer myServer;
+
+        Server(final InetSocketAddress address, final int threads) {
+
+            super();
+
+            try {
+                myServer = HttpServer.create(address, 0);
+            } catch (IOException cause) {
+                throw new RuntimeException(cause);
+            }
+
+            myExecutor = DaemonPoolExecutor.newFixedThreadPool("ojAlgo-optimisation-service", threads);
+            myServer.setExecutor(myExecutor);
+
+            myServer.createContext(PATH_TEST, Server.handler(exchange -> "VALID".getBytes(StandardCharsets.UTF_8)));
+            myServer.createContext(PATH_ENVIRONMENT, Server.handler(exchange -> String.valueOf(OjAlgoUtils.ENVIRONMENT).getBytes(StandardCharsets.UTF_8)));
+            myServer.createContext(PATH_MAXIMISE, Server.handler(exchange -> Server.solve(exchange, Optimisation.Sense.MAX)));
+            myServer.createContext(PATH_MINIMISE, Server.handler(exchange -> Server.solve(exchange, Optimisation.Sense.MIN)));
+            myServer.createContext(PATH_BATCH, Server.handler(Server::batch));
+        }
+
+        /**
+         * Same as {@link #stop()}
+         */
+        public void close() {
+            this.stop();
+        }
+
+        public InetSocketAddress getAddress() {
+            return myServer.getAddress();
+        }
+
+        /**
+         * @return The host (URL) to use with {@link OptimisationService#newIntegration(String)} or
+         *         {@link OptimisationService#newClient(String, int)}
+         */
+        public String getHost() {
+            InetSocketAddress address = myServer.getAddress();
+            String host = address.getAddress().isAnyLocalAddress() ? "localhost" : address.getHostString();
+            return "http://" + host + ":" + address.getPort();
+        }
+
+        public int getPort() {
+            return myServer.getAddress().getPort();
+        }
+
+        public OptimisationService.Server start() {
+            myServer.start();
+            return this;
+        }
+
+        public void stop() {
+            myServer.stop(0);
+            myExecutor.shutdown();
+        }
+
+    }
+
+    public static final class Solver implements Optimisation.Solver {
 
         private final String myHost;
         private final ExpressionsBasedModel myModel;
@@ -116,8 +490,72 @@ public abstract class OptimisationService {
 
     }
 
+    /**
+     * The maximum number of models in a batch
+     */
+    static final int MAX_BATCH_SIZE = 10_000;
+    /**
+     * The maximum size, in bytes, of a single (serialised) model in a batch
+     */
+    static final int MAX_MODEL_SIZE = 64 * 1024 * 1024;
+    static final String PATH_BATCH = "/optimisation/v01/batch";
+    static final String PATH_ENVIRONMENT = "/optimisation/v01/environment";
+    static final String PATH_MAXIMISE = "/optimisation/v01/maximise";
+    static final String PATH_MINIMISE = "/optimisation/v01/minimise";
+    static final String PATH_TEST = "/optimisation/v01/test";
+
+    /**
+     * A client that sends batches of (at most) batchSize models per request
+     */
+    public static OptimisationService.Client newClient(final String host, final int batchSize) {
+        return new Client(host, batchSize);
+    }
+
     public static OptimisationService.Integration newIntegration(final String host) {
         return new Integration(host);
     }
 
+    /**
+     * The server does not authenticate its clients. Only bind it to an address reachable by other hosts on a
+     * trusted network.
+     *
+     * @param address The address (interface and port) to listen to
+     * @param threads The number of threads handling requests (solving models)
+     */
+    public static OptimisationService.Server newServer(final InetSocketAddress address, final int threads) {
+        return new Server(address, Math.max(1, threads));
+    }
+
+    /**
+     * A server, listening to the loopback interface only, using as many threads as there are cores. Call
+     * {@link Server#start()} to start it.
+     *
+     * @param port The port to listen to, 0 means any free port
+     */
+    public static OptimisationService.Server newServer(final int port) {
+        return OptimisationService.newServer(port, Parallelism.CORES.getAsInt());
+    }
+
+    /**
+     * A server listening to the loopback interface only. Use {@link #newServer(InetSocketAddress, int)} to
+     * listen to some other interface.
+     *
+     * @param port The port to listen to, 0 means any free port
+     * @param threads The number of threads handling requests (solving models)
+     */
+    public static OptimisationService.Server newServer(final int port, final int threads) {
+        return OptimisationService.newServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), threads);
+    }
+
+    /**
+     * @return The count, if it's in the range [0,max]
+     * @throws IOException if it is not
+     */
+    static int check(final int count, final int max) throws IOException {
+        if (count < 0 || count > max) {
+            throw new IOException("Invalid count/length: " + count + " not in [0," + max + "]");
+        }
+        return count;
+    }
+
 }
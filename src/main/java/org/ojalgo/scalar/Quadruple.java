@@ -116,6 +116,15 @@ public class Quadruple implements SelfDeclaringScalar<Quadruple> {
         return value.isSmall(comparedTo);
     }
 
+    /**
+     * @param base The (high order) double approximation
+     * @param remainder The (low order) error – should be small compared to base, no normalisation is done
+     * @return A quadruple
+     */
+    public static Quadruple of(final double base, final double remainder) {
+        return new Quadruple(base, remainder);
+    }
+
     public static Quadruple parse(final CharSequence plainNumberString) {
         BigDecimal decimal = new BigDecimal(plainNumberString.toString());
         return Quadruple.valueOf(decimal);
@@ -325,6 +334,20 @@ public class Quadruple implements SelfDeclaringScalar<Quadruple> {
         return this;
     }
 
+    /**
+     * @return The (high order) double approximation of this number
+     */
+    public double getBase() {
+        return myBase;
+    }
+
+    /**
+     * @return The (low order) error of {@link #getBase()}
+     */
+    public double getRemainder() {
+        return myRemainder;
+    }
+
     @Override
     public int hashCode() {
         int prime = 31;
@@ -474,12 +497,4 @@ public class Quadruple implements SelfDeclaringScalar<Quadruple> {
         return new BigDecimal(myBase).add(new BigDecimal(myRemainder), context);
     }
 
-    double getBase() {
-        return myBase;
-    }
-
-    double getRemainder() {
-        return myRemainder;
-    }
-
 }
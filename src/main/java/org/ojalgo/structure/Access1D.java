@@ -22,7 +22,11 @@
 package org.ojalgo.structure;
 
 import java.util.List;
+import java.util.Spliterator;
 import java.util.concurrent.atomic.DoubleAdder;
+import java.util.function.DoubleConsumer;
+import java.util.stream.DoubleStream;
+import java.util.stream.StreamSupport;
 
 import org.ojalgo.function.VoidFunction;
 import org.ojalgo.function.aggregator.Aggregator;
@@ -72,6 +76,75 @@ public interface Access1D<N extends Comparable<N>> extends Structure1D {
 
     }
 
+    /**
+     * Spliterator over the (double) values of a range of elements, with a fixed step (row and column views of
+     * a 2D structure are strided). Knows its exact size and splits evenly.
+     */
+    public static final class DoubleSpliterator implements Spliterator.OfDouble {
+
+        private static final int CHARACTERISTICS = Spliterator.IMMUTABLE | Spliterator.NONNULL | Spliterator.ORDERED | Spliterator.SIZED
+                | Spliterator.SUBSIZED;
+
+        private long myIndex;
+        private final long myLimit;
+        private final long myStep;
+        private final Access1D<?> myValues;
+
+        public DoubleSpliterator(final Access1D<?> values, final long first, final long limit, final long step) {
+
+            super();
+
+            myValues = values;
+            myIndex = first;
+            myLimit = limit;
+            myStep = step;
+        }
+
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+
+        public long estimateSize() {
+            return myIndex < myLimit ? (myLimit - myIndex + myStep - 1L) / myStep : 0L;
+        }
+
+        public void forEachRemaining(final DoubleConsumer action) {
+            for (long i = myIndex; i < myLimit; i += myStep) {
+                action.accept(myValues.doubleValue(i));
+            }
+            myIndex = myLimit;
+        }
+
+        public boolean tryAdvance(final DoubleConsumer action) {
+            if (myIndex < myLimit) {
+                action.accept(myValues.doubleValue(myIndex));
+                myIndex += myStep;
+                return true;
+            } else {
+                return false;
+            }
+        }
+
+        public DoubleSpliterator trySplit() {
+
+            long remaining = this.estimateSize();
+
+            if (remaining > 1L) {
+
+                long split = myIndex + remaining / 2L * myStep;
+
+                DoubleSpliterator retVal = new DoubleSpliterator(myValues, myIndex, split, myStep);
+
+                myIndex = split;
+
+                return retVal;
+            }
+
+            return null;
+        }
+
+    }
+
     public static final class ElementView<N extends Comparable<N>> implements ElementView1D<N, ElementView<N>> {
 
         private long myCursor;
@@ -408,6 +481,22 @@ public interface Access1D<N extends Comparable<N>> extends Structure1D {
         return retVal.doubleValue();
     }
 
+    /**
+     * A spliterator over the (double) values of all elements, in index order. Implementations backed by
+     * arrays return spliterators that read the arrays directly and split on natural boundaries.
+     */
+    default Spliterator.OfDouble doubleSpliterator() {
+        return new DoubleSpliterator(this, 0L, this.count(), 1L);
+    }
+
+    /**
+     * @param parallel Passed on to {@link StreamSupport#doubleStream(Spliterator.OfDouble, boolean)}
+     * @return A stream of the (double) values of all elements
+     */
+    default DoubleStream doubleStream(final boolean parallel) {
+        return StreamSupport.doubleStream(this.doubleSpliterator(), parallel);
+    }
+
     double doubleValue(long index);
 
     /**
@@ -134,6 +134,11 @@ public interface Access2D<N extends Comparable<N>> extends Structure2D, Access1D
             return myDelegate2D.countRows();
         }
 
+        public Spliterator.OfDouble doubleSpliterator() {
+            long first = Structure2D.index(myDelegate2D.countRows(), 0L, myColumn);
+            return new Access1D.DoubleSpliterator(myDelegate2D, first, first + myDelegate2D.countRows(), 1L);
+        }
+
         public double doubleValue(final long index) {
             return myDelegate2D.doubleValue(index, myColumn);
         }
@@ -350,6 +355,11 @@ public interface Access2D<N extends Comparable<N>> extends Structure2D, Access1D
             return myDelegate2D.countColumns();
         }
 
+        public Spliterator.OfDouble doubleSpliterator() {
+            long rows = myDelegate2D.countRows();
+            return new Access1D.DoubleSpliterator(myDelegate2D, myRow, Structure2D.index(rows, myRow, myDelegate2D.countColumns()), rows);
+        }
+
         public double doubleValue(final long index) {
             return myDelegate2D.doubleValue(myRow, index);
         }
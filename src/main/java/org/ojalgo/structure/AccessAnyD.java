@@ -23,6 +23,7 @@ package org.ojalgo.structure;
 
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.Spliterator;
 
 import org.ojalgo.ProgrammingError;
 import org.ojalgo.function.VoidFunction;
@@ -410,6 +411,10 @@ public interface AccessAnyD<N extends Comparable<N>> extends StructureAnyD, Acce
             return myCount;
         }
 
+        public Spliterator.OfDouble doubleSpliterator() {
+            return new Access1D.DoubleSpliterator(myDelegateAnyD, myOffset, myOffset + myCount, 1L);
+        }
+
         public double doubleValue(final long index) {
             return myDelegateAnyD.doubleValue(myOffset + Structure2D.index(myCount, index, 0));
         }
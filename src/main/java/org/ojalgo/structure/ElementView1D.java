@@ -25,6 +25,7 @@ import java.util.Comparator;
 import java.util.Iterator;
 import java.util.Spliterator;
 import java.util.function.Consumer;
+import java.util.stream.DoubleStream;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -44,6 +45,14 @@ public interface ElementView1D<N extends Comparable<N>, V extends ElementView1D<
         return Long.compare(this.index(), other.index());
     }
 
+    /**
+     * The (double) values of the remaining elements. Splits the same way as this view does, which for
+     * {@link Access1D#nonzeros()} means only the nonzero elements are streamed.
+     */
+    default DoubleStream doubleStream(final boolean parallel) {
+        return StreamSupport.stream(this, parallel).mapToDouble(ElementView1D::doubleValue);
+    }
+
     default void forEachRemaining(final Consumer<? super V> action) {
         Spliterator.super.forEachRemaining(action);
     }
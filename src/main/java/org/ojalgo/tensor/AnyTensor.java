@@ -22,6 +22,7 @@
 package org.ojalgo.tensor;
 
 import java.util.Arrays;
+import java.util.Spliterator;
 
 import org.ojalgo.array.ArrayAnyD;
 import org.ojalgo.array.DenseArray;
@@ -141,6 +142,10 @@ public final class AnyTensor<N extends Comparable<N>> extends ArrayBasedTensor<N
         return myArray.count(dimension);
     }
 
+    public Spliterator.OfDouble doubleSpliterator() {
+        return myArray.doubleSpliterator();
+    }
+
     public double doubleValue(final long... ref) {
         return myArray.doubleValue(ref);
     }
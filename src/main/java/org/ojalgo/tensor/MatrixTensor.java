@@ -21,6 +21,8 @@
  */
 package org.ojalgo.tensor;
 
+import java.util.Spliterator;
+
 import org.ojalgo.array.Array2D;
 import org.ojalgo.array.DenseArray;
 import org.ojalgo.structure.Access2D;
@@ -129,6 +131,10 @@ public final class MatrixTensor<N extends Comparable<N>> extends ArrayBasedTenso
         return myArray.countRows();
     }
 
+    public Spliterator.OfDouble doubleSpliterator() {
+        return myArray.doubleSpliterator();
+    }
+
     public double doubleValue(final long row, final long col) {
         return myArray.doubleValue(row, col);
     }
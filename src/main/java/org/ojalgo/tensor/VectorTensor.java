@@ -21,6 +21,8 @@
  */
 package org.ojalgo.tensor;
 
+import java.util.Spliterator;
+
 import org.ojalgo.array.Array1D;
 import org.ojalgo.array.DenseArray;
 import org.ojalgo.structure.Access1D;
@@ -108,6 +110,10 @@ public final class VectorTensor<N extends Comparable<N>> extends ArrayBasedTenso
         return myArray.count();
     }
 
+    public Spliterator.OfDouble doubleSpliterator() {
+        return myArray.doubleSpliterator();
+    }
+
     public double doubleValue(final long index) {
         return myArray.doubleValue(index);
     }
@@ -23,12 +23,15 @@ package org.ojalgo.type;
 
 import java.lang.ref.Cleaner;
 import java.lang.reflect.Field;
+import java.util.Objects;
 
 import sun.misc.Unsafe;
 
 public abstract class NativeMemory {
 
     static final Cleaner CLEANER = Cleaner.create();
+    static final long OFFSET_DOUBLE;
+    static final long OFFSET_FLOAT;
     static final long SIZE_BYTE = Unsafe.ARRAY_BYTE_INDEX_SCALE;
     static final long SIZE_DOUBLE = Unsafe.ARRAY_DOUBLE_INDEX_SCALE;
     static final long SIZE_FLOAT = Unsafe.ARRAY_FLOAT_INDEX_SCALE;
@@ -56,6 +59,16 @@ public abstract class NativeMemory {
         } finally {
             UNSAFE = tmpUnsafe;
         }
+
+        OFFSET_DOUBLE = UNSAFE.arrayBaseOffset(double[].class);
+        OFFSET_FLOAT = UNSAFE.arrayBaseOffset(float[].class);
+    }
+
+    /**
+     * Allocated memory is not managed. It has to be explicitly freed using {@link #free(long)}.
+     */
+    public static long allocate(final long bytes) {
+        return UNSAFE.allocateMemory(bytes);
     }
 
     public static long allocateByteArray(final Object owner, final long count) {
@@ -118,6 +131,10 @@ public abstract class NativeMemory {
         }
     }
 
+    public static void free(final long pointer) {
+        UNSAFE.freeMemory(pointer);
+    }
+
     public static byte getByte(final long basePointer, final long index) {
         return UNSAFE.getByte(basePointer + SIZE_BYTE * index);
     }
@@ -126,10 +143,20 @@ public abstract class NativeMemory {
         return UNSAFE.getDouble(basePointer + SIZE_DOUBLE * index);
     }
 
+    public static void getDoubles(final long basePointer, final long index, final double[] destination, final int offset, final int count) {
+        Objects.checkFromIndexSize(offset, count, destination.length);
+        UNSAFE.copyMemory(null, basePointer + SIZE_DOUBLE * index, destination, OFFSET_DOUBLE + SIZE_DOUBLE * offset, SIZE_DOUBLE * count);
+    }
+
     public static float getFloat(final long basePointer, final long index) {
         return UNSAFE.getFloat(basePointer + SIZE_FLOAT * index);
     }
 
+    public static void getFloats(final long basePointer, final long index, final float[] destination, final int offset, final int count) {
+        Objects.checkFromIndexSize(offset, count, destination.length);
+        UNSAFE.copyMemory(null, basePointer + SIZE_FLOAT * index, destination, OFFSET_FLOAT + SIZE_FLOAT * offset, SIZE_FLOAT * count);
+    }
+
     public static int getInt(final long basePointer, final long index) {
         return UNSAFE.getInt(basePointer + SIZE_INT * index);
     }
@@ -174,10 +201,20 @@ public abstract class NativeMemory {
         UNSAFE.putDouble(basePointer + SIZE_DOUBLE * index, value);
     }
 
+    public static void setDoubles(final long basePointer, final long index, final double[] source, final int offset, final int count) {
+        Objects.checkFromIndexSize(offset, count, source.length);
+        UNSAFE.copyMemory(source, OFFSET_DOUBLE + SIZE_DOUBLE * offset, null, basePointer + SIZE_DOUBLE * index, SIZE_DOUBLE * count);
+    }
+
     public static void setFloat(final long basePointer, final long index, final float value) {
         UNSAFE.putFloat(basePointer + SIZE_FLOAT * index, value);
     }
 
+    public static void setFloats(final long basePointer, final long index, final float[] source, final int offset, final int count) {
+        Objects.checkFromIndexSize(offset, count, source.length);
+        UNSAFE.copyMemory(source, OFFSET_FLOAT + SIZE_FLOAT * offset, null, basePointer + SIZE_FLOAT * index, SIZE_FLOAT * count);
+    }
+
     public static void setInt(final long basePointer, final long index, final int value) {
         UNSAFE.putInt(basePointer + SIZE_INT * index, value);
     }
@@ -53,6 +53,19 @@ public enum MathType {
      * Rational Number: 2 * long
      */
     Q128(NumberSet.Q, 2, JavaType.LONG),
+    /**
+     * Real Number: byte
+     * <p>
+     * Quantised to 256 levels, using a scale and offset shared by a block of elements. Only the element
+     * storage is accounted for here – the per-block scale and offset come on top of that.
+     */
+    R008(NumberSet.R, 1, JavaType.BYTE),
+    /**
+     * Real Number: short
+     * <p>
+     * A 16 bit floating point format, bfloat16 or IEEE 754 half precision, stored in a short.
+     */
+    R016(NumberSet.R, 1, JavaType.SHORT),
     /**
      * Real Number: float
      */
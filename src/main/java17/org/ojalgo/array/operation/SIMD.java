@@ -0,0 +1,353 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array.operation;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vectorised (SIMD) implementations of some of the primitive (double and float) array kernels, used by
+ * {@link DOT}, {@link AXPY} and {@link CorePrimitiveOperation}. The kernels are only used if
+ * {@link #AVAILABLE} is true.
+ * <p>
+ * This is the Java 17 version of this class, in the multi-release jar, implemented using the JDK's Vector
+ * API with the preferred (widest) species of the platform. The API is an incubator module that has to be
+ * added explicitly: <code>--add-modules jdk.incubator.vector</code> If it is not, this class falls back to
+ * plain scalar loops. The Vector API classes are only referenced from the nested {@link Kernels} class,
+ * that is never loaded unless the module is present.
+ *
+ * @author apete
+ */
+final class SIMD {
+
+    static final class Kernels {
+
+        private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+        private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+
+        static void add(final double[] data, final int first, final int limit, final double[] left, final double[] right) {
+            int i = first;
+            for (int bound = first + DOUBLES.loopBound(limit - first); i < bound; i += DOUBLES.length()) {
+                DoubleVector.fromArray(DOUBLES, left, i).add(DoubleVector.fromArray(DOUBLES, right, i)).intoArray(data, i);
+            }
+            for (; i < limit; i++) {
+                data[i] = left[i] + right[i];
+            }
+        }
+
+        static void add(final float[] data, final int first, final int limit, final float[] left, final float[] right) {
+            int i = first;
+            for (int bound = first + FLOATS.loopBound(limit - first); i < bound; i += FLOATS.length()) {
+                FloatVector.fromArray(FLOATS, left, i).add(FloatVector.fromArray(FLOATS, right, i)).intoArray(data, i);
+            }
+            for (; i < limit; i++) {
+                data[i] = left[i] + right[i];
+            }
+        }
+
+        static void axpy(final double[] y, final int basey, final double a, final double[] x, final int basex, final int first, final int limit) {
+            int i = first;
+            for (int bound = first + DOUBLES.loopBound(limit - first); i < bound; i += DOUBLES.length()) {
+                DoubleVector.fromArray(DOUBLES, x, basex + i).mul(a).add(DoubleVector.fromArray(DOUBLES, y, basey + i)).intoArray(y, basey + i);
+            }
+            for (; i < limit; i++) {
+                y[basey + i] += a * x[basex + i];
+            }
+        }
+
+        static void axpy(final float[] y, final int basey, final float a, final float[] x, final int basex, final int first, final int limit) {
+            int i = first;
+            for (int bound = first + FLOATS.loopBound(limit - first); i < bound; i += FLOATS.length()) {
+                FloatVector.fromArray(FLOATS, x, basex + i).mul(a).add(FloatVector.fromArray(FLOATS, y, basey + i)).intoArray(y, basey + i);
+            }
+            for (; i < limit; i++) {
+                y[basey + i] += a * x[basex + i];
+            }
+        }
+
+        static void divide(final double[] data, final int first, final int limit, final double[] left, final double[] right) {
+            int i = first;
+            for (int bound = first + DOUBLES.loopBound(limit - first); i < bound; i += DOUBLES.length()) {
+                DoubleVector.fromArray(DOUBLES, left, i).div(DoubleVector.fromArray(DOUBLES, right, i)).intoArray(data, i);
+            }
+            for (; i < limit; i++) {
+                data[i] = left[i] / right[i];
+            }
+        }
+
+        static void divide(final float[] data, final int first, final int limit, final float[] left, final float[] right) {
+            int i = first;
+            for (int bound = first + FLOATS.loopBound(limit - first); i < bound; i += FLOATS.length()) {
+                FloatVector.fromArray(FLOATS, left, i).div(FloatVector.fromArray(FLOATS, right, i)).intoArray(data, i);
+            }
+            for (; i < limit; i++) {
+                data[i] = left[i] / right[i];
+            }
+        }
+
+        static double dot(final double[] array1, final int offset1, final double[] array2, final int offset2, final int first, final int limit) {
+            DoubleVector sum = DoubleVector.zero(DOUBLES);
+            int i = first;
+            for (int bound = first + DOUBLES.loopBound(limit - first); i < bound; i += DOUBLES.length()) {
+                sum = DoubleVector.fromArray(DOUBLES, array1, offset1 + i).mul(DoubleVector.fromArray(DOUBLES, array2, offset2 + i)).add(sum);
+            }
+            double retVal = sum.reduceLanes(VectorOperators.ADD);
+            for (; i < limit; i++) {
+                retVal += array1[offset1 + i] * array2[offset2 + i];
+            }
+            return retVal;
+        }
+
+        static float dot(final float[] array1, final int offset1, final float[] array2, final int offset2, final int first, final int limit) {
+            FloatVector sum = FloatVector.zero(FLOATS);
+            int i = first;
+            for (int bound = first + FLOATS.loopBound(limit - first); i < bound; i += FLOATS.length()) {
+                sum = FloatVector.fromArray(FLOATS, array1, offset1 + i).mul(FloatVector.fromArray(FLOATS, array2, offset2 + i)).add(sum);
+            }
+            float retVal = sum.reduceLanes(VectorOperators.ADD);
+            for (; i < limit; i++) {
+                retVal += array1[offset1 + i] * array2[offset2 + i];
+            }
+            return retVal;
+        }
+
+        static void multiply(final double[] data, final int first, final int limit, final double[] left, final double[] right) {
+            int i = first;
+            for (int bound = first + DOUBLES.loopBound(limit - first); i < bound; i += DOUBLES.length()) {
+                DoubleVector.fromArray(DOUBLES, left, i).mul(DoubleVector.fromArray(DOUBLES, right, i)).intoArray(data, i);
+            }
+            for (; i < limit; i++) {
+                data[i] = left[i] * right[i];
+            }
+        }
+
+        static void multiply(final float[] data, final int first, final int limit, final float[] left, final float[] right) {
+            int i = first;
+            for (int bound = first + FLOATS.loopBound(limit - first); i < bound; i += FLOATS.length()) {
+                FloatVector.fromArray(FLOATS, left, i).mul(FloatVector.fromArray(FLOATS, right, i)).intoArray(data, i);
+            }
+            for (; i < limit; i++) {
+                data[i] = left[i] * right[i];
+            }
+        }
+
+        static void multiply(final double[] data, final int first, final int limit, final double[] left, final double right) {
+            int i = first;
+            for (int bound = first + DOUBLES.loopBound(limit - first); i < bound; i += DOUBLES.length()) {
+                DoubleVector.fromArray(DOUBLES, left, i).mul(right).intoArray(data, i);
+            }
+            for (; i < limit; i++) {
+                data[i] = left[i] * right;
+            }
+        }
+
+        static void multiply(final float[] data, final int first, final int limit, final float[] left, final float right) {
+            int i = first;
+            for (int bound = first + FLOATS.loopBound(limit - first); i < bound; i += FLOATS.length()) {
+                FloatVector.fromArray(FLOATS, left, i).mul(right).intoArray(data, i);
+            }
+            for (; i < limit; i++) {
+                data[i] = left[i] * right;
+            }
+        }
+
+        static void subtract(final double[] data, final int first, final int limit, final double[] left, final double[] right) {
+            int i = first;
+            for (int bound = first + DOUBLES.loopBound(limit - first); i < bound; i += DOUBLES.length()) {
+                DoubleVector.fromArray(DOUBLES, left, i).sub(DoubleVector.fromArray(DOUBLES, right, i)).intoArray(data, i);
+            }
+            for (; i < limit; i++) {
+                data[i] = left[i] - right[i];
+            }
+        }
+
+        static void subtract(final float[] data, final int first, final int limit, final float[] left, final float[] right) {
+            int i = first;
+            for (int bound = first + FLOATS.loopBound(limit - first); i < bound; i += FLOATS.length()) {
+                FloatVector.fromArray(FLOATS, left, i).sub(FloatVector.fromArray(FLOATS, right, i)).intoArray(data, i);
+            }
+            for (; i < limit; i++) {
+                data[i] = left[i] - right[i];
+            }
+        }
+
+    }
+
+    /**
+     * Not a compile time constant – the value is determined by the version of this class actually loaded.
+     */
+    static final boolean AVAILABLE = SIMD.isAvailable();
+
+    /**
+     * The kernels are used for ranges at least this long.
+     */
+    static int THRESHOLD = 16;
+
+    static void add(final double[] data, final int first, final int limit, final double[] left, final double[] right) {
+        if (AVAILABLE) {
+            Kernels.add(data, first, limit, left, right);
+        } else {
+            for (int i = first; i < limit; i++) {
+                data[i] = left[i] + right[i];
+            }
+        }
+    }
+
+    static void add(final float[] data, final int first, final int limit, final float[] left, final float[] right) {
+        if (AVAILABLE) {
+            Kernels.add(data, first, limit, left, right);
+        } else {
+            for (int i = first; i < limit; i++) {
+                data[i] = left[i] + right[i];
+            }
+        }
+    }
+
+    static void axpy(final double[] y, final int basey, final double a, final double[] x, final int basex, final int first, final int limit) {
+        if (AVAILABLE) {
+            Kernels.axpy(y, basey, a, x, basex, first, limit);
+        } else {
+            for (int i = first; i < limit; i++) {
+                y[basey + i] += a * x[basex + i];
+            }
+        }
+    }
+
+    static void axpy(final float[] y, final int basey, final float a, final float[] x, final int basex, final int first, final int limit) {
+        if (AVAILABLE) {
+            Kernels.axpy(y, basey, a, x, basex, first, limit);
+        } else {
+            for (int i = first; i < limit; i++) {
+                y[basey + i] += a * x[basex + i];
+            }
+        }
+    }
+
+    static void divide(final double[] data, final int first, final int limit, final double[] left, final double[] right) {
+        if (AVAILABLE) {
+            Kernels.divide(data, first, limit, left, right);
+        } else {
+            for (int i = first; i < limit; i++) {
+                data[i] = left[i] / right[i];
+            }
+        }
+    }
+
+    static void divide(final float[] data, final int first, final int limit, final float[] left, final float[] right) {
+        if (AVAILABLE) {
+            Kernels.divide(data, first, limit, left, right);
+        } else {
+            for (int i = first; i < limit; i++) {
+                data[i] = left[i] / right[i];
+            }
+        }
+    }
+
+    static double dot(final double[] array1, final int offset1, final double[] array2, final int offset2, final int first, final int limit) {
+        if (AVAILABLE) {
+            return Kernels.dot(array1, offset1, array2, offset2, first, limit);
+        }
+        double retVal = 0.0;
+        for (int i = first; i < limit; i++) {
+            retVal += array1[offset1 + i] * array2[offset2 + i];
+        }
+        return retVal;
+    }
+
+    static float dot(final float[] array1, final int offset1, final float[] array2, final int offset2, final int first, final int limit) {
+        if (AVAILABLE) {
+            return Kernels.dot(array1, offset1, array2, offset2, first, limit);
+        }
+        float retVal = 0F;
+        for (int i = first; i < limit; i++) {
+            retVal += array1[offset1 + i] * array2[offset2 + i];
+        }
+        return retVal;
+    }
+
+    static void multiply(final double[] data, final int first, final int limit, final double[] left, final double[] right) {
+        if (AVAILABLE) {
+            Kernels.multiply(data, first, limit, left, right);
+        } else {
+            for (int i = first; i < limit; i++) {
+                data[i] = left[i] * right[i];
+            }
+        }
+    }
+
+    static void multiply(final float[] data, final int first, final int limit, final float[] left, final float[] right) {
+        if (AVAILABLE) {
+            Kernels.multiply(data, first, limit, left, right);
+        } else {
+            for (int i = first; i < limit; i++) {
+                data[i] = left[i] * right[i];
+            }
+        }
+    }
+
+    static void multiply(final double[] data, final int first, final int limit, final double[] left, final double right) {
+        if (AVAILABLE) {
+            Kernels.multiply(data, first, limit, left, right);
+        } else {
+            for (int i = first; i < limit; i++) {
+                data[i] = left[i] * right;
+            }
+        }
+    }
+
+    static void multiply(final float[] data, final int first, final int limit, final float[] left, final float right) {
+        if (AVAILABLE) {
+            Kernels.multiply(data, first, limit, left, right);
+        } else {
+            for (int i = first; i < limit; i++) {
+                data[i] = left[i] * right;
+            }
+        }
+    }
+
+    static void subtract(final double[] data, final int first, final int limit, final double[] left, final double[] right) {
+        if (AVAILABLE) {
+            Kernels.subtract(data, first, limit, left, right);
+        } else {
+            for (int i = first; i < limit; i++) {
+                data[i] = left[i] - right[i];
+            }
+        }
+    }
+
+    static void subtract(final float[] data, final int first, final int limit, final float[] left, final float[] right) {
+        if (AVAILABLE) {
+            Kernels.subtract(data, first, limit, left, right);
+        } else {
+            for (int i = first; i < limit; i++) {
+                data[i] = left[i] - right[i];
+            }
+        }
+    }
+
+    private static boolean isAvailable() {
+        return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * The off heap memory of an {@link OffHeapArray}. This version, used with Java 22+, is based on
+ * {@link MemorySegment}. Memory allocated without an arena (scope) is freed when it is no longer reachable,
+ * otherwise when the (shared) arena is closed. Accessing memory after its arena has been closed throws an
+ * {@link IllegalStateException}.
+ *
+ * @author apete
+ */
+final class OffHeapSegment {
+
+    /**
+     * Cache line size, and enough for the widest (512-bit) SIMD registers.
+     */
+    static final long ALIGNMENT = 64L;
+
+    static OffHeapSegment allocate(final Object owner, final AutoCloseable scope, final long count, final long elementSize) {
+
+        Arena arena = scope instanceof Arena ? (Arena) scope : Arena.ofAuto();
+
+        return new OffHeapSegment(arena.allocate(count * elementSize, ALIGNMENT));
+    }
+
+    static AutoCloseable newScope() {
+        return Arena.ofShared();
+    }
+
+    private final MemorySegment mySegment;
+
+    private OffHeapSegment(final MemorySegment segment) {
+        super();
+        mySegment = segment;
+    }
+
+    void clear() {
+        mySegment.fill((byte) 0);
+    }
+
+    byte getByte(final long index) {
+        return mySegment.getAtIndex(ValueLayout.JAVA_BYTE, index);
+    }
+
+    double getDouble(final long index) {
+        return mySegment.getAtIndex(ValueLayout.JAVA_DOUBLE, index);
+    }
+
+    void getDoubles(final long index, final double[] destination, final int offset, final int count) {
+        MemorySegment.copy(mySegment, ValueLayout.JAVA_DOUBLE, index * Double.BYTES, destination, offset, count);
+    }
+
+    float getFloat(final long index) {
+        return mySegment.getAtIndex(ValueLayout.JAVA_FLOAT, index);
+    }
+
+    void getFloats(final long index, final float[] destination, final int offset, final int count) {
+        MemorySegment.copy(mySegment, ValueLayout.JAVA_FLOAT, index * Float.BYTES, destination, offset, count);
+    }
+
+    int getInt(final long index) {
+        return mySegment.getAtIndex(ValueLayout.JAVA_INT, index);
+    }
+
+    long getLong(final long index) {
+        return mySegment.getAtIndex(ValueLayout.JAVA_LONG, index);
+    }
+
+    short getShort(final long index) {
+        return mySegment.getAtIndex(ValueLayout.JAVA_SHORT, index);
+    }
+
+    boolean isAligned() {
+        return mySegment.address() % ALIGNMENT == 0L;
+    }
+
+    void setByte(final long index, final byte value) {
+        mySegment.setAtIndex(ValueLayout.JAVA_BYTE, index, value);
+    }
+
+    void setDouble(final long index, final double value) {
+        mySegment.setAtIndex(ValueLayout.JAVA_DOUBLE, index, value);
+    }
+
+    void setDoubles(final long index, final double[] source, final int offset, final int count) {
+        MemorySegment.copy(source, offset, mySegment, ValueLayout.JAVA_DOUBLE, index * Double.BYTES, count);
+    }
+
+    void setFloat(final long index, final float value) {
+        mySegment.setAtIndex(ValueLayout.JAVA_FLOAT, index, value);
+    }
+
+    void setFloats(final long index, final float[] source, final int offset, final int count) {
+        MemorySegment.copy(source, offset, mySegment, ValueLayout.JAVA_FLOAT, index * Float.BYTES, count);
+    }
+
+    void setInt(final long index, final int value) {
+        mySegment.setAtIndex(ValueLayout.JAVA_INT, index, value);
+    }
+
+    void setLong(final long index, final long value) {
+        mySegment.setAtIndex(ValueLayout.JAVA_LONG, index, value);
+    }
+
+    void setShort(final long index, final short value) {
+        mySegment.setAtIndex(ValueLayout.JAVA_SHORT, index, value);
+    }
+
+}
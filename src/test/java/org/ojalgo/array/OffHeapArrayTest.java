@@ -0,0 +1,225 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array;
+
+import java.lang.reflect.Field;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.Primitive64Store;
+import org.ojalgo.random.Uniform;
+
+/**
+ * Which version of {@link OffHeapSegment} is tested depends on how the tests are run. The build runs this
+ * test a second time against the packaged multi-release jar (maven-failsafe-plugin), and with Java 22+ the
+ * <code>java.lang.foreign.MemorySegment</code> based version is used. Then the
+ * <code>ojalgo.test.segment</code> system property is set.
+ *
+ * @author apete
+ */
+public class OffHeapArrayTest extends ArrayTests {
+
+    @Test
+    public void testAlignment() {
+
+        for (int count = 1; count < 100; count += 7) {
+            TestUtils.assertTrue(OffHeapSegment.allocate(this, null, count, 1L).isAligned());
+        }
+
+        try (AutoCloseable scope = OffHeapSegment.newScope()) {
+            for (int count = 1; count < 100; count += 7) {
+                TestUtils.assertTrue(OffHeapSegment.allocate(this, scope, count, 8L).isAligned());
+            }
+        } catch (Exception cause) {
+            TestUtils.fail(cause);
+        }
+    }
+
+    @Test
+    public void testArena() {
+
+        OffHeapArray.Arena arena = OffHeapArray.newArena();
+
+        DenseArray.Factory<Double> factory = arena.factory(OffHeapArray.R064);
+
+        DenseArray<Double> array = null;
+        for (int i = 0; i < 10; i++) {
+            array = factory.make(1000);
+            ArrayTests.doTestRandomSetAndGetBack(array, 1000);
+        }
+
+        arena.close();
+        arena.close();
+
+        try {
+            array.doubleValue(0);
+            TestUtils.fail("Should not be possible to access memory in a closed arena!");
+        } catch (IllegalStateException expected) {
+            // Expected
+        }
+
+        try {
+            array.set(0, 1.0);
+            TestUtils.fail("Should not be possible to access memory in a closed arena!");
+        } catch (IllegalStateException expected) {
+            // Expected
+        }
+
+        try {
+            factory.make(1000);
+            TestUtils.fail("Should not be possible to allocate in a closed arena!");
+        } catch (IllegalStateException expected) {
+            // Expected
+        }
+
+        try {
+            arena.factory(ArrayR064.FACTORY);
+            TestUtils.fail("Should only accept OffHeapArray factories!");
+        } catch (IllegalArgumentException expected) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testBulkCopy() {
+
+        int count = 100;
+
+        double[] source64 = new double[count];
+        float[] source32 = new float[count];
+        Uniform random = new Uniform();
+        for (int i = 0; i < count; i++) {
+            source64[i] = random.doubleValue();
+            source32[i] = random.floatValue();
+        }
+
+        try (OffHeapArray.Arena arena = OffHeapArray.newArena()) {
+
+            for (DenseArray.Factory<Double> type : new DenseArray.Factory[] { OffHeapArray.R032, OffHeapArray.R064, OffHeapArray.Z064 }) {
+
+                OffHeapArray array = (OffHeapArray) arena.factory(type).make(count);
+                DenseArray<Double> expected = type.make(count);
+
+                array.copyFrom(source64, 10, 20, 80);
+                for (int i = 0; i < 80; i++) {
+                    expected.set(20 + i, source64[10 + i]);
+                }
+                double[] destination64 = new double[count];
+                array.copyTo(20, destination64, 0, 80);
+                for (int i = 0; i < 80; i++) {
+                    TestUtils.assertEquals(expected.doubleValue(20 + i), array.doubleValue(20 + i));
+                    TestUtils.assertEquals(expected.doubleValue(20 + i), destination64[i]);
+                }
+
+                array.copyFrom(source32, 0, 0, count);
+                for (int i = 0; i < count; i++) {
+                    expected.set(i, source32[i]);
+                }
+                float[] destination32 = new float[count];
+                array.copyTo(0, destination32, 0, count);
+                for (int i = 0; i < count; i++) {
+                    TestUtils.assertEquals(expected.floatValue(i), array.floatValue(i));
+                    TestUtils.assertEquals(expected.floatValue(i), destination32[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBulkCopyBounds() {
+
+        try (OffHeapArray.Arena arena = OffHeapArray.newArena()) {
+
+            for (DenseArray.Factory<Double> type : new DenseArray.Factory[] { OffHeapArray.R032, OffHeapArray.R064, OffHeapArray.Z064 }) {
+
+                OffHeapArray array = (OffHeapArray) arena.factory(type).make(100);
+
+                for (long first : new long[] { -1L, 90L }) {
+                    try {
+                        array.copyFrom(new double[20], 0, first, 20);
+                        TestUtils.fail("Should not copy outside the off heap memory!");
+                    } catch (IndexOutOfBoundsException expected) {
+                        // Expected
+                    }
+                    try {
+                        array.copyTo(first, new float[20], 0, 20);
+                        TestUtils.fail("Should not copy outside the off heap memory!");
+                    } catch (IndexOutOfBoundsException expected) {
+                        // Expected
+                    }
+                }
+
+                for (int offset : new int[] { -1, 5 }) {
+                    try {
+                        array.copyFrom(new float[10], offset, 0L, 10);
+                        TestUtils.fail("Should not copy outside the heap array!");
+                    } catch (IndexOutOfBoundsException expected) {
+                        // Expected
+                    }
+                    try {
+                        array.copyTo(0L, new double[10], offset, 10);
+                        TestUtils.fail("Should not copy outside the heap array!");
+                    } catch (IndexOutOfBoundsException expected) {
+                        // Expected
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMatrixStoreView() {
+
+        int rows = 50;
+        int columns = 40;
+
+        Primitive64Store expected = Primitive64Store.FACTORY.makeFilled(rows, columns, new Uniform());
+
+        try (OffHeapArray.Arena arena = OffHeapArray.newArena()) {
+
+            Array2D<Double> array = Array2D.factory(arena.factory(OffHeapArray.R064)).copy(expected);
+
+            MatrixStore<Double> actual = Primitive64Store.FACTORY.makeWrapper(array);
+
+            TestUtils.assertEquals(expected, actual);
+            TestUtils.assertEquals(expected.transpose().multiply(expected), actual.transpose().multiply(actual));
+        }
+    }
+
+    /**
+     * Make sure the Java 22+ (MemorySegment) version actually is tested when it's supposed to be.
+     */
+    @Test
+    public void testVersion() {
+
+        boolean segment = false;
+        for (Field field : OffHeapSegment.class.getDeclaredFields()) {
+            if ("java.lang.foreign.MemorySegment".equals(field.getType().getName())) {
+                segment = true;
+            }
+        }
+
+        TestUtils.assertEquals(Boolean.getBoolean("ojalgo.test.segment"), segment);
+    }
+
+}
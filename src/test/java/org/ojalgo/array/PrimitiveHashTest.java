@@ -0,0 +1,224 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+
+/**
+ * Compares the primitive hash maps and sets with the corresponding {@link java.util} collections, after
+ * random sequences of puts, adds and removes. The keys are drawn from a small range (including 0 and
+ * negative numbers) to get many collisions and removals.
+ *
+ * @author apete
+ */
+public class PrimitiveHashTest extends ArrayTests {
+
+    private static final int OPERATIONS = 20_000;
+    private static final int RANGE = 1_000;
+
+    @Test
+    public void testIntHashSet() {
+
+        Random random = new Random(123);
+
+        IntHashSet actual = new IntHashSet(4);
+        Set<Integer> expected = new HashSet<>();
+
+        for (int i = 0; i < OPERATIONS; i++) {
+            int key = random.nextInt(RANGE) - RANGE / 2;
+            if (random.nextInt(3) == 0) {
+                TestUtils.assertEquals(expected.remove(key), actual.remove(key));
+            } else {
+                TestUtils.assertEquals(expected.add(key), actual.add(key));
+            }
+        }
+
+        TestUtils.assertEquals(expected.size(), actual.size());
+        for (int key = -RANGE; key < RANGE; key++) {
+            TestUtils.assertEquals(expected.contains(key), actual.contains(key));
+        }
+
+        Set<Integer> visited = new HashSet<>();
+        actual.forEach(visited::add);
+        TestUtils.assertEquals(expected, visited);
+
+        ArrayZ032 keys = actual.keys();
+        TestUtils.assertEquals(expected.size(), keys.size());
+        for (int k = 0; k < keys.size(); k++) {
+            TestUtils.assertTrue(expected.contains(keys.data[k]));
+        }
+
+        actual.clear();
+        TestUtils.assertTrue(actual.isEmpty());
+        TestUtils.assertFalse(actual.contains(0));
+    }
+
+    @Test
+    public void testIntToDoubleHashMap() {
+
+        Random random = new Random(123);
+
+        IntToDoubleHashMap actual = new IntToDoubleHashMap(4);
+        Map<Integer, Double> expected = new HashMap<>();
+
+        for (int i = 0; i < OPERATIONS; i++) {
+            int key = random.nextInt(RANGE) - RANGE / 2;
+            double value = random.nextDouble();
+            switch (random.nextInt(3)) {
+            case 0:
+                TestUtils.assertEquals(expected.getOrDefault(key, 0.0).doubleValue(), actual.remove(key));
+                expected.remove(key);
+                break;
+            case 1:
+                TestUtils.assertEquals(expected.getOrDefault(key, 0.0).doubleValue(), actual.put(key, value));
+                expected.put(key, value);
+                break;
+            default:
+                expected.merge(key, value, Double::sum);
+                TestUtils.assertEquals(expected.get(key).doubleValue(), actual.add(key, value));
+                break;
+            }
+        }
+
+        TestUtils.assertEquals(expected.size(), actual.size());
+        for (int key = -RANGE; key < RANGE; key++) {
+            TestUtils.assertEquals(expected.containsKey(key), actual.containsKey(key));
+            TestUtils.assertEquals(expected.getOrDefault(key, Double.NaN).doubleValue(), actual.get(key, Double.NaN));
+        }
+
+        ArrayZ032 keys = actual.keys();
+        ArrayR064 values = actual.values();
+        for (int k = 0; k < keys.size(); k++) {
+            TestUtils.assertEquals(expected.get(keys.data[k]).doubleValue(), values.data[k]);
+        }
+
+        Map<Integer, Double> visited = new HashMap<>();
+        actual.forEach(visited::put);
+        TestUtils.assertEquals(expected, visited);
+    }
+
+    @Test
+    public void testIntToIntHashMap() {
+
+        Random random = new Random(123);
+
+        IntToIntHashMap actual = new IntToIntHashMap(4);
+        Map<Integer, Integer> expected = new HashMap<>();
+
+        for (int i = 0; i < OPERATIONS; i++) {
+            int key = random.nextInt(RANGE) - RANGE / 2;
+            int value = random.nextInt(100);
+            switch (random.nextInt(3)) {
+            case 0:
+                TestUtils.assertEquals(expected.getOrDefault(key, 0).intValue(), actual.remove(key));
+                expected.remove(key);
+                break;
+            case 1:
+                TestUtils.assertEquals(expected.getOrDefault(key, 0).intValue(), actual.put(key, value));
+                expected.put(key, value);
+                break;
+            default:
+                expected.merge(key, value, Integer::sum);
+                TestUtils.assertEquals(expected.get(key).intValue(), actual.add(key, value));
+                break;
+            }
+        }
+
+        TestUtils.assertEquals(expected.size(), actual.size());
+
+        Map<Integer, Integer> visited = new HashMap<>();
+        actual.forEach(visited::put);
+        TestUtils.assertEquals(expected, visited);
+    }
+
+    @Test
+    public void testLongHashSet() {
+
+        Random random = new Random(123);
+
+        LongHashSet actual = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+
+        for (int i = 0; i < OPERATIONS; i++) {
+            long key = (random.nextInt(RANGE) - RANGE / 2) * 1_000_000_007L;
+            if (random.nextInt(3) == 0) {
+                TestUtils.assertEquals(expected.remove(key), actual.remove(key));
+            } else {
+                TestUtils.assertEquals(expected.add(key), actual.add(key));
+            }
+        }
+
+        TestUtils.assertEquals(expected.size(), actual.size());
+
+        Set<Long> visited = new HashSet<>();
+        actual.forEach(visited::add);
+        TestUtils.assertEquals(expected, visited);
+    }
+
+    @Test
+    public void testLongToDoubleHashMap() {
+
+        Random random = new Random(123);
+
+        LongToDoubleHashMap actual = new LongToDoubleHashMap();
+        Map<Long, Double> expected = new HashMap<>();
+
+        for (int i = 0; i < OPERATIONS; i++) {
+            long key = (random.nextInt(RANGE) - RANGE / 2) * 1_000_000_007L;
+            double value = random.nextDouble();
+            switch (random.nextInt(3)) {
+            case 0:
+                TestUtils.assertEquals(expected.getOrDefault(key, 0.0).doubleValue(), actual.remove(key));
+                expected.remove(key);
+                break;
+            case 1:
+                TestUtils.assertEquals(expected.getOrDefault(key, 0.0).doubleValue(), actual.put(key, value));
+                expected.put(key, value);
+                break;
+            default:
+                expected.merge(key, value, Double::sum);
+                TestUtils.assertEquals(expected.get(key).doubleValue(), actual.add(key, value));
+                break;
+            }
+        }
+
+        TestUtils.assertEquals(expected.size(), actual.size());
+
+        ArrayZ064 keys = actual.keys();
+        ArrayR064 values = actual.values();
+        for (int k = 0; k < keys.size(); k++) {
+            TestUtils.assertEquals(expected.get(keys.data[k]).doubleValue(), values.data[k]);
+        }
+
+        Map<Long, Double> visited = new HashMap<>();
+        actual.forEach(visited::put);
+        TestUtils.assertEquals(expected, visited);
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.array.operation.QuantisedOperation;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.Primitive64Store;
+import org.ojalgo.matrix.store.QuantisedStore;
+import org.ojalgo.random.Normal;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * @author apete
+ */
+public class QuantisedArrayTest extends ArrayTests {
+
+    private static final NumberContext ACCURACY = NumberContext.of(12);
+
+    private static ArrayR064 decode(final QuantisedArray array) {
+        return ArrayR064.wrap(array.decode());
+    }
+
+    @Test
+    public void testBFloat16() {
+
+        TestUtils.assertEquals(0x3F80, ArrayR016.toBFloat16(1F));
+        TestUtils.assertEquals(0x4049, ArrayR016.toBFloat16((float) Math.PI));
+        TestUtils.assertTrue(Float.isNaN(ArrayR016.fromBFloat16(ArrayR016.toBFloat16(Float.NaN))));
+
+        for (int bits = 0; bits <= 0xFFFF; bits++) {
+            float value = ArrayR016.fromBFloat16((short) bits);
+            if (!Float.isNaN(value)) {
+                TestUtils.assertEquals(bits, ArrayR016.toBFloat16(value) & 0xFFFF);
+            }
+        }
+    }
+
+    @Test
+    public void testFusedKernels() {
+
+        int size = 1000;
+
+        ArrayR064 original = ArrayR064.make(size);
+        original.fillAll(new Normal());
+        ArrayR064 vector = ArrayR064.make(size);
+        vector.fillAll(new Normal());
+
+        for (DenseArray.Factory<Double> type : new DenseArray.Factory[] { ArrayR008.FACTORY, ArrayR008.factory(10), ArrayR016.FACTORY, ArrayR016.HALF }) {
+
+            QuantisedArray quantised = (QuantisedArray) type.copy(original);
+            ArrayR064 decoded = QuantisedArrayTest.decode(quantised);
+
+            TestUtils.assertEquals(decoded.dot(vector), quantised.dot(vector), ACCURACY);
+
+            double expected = decoded.dot(ArrayR064.wrap(vector.data)) - decoded.doubleValue(0) * vector.doubleValue(0);
+            double actual = quantised instanceof ArrayR008 ? QuantisedOperation.dot((ArrayR008) quantised, 0, vector.data, 0, 1, size)
+                    : QuantisedOperation.dot((ArrayR016) quantised, 0, vector.data, 0, 1, size);
+            TestUtils.assertEquals(expected, actual, ACCURACY);
+
+            ArrayR064 expectedY = ArrayR064.wrap(vector.data.clone());
+            decoded.axpy(0.5, expectedY);
+            ArrayR064 actualY = ArrayR064.wrap(vector.data.clone());
+            quantised.axpy(0.5, actualY);
+            TestUtils.assertEquals(expectedY, actualY, ACCURACY);
+        }
+    }
+
+    @Test
+    public void testHalf() {
+
+        TestUtils.assertEquals(0x3C00, ArrayR016.toHalf(1F));
+        TestUtils.assertEquals(0x7BFF, ArrayR016.toHalf(65504F));
+        TestUtils.assertEquals(0x7C00, ArrayR016.toHalf(65520F));
+        TestUtils.assertEquals(0x0001, ArrayR016.toHalf(0x1p-24F));
+        TestUtils.assertEquals(0x0000, ArrayR016.toHalf(0x1p-25F));
+        TestUtils.assertEquals(0x8000, ArrayR016.toHalf(-0F) & 0xFFFF);
+        TestUtils.assertTrue(Float.isNaN(ArrayR016.fromHalf(ArrayR016.toHalf(Float.NaN))));
+
+        for (int bits = 0; bits <= 0xFFFF; bits++) {
+            float value = ArrayR016.fromHalf((short) bits);
+            if (!Float.isNaN(value)) {
+                TestUtils.assertEquals(bits, ArrayR016.toHalf(value) & 0xFFFF);
+            }
+        }
+    }
+
+    /**
+     * The quantisation error of each element should be at most half a step within its block. When set one
+     * at the time the blocks are re-quantised as their ranges grow, and the errors accumulate a bit.
+     */
+    @Test
+    public void testQuantisationError() {
+
+        int size = 1000;
+
+        ArrayR064 original = ArrayR064.make(size);
+        original.fillAll(new Normal(10.0, 3.0));
+
+        ArrayR008 quantised = (ArrayR008) ArrayR008.FACTORY.copy(original);
+
+        for (int i = 0; i < size; i++) {
+            double step = quantised.scales[i / quantised.getBlockSize()];
+            TestUtils.assertEquals(original.doubleValue(i), quantised.doubleValue(i), step / 2.0 + 1E-6);
+        }
+
+        ArrayR008 elementwise = ArrayR008.make(size);
+        for (int i = 0; i < size; i++) {
+            elementwise.set(i, original.doubleValue(i));
+        }
+        for (int i = 0; i < size; i++) {
+            double step = elementwise.scales[i / elementwise.getBlockSize()];
+            TestUtils.assertEquals(original.doubleValue(i), elementwise.doubleValue(i), 4.0 * step);
+        }
+    }
+
+    @Test
+    public void testQuantisedStore() {
+
+        Primitive64Store embeddings = Primitive64Store.FACTORY.makeFilled(100, 70, new Normal());
+        Primitive64Store queries = Primitive64Store.FACTORY.makeFilled(3, 100, new Normal());
+        Primitive64Store right = Primitive64Store.FACTORY.makeFilled(70, 4, new Normal());
+
+        for (DenseArray.Factory<Double> type : new DenseArray.Factory[] { ArrayR008.FACTORY, ArrayR016.FACTORY, ArrayR016.HALF }) {
+
+            QuantisedStore quantised = QuantisedStore.copy(type, embeddings);
+            MatrixStore<Double> decoded = Primitive64Store.FACTORY.copy(quantised);
+
+            TestUtils.assertEquals(decoded.premultiply(queries).collect(Primitive64Store.FACTORY), quantised.premultiply(queries).collect(Primitive64Store.FACTORY),
+                    ACCURACY);
+            TestUtils.assertEquals(decoded.multiply(right), quantised.multiply(right), ACCURACY);
+
+            TestUtils.assertEquals(embeddings.premultiply(queries).collect(Primitive64Store.FACTORY), quantised.premultiply(queries).collect(Primitive64Store.FACTORY),
+                    NumberContext.of(1, 0));
+        }
+    }
+
+}
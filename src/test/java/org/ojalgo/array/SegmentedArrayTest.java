@@ -21,7 +21,14 @@
  */
 package org.ojalgo.array;
 
+import java.util.Random;
+import java.util.Spliterator;
+
 import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.function.constant.PrimitiveMath;
+import org.ojalgo.function.aggregator.Aggregator;
+import org.ojalgo.type.context.NumberContext;
 
 /**
  * AbstractArrayTest
@@ -30,6 +37,87 @@ import org.junit.jupiter.api.Test;
  */
 public class SegmentedArrayTest extends ArrayTests {
 
+    private static final NumberContext ACCURACY = NumberContext.of(12);
+
+    /**
+     * Large enough to be processed in parallel, and with a last segment shorter than the others
+     */
+    private static SegmentedArray<Double> makeRandom(final ArrayR064 copy) {
+
+        SegmentedArray<Double> retVal = new SegmentedArray<>(copy.count(), 12, ArrayR064.FACTORY);
+
+        Random random = new Random(123L);
+        for (int i = 0; i < copy.data.length; i++) {
+            double value = random.nextGaussian();
+            retVal.set(i, value);
+            copy.set(i, value);
+        }
+
+        return retVal;
+    }
+
+    @Test
+    public void testAggregateAll() {
+
+        ArrayR064 expected = ArrayR064.make(100_000);
+        SegmentedArray<Double> actual = SegmentedArrayTest.makeRandom(expected);
+
+        for (Aggregator aggregator : Aggregator.values()) {
+            if (aggregator != Aggregator.PRODUCT && aggregator != Aggregator.PRODUCT2) {
+                TestUtils.assertEquals(aggregator.name(), expected.aggregateAll(aggregator).doubleValue(), actual.aggregateAll(aggregator).doubleValue(),
+                        ACCURACY);
+                TestUtils.assertEquals(aggregator.name(), expected.aggregateRange(1_000L, 90_000L, aggregator).doubleValue(),
+                        actual.aggregateRange(1_000L, 90_000L, aggregator).doubleValue(), ACCURACY);
+            }
+        }
+
+        actual.fillAll(Double.valueOf(1.0001));
+        expected.fillAll(Double.valueOf(1.0001));
+        TestUtils.assertEquals(expected.aggregateAll(Aggregator.PRODUCT).doubleValue(), actual.aggregateAll(Aggregator.PRODUCT).doubleValue(), ACCURACY);
+    }
+
+    @Test
+    public void testFillAndModify() {
+
+        ArrayR064 expected = ArrayR064.make(100_000);
+        SegmentedArray<Double> actual = SegmentedArrayTest.makeRandom(expected);
+
+        actual.fill(7L, 99_000L, 3L, Double.valueOf(2.0));
+        expected.fill(7L, 99_000L, 3L, Double.valueOf(2.0));
+        TestUtils.assertEquals(expected, actual);
+
+        actual.modify(1L, 100_000L, 5L, PrimitiveMath.ADD.by(1.0));
+        expected.modify(1L, 100_000L, 5L, PrimitiveMath.ADD.by(1.0));
+        TestUtils.assertEquals(expected, actual);
+
+        actual.wrapInArray1D().modifyAll(PrimitiveMath.SQRT1PX2);
+        expected.wrapInArray1D().modifyAll(PrimitiveMath.SQRT1PX2);
+        TestUtils.assertEquals(expected, actual);
+
+        actual.fillAll(Double.valueOf(3.0));
+        TestUtils.assertEquals(300_000.0, actual.aggregateAll(Aggregator.SUM).doubleValue(), ACCURACY);
+
+        actual.reset();
+        TestUtils.assertEquals(0.0, actual.aggregateAll(Aggregator.LARGEST).doubleValue(), ACCURACY);
+    }
+
+    @Test
+    public void testGrow() {
+
+        SegmentedArray<Double> array = ArrayR064.FACTORY.wrapAsSegments(ArrayR064.make(8), ArrayR064.make(3));
+        array.set(9L, 9.0);
+
+        TestUtils.assertTrue(array == array.grow());
+        TestUtils.assertEquals(16L, array.count());
+        TestUtils.assertEquals(9.0, array.doubleValue(9L));
+
+        TestUtils.assertTrue(array == array.grow());
+        TestUtils.assertEquals(24L, array.count());
+        array.set(23L, 23.0);
+        TestUtils.assertEquals(9.0, array.doubleValue(9L));
+        TestUtils.assertEquals(23.0, array.doubleValue(23L));
+    }
+
     @Test
     public void testRandomSetAndGetBackPrimitive64() {
 
@@ -40,6 +128,37 @@ public class SegmentedArrayTest extends ArrayTests {
         ArrayTests.doTestRandomSetAndGetBack(tmpArray, tmpCount);
     }
 
+    @Test
+    public void testSort() {
+
+        ArrayR064 expected = ArrayR064.make(100_000);
+        SegmentedArray<Double> actual = SegmentedArrayTest.makeRandom(expected);
+
+        expected.sortAscending();
+        actual.sortAscending();
+        TestUtils.assertEquals(expected, actual);
+
+        expected.sortDescending();
+        actual.sortDescending();
+        TestUtils.assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testSpliterator() {
+
+        ArrayR064 expected = ArrayR064.make(100_000);
+        SegmentedArray<Double> actual = SegmentedArrayTest.makeRandom(expected);
+
+        TestUtils.assertEquals(expected.doubleStream(false).sum(), actual.doubleStream(true).sum(), ACCURACY);
+        TestUtils.assertEquals(expected.doubleStream(false).max().getAsDouble(), actual.doubleStream(true).max().getAsDouble());
+
+        Spliterator.OfDouble spliterator = actual.doubleSpliterator();
+        Spliterator.OfDouble prefix = spliterator.trySplit();
+
+        TestUtils.assertEquals(0L, prefix.estimateSize() % 4096L);
+        TestUtils.assertEquals(100_000L, prefix.estimateSize() + spliterator.estimateSize());
+    }
+
     @Test
     public void testVeryLargeRandomSetAndGetBackBasic() {
 
@@ -0,0 +1,169 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array.operation;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * The {@link SIMD} kernels should produce the same results as plain scalar loops, for any length, offset
+ * and range. Which version of {@link SIMD} is tested depends on how the tests are run – only with the
+ * multi-release jar (Java 17+) and <code>--add-modules jdk.incubator.vector</code> is the Vector API used.
+ * The build runs this test a second time, that way, against the packaged jar (maven-failsafe-plugin) and
+ * then sets the <code>ojalgo.test.simd</code> system property.
+ *
+ * @author apete
+ */
+public class SIMDTest extends ArrayOperationTests {
+
+    private static final NumberContext ACCURACY = NumberContext.of(12);
+    private static final NumberContext ACCURACY_FLOAT = NumberContext.of(5);
+    private static final int[] LENGTHS = { 0, 1, 3, 7, 8, 15, 16, 17, 31, 64, 100, 1_000 };
+
+    private static double[] makeDoubles(final Random random, final int length) {
+        double[] retVal = new double[length];
+        for (int i = 0; i < length; i++) {
+            retVal[i] = 1.0 + random.nextDouble();
+        }
+        return retVal;
+    }
+
+    private static float[] makeFloats(final Random random, final int length) {
+        float[] retVal = new float[length];
+        for (int i = 0; i < length; i++) {
+            retVal[i] = 1F + random.nextFloat();
+        }
+        return retVal;
+    }
+
+    /**
+     * Make sure the Vector API version actually is tested when it's supposed to be.
+     */
+    @Test
+    public void testAvailable() {
+        TestUtils.assertEquals(Boolean.getBoolean("ojalgo.test.simd"), SIMD.AVAILABLE);
+    }
+
+    @Test
+    public void testAXPY() {
+
+        Random random = new Random(123L);
+
+        for (int length : LENGTHS) {
+
+            double[] x = SIMDTest.makeDoubles(random, length + 5);
+            double[] y = SIMDTest.makeDoubles(random, length + 3);
+            double[] expected = y.clone();
+            for (int i = 1; i < length; i++) {
+                expected[2 + i] += 0.5 * x[4 + i];
+            }
+            SIMD.axpy(y, 2, 0.5, x, 4, 1, length);
+            for (int i = 0; i < y.length; i++) {
+                TestUtils.assertEquals(expected[i], y[i], ACCURACY);
+            }
+
+            float[] xf = SIMDTest.makeFloats(random, length + 5);
+            float[] yf = SIMDTest.makeFloats(random, length + 3);
+            float[] expectedf = yf.clone();
+            for (int i = 1; i < length; i++) {
+                expectedf[2 + i] += 0.5F * xf[4 + i];
+            }
+            SIMD.axpy(yf, 2, 0.5F, xf, 4, 1, length);
+            for (int i = 0; i < yf.length; i++) {
+                TestUtils.assertEquals(expectedf[i], yf[i], ACCURACY_FLOAT);
+            }
+        }
+    }
+
+    @Test
+    public void testDOT() {
+
+        Random random = new Random(456L);
+
+        for (int length : LENGTHS) {
+
+            double[] left = SIMDTest.makeDoubles(random, length + 2);
+            double[] right = SIMDTest.makeDoubles(random, length + 7);
+            TestUtils.assertEquals(DOT.plain(left, 2, right, 3, 0, length), SIMD.dot(left, 2, right, 3, 0, length), ACCURACY);
+            TestUtils.assertEquals(DOT.plain(left, 0, right, 0, 1, length), DOT.invoke(left, 0, right, 0, 1, length), ACCURACY);
+
+            float[] leftf = SIMDTest.makeFloats(random, length + 2);
+            float[] rightf = SIMDTest.makeFloats(random, length + 7);
+            TestUtils.assertEquals(DOT.plain(leftf, 2, rightf, 3, 0, length), SIMD.dot(leftf, 2, rightf, 3, 0, length), ACCURACY_FLOAT);
+            TestUtils.assertEquals(DOT.plain(leftf, 0, rightf, 0, 1, length), DOT.invoke(leftf, 0, rightf, 0, 1, length), ACCURACY_FLOAT);
+        }
+    }
+
+    @Test
+    public void testElementwise() {
+
+        Random random = new Random(789L);
+
+        for (int length : LENGTHS) {
+
+            double[] left = SIMDTest.makeDoubles(random, length);
+            double[] right = SIMDTest.makeDoubles(random, length);
+            double[] actual = new double[length];
+
+            SIMD.add(actual, 1, length, left, right);
+            for (int i = 1; i < length; i++) {
+                TestUtils.assertEquals(left[i] + right[i], actual[i], ACCURACY);
+            }
+            SIMD.subtract(actual, 1, length, left, right);
+            for (int i = 1; i < length; i++) {
+                TestUtils.assertEquals(left[i] - right[i], actual[i], ACCURACY);
+            }
+            SIMD.multiply(actual, 1, length, left, right);
+            for (int i = 1; i < length; i++) {
+                TestUtils.assertEquals(left[i] * right[i], actual[i], ACCURACY);
+            }
+            SIMD.divide(actual, 1, length, left, right);
+            for (int i = 1; i < length; i++) {
+                TestUtils.assertEquals(left[i] / right[i], actual[i], ACCURACY);
+            }
+            SIMD.multiply(actual, 1, length, left, 3.0);
+            for (int i = 1; i < length; i++) {
+                TestUtils.assertEquals(left[i] * 3.0, actual[i], ACCURACY);
+            }
+            if (length > 0) {
+                TestUtils.assertEquals(0.0, actual[0]);
+            }
+
+            float[] leftf = SIMDTest.makeFloats(random, length);
+            float[] rightf = SIMDTest.makeFloats(random, length);
+            float[] actualf = new float[length];
+
+            CorePrimitiveOperation.add(actualf, 0, length, 1, leftf, rightf);
+            for (int i = 0; i < length; i++) {
+                TestUtils.assertEquals(leftf[i] + rightf[i], actualf[i], ACCURACY_FLOAT);
+            }
+            CorePrimitiveOperation.multiply(actualf, 0, length, 1, 3F, rightf);
+            for (int i = 0; i < length; i++) {
+                TestUtils.assertEquals(3F * rightf[i], actualf[i], ACCURACY_FLOAT);
+            }
+        }
+    }
+
+}
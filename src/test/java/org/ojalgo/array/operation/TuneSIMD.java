@@ -0,0 +1,140 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array.operation;
+
+import org.ojalgo.BenchmarkUtils;
+import org.ojalgo.TestUtils;
+import org.ojalgo.array.ArrayR032;
+import org.ojalgo.array.ArrayR064;
+import org.ojalgo.random.Uniform;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.RunnerException;
+
+/**
+ * Compares the {@link SIMD} kernels with the scalar alternatives. To actually benchmark the Vector API
+ * versions this has to be run with Java 17+, with the multi-release ojAlgo jar (rather than the classes
+ * directory) on the class path, and with <code>--add-modules jdk.incubator.vector</code> – otherwise both
+ * alternatives are scalar. On a machine with AVX2 (256-bit vectors) DOT is 3-5 times faster, for float as
+ * well as double. The element-wise operations are on par with plain loops, as those are auto-vectorised by
+ * the JIT compiler. They are only faster than the strided loops in {@link CorePrimitiveOperation}.
+ *
+ * <pre>
+ * </pre>
+ *
+ * @author apete
+ */
+@State(Scope.Benchmark)
+public class TuneSIMD {
+
+    public static void main(final String[] args) throws RunnerException {
+        BenchmarkUtils.run(TuneSIMD.class);
+    }
+
+    @Param({ "100", "1000", "10000" })
+    public int length;
+
+    public double[] x64;
+    public float[] x32;
+    public double[] y64;
+    public float[] y32;
+    public double[] z64;
+
+    @Benchmark
+    public double[] axpyScalar() {
+        for (int i = 0; i < length; i++) {
+            z64[i] += 0.5 * x64[i];
+        }
+        return z64;
+    }
+
+    @Benchmark
+    public double[] axpySIMD() {
+        SIMD.axpy(z64, 0, 0.5, x64, 0, 0, length);
+        return z64;
+    }
+
+    @Benchmark
+    public float dot32Scalar() {
+        return DOT.unrolled04(x32, 0, y32, 0, 0, length);
+    }
+
+    @Benchmark
+    public float dot32SIMD() {
+        return SIMD.dot(x32, 0, y32, 0, 0, length);
+    }
+
+    @Benchmark
+    public double dot64Scalar() {
+        return DOT.unrolled04(x64, 0, y64, 0, 0, length);
+    }
+
+    @Benchmark
+    public double dot64SIMD() {
+        return SIMD.dot(x64, 0, y64, 0, 0, length);
+    }
+
+    @Benchmark
+    public double[] multiplyScalar() {
+        for (int i = 0; i < length; i++) {
+            z64[i] = x64[i] * y64[i];
+        }
+        return z64;
+    }
+
+    @Benchmark
+    public double[] multiplySIMD() {
+        SIMD.multiply(z64, 0, length, x64, y64);
+        return z64;
+    }
+
+    @Setup
+    public void setup() {
+
+        ArrayR064 x = ArrayR064.make(length);
+        x.fillAll(Uniform.standard());
+        x64 = x.data;
+
+        ArrayR064 y = ArrayR064.make(length);
+        y.fillAll(Uniform.standard());
+        y64 = y.data;
+
+        ArrayR064 z = ArrayR064.make(length);
+        z.fillAll(Uniform.standard());
+        z64 = z.data;
+
+        ArrayR032 a = ArrayR032.make(length);
+        a.fillAll(Uniform.standard());
+        x32 = a.data;
+
+        ArrayR032 b = ArrayR032.make(length);
+        b.fillAll(Uniform.standard());
+        y32 = b.data;
+
+        TestUtils.assertEquals(DOT.unrolled04(x64, 0, y64, 0, 0, length), SIMD.dot(x64, 0, y64, 0, 0, length), 1E-10 * length);
+        TestUtils.assertEquals(DOT.unrolled04(x32, 0, y32, 0, 0, length), SIMD.dot(x32, 0, y32, 0, 0, length), 1E-3F * length);
+    }
+
+}
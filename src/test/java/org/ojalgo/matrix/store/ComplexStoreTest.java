@@ -0,0 +1,159 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.array.SplitComplexArray;
+import org.ojalgo.array.operation.DOTC;
+import org.ojalgo.array.operation.DOTU;
+import org.ojalgo.matrix.transformation.Householder;
+import org.ojalgo.matrix.transformation.Rotation;
+import org.ojalgo.scalar.ComplexNumber;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * Compares {@link ComplexStore} with {@link GenericStore#C128}.
+ *
+ * @author apete
+ */
+public class ComplexStoreTest extends MatrixStoreTests {
+
+    private static final NumberContext ACCURACY = NumberContext.of(12);
+
+    private static GenericStore<ComplexNumber> makeRandom(final int rows, final int columns, final Random random) {
+
+        GenericStore<ComplexNumber> retVal = GenericStore.C128.make(rows, columns);
+
+        for (int j = 0; j < columns; j++) {
+            for (int i = 0; i < rows; i++) {
+                retVal.set(i, j, ComplexNumber.of(random.nextGaussian(), random.nextGaussian()));
+            }
+        }
+
+        return retVal;
+    }
+
+    @Test
+    public void testDotProducts() {
+
+        Random random = new Random(123);
+
+        GenericStore<ComplexNumber> x = ComplexStoreTest.makeRandom(50, 1, random);
+        GenericStore<ComplexNumber> y = ComplexStoreTest.makeRandom(50, 1, random);
+
+        ComplexNumber expectedC = ComplexNumber.ZERO;
+        ComplexNumber expectedU = ComplexNumber.ZERO;
+        for (int i = 0; i < 50; i++) {
+            expectedC = expectedC.add(x.get(i).conjugate().multiply(y.get(i)));
+            expectedU = expectedU.add(x.get(i).multiply(y.get(i)));
+        }
+
+        SplitComplexArray actualX = ComplexStore.FACTORY.copy(x);
+        SplitComplexArray actualY = ComplexStore.FACTORY.copy(y);
+
+        TestUtils.assertEquals(expectedC, DOTC.invoke(actualX.re, actualX.im, 0, actualY.re, actualY.im, 0, 0, 50), ACCURACY);
+        TestUtils.assertEquals(expectedU, DOTU.invoke(actualX.re, actualX.im, 0, actualY.re, actualY.im, 0, 0, 50), ACCURACY);
+
+        actualY.axpy(2.0, actualX);
+        TestUtils.assertEquals(x.add(y.multiply(2.0)), actualX, ACCURACY);
+    }
+
+    @Test
+    public void testMultiply() {
+
+        Random random = new Random(123);
+
+        for (int dim : new int[] { 7, 70 }) {
+
+            GenericStore<ComplexNumber> left = ComplexStoreTest.makeRandom(dim + 3, dim, random);
+            GenericStore<ComplexNumber> right = ComplexStoreTest.makeRandom(dim, dim - 2, random);
+
+            MatrixStore<ComplexNumber> expected = left.multiply(right);
+
+            ComplexStore actualLeft = ComplexStore.FACTORY.copy(left);
+            ComplexStore actualRight = ComplexStore.FACTORY.copy(right);
+
+            TestUtils.assertEquals(expected, actualLeft.multiply(actualRight), ACCURACY);
+            TestUtils.assertEquals(expected, actualLeft.multiply(right), ACCURACY);
+
+            ComplexStore product = ComplexStore.FACTORY.make(dim + 3, dim - 2);
+            product.fillByMultiplying(left, actualRight);
+            TestUtils.assertEquals(expected, product, ACCURACY);
+
+            TestUtils.assertEquals(left.conjugate().multiply(left), actualLeft.conjugate().multiply(actualLeft), ACCURACY);
+        }
+    }
+
+    @Test
+    public void testTransformations() {
+
+        int dim = 20;
+
+        Random random = new Random(123);
+
+        GenericStore<ComplexNumber> body = ComplexStoreTest.makeRandom(dim, dim, random);
+        for (int i = 0; i < dim; i++) {
+            body.set(i, i, ComplexNumber.of(dim, 1.0));
+        }
+        GenericStore<ComplexNumber> expected = ComplexStoreTest.makeRandom(dim, dim, random);
+
+        Householder.Generic<ComplexNumber> householder = new Householder.Generic<>(ComplexNumber.FACTORY, dim);
+        for (int i = 3; i < dim; i++) {
+            householder.vector[i] = ComplexNumber.of(random.nextGaussian(), random.nextGaussian());
+        }
+        householder.first = 3;
+        householder = new Householder.Generic<>(ComplexNumber.FACTORY, householder);
+
+        Rotation.Generic<ComplexNumber> rotation = new Rotation.Generic<>(2, 7, ComplexNumber.of(0.6, 0.0), ComplexNumber.of(0.0, 0.8));
+
+        ComplexStore actual = ComplexStore.FACTORY.copy(expected);
+        TestUtils.assertEquals(expected, actual);
+
+        expected.substituteBackwards(body.triangular(true, false), false, false, false);
+        actual.substituteBackwards(body.triangular(true, false), false, false, false);
+        TestUtils.assertEquals(expected, actual, ACCURACY);
+
+        expected.substituteForwards(body.triangular(false, false), false, false, false);
+        actual.substituteForwards(body.triangular(false, false), false, false, false);
+        TestUtils.assertEquals(expected, actual, ACCURACY);
+
+        expected.transformLeft(householder, 5);
+        actual.transformLeft(householder, 5);
+        TestUtils.assertEquals(expected, actual, ACCURACY);
+
+        expected.transformRight(householder, 5);
+        actual.transformRight(householder, 5);
+        TestUtils.assertEquals(expected, actual, ACCURACY);
+
+        expected.transformLeft(rotation);
+        actual.transformLeft(rotation);
+        TestUtils.assertEquals(expected, actual, ACCURACY);
+
+        expected.transformRight(rotation);
+        actual.transformRight(rotation);
+        TestUtils.assertEquals(expected, actual, ACCURACY);
+    }
+
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import java.io.File;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.transformation.Householder;
+import org.ojalgo.matrix.transformation.Rotation;
+import org.ojalgo.random.Normal;
+import org.ojalgo.random.Uniform;
+import org.ojalgo.structure.Access2D.ColumnView;
+import org.ojalgo.type.context.NumberContext;
+import org.ojalgo.type.math.MathType;
+
+/**
+ * @author apete
+ */
+public class MappedStoreTest extends MatrixStoreTests {
+
+    private static final NumberContext ACCURACY = NumberContext.of(12);
+
+    static MappedStore copy(final File file, final MatrixStore<Double> source, final int tileRows, final int tileColumns) {
+
+        MappedStore retVal = MappedStore.make(file, MathType.R064, source.countRows(), source.countColumns(), tileRows, tileColumns);
+
+        retVal.fillMatching(source);
+
+        return retVal;
+    }
+
+    @TempDir
+    public File tempDir;
+
+    @Test
+    public void testColumns() {
+
+        Primitive64Store expected = Primitive64Store.FACTORY.makeFilled(100, 50, new Uniform());
+
+        try (MappedStore actual = MappedStoreTest.copy(new File(tempDir, "columns"), expected, 32, 8)) {
+
+            long count = 0L;
+            for (ColumnView<Double> column : actual.columns()) {
+                for (long i = 0L; i < column.count(); i++) {
+                    TestUtils.assertEquals(expected.doubleValue(i, column.column()), column.doubleValue(i));
+                }
+                count++;
+            }
+
+            TestUtils.assertEquals(expected.countColumns(), count);
+        }
+    }
+
+    @Test
+    public void testMultiply() {
+
+        Primitive64Store left = Primitive64Store.FACTORY.makeFilled(300, 70, new Normal());
+        Primitive64Store right = Primitive64Store.FACTORY.makeFilled(70, 45, new Normal());
+        Primitive64Store vector = Primitive64Store.FACTORY.makeFilled(70, 1, new Normal());
+
+        MatrixStore<Double> expected = left.multiply(right);
+
+        try (MappedStore mappedLeft = MappedStoreTest.copy(new File(tempDir, "left"), left, 64, 16);
+                MappedStore mappedRight = MappedStoreTest.copy(new File(tempDir, "right"), right, 64, 16);
+                MappedStore product = MappedStore.make(new File(tempDir, "product"), MathType.R064, 300, 45, 50, 20)) {
+
+            product.fillByMultiplying(mappedLeft, right);
+            TestUtils.assertEquals(expected, product, ACCURACY);
+
+            product.fillByMultiplying(left, mappedRight);
+            TestUtils.assertEquals(expected, product, ACCURACY);
+
+            TestUtils.assertEquals(expected, mappedLeft.multiply(right), ACCURACY);
+            TestUtils.assertEquals(left.multiply(vector), mappedLeft.multiply(vector), ACCURACY);
+        }
+    }
+
+    @Test
+    public void testMultipleSegments() {
+
+        long segment = MappedStore.SEGMENT;
+
+        try {
+
+            MappedStore.SEGMENT = 4 * 16 * 8 * 8;
+
+            Primitive64Store expected = Primitive64Store.FACTORY.makeFilled(100, 60, new Uniform());
+
+            try (MappedStore actual = MappedStoreTest.copy(new File(tempDir, "segments"), expected, 16, 8)) {
+                TestUtils.assertEquals(expected, actual);
+                TestUtils.assertEquals(expected.transpose().multiply(expected), actual.transpose().multiply(actual), ACCURACY);
+            }
+
+        } finally {
+            MappedStore.SEGMENT = segment;
+        }
+    }
+
+    @Test
+    public void testReopen() {
+
+        File file = new File(tempDir, "reopen");
+
+        Primitive64Store expected = Primitive64Store.FACTORY.makeFilled(123, 45, new Uniform());
+
+        MappedStoreTest.copy(file, expected, 20, 7).close();
+
+        try (MappedStore actual = MappedStore.open(file)) {
+
+            TestUtils.assertEquals(MathType.R064, actual.getMathType());
+            TestUtils.assertEquals(20, actual.getTileRows());
+            TestUtils.assertEquals(7, actual.getTileColumns());
+            TestUtils.assertEquals(expected, actual);
+        }
+
+        TestUtils.assertEquals(MappedStore.HEADER + 7L * 7L * 20L * 7L * 8L, file.length());
+    }
+
+    @Test
+    public void testR032() {
+
+        Primitive32Store expected = Primitive32Store.FACTORY.makeFilled(90, 30, new Uniform());
+
+        File file = new File(tempDir, "R032");
+
+        try (MappedStore actual = MappedStore.make(file, MathType.R032, 90, 30, 16, 16)) {
+            actual.fillMatching(expected);
+        }
+
+        try (MappedStore actual = MappedStore.open(file)) {
+            TestUtils.assertEquals(MathType.R032, actual.getMathType());
+            TestUtils.assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void testTransformations() {
+
+        int dim = 40;
+
+        Primitive64Store body = Primitive64Store.FACTORY.makeSPD(dim);
+        Primitive64Store expected = Primitive64Store.FACTORY.makeFilled(dim, dim, new Normal());
+
+        Householder.Primitive64 householder = new Householder.Primitive64(dim);
+        for (int i = 3; i < dim; i++) {
+            householder.vector[i] = Normal.standard().doubleValue();
+        }
+        householder.first = 3;
+        householder = new Householder.Primitive64(householder);
+
+        Rotation.Primitive rotation = new Rotation.Primitive(2, 7, 0.6, 0.8);
+
+        try (MappedStore actual = MappedStoreTest.copy(new File(tempDir, "transformations"), expected, 16, 8)) {
+
+            expected.substituteBackwards(body.triangular(true, false), false, false, false);
+            actual.substituteBackwards(body.triangular(true, false), false, false, false);
+            TestUtils.assertEquals(expected, actual, ACCURACY);
+
+            expected.substituteForwards(body.triangular(false, false), false, false, false);
+            actual.substituteForwards(body.triangular(false, false), false, false, false);
+            TestUtils.assertEquals(expected, actual, ACCURACY);
+
+            expected.transformLeft(householder, 5);
+            actual.transformLeft(householder, 5);
+            TestUtils.assertEquals(expected, actual, ACCURACY);
+
+            expected.transformRight(householder, 5);
+            actual.transformRight(householder, 5);
+            TestUtils.assertEquals(expected, actual, ACCURACY);
+
+            expected.transformLeft(rotation);
+            actual.transformLeft(rotation);
+            TestUtils.assertEquals(expected, actual, ACCURACY);
+
+            expected.transformRight(rotation);
+            actual.transformRight(rotation);
+            TestUtils.assertEquals(expected, actual, ACCURACY);
+        }
+    }
+
+}
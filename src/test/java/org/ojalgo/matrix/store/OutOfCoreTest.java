@@ -0,0 +1,132 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import java.io.File;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.decomposition.Cholesky;
+import org.ojalgo.random.Normal;
+import org.ojalgo.type.context.NumberContext;
+import org.ojalgo.type.math.MathType;
+
+/**
+ * @author apete
+ */
+public class OutOfCoreTest extends MatrixStoreTests {
+
+    private static final NumberContext ACCURACY = NumberContext.of(10);
+
+    @TempDir
+    public File tempDir;
+
+    @Test
+    public void testCholesky() {
+
+        Primitive64Store matrix = Primitive64Store.FACTORY.makeSPD(70);
+
+        Cholesky<Double> decomposition = Cholesky.R064.make(matrix);
+        decomposition.decompose(matrix);
+        MatrixStore<Double> expected = decomposition.getL();
+
+        OutOfCore outOfCore = new OutOfCore();
+
+        try (MappedStore actual = MappedStoreTest.copy(new File(tempDir, "cholesky"), matrix, 16, 16)) {
+
+            TestUtils.assertTrue(outOfCore.cholesky(actual));
+            TestUtils.assertEquals(expected, actual.triangular(false, false), ACCURACY);
+        }
+
+        TestUtils.assertTrue(outOfCore.getBytesRead() > 70L * 71L / 2L * 8L);
+        TestUtils.assertTrue(outOfCore.getBytesWritten() > 70L * 71L / 2L * 8L);
+
+        Primitive64Store indefinite = Primitive64Store.FACTORY.copy(matrix);
+        indefinite.set(50, 50, -1.0);
+
+        try (MappedStore actual = MappedStoreTest.copy(new File(tempDir, "indefinite"), indefinite, 16, 16)) {
+            TestUtils.assertFalse(outOfCore.cholesky(actual));
+        }
+    }
+
+    @Test
+    public void testGramAndTSQR() {
+
+        Primitive64Store matrix = Primitive64Store.FACTORY.makeFilled(1000, 37, new Normal());
+
+        MatrixStore<Double> expected = matrix.transpose().multiply(matrix);
+
+        OutOfCore outOfCore = new OutOfCore();
+
+        try (MappedStore mapped = MappedStoreTest.copy(new File(tempDir, "tall"), matrix, 64, 16)) {
+
+            Primitive64Store gram = outOfCore.gram(mapped);
+            TestUtils.assertEquals(expected, gram, ACCURACY);
+            TestUtils.assertEquals(1000L * 37L * 8L, outOfCore.getBytesRead());
+
+            outOfCore.reset();
+
+            Primitive64Store factorR = outOfCore.tsqr(mapped);
+            TestUtils.assertEquals(expected, factorR.transpose().multiply(factorR), ACCURACY);
+            TestUtils.assertEquals(1000L * 37L * 8L, outOfCore.getBytesRead());
+            TestUtils.assertEquals(0L, outOfCore.getBytesWritten());
+
+            Cholesky<Double> decomposition = Cholesky.R064.make(expected);
+            decomposition.decompose(expected);
+            TestUtils.assertEquals(decomposition.getL().transpose(), factorR, ACCURACY);
+        }
+    }
+
+    @Test
+    public void testMultiply() {
+
+        Primitive64Store left = Primitive64Store.FACTORY.makeFilled(90, 50, new Normal());
+        Primitive64Store right = Primitive64Store.FACTORY.makeFilled(50, 35, new Normal());
+
+        MatrixStore<Double> expected = left.multiply(right);
+
+        OutOfCore outOfCore = new OutOfCore();
+
+        try (MappedStore mappedLeft = MappedStoreTest.copy(new File(tempDir, "left"), left, 32, 16);
+                MappedStore mappedRight = MappedStoreTest.copy(new File(tempDir, "right"), right, 16, 8);
+                MappedStore product = MappedStore.make(new File(tempDir, "product"), MathType.R064, 90, 35, 32, 8)) {
+
+            outOfCore.multiply(mappedLeft, mappedRight, product);
+
+            TestUtils.assertEquals(expected, product, ACCURACY);
+            TestUtils.assertEquals(90L * 35L * 8L, outOfCore.getBytesWritten());
+        }
+
+        try (MappedStore mappedLeft = MappedStoreTest.copy(new File(tempDir, "left2"), left, 32, 16);
+                MappedStore mappedRight = MappedStoreTest.copy(new File(tempDir, "right2"), right, 15, 8);
+                MappedStore product = MappedStore.make(new File(tempDir, "product2"), MathType.R064, 90, 35, 32, 8)) {
+
+            outOfCore.multiply(mappedLeft, mappedRight, product);
+            TestUtils.fail("The tiles don't match!");
+
+        } catch (IllegalArgumentException expectedException) {
+            // Expected
+        }
+    }
+
+}
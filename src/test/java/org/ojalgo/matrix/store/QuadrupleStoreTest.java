@@ -0,0 +1,216 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.array.QuadrupleArray;
+import org.ojalgo.array.operation.QuadrupleOperation;
+import org.ojalgo.matrix.decomposition.Cholesky;
+import org.ojalgo.matrix.decomposition.LU;
+import org.ojalgo.matrix.transformation.Householder;
+import org.ojalgo.matrix.transformation.Rotation;
+import org.ojalgo.scalar.Quadruple;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * Compares {@link QuadrupleStore} with {@link GenericStore#R128}.
+ *
+ * @author apete
+ */
+public class QuadrupleStoreTest extends MatrixStoreTests {
+
+    private static final NumberContext ACCURACY = NumberContext.of(14);
+
+    private static GenericStore<Quadruple> makeRandom(final int rows, final int columns, final Random random) {
+
+        GenericStore<Quadruple> retVal = GenericStore.R128.make(rows, columns);
+
+        for (int j = 0; j < columns; j++) {
+            for (int i = 0; i < rows; i++) {
+                retVal.set(i, j, Quadruple.valueOf(random.nextGaussian()).divide(3.0));
+            }
+        }
+
+        return retVal;
+    }
+
+    @Test
+    public void testDecompositions() {
+
+        int dim = 30;
+
+        Random random = new Random(123);
+
+        GenericStore<Quadruple> general = QuadrupleStoreTest.makeRandom(dim, dim, random);
+        MatrixStore<Quadruple> spd = general.multiply(general.transpose()).add(GenericStore.R128.makeIdentity(dim));
+
+        LU<Quadruple> lu = LU.R128.make();
+        TestUtils.assertTrue(lu.decompose(general));
+        TestUtils.assertEquals(general, lu.reconstruct(), ACCURACY);
+
+        Cholesky<Quadruple> cholesky = Cholesky.R128.make();
+        TestUtils.assertTrue(cholesky.decompose(spd));
+        TestUtils.assertEquals(spd, cholesky.reconstruct(), ACCURACY);
+
+        MatrixStore<Quadruple> identity = GenericStore.R128.makeIdentity(dim);
+
+        TestUtils.assertEquals(identity, general.multiply(lu.getInverse()), ACCURACY);
+        TestUtils.assertEquals(identity, spd.multiply(cholesky.getInverse()), ACCURACY);
+    }
+
+    /**
+     * The (small) example that revealed that only the first column of the inverse was calculated correctly
+     */
+    @Test
+    public void testInverse() {
+
+        double[][] elements = { { 4, 1, 0 }, { 1, 2, 1 }, { 0, 1, 5 } };
+        // The adjugate - the determinant is 31
+        double[][] adjugate = { { 9, -5, 1 }, { -5, 20, -4 }, { 1, -4, 7 } };
+
+        GenericStore<Quadruple> matrix = GenericStore.R128.make(3, 3);
+        GenericStore<Quadruple> expected = GenericStore.R128.make(3, 3);
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                matrix.set(i, j, Quadruple.valueOf(elements[i][j]));
+                expected.set(i, j, Quadruple.valueOf(adjugate[i][j]).divide(31.0));
+            }
+        }
+
+        LU<Quadruple> lu = LU.R128.make();
+        TestUtils.assertTrue(lu.decompose(matrix));
+        TestUtils.assertEquals(expected, lu.getInverse(), ACCURACY);
+
+        Cholesky<Quadruple> cholesky = Cholesky.R128.make();
+        TestUtils.assertTrue(cholesky.decompose(matrix));
+        TestUtils.assertEquals(expected, cholesky.getInverse(), ACCURACY);
+    }
+
+    @Test
+    public void testMultiply() {
+
+        Random random = new Random(123);
+
+        for (int dim : new int[] { 7, 70 }) {
+
+            GenericStore<Quadruple> left = QuadrupleStoreTest.makeRandom(dim + 3, dim, random);
+            GenericStore<Quadruple> right = QuadrupleStoreTest.makeRandom(dim, dim - 2, random);
+
+            MatrixStore<Quadruple> expected = left.multiply(right);
+
+            QuadrupleStore actualLeft = QuadrupleStore.FACTORY.copy(left);
+            QuadrupleStore actualRight = QuadrupleStore.FACTORY.copy(right);
+
+            TestUtils.assertEquals(expected, actualLeft.multiply(actualRight), ACCURACY);
+
+            QuadrupleStore product = QuadrupleStore.FACTORY.make(dim + 3, dim - 2);
+            product.fillByMultiplying(left, actualRight);
+            TestUtils.assertEquals(expected, product, ACCURACY);
+        }
+    }
+
+    /**
+     * The remainder part must survive the kernels – with plain double arithmetic these sums would all be 0.
+     */
+    @Test
+    public void testPrecision() {
+
+        QuadrupleArray x = QuadrupleArray.wrap(new double[] { 1.0, 1.0, -2.0 }, new double[] { 0.0, 1E-20, 0.0 });
+        QuadrupleArray y = QuadrupleArray.wrap(new double[] { 1.0, 1.0, 1.0 }, new double[3]);
+
+        Quadruple dot = QuadrupleOperation.dot(x.hi, x.lo, 0, y.hi, y.lo, 0, 0, 3);
+        TestUtils.assertEquals(1E-20, dot.doubleValue());
+
+        QuadrupleOperation.axpy(y.hi, y.lo, 0, -1.0, 0.0, x.hi, x.lo, 0, 0, 2);
+        TestUtils.assertEquals(0.0, y.get(0).doubleValue());
+        TestUtils.assertEquals(-1E-20, y.get(1).doubleValue());
+
+        QuadrupleOperation.divide(x.hi, x.lo, 0, 3, 3.0, 0.0);
+        TestUtils.assertEquals(Quadruple.ONE.divide(3.0), x.get(0));
+        TestUtils.assertEquals(Quadruple.of(1.0, 1E-20).divide(3.0), x.get(1));
+    }
+
+    @Test
+    public void testTransformations() {
+
+        int dim = 20;
+
+        Random random = new Random(123);
+
+        GenericStore<Quadruple> body = QuadrupleStoreTest.makeRandom(dim, dim, random);
+        for (int i = 0; i < dim; i++) {
+            body.set(i, i, Quadruple.valueOf(dim));
+        }
+        GenericStore<Quadruple> expected = QuadrupleStoreTest.makeRandom(dim, dim, random);
+
+        Householder.Generic<Quadruple> householder = new Householder.Generic<>(Quadruple.FACTORY, dim);
+        for (int i = 3; i < dim; i++) {
+            householder.vector[i] = Quadruple.valueOf(random.nextGaussian());
+        }
+        householder.first = 3;
+        householder = new Householder.Generic<>(Quadruple.FACTORY, householder);
+
+        Rotation.Generic<Quadruple> rotation = new Rotation.Generic<>(2, 7, Quadruple.valueOf(0.6), Quadruple.valueOf(0.8));
+
+        QuadrupleStore actual = QuadrupleStore.FACTORY.copy(expected);
+        TestUtils.assertEquals(expected, actual);
+
+        for (int flags = 0; flags < 8; flags++) {
+
+            boolean unitDiagonal = (flags & 1) != 0;
+            boolean conjugated = (flags & 2) != 0;
+            boolean special = (flags & 4) != 0; // hermitian or identity
+
+            GenericStore<Quadruple> expectedBackwards = expected.copy();
+            QuadrupleStore actualBackwards = actual.copy();
+            expectedBackwards.substituteBackwards(body.triangular(true, false), unitDiagonal, conjugated, special);
+            actualBackwards.substituteBackwards(body.triangular(true, false), unitDiagonal, conjugated, special);
+            TestUtils.assertEquals(expectedBackwards, actualBackwards, ACCURACY);
+
+            GenericStore<Quadruple> expectedForwards = expected.copy();
+            QuadrupleStore actualForwards = actual.copy();
+            expectedForwards.substituteForwards(body.triangular(false, false), unitDiagonal, conjugated, special);
+            actualForwards.substituteForwards(body.triangular(false, false), unitDiagonal, conjugated, special);
+            TestUtils.assertEquals(expectedForwards, actualForwards, ACCURACY);
+        }
+
+        expected.transformLeft(householder, 5);
+        actual.transformLeft(householder, 5);
+        TestUtils.assertEquals(expected, actual, ACCURACY);
+
+        expected.transformRight(householder, 5);
+        actual.transformRight(householder, 5);
+        TestUtils.assertEquals(expected, actual, ACCURACY);
+
+        expected.transformLeft(rotation);
+        actual.transformLeft(rotation);
+        TestUtils.assertEquals(expected, actual, ACCURACY);
+
+        expected.transformRight(rotation);
+        actual.transformRight(rotation);
+        TestUtils.assertEquals(expected, actual, ACCURACY);
+    }
+
+}
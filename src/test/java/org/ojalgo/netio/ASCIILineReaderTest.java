@@ -0,0 +1,104 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.netio;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+
+public class ASCIILineReaderTest extends NetioTests {
+
+    private static ASCIILineReader of(final String text) {
+        return ASCIILineReader.of(new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Test
+    public void testLinesAndTokens() throws IOException {
+
+        try (ASCIILineReader reader = ASCIILineReaderTest.of("first line\r\n\n  a\tbb   ccc  \nlast")) {
+
+            TestUtils.assertTrue(reader.next());
+            TestUtils.assertEquals(2, reader.countTokens());
+            TestUtils.assertEquals("line", reader.toString(1));
+
+            TestUtils.assertTrue(reader.next());
+            TestUtils.assertEquals(0, reader.countTokens());
+
+            TestUtils.assertTrue(reader.next());
+            TestUtils.assertEquals(3, reader.lineNumber());
+            TestUtils.assertEquals(3, reader.countTokens());
+            TestUtils.assertTrue(reader.matches(0, "a"));
+            TestUtils.assertTrue(reader.matches(1, "bb"));
+            TestUtils.assertTrue(reader.matches(2, "ccc"));
+            TestUtils.assertTrue(reader.contains("bb"));
+            TestUtils.assertTrue(!reader.contains("dd"));
+
+            TestUtils.assertTrue(reader.next());
+            TestUtils.assertEquals("last", reader.toString(0));
+
+            TestUtils.assertTrue(!reader.next());
+        }
+    }
+
+    @Test
+    public void testSymbols() throws IOException {
+
+        ASCIILineReader.Symbols symbols = new ASCIILineReader.Symbols();
+        for (int i = 0; i < 1000; i++) {
+            symbols.put("ROW" + i, i);
+        }
+        TestUtils.assertEquals(1000, symbols.size());
+
+        try (ASCIILineReader reader = ASCIILineReaderTest.of("ROW0 ROW999 ROW1000 ROW")) {
+            TestUtils.assertTrue(reader.next());
+            TestUtils.assertEquals(0, symbols.get(reader, 0));
+            TestUtils.assertEquals(999, symbols.get(reader, 1));
+            TestUtils.assertEquals(-1, symbols.get(reader, 2));
+            TestUtils.assertEquals(-1, symbols.get(reader, 3));
+        }
+    }
+
+    @Test
+    public void testToDouble() throws IOException {
+
+        String[] numbers = { "0", "1", "-1", "+2.5", "3.", ".25", "-.125", "1e3", "1.5E-7", "-2.0e+02", "123456789012345", "1234567890.1234567890",
+                "0.1", "1E-30", "4.9E-324", "1.7976931348623157E308", "0.30000000000000004", "-0.0" };
+
+        StringBuilder text = new StringBuilder();
+        for (String number : numbers) {
+            text.append(number).append(' ');
+        }
+
+        try (ASCIILineReader reader = ASCIILineReaderTest.of(text.toString())) {
+            TestUtils.assertTrue(reader.next());
+            TestUtils.assertEquals(numbers.length, reader.countTokens());
+            for (int t = 0; t < numbers.length; t++) {
+                double expected = Double.parseDouble(numbers[t]);
+                TestUtils.assertEquals(numbers[t], Double.doubleToLongBits(expected), Double.doubleToLongBits(reader.toDouble(t)));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.optimisation.Optimisation.Result;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * Compares solving block structured models using Benders decomposition with solving them the usual way.
+ *
+ * @author apete
+ */
+public class BendersDecompositionTest extends OptimisationTests {
+
+    private static final NumberContext ACCURACY = NumberContext.of(7, 6);
+
+    /**
+     * The farmer's problem from Birge & Louveaux, "Introduction to Stochastic Programming" – 3 equally
+     * likely yield scenarios. The optimal expected profit is 108390, planting 170, 80 and 250 acres of wheat,
+     * corn and sugar beets.
+     */
+    static ExpressionsBasedModel makeFarmer(final boolean integer) {
+
+        ExpressionsBasedModel model = new ExpressionsBasedModel();
+
+        Variable wheat = model.addVariable("WHEAT").lower(0).weight(150).integer(integer);
+        Variable corn = model.addVariable("CORN").lower(0).weight(230).integer(integer);
+        Variable beets = model.addVariable("BEETS").lower(0).weight(260).integer(integer);
+
+        Expression land = model.addExpression("LAND").upper(500);
+        land.set(wheat, 1);
+        land.set(corn, 1);
+        land.set(beets, 1);
+
+        double[][] yields = { { 3.0, 3.6, 24.0 }, { 2.5, 3.0, 20.0 }, { 2.0, 2.4, 16.0 } };
+        double probability = 1.0 / yields.length;
+
+        for (int s = 0; s < yields.length; s++) {
+
+            Variable buyWheat = model.addVariable("BUY_WHEAT_" + s).lower(0).weight(probability * 238);
+            Variable sellWheat = model.addVariable("SELL_WHEAT_" + s).lower(0).weight(probability * -170);
+            Variable buyCorn = model.addVariable("BUY_CORN_" + s).lower(0).weight(probability * 210);
+            Variable sellCorn = model.addVariable("SELL_CORN_" + s).lower(0).weight(probability * -150);
+            Variable sellBeets = model.addVariable("SELL_BEETS_" + s).lower(0).upper(6000).weight(probability * -36);
+            Variable sellExcess = model.addVariable("SELL_EXCESS_" + s).lower(0).weight(probability * -10);
+
+            Expression needWheat = model.addExpression("NEED_WHEAT_" + s).lower(200);
+            needWheat.set(wheat, yields[s][0]);
+            needWheat.set(buyWheat, 1);
+            needWheat.set(sellWheat, -1);
+
+            Expression needCorn = model.addExpression("NEED_CORN_" + s).lower(240);
+            needCorn.set(corn, yields[s][1]);
+            needCorn.set(buyCorn, 1);
+            needCorn.set(sellCorn, -1);
+
+            Expression beetHarvest = model.addExpression("BEET_HARVEST_" + s).upper(0);
+            beetHarvest.set(beets, -yields[s][2]);
+            beetHarvest.set(sellBeets, 1);
+            beetHarvest.set(sellExcess, 1);
+        }
+
+        return model;
+    }
+
+    /**
+     * Random block angular model – positive costs and constraints on the form Σ(a·y) + Σ(b·x) ≥ rhs. The rhs
+     * is chosen so that x = 6 and y = 3 is feasible. The bounds on the block variables make some (small)
+     * linking variable values infeasible.
+     */
+    static ExpressionsBasedModel makeRandom(final long seed, final int nbLinking, final int nbBlocks) {
+
+        Random random = new Random(seed);
+
+        ExpressionsBasedModel model = new ExpressionsBasedModel();
+
+        Variable[] linking = new Variable[nbLinking];
+        for (int k = 0; k < nbLinking; k++) {
+            linking[k] = model.addVariable("X" + k).lower(0).upper(10).weight(1 + 9 * random.nextDouble());
+        }
+
+        for (int b = 0; b < nbBlocks; b++) {
+
+            Variable[] block = new Variable[4];
+            for (int j = 0; j < block.length; j++) {
+                block[j] = model.addVariable("Y" + b + "_" + j).lower(0).upper(5).weight(1 + 9 * random.nextDouble());
+            }
+
+            for (int r = 0; r < 3; r++) {
+                Expression row = model.addExpression("R" + b + "_" + r);
+                double rhs = 0.0;
+                for (Variable variable : block) {
+                    if (random.nextDouble() < 0.75) {
+                        double factor = 0.5 + random.nextDouble();
+                        row.set(variable, factor);
+                        rhs += 3 * factor;
+                    }
+                }
+                for (Variable variable : linking) {
+                    if (random.nextDouble() < 0.5) {
+                        double factor = random.nextDouble();
+                        row.set(variable, factor);
+                        rhs += 6 * factor;
+                    }
+                }
+                row.lower(rhs);
+            }
+        }
+
+        return model;
+    }
+
+    @Test
+    public void testDetectFarmer() {
+
+        ExpressionsBasedModel model = BendersDecompositionTest.makeFarmer(false);
+
+        BlockStructure structure = BlockStructure.of(model);
+
+        // Within each scenario the wheat, corn and beet parts are independent
+        TestUtils.assertEquals(9, structure.countBlocks());
+        TestUtils.assertEquals(3, structure.getLinkingVariables().size());
+        TestUtils.assertEquals(1, structure.getMasterConstraints().size());
+
+        for (int j = 0; j < 3; j++) {
+            TestUtils.assertEquals(-1, structure.indexOfBlock(model.getVariable(j)));
+        }
+    }
+
+    @Test
+    public void testFarmer() {
+
+        ExpressionsBasedModel model = BendersDecompositionTest.makeFarmer(false);
+
+        BendersDecomposition benders = model.decompose();
+        Result result = benders.minimise();
+
+        TestUtils.assertStateNotLessThanOptimal(result);
+        TestUtils.assertEquals(-108390.0, result.getValue(), ACCURACY);
+        TestUtils.assertEquals(170.0, result.doubleValue(0), ACCURACY);
+        TestUtils.assertEquals(80.0, result.doubleValue(1), ACCURACY);
+        TestUtils.assertEquals(250.0, result.doubleValue(2), ACCURACY);
+        TestUtils.assertTrue(model.validate(result, ACCURACY));
+        TestUtils.assertTrue(benders.countIterations() > 1);
+    }
+
+    @Test
+    public void testFarmerInteger() {
+
+        ExpressionsBasedModel model = BendersDecompositionTest.makeFarmer(true);
+
+        Result result = model.decompose().minimise();
+
+        TestUtils.assertStateNotLessThanOptimal(result);
+        TestUtils.assertEquals(-108390.0, result.getValue(), ACCURACY);
+        TestUtils.assertTrue(model.validate(result, ACCURACY));
+    }
+
+    /**
+     * The same model with the objective function negated – maximise instead of minimise
+     */
+    @Test
+    public void testFarmerMaximise() {
+
+        ExpressionsBasedModel model = BendersDecompositionTest.makeFarmer(false);
+        for (Variable variable : model.getVariables()) {
+            variable.weight(variable.getContributionWeight().negate());
+        }
+
+        Result result = model.decompose().maximise();
+
+        TestUtils.assertStateNotLessThanOptimal(result);
+        TestUtils.assertEquals(108390.0, result.getValue(), ACCURACY);
+    }
+
+    /**
+     * With the linking variables fixed at 0 the blocks can't be feasible – proven by the feasibility cuts
+     */
+    @Test
+    public void testInfeasible() {
+
+        ExpressionsBasedModel model = BendersDecompositionTest.makeRandom(1L, 3, 6);
+        for (int k = 0; k < 3; k++) {
+            model.getVariable(k).upper(0);
+        }
+
+        Result expected = model.copy().minimise();
+
+        BlockStructure structure = BlockStructure.of(model, model.getVariables().subList(0, 3));
+        BendersDecomposition benders = model.decompose(structure);
+        Result actual = benders.minimise();
+
+        TestUtils.assertFalse(expected.getState().isFeasible());
+        TestUtils.assertEquals(Optimisation.State.INFEASIBLE, actual.getState());
+        TestUtils.assertTrue(benders.countIterations() > 0);
+    }
+
+    /**
+     * Blocks that are not suitable for Benders decomposition (integer variables) – solved the usual way
+     */
+    @Test
+    public void testNotApplicable() {
+
+        ExpressionsBasedModel model = BendersDecompositionTest.makeFarmer(false);
+        model.getVariable(3).integer(true);
+
+        Result expected = model.copy().minimise();
+
+        BlockStructure structure = BlockStructure.of(model, Arrays.asList(model.getVariable(0), model.getVariable(1), model.getVariable(2)));
+        BendersDecomposition benders = model.decompose(structure);
+        Result actual = benders.minimise();
+
+        TestUtils.assertEquals(0, benders.countIterations());
+        TestUtils.assertEquals(expected.getValue(), actual.getValue(), ACCURACY);
+    }
+
+    @Test
+    public void testRandom() {
+
+        for (long seed = 0L; seed < 10L; seed++) {
+
+            ExpressionsBasedModel model = BendersDecompositionTest.makeRandom(seed, 3, 6);
+
+            Result expected = model.copy().minimise();
+
+            BlockStructure structure = BlockStructure.of(model, model.getVariables().subList(0, 3));
+            // Sometimes a block's rows don't share any variables
+            TestUtils.assertTrue(structure.countBlocks() >= 6);
+
+            Result actual = model.decompose(structure).minimise();
+
+            TestUtils.assertStateNotLessThanOptimal(expected);
+            TestUtils.assertStateNotLessThanOptimal(actual);
+            TestUtils.assertEquals(expected.getValue(), actual.getValue(), ACCURACY);
+            TestUtils.assertTrue(model.validate(actual, ACCURACY));
+        }
+    }
+
+}
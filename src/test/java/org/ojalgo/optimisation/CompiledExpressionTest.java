@@ -0,0 +1,176 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.array.ArrayR064;
+import org.ojalgo.structure.Access1D;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * {@link CompiledExpression} should evaluate to the same values as the {@link Expression} it was compiled
+ * from.
+ *
+ * @author apete
+ */
+public class CompiledExpressionTest extends OptimisationTests {
+
+    private static final NumberContext ACCURACY = NumberContext.of(12, 10);
+
+    private static Expression makeExpression(final ExpressionsBasedModel model, final Random random, final int nbVariables) {
+
+        for (int j = 0; j < nbVariables; j++) {
+            model.addVariable("X" + j);
+        }
+
+        Expression retVal = model.addExpression("EXPR").lower(-1).upper(2);
+
+        for (int k = 0; k < nbVariables / 2; k++) {
+            retVal.set(random.nextInt(nbVariables), random.nextGaussian());
+        }
+        for (int k = 0; k < nbVariables / 4; k++) {
+            retVal.set(random.nextInt(nbVariables), random.nextInt(nbVariables), random.nextGaussian());
+        }
+        for (int j = 0; j < 3; j++) {
+            retVal.set(j, j, random.nextGaussian());
+        }
+
+        return retVal;
+    }
+
+    private static double[] makePoint(final Random random, final int nbVariables) {
+        double[] retVal = new double[nbVariables];
+        for (int j = 0; j < nbVariables; j++) {
+            retVal[j] = random.nextGaussian();
+        }
+        return retVal;
+    }
+
+    @Test
+    public void testDelta() {
+
+        int nbVariables = 50;
+        Random random = new Random(123L);
+
+        CompiledExpression compiled = CompiledExpressionTest.makeExpression(new ExpressionsBasedModel(), random, nbVariables).compile();
+
+        double[] point = CompiledExpressionTest.makePoint(random, nbVariables);
+        double value = compiled.evaluate(point);
+
+        for (int move = 0; move < 1_000; move++) {
+
+            int variable = random.nextInt(nbVariables);
+            double newValue = random.nextGaussian();
+
+            double delta = compiled.delta(point, variable, newValue);
+
+            point[variable] = newValue;
+            value += delta;
+
+            TestUtils.assertEquals(compiled.evaluate(point), value, ACCURACY);
+        }
+    }
+
+    @Test
+    public void testDerivatives() {
+
+        int nbVariables = 40;
+        Random random = new Random(456L);
+
+        Expression expression = CompiledExpressionTest.makeExpression(new ExpressionsBasedModel(), random, nbVariables);
+        CompiledExpression compiled = expression.compile();
+
+        double[] point = CompiledExpressionTest.makePoint(random, nbVariables);
+
+        double[] gradient = new double[nbVariables];
+        compiled.gradient(point, 1.0, gradient);
+
+        for (int j = 0; j < nbVariables; j++) {
+
+            // Exact for quadratic functions
+            double h = 0.5;
+            double forward = compiled.delta(point, j, point[j] + h);
+            double backward = compiled.delta(point, j, point[j] - h);
+            double central = (forward - backward) / (2.0 * h);
+
+            TestUtils.assertEquals(central, gradient[j], ACCURACY);
+            TestUtils.assertEquals(gradient[j], compiled.derivative(point, j), ACCURACY);
+        }
+
+        double[] scaled = new double[nbVariables];
+        compiled.gradient(point, -2.0, scaled);
+        for (int j = 0; j < nbVariables; j++) {
+            TestUtils.assertEquals(-2.0 * gradient[j], scaled[j], ACCURACY);
+        }
+    }
+
+    @Test
+    public void testEvaluate() {
+
+        int nbVariables = 30;
+        Random random = new Random(789L);
+
+        ExpressionsBasedModel model = new ExpressionsBasedModel();
+        Expression expression = CompiledExpressionTest.makeExpression(model, random, nbVariables);
+        expression.set(3, 0.0);
+        CompiledExpression compiled = expression.compile();
+
+        double[] point = CompiledExpressionTest.makePoint(random, nbVariables);
+        ArrayR064 array = ArrayR064.wrap(point);
+
+        BigDecimal[] decimals = new BigDecimal[nbVariables];
+        for (int j = 0; j < nbVariables; j++) {
+            decimals[j] = BigDecimal.valueOf(point[j]);
+        }
+
+        double expected = expression.evaluate(Access1D.wrap(decimals)).doubleValue();
+
+        TestUtils.assertEquals(expected, compiled.evaluate(point), ACCURACY);
+        TestUtils.assertEquals(expected, compiled.evaluate(array), ACCURACY);
+
+        for (int k = 1; k < compiled.countLinearFactors(); k++) {
+            TestUtils.assertTrue(compiled.getLinearIndex(k - 1) < compiled.getLinearIndex(k));
+        }
+        TestUtils.assertEquals(0.0, compiled.getLinearFactor(3));
+    }
+
+    @Test
+    public void testLimits() {
+
+        CompiledExpression compiled = CompiledExpressionTest.makeExpression(new ExpressionsBasedModel(), new Random(1L), 10).compile();
+
+        TestUtils.assertEquals(-1.0, compiled.getLowerLimit());
+        TestUtils.assertEquals(2.0, compiled.getUpperLimit());
+
+        TestUtils.assertEquals(0.0, compiled.violation(0.5));
+        TestUtils.assertEquals(0.5, compiled.violation(-1.5));
+        TestUtils.assertEquals(1.0, compiled.violation(3.0));
+
+        TestUtils.assertTrue(compiled.isFeasible(2.0 + 1E-9, 1E-8));
+        TestUtils.assertFalse(compiled.isFeasible(2.1, 1E-8));
+    }
+
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.optimisation.Optimisation.Result;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * Re-solving a {@link CompiledModel}, after changing bounds, limits and weights, should give the same results
+ * as solving (a copy of) the model from scratch.
+ *
+ * @author apete
+ */
+public class CompiledModelTest extends OptimisationTests {
+
+    private static final NumberContext ACCURACY = NumberContext.of(7, 6);
+
+    private static void doCompare(final ExpressionsBasedModel model, final Result actual, final boolean maximise) {
+
+        Result expected = maximise ? model.copy().maximise() : model.copy().minimise();
+
+        TestUtils.assertStateNotLessThanOptimal(expected);
+        TestUtils.assertStateNotLessThanOptimal(actual);
+        TestUtils.assertEquals(expected.getValue(), actual.getValue(), ACCURACY);
+        TestUtils.assertTrue(model.validate(actual, ACCURACY));
+    }
+
+    /**
+     * Production planning type of model, with inequality, range and equality constraints as well as variable
+     * bounds – some of them negative.
+     */
+    private static ExpressionsBasedModel makeLinear(final Random random, final int nbVariables, final int nbConstraints) {
+
+        ExpressionsBasedModel model = new ExpressionsBasedModel();
+
+        for (int j = 0; j < nbVariables; j++) {
+            model.addVariable("X" + j).lower(0).upper(5 + random.nextInt(10)).weight(1 + random.nextInt(20));
+        }
+        model.getVariable(0).lower(-4);
+
+        for (int i = 0; i < nbConstraints; i++) {
+            Expression capacity = model.addExpression("CAPACITY" + i).upper(20 + random.nextInt(40));
+            for (int j = 0; j < nbVariables; j++) {
+                if (random.nextBoolean()) {
+                    capacity.set(j, 1 + random.nextInt(5));
+                }
+            }
+        }
+
+        Expression difference = model.addExpression("DIFFERENCE").lower(-3).upper(3);
+        difference.set(0, 1);
+        difference.set(1, -1);
+
+        Expression total = model.addExpression("TOTAL").level(15);
+        for (int j = 0; j < nbVariables; j++) {
+            total.set(j, 1);
+        }
+
+        return model;
+    }
+
+    @Test
+    public void testInfeasibleAndBack() {
+
+        ExpressionsBasedModel model = CompiledModelTest.makeLinear(new Random(1), 10, 5);
+        CompiledModel compiled = model.compile();
+
+        CompiledModelTest.doCompare(model, compiled.maximise(), true);
+
+        Expression difference = model.getExpression("DIFFERENCE");
+
+        compiled.lower(difference, 30).upper(difference, 40);
+        TestUtils.assertStateLessThanFeasible(compiled.maximise());
+
+        compiled.lower(difference, -3).upper(difference, 3);
+        CompiledModelTest.doCompare(model, compiled.maximise(), true);
+    }
+
+    @Test
+    public void testNetlibAFIRO() {
+
+        ExpressionsBasedModel model = ModelFileTest.makeModel("netlib", "AFIRO.SIF", false);
+        CompiledModel compiled = model.compile();
+
+        CompiledModelTest.doCompare(model, compiled.minimise(), false);
+
+        BigDecimal scale = new BigDecimal("1.05");
+
+        for (int round = 0; round < 3; round++) {
+            for (Expression expression : model.getExpressions()) {
+                if (expression.isUpperConstraint() && !expression.isEqualityConstraint()) {
+                    compiled.upper(expression, expression.getUpperLimit().multiply(scale));
+                }
+            }
+            CompiledModelTest.doCompare(model, compiled.minimise(), false);
+        }
+    }
+
+    /**
+     * The solver is built with its own copy of the options – the (possibly shared) model options are not
+     * modified.
+     */
+    @Test
+    public void testOptionsNotModified() {
+
+        Optimisation.Options options = new Optimisation.Options();
+        TestUtils.assertFalse(options.linear().updatable());
+
+        ExpressionsBasedModel model = new ExpressionsBasedModel(options);
+        model.addVariable("X").lower(0).upper(3).weight(1);
+        model.addVariable("Y").lower(0).upper(4).weight(2);
+        model.addExpression("SUM").upper(5).set(0, 1).set(1, 1);
+
+        CompiledModel compiled = model.compile();
+
+        CompiledModelTest.doCompare(model, compiled.maximise(), true);
+        compiled.upper(model.getExpression("SUM"), 6);
+        CompiledModelTest.doCompare(model, compiled.maximise(), true);
+
+        TestUtils.assertFalse(options.linear().updatable());
+    }
+
+    /**
+     * Changed constraint limits and variable bounds should be handled in-place, by the same solver instance.
+     */
+    @Test
+    public void testSolverReused() {
+
+        ExpressionsBasedModel model = CompiledModelTest.makeLinear(new Random(1), 10, 5);
+        CompiledModel compiled = model.compile();
+
+        CompiledModelTest.doCompare(model, compiled.maximise(), true);
+        Optimisation.Solver solver = compiled.getSolver();
+
+        Expression capacity = model.getExpression("CAPACITY0");
+        compiled.upper(capacity, capacity.getUpperLimit().add(BigDecimal.ONE));
+        CompiledModelTest.doCompare(model, compiled.maximise(), true);
+        TestUtils.assertTrue(solver == compiled.getSolver());
+
+        Variable variable = model.getVariable(3);
+        compiled.upper(variable, variable.getUpperLimit().subtract(BigDecimal.ONE));
+        CompiledModelTest.doCompare(model, compiled.maximise(), true);
+        TestUtils.assertTrue(solver == compiled.getSolver());
+    }
+
+    @Test
+    public void testQuadratic() {
+
+        ExpressionsBasedModel model = new ExpressionsBasedModel();
+        for (int j = 0; j < 5; j++) {
+            model.addVariable("X" + j).lower(0).upper(0.5).weight(-0.1 * j);
+        }
+        Expression variance = model.addExpression("VARIANCE").weight(0.5);
+        for (int j = 0; j < 5; j++) {
+            variance.set(j, j, 1 + j);
+        }
+        Expression budget = model.addExpression("BUDGET").level(1);
+        for (int j = 0; j < 5; j++) {
+            budget.set(j, 1);
+        }
+
+        CompiledModel compiled = model.compile();
+
+        CompiledModelTest.doCompare(model, compiled.minimise(), false);
+
+        for (int round = 1; round < 5; round++) {
+            compiled.weight(model.getVariable(round), -0.5 * round);
+            compiled.upper(model.getVariable(0), 0.1 * round);
+            CompiledModelTest.doCompare(model, compiled.minimise(), false);
+        }
+    }
+
+    @Test
+    public void testResolveLinear() {
+
+        Random random = new Random(123);
+
+        ExpressionsBasedModel model = CompiledModelTest.makeLinear(random, 20, 10);
+        CompiledModel compiled = model.compile();
+
+        CompiledModelTest.doCompare(model, compiled.maximise(), true);
+
+        for (int round = 0; round < 20; round++) {
+
+            switch (round % 4) {
+            case 0:
+                compiled.upper(model.getExpression("CAPACITY" + random.nextInt(10)), 10 + random.nextInt(50));
+                break;
+            case 1:
+                Variable variable = model.getVariable(random.nextInt(20));
+                compiled.upper(variable, 1 + random.nextInt(15));
+                compiled.weight(model.getVariable(random.nextInt(20)), 1 + random.nextInt(20));
+                break;
+            case 2:
+                compiled.lower(model.getExpression("DIFFERENCE"), -1 - random.nextInt(5));
+                compiled.lower(model.getVariable(0), -1 - random.nextInt(5));
+                break;
+            default:
+                compiled.level(model.getExpression("TOTAL"), 10 + random.nextInt(10));
+                compiled.weight(model.getVariable(random.nextInt(20)), 1 + random.nextInt(20));
+                break;
+            }
+
+            CompiledModelTest.doCompare(model, compiled.maximise(), true);
+        }
+
+        CompiledModelTest.doCompare(model, compiled.minimise(), false);
+    }
+
+}
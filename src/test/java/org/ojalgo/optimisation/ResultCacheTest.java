@@ -0,0 +1,163 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.optimisation.Optimisation.Result;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * @author apete
+ */
+public class ResultCacheTest extends OptimisationTests {
+
+    private static final NumberContext ACCURACY = NumberContext.of(7, 6);
+
+    /**
+     * The same model, but with the constraints added in the reverse order and with different names.
+     */
+    private static ExpressionsBasedModel makeModel(final boolean reverse, final double weight) {
+
+        ExpressionsBasedModel model = new ExpressionsBasedModel();
+
+        Variable x = model.addVariable("X").lower(0).weight(weight);
+        Variable y = model.addVariable("Y").lower(0).weight(2);
+
+        String[] names = reverse ? new String[] { "B", "A" } : new String[] { "C1", "C2" };
+
+        for (int i = 0; i < 2; i++) {
+            int c = reverse ? 1 - i : i;
+            Expression constraint = model.addExpression(names[i]).upper(c == 0 ? 4 : 6);
+            constraint.set(x, c == 0 ? 1 : 3);
+            constraint.set(y, c == 0 ? 1 : 1);
+        }
+
+        return model;
+    }
+
+    @Test
+    public void testDiskTier() throws IOException {
+
+        File directory = Files.createTempDirectory("ojAlgo").toFile();
+        directory.deleteOnExit();
+
+        Result expected = new ResultCache(10, directory).maximise(ResultCacheTest.makeModel(false, 1));
+
+        ResultCache cache = new ResultCache(10, directory);
+        Result actual = cache.maximise(ResultCacheTest.makeModel(true, 1));
+
+        TestUtils.assertEquals(1L, cache.countHits());
+        TestUtils.assertEquals(0L, cache.countMisses());
+        TestUtils.assertEquals(expected.getValue(), actual.getValue(), ACCURACY);
+
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testExactHit() {
+
+        ResultCache cache = new ResultCache(10);
+
+        ExpressionsBasedModel first = ResultCacheTest.makeModel(false, 1);
+        ExpressionsBasedModel second = ResultCacheTest.makeModel(true, 1);
+
+        TestUtils.assertEquals(ResultCache.fingerprint(first), ResultCache.fingerprint(second));
+
+        Result expected = cache.maximise(first);
+        Result actual = cache.maximise(second);
+
+        TestUtils.assertEquals(1L, cache.countHits());
+        TestUtils.assertEquals(1L, cache.countMisses());
+
+        TestUtils.assertStateNotLessThanOptimal(actual);
+        TestUtils.assertEquals(expected.getValue(), actual.getValue(), ACCURACY);
+        TestUtils.assertEquals(expected.doubleValue(0), second.getVariable(0).getValue().doubleValue(), ACCURACY);
+        TestUtils.assertEquals(expected.doubleValue(1), second.getVariable(1).getValue().doubleValue(), ACCURACY);
+    }
+
+    @Test
+    public void testLeastRecentlyUsed() {
+
+        ResultCache cache = new ResultCache(1);
+
+        cache.maximise(ResultCacheTest.makeModel(false, 1));
+        cache.minimise(ResultCacheTest.makeModel(false, 1));
+        cache.minimise(ResultCacheTest.makeModel(false, 1));
+        cache.maximise(ResultCacheTest.makeModel(false, 1));
+
+        TestUtils.assertEquals(1L, cache.countHits());
+        TestUtils.assertEquals(3L, cache.countMisses());
+    }
+
+    /**
+     * Maximising and minimising the same model are different cache entries.
+     */
+    @Test
+    public void testSense() {
+
+        ResultCache cache = new ResultCache(10);
+
+        Result maximum = cache.maximise(ResultCacheTest.makeModel(false, 1));
+        Result minimum = cache.minimise(ResultCacheTest.makeModel(false, 1));
+
+        TestUtils.assertEquals(0L, cache.countHits());
+        TestUtils.assertEquals(2L, cache.countMisses());
+
+        TestUtils.assertEquals(0.0, minimum.getValue(), ACCURACY);
+        TestUtils.assertTrue(maximum.getValue() > minimum.getValue());
+    }
+
+    /**
+     * A changed objective function weight gives a near match – the previous solution is used to warm start
+     * the solver, and the results should be the same as solving from scratch.
+     */
+    @Test
+    public void testWarmStart() {
+
+        ResultCache cache = new ResultCache(10);
+
+        cache.maximise(ResultCacheTest.makeModel(false, 1));
+
+        ExpressionsBasedModel changed = ResultCacheTest.makeModel(true, 3);
+
+        TestUtils.assertEquals(ResultCache.fingerprint(ResultCacheTest.makeModel(false, 1)).structural, ResultCache.fingerprint(changed).structural);
+        TestUtils.assertNotEquals(ResultCache.fingerprint(ResultCacheTest.makeModel(false, 1)).exact, ResultCache.fingerprint(changed).exact);
+
+        Result expected = ResultCacheTest.makeModel(true, 3).maximise();
+        Result actual = cache.maximise(changed);
+
+        TestUtils.assertEquals(0L, cache.countHits());
+        TestUtils.assertEquals(1L, cache.countWarmStarts());
+
+        TestUtils.assertStateNotLessThanOptimal(actual);
+        TestUtils.assertEquals(expected.getValue(), actual.getValue(), ACCURACY);
+        TestUtils.assertTrue(changed.validate(actual, ACCURACY));
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.optimisation.Optimisation.Result;
+import org.ojalgo.optimisation.integer.IntegerStrategy;
+import org.ojalgo.optimisation.integer.NodeKey;
+import org.ojalgo.optimisation.linear.LinearSolver;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * Racing several solvers should give the same results as solving (a copy of) the model the normal way.
+ *
+ * @author apete
+ */
+public class SolverRaceTest extends OptimisationTests {
+
+    private static final NumberContext ACCURACY = NumberContext.of(7, 6);
+
+    private static void doCompare(final String dataset, final String name, final Set<String> contenders) {
+
+        ExpressionsBasedModel model = ModelFileTest.makeModel(dataset, name, false);
+
+        Result expected = model.copy().minimise();
+
+        SolverRace race = model.race();
+        Result actual = race.minimise();
+
+        TestUtils.assertStateNotLessThanOptimal(expected);
+        TestUtils.assertStateNotLessThanOptimal(actual);
+        TestUtils.assertEquals(expected.getValue(), actual.getValue(), ACCURACY);
+        TestUtils.assertTrue(model.validate(actual, ACCURACY));
+        TestUtils.assertTrue(contenders.contains(race.getWinner()));
+    }
+
+    /**
+     * A cancelled options instance should make the solvers stop (more or less) immediately.
+     */
+    @Test
+    public void testCancelled() {
+
+        ExpressionsBasedModel model = ModelFileTest.makeModel("miplib", "gr4x6.mps", false);
+
+        model.options.cancel();
+        TestUtils.assertTrue(model.options.isCancelled());
+        TestUtils.assertFalse(model.options.copy().isCancelled());
+
+        Result result = model.minimise();
+
+        TestUtils.assertFalse(result.getState().isOptimal());
+    }
+
+    @Test
+    public void testConfiguredContenders() {
+
+        ExpressionsBasedModel model = ModelFileTest.makeModel("miplib", "gr4x6.mps", false);
+
+        SolverRace race = model.race();
+        race.add("sequence", options -> options.integer(IntegerStrategy.DEFAULT.withPriorityDefinitions(NodeKey.EARLIEST_SEQUENCE)));
+        race.add("incapable", LinearSolver.INTEGRATION);
+        race.add("heuristics", options -> options.integer(IntegerStrategy.DEFAULT.withCutSeparators()));
+
+        Result result = race.minimise();
+
+        TestUtils.assertStateNotLessThanOptimal(result);
+        TestUtils.assertEquals(202.35, result.getValue(), ACCURACY);
+        TestUtils.assertTrue(Set.of("sequence", "heuristics").contains(race.getWinner()));
+    }
+
+    @Test
+    public void testIntegerGr4x6() {
+        SolverRaceTest.doCompare("miplib", "gr4x6.mps", Set.of("default", "objective", "displacement", "plain"));
+    }
+
+    @Test
+    public void testLinearADLITTLE() {
+        SolverRaceTest.doCompare("netlib", "ADLITTLE.SIF", Set.of("simplex", "interior-point"));
+    }
+
+    @Test
+    public void testQuadraticHS21() {
+        SolverRaceTest.doCompare("marosmeszaros", "HS21.SIF", Set.of("active-set", "interior-point"));
+    }
+
+}
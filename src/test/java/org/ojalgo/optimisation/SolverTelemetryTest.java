@@ -0,0 +1,134 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation;
+
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.optimisation.Optimisation.Result;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * Verifies that the solvers report to the {@link SolverTelemetry}, and that {@link SolverStatistics} can
+ * be accessed as an MBean.
+ *
+ * @author apete
+ */
+public class SolverTelemetryTest extends OptimisationTests {
+
+    private static final NumberContext ACCURACY = NumberContext.of(7, 6);
+
+    @Test
+    public void testInteger() throws JMException {
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName pattern = new ObjectName("ojAlgo:type=SolverStatistics-*");
+
+        Set<ObjectName> names = server.queryNames(pattern, null);
+        SolverStatistics statistics = new SolverStatistics().register();
+        Set<ObjectName> registered = server.queryNames(pattern, null);
+        registered.removeAll(names);
+
+        try {
+
+            ExpressionsBasedModel model = ModelFileTest.makeModel("miplib", "gr4x6.mps", false);
+            model.options.telemetry(statistics);
+
+            Result result = model.minimise();
+
+            TestUtils.assertStateNotLessThanOptimal(result);
+            TestUtils.assertTrue(statistics.getNodes() > 0L);
+            TestUtils.assertTrue(statistics.getSolves() >= statistics.getNodes());
+            TestUtils.assertTrue(statistics.getIterations() > 0L);
+            TestUtils.assertEquals(result.getValue(), statistics.getIncumbent(), ACCURACY);
+            TestUtils.assertTrue(statistics.getBound() <= statistics.getIncumbent());
+            TestUtils.assertTrue(statistics.getGap() >= 0.0);
+
+            TestUtils.assertEquals(1, registered.size());
+            for (ObjectName name : registered) {
+                TestUtils.assertEquals(statistics.getNodes(), ((Long) server.getAttribute(name, "Nodes")).longValue());
+            }
+
+        } finally {
+            for (ObjectName name : registered) {
+                server.unregisterMBean(name);
+            }
+        }
+    }
+
+    @Test
+    public void testLinear() {
+
+        AtomicInteger presolves = new AtomicInteger();
+        AtomicInteger solves = new AtomicInteger();
+        AtomicInteger iterations = new AtomicInteger();
+
+        ExpressionsBasedModel model = ModelFileTest.makeModel("netlib", "ADLITTLE.SIF", false);
+        model.options.telemetry(new SolverTelemetry() {
+
+            @Override
+            public void presolve(final int variables, final int remaining, final long duration) {
+                presolves.incrementAndGet();
+                TestUtils.assertTrue(remaining <= variables);
+            }
+
+            @Override
+            public void solve(final Class<?> solver, final Optimisation.State state, final int count, final long duration) {
+                solves.incrementAndGet();
+                iterations.addAndGet(count);
+                TestUtils.assertTrue(state.isOptimal());
+                TestUtils.assertTrue(Optimisation.Solver.class.isAssignableFrom(solver));
+            }
+
+        });
+
+        TestUtils.assertStateNotLessThanOptimal(model.minimise());
+        TestUtils.assertEquals(1, presolves.get());
+        TestUtils.assertEquals(1, solves.get());
+        TestUtils.assertTrue(iterations.get() > 0);
+
+        TestUtils.assertTrue(model.options.copy().telemetry() == model.options.telemetry());
+    }
+
+    @Test
+    public void testQuadraticInteriorPoint() {
+
+        SolverStatistics statistics = new SolverStatistics();
+
+        ExpressionsBasedModel model = ModelFileTest.makeModel("marosmeszaros", "HS21.SIF", false);
+        model.options.telemetry(statistics);
+        model.options.convex().interiorPoint(true);
+
+        TestUtils.assertStateNotLessThanOptimal(model.minimise());
+        TestUtils.assertEquals(1L, statistics.getSolves());
+        TestUtils.assertTrue(statistics.getFactorisations() >= statistics.getIterations());
+        TestUtils.assertEquals(0L, statistics.getNodes());
+    }
+
+}
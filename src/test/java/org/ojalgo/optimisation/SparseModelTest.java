@@ -0,0 +1,303 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.optimisation.Optimisation.Result;
+import org.ojalgo.type.context.NumberContext;
+
+public class SparseModelTest extends OptimisationTests {
+
+    private static final NumberContext ACCURACY = NumberContext.of(7, 6);
+
+    private static void doCompare(final ExpressionsBasedModel model, final boolean minimise) {
+
+        Result expected = minimise ? model.minimise() : model.maximise();
+
+        SparseModel sparse = SparseModel.of(model);
+        Result actual = minimise ? sparse.minimise() : sparse.maximise();
+
+        TestUtils.assertStateNotLessThanOptimal(actual);
+        TestUtils.assertEquals(expected.getValue(), actual.getValue(), ACCURACY);
+        TestUtils.assertTrue(sparse.validate(actual, ACCURACY.epsilon()));
+        TestUtils.assertTrue(model.validate(actual, ACCURACY));
+    }
+
+    private static void doParse(final String dataset, final String name, final boolean solve) {
+
+        ExpressionsBasedModel expected = ModelFileTest.makeModel(dataset, name, false);
+
+        SparseModel actual = SparseModel.parse(SparseModelTest.getResource(dataset, name));
+
+        TestUtils.assertEquals(expected.countVariables(), actual.countVariables());
+        TestUtils.assertEquals(SparseModel.of(expected).countNonzeros(), actual.countNonzeros());
+
+        for (int j = 0; j < actual.countVariables(); j++) {
+            Variable variable = expected.getVariable(j);
+            TestUtils.assertEquals(variable.getName(), actual.getVariableName(j));
+            TestUtils.assertEquals(variable.isInteger(), actual.isInteger(j));
+        }
+
+        if (solve) {
+            TestUtils.assertEquals(expected.minimise().getValue(), actual.minimise().getValue(), ACCURACY);
+        }
+    }
+
+    private static File getResource(final String dataset, final String name) {
+        try {
+            return new File(SparseModelTest.class.getResource("/optimisation/" + dataset + "/" + name).toURI());
+        } catch (URISyntaxException cause) {
+            throw new RuntimeException(cause);
+        }
+    }
+
+    @Test
+    public void testBuilder() {
+
+        SparseModel.Builder builder = SparseModel.newBuilder();
+
+        int x = builder.addVariable("X");
+        int y = builder.addVariable("Y");
+        int z = builder.addVariable(null);
+
+        int r0 = builder.addConstraint("R0");
+        int r1 = builder.addConstraint("R1");
+
+        builder.add(r1, z, 3.0);
+        builder.add(r0, y, 2.0);
+        builder.add(r1, x, 1.0);
+        builder.add(r0, x, 4.0);
+        builder.add(r0, y, 3.0); // Duplicate – summed
+        builder.limits(r0, 1.0, 10.0).upperLimit(r1, 5.0);
+        builder.bounds(x, 0.0, 1.0).lower(y, -1.0).integer(z, true);
+
+        TestUtils.assertEquals(1, builder.indexOfVariable("Y"));
+        TestUtils.assertEquals(-1, builder.indexOfVariable("Z"));
+        TestUtils.assertEquals(1, builder.indexOfConstraint("R1"));
+
+        SparseModel model = builder.build();
+
+        TestUtils.assertEquals(3, model.countVariables());
+        TestUtils.assertEquals(2, model.countConstraints());
+        TestUtils.assertEquals(4, model.countNonzeros());
+
+        TestUtils.assertEquals(2, model.countNonzeros(r0));
+        TestUtils.assertEquals(x, model.getColumn(r0, 0));
+        TestUtils.assertEquals(4.0, model.getValue(r0, 0));
+        TestUtils.assertEquals(y, model.getColumn(r0, 1));
+        TestUtils.assertEquals(5.0, model.getValue(r0, 1));
+
+        TestUtils.assertEquals(2, model.countNonzerosInColumn(x));
+        TestUtils.assertEquals(r0, model.getRow(x, 0));
+        TestUtils.assertEquals(r1, model.getRow(x, 1));
+        TestUtils.assertEquals(1.0, model.getValueInColumn(x, 1));
+        TestUtils.assertEquals(1, model.countNonzerosInColumn(z));
+
+        TestUtils.assertEquals(Double.NEGATIVE_INFINITY, model.getLowerLimit(r1));
+        TestUtils.assertEquals(Double.POSITIVE_INFINITY, model.getUpperBound(y));
+        TestUtils.assertTrue(model.isInteger(z));
+        TestUtils.assertTrue(model.isAnyVariableInteger());
+    }
+
+    /**
+     * When the directly fed solver's result fails validation the model is solved again (via
+     * {@link ExpressionsBasedModel}), and that is counted. Neither of these models should need that – GROW7
+     * (with its free variables) used to.
+     */
+    @Test
+    public void testFallback() {
+
+        for (String name : new String[] { "AFIRO.SIF", "GROW7.SIF" }) {
+
+            ExpressionsBasedModel model = ModelFileTest.makeModel("netlib", name, false);
+            Result expected = model.minimise();
+
+            SolverStatistics statistics = new SolverStatistics();
+            SparseModel sparse = SparseModel.of(model);
+            sparse.options.telemetry(statistics);
+
+            Result actual = sparse.minimise();
+
+            TestUtils.assertStateNotLessThanOptimal(actual);
+            TestUtils.assertEquals(expected.getValue(), actual.getValue(), ACCURACY);
+            TestUtils.assertTrue(sparse.validate(actual, ACCURACY.epsilon()));
+
+            TestUtils.assertEquals(name, 0L, statistics.getFallbacks());
+        }
+    }
+
+    @Test
+    public void testFromModelLinear() {
+        ExpressionsBasedModel model = ModelFileTest.makeModel("netlib", "AFIRO.SIF", false);
+        SparseModelTest.doCompare(model, true);
+        SparseModelTest.doCompare(model, false);
+    }
+
+    @Test
+    public void testFromModelQuadratic() {
+
+        ExpressionsBasedModel model = new ExpressionsBasedModel();
+
+        Variable x = model.newVariable("X").lower(0).weight(-2);
+        Variable y = model.newVariable("Y").lower(0).upper(3).weight(-6);
+
+        Expression quadratic = model.newExpression("Q").weight(1);
+        quadratic.set(x, x, 0.5).set(y, y, 1).set(x, y, -1);
+
+        model.newExpression("C1").upper(2).set(x, 1).set(y, 1);
+        model.newExpression("C2").upper(2).set(x, -1).set(y, 2);
+        model.newExpression("C3").upper(3).set(x, 2).set(y, 1);
+
+        SparseModelTest.doCompare(model, true);
+    }
+
+    @Test
+    public void testIntegerFallback() {
+
+        SparseModel.Builder builder = SparseModel.newBuilder();
+
+        int x = builder.addVariable("X");
+        int y = builder.addVariable("Y");
+        builder.bounds(x, 0, 10).bounds(y, 0, 10).integer(x, true).integer(y, true);
+        builder.objective(x, 1).objective(y, 1);
+        builder.addConstraint("C", Double.NEGATIVE_INFINITY, 7.5, new int[] { x, y }, new double[] { 2, 2 });
+
+        SparseModel model = builder.build();
+
+        Result result = model.maximise();
+
+        TestUtils.assertStateNotLessThanOptimal(result);
+        TestUtils.assertEquals(3.0, result.getValue(), ACCURACY);
+        TestUtils.assertTrue(model.validate(result, ACCURACY.epsilon()));
+    }
+
+    /**
+     * FORPLAN has row names containing spaces and can only be read as fixed format MPS.
+     */
+    @Test
+    public void testParseFixedFormat() {
+        SparseModelTest.doParse("netlib", "FORPLAN.SIF", false);
+    }
+
+    @Test
+    public void testParseFreeFormat() {
+        SparseModelTest.doParse("netlib", "AFIRO.SIF", true);
+        SparseModelTest.doParse("netlib", "ADLITTLE.SIF", true);
+    }
+
+    @Test
+    public void testParseGzip() throws IOException {
+
+        File file = File.createTempFile("AFIRO", ".mps.gz");
+        file.deleteOnExit();
+
+        try (OutputStream output = new GZIPOutputStream(new FileOutputStream(file))) {
+            Files.copy(SparseModelTest.getResource("netlib", "AFIRO.SIF").toPath(), output);
+        }
+
+        ExpressionsBasedModel expected = ModelFileTest.makeModel("netlib", "AFIRO.SIF", false);
+
+        TestUtils.assertEquals(expected.minimise().getValue(), SparseModel.parse(file).minimise().getValue(), ACCURACY);
+        TestUtils.assertEquals(expected.minimise().getValue(), ExpressionsBasedModel.parse(file).minimise().getValue(), ACCURACY);
+    }
+
+    @Test
+    public void testParseLP() throws IOException {
+
+        String lp = "\\ Comment line\n" + "Maximize\n" + " obj: x + 2 y + 3 z - 0.5 w + [ - x ^ 2 - 2 x * y - y ^ 2 ] / 2 + 1\n" + "Subject To\n"
+                + " c1: x + y + z <= 10\n" + " c2: x - y >= -2.5\n" + " r1: -3 <= x - z <= 4\n" + " w = 1\n" + "Bounds\n" + " 0 <= x <= 40\n"
+                + " y free\n" + " z <= 5\n" + " -inf <= w <= 1\n" + "Generals\n" + " z\n" + "Binary\n" + " b\n" + "End\n";
+
+        SparseModel model;
+        try (InputStream input = new ByteArrayInputStream(lp.getBytes(StandardCharsets.US_ASCII))) {
+            model = SparseModel.parse(input, ExpressionsBasedModel.FileFormat.LP);
+        }
+
+        TestUtils.assertEquals(5, model.countVariables());
+        TestUtils.assertEquals(4, model.countConstraints());
+        TestUtils.assertEquals(8, model.countNonzeros());
+
+        TestUtils.assertEquals("z", model.getVariableName(2));
+        TestUtils.assertTrue(model.isInteger(2));
+        TestUtils.assertEquals(5.0, model.getUpperBound(2));
+        TestUtils.assertEquals(Double.NEGATIVE_INFINITY, model.getLowerBound(1));
+        TestUtils.assertEquals(Double.NEGATIVE_INFINITY, model.getLowerBound(3));
+        TestUtils.assertTrue(model.isInteger(4));
+        TestUtils.assertEquals(1.0, model.getUpperBound(4));
+
+        TestUtils.assertEquals(-3.0, model.getLowerLimit(2));
+        TestUtils.assertEquals(4.0, model.getUpperLimit(2));
+
+        // x = 2, y = 0, z = 5, w = 1 and b = 0 gives 2 + 15 - 0.5 - 2 + 1
+        Result result = model.maximise();
+        TestUtils.assertStateNotLessThanOptimal(result);
+        TestUtils.assertEquals(15.5, result.getValue(), ACCURACY);
+        TestUtils.assertTrue(model.validate(result, ACCURACY.epsilon()));
+    }
+
+    @Test
+    public void testParseZip() throws IOException {
+
+        File file = File.createTempFile("AFIRO", ".mps.zip");
+        file.deleteOnExit();
+
+        try (ZipOutputStream output = new ZipOutputStream(new FileOutputStream(file))) {
+            output.putNextEntry(new ZipEntry("AFIRO.mps"));
+            Files.copy(SparseModelTest.getResource("netlib", "AFIRO.SIF").toPath(), output);
+        }
+
+        ExpressionsBasedModel expected = ModelFileTest.makeModel("netlib", "AFIRO.SIF", false);
+
+        SparseModel actual = SparseModel.parse(file);
+        TestUtils.assertEquals(expected.getVariables().size(), actual.countVariables());
+
+        TestUtils.assertEquals(expected.minimise().getValue(), actual.minimise().getValue(), ACCURACY);
+        TestUtils.assertEquals(expected.minimise().getValue(), ExpressionsBasedModel.parse(file).minimise().getValue(), ACCURACY);
+    }
+
+    @Test
+    public void testRoundTrip() {
+
+        ExpressionsBasedModel original = ModelFileTest.makeModel("netlib", "AFIRO.SIF", false);
+
+        ExpressionsBasedModel copy = SparseModel.of(original).toModel();
+
+        TestUtils.assertEquals(original.countVariables(), copy.countVariables());
+        TestUtils.assertEquals(original.minimise().getValue(), copy.minimise().getValue(), ACCURACY);
+        TestUtils.assertEquals(original.maximise().getValue(), copy.maximise().getValue(), ACCURACY);
+    }
+
+}
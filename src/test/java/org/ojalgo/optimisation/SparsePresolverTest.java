@@ -0,0 +1,172 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.optimisation.Optimisation.Result;
+import org.ojalgo.type.context.NumberContext;
+
+public class SparsePresolverTest extends OptimisationTests {
+
+    private static final NumberContext ACCURACY = NumberContext.of(7, 6);
+
+    private static void doCompare(final String name) {
+
+        ExpressionsBasedModel model = ModelFileTest.makeModel("netlib", name, false);
+        Result expected = model.minimise();
+
+        SparseModel sparse = SparseModel.of(model);
+        Result actual = sparse.minimise();
+
+        TestUtils.assertStateNotLessThanOptimal(actual);
+        TestUtils.assertEquals(expected.getValue(), actual.getValue(), ACCURACY);
+        TestUtils.assertTrue(sparse.validate(actual, ACCURACY.epsilon()));
+    }
+
+    @Test
+    public void testBOEING2() {
+        SparsePresolverTest.doCompare("BOEING2.SIF");
+    }
+
+    @Test
+    public void testBRANDY() {
+        SparsePresolverTest.doCompare("BRANDY.SIF");
+    }
+
+    @Test
+    public void testCoefficientTightening() {
+
+        // 3a + 4b + 2c <= 5 with binary variables – max activity 9 exceeds the limit, so coefficients can be
+        // tightened. The presolved (and tightened) model must have the same optimum.
+
+        SparseModel.Builder builder = SparseModel.newBuilder();
+
+        int a = builder.addVariable("A");
+        int b = builder.addVariable("B");
+        int c = builder.addVariable("C");
+        for (int j : new int[] { a, b, c }) {
+            builder.bounds(j, 0.0, 1.0).integer(j, true);
+        }
+        builder.objective(a, 5.0).objective(b, 6.0).objective(c, 3.0);
+        builder.addConstraint("K", Double.NEGATIVE_INFINITY, 5.0, new int[] { a, b, c }, new double[] { 3.0, 4.0, 2.0 });
+        builder.addConstraint("L", 1.0, Double.POSITIVE_INFINITY, new int[] { a, c }, new double[] { 7.0, 1.0 });
+
+        SparseModel model = builder.build();
+
+        Result expected = model.toModel().maximise();
+        Result actual = model.maximise();
+
+        TestUtils.assertStateNotLessThanOptimal(actual);
+        TestUtils.assertEquals(expected.getValue(), actual.getValue(), ACCURACY);
+        TestUtils.assertTrue(model.validate(actual, ACCURACY.epsilon()));
+    }
+
+    @Test
+    public void testDoubletonSubstitution() {
+
+        // x - 2y = 1 (doubleton equality), x + y >= 4, 0 <= x <= 10, 0 <= y <= 10, min x + 3y
+
+        SparseModel.Builder builder = SparseModel.newBuilder();
+
+        int x = builder.addVariable("X");
+        int y = builder.addVariable("Y");
+        builder.bounds(x, 0.0, 10.0).bounds(y, 0.0, 10.0);
+        builder.objective(x, 1.0).objective(y, 3.0);
+        builder.addConstraint("E", 1.0, 1.0, new int[] { x, y }, new double[] { 1.0, -2.0 });
+        builder.addConstraint("G", 4.0, Double.POSITIVE_INFINITY, new int[] { x, y }, new double[] { 1.0, 1.0 });
+
+        SparseModel model = builder.build();
+
+        SparsePresolver presolver = new SparsePresolver(model);
+        SparseModel reduced = presolver.reduce();
+
+        TestUtils.assertFalse(presolver.isInfeasible());
+        TestUtils.assertTrue(reduced.countVariables() < model.countVariables());
+
+        Result actual = model.minimise();
+
+        TestUtils.assertStateNotLessThanOptimal(actual);
+        TestUtils.assertEquals(3.0, actual.doubleValue(x), ACCURACY);
+        TestUtils.assertEquals(1.0, actual.doubleValue(y), ACCURACY);
+        TestUtils.assertEquals(6.0, actual.getValue(), ACCURACY);
+    }
+
+    @Test
+    public void testGROW7() {
+        SparsePresolverTest.doCompare("GROW7.SIF");
+    }
+
+    @Test
+    public void testInfeasible() {
+
+        // x + y >= 5 while x <= 1 and y <= 2
+
+        SparseModel.Builder builder = SparseModel.newBuilder();
+
+        int x = builder.addVariable("X");
+        int y = builder.addVariable("Y");
+        builder.bounds(x, 0.0, 1.0).bounds(y, 0.0, 2.0);
+        builder.objective(x, 1.0).objective(y, 1.0);
+        builder.addConstraint("C", 5.0, Double.POSITIVE_INFINITY, new int[] { x, y }, new double[] { 1.0, 1.0 });
+
+        SparseModel model = builder.build();
+
+        SparsePresolver presolver = new SparsePresolver(model);
+
+        TestUtils.assertTrue(presolver.reduce() == null);
+        TestUtils.assertTrue(presolver.isInfeasible());
+
+        TestUtils.assertStateLessThanFeasible(model.minimise());
+    }
+
+    @Test
+    public void testSC50A() {
+        SparsePresolverTest.doCompare("SC50A.SIF");
+    }
+
+    @Test
+    public void testSingletonRows() {
+
+        // Singleton rows are turned into bounds, and the row removed. The bounds must be applied also for
+        // continuous variables – otherwise the constraint is lost.
+
+        SparseModel.Builder builder = SparseModel.newBuilder();
+
+        int x = builder.addVariable("X");
+        int y = builder.addVariable("Y");
+        builder.bounds(x, 0.0, 10.0).bounds(y, 0.0, 10.0);
+        builder.objective(x, 1.0).objective(y, 2.0);
+        builder.addConstraint("S", Double.NEGATIVE_INFINITY, 6.0, new int[] { x }, new double[] { 2.0 });
+        builder.addConstraint("C", 4.0, Double.POSITIVE_INFINITY, new int[] { x, y }, new double[] { 1.0, 1.0 });
+
+        SparseModel model = builder.build();
+
+        Result actual = model.minimise();
+
+        TestUtils.assertStateNotLessThanOptimal(actual);
+        TestUtils.assertEquals(3.0, actual.doubleValue(x), ACCURACY);
+        TestUtils.assertEquals(1.0, actual.doubleValue(y), ACCURACY);
+        TestUtils.assertEquals(5.0, actual.getValue(), ACCURACY);
+    }
+
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.convex;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.optimisation.Expression;
+import org.ojalgo.optimisation.ExpressionsBasedModel;
+import org.ojalgo.optimisation.Optimisation;
+import org.ojalgo.optimisation.SparseModel;
+import org.ojalgo.optimisation.Variable;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * Compares the {@link ADMMSolver} with the default solvers, or with known optimal values. The ADMM solver
+ * only reaches moderate accuracy.
+ *
+ * @author apete
+ */
+public class ADMMSolverTest extends OptimisationConvexTests {
+
+    private static final NumberContext ACCURACY = NumberContext.of(4, 4);
+    private static final NumberContext SOLUTION = NumberContext.of(2, 4);
+
+    private static void doKnown(final String name, final double optimal) {
+
+        ExpressionsBasedModel model = ADMMSolverTest.makeModel(name);
+
+        Optimisation.Result result = ADMMSolver.of(SparseModel.of(model), model.options).solve();
+
+        TestUtils.assertStateNotLessThanOptimal(result);
+        TestUtils.assertEquals(optimal, result.getValue(), ACCURACY);
+    }
+
+    private static ExpressionsBasedModel makeModel(final String name) {
+        try (InputStream input = ExpressionsBasedModel.class.getResourceAsStream("/optimisation/marosmeszaros/" + name)) {
+            return ExpressionsBasedModel.parse(input, ExpressionsBasedModel.FileFormat.from(name));
+        } catch (IOException cause) {
+            TestUtils.fail(cause);
+            return null;
+        }
+    }
+
+    /**
+     * Mean-variance portfolio: min 1/2 x'Cx - r'x subject to sum(x) = 1 and 0 <= x <= 0.5
+     */
+    private static ExpressionsBasedModel makePortfolio(final double[][] covariances, final double[] returns) {
+
+        ExpressionsBasedModel model = new ExpressionsBasedModel();
+
+        int nbAssets = returns.length;
+        for (int j = 0; j < nbAssets; j++) {
+            model.addVariable("X" + j).lower(0).upper(0.5).weight(-returns[j]);
+        }
+
+        Expression variance = model.addExpression("VARIANCE").weight(0.5);
+        for (int i = 0; i < nbAssets; i++) {
+            for (int j = 0; j < nbAssets; j++) {
+                variance.set(i, j, covariances[i][j]);
+            }
+        }
+
+        Expression budget = model.addExpression("BUDGET").level(1);
+        for (int j = 0; j < nbAssets; j++) {
+            budget.set(j, 1);
+        }
+
+        return model;
+    }
+
+    @Test
+    public void testInfeasible() {
+
+        ExpressionsBasedModel model = new ExpressionsBasedModel();
+        Variable x = model.addVariable("X").lower(0).weight(1);
+        Variable y = model.addVariable("Y").lower(0).weight(1);
+
+        Expression upper = model.addExpression("UPPER").upper(1);
+        upper.set(x, 1);
+        upper.set(y, 1);
+
+        Expression lower = model.addExpression("LOWER").lower(2);
+        lower.set(x, 1);
+        lower.set(y, 1);
+
+        Optimisation.Result result = ADMMSolver.of(SparseModel.of(model), model.options).solve();
+
+        TestUtils.assertEquals(Optimisation.State.INFEASIBLE, result.getState());
+    }
+
+    @Test
+    public void testKnownHS21() {
+        ADMMSolverTest.doKnown("HS21.SIF", -9.9960000000E+01);
+    }
+
+    @Test
+    public void testKnownHS35() {
+        ADMMSolverTest.doKnown("HS35.SIF", 1.1111111111E-01);
+    }
+
+    @Test
+    public void testKnownHS118() {
+        ADMMSolverTest.doKnown("HS118.SIF", 6.6482045000E+02);
+    }
+
+    /**
+     * The same solver instance re-solved with changed returns (linear factors) and bounds should produce
+     * the same results as solving new models from scratch.
+     */
+    @Test
+    public void testResolve() {
+
+        int nbAssets = 10;
+        Random random = new Random(123);
+
+        double[][] factors = new double[nbAssets][3];
+        for (int i = 0; i < nbAssets; i++) {
+            for (int k = 0; k < 3; k++) {
+                factors[i][k] = 0.1 * random.nextGaussian();
+            }
+        }
+        double[][] covariances = new double[nbAssets][nbAssets];
+        for (int i = 0; i < nbAssets; i++) {
+            for (int j = 0; j < nbAssets; j++) {
+                for (int k = 0; k < 3; k++) {
+                    covariances[i][j] += factors[i][k] * factors[j][k];
+                }
+            }
+            covariances[i][i] += 0.01;
+        }
+
+        double[] returns = new double[nbAssets];
+
+        ADMMSolver solver = null;
+
+        for (int round = 0; round < 10; round++) {
+
+            for (int j = 0; j < nbAssets; j++) {
+                returns[j] = 0.05 + 0.02 * random.nextGaussian();
+            }
+
+            ExpressionsBasedModel model = ADMMSolverTest.makePortfolio(covariances, returns);
+            if (round % 2 == 1) {
+                model.getVariable(0).upper(0.1);
+            }
+
+            Optimisation.Result expected = model.minimise();
+
+            if (solver == null) {
+                solver = ADMMSolver.of(SparseModel.of(model), model.options);
+            } else {
+                for (int j = 0; j < nbAssets; j++) {
+                    solver.setLinearFactor(j, -returns[j]);
+                }
+                solver.setBounds(0, 0.0, round % 2 == 1 ? 0.1 : 0.5);
+            }
+
+            Optimisation.Result actual = solver.solve();
+
+            TestUtils.assertStateNotLessThanOptimal(actual);
+            TestUtils.assertEquals(expected.getValue(), actual.getValue(), ACCURACY);
+            for (int j = 0; j < nbAssets; j++) {
+                TestUtils.assertEquals(expected.doubleValue(j), actual.doubleValue(j), SOLUTION);
+            }
+        }
+    }
+
+    @Test
+    public void testUnbounded() {
+
+        ExpressionsBasedModel model = new ExpressionsBasedModel();
+        Variable x = model.addVariable("X").lower(0).weight(-1);
+        Variable y = model.addVariable("Y").lower(0).weight(-1);
+
+        Expression difference = model.addExpression("DIFFERENCE").upper(1);
+        difference.set(x, 1);
+        difference.set(y, -1);
+
+        Optimisation.Result result = ADMMSolver.of(SparseModel.of(model), model.options).solve();
+
+        TestUtils.assertEquals(Optimisation.State.UNBOUNDED, result.getState());
+    }
+
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.convex;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.optimisation.Expression;
+import org.ojalgo.optimisation.ExpressionsBasedModel;
+import org.ojalgo.optimisation.Optimisation;
+import org.ojalgo.optimisation.SparseModel;
+import org.ojalgo.optimisation.Variable;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * Compares the {@link InteriorPointSolver} with the default solvers, or with known optimal values.
+ *
+ * @author apete
+ */
+public class InteriorPointSolverTest extends OptimisationConvexTests {
+
+    private static final NumberContext ACCURACY = NumberContext.of(7, 6);
+
+    private static void doCompare(final String dataset, final String name, final boolean quadratic) {
+
+        ExpressionsBasedModel model = InteriorPointSolverTest.makeModel(dataset, name);
+
+        Optimisation.Result expected = model.minimise();
+
+        if (quadratic) {
+            model.options.convex().interiorPoint(true);
+        } else {
+            model.options.linear().interiorPoint(true);
+        }
+
+        Optimisation.Result actual = model.minimise();
+
+        TestUtils.assertStateNotLessThanOptimal(actual);
+        TestUtils.assertEquals(expected.getValue(), actual.getValue(), ACCURACY);
+        TestUtils.assertTrue(model.validate(actual, ACCURACY));
+    }
+
+    private static void doKnown(final String dataset, final String name, final double optimal) {
+
+        ExpressionsBasedModel model = InteriorPointSolverTest.makeModel(dataset, name);
+
+        Optimisation.Result result = InteriorPointSolver.of(SparseModel.of(model), model.options).solve();
+
+        TestUtils.assertStateNotLessThanOptimal(result);
+        TestUtils.assertEquals(optimal, result.getValue(), ACCURACY);
+        TestUtils.assertTrue(model.validate(result, ACCURACY));
+    }
+
+    private static ExpressionsBasedModel makeModel(final String dataset, final String name) {
+        try (InputStream input = ExpressionsBasedModel.class.getResourceAsStream("/optimisation/" + dataset + "/" + name)) {
+            return ExpressionsBasedModel.parse(input, ExpressionsBasedModel.FileFormat.from(name));
+        } catch (IOException cause) {
+            TestUtils.fail(cause);
+            return null;
+        }
+    }
+
+    @Test
+    public void testInfeasible() {
+
+        ExpressionsBasedModel model = new ExpressionsBasedModel();
+        Variable x = model.addVariable("X").lower(0).weight(1);
+        Variable y = model.addVariable("Y").lower(0).weight(1);
+
+        Expression upper = model.addExpression("UPPER").upper(1);
+        upper.set(x, 1);
+        upper.set(y, 1);
+
+        Expression lower = model.addExpression("LOWER").lower(2);
+        lower.set(x, 1);
+        lower.set(y, 1);
+
+        model.options.linear().interiorPoint(true);
+        Optimisation.Result result = model.minimise();
+
+        TestUtils.assertStateLessThanFeasible(result);
+    }
+
+    @Test
+    public void testKnownDUALC1() {
+        InteriorPointSolverTest.doKnown("marosmeszaros", "DUALC1.SIF", 6.1552508296E+03);
+    }
+
+    @Test
+    public void testKnownHS21() {
+        InteriorPointSolverTest.doKnown("marosmeszaros", "HS21.SIF", -9.9960000000E+01);
+    }
+
+    @Test
+    public void testKnownHS35() {
+        InteriorPointSolverTest.doKnown("marosmeszaros", "HS35.SIF", 1.1111111111E-01);
+    }
+
+    @Test
+    public void testKnownQAFIRO() {
+        InteriorPointSolverTest.doKnown("marosmeszaros", "QAFIRO.SIF", -1.5907817894E+00);
+    }
+
+    @Test
+    public void testNetlibADLITTLE() {
+        InteriorPointSolverTest.doCompare("netlib", "ADLITTLE.SIF", false);
+    }
+
+    @Test
+    public void testNetlibAFIRO() {
+        InteriorPointSolverTest.doCompare("netlib", "AFIRO.SIF", false);
+    }
+
+    @Test
+    public void testNetlibBLEND() {
+        InteriorPointSolverTest.doCompare("netlib", "BLEND.SIF", false);
+    }
+
+    @Test
+    public void testQuadraticHS21() {
+        InteriorPointSolverTest.doCompare("marosmeszaros", "HS21.SIF", true);
+    }
+
+    @Test
+    public void testUnbounded() {
+
+        ExpressionsBasedModel model = new ExpressionsBasedModel();
+        Variable x = model.addVariable("X").lower(0).weight(1);
+        Variable y = model.addVariable("Y").lower(0).weight(1);
+
+        Expression difference = model.addExpression("DIFFERENCE").upper(1);
+        difference.set(x, 1);
+        difference.set(y, -1);
+
+        model.options.linear().interiorPoint(true);
+        Optimisation.Result result = model.maximise();
+
+        TestUtils.assertEquals(Optimisation.State.UNBOUNDED, result.getState());
+    }
+
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.convex;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.store.Primitive64Store;
+import org.ojalgo.matrix.store.SparseStore;
+import org.ojalgo.optimisation.Expression;
+import org.ojalgo.optimisation.ExpressionsBasedModel;
+import org.ojalgo.optimisation.Optimisation;
+import org.ojalgo.optimisation.SparseModel;
+import org.ojalgo.optimisation.Variable;
+import org.ojalgo.structure.Access1D;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * Compares the sparse KKT path, {@link SparseQPESolver} and {@link QPESolver} with
+ * {@link Optimisation.Options#sparse} set, with the dense {@link QPESolver}.
+ *
+ * @author apete
+ */
+public class SparseQPESolverTest extends OptimisationConvexTests {
+
+    private static final NumberContext ACCURACY = NumberContext.of(8, 8);
+
+    /**
+     * Minimise a tridiagonal (diagonally dominant) quadratic form subject to random sparse equality
+     * constraints, each involving 3 variables.
+     */
+    private static ExpressionsBasedModel makeModel(final int nbVariables, final int nbConstraints, final long seed) {
+
+        Random random = new Random(seed);
+
+        ExpressionsBasedModel model = new ExpressionsBasedModel();
+
+        for (int j = 0; j < nbVariables; j++) {
+            model.addVariable("X" + j).weight(random.nextGaussian());
+        }
+
+        Expression quadratic = model.addExpression("QUADRATIC").weight(0.5);
+        for (int j = 0; j < nbVariables; j++) {
+            quadratic.set(j, j, 3.0 + random.nextDouble());
+            if (j + 1 < nbVariables) {
+                quadratic.set(j, j + 1, -1.0);
+                quadratic.set(j + 1, j, -1.0);
+            }
+        }
+
+        for (int i = 0; i < nbConstraints; i++) {
+            Expression constraint = model.addExpression("C" + i).level(random.nextGaussian());
+            for (int k = 0; k < 3; k++) {
+                constraint.set(random.nextInt(nbVariables), 1.0 + random.nextDouble());
+            }
+        }
+
+        return model;
+    }
+
+    @Test
+    public void testCompareDense() {
+
+        ExpressionsBasedModel model = SparseQPESolverTest.makeModel(200, 50, 123L);
+
+        model.options.sparse = Boolean.FALSE;
+        Optimisation.Result expected = model.minimise();
+
+        TestUtils.assertStateNotLessThanOptimal(expected);
+
+        Optimisation.Result actual = SparseQPESolver.of(SparseModel.of(model), model.options).solve();
+
+        TestUtils.assertStateNotLessThanOptimal(actual);
+        TestUtils.assertEquals(expected.getValue(), actual.getValue(), ACCURACY);
+        TestUtils.assertEquals((Access1D<?>) expected, actual, ACCURACY);
+        TestUtils.assertTrue(model.validate(actual, ACCURACY));
+
+        model.options.sparse = Boolean.TRUE;
+        TestUtils.assertTrue(SparseQPESolver.INTEGRATION.isCapable(model));
+
+        Optimisation.Result routed = model.minimise();
+
+        TestUtils.assertStateNotLessThanOptimal(routed);
+        TestUtils.assertEquals(expected.getValue(), routed.getValue(), ACCURACY);
+    }
+
+    @Test
+    public void testFixedVariables() {
+
+        ExpressionsBasedModel model = SparseQPESolverTest.makeModel(50, 10, 456L);
+        model.getVariable(7).level(1.5);
+        model.getVariable(23).level(-0.5);
+
+        model.options.sparse = Boolean.FALSE;
+        Optimisation.Result expected = model.minimise();
+
+        Optimisation.Result actual = SparseQPESolver.of(SparseModel.of(model), model.options).solve();
+
+        TestUtils.assertStateNotLessThanOptimal(actual);
+        TestUtils.assertEquals(1.5, actual.doubleValue(7));
+        TestUtils.assertEquals(-0.5, actual.doubleValue(23));
+        TestUtils.assertEquals(expected.getValue(), actual.getValue(), ACCURACY);
+        TestUtils.assertTrue(model.validate(actual, ACCURACY));
+    }
+
+    @Test
+    public void testInfeasible() {
+
+        ExpressionsBasedModel model = new ExpressionsBasedModel();
+        Variable x = model.addVariable("X").weight(1);
+        Variable y = model.addVariable("Y").weight(1);
+
+        Expression quadratic = model.addExpression("QUADRATIC").weight(1);
+        quadratic.set(x, x, 1);
+        quadratic.set(y, y, 1);
+
+        Expression first = model.addExpression("FIRST").level(1);
+        first.set(x, 1);
+        first.set(y, 1);
+
+        Expression second = model.addExpression("SECOND").level(2);
+        second.set(x, 1);
+        second.set(y, 1);
+
+        Optimisation.Result result = SparseQPESolver.of(SparseModel.of(model), model.options).solve();
+
+        TestUtils.assertEquals(Optimisation.State.INFEASIBLE, result.getState());
+    }
+
+    /**
+     * Large enough that {@link ExpressionsBasedModel} picks the sparse solver by default. The dense KKT
+     * matrix would have more than 10^8 elements.
+     */
+    @Test
+    public void testLarge() {
+
+        ExpressionsBasedModel model = SparseQPESolverTest.makeModel(10_000, 2_500, 789L);
+
+        TestUtils.assertTrue(SparseQPESolver.INTEGRATION.isCapable(model));
+
+        Optimisation.Result result = model.minimise();
+
+        TestUtils.assertStateNotLessThanOptimal(result);
+        TestUtils.assertTrue(model.validate(result, ACCURACY));
+    }
+
+    /**
+     * {@link QPESolver} built directly, with dense [Q] and sparse [AE], with and without the sparse KKT path.
+     */
+    @Test
+    public void testQPESolver() {
+
+        int nbVariables = 100;
+        int nbConstraints = 30;
+        Random random = new Random(321L);
+
+        Primitive64Store mtrxQ = Primitive64Store.FACTORY.make(nbVariables, nbVariables);
+        Primitive64Store mtrxC = Primitive64Store.FACTORY.make(nbVariables, 1);
+        for (int j = 0; j < nbVariables; j++) {
+            mtrxQ.set(j, j, 3.0 + random.nextDouble());
+            if (j + 1 < nbVariables) {
+                mtrxQ.set(j, j + 1, -1.0);
+                mtrxQ.set(j + 1, j, -1.0);
+            }
+            mtrxC.set(j, random.nextGaussian());
+        }
+
+        SparseStore<Double> mtrxAE = SparseStore.R064.make(nbConstraints, nbVariables);
+        Primitive64Store mtrxBE = Primitive64Store.FACTORY.make(nbConstraints, 1);
+        for (int i = 0; i < nbConstraints; i++) {
+            for (int k = 0; k < 3; k++) {
+                mtrxAE.set(i, random.nextInt(nbVariables), 1.0 + random.nextDouble());
+            }
+            mtrxBE.set(i, random.nextGaussian());
+        }
+
+        Optimisation.Options dense = new Optimisation.Options();
+        dense.sparse = Boolean.FALSE;
+        Optimisation.Result expected = ConvexSolver.newBuilder().objective(mtrxQ, mtrxC).equalities(mtrxAE, mtrxBE).build(dense).solve();
+
+        Optimisation.Options sparse = new Optimisation.Options();
+        sparse.sparse = Boolean.TRUE;
+        Optimisation.Result actual = ConvexSolver.newBuilder().objective(mtrxQ, mtrxC).equalities(mtrxAE, mtrxBE).build(sparse).solve();
+
+        TestUtils.assertStateNotLessThanOptimal(expected);
+        TestUtils.assertStateNotLessThanOptimal(actual);
+        TestUtils.assertEquals(expected.getValue(), actual.getValue(), ACCURACY);
+        TestUtils.assertEquals((Access1D<?>) expected, actual, ACCURACY);
+    }
+
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.integer;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.optimisation.ExpressionsBasedModel;
+import org.ojalgo.optimisation.Optimisation.Result;
+import org.ojalgo.optimisation.Optimisation.State;
+import org.ojalgo.optimisation.Variable;
+import org.ojalgo.structure.Access1D;
+
+public class CutSeparatorsTest extends OptimisationIntegerTests {
+
+    /**
+     * Every binary (0/1) point that is feasible with respect to the model's constraints must satisfy every
+     * cut.
+     */
+    static void assertValid(final ExpressionsBasedModel model, final List<CutPool.Cut> cuts) {
+
+        int nbVars = model.countVariables();
+
+        for (int combination = 0; combination < 1 << nbVars; combination++) {
+
+            double[] point = new double[nbVars];
+            for (int j = 0; j < nbVars; j++) {
+                point[j] = combination >> j & 1;
+            }
+
+            if (model.validate(new Result(State.FEASIBLE, Access1D.wrap(point)))) {
+                for (CutPool.Cut cut : cuts) {
+                    TestUtils.assertTrue(cut.toString(), cut.efficacy(point) <= CutSeparators.EPSILON);
+                }
+            }
+        }
+    }
+
+    static List<CutPool.Cut> separate(final CutSeparator separator, final ExpressionsBasedModel model, final double... point) {
+
+        CutPool pool = new CutPool(model);
+        ModelStrategy strategy = IntegerStrategy.DEFAULT.newModelStrategy(model);
+
+        List<CutPool.Cut> retVal = pool.separate(List.of(separator), Access1D.wrap(point), strategy, CutPool.MAX_CUTS);
+
+        for (CutPool.Cut cut : retVal) {
+            TestUtils.assertTrue(cut.toString(), cut.efficacy(point) > CutPool.MIN_EFFICACY);
+        }
+
+        return retVal;
+    }
+
+    @Test
+    public void testClique() {
+
+        ExpressionsBasedModel model = new ExpressionsBasedModel();
+        Variable x0 = model.newVariable("X0").binary();
+        Variable x1 = model.newVariable("X1").binary();
+        Variable x2 = model.newVariable("X2").binary();
+
+        model.addExpression("01").set(x0, 1).set(x1, 1).upper(1);
+        model.addExpression("12").set(x1, 1).set(x2, 1).upper(1);
+        model.addExpression("02").set(x0, 1).set(x2, 1).upper(1);
+
+        List<CutPool.Cut> cuts = CutSeparatorsTest.separate(CutSeparators.CLIQUE, model, 0.5, 0.5, 0.5);
+
+        TestUtils.assertEquals(1, cuts.size());
+        TestUtils.assertEquals(3, cuts.get(0).indices.length);
+        TestUtils.assertEquals(1.0, cuts.get(0).rhs, 1E-6);
+
+        CutSeparatorsTest.assertValid(model, cuts);
+    }
+
+    @Test
+    public void testComplementedCover() {
+
+        ExpressionsBasedModel model = new ExpressionsBasedModel();
+        Variable x0 = model.newVariable("X0").binary();
+        Variable x1 = model.newVariable("X1").binary();
+        Variable x2 = model.newVariable("X2").binary();
+
+        // 5*x0 - 4*x1 + 3*x2 <= 4 (the same as 5*x0 + 4*(1-x1) + 3*x2 <= 8)
+        model.addExpression("Knapsack").set(x0, 5).set(x1, -4).set(x2, 3).upper(4);
+
+        List<CutPool.Cut> cuts = CutSeparatorsTest.separate(CutSeparators.COVER, model, 1.0, 0.25, 0.0);
+
+        TestUtils.assertFalse(cuts.isEmpty());
+
+        CutSeparatorsTest.assertValid(model, cuts);
+    }
+
+    @Test
+    public void testCover() {
+
+        ExpressionsBasedModel model = new ExpressionsBasedModel();
+        Variable x0 = model.newVariable("X0").binary();
+        Variable x1 = model.newVariable("X1").binary();
+        Variable x2 = model.newVariable("X2").binary();
+        Variable x3 = model.newVariable("X3").binary();
+
+        model.addExpression("Knapsack").set(x0, 5).set(x1, 4).set(x2, 3).set(x3, 1).upper(8);
+
+        List<CutPool.Cut> cuts = CutSeparatorsTest.separate(CutSeparators.COVER, model, 1.0, 0.75, 0.0, 0.0);
+
+        TestUtils.assertFalse(cuts.isEmpty());
+
+        CutSeparatorsTest.assertValid(model, cuts);
+
+        // Not violated by an integer point
+        TestUtils.assertTrue(CutSeparatorsTest.separate(CutSeparators.COVER, model, 1.0, 0.0, 1.0, 0.0).isEmpty());
+    }
+
+    @Test
+    public void testDefaultAndNoSeparatorsAgree() {
+
+        ExpressionsBasedModel withDefault = PrimalHeuristicsTest.makeKnapsack();
+        Result expected = withDefault.minimise();
+
+        ExpressionsBasedModel withNone = PrimalHeuristicsTest.makeKnapsack();
+        withNone.options.integer(IntegerStrategy.DEFAULT.withCutSeparators());
+        Result actual = withNone.minimise();
+
+        TestUtils.assertStateNotLessThanOptimal(expected);
+        TestUtils.assertStateNotLessThanOptimal(actual);
+        TestUtils.assertEquals(expected.getValue(), actual.getValue(), 1E-6);
+        TestUtils.assertEquals(-15.0, expected.getValue(), 1E-6);
+    }
+
+    @Test
+    public void testMIR() {
+
+        ExpressionsBasedModel model = new ExpressionsBasedModel();
+        Variable x = model.newVariable("X").integer(true).lower(0).upper(10);
+        Variable y = model.newVariable("Y").lower(0);
+
+        // 2x - y <= 3 has the MIR cut x - y <= 1
+        model.addExpression("Row").set(x, 2).set(y, -1).upper(3);
+
+        List<CutPool.Cut> cuts = CutSeparatorsTest.separate(CutSeparators.MIR, model, 1.5, 0.0);
+
+        TestUtils.assertEquals(1, cuts.size());
+
+        CutPool.Cut cut = cuts.get(0);
+        TestUtils.assertEquals(2, cut.indices.length);
+        TestUtils.assertEquals(1.0, cut.coefficients[0], 1E-6);
+        TestUtils.assertEquals(-1.0, cut.coefficients[1], 1E-6);
+        TestUtils.assertEquals(1.0, cut.rhs, 1E-6);
+
+        // Valid for all integer x, and a range of y values
+        for (int xv = 0; xv <= 10; xv++) {
+            for (double yv = 0.0; yv <= 20.0; yv += 0.25) {
+                if (2.0 * xv - yv <= 3.0) {
+                    TestUtils.assertTrue(cut.efficacy(new double[] { xv, yv }) <= CutSeparators.EPSILON);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPoolDeduplicationAndParallelism() {
+
+        ExpressionsBasedModel model = new ExpressionsBasedModel();
+        model.newVariable("X0").binary();
+        model.newVariable("X1").binary();
+
+        CutPool pool = new CutPool(model);
+
+        CutPool.Cut cut1 = pool.newCut(CutSeparators.COVER, new int[] { 0, 1 }, new double[] { 2.0, 2.0 }, 2.0);
+        CutPool.Cut cut2 = pool.newCut(CutSeparators.COVER, new int[] { 1, 0 }, new double[] { 1.0, 1.0 }, 0.5);
+        CutPool.Cut cut3 = pool.newCut(CutSeparators.COVER, new int[] { 0, 1 }, new double[] { 1.0, 0.9 }, 1.0);
+
+        TestUtils.assertEquals(cut1, cut2);
+        TestUtils.assertEquals(1.0, cut1.parallelism(cut2), 1E-9);
+
+        pool.add(List.of(cut1, cut2, cut3));
+
+        // Duplicates merged, keeping the tightest
+        TestUtils.assertEquals(2, pool.size());
+
+        List<CutPool.Cut> selected = pool.select(new double[] { 1.0, 1.0 }, CutPool.MAX_CUTS);
+        TestUtils.assertEquals(1, selected.size());
+        TestUtils.assertEquals(0.5, selected.get(0).rhs, 1E-6);
+
+        // Not violated – ages and is eventually purged
+        for (int i = 0; i <= CutPool.MAX_AGE; i++) {
+            TestUtils.assertTrue(pool.select(new double[] { 0.0, 0.0 }, CutPool.MAX_CUTS).isEmpty());
+        }
+        TestUtils.assertEquals(0, pool.size());
+    }
+
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.integer;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.optimisation.Expression;
+import org.ojalgo.optimisation.ExpressionsBasedModel;
+import org.ojalgo.optimisation.Optimisation;
+import org.ojalgo.optimisation.Optimisation.Result;
+import org.ojalgo.optimisation.Variable;
+
+public class PrimalHeuristicsTest extends OptimisationIntegerTests {
+
+    private static final int[] VALUES = { 4, 2, 1, 2, 10 };
+    private static final int[] WEIGHTS = { 12, 2, 1, 1, 4 };
+
+    /**
+     * A (minimisation) knapsack problem where the LP relaxation has exactly 1 fractional variable (the first
+     * item).
+     */
+    static ExpressionsBasedModel makeKnapsack() {
+
+        ExpressionsBasedModel model = new ExpressionsBasedModel();
+
+        Expression capacity = model.newExpression("Capacity").upper(15);
+
+        for (int i = 0; i < WEIGHTS.length; i++) {
+            Variable item = model.newVariable("Item" + i).binary().weight(-VALUES[i]);
+            capacity.set(item, WEIGHTS[i]);
+        }
+
+        return model;
+    }
+
+    /**
+     * A (minimisation) knapsack problem, with 2 capacity constraints, that requires branching.
+     */
+    static ExpressionsBasedModel makeMultiKnapsack() {
+
+        ExpressionsBasedModel model = new ExpressionsBasedModel();
+
+        Expression capacity1 = model.newExpression("Capacity1").upper(100);
+        Expression capacity2 = model.newExpression("Capacity2").upper(90);
+
+        Random random = new Random(1);
+        for (int i = 0; i < 30; i++) {
+            Variable item = model.newVariable("Item" + i).binary().weight(-(10 + random.nextInt(30)));
+            capacity1.set(item, 5 + random.nextInt(20));
+            capacity2.set(item, 5 + random.nextInt(20));
+        }
+
+        return model;
+    }
+
+    static Optimisation.Result search(final PrimalHeuristic heuristic, final ExpressionsBasedModel model, final Optimisation.Result incumbent) {
+
+        // Sets the optimisation sense (solving the problem is a side effect)
+        model.minimise();
+
+        IntegerSolver solver = IntegerSolver.make(model);
+        ModelStrategy strategy = IntegerStrategy.DEFAULT.newModelStrategy(model);
+
+        Optimisation.Result relaxed = model.snapshot().prepare(NodeSolver::new).solve();
+        TestUtils.assertStateNotLessThanOptimal(relaxed);
+
+        NodeKey root = new NodeKey(model);
+        PrimalHeuristic.Context context = new PrimalHeuristic.Context(solver, model, strategy, root, relaxed, incumbent);
+
+        TestUtils.assertTrue(heuristic.isApplicable(root, incumbent != null));
+
+        return heuristic.search(context);
+    }
+
+    @Test
+    public void testDefaultAndNoHeuristicsAgree() {
+
+        ExpressionsBasedModel withDefault = PrimalHeuristicsTest.makeKnapsack();
+        Result expected = withDefault.minimise();
+
+        ExpressionsBasedModel withNone = PrimalHeuristicsTest.makeKnapsack();
+        withNone.options.integer(IntegerStrategy.DEFAULT.withPrimalHeuristics());
+        Result actual = withNone.minimise();
+
+        TestUtils.assertStateNotLessThanOptimal(expected);
+        TestUtils.assertStateNotLessThanOptimal(actual);
+        TestUtils.assertEquals(-15.0, expected.getValue());
+        TestUtils.assertEquals(expected.getValue(), actual.getValue());
+    }
+
+    @Test
+    public void testFeasibilityPump() {
+        this.doTest(PrimalHeuristics.FEASIBILITY_PUMP, null);
+    }
+
+    @Test
+    public void testFractionalDiving() {
+        this.doTest(PrimalHeuristics.FRACTIONAL_DIVING, null);
+    }
+
+    @Test
+    public void testGuidedDiving() {
+        Result incumbent = Result.of(-11.0, Optimisation.State.FEASIBLE, 0.0, 0.0, 1.0, 0.0, 1.0);
+        this.doTest(PrimalHeuristics.GUIDED_DIVING, incumbent);
+    }
+
+    /**
+     * Heuristics are invoked at most once per node – not again when the node is re-solved after cuts were
+     * added.
+     */
+    @Test
+    public void testOncePerNode() {
+
+        Set<Long> visited = ConcurrentHashMap.newKeySet();
+        AtomicBoolean repeated = new AtomicBoolean();
+
+        PrimalHeuristic recorder = new PrimalHeuristic(1, false) {
+
+            @Override
+            protected Result search(final Context context) {
+                if (!visited.add(Long.valueOf(context.getNode().sequence))) {
+                    repeated.set(true);
+                }
+                return null;
+            }
+
+        };
+
+        ExpressionsBasedModel withNone = PrimalHeuristicsTest.makeMultiKnapsack();
+        withNone.options.integer(IntegerStrategy.DEFAULT.withPrimalHeuristics());
+        Result expected = withNone.minimise();
+
+        ExpressionsBasedModel withRecorder = PrimalHeuristicsTest.makeMultiKnapsack();
+        withRecorder.options.integer(IntegerStrategy.DEFAULT.withPrimalHeuristics(recorder));
+        Result actual = withRecorder.minimise();
+
+        TestUtils.assertStateNotLessThanOptimal(actual);
+        TestUtils.assertEquals(expected.getValue(), actual.getValue());
+        TestUtils.assertFalse(visited.isEmpty());
+        TestUtils.assertFalse(repeated.get());
+    }
+
+    /**
+     * The incumbent agrees with the relaxed solution on 3 of the 5 variables – enough to fix them and solve
+     * the remaining sub-MIP.
+     */
+    @Test
+    public void testRINS() {
+        Result incumbent = Result.of(-13.0, Optimisation.State.FEASIBLE, 0.0, 1.0, 1.0, 0.0, 1.0);
+        this.doTest(PrimalHeuristics.RINS, incumbent);
+    }
+
+    /**
+     * Rounding the fractional item (7/12) to the nearest integer breaks the capacity constraint.
+     */
+    @Test
+    public void testSimpleRounding() {
+        Result result = PrimalHeuristicsTest.search(PrimalHeuristics.SIMPLE_ROUNDING, PrimalHeuristicsTest.makeKnapsack(), null);
+        TestUtils.assertTrue(result == null);
+    }
+
+    @Test
+    public void testZIRounding() {
+        this.doTest(PrimalHeuristics.ZI_ROUNDING, null);
+    }
+
+    private void doTest(final PrimalHeuristic heuristic, final Result incumbent) {
+
+        ExpressionsBasedModel model = PrimalHeuristicsTest.makeKnapsack();
+
+        Result result = PrimalHeuristicsTest.search(heuristic, model, incumbent);
+
+        TestUtils.assertTrue(heuristic.toString(), result != null);
+        TestUtils.assertStateNotLessThanFeasible(result);
+        TestUtils.assertTrue(model.validate(result));
+
+        if (incumbent != null) {
+            TestUtils.assertTrue(result.toString(), result.getValue() < incumbent.getValue());
+        }
+    }
+
+}
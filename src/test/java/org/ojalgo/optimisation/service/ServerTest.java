@@ -0,0 +1,193 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.netio.ServiceClient;
+import org.ojalgo.netio.ServiceClient.Response;
+import org.ojalgo.optimisation.Expression;
+import org.ojalgo.optimisation.ExpressionsBasedModel;
+import org.ojalgo.optimisation.Optimisation;
+import org.ojalgo.optimisation.Optimisation.Result;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * Solving using a local {@link OptimisationService.Server} should give the same results as solving
+ * in-process.
+ *
+ * @author apete
+ */
+public class ServerTest {
+
+    private static final NumberContext ACCURACY = NumberContext.of(7, 6);
+
+    /**
+     * A small knapsack style integer model, parameterised so that each instance is different.
+     */
+    private static ExpressionsBasedModel makeModel(final int instance) {
+
+        ExpressionsBasedModel model = new ExpressionsBasedModel();
+
+        Expression capacity = model.addExpression("CAPACITY").upper(10 + instance % 7);
+
+        for (int j = 0; j < 6; j++) {
+            model.addVariable("X" + j).binary().weight(1 + (j * instance) % 5);
+            capacity.set(j, 2 + (j + instance) % 4);
+        }
+
+        return model;
+    }
+
+    private OptimisationService.Server myServer = null;
+
+    @BeforeEach
+    public void startServer() {
+        myServer = OptimisationService.newServer(0, 2).start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        ExpressionsBasedModel.clearIntegrations();
+        myServer.stop();
+    }
+
+    @Test
+    public void testBatch() {
+
+        OptimisationService.Client client = OptimisationService.newClient(myServer.getHost(), 4);
+
+        List<CompletableFuture<Result>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(client.maximise(ServerTest.makeModel(i)));
+        }
+
+        // 2 full batches have been sent, the last 2 models are still queued
+        TestUtils.assertFalse(futures.get(9).isDone());
+
+        client.flush();
+
+        for (int i = 0; i < 10; i++) {
+
+            Result expected = ServerTest.makeModel(i).maximise();
+            Result actual = futures.get(i).join();
+
+            TestUtils.assertStateNotLessThanOptimal(actual);
+            TestUtils.assertEquals(expected.getValue(), actual.getValue(), ACCURACY);
+            TestUtils.assertTrue(ServerTest.makeModel(i).validate(actual, ACCURACY));
+        }
+    }
+
+    @Test
+    public void testEndpoints() {
+
+        TestUtils.assertTrue(myServer.getAddress().getAddress().isLoopbackAddress());
+
+        Response<String> test = ServiceClient.get(myServer.getHost() + OptimisationService.PATH_TEST);
+        TestUtils.assertTrue(test.isResponseOK());
+        TestUtils.assertTrue(test.getBody().contains("VALID"));
+
+        Response<String> environment = ServiceClient.get(myServer.getHost() + OptimisationService.PATH_ENVIRONMENT);
+        TestUtils.assertTrue(environment.isResponseOK());
+    }
+
+    /**
+     * Malformed batch requests get a 400 (Bad Request) response, and the server keeps serving.
+     */
+    @Test
+    public void testInvalidBatch() throws IOException {
+
+        String url = myServer.getHost() + OptimisationService.PATH_BATCH;
+
+        ByteArrayOutputStream negative = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(negative)) {
+            output.writeInt(-1);
+        }
+        TestUtils.assertEquals(400, ServiceClient.post(url, negative.toByteArray()).getStatusCode());
+
+        ByteArrayOutputStream huge = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(huge)) {
+            output.writeInt(1);
+            output.writeUTF(Optimisation.Sense.MAX.name());
+            output.writeInt(Integer.MAX_VALUE);
+        }
+        TestUtils.assertEquals(400, ServiceClient.post(url, huge.toByteArray()).getStatusCode());
+
+        ByteArrayOutputStream truncated = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(truncated)) {
+            output.writeInt(3);
+        }
+        TestUtils.assertEquals(400, ServiceClient.post(url, truncated.toByteArray()).getStatusCode());
+
+        TestUtils.assertTrue(ServiceClient.get(myServer.getHost() + OptimisationService.PATH_TEST).isResponseOK());
+    }
+
+    @Test
+    public void testIntegration() {
+
+        ExpressionsBasedModel model = new ExpressionsBasedModel();
+
+        model.newVariable("A").weight(10).lower(0);
+        model.newVariable("B").weight(-10).lower(0);
+
+        model.newExpression("UM2").set(0, 1).set(1, 1).level(2);
+
+        Result expMax = model.maximise();
+        Result expMin = model.minimise();
+
+        ExpressionsBasedModel.addIntegration(OptimisationService.newIntegration(myServer.getHost()));
+
+        Result actMax = model.maximise();
+        Result actMin = model.minimise();
+
+        TestUtils.assertStateAndSolution(expMax, actMax);
+        TestUtils.assertStateAndSolution(expMin, actMin);
+    }
+
+    @Test
+    public void testSolve() {
+
+        OptimisationService.Client client = OptimisationService.newClient(myServer.getHost(), 3);
+
+        List<ExpressionsBasedModel> models = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            models.add(ServerTest.makeModel(i));
+        }
+
+        List<Result> results = client.solve(models, Optimisation.Sense.MIN);
+
+        TestUtils.assertEquals(models.size(), results.size());
+        for (int i = 0; i < models.size(); i++) {
+            TestUtils.assertEquals(0.0, results.get(i).getValue(), ACCURACY);
+        }
+    }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 1997-2022 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.structure;
+
+import java.util.Spliterator;
+
+import org.junit.jupiter.api.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.array.Array1D;
+import org.ojalgo.array.ArrayR064;
+import org.ojalgo.array.SparseArray;
+import org.ojalgo.function.aggregator.Aggregator;
+import org.ojalgo.matrix.store.Primitive64Store;
+import org.ojalgo.matrix.store.RawStore;
+import org.ojalgo.random.Normal;
+import org.ojalgo.tensor.AnyTensor;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * Sequential and parallel {@link java.util.stream.DoubleStream}s over various structures should see the same
+ * elements as plain index based iteration.
+ *
+ * @author apete
+ */
+public class SpliteratorTest {
+
+    private static final NumberContext ACCURACY = NumberContext.of(12);
+
+    private static double sum(final Access1D<?> values) {
+        double retVal = 0.0;
+        for (long i = 0L, limit = values.count(); i < limit; i++) {
+            retVal += values.doubleValue(i);
+        }
+        return retVal;
+    }
+
+    private static void doTest(final Access1D<?> values) {
+
+        double expected = SpliteratorTest.sum(values);
+
+        TestUtils.assertEquals(values.count(), values.doubleStream(false).count());
+        TestUtils.assertEquals(values.count(), values.doubleStream(true).count());
+
+        TestUtils.assertEquals(expected, values.doubleStream(false).sum(), ACCURACY);
+        TestUtils.assertEquals(expected, values.doubleStream(true).sum(), ACCURACY);
+
+        TestUtils.assertEquals(values.count(), values.doubleSpliterator().getExactSizeIfKnown());
+    }
+
+    @Test
+    public void testArray1D() {
+
+        Array1D<Double> array = Array1D.R064.make(1_000);
+        array.fillAll(new Normal());
+
+        SpliteratorTest.doTest(array);
+        SpliteratorTest.doTest(array.sliceRange(17L, 900L));
+
+        Access1D.DoubleSpliterator strided = new Access1D.DoubleSpliterator(array, 3L, 1_000L, 7L);
+        TestUtils.assertEquals(143L, strided.estimateSize());
+        Spliterator.OfDouble prefix = strided.trySplit();
+        TestUtils.assertEquals(143L, prefix.estimateSize() + strided.estimateSize());
+    }
+
+    @Test
+    public void testMatrixRowsAndColumns() {
+
+        Primitive64Store dense = Primitive64Store.FACTORY.makeFilled(7, 5, new Normal());
+        RawStore raw = RawStore.FACTORY.copy(dense);
+
+        SpliteratorTest.doTest(dense);
+        SpliteratorTest.doTest(raw);
+
+        for (Access2D.RowView<Double> row : dense.rows()) {
+            SpliteratorTest.doTest(row);
+        }
+
+        for (Access2D.ColumnView<Double> column : raw.columns()) {
+            SpliteratorTest.doTest(column);
+        }
+    }
+
+    @Test
+    public void testSparseNonzeros() {
+
+        SparseArray<Double> sparse = SparseArray.factory(ArrayR064.FACTORY).limit(1_000_000L).make();
+        long nonzeros = 0L;
+        for (long i = 3L; i < 1_000_000L; i += 997L) {
+            sparse.set(i, i);
+            nonzeros++;
+        }
+
+        TestUtils.assertEquals(nonzeros, sparse.nonzeros().doubleStream(true).count());
+        TestUtils.assertEquals(sparse.aggregateAll(Aggregator.SUM).doubleValue(), sparse.nonzeros().doubleStream(true).sum(), ACCURACY);
+    }
+
+    @Test
+    public void testTensor() {
+
+        AnyTensor<Double> tensor = AnyTensor.factory(ArrayR064.FACTORY).make(4, 4, 4);
+        for (long i = 0L; i < tensor.count(); i++) {
+            tensor.set(i, i);
+        }
+
+        SpliteratorTest.doTest(tensor);
+    }
+
+}